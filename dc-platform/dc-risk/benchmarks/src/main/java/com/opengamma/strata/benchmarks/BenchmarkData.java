@@ -0,0 +1,227 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.benchmarks;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.date.Tenor;
+import com.opengamma.strata.collect.io.ResourceLocator;
+import com.opengamma.strata.data.ImmutableMarketData;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.examples.marketdata.ExampleMarketData;
+import com.opengamma.strata.examples.marketdata.ExampleMarketDataBuilder;
+import com.opengamma.strata.examples.marketdata.credit.markit.MarkitRedCode;
+import com.opengamma.strata.loader.csv.QuotesCsvLoader;
+import com.opengamma.strata.loader.csv.RatesCalibrationCsvLoader;
+import com.opengamma.strata.market.curve.CurveGroupDefinition;
+import com.opengamma.strata.market.curve.CurveGroupName;
+import com.opengamma.strata.market.curve.NodalCurve;
+import com.opengamma.strata.market.observable.QuoteId;
+import com.opengamma.strata.measure.rate.RatesMarketDataLookup;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+import com.opengamma.strata.product.Trade;
+import com.opengamma.strata.product.common.BuySell;
+import com.opengamma.strata.product.credit.CdsTrade;
+import com.opengamma.strata.product.credit.RestructuringClause;
+import com.opengamma.strata.product.credit.SeniorityLevel;
+import com.opengamma.strata.product.credit.SingleNameReferenceInformation;
+import com.opengamma.strata.product.credit.type.CdsConventions;
+import com.opengamma.strata.product.swap.ResolvedSwapTrade;
+import com.opengamma.strata.product.swap.SwapTrade;
+import com.opengamma.strata.product.swap.type.FixedIborSwapConvention;
+import com.opengamma.strata.product.swap.type.FixedIborSwapConventions;
+
+/**
+ * Fixtures for the benchmarks, built from the example market data.
+ * <p>
+ * The data is loaded once, when this class is initialized, thus loading is not measured by the benchmarks.
+ */
+public final class BenchmarkData {
+
+  /**
+   * The reference data.
+   */
+  public static final ReferenceData REF_DATA = ReferenceData.standard();
+  /**
+   * The valuation date of the example rates market data.
+   */
+  public static final LocalDate VAL_DATE = LocalDate.of(2014, 1, 22);
+  /**
+   * The valuation date of the example credit market data.
+   */
+  public static final LocalDate CREDIT_VAL_DATE = LocalDate.of(2014, 10, 16);
+  /**
+   * The valuation date of the example calibration quotes.
+   */
+  public static final LocalDate CALIBRATION_VAL_DATE = LocalDate.of(2015, 7, 21);
+  /**
+   * The name of the curve group calibrated from the example calibration data.
+   */
+  public static final CurveGroupName CALIBRATION_GROUP_NAME = CurveGroupName.of("USD-DSCON-LIBOR3M");
+  /**
+   * The reference information of the single name CDS, present in the example credit market data.
+   */
+  public static final SingleNameReferenceInformation CDS_REFERENCE = SingleNameReferenceInformation.of(
+      MarkitRedCode.id("COMP01"),
+      SeniorityLevel.SENIOR_UNSECURED_FOREIGN,
+      Currency.USD,
+      RestructuringClause.NO_RESTRUCTURING_2014);
+
+  /**
+   * The builder of the example market data.
+   */
+  private static final ExampleMarketDataBuilder MARKET_DATA_BUILDER = ExampleMarketData.builder();
+  /**
+   * The root of the example calibration data.
+   */
+  private static final String CALIBRATION_ROOT = ResourceLocator.CLASSPATH_URL_PREFIX + "example-calibration/";
+  /**
+   * The swap conventions used to generate trades.
+   */
+  private static final FixedIborSwapConvention[] CONVENTIONS = {
+      FixedIborSwapConventions.USD_FIXED_6M_LIBOR_3M,
+      FixedIborSwapConventions.USD_FIXED_1Y_LIBOR_3M};
+  /**
+   * The swap tenors used to generate trades.
+   */
+  private static final Tenor[] TENORS = {
+      Tenor.TENOR_2Y, Tenor.TENOR_5Y, Tenor.TENOR_7Y, Tenor.TENOR_10Y, Tenor.TENOR_15Y, Tenor.TENOR_30Y};
+
+  /**
+   * Restricted constructor.
+   */
+  private BenchmarkData() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the example market data for the valuation date.
+   *
+   * @param valuationDate  the valuation date
+   * @return the market data
+   */
+  public static MarketData marketData(LocalDate valuationDate) {
+    return MARKET_DATA_BUILDER.buildSnapshot(valuationDate);
+  }
+
+  /**
+   * Gets the rates market data lookup for the valuation date.
+   *
+   * @param valuationDate  the valuation date
+   * @return the lookup
+   */
+  public static RatesMarketDataLookup ratesLookup(LocalDate valuationDate) {
+    return MARKET_DATA_BUILDER.ratesLookup(valuationDate);
+  }
+
+  /**
+   * Gets the rates provider built from the example curves at {@link #VAL_DATE}.
+   *
+   * @return the rates provider
+   */
+  public static RatesProvider ratesProvider() {
+    return ratesLookup(VAL_DATE).ratesProvider(marketData(VAL_DATE));
+  }
+
+  /**
+   * Gets the discount curve of the currency from the example curves at {@link #VAL_DATE}.
+   *
+   * @param currency  the currency
+   * @return the discount curve
+   */
+  public static NodalCurve discountCurve(Currency currency) {
+    return (NodalCurve) ratesProvider().toImmutableRatesProvider().getDiscountCurves().get(currency);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the curve group definition of the example calibration data.
+   *
+   * @return the curve group definition
+   */
+  public static CurveGroupDefinition calibrationDefinition() {
+    ImmutableMap<CurveGroupName, CurveGroupDefinition> defns = RatesCalibrationCsvLoader.load(
+        ResourceLocator.of(CALIBRATION_ROOT + "curves/groups.csv"),
+        ResourceLocator.of(CALIBRATION_ROOT + "curves/settings.csv"),
+        ResourceLocator.of(CALIBRATION_ROOT + "curves/calibrations.csv"));
+    return defns.get(CALIBRATION_GROUP_NAME).filtered(CALIBRATION_VAL_DATE, REF_DATA);
+  }
+
+  /**
+   * Gets the quotes of the example calibration data.
+   *
+   * @return the market data containing the quotes
+   */
+  public static MarketData calibrationQuotes() {
+    ImmutableMap<QuoteId, Double> quotes = QuotesCsvLoader.load(
+        CALIBRATION_VAL_DATE, ResourceLocator.of(CALIBRATION_ROOT + "quotes/quotes.csv"));
+    return ImmutableMarketData.of(CALIBRATION_VAL_DATE, quotes);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Creates a USD fixed versus Libor swap trade.
+   * <p>
+   * The convention, tenor and rate vary with the index, so a portfolio can be generated from a range of indices.
+   *
+   * @param index  the index of the trade
+   * @return the trade
+   */
+  public static SwapTrade swapTrade(int index) {
+    FixedIborSwapConvention convention = CONVENTIONS[index % CONVENTIONS.length];
+    Tenor tenor = TENORS[index % TENORS.length];
+    BuySell buySell = index % 2 == 0 ? BuySell.BUY : BuySell.SELL;
+    double rate = 0.01 + (index % 50) * 0.0005;
+    return convention.createTrade(VAL_DATE, tenor, buySell, 1_000_000d * (1 + index % 10), rate, REF_DATA);
+  }
+
+  /**
+   * Creates a resolved USD fixed versus Libor swap trade.
+   *
+   * @param index  the index of the trade
+   * @return the resolved trade
+   */
+  public static ResolvedSwapTrade resolvedSwapTrade(int index) {
+    return swapTrade(index).resolve(REF_DATA);
+  }
+
+  /**
+   * Creates the single name CDS trade on {@link #CDS_REFERENCE}.
+   *
+   * @return the trade
+   */
+  public static CdsTrade cdsTrade() {
+    return CdsConventions.USD_NORTH_AMERICAN.toTrade(
+        LocalDate.of(2014, 9, 22),
+        LocalDate.of(2019, 12, 20),
+        BuySell.BUY,
+        100_000_000d,
+        0.0100,
+        CDS_REFERENCE,
+        3_694_117.73d,
+        LocalDate.of(2014, 10, 21));
+  }
+
+  /**
+   * Generates a portfolio of swap trades.
+   *
+   * @param size  the number of trades
+   * @return the trades
+   */
+  public static List<Trade> portfolio(int size) {
+    return IntStream.range(0, size)
+        .mapToObj(BenchmarkData::swapTrade)
+        .collect(toImmutableList());
+  }
+
+}
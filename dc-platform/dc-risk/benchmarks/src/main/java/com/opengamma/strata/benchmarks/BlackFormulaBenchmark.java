@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.opengamma.strata.pricer.impl.option.BlackFormulaRepository;
+
+/**
+ * Benchmarks the Black formula.
+ * <p>
+ * Each benchmark evaluates the formula over a grid of strikes and expiries, including in and out of the money options.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class BlackFormulaBenchmark {
+
+  /**
+   * The forward.
+   */
+  private static final double FORWARD = 0.02;
+  /**
+   * The volatility.
+   */
+  private static final double VOLATILITY = 0.35;
+  /**
+   * The strikes.
+   */
+  private static final double[] STRIKES = {0.005, 0.01, 0.015, 0.02, 0.025, 0.03, 0.04, 0.05};
+  /**
+   * The times to expiry.
+   */
+  private static final double[] EXPIRIES = {0.25, 0.5, 1d, 2d, 5d, 10d};
+
+  /**
+   * The call prices, by strike and expiry.
+   */
+  private double[][] prices;
+
+  /**
+   * Sets up the prices used for the implied volatility.
+   */
+  @Setup
+  public void setUp() {
+    prices = new double[STRIKES.length][EXPIRIES.length];
+    for (int i = 0; i < STRIKES.length; i++) {
+      for (int j = 0; j < EXPIRIES.length; j++) {
+        prices[i][j] = BlackFormulaRepository.price(FORWARD, STRIKES[i], EXPIRIES[j], VOLATILITY, true);
+      }
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Benchmarks the price.
+   *
+   * @param blackhole  the blackhole
+   */
+  @Benchmark
+  public void price(Blackhole blackhole) {
+    for (double strike : STRIKES) {
+      for (double expiry : EXPIRIES) {
+        blackhole.consume(BlackFormulaRepository.price(FORWARD, strike, expiry, VOLATILITY, true));
+      }
+    }
+  }
+
+  /**
+   * Benchmarks the vega.
+   *
+   * @param blackhole  the blackhole
+   */
+  @Benchmark
+  public void vega(Blackhole blackhole) {
+    for (double strike : STRIKES) {
+      for (double expiry : EXPIRIES) {
+        blackhole.consume(BlackFormulaRepository.vega(FORWARD, strike, expiry, VOLATILITY));
+      }
+    }
+  }
+
+  /**
+   * Benchmarks the implied volatility.
+   *
+   * @param blackhole  the blackhole
+   */
+  @Benchmark
+  public void impliedVolatility(Blackhole blackhole) {
+    for (int i = 0; i < STRIKES.length; i++) {
+      for (int j = 0; j < EXPIRIES.length; j++) {
+        blackhole.consume(BlackFormulaRepository.impliedVolatility(prices[i][j], FORWARD, STRIKES[i], EXPIRIES[j], true));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.calc.CalculationRules;
+import com.opengamma.strata.calc.CalculationRunner;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.measure.Measures;
+import com.opengamma.strata.measure.StandardComponents;
+import com.opengamma.strata.product.Trade;
+
+/**
+ * Benchmarks an end-to-end calculation of a portfolio using the multi-threaded calculation runner.
+ * <p>
+ * The portfolio consists of generated swaps, valued with the example market data.
+ * The calculated measures are the present value, the par rate and the sum of the calibrated PV01.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculationRunnerBenchmark {
+
+  /**
+   * The columns.
+   */
+  private static final List<Column> COLUMNS = ImmutableList.of(
+      Column.of(Measures.PRESENT_VALUE),
+      Column.of(Measures.PAR_RATE),
+      Column.of(Measures.PV01_CALIBRATED_SUM));
+
+  /**
+   * The number of trades in the portfolio.
+   */
+  @Param({"100", "1000"})
+  private int portfolioSize;
+  /**
+   * The portfolio.
+   */
+  private List<Trade> trades;
+  /**
+   * The calculation rules.
+   */
+  private CalculationRules rules;
+  /**
+   * The market data.
+   */
+  private MarketData marketData;
+  /**
+   * The runner.
+   */
+  private CalculationRunner runner;
+
+  /**
+   * Sets up the portfolio, market data and runner.
+   */
+  @Setup
+  public void setUp() {
+    trades = BenchmarkData.portfolio(portfolioSize);
+    rules = CalculationRules.of(
+        StandardComponents.calculationFunctions(), BenchmarkData.ratesLookup(BenchmarkData.VAL_DATE));
+    marketData = BenchmarkData.marketData(BenchmarkData.VAL_DATE);
+    runner = CalculationRunner.ofMultiThreaded();
+  }
+
+  /**
+   * Closes the runner.
+   */
+  @TearDown
+  public void tearDown() {
+    runner.close();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Benchmarks the calculation of the portfolio.
+   *
+   * @return the results
+   */
+  @Benchmark
+  public Results calculate() {
+    return runner.calculate(rules, trades, COLUMNS, marketData, BenchmarkData.REF_DATA);
+  }
+
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.market.curve.CurveGroupDefinition;
+import com.opengamma.strata.pricer.curve.CurveCalibrationCache;
+import com.opengamma.strata.pricer.curve.CurveCalibrator;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
+
+/**
+ * Benchmarks the calibration of a curve group.
+ * <p>
+ * The group is the USD discounting and Libor 3M group of the example calibration data.
+ * The warm-started calibration uses a cache holding the result of calibrating the same quotes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CurveCalibrationBenchmark {
+
+  /**
+   * The calibrator.
+   */
+  private static final CurveCalibrator CALIBRATOR = CurveCalibrator.standard();
+
+  /**
+   * The curve group definition.
+   */
+  private CurveGroupDefinition definition;
+  /**
+   * The quotes.
+   */
+  private MarketData quotes;
+  /**
+   * The calibrator using a cache.
+   */
+  private CurveCalibrator cachedCalibrator;
+
+  /**
+   * Sets up the definition, quotes and cache.
+   */
+  @Setup
+  public void setUp() {
+    definition = BenchmarkData.calibrationDefinition();
+    quotes = BenchmarkData.calibrationQuotes();
+    cachedCalibrator = CALIBRATOR.withCache(CurveCalibrationCache.of());
+    cachedCalibrator.calibrate(definition, quotes, BenchmarkData.REF_DATA);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Benchmarks the calibration.
+   *
+   * @return the calibrated rates provider
+   */
+  @Benchmark
+  public ImmutableRatesProvider calibrate() {
+    return CALIBRATOR.calibrate(definition, quotes, BenchmarkData.REF_DATA);
+  }
+
+  /**
+   * Benchmarks the calibration when the result of calibrating the same quotes is cached.
+   *
+   * @return the calibrated rates provider
+   */
+  @Benchmark
+  public ImmutableRatesProvider calibrateCached() {
+    return cachedCalibrator.calibrate(definition, quotes, BenchmarkData.REF_DATA);
+  }
+
+}
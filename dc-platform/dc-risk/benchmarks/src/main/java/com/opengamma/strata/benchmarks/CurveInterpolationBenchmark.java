@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.market.curve.InterpolatedNodalCurve;
+import com.opengamma.strata.market.curve.NodalCurve;
+import com.opengamma.strata.market.curve.interpolator.CurveInterpolator;
+
+/**
+ * Benchmarks the evaluation of an interpolated curve, for each interpolator.
+ * <p>
+ * The nodes of the curve are those of the example USD discount curve.
+ * Each benchmark evaluates the curve at a fixed set of points spread over the range of the nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CurveInterpolationBenchmark {
+
+  /**
+   * The number of points at which the curve is evaluated.
+   */
+  private static final int POINT_COUNT = 100;
+
+  /**
+   * The name of the interpolator.
+   */
+  @Param({
+      "Linear",
+      "LogLinear",
+      "SquareLinear",
+      "DoubleQuadratic",
+      "TimeSquare",
+      "NaturalCubicSpline",
+      "NaturalSpline",
+      "ProductLinear"})
+  private String interpolatorName;
+  /**
+   * The curve.
+   */
+  private InterpolatedNodalCurve curve;
+  /**
+   * The points at which the curve is evaluated.
+   */
+  private double[] points;
+
+  /**
+   * Sets up the curve and the points.
+   */
+  @Setup
+  public void setUp() {
+    NodalCurve baseCurve = BenchmarkData.discountCurve(Currency.USD);
+    DoubleArray xValues = baseCurve.getXValues();
+    curve = InterpolatedNodalCurve.of(
+        baseCurve.getMetadata(), xValues, baseCurve.getYValues(), CurveInterpolator.of(interpolatorName));
+    double first = xValues.get(0);
+    double last = xValues.get(xValues.size() - 1);
+    points = new double[POINT_COUNT];
+    for (int i = 0; i < POINT_COUNT; i++) {
+      points[i] = first + (last - first) * (i + 0.5d) / POINT_COUNT;
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Benchmarks the value of the curve.
+   *
+   * @param blackhole  the blackhole
+   */
+  @Benchmark
+  public void yValue(Blackhole blackhole) {
+    for (double x : points) {
+      blackhole.consume(curve.yValue(x));
+    }
+  }
+
+  /**
+   * Benchmarks the first derivative of the curve.
+   *
+   * @param blackhole  the blackhole
+   */
+  @Benchmark
+  public void firstDerivative(Blackhole blackhole) {
+    for (double x : points) {
+      blackhole.consume(curve.firstDerivative(x));
+    }
+  }
+
+  /**
+   * Benchmarks the sensitivity of the value of the curve to its parameters.
+   *
+   * @param blackhole  the blackhole
+   */
+  @Benchmark
+  public void yValueParameterSensitivity(Blackhole blackhole) {
+    for (double x : points) {
+      blackhole.consume(curve.yValueParameterSensitivity(x));
+    }
+  }
+
+  /**
+   * Benchmarks the creation of the curve, which includes binding the interpolator to the nodes.
+   *
+   * @return the curve
+   */
+  @Benchmark
+  public InterpolatedNodalCurve bind() {
+    return curve.withYValues(curve.getYValues());
+  }
+
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.benchmarks;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.pricer.credit.IsdaCdsPricer;
+import com.opengamma.strata.pricer.credit.IsdaCreditCurveInputs;
+import com.opengamma.strata.pricer.credit.IsdaSingleNameCreditCurveInputsId;
+import com.opengamma.strata.pricer.credit.IsdaSingleNameRecoveryRateId;
+import com.opengamma.strata.pricer.credit.IsdaYieldCurveInputs;
+import com.opengamma.strata.pricer.credit.IsdaYieldCurveInputsId;
+import com.opengamma.strata.product.credit.ResolvedCds;
+
+/**
+ * Benchmarks the ISDA pricer of a single name CDS.
+ * <p>
+ * The yield and credit curve inputs are those of the example credit market data.
+ * Each call builds the ISDA curves from the inputs, so the curve bootstrap is included in the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class IsdaCdsPricerBenchmark {
+
+  /**
+   * The pricer.
+   */
+  private static final IsdaCdsPricer PRICER = IsdaCdsPricer.DEFAULT;
+
+  /**
+   * The product.
+   */
+  private ResolvedCds product;
+  /**
+   * The yield curve inputs.
+   */
+  private IsdaYieldCurveInputs yieldCurveInputs;
+  /**
+   * The credit curve inputs.
+   */
+  private IsdaCreditCurveInputs creditCurveInputs;
+  /**
+   * The recovery rate.
+   */
+  private double recoveryRate;
+  /**
+   * The valuation date.
+   */
+  private LocalDate valuationDate;
+
+  /**
+   * Sets up the product and market data.
+   */
+  @Setup
+  public void setUp() {
+    valuationDate = BenchmarkData.CREDIT_VAL_DATE;
+    MarketData marketData = BenchmarkData.marketData(valuationDate);
+    product = BenchmarkData.cdsTrade().resolve(BenchmarkData.REF_DATA).getProduct();
+    yieldCurveInputs = marketData.getValue(IsdaYieldCurveInputsId.of(product.getCurrency()));
+    creditCurveInputs = marketData.getValue(IsdaSingleNameCreditCurveInputsId.of(BenchmarkData.CDS_REFERENCE));
+    recoveryRate = marketData.getValue(IsdaSingleNameRecoveryRateId.of(BenchmarkData.CDS_REFERENCE)).getRecoveryRate();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Benchmarks the present value.
+   *
+   * @return the present value
+   */
+  @Benchmark
+  public CurrencyAmount presentValue() {
+    return PRICER.presentValue(
+        product, yieldCurveInputs, creditCurveInputs, valuationDate, recoveryRate, creditCurveInputs.getScalingFactor());
+  }
+
+  /**
+   * Benchmarks the par rate.
+   *
+   * @return the par rate
+   */
+  @Benchmark
+  public double parRate() {
+    return PRICER.parRate(product, yieldCurveInputs, creditCurveInputs, valuationDate, recoveryRate);
+  }
+
+}
@@ -66,6 +66,19 @@ public interface CalculationRunner extends AutoCloseable {
     return DefaultCalculationRunner.of(executor);
   }
 
+  /**
+   * Creates a work-stealing calculation runner capable of performing calculations.
+   * <p>
+   * This factory creates a fork-join pool basing the parallelism on the number of available processors.
+   * The calculations are grouped into batches, which is more efficient for large numbers of targets.
+   * See {@link CalculationTaskRunner#ofWorkStealing()} for more details.
+   * 
+   * @return the calculation runner
+   */
+  public static CalculationRunner ofWorkStealing() {
+    return DefaultCalculationRunner.ofWorkStealing();
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Performs calculations for a single set of market data.
@@ -9,14 +9,22 @@ import static com.opengamma.strata.collect.Guavate.not;
 import static com.opengamma.strata.collect.Guavate.toImmutableMap;
 import static com.opengamma.strata.collect.Guavate.toImmutableSet;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import com.google.common.collect.ImmutableMap;
 import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.MapStream;
 import com.opengamma.strata.collect.result.Result;
 import com.opengamma.strata.collect.tuple.Pair;
@@ -30,6 +38,10 @@ import com.opengamma.strata.data.scenario.ScenarioMarketData;
  * The default market data factory.
  * <p>
  * This uses two providers, one for observable data and one for time-series.
+ * <p>
+ * If an executor is specified, the non-observable market data is built in parallel.
+ * Each item of market data is built as soon as the market data it depends on is available,
+ * rather than building the dependency tree one level at a time.
  */
 final class DefaultMarketDataFactory implements MarketDataFactory {
 
@@ -42,6 +54,12 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
   /** Market data functions, keyed by the type of the market data ID they can handle. */
   private final Map<Class<? extends MarketDataId<?>>, MarketDataFunction<?, ?>> functions;
 
+  /** The executor used to build market data in parallel, null to build on the calling thread. */
+  private final Executor executor;
+
+  /** The listener notified when each item of market data is built. */
+  private final MarketDataBuildListener listener;
+
   //-------------------------------------------------------------------------
   /**
    * Creates an instance of the factory based on providers of market data and time-series.
@@ -52,14 +70,39 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
    * @param timeSeriesProvider  the provider time-series
    * @param functions  the functions that create the market data
    */
-  @SuppressWarnings("unchecked")
   DefaultMarketDataFactory(
       ObservableDataProvider observableDataProvider,
       TimeSeriesProvider timeSeriesProvider,
       List<MarketDataFunction<?, ?>> functions) {
 
+    this(observableDataProvider, timeSeriesProvider, functions, null, MarketDataBuildListener.none());
+  }
+
+  /**
+   * Creates an instance of the factory that builds market data in parallel.
+   * <p>
+   * The market data functions are used to build the market data.
+   * Items of non-observable market data that do not depend on each other are built concurrently
+   * using the executor. It is the callers responsibility to manage the life-cycle of the executor.
+   *
+   * @param observableDataProvider  the provider observable market data
+   * @param timeSeriesProvider  the provider time-series
+   * @param functions  the functions that create the market data
+   * @param executor  the executor used to build the market data, null to build on the calling thread
+   * @param listener  the listener notified when each item of market data is built
+   */
+  @SuppressWarnings("unchecked")
+  DefaultMarketDataFactory(
+      ObservableDataProvider observableDataProvider,
+      TimeSeriesProvider timeSeriesProvider,
+      List<MarketDataFunction<?, ?>> functions,
+      Executor executor,
+      MarketDataBuildListener listener) {
+
     this.observableDataProvider = observableDataProvider;
     this.timeSeriesProvider = timeSeriesProvider;
+    this.executor = executor;
+    this.listener = ArgChecker.notNull(listener, "listener");
 
     // Use a HashMap instead of an ImmutableMap.Builder so values can be overwritten.
     // If the functions argument includes a missing mapping builder it can overwrite the one inserted below
@@ -110,6 +153,10 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
     // of those nodes represent the market data required to build that data, and so on
     MarketDataNode root = MarketDataNode.buildDependencyTree(requirements, suppliedData, marketDataConfig, functions);
 
+    if (executor != null) {
+      return buildParallel(root, marketDataConfig, suppliedData, refData, scenarioDefinition, dataBuilder);
+    }
+
     // The leaf nodes of the dependency tree represent market data with no missing requirements for market data.
     // This includes:
     //   * Market data that is already available
@@ -138,38 +185,8 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
       // The requirements contained in the leaf nodes
       MarketDataRequirements leafRequirements = pair.getSecond();
 
-      // Time series of observable data ------------------------------------------------------------
-
-      // Build any time series that are required but not available
-      leafRequirements.getTimeSeries().stream()
-          .filter(id -> marketData.getTimeSeries(id).isEmpty())
-          .filter(id -> suppliedData.getTimeSeries(id).isEmpty())
-          .forEach(id -> dataBuilder.addTimeSeriesResult(id, timeSeriesProvider.provideTimeSeries(id)));
-
-      // Copy supplied time series to the scenario data
-      leafRequirements.getTimeSeries().stream()
-          .filter(id -> !suppliedData.getTimeSeries(id).isEmpty())
-          .forEach(id -> dataBuilder.addTimeSeries(id, suppliedData.getTimeSeries(id)));
-
-      // Single values of observable data -----------------------------------------------------------
-
-      // Filter out IDs for the data that is already available
-      Set<ObservableId> observableIds = leafRequirements.getObservables().stream()
-          .filter(not(marketData::containsValue))
-          .filter(not(suppliedData::containsValue))
-          .collect(toImmutableSet());
-
-      // Observable data is built in bulk so it can be efficiently requested from data provider in one operation
-      if (!observableIds.isEmpty()) {
-        Map<ObservableId, Result<Double>> observableResults = observableDataProvider.provideObservableData(observableIds);
-        MapStream.of(observableResults)
-            .forEach((id, res) -> addObservableResult(id, res, refData, scenarioDefinition, dataBuilder));
-      }
-
-      // Copy observable data from the supplied data to the builder, applying any matching perturbations
-      leafRequirements.getObservables().stream()
-          .filter(suppliedData::containsValue)
-          .forEach(id -> addValue(id, suppliedData.getValue(id), refData, scenarioDefinition, dataBuilder));
+      // Time series and single values of observable data
+      addObservableData(leafRequirements, marketData, suppliedData, refData, scenarioDefinition, dataBuilder);
 
       // Non-observable data -----------------------------------------------------------------------
 
@@ -201,6 +218,172 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
     return builtData;
   }
 
+  @Override
+  public Map<MarketDataId<?>, MarketDataRequirements> dependencies(
+      MarketDataRequirements requirements,
+      MarketDataConfig marketDataConfig) {
+
+    MarketDataNode root = MarketDataNode.buildDependencyTree(
+        requirements, ScenarioMarketData.empty(), marketDataConfig, functions);
+    return root.transitiveDependencies();
+  }
+
+  /**
+   * Builds the market data in parallel.
+   * <p>
+   * Observable data and time-series have no dependencies and are requested in bulk from the providers,
+   * thus they are obtained first on the calling thread. Each item of non-observable market data is then
+   * built using the executor as soon as all the non-observable market data it depends on has been built.
+   * Each item is built from a view of the observable market data and the non-observable market data it
+   * depends on, without copying the market data built so far. The market data is only copied once,
+   * when all the items have been built.
+   *
+   * @param root  the root of the dependency tree
+   * @param marketDataConfig  configuration needed to build non-observable market data
+   * @param suppliedData  the market data supplied by the user
+   * @param refData  the reference data
+   * @param scenarioDefinition  defines how the market data for each scenario is derived from the base data
+   * @param dataBuilder  the builder to which the market data is added
+   * @return the market data
+   */
+  private BuiltScenarioMarketData buildParallel(
+      MarketDataNode root,
+      MarketDataConfig marketDataConfig,
+      ScenarioMarketData suppliedData,
+      ReferenceData refData,
+      ScenarioDefinition scenarioDefinition,
+      BuiltScenarioMarketDataBuilder dataBuilder) {
+
+    Pair<Map<MarketDataId<?>, Set<MarketDataId<?>>>, MarketDataRequirements> pair = root.dependencyGraph();
+    Map<MarketDataId<?>, Set<MarketDataId<?>>> graph = pair.getFirst();
+    addObservableData(pair.getSecond(), dataBuilder.build(), suppliedData, refData, scenarioDefinition, dataBuilder);
+    BuiltScenarioMarketData observableData = dataBuilder.build();
+
+    // the results of the non-observable market data, read by the items depending on them
+    Map<MarketDataId<?>, Result<MarketDataBox<?>>> results = new ConcurrentHashMap<>();
+    Map<MarketDataId<?>, CompletableFuture<Void>> futures = new HashMap<>();
+    for (MarketDataId<?> id : graph.keySet()) {
+      schedule(id, graph, futures, nodeId -> results.put(nodeId, buildNode(
+          nodeId,
+          graph.get(nodeId),
+          results,
+          observableData,
+          marketDataConfig,
+          suppliedData,
+          refData,
+          scenarioDefinition)));
+    }
+    try {
+      CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+    MapStream.of(results).forEach(dataBuilder::addResult);
+    return dataBuilder.build();
+  }
+
+  // schedules the building of an item of market data once its dependencies are built
+  private CompletableFuture<Void> schedule(
+      MarketDataId<?> id,
+      Map<MarketDataId<?>, Set<MarketDataId<?>>> graph,
+      Map<MarketDataId<?>, CompletableFuture<Void>> futures,
+      Consumer<MarketDataId<?>> build) {
+
+    CompletableFuture<Void> future = futures.get(id);
+    if (future != null) {
+      return future;
+    }
+    List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+    for (MarketDataId<?> dependencyId : graph.get(id)) {
+      dependencies.add(schedule(dependencyId, graph, futures, build));
+    }
+    CompletableFuture<Void> created = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+        .thenRunAsync(() -> build.accept(id), executor);
+    futures.put(id, created);
+    return created;
+  }
+
+  // builds an item of non-observable market data, or copies it from the supplied data
+  // the results of the dependencies are complete, as the item is only built once they have been built
+  private Result<MarketDataBox<?>> buildNode(
+      MarketDataId<?> id,
+      Set<MarketDataId<?>> dependencyIds,
+      Map<MarketDataId<?>, Result<MarketDataBox<?>>> results,
+      BuiltScenarioMarketData observableData,
+      MarketDataConfig marketDataConfig,
+      ScenarioMarketData suppliedData,
+      ReferenceData refData,
+      ScenarioDefinition scenarioDefinition) {
+
+    if (suppliedData.containsValue(id)) {
+      return perturb(id, suppliedData.getValue(id), refData, scenarioDefinition);
+    }
+    Map<MarketDataId<?>, Result<MarketDataBox<?>>> dependencies = new HashMap<>();
+    for (MarketDataId<?> dependencyId : dependencyIds) {
+      dependencies.put(dependencyId, results.get(dependencyId));
+    }
+    ScenarioMarketData marketData = new DependencyScenarioMarketData(observableData, dependencies);
+    Result<MarketDataBox<?>> built = buildNonObservableData(id, marketDataConfig, marketData, refData);
+    return built.isSuccess() ? perturb(id, built.getValue(), refData, scenarioDefinition) : built;
+  }
+
+  /**
+   * Adds the time-series and single values of observable market data to the builder.
+   * <p>
+   * Observable data is requested in bulk so it can be efficiently requested from data provider in one operation.
+   *
+   * @param requirements  the requirements for observable data and time-series
+   * @param marketData  the market data built so far
+   * @param suppliedData  the market data supplied by the user
+   * @param refData  the reference data
+   * @param scenarioDefinition  defines how the market data for each scenario is derived from the base data
+   * @param dataBuilder  the builder to which the market data is added
+   */
+  private void addObservableData(
+      MarketDataRequirements requirements,
+      BuiltScenarioMarketData marketData,
+      ScenarioMarketData suppliedData,
+      ReferenceData refData,
+      ScenarioDefinition scenarioDefinition,
+      BuiltScenarioMarketDataBuilder dataBuilder) {
+
+    // Time series of observable data ------------------------------------------------------------
+
+    // Build any time series that are required but not available
+    requirements.getTimeSeries().stream()
+        .filter(id -> marketData.getTimeSeries(id).isEmpty())
+        .filter(id -> suppliedData.getTimeSeries(id).isEmpty())
+        .forEach(id -> dataBuilder.addTimeSeriesResult(id, timeSeriesProvider.provideTimeSeries(id)));
+
+    // Copy supplied time series to the scenario data
+    requirements.getTimeSeries().stream()
+        .filter(id -> !suppliedData.getTimeSeries(id).isEmpty())
+        .forEach(id -> dataBuilder.addTimeSeries(id, suppliedData.getTimeSeries(id)));
+
+    // Single values of observable data -----------------------------------------------------------
+
+    // Filter out IDs for the data that is already available
+    Set<ObservableId> observableIds = requirements.getObservables().stream()
+        .filter(not(marketData::containsValue))
+        .filter(not(suppliedData::containsValue))
+        .collect(toImmutableSet());
+
+    // Observable data is built in bulk so it can be efficiently requested from data provider in one operation
+    if (!observableIds.isEmpty()) {
+      Map<ObservableId, Result<Double>> observableResults = observableDataProvider.provideObservableData(observableIds);
+      MapStream.of(observableResults)
+          .forEach((id, res) -> addObservableResult(id, res, refData, scenarioDefinition, dataBuilder));
+    }
+
+    // Copy observable data from the supplied data to the builder, applying any matching perturbations
+    requirements.getObservables().stream()
+        .filter(suppliedData::containsValue)
+        .forEach(id -> addValue(id, suppliedData.getValue(id), refData, scenarioDefinition, dataBuilder));
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Builds items of non-observable market data using a market data function.
@@ -215,7 +398,7 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
   private Result<MarketDataBox<?>> buildNonObservableData(
       MarketDataId id,
       MarketDataConfig marketDataConfig,
-      BuiltScenarioMarketData suppliedData,
+      ScenarioMarketData suppliedData,
       ReferenceData refData) {
 
     // The raw types in this method are an unfortunate necessity. The type parameters on MarketDataBuilder
@@ -231,7 +414,11 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
     if (marketDataFunction == null) {
       throw new IllegalStateException("No market data function available for market data ID of type " + idClass.getName());
     }
-    return Result.of(() -> marketDataFunction.build(id, marketDataConfig, suppliedData, refData));
+    long start = System.nanoTime();
+    Result<MarketDataBox<?>> result =
+        Result.of(() -> marketDataFunction.build(id, marketDataConfig, suppliedData, refData));
+    listener.marketDataBuilt(id, Duration.ofNanos(System.nanoTime() - start), result);
+    return result;
   }
 
   @SuppressWarnings("unchecked")
@@ -310,7 +497,6 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
    * @param scenarioDefinition  definition of a set of scenarios
    * @param builder  the market data is added to this builder
    */
-  @SuppressWarnings("unchecked")
   private void addValue(
       MarketDataId<?> id,
       MarketDataBox<?> value,
@@ -318,6 +504,27 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
       ScenarioDefinition scenarioDefinition,
       BuiltScenarioMarketDataBuilder builder) {
 
+    builder.addResult(id, perturb(id, value, refData, scenarioDefinition));
+  }
+
+  /**
+   * Applies the first matching mapping from the scenario definition to an item of market data.
+   * <p>
+   * If none of the mappings match, the value is returned unchanged.
+   *
+   * @param id  ID of the market data value
+   * @param value  the market data value
+   * @param refData  the reference data
+   * @param scenarioDefinition  definition of a set of scenarios
+   * @return a result containing the perturbed values or details of why the value could not be perturbed
+   */
+  @SuppressWarnings("unchecked")
+  private Result<MarketDataBox<?>> perturb(
+      MarketDataId<?> id,
+      MarketDataBox<?> value,
+      ReferenceData refData,
+      ScenarioDefinition scenarioDefinition) {
+
     Optional<PerturbationMapping<?>> optionalMapping = scenarioDefinition.getMappings().stream()
         .filter(m -> m.matches(id, value, refData))
         .findFirst();
@@ -328,11 +535,9 @@ final class DefaultMarketDataFactory implements MarketDataFactory {
       PerturbationMapping<Object> mapping = (PerturbationMapping<Object>) optionalMapping.get();
       MarketDataBox<Object> objectValue = ((MarketDataBox<Object>) value);
       // Result.of() catches any exceptions thrown by the mapping and wraps them in a failure
-      Result<MarketDataBox<?>> result = Result.of(() -> mapping.applyPerturbation(objectValue, refData));
-      builder.addResult(id, result);
-    } else {
-      builder.addBox(id, value);
+      return Result.of(() -> mapping.applyPerturbation(objectValue, refData));
     }
+    return Result.success(value);
   }
 
 }
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.marketdata;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.strata.collect.result.FailureException;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.MarketDataId;
+import com.opengamma.strata.data.MarketDataName;
+import com.opengamma.strata.data.NamedMarketDataId;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.data.scenario.MarketDataBox;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * The market data used to build an item of non-observable market data in parallel.
+ * <p>
+ * This combines the observable market data and time-series, which are built before any
+ * non-observable market data, with the non-observable market data that the item depends on.
+ * Neither is copied, thus the cost of creating an instance only depends on the number of dependencies.
+ * <p>
+ * As per {@link BuiltScenarioMarketData}, the failures that occurred when building
+ * the dependencies are exposed to the market data function when the data is queried.
+ */
+final class DependencyScenarioMarketData implements ScenarioMarketData {
+
+  /**
+   * The observable market data and time-series.
+   */
+  private final BuiltScenarioMarketData observableData;
+  /**
+   * The results of building the non-observable market data that the item depends on.
+   */
+  private final ImmutableMap<MarketDataId<?>, Result<MarketDataBox<?>>> dependencies;
+  /**
+   * The number of scenarios.
+   */
+  private final int scenarioCount;
+
+  /**
+   * Creates an instance.
+   *
+   * @param observableData  the observable market data and time-series
+   * @param dependencies  the results of building the non-observable market data that the item depends on
+   */
+  DependencyScenarioMarketData(
+      BuiltScenarioMarketData observableData,
+      Map<MarketDataId<?>, Result<MarketDataBox<?>>> dependencies) {
+
+    this.observableData = observableData;
+    this.dependencies = ImmutableMap.copyOf(dependencies);
+    // the results were validated when added to the builder, so the scenario counts are consistent
+    int count = observableData.getScenarioCount();
+    for (Result<MarketDataBox<?>> result : this.dependencies.values()) {
+      if (result.isSuccess() && !result.getValue().isSingleValue() && count <= 1) {
+        count = result.getValue().getScenarioCount();
+      }
+    }
+    this.scenarioCount = count;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public MarketDataBox<LocalDate> getValuationDate() {
+    return observableData.getValuationDate();
+  }
+
+  @Override
+  public int getScenarioCount() {
+    return scenarioCount;
+  }
+
+  @Override
+  public boolean containsValue(MarketDataId<?> id) {
+    Result<MarketDataBox<?>> result = dependencies.get(id);
+    return result != null ? result.isSuccess() : observableData.containsValue(id);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> MarketDataBox<T> getValue(MarketDataId<T> id) {
+    Result<MarketDataBox<?>> result = dependencies.get(id);
+    if (result == null) {
+      return observableData.getValue(id);
+    }
+    if (result.isFailure()) {
+      throw new FailureException(result.getFailure());
+    }
+    return (MarketDataBox<T>) result.getValue();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> Optional<MarketDataBox<T>> findValue(MarketDataId<T> id) {
+    Result<MarketDataBox<?>> result = dependencies.get(id);
+    if (result == null) {
+      return observableData.findValue(id);
+    }
+    return result.isSuccess() ? Optional.of((MarketDataBox<T>) result.getValue()) : Optional.empty();
+  }
+
+  @Override
+  public Set<MarketDataId<?>> getIds() {
+    ImmutableSet.Builder<MarketDataId<?>> builder = ImmutableSet.<MarketDataId<?>>builder()
+        .addAll(observableData.getIds());
+    dependencies.forEach((id, result) -> {
+      if (result.isSuccess()) {
+        builder.add(id);
+      }
+    });
+    return builder.build();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> Set<MarketDataId<T>> findIds(MarketDataName<T> name) {
+    ImmutableSet.Builder<MarketDataId<T>> builder = ImmutableSet.<MarketDataId<T>>builder()
+        .addAll(observableData.findIds(name));
+    dependencies.forEach((id, result) -> {
+      if (result.isSuccess() && id instanceof NamedMarketDataId &&
+          ((NamedMarketDataId<?>) id).getMarketDataName().equals(name)) {
+        builder.add((MarketDataId<T>) id);
+      }
+    });
+    return builder.build();
+  }
+
+  @Override
+  public Set<ObservableId> getTimeSeriesIds() {
+    return observableData.getTimeSeriesIds();
+  }
+
+  @Override
+  public LocalDateDoubleTimeSeries getTimeSeries(ObservableId id) {
+    return observableData.getTimeSeries(id);
+  }
+
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.marketdata;
+
+import java.time.Duration;
+
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.MarketDataId;
+
+/**
+ * Listener that is notified each time an item of market data is built by a {@link MarketDataFunction}.
+ * <p>
+ * This is used to monitor the time taken to build the nodes of the market data dependency tree,
+ * such as curve groups, FX matrices and volatility surfaces.
+ * Observable data and time-series are obtained in bulk from the providers and are not reported.
+ * <p>
+ * When market data is built in parallel the listener is invoked from multiple threads,
+ * thus implementations must be thread-safe.
+ */
+@FunctionalInterface
+public interface MarketDataBuildListener {
+
+  /**
+   * Obtains a listener that ignores all notifications.
+   *
+   * @return the listener
+   */
+  public static MarketDataBuildListener none() {
+    return (id, buildTime, result) -> { };
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Invoked when an item of market data has been built.
+   *
+   * @param id  the ID of the market data
+   * @param buildTime  the time taken to build the market data
+   * @param result  the result, containing the market data or details of why it could not be built
+   */
+  public abstract void marketDataBuilt(MarketDataId<?> id, Duration buildTime, Result<?> result);
+
+}
@@ -6,11 +6,15 @@
 package com.opengamma.strata.calc.marketdata;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.calc.runner.CalculationTasks;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.data.MarketDataId;
 import com.opengamma.strata.data.scenario.ScenarioMarketData;
 
 /**
@@ -74,6 +78,65 @@ public interface MarketDataFactory {
     return new DefaultMarketDataFactory(observableDataProvider, timeSeriesProvider, functions);
   }
 
+  /**
+   * Obtains an instance of the factory that builds market data in parallel.
+   * <p>
+   * The market data functions are used to build the market data.
+   * Items of market data that do not depend on each other, such as curve groups in different
+   * currencies, are built concurrently using the executor. Each item is built as soon as the
+   * market data it depends on is available.
+   * It is the callers responsibility to manage the life-cycle of the executor.
+   *
+   * @param observableDataProvider  the provider of observable market data
+   * @param timeSeriesProvider  the provider of time-series
+   * @param executor  the executor used to build the market data
+   * @param functions  the functions that create the market data
+   * @return the market data factory
+   */
+  public static MarketDataFactory ofParallel(
+      ObservableDataProvider observableDataProvider,
+      TimeSeriesProvider timeSeriesProvider,
+      Executor executor,
+      MarketDataFunction<?, ?>... functions) {
+
+    return ofParallel(
+        observableDataProvider,
+        timeSeriesProvider,
+        executor,
+        MarketDataBuildListener.none(),
+        ImmutableList.copyOf(functions));
+  }
+
+  /**
+   * Obtains an instance of the factory that builds market data in parallel, reporting the build time of each item.
+   * <p>
+   * The market data functions are used to build the market data.
+   * Items of market data that do not depend on each other, such as curve groups in different
+   * currencies, are built concurrently using the executor. Each item is built as soon as the
+   * market data it depends on is available.
+   * It is the callers responsibility to manage the life-cycle of the executor.
+   * <p>
+   * The listener is notified with the time taken to build each item of market data.
+   * It is invoked from the threads of the executor.
+   *
+   * @param observableDataProvider  the provider of observable market data
+   * @param timeSeriesProvider  the provider of time-series
+   * @param executor  the executor used to build the market data
+   * @param listener  the listener notified when each item of market data is built
+   * @param functions  the functions that create the market data
+   * @return the market data factory
+   */
+  public static MarketDataFactory ofParallel(
+      ObservableDataProvider observableDataProvider,
+      TimeSeriesProvider timeSeriesProvider,
+      Executor executor,
+      MarketDataBuildListener listener,
+      List<MarketDataFunction<?, ?>> functions) {
+
+    ArgChecker.notNull(executor, "executor");
+    return new DefaultMarketDataFactory(observableDataProvider, timeSeriesProvider, functions, executor, listener);
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Builds a set of market data.
@@ -154,4 +217,21 @@ public interface MarketDataFactory {
       ReferenceData refData,
       ScenarioDefinition scenarioDefinition);
 
+  //-------------------------------------------------------------------------
+  /**
+   * Finds the market data that each item of required market data is built from.
+   * <p>
+   * The result contains an entry for each item of non-observable market data in the requirements.
+   * The entry contains the requirements for all the market data that the item is built from,
+   * directly or indirectly, for example the quotes used to calibrate a curve.
+   * The dependencies are those used when the item is built, not supplied.
+   *
+   * @param requirements  the market data required for the calculations
+   * @param marketDataConfig  configuration needed to build non-observable market data, for example curves or surfaces
+   * @return the requirements for the market data that each item is built from, keyed by the ID of the item
+   */
+  public abstract Map<MarketDataId<?>, MarketDataRequirements> dependencies(
+      MarketDataRequirements requirements,
+      MarketDataConfig marketDataConfig);
+
 }
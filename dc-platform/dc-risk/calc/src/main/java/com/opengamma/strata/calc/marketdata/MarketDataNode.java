@@ -5,10 +5,14 @@
  */
 package com.opengamma.strata.calc.marketdata;
 
+import static com.opengamma.strata.collect.Guavate.toImmutableSet;
+
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.collect.ArgChecker;
@@ -162,6 +166,80 @@ class MarketDataNode {
     return Pair.of(node, requirements);
   }
 
+  /**
+   * Returns the graph of dependencies between the non-observable market data in the tree.
+   * It also returns the observable market data and time-series required anywhere in the tree.
+   * <p>
+   * The same market data can appear in many places in the tree, for example a curve group
+   * used to build several other items of market data. Each item appears once in the graph,
+   * mapped to the non-observable market data it depends on.
+   * Observable data and time-series are not included in the graph as they have no dependencies.
+   * <p>
+   * This is used to build independent items of market data concurrently.
+   *
+   * @return the dependencies of each item of non-observable market data, in the order
+   *   they are found in the tree, and the requirements for observable data and time-series
+   */
+  Pair<Map<MarketDataId<?>, Set<MarketDataId<?>>>, MarketDataRequirements> dependencyGraph() {
+    Map<MarketDataId<?>, Set<MarketDataId<?>>> graph = new LinkedHashMap<>();
+    MarketDataRequirementsBuilder requirementsBuilder = MarketDataRequirements.builder();
+    addToGraph(graph, requirementsBuilder);
+    return Pair.of(graph, requirementsBuilder.build());
+  }
+
+  // adds the dependencies of this node to the graph, visiting each item of non-observable market data once
+  private void addToGraph(
+      Map<MarketDataId<?>, Set<MarketDataId<?>>> graph,
+      MarketDataRequirementsBuilder requirementsBuilder) {
+
+    for (MarketDataNode child : dependencies) {
+      if (child.dataType == DataType.TIME_SERIES) {
+        requirementsBuilder.addTimeSeries(((ObservableId) child.id));
+      } else if (child.id instanceof ObservableId) {
+        requirementsBuilder.addValues(child.id);
+      } else if (!graph.containsKey(child.id)) {
+        Set<MarketDataId<?>> childDependencies = child.dependencies.stream()
+            .filter(node -> node.dataType == DataType.SINGLE_VALUE && !(node.id instanceof ObservableId))
+            .map(node -> node.id)
+            .collect(toImmutableSet());
+        graph.put(child.id, childDependencies);
+        child.addToGraph(graph, requirementsBuilder);
+      }
+    }
+  }
+
+  /**
+   * Returns the market data that each item of non-observable market data directly below this node is built from.
+   * <p>
+   * The requirements for each item contain all the market data below it in the tree,
+   * which is the market data it is built from, directly or indirectly.
+   *
+   * @return the requirements for the market data that each item is built from, keyed by the ID of the item
+   */
+  Map<MarketDataId<?>, MarketDataRequirements> transitiveDependencies() {
+    Map<MarketDataId<?>, MarketDataRequirements> result = new LinkedHashMap<>();
+    for (MarketDataNode child : dependencies) {
+      if (child.dataType == DataType.SINGLE_VALUE && !(child.id instanceof ObservableId)) {
+        MarketDataRequirementsBuilder requirementsBuilder = MarketDataRequirements.builder();
+        child.addDescendants(requirementsBuilder);
+        result.put(child.id, requirementsBuilder.build());
+      }
+    }
+    return result;
+  }
+
+  // adds the market data of all the nodes below this node to the requirements
+  private void addDescendants(MarketDataRequirementsBuilder requirementsBuilder) {
+    for (MarketDataNode child : dependencies) {
+      if (child.dataType == DataType.TIME_SERIES) {
+        requirementsBuilder.addTimeSeries(((ObservableId) child.id));
+      } else {
+        requirementsBuilder.addValues(child.id);
+      }
+      child.addDescendants(requirementsBuilder);
+    }
+  }
+
   /**
    * Returns true if this node has no children.
    *
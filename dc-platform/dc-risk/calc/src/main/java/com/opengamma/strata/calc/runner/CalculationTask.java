@@ -203,6 +203,16 @@ public final class CalculationTask implements ImmutableBean {
     // calculate the results
     Map<Measure, Result<?>> results = calculate(marketData, refData);
 
+    // convert the results
+    return createResults(results, marketData, refData);
+  }
+
+  // converts the results of the function to the results of each cell
+  CalculationResults createResults(
+      Map<Measure, Result<?>> results,
+      ScenarioMarketData marketData,
+      ReferenceData refData) {
+
     // convert the results, using a normal loop for better stack traces
     ScenarioFxRateProvider fxProvider = ScenarioFxRateProvider.of(marketData);
     ImmutableList.Builder<CalculationResult> resultBuilder = ImmutableList.builder();
@@ -215,7 +225,7 @@ public final class CalculationTask implements ImmutableBean {
   }
 
   // calculates the result
-  private Map<Measure, Result<?>> calculate(ScenarioMarketData marketData, ReferenceData refData) {
+  Map<Measure, Result<?>> calculate(ScenarioMarketData marketData, ReferenceData refData) {
     try {
       return function.calculate(target, getMeasures(), parameters, marketData, refData);
     } catch (RuntimeException ex) {
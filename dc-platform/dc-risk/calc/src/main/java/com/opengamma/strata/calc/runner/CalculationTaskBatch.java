@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * A batch of calculation tasks executed on a fork-join pool.
+ * <p>
+ * The tasks in a batch are expected to share the same target type and function.
+ * Executing similar tasks back-to-back on the same thread keeps the function and its
+ * market data lookups hot in the processor caches.
+ * <p>
+ * If the batch is larger than the batch size it is split in half and both halves are forked.
+ * Idle worker threads steal the forked halves, balancing the load without the need to submit
+ * one future per task. Once a batch is small enough, the tasks are executed sequentially and
+ * the results are handed to the consumer in a single call.
+ * <p>
+ * If a scenario chunk size is specified, the scenarios of each task are also split into chunks
+ * that are calculated in parallel, see {@link ScenarioChunkTask}.
+ */
+final class CalculationTaskBatch extends RecursiveAction {
+
+  /** Serialization version. */
+  private static final long serialVersionUID = 1L;
+
+  /** The tasks to execute. */
+  private final List<CalculationTask> tasks;
+  /** The market data. */
+  private final ScenarioMarketData marketData;
+  /** The reference data. */
+  private final ReferenceData refData;
+  /** The consumer that receives the results of each batch. */
+  private final Consumer<List<CalculationResults>> consumer;
+  /** The maximum number of tasks executed without splitting. */
+  private final int batchSize;
+  /** The maximum number of scenarios calculated by a single thread, zero to not split the scenarios. */
+  private final int scenarioChunkSize;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Creates the root action that executes all the tasks.
+   * <p>
+   * The tasks are grouped by target type and function, preserving the order in which
+   * each group is first seen. Each group is then executed as a separate batch.
+   *
+   * @param tasks  the tasks to execute
+   * @param marketData  the market data
+   * @param refData  the reference data
+   * @param consumer  the consumer that receives the results of each batch
+   * @param batchSize  the maximum number of tasks executed without splitting
+   * @param scenarioChunkSize  the maximum number of scenarios calculated by a single thread,
+   *  zero to not split the scenarios
+   * @return the action
+   */
+  static RecursiveAction of(
+      List<CalculationTask> tasks,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      Consumer<List<CalculationResults>> consumer,
+      int batchSize,
+      int scenarioChunkSize) {
+
+    List<CalculationTaskBatch> batches = new ArrayList<>();
+    for (List<CalculationTask> group : groupTasks(tasks)) {
+      batches.add(new CalculationTaskBatch(group, marketData, refData, consumer, batchSize, scenarioChunkSize));
+    }
+    return new RecursiveAction() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected void compute() {
+        invokeAll(batches);
+      }
+    };
+  }
+
+  // groups the tasks by target type and function
+  static List<List<CalculationTask>> groupTasks(List<CalculationTask> tasks) {
+    Map<BatchKey, List<CalculationTask>> groups = new LinkedHashMap<>();
+    for (CalculationTask task : tasks) {
+      BatchKey key = new BatchKey(task.getTarget().getClass(), task.getFunction());
+      groups.computeIfAbsent(key, k -> new ArrayList<>()).add(task);
+    }
+    return ImmutableList.copyOf(groups.values());
+  }
+
+  //-------------------------------------------------------------------------
+  // restricted constructor
+  private CalculationTaskBatch(
+      List<CalculationTask> tasks,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      Consumer<List<CalculationResults>> consumer,
+      int batchSize,
+      int scenarioChunkSize) {
+
+    this.tasks = tasks;
+    this.marketData = marketData;
+    this.refData = refData;
+    this.consumer = consumer;
+    this.batchSize = batchSize;
+    this.scenarioChunkSize = scenarioChunkSize;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  protected void compute() {
+    int size = tasks.size();
+    if (size > batchSize) {
+      int mid = size >>> 1;
+      invokeAll(subBatch(tasks.subList(0, mid)), subBatch(tasks.subList(mid, size)));
+      return;
+    }
+    List<CalculationResults> results = new ArrayList<>(size);
+    for (CalculationTask task : tasks) {
+      results.add(ScenarioChunkTask.execute(task, marketData, refData, scenarioChunkSize));
+    }
+    consumer.accept(results);
+  }
+
+  // creates a batch containing a subset of the tasks
+  private CalculationTaskBatch subBatch(List<CalculationTask> subTasks) {
+    return new CalculationTaskBatch(subTasks, marketData, refData, consumer, batchSize, scenarioChunkSize);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The key used to group tasks into batches.
+   * <p>
+   * Functions are compared by identity as they are typically singletons.
+   */
+  private static final class BatchKey {
+    private final Class<?> targetType;
+    private final CalculationFunction<?> function;
+
+    private BatchKey(Class<?> targetType, CalculationFunction<?> function) {
+      this.targetType = targetType;
+      this.function = function;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (obj instanceof BatchKey) {
+        BatchKey other = (BatchKey) obj;
+        return targetType == other.targetType && function == other.function;
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return targetType.hashCode() * 31 + System.identityHashCode(function);
+    }
+  }
+
+}
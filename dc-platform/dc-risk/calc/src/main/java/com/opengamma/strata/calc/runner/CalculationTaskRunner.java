@@ -7,6 +7,7 @@ package com.opengamma.strata.calc.runner;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.calc.CalculationRules;
@@ -79,6 +80,65 @@ public interface CalculationTaskRunner extends AutoCloseable {
     return DefaultCalculationTaskRunner.of(executor);
   }
 
+  /**
+   * Creates a work-stealing calculation task runner capable of performing calculations.
+   * <p>
+   * This factory creates a fork-join pool basing the parallelism on the number of available processors.
+   * Rather than submitting each task separately, the tasks are grouped by target type and function
+   * into batches. The batches are split and stolen by idle threads as necessary, and the results of
+   * each batch are passed to the listener together. This reduces scheduling and listener overhead
+   * when there are a large number of small tasks, such as when pricing a large portfolio.
+   * <p>
+   * It is recommended to use try-with-resources to manage the runner:
+   * <pre>
+   *  try (CalculationTaskRunner runner = CalculationTaskRunner.ofWorkStealing()) {
+   *    // use the runner
+   *  }
+   * </pre>
+   * 
+   * @return the calculation task runner
+   */
+  public static CalculationTaskRunner ofWorkStealing() {
+    return DefaultCalculationTaskRunner.ofWorkStealing();
+  }
+
+  /**
+   * Creates a work-stealing calculation task runner capable of performing calculations,
+   * specifying the fork-join pool and batch size.
+   * <p>
+   * The tasks are grouped by target type and function into batches of at most the batch size.
+   * It is the callers responsibility to manage the life-cycle of the pool.
+   * 
+   * @param pool  the fork-join pool to use
+   * @param batchSize  the maximum number of tasks executed as a single unit of work, greater than zero
+   * @return the calculation task runner
+   */
+  public static CalculationTaskRunner ofWorkStealing(ForkJoinPool pool, int batchSize) {
+    return DefaultCalculationTaskRunner.ofWorkStealing(pool, batchSize);
+  }
+
+  /**
+   * Creates a work-stealing calculation task runner capable of performing calculations,
+   * specifying the fork-join pool, batch size and scenario chunk size.
+   * <p>
+   * In addition to batching the tasks, the scenarios of each task are split into chunks of at most
+   * the scenario chunk size, and the chunks are calculated in parallel. This is useful when a small
+   * number of expensive tasks are calculated against a large number of scenarios, as otherwise all
+   * the scenarios of a task are calculated by a single thread.
+   * The results of the chunks are combined before being passed to the listener.
+   * <p>
+   * It is the callers responsibility to manage the life-cycle of the pool.
+   * 
+   * @param pool  the fork-join pool to use
+   * @param batchSize  the maximum number of tasks executed as a single unit of work, greater than zero
+   * @param scenarioChunkSize  the maximum number of scenarios of a task calculated by a single thread,
+   *  zero to not split the scenarios
+   * @return the calculation task runner
+   */
+  public static CalculationTaskRunner ofWorkStealing(ForkJoinPool pool, int batchSize, int scenarioChunkSize) {
+    return DefaultCalculationTaskRunner.ofWorkStealing(pool, batchSize, scenarioChunkSize);
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Performs calculations for a single set of market data.
@@ -7,20 +7,19 @@ package com.opengamma.strata.calc.runner;
 
 import static com.opengamma.strata.collect.Guavate.toImmutableList;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.ThreadFactory;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import com.opengamma.strata.basics.CalculationTarget;
 import com.opengamma.strata.basics.ReferenceData;
-import com.opengamma.strata.calc.Column;
-import com.opengamma.strata.calc.ColumnHeader;
 import com.opengamma.strata.calc.Results;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.Messages;
@@ -33,14 +32,33 @@ import com.opengamma.strata.data.scenario.ScenarioMarketData;
  * The default calculation task runner.
  * <p>
  * This uses a single instance of {@link ExecutorService}.
+ * <p>
+ * By default, each task is submitted to the executor separately.
+ * In work-stealing mode, the executor is a {@link ForkJoinPool} and the tasks are grouped
+ * into batches by target type and function, see {@link CalculationTaskBatch}.
  */
 class DefaultCalculationTaskRunner implements CalculationTaskRunner {
 
+  /**
+   * The default number of tasks in a batch when running in work-stealing mode.
+   */
+  static final int DEFAULT_BATCH_SIZE = 64;
+
   /**
    * Executes the tasks that perform the individual calculations.
    * This will typically be multi-threaded, but single or direct executors also work.
    */
   private final ExecutorService executor;
+  /**
+   * The maximum number of tasks in a batch, zero if tasks are submitted individually.
+   * This is only non-zero if the executor is a {@link ForkJoinPool}.
+   */
+  private final int batchSize;
+  /**
+   * The maximum number of scenarios of a task calculated by a single thread, zero if scenarios are not split.
+   * This is only non-zero if the executor is a {@link ForkJoinPool}.
+   */
+  private final int scenarioChunkSize;
 
   //-------------------------------------------------------------------------
   /**
@@ -57,7 +75,7 @@ class DefaultCalculationTaskRunner implements CalculationTaskRunner {
    * @return the calculation task runner
    */
   static DefaultCalculationTaskRunner ofMultiThreaded() {
-    return new DefaultCalculationTaskRunner(createExecutor(Runtime.getRuntime().availableProcessors()));
+    return new DefaultCalculationTaskRunner(createExecutor(Runtime.getRuntime().availableProcessors()), 0, 0);
   }
 
   /**
@@ -69,7 +87,55 @@ class DefaultCalculationTaskRunner implements CalculationTaskRunner {
    * @return the calculation task runner
    */
   static DefaultCalculationTaskRunner of(ExecutorService executor) {
-    return new DefaultCalculationTaskRunner(executor);
+    return new DefaultCalculationTaskRunner(executor, 0, 0);
+  }
+
+  /**
+   * Creates a work-stealing calculation task runner capable of performing calculations.
+   * <p>
+   * This factory creates a fork-join pool basing the parallelism on the number of available processors.
+   * The tasks are grouped into batches of the {@linkplain #DEFAULT_BATCH_SIZE default size}.
+   * 
+   * @return the calculation task runner
+   */
+  static DefaultCalculationTaskRunner ofWorkStealing() {
+    return new DefaultCalculationTaskRunner(
+        createForkJoinPool(Runtime.getRuntime().availableProcessors()), DEFAULT_BATCH_SIZE, 0);
+  }
+
+  /**
+   * Creates a work-stealing calculation task runner capable of performing calculations,
+   * specifying the fork-join pool and batch size.
+   * <p>
+   * It is the callers responsibility to manage the life-cycle of the pool.
+   * 
+   * @param pool  the fork-join pool to use
+   * @param batchSize  the maximum number of tasks executed as a single unit of work
+   * @return the calculation task runner
+   */
+  static DefaultCalculationTaskRunner ofWorkStealing(ForkJoinPool pool, int batchSize) {
+    return ofWorkStealing(pool, batchSize, 0);
+  }
+
+  /**
+   * Creates a work-stealing calculation task runner capable of performing calculations,
+   * specifying the fork-join pool, batch size and scenario chunk size.
+   * <p>
+   * The scenarios of each task are split into chunks of at most the chunk size, with the chunks
+   * calculated in parallel. The results of the chunks are combined before being passed to the listener.
+   * Zero disables splitting of the scenarios.
+   * <p>
+   * It is the callers responsibility to manage the life-cycle of the pool.
+   * 
+   * @param pool  the fork-join pool to use
+   * @param batchSize  the maximum number of tasks executed as a single unit of work
+   * @param scenarioChunkSize  the maximum number of scenarios of a task calculated by a single thread
+   * @return the calculation task runner
+   */
+  static DefaultCalculationTaskRunner ofWorkStealing(ForkJoinPool pool, int batchSize, int scenarioChunkSize) {
+    ArgChecker.notNegativeOrZero(batchSize, "batchSize");
+    ArgChecker.notNegative(scenarioChunkSize, "scenarioChunkSize");
+    return new DefaultCalculationTaskRunner(pool, batchSize, scenarioChunkSize);
   }
 
   // create an executor with daemon threads
@@ -84,14 +150,29 @@ class DefaultCalculationTaskRunner implements CalculationTaskRunner {
     return Executors.newFixedThreadPool(effectiveThreads, threadFactory);
   }
 
+  // create a fork-join pool, which always uses daemon threads
+  private static ForkJoinPool createForkJoinPool(int threads) {
+    int effectiveThreads = (threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads);
+    ForkJoinWorkerThreadFactory threadFactory = pool -> {
+      ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      t.setName("CalculationTaskRunner-" + t.getName());
+      return t;
+    };
+    return new ForkJoinPool(effectiveThreads, threadFactory, null, false);
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Creates an instance specifying the executor to use.
    * 
    * @param executor  the executor that is used to perform the calculations
+   * @param batchSize  the batch size, zero if tasks are submitted individually
+   * @param scenarioChunkSize  the scenario chunk size, zero if scenarios are not split
    */
-  private DefaultCalculationTaskRunner(ExecutorService executor) {
+  private DefaultCalculationTaskRunner(ExecutorService executor, int batchSize, int scenarioChunkSize) {
     this.executor = ArgChecker.notNull(executor, "executor");
+    this.batchSize = batchSize;
+    this.scenarioChunkSize = scenarioChunkSize;
   }
 
   //-------------------------------------------------------------------------
@@ -163,9 +244,10 @@ class DefaultCalculationTaskRunner implements CalculationTaskRunner {
       ScenarioMarketData marketData,
       ReferenceData refData) {
 
-    AggregatingListener listener = new AggregatingListener(tasks.getColumns());
-    calculateMultiScenarioAsync(tasks, marketData, refData, listener);
-    return listener.result();
+    // the results are written directly into the grid, avoiding the need to sort them
+    ResultsSink sink = ResultsSink.of(tasks);
+    runTasks(tasks.getTasks(), marketData, refData, sink, sink::acceptAll);
+    return sink.result();
   }
 
   @Override
@@ -179,9 +261,26 @@ class DefaultCalculationTaskRunner implements CalculationTaskRunner {
     // the listener is invoked via this wrapper
     // the wrapper ensures thread-safety for the listener
     // it also calls the listener with single CalculationResult cells, not CalculationResults
-    Consumer<CalculationResults> consumer = new ListenerWrapper(listener, taskList.size());
-    // run each task using the executor
-    taskList.stream().forEach(task -> runTask(task, marketData, refData, consumer));
+    ListenerWrapper consumer = new ListenerWrapper(listener, taskList.size());
+    runTasks(taskList, marketData, refData, consumer, consumer::acceptAll);
+  }
+
+  // runs the tasks, passing the results to the consumer
+  private void runTasks(
+      List<CalculationTask> taskList,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      Consumer<CalculationResults> consumer,
+      Consumer<List<CalculationResults>> batchConsumer) {
+
+    if (batchSize > 0) {
+      // run batches of similar tasks using the fork-join pool
+      ForkJoinPool pool = (ForkJoinPool) executor;
+      pool.execute(CalculationTaskBatch.of(taskList, marketData, refData, batchConsumer, batchSize, scenarioChunkSize));
+    } else {
+      // run each task using the executor
+      taskList.stream().forEach(task -> runTask(task, marketData, refData, consumer));
+    }
   }
 
   // submits a task to the executor to be run
@@ -203,58 +302,6 @@ class DefaultCalculationTaskRunner implements CalculationTaskRunner {
     executor.shutdown();
   }
 
-  //-------------------------------------------------------------------------
-  /**
-   * Calculation listener that receives the results of individual calculations
-   * and builds a set of {@link Results}. This is used by the non-async methods.
-   */
-  private static final class AggregatingListener extends AggregatingCalculationListener<Results> {
-
-    /** Comparator for sorting the results by row and then column. */
-    private static final Comparator<CalculationResult> COMPARATOR =
-        Comparator.comparingInt(CalculationResult::getRowIndex)
-            .thenComparingInt(CalculationResult::getColumnIndex);
-
-    /** List that is populated with the results as they arrive. */
-    private final List<CalculationResult> results = new ArrayList<>();
-
-    /** The columns that define what values are calculated. */
-    private final List<Column> columns;
-
-    private AggregatingListener(List<Column> columns) {
-      this.columns = columns;
-    }
-
-    @Override
-    public void resultReceived(CalculationTarget target, CalculationResult result) {
-      results.add(result);
-    }
-
-    @Override
-    protected Results createAggregateResult() {
-      results.sort(COMPARATOR);
-      return buildResults(results, columns);
-    }
-
-    /**
-     * Builds a set of results from the results of the individual calculations.
-     *
-     * @param calculationResults  the results of the individual calculations
-     * @param columns  the columns that define what values are calculated
-     * @return the results
-     */
-    private static Results buildResults(List<CalculationResult> calculationResults, List<Column> columns) {
-      List<Result<?>> results =
-          calculationResults.stream()
-              .map(r -> r.getResult())
-              .collect(toImmutableList());
-      List<ColumnHeader> headers = columns.stream()
-          .map(c -> c.toHeader())
-          .collect(toImmutableList());
-      return Results.of(headers, results);
-    }
-  }
-
   //-------------------------------------------------------------------------
   /**
    * Listener that decorates another listener and unwraps {@link ScenarioArray} instances
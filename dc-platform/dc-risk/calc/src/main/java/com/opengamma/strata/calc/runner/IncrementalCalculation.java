@@ -0,0 +1,442 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+import static com.opengamma.strata.collect.Guavate.toImmutableSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.calc.ColumnHeader;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.marketdata.MarketDataConfig;
+import com.opengamma.strata.calc.marketdata.MarketDataFactory;
+import com.opengamma.strata.calc.marketdata.MarketDataRequirements;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.data.MarketDataId;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.data.scenario.MarketDataBox;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * Performs calculations incrementally, only recalculating the results affected by a change in market data.
+ * <p>
+ * When created, the market data requirements of each task are determined and indexed by
+ * {@link MarketDataId}. The first calculation calculates every cell. Subsequent calculations
+ * determine the identifiers whose values have changed, and only the rows of the grid containing a
+ * task that depends on one of those identifiers are recalculated. The results of the
+ * other rows are retained from the previous calculation.
+ * <p>
+ * The changed identifiers can be passed in explicitly, or determined by comparing the new
+ * market data with the market data of the previous calculation. The comparison only considers
+ * the values and time-series required by the tasks. If the valuation date or number of scenarios
+ * changes, all the results are recalculated.
+ * <p>
+ * The market data passed in must contain the market data required by the tasks, as per
+ * {@link CalculationTasks#requirements(ReferenceData)}. Market data that is derived from other
+ * market data, such as a curve calibrated from quotes, is identified by its own identifier.
+ * If the instance is created with a {@link MarketDataFactory}, the tasks also depend on the market data
+ * that their market data is built from, thus a change to a quote affects the tasks using a curve
+ * calibrated from the quote. Otherwise, only the identifiers the tasks depend on directly can be
+ * passed in as changed, and the new value of rebuilt market data is detected when the market data is compared.
+ * <p>
+ * This class is mutable and thread-safe, with calculations being performed one at a time.
+ */
+public final class IncrementalCalculation {
+
+  /**
+   * The runner used to perform the calculations.
+   */
+  private final CalculationTaskRunner runner;
+  /**
+   * The tasks.
+   */
+  private final CalculationTasks tasks;
+  /**
+   * The reference data.
+   */
+  private final ReferenceData refData;
+  /**
+   * The tasks for each row.
+   */
+  private final List<List<CalculationTask>> rowTasks;
+  /**
+   * The rows that depend on each market data identifier, directly or through the market data built from it.
+   */
+  private final Map<MarketDataId<?>, BitSet> valueIndex;
+  /**
+   * The rows that depend on each time-series identifier, directly or through the market data built from it.
+   */
+  private final Map<ObservableId, BitSet> timeSeriesIndex;
+  /**
+   * The column headers of the results.
+   */
+  private final List<ColumnHeader> columnHeaders;
+  /**
+   * The results of the previous calculation, null if not yet calculated.
+   */
+  private Result<?>[] cells;
+  /**
+   * The market data used by the previous calculation, null if not yet calculated.
+   */
+  private ScenarioMarketData previousMarketData;
+  /**
+   * Whether the previous calculation used a single set of market data.
+   */
+  private boolean previousSingle;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance that uses the specified runner to calculate the tasks.
+   * <p>
+   * The market data requirements of every task are determined, thus this method throws
+   * an exception if the requirements cannot be determined.
+   * It is the callers responsibility to manage the life-cycle of the runner.
+   *
+   * @param runner  the runner used to perform the calculations
+   * @param tasks  the tasks to calculate
+   * @param refData  the reference data
+   * @return the incremental calculation
+   */
+  public static IncrementalCalculation of(
+      CalculationTaskRunner runner,
+      CalculationTasks tasks,
+      ReferenceData refData) {
+
+    return new IncrementalCalculation(runner, tasks, refData, ImmutableMap.of());
+  }
+
+  /**
+   * Obtains an instance that uses the specified runner to calculate the tasks,
+   * where the tasks also depend on the market data that their market data is built from.
+   * <p>
+   * The market data factory determines the market data that each item of market data required by
+   * the tasks is built from, such as the quotes used to calibrate a curve.
+   * A change to any of that market data recalculates the tasks.
+   * It is the callers responsibility to manage the life-cycle of the runner.
+   *
+   * @param runner  the runner used to perform the calculations
+   * @param tasks  the tasks to calculate
+   * @param refData  the reference data
+   * @param marketDataFactory  the factory used to build the market data
+   * @param marketDataConfig  the configuration used to build the market data
+   * @return the incremental calculation
+   */
+  public static IncrementalCalculation of(
+      CalculationTaskRunner runner,
+      CalculationTasks tasks,
+      ReferenceData refData,
+      MarketDataFactory marketDataFactory,
+      MarketDataConfig marketDataConfig) {
+
+    ArgChecker.notNull(tasks, "tasks");
+    ArgChecker.notNull(marketDataFactory, "marketDataFactory");
+    ArgChecker.notNull(marketDataConfig, "marketDataConfig");
+    Map<MarketDataId<?>, MarketDataRequirements> builtFrom =
+        marketDataFactory.dependencies(tasks.requirements(refData), marketDataConfig);
+    return new IncrementalCalculation(runner, tasks, refData, builtFrom);
+  }
+
+  // restricted constructor
+  private IncrementalCalculation(
+      CalculationTaskRunner runner,
+      CalculationTasks tasks,
+      ReferenceData refData,
+      Map<MarketDataId<?>, MarketDataRequirements> builtFrom) {
+
+    this.runner = ArgChecker.notNull(runner, "runner");
+    this.tasks = ArgChecker.notNull(tasks, "tasks");
+    this.refData = ArgChecker.notNull(refData, "refData");
+    this.columnHeaders = tasks.getColumns().stream()
+        .map(c -> c.toHeader())
+        .collect(toImmutableList());
+
+    int rowCount = tasks.getTargets().size();
+    List<List<CalculationTask>> rows = new ArrayList<>(rowCount);
+    for (int i = 0; i < rowCount; i++) {
+      rows.add(new ArrayList<>());
+    }
+    Map<MarketDataId<?>, BitSet> values = new HashMap<>();
+    Map<ObservableId, BitSet> timeSeries = new HashMap<>();
+    for (CalculationTask task : tasks.getTasks()) {
+      int rowIndex = task.getRowIndex();
+      rows.get(rowIndex).add(task);
+      MarketDataRequirements reqs = task.requirements(refData);
+      for (ObservableId id : reqs.getObservables()) {
+        values.computeIfAbsent(id, k -> new BitSet(rowCount)).set(rowIndex);
+      }
+      for (MarketDataId<?> id : reqs.getNonObservables()) {
+        values.computeIfAbsent(id, k -> new BitSet(rowCount)).set(rowIndex);
+      }
+      for (ObservableId id : reqs.getTimeSeries()) {
+        timeSeries.computeIfAbsent(id, k -> new BitSet(rowCount)).set(rowIndex);
+      }
+    }
+    // the rows depending on an item of market data also depend on the market data it is built from
+    for (Map.Entry<MarketDataId<?>, MarketDataRequirements> entry : builtFrom.entrySet()) {
+      BitSet dependentRows = values.get(entry.getKey());
+      if (dependentRows != null) {
+        MarketDataRequirements reqs = entry.getValue();
+        for (ObservableId id : reqs.getObservables()) {
+          values.computeIfAbsent(id, k -> new BitSet(rowCount)).or(dependentRows);
+        }
+        for (MarketDataId<?> id : reqs.getNonObservables()) {
+          values.computeIfAbsent(id, k -> new BitSet(rowCount)).or(dependentRows);
+        }
+        for (ObservableId id : reqs.getTimeSeries()) {
+          timeSeries.computeIfAbsent(id, k -> new BitSet(rowCount)).or(dependentRows);
+        }
+      }
+    }
+    this.rowTasks = rows;
+    this.valueIndex = values;
+    this.timeSeriesIndex = timeSeries;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the identifiers of the market data that the tasks depend on.
+   * <p>
+   * If the instance was created with a {@link MarketDataFactory}, this includes the market data
+   * that the market data required by the tasks is built from.
+   *
+   * @return the identifiers of the values and time-series that the tasks depend on
+   */
+  public Set<MarketDataId<?>> getDependencies() {
+    return ImmutableSet.<MarketDataId<?>>builder()
+        .addAll(valueIndex.keySet())
+        .addAll(timeSeriesIndex.keySet())
+        .build();
+  }
+
+  /**
+   * Finds the rows that would be recalculated if the specified market data changed.
+   *
+   * @param changedIds  the identifiers of the market data that changed
+   * @return the indices of the affected rows
+   */
+  public Set<Integer> affectedRows(Set<? extends MarketDataId<?>> changedIds) {
+    BitSet rows = affected(changedIds);
+    return rows.stream().boxed().collect(toImmutableSet());
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the results for a single set of market data.
+   * <p>
+   * The changed market data is determined by comparing with the market data
+   * of the previous calculation. The first time this is called, all results are calculated.
+   *
+   * @param marketData  the market data
+   * @return the results, with any unaffected results retained from the previous calculation
+   */
+  public synchronized Results calculate(MarketData marketData) {
+    ScenarioMarketData md = ScenarioMarketData.of(1, marketData);
+    return recalculate(md, changedIds(md, true), true);
+  }
+
+  /**
+   * Calculates the results for a single set of market data, specifying the changed market data.
+   * <p>
+   * Only the rows depending on the changed market data are recalculated.
+   * If there is no previous calculation, all results are calculated.
+   * Each changed identifier must be one of the {@linkplain #getDependencies() dependencies}.
+   *
+   * @param marketData  the market data
+   * @param changedIds  the identifiers of the market data that changed since the previous calculation
+   * @return the results, with any unaffected results retained from the previous calculation
+   * @throws IllegalArgumentException if a changed identifier is not one of the dependencies
+   */
+  public synchronized Results calculate(MarketData marketData, Set<? extends MarketDataId<?>> changedIds) {
+    validateChanged(changedIds);
+    ScenarioMarketData md = ScenarioMarketData.of(1, marketData);
+    Optional<Set<? extends MarketDataId<?>>> changed =
+        isFullRecalculation(md, true) ? Optional.empty() : Optional.of(changedIds);
+    return recalculate(md, changed, true);
+  }
+
+  /**
+   * Calculates the results for multiple scenarios.
+   * <p>
+   * The changed market data is determined by comparing with the market data
+   * of the previous calculation. The first time this is called, all results are calculated.
+   *
+   * @param marketData  the market data
+   * @return the results, with any unaffected results retained from the previous calculation
+   */
+  public synchronized Results calculateMultiScenario(ScenarioMarketData marketData) {
+    return recalculate(marketData, changedIds(marketData, false), false);
+  }
+
+  /**
+   * Calculates the results for multiple scenarios, specifying the changed market data.
+   * <p>
+   * Only the rows depending on the changed market data are recalculated.
+   * If there is no previous calculation, all results are calculated.
+   * Each changed identifier must be one of the {@linkplain #getDependencies() dependencies}.
+   *
+   * @param marketData  the market data
+   * @param changedIds  the identifiers of the market data that changed since the previous calculation
+   * @return the results, with any unaffected results retained from the previous calculation
+   * @throws IllegalArgumentException if a changed identifier is not one of the dependencies
+   */
+  public synchronized Results calculateMultiScenario(
+      ScenarioMarketData marketData,
+      Set<? extends MarketDataId<?>> changedIds) {
+
+    validateChanged(changedIds);
+    Optional<Set<? extends MarketDataId<?>>> changed =
+        isFullRecalculation(marketData, false) ? Optional.empty() : Optional.of(changedIds);
+    return recalculate(marketData, changed, false);
+  }
+
+  //-------------------------------------------------------------------------
+  // checks the changed identifiers are known, as an unknown identifier would otherwise leave results stale
+  private void validateChanged(Set<? extends MarketDataId<?>> changedIds) {
+    ArgChecker.notNull(changedIds, "changedIds");
+    for (MarketDataId<?> id : changedIds) {
+      ArgChecker.isTrue(
+          valueIndex.containsKey(id) || timeSeriesIndex.containsKey(id),
+          "Changed market data is not a dependency of the calculations: {}",
+          id);
+    }
+  }
+
+  // checks if all the results must be calculated
+  private boolean isFullRecalculation(ScenarioMarketData marketData, boolean single) {
+    return cells == null ||
+        previousSingle != single ||
+        previousMarketData.getScenarioCount() != marketData.getScenarioCount() ||
+        !previousMarketData.getValuationDate().equals(marketData.getValuationDate());
+  }
+
+  // determines the changed market data, empty if all the results must be calculated
+  private Optional<Set<? extends MarketDataId<?>>> changedIds(ScenarioMarketData marketData, boolean single) {
+    if (isFullRecalculation(marketData, single)) {
+      return Optional.empty();
+    }
+    Set<MarketDataId<?>> changed = new HashSet<>();
+    for (MarketDataId<?> id : valueIndex.keySet()) {
+      if (isValueChanged(id, marketData)) {
+        changed.add(id);
+      }
+    }
+    for (ObservableId id : timeSeriesIndex.keySet()) {
+      if (!previousMarketData.getTimeSeries(id).equals(marketData.getTimeSeries(id))) {
+        changed.add(id);
+      }
+    }
+    return Optional.of(changed);
+  }
+
+  // checks if the value has changed, comparing by identity first as values are often reused
+  private <T> boolean isValueChanged(MarketDataId<T> id, ScenarioMarketData marketData) {
+    Optional<MarketDataBox<T>> previous = previousMarketData.findValue(id);
+    Optional<MarketDataBox<T>> current = marketData.findValue(id);
+    if (!previous.isPresent() || !current.isPresent()) {
+      return previous.isPresent() != current.isPresent();
+    }
+    MarketDataBox<T> previousBox = previous.get();
+    MarketDataBox<T> currentBox = current.get();
+    if (previousBox == currentBox) {
+      return false;
+    }
+    if (previousBox.isSingleValue() && currentBox.isSingleValue()) {
+      T previousValue = previousBox.getSingleValue();
+      T currentValue = currentBox.getSingleValue();
+      return previousValue != currentValue && !Objects.equals(previousValue, currentValue);
+    }
+    return !previousBox.equals(currentBox);
+  }
+
+  // finds the rows affected by a change
+  private BitSet affected(Set<? extends MarketDataId<?>> changedIds) {
+    BitSet rows = new BitSet(rowTasks.size());
+    for (MarketDataId<?> id : changedIds) {
+      BitSet valueRows = valueIndex.get(id);
+      if (valueRows != null) {
+        rows.or(valueRows);
+      }
+      BitSet timeSeriesRows = timeSeriesIndex.get(id);
+      if (timeSeriesRows != null) {
+        rows.or(timeSeriesRows);
+      }
+    }
+    return rows;
+  }
+
+  // performs the calculation, recalculating all rows if there are no changed identifiers
+  private Results recalculate(
+      ScenarioMarketData marketData,
+      Optional<Set<? extends MarketDataId<?>>> changedIds,
+      boolean single) {
+
+    int columnCount = columnHeaders.size();
+    Result<?>[] newCells;
+    if (!changedIds.isPresent()) {
+      Results results = calculate(tasks, marketData, single);
+      newCells = results.getCells().toArray(new Result<?>[results.getCells().size()]);
+    } else {
+      newCells = cells.clone();
+      BitSet rows = affected(changedIds.get());
+      if (!rows.isEmpty()) {
+        // the affected rows are renumbered so they form a contiguous grid
+        ImmutableList.Builder<CalculationTask> subsetTasks = ImmutableList.builder();
+        int[] originalRows = rows.stream().toArray();
+        for (int newRow = 0; newRow < originalRows.length; newRow++) {
+          for (CalculationTask task : rowTasks.get(originalRows[newRow])) {
+            subsetTasks.add(withRowIndex(task, newRow));
+          }
+        }
+        CalculationTasks subset = CalculationTasks.of(subsetTasks.build(), tasks.getColumns());
+        Results results = calculate(subset, marketData, single);
+        for (int newRow = 0; newRow < originalRows.length; newRow++) {
+          for (int col = 0; col < columnCount; col++) {
+            newCells[originalRows[newRow] * columnCount + col] = results.get(newRow, col);
+          }
+        }
+      }
+    }
+    cells = newCells;
+    previousMarketData = marketData;
+    previousSingle = single;
+    return Results.of(columnHeaders, Arrays.asList(newCells));
+  }
+
+  // invokes the runner
+  private Results calculate(CalculationTasks tasksToRun, ScenarioMarketData marketData, boolean single) {
+    if (single) {
+      return runner.calculate(tasksToRun, marketData.scenario(0), refData);
+    }
+    return runner.calculateMultiScenario(tasksToRun, marketData, refData);
+  }
+
+  // creates a copy of the task for a different row
+  private static CalculationTask withRowIndex(CalculationTask task, int rowIndex) {
+    List<CalculationTaskCell> cells = new ArrayList<>(task.getCells().size());
+    for (CalculationTaskCell cell : task.getCells()) {
+      cells.add(CalculationTaskCell.of(
+          rowIndex, cell.getColumnIndex(), cell.getMeasure(), cell.getReportingCurrency()));
+    }
+    return CalculationTask.of(task.getTarget(), task.getFunction(), task.getParameters(), cells);
+  }
+
+}
@@ -6,6 +6,7 @@
 package com.opengamma.strata.calc.runner;
 
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -113,6 +114,43 @@ final class ListenerWrapper implements Consumer<CalculationResults> {
     } finally {
       lock.unlock();
     }
+    deliver(nextResult);
+  }
+
+  /**
+   * Accepts a batch of calculation results and delivers them to the listener.
+   * <p>
+   * This behaves as though {@link #accept(CalculationResults)} was called for each result,
+   * but the lock is only acquired once to hand off the whole batch.
+   * This reduces contention when many small tasks complete at a high rate.
+   *
+   * @param results  the results of a batch of calculations
+   */
+  void acceptAll(List<CalculationResults> results) {
+    if (results.isEmpty()) {
+      return;
+    }
+    CalculationResults nextResult;
+
+    lock.lock();
+    try {
+      queue.addAll(results);
+      if (executing) {
+        // Another thread is already invoking the listener and will deliver the batch
+        return;
+      }
+      executing = true;
+      nextResult = queue.remove();
+    } finally {
+      lock.unlock();
+    }
+    deliver(nextResult);
+  }
+
+  // delivers the result, and any queued results, to the listener
+  // this must only be called by the thread that set the executing flag
+  private void deliver(CalculationResults result) {
+    CalculationResults nextResult = result;
     // Loop until the nextResult and all the results from the queue have been delivered
     for (;;) {
       try {
@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import com.opengamma.strata.calc.ColumnHeader;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.result.Result;
+
+/**
+ * Sink that collects the results of calculations directly into the grid of results.
+ * <p>
+ * The size of the grid is known up-front from the {@link CalculationTasks}, thus the sink
+ * allocates a single array with a slot for each cell. Each {@link CalculationResult} is
+ * written straight into the slot for its row and column, so no sorting or intermediate
+ * lists are needed to build the {@link Results}.
+ * <p>
+ * This class is thread-safe without locking. Each cell is written by exactly one task,
+ * so threads never write to the same slot. Each task then decrements a counter of the
+ * outstanding tasks, and the thread that decrements the counter to zero builds the results.
+ * The atomic counter ensures that all the writes to the array are visible to that thread.
+ */
+final class ResultsSink implements Consumer<CalculationResults> {
+
+  /** The column headers. */
+  private final List<ColumnHeader> headers;
+  /** The number of columns. */
+  private final int columnCount;
+  /** The cells, indexed by {@code (rowIndex * columnCount) + columnIndex}. */
+  private final Result<?>[] cells;
+  /** The number of tasks that have not yet delivered their results. */
+  private final AtomicInteger tasksRemaining;
+  /** A future representing the results. */
+  private final CompletableFuture<Results> future = new CompletableFuture<>();
+
+  //-------------------------------------------------------------------------
+  /**
+   * Creates a sink for the results of the specified tasks.
+   *
+   * @param tasks  the calculation tasks
+   * @return the sink
+   */
+  static ResultsSink of(CalculationTasks tasks) {
+    List<ColumnHeader> headers = tasks.getColumns().stream()
+        .map(c -> c.toHeader())
+        .collect(toImmutableList());
+    return new ResultsSink(headers, tasks.getTargets().size(), tasks.getTasks().size());
+  }
+
+  // restricted constructor
+  private ResultsSink(List<ColumnHeader> headers, int rowCount, int tasksExpected) {
+    this.headers = headers;
+    this.columnCount = headers.size();
+    this.cells = new Result<?>[rowCount * columnCount];
+    this.tasksRemaining = new AtomicInteger(ArgChecker.notNegativeOrZero(tasksExpected, "tasksExpected"));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Accepts the results of a task, writing them into the grid.
+   * <p>
+   * This method can be invoked concurrently by multiple threads.
+   *
+   * @param results  the results of a task
+   */
+  @Override
+  public void accept(CalculationResults results) {
+    store(results);
+    if (tasksRemaining.decrementAndGet() == 0) {
+      complete();
+    }
+  }
+
+  /**
+   * Accepts the results of a batch of tasks, writing them into the grid.
+   * <p>
+   * This method can be invoked concurrently by multiple threads.
+   *
+   * @param results  the results of a batch of tasks
+   */
+  void acceptAll(List<CalculationResults> results) {
+    if (results.isEmpty()) {
+      return;
+    }
+    for (CalculationResults taskResults : results) {
+      store(taskResults);
+    }
+    if (tasksRemaining.addAndGet(-results.size()) == 0) {
+      complete();
+    }
+  }
+
+  // writes the cells into the array, each cell is only ever written by one thread
+  private void store(CalculationResults results) {
+    for (CalculationResult cell : results.getCells()) {
+      cells[cell.getRowIndex() * columnCount + cell.getColumnIndex()] = cell.getResult();
+    }
+  }
+
+  // builds the results, only called by the thread that delivered the last results
+  private void complete() {
+    try {
+      future.complete(Results.of(headers, Arrays.asList(cells)));
+    } catch (RuntimeException ex) {
+      future.completeExceptionally(ex);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the results of the calculations, blocking until they are available.
+   *
+   * @return the results of the calculations
+   */
+  Results result() {
+    try {
+      return future.get();
+    } catch (InterruptedException | ExecutionException e) {
+      throw new RuntimeException("Exception getting result", e);
+    }
+  }
+
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.RecursiveTask;
+
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
+import com.opengamma.strata.calc.Measure;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.scenario.CurrencyScenarioArray;
+import com.opengamma.strata.data.scenario.DoubleScenarioArray;
+import com.opengamma.strata.data.scenario.MultiCurrencyScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * Calculates the results of a task for a contiguous range of scenarios.
+ * <p>
+ * When a task is expensive and there are many scenarios, the scenarios of the task are split
+ * into chunks, with each chunk calculated as a separate fork-join task. This allows a small
+ * number of heavy tasks to use all the available threads.
+ * <p>
+ * The results of the chunks are combined back into a single result for each measure
+ * before the results are converted to the reporting currency.
+ */
+final class ScenarioChunkTask extends RecursiveTask<Map<Measure, Result<?>>> {
+
+  /** Serialization version. */
+  private static final long serialVersionUID = 1L;
+
+  /** The task to execute. */
+  private final CalculationTask task;
+  /** The market data for the chunk of scenarios. */
+  private final ScenarioMarketData marketData;
+  /** The reference data. */
+  private final ReferenceData refData;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Executes the task, splitting the scenarios into chunks if there are more than the chunk size.
+   * <p>
+   * This must be invoked from within a fork-join pool.
+   *
+   * @param task  the task to execute
+   * @param marketData  the market data
+   * @param refData  the reference data
+   * @param chunkSize  the maximum number of scenarios in a chunk, zero to not split the scenarios
+   * @return the results of the task
+   */
+  static CalculationResults execute(
+      CalculationTask task,
+      ScenarioMarketData marketData,
+      ReferenceData refData,
+      int chunkSize) {
+
+    int scenarioCount = marketData.getScenarioCount();
+    if (chunkSize <= 0 || scenarioCount <= chunkSize) {
+      return task.execute(marketData, refData);
+    }
+    List<ScenarioChunkTask> chunks = new ArrayList<>();
+    for (int start = 0; start < scenarioCount; start += chunkSize) {
+      int end = Math.min(start + chunkSize, scenarioCount);
+      chunks.add(new ScenarioChunkTask(task, ScenarioMarketDataChunk.of(marketData, start, end), refData));
+    }
+    invokeAll(chunks);
+    List<Map<Measure, Result<?>>> chunkResults = new ArrayList<>(chunks.size());
+    for (ScenarioChunkTask chunk : chunks) {
+      chunkResults.add(chunk.join());
+    }
+    return task.createResults(combine(chunkResults, scenarioCount), marketData, refData);
+  }
+
+  // restricted constructor
+  private ScenarioChunkTask(CalculationTask task, ScenarioMarketData marketData, ReferenceData refData) {
+    this.task = task;
+    this.marketData = marketData;
+    this.refData = refData;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  protected Map<Measure, Result<?>> compute() {
+    return task.calculate(marketData, refData);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Combines the results of each chunk into a single result for each measure.
+   *
+   * @param chunkResults  the results of each chunk, in scenario order
+   * @param scenarioCount  the total number of scenarios
+   * @return the combined results
+   */
+  static Map<Measure, Result<?>> combine(List<Map<Measure, Result<?>>> chunkResults, int scenarioCount) {
+    Map<Measure, Result<?>> combined = new LinkedHashMap<>();
+    for (Measure measure : chunkResults.get(0).keySet()) {
+      List<Result<?>> results = new ArrayList<>(chunkResults.size());
+      for (Map<Measure, Result<?>> chunkResult : chunkResults) {
+        Result<?> result = chunkResult.get(measure);
+        if (result == null) {
+          result = Result.failure(
+              FailureReason.CALCULATION_FAILED, "Measure '{}' was not calculated for all scenarios", measure);
+        }
+        results.add(result);
+      }
+      combined.put(measure, combine(measure, results, scenarioCount));
+    }
+    return combined;
+  }
+
+  // combines the results of each chunk for one measure
+  private static Result<?> combine(Measure measure, List<Result<?>> results, int scenarioCount) {
+    for (Result<?> result : results) {
+      if (result.isFailure()) {
+        return result;
+      }
+    }
+    List<Object> values = new ArrayList<>(results.size());
+    for (Result<?> result : results) {
+      values.add(result.getValue());
+    }
+    if (!values.stream().allMatch(v -> v instanceof ScenarioArray)) {
+      // values that do not vary by scenario are only valid if every chunk produced the same value
+      if (values.stream().allMatch(v -> Objects.equals(v, values.get(0)))) {
+        return results.get(0);
+      }
+      return Result.failure(
+          FailureReason.CALCULATION_FAILED,
+          "Unable to combine results for measure '{}' as the result is not a ScenarioArray",
+          measure);
+    }
+    ScenarioArray<?> combined = combineArrays(values);
+    if (combined.getScenarioCount() != scenarioCount) {
+      return Result.failure(
+          FailureReason.CALCULATION_FAILED,
+          "Unable to combine results for measure '{}', expected {} scenarios but found {}",
+          measure,
+          scenarioCount,
+          combined.getScenarioCount());
+    }
+    return Result.success(combined);
+  }
+
+  // combines the scenario arrays, retaining the type of array where possible
+  private static ScenarioArray<?> combineArrays(List<Object> values) {
+    Object first = values.get(0);
+    if (values.stream().allMatch(v -> v instanceof DoubleScenarioArray)) {
+      DoubleArray combined = DoubleArray.EMPTY;
+      for (Object value : values) {
+        combined = combined.concat(((DoubleScenarioArray) value).getValues());
+      }
+      return DoubleScenarioArray.of(combined);
+    }
+    if (first instanceof CurrencyScenarioArray) {
+      Currency currency = ((CurrencyScenarioArray) first).getCurrency();
+      if (values.stream().allMatch(
+          v -> v instanceof CurrencyScenarioArray && ((CurrencyScenarioArray) v).getCurrency().equals(currency))) {
+        DoubleArray combined = DoubleArray.EMPTY;
+        for (Object value : values) {
+          combined = combined.concat(((CurrencyScenarioArray) value).getAmounts().getValues());
+        }
+        return CurrencyScenarioArray.of(currency, combined);
+      }
+    }
+    if (values.stream().allMatch(v -> v instanceof MultiCurrencyScenarioArray)) {
+      List<MultiCurrencyAmount> combined = new ArrayList<>();
+      for (Object value : values) {
+        ((MultiCurrencyScenarioArray) value).stream().forEach(combined::add);
+      }
+      return MultiCurrencyScenarioArray.of(combined);
+    }
+    List<Object> combined = new ArrayList<>();
+    for (Object value : values) {
+      ((ScenarioArray<?>) value).stream().forEach(combined::add);
+    }
+    return ScenarioArray.of(combined);
+  }
+
+}
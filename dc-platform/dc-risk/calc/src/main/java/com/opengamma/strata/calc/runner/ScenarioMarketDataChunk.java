@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.data.MarketDataId;
+import com.opengamma.strata.data.MarketDataName;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.data.scenario.MarketDataBox;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * A view of a contiguous range of the scenarios in a set of scenario market data.
+ * <p>
+ * Scenario zero of the chunk is scenario {@code start} of the underlying market data.
+ * Values that are the same in all scenarios are returned unchanged, thus only the
+ * values that vary by scenario are copied.
+ */
+final class ScenarioMarketDataChunk implements ScenarioMarketData {
+
+  /** The underlying market data. */
+  private final ScenarioMarketData underlying;
+  /** The index of the first scenario, inclusive. */
+  private final int start;
+  /** The number of scenarios. */
+  private final int scenarioCount;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains a view of a range of the scenarios in the underlying market data.
+   *
+   * @param underlying  the underlying market data
+   * @param start  the index of the first scenario, inclusive
+   * @param end  the index of the last scenario, exclusive
+   * @return the market data for the range of scenarios
+   */
+  static ScenarioMarketDataChunk of(ScenarioMarketData underlying, int start, int end) {
+    ArgChecker.notNegative(start, "start");
+    ArgChecker.inOrderNotEqual(start, end, "start", "end");
+    ArgChecker.inRangeInclusive(end, 1, underlying.getScenarioCount(), "end");
+    return new ScenarioMarketDataChunk(underlying, start, end - start);
+  }
+
+  // restricted constructor
+  private ScenarioMarketDataChunk(ScenarioMarketData underlying, int start, int scenarioCount) {
+    this.underlying = ArgChecker.notNull(underlying, "underlying");
+    this.start = start;
+    this.scenarioCount = scenarioCount;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public MarketDataBox<LocalDate> getValuationDate() {
+    return chunk(underlying.getValuationDate());
+  }
+
+  @Override
+  public int getScenarioCount() {
+    return scenarioCount;
+  }
+
+  @Override
+  public MarketData scenario(int scenarioIndex) {
+    ArgChecker.inRange(scenarioIndex, 0, scenarioCount, "scenarioIndex");
+    return underlying.scenario(start + scenarioIndex);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean containsValue(MarketDataId<?> id) {
+    return underlying.containsValue(id);
+  }
+
+  @Override
+  public <T> MarketDataBox<T> getValue(MarketDataId<T> id) {
+    return chunk(underlying.getValue(id));
+  }
+
+  @Override
+  public <T> Optional<MarketDataBox<T>> findValue(MarketDataId<T> id) {
+    return underlying.findValue(id).map(this::chunk);
+  }
+
+  @Override
+  public Set<MarketDataId<?>> getIds() {
+    return underlying.getIds();
+  }
+
+  @Override
+  public <T> Set<MarketDataId<T>> findIds(MarketDataName<T> name) {
+    return underlying.findIds(name);
+  }
+
+  @Override
+  public Set<ObservableId> getTimeSeriesIds() {
+    return underlying.getTimeSeriesIds();
+  }
+
+  @Override
+  public LocalDateDoubleTimeSeries getTimeSeries(ObservableId id) {
+    return underlying.getTimeSeries(id);
+  }
+
+  // restricts a box to the scenarios in the chunk
+  private <T> MarketDataBox<T> chunk(MarketDataBox<T> box) {
+    if (box.isSingleValue()) {
+      return box;
+    }
+    List<T> values = new ArrayList<>(scenarioCount);
+    for (int i = 0; i < scenarioCount; i++) {
+      values.add(box.getValue(start + i));
+    }
+    return MarketDataBox.ofScenarioValues(values);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "ScenarioMarketDataChunk[" + start + ".." + (start + scenarioCount) + " of " + underlying + "]";
+  }
+
+}
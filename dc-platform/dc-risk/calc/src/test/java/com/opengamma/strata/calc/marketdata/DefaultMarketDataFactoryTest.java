@@ -10,15 +10,20 @@ import static com.opengamma.strata.collect.TestHelper.assertThrows;
 import static com.opengamma.strata.collect.TestHelper.date;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.basics.StandardId;
 import com.opengamma.strata.collect.result.FailureReason;
@@ -355,6 +360,126 @@ public class DefaultMarketDataFactoryTest {
     assertThat(marketData.getValue(new TestIdC("2"))).isEqualTo(expectedC2);
   }
 
+  /**
+   * Tests building market data in parallel, reporting the time taken to build each item.
+   */
+  public void buildParallel() {
+    LocalDateDoubleTimeSeries timeSeries1 = LocalDateDoubleTimeSeries.builder()
+        .put(date(2011, 3, 8), 1)
+        .put(date(2011, 3, 9), 2)
+        .build();
+
+    LocalDateDoubleTimeSeries timeSeries2 = LocalDateDoubleTimeSeries.builder()
+        .put(date(2011, 3, 8), 10)
+        .put(date(2011, 3, 9), 20)
+        .build();
+
+    Map<TestIdA, LocalDateDoubleTimeSeries> timeSeriesMap = ImmutableMap.of(
+        new TestIdA("1"), timeSeries1,
+        new TestIdA("2"), timeSeries2);
+
+    MarketDataRequirements requirements = MarketDataRequirements.builder()
+        .addValues(new TestIdB("1"), new TestIdB("2"), new TestIdC("1"))
+        .build();
+
+    Map<MarketDataId<?>, Duration> buildTimes = new ConcurrentHashMap<>();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      MarketDataFactory factory = MarketDataFactory.ofParallel(
+          new TestObservableDataProvider(),
+          new TestTimeSeriesProvider(timeSeriesMap),
+          executor,
+          (id, buildTime, result) -> buildTimes.put(id, buildTime),
+          ImmutableList.of(new TestMarketDataFunctionB(), new TestMarketDataFunctionC()));
+
+      MarketData suppliedData = MarketData.empty(date(2011, 3, 8));
+      BuiltMarketData marketData = factory.create(requirements, MARKET_DATA_CONFIG, suppliedData, REF_DATA);
+
+      assertThat(marketData.getValueFailures()).isEmpty();
+      assertThat(marketData.getTimeSeriesFailures()).isEmpty();
+
+      TestMarketDataC expectedC1 = new TestMarketDataC(timeSeries1);
+      TestMarketDataC expectedC2 = new TestMarketDataC(timeSeries2);
+      assertThat(marketData.getValue(new TestIdB("1"))).isEqualTo(new TestMarketDataB(1, expectedC1));
+      assertThat(marketData.getValue(new TestIdB("2"))).isEqualTo(new TestMarketDataB(2, expectedC2));
+      assertThat(marketData.getValue(new TestIdA("1"))).isEqualTo(1d);
+      assertThat(marketData.getValue(new TestIdC("1"))).isEqualTo(expectedC1);
+      assertThat(marketData.getValue(new TestIdC("2"))).isEqualTo(expectedC2);
+
+      // each item of non-observable data is built once
+      assertThat(buildTimes).containsOnlyKeys(new TestIdB("1"), new TestIdB("2"), new TestIdC("1"), new TestIdC("2"));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Tests building market data in parallel gives the same result as building it on the calling thread.
+   */
+  public void buildParallelWithScenarios() {
+    TestIdA idA1 = new TestIdA("1");
+    TestIdA idA2 = new TestIdA("2");
+    MarketData suppliedData = ImmutableMarketData.builder(date(2011, 3, 8))
+        .addTimeSeries(idA1, LocalDateDoubleTimeSeries.of(date(2011, 3, 8), 1))
+        .addTimeSeries(idA2, LocalDateDoubleTimeSeries.of(date(2011, 3, 8), 2))
+        .addValue(idA1, 1d)
+        .addValue(idA2, 2d)
+        .build();
+    MarketDataRequirements requirements = MarketDataRequirements.builder()
+        .addValues(new TestIdB("1"), new TestIdB("2"))
+        .build();
+    PerturbationMapping<Double> mapping = PerturbationMapping.of(
+        Double.class,
+        new ExactIdFilter<>(idA1),
+        new AbsoluteDoubleShift(0.1, 0.2));
+    ScenarioDefinition scenarioDefinition = ScenarioDefinition.ofMappings(ImmutableList.of(mapping));
+
+    MarketDataFactory serialFactory = MarketDataFactory.of(
+        ObservableDataProvider.none(),
+        TimeSeriesProvider.none(),
+        new TestMarketDataFunctionB(),
+        new TestMarketDataFunctionC());
+    BuiltScenarioMarketData expected = serialFactory.createMultiScenario(
+        requirements, MARKET_DATA_CONFIG, suppliedData, REF_DATA, scenarioDefinition);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      MarketDataFactory factory = MarketDataFactory.ofParallel(
+          ObservableDataProvider.none(),
+          TimeSeriesProvider.none(),
+          executor,
+          new TestMarketDataFunctionB(),
+          new TestMarketDataFunctionC());
+      BuiltScenarioMarketData marketData = factory.createMultiScenario(
+          requirements, MARKET_DATA_CONFIG, suppliedData, REF_DATA, scenarioDefinition);
+      assertThat(marketData.getScenarioCount()).isEqualTo(2);
+      assertThat(marketData).isEqualTo(expected);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Tests an exception is thrown when there is no builder for an ID type when building in parallel.
+   */
+  public void noMarketDataBuilderAvailableParallel() {
+    MarketDataRequirements requirements = MarketDataRequirements.builder()
+        .addValues(new TestIdB("1"), new TestIdB("2"))
+        .build();
+
+    MarketDataFactory factory = MarketDataFactory.ofParallel(
+        new TestObservableDataProvider(),
+        new TestTimeSeriesProvider(ImmutableMap.of()),
+        MoreExecutors.directExecutor(),
+        new TestMarketDataFunctionB());
+
+    BuiltScenarioMarketData suppliedData = BuiltScenarioMarketData.builder(date(2011, 3, 8)).build();
+    assertThrows(
+        () -> factory.createMultiScenario(requirements, MARKET_DATA_CONFIG, suppliedData, REF_DATA, ScenarioDefinition.empty()),
+        IllegalStateException.class,
+        "No market data function available for market data ID of type.*");
+  }
+
   /**
    * Tests building multiple observable values for scenarios where the values aren't perturbed.
    */
@@ -11,10 +11,12 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.basics.StandardId;
 import com.opengamma.strata.collect.tuple.Pair;
@@ -100,6 +102,45 @@ public class MarketDataNodeTest {
     assertThat(expectedReqs3).isEqualTo(reqs3);
   }
 
+  /**
+   * Tests flattening the tree into a graph of the dependencies between non-observable market data.
+   */
+  public void dependencyGraph() {
+    MarketDataNode root =
+        rootNode(
+            observableNode(new TestIdA("1")),
+            valueNode(
+                new TestIdB("2"),
+                valueNode(new TestIdB("3")),
+                observableNode(new TestIdA("4")),
+                valueNode(
+                    new TestIdB("5"),
+                    timeSeriesNode(new TestIdA("6")))),
+            valueNode(
+                new TestIdB("7"),
+                valueNode(
+                    new TestIdB("5"),
+                    timeSeriesNode(new TestIdA("6")))));
+
+    Pair<Map<MarketDataId<?>, Set<MarketDataId<?>>>, MarketDataRequirements> pair = root.dependencyGraph();
+
+    Map<MarketDataId<?>, Set<MarketDataId<?>>> expectedGraph = ImmutableMap.of(
+        new TestIdB("2"), ImmutableSet.of(new TestIdB("3"), new TestIdB("5")),
+        new TestIdB("3"), ImmutableSet.of(),
+        new TestIdB("5"), ImmutableSet.of(),
+        new TestIdB("7"), ImmutableSet.of(new TestIdB("5")));
+
+    MarketDataRequirements expectedReqs =
+        MarketDataRequirements.builder()
+            .addValues(new TestIdA("1"))
+            .addValues(new TestIdA("4"))
+            .addTimeSeries(new TestIdA("6"))
+            .build();
+
+    assertThat(pair.getFirst()).isEqualTo(expectedGraph);
+    assertThat(pair.getSecond()).isEqualTo(expectedReqs);
+  }
+
   /**
    * Tests building a tree of requirements using market data functions.
    */
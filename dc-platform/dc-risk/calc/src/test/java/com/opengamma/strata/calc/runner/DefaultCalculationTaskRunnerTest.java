@@ -10,10 +10,12 @@ import static com.opengamma.strata.calc.ReportingCurrency.NATURAL;
 import static com.opengamma.strata.collect.CollectProjectAssertions.assertThat;
 import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
 import static com.opengamma.strata.collect.TestHelper.date;
+import static org.testng.Assert.assertEquals;
 
 import java.time.LocalDate;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import org.testng.annotations.Test;
 
@@ -121,6 +123,37 @@ public class DefaultCalculationTaskRunnerTest {
     assertThat(result2).hasValue(scenarioResult);
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Test that the work-stealing runner returns the results in the correct cells.
+   */
+  public void workStealing() {
+    ScenarioResultFunction fn1 = new ScenarioResultFunction(TestingMeasures.PRESENT_VALUE, ScenarioArray.of("foo"));
+    ScenarioResultFunction fn2 = new ScenarioResultFunction(TestingMeasures.PRESENT_VALUE, ScenarioArray.of("bar"));
+    ImmutableList.Builder<CalculationTask> taskBuilder = ImmutableList.builder();
+    int rowCount = 100;
+    for (int i = 0; i < rowCount; i++) {
+      CalculationTaskCell cell = CalculationTaskCell.of(i, 0, TestingMeasures.PRESENT_VALUE, NATURAL);
+      taskBuilder.add(CalculationTask.of(TARGET, i % 3 == 0 ? fn1 : fn2, cell));
+    }
+    Column column = Column.of(TestingMeasures.PRESENT_VALUE);
+    CalculationTasks tasks = CalculationTasks.of(taskBuilder.build(), ImmutableList.of(column));
+    assertEquals(CalculationTaskBatch.groupTasks(tasks.getTasks()).size(), 2);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try (CalculationTaskRunner test = CalculationTaskRunner.ofWorkStealing(pool, 5)) {
+      Results results = test.calculate(tasks, MarketData.empty(VAL_DATE), REF_DATA);
+      assertEquals(results.getRowCount(), rowCount);
+      for (int i = 0; i < rowCount; i++) {
+        assertThat(results.get(i, 0)).hasValue(i % 3 == 0 ? "foo" : "bar");
+      }
+    }
+  }
+
+  public void workStealing_invalidBatchSize() {
+    assertThrowsIllegalArg(() -> CalculationTaskRunner.ofWorkStealing(ForkJoinPool.commonPool(), 0));
+  }
+
   //-------------------------------------------------------------------------
   public static final class TestFunction implements CalculationFunction<TestTarget> {
 
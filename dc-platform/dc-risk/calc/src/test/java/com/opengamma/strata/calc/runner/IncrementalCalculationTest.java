@@ -0,0 +1,323 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.calc.ReportingCurrency.NATURAL;
+import static com.opengamma.strata.collect.CollectProjectAssertions.assertThat;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.testng.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.Measure;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.TestingMeasures;
+import com.opengamma.strata.calc.marketdata.MarketDataConfig;
+import com.opengamma.strata.calc.marketdata.MarketDataFactory;
+import com.opengamma.strata.calc.marketdata.MarketDataFunction;
+import com.opengamma.strata.calc.marketdata.MarketDataRequirements;
+import com.opengamma.strata.calc.marketdata.ObservableDataProvider;
+import com.opengamma.strata.calc.marketdata.TestId;
+import com.opengamma.strata.calc.marketdata.TestObservableId;
+import com.opengamma.strata.calc.marketdata.TimeSeriesProvider;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.MarketData;
+import com.opengamma.strata.data.scenario.ImmutableScenarioMarketData;
+import com.opengamma.strata.data.scenario.MarketDataBox;
+import com.opengamma.strata.data.scenario.ScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * Test {@link IncrementalCalculation}.
+ */
+@Test
+public class IncrementalCalculationTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final LocalDate VAL_DATE = date(2011, 3, 8);
+  private static final TestId ID_A = TestId.of("A");
+  private static final TestId ID_B = TestId.of("B");
+  private static final TestObservableId TS_ID = TestObservableId.of("TS");
+  private static final TestObservableId QUOTE_A = TestObservableId.of("QA");
+  private static final TestObservableId QUOTE_B = TestObservableId.of("QB");
+  private static final Measure PV = TestingMeasures.PRESENT_VALUE;
+  private static final Measure PAR_RATE = TestingMeasures.PAR_RATE;
+  private static final List<Column> COLUMNS = ImmutableList.of(Column.of(PV), Column.of(PAR_RATE));
+
+  //-------------------------------------------------------------------------
+  public void test_dependencies() {
+    IncrementalCalculation test = calculation(new CountingFunction());
+    assertEquals(test.getDependencies(), ImmutableSet.of(ID_A, ID_B, TS_ID));
+    assertEquals(test.affectedRows(ImmutableSet.of(ID_A)), ImmutableSet.of(0, 2));
+    assertEquals(test.affectedRows(ImmutableSet.of(ID_B)), ImmutableSet.of(1));
+    assertEquals(test.affectedRows(ImmutableSet.of(TS_ID)), ImmutableSet.of(2));
+    assertEquals(test.affectedRows(ImmutableSet.of(TestId.of("C"))), ImmutableSet.of());
+  }
+
+  public void test_calculate_detectChanges() {
+    CountingFunction fn = new CountingFunction();
+    IncrementalCalculation test = calculation(fn);
+
+    Results results1 = test.calculate(marketData(VAL_DATE, "a1", "b1", 1d));
+    assertEquals(fn.count, 3);
+    assertResults(results1, "a1", "b1", "a1");
+
+    // nothing changed
+    Results results2 = test.calculate(marketData(VAL_DATE, "a1", "b1", 1d));
+    assertEquals(fn.count, 3);
+    assertEquals(results2, results1);
+
+    // value changed
+    Results results3 = test.calculate(marketData(VAL_DATE, "a1", "b2", 1d));
+    assertEquals(fn.count, 4);
+    assertResults(results3, "a1", "b2", "a1");
+
+    // time-series changed
+    Results results4 = test.calculate(marketData(VAL_DATE, "a1", "b2", 2d));
+    assertEquals(fn.count, 5);
+    assertResults(results4, "a1", "b2", "a1");
+
+    // value used by two rows changed
+    Results results5 = test.calculate(marketData(VAL_DATE, "a2", "b2", 2d));
+    assertEquals(fn.count, 7);
+    assertResults(results5, "a2", "b2", "a2");
+  }
+
+  public void test_calculate_valuationDateChanged() {
+    CountingFunction fn = new CountingFunction();
+    IncrementalCalculation test = calculation(fn);
+    test.calculate(marketData(VAL_DATE, "a1", "b1", 1d));
+    test.calculate(marketData(VAL_DATE.plusDays(1), "a1", "b1", 1d));
+    assertEquals(fn.count, 6);
+  }
+
+  public void test_calculate_explicitChanges() {
+    CountingFunction fn = new CountingFunction();
+    IncrementalCalculation test = calculation(fn);
+    // no previous calculation, so everything is calculated
+    test.calculate(marketData(VAL_DATE, "a1", "b1", 1d), ImmutableSet.of());
+    assertEquals(fn.count, 3);
+
+    Results results = test.calculate(marketData(VAL_DATE, "a2", "b2", 1d), ImmutableSet.of(ID_B));
+    assertEquals(fn.count, 4);
+    // only the row depending on the explicitly changed identifier is recalculated
+    assertResults(results, "a1", "b2", "a1");
+  }
+
+  public void test_calculate_explicitChanges_builtFrom() {
+    CountingFunction fn = new CountingFunction();
+    MarketDataFactory factory =
+        MarketDataFactory.of(ObservableDataProvider.none(), TimeSeriesProvider.none(), new QuoteFunction());
+    IncrementalCalculation test = calculation(fn, factory);
+    assertEquals(test.getDependencies(), ImmutableSet.of(ID_A, ID_B, TS_ID, QUOTE_A, QUOTE_B));
+    assertEquals(test.affectedRows(ImmutableSet.of(QUOTE_A)), ImmutableSet.of(0, 2));
+    test.calculate(marketData(VAL_DATE, "a1", "b1", 1d));
+    assertEquals(fn.count, 3);
+
+    // the value of A is built from the quote, so the rows using A are recalculated
+    Results results = test.calculate(marketData(VAL_DATE, "a2", "b2", 1d), ImmutableSet.of(QUOTE_A));
+    assertEquals(fn.count, 5);
+    assertResults(results, "a2", "b1", "a2");
+  }
+
+  public void test_calculate_explicitChanges_notDependency() {
+    CountingFunction fn = new CountingFunction();
+    IncrementalCalculation test = calculation(fn);
+    test.calculate(marketData(VAL_DATE, "a1", "b1", 1d));
+    // without the market data factory, the quotes that A is built from are unknown
+    assertThrowsIllegalArg(() -> test.calculate(marketData(VAL_DATE, "a2", "b1", 1d), ImmutableSet.of(QUOTE_A)));
+    assertThrowsIllegalArg(() -> test.calculateMultiScenario(
+        scenarioMarketData("a1", "a2", "b1"), ImmutableSet.of(TestId.of("C"))));
+    assertEquals(fn.count, 3);
+  }
+
+  public void test_calculateMultiScenario() {
+    CountingFunction fn = new CountingFunction();
+    IncrementalCalculation test = calculation(fn);
+
+    Results results1 = test.calculateMultiScenario(scenarioMarketData("a1", "a2", "b1"));
+    assertEquals(fn.count, 3);
+    assertThat(results1.get(0, 0)).hasValue(ScenarioArray.of("a1", "a2"));
+
+    test.calculateMultiScenario(scenarioMarketData("a1", "a2", "b2"));
+    assertEquals(fn.count, 4);
+
+    Results results3 = test.calculateMultiScenario(scenarioMarketData("a1", "a3", "b2"));
+    assertEquals(fn.count, 6);
+    assertThat(results3.get(0, 0)).hasValue(ScenarioArray.of("a1", "a3"));
+    assertThat(results3.get(1, 0)).hasValue(ScenarioArray.of("b2", "b2"));
+
+    // switching to a single set of market data recalculates everything
+    test.calculate(marketData(VAL_DATE, "a1", "b2", 1d));
+    assertEquals(fn.count, 9);
+  }
+
+  //-------------------------------------------------------------------------
+  private static IncrementalCalculation calculation(CountingFunction fn) {
+    return IncrementalCalculation.of(runner(), tasks(fn), REF_DATA);
+  }
+
+  private static IncrementalCalculation calculation(CountingFunction fn, MarketDataFactory factory) {
+    return IncrementalCalculation.of(runner(), tasks(fn), REF_DATA, factory, MarketDataConfig.empty());
+  }
+
+  private static CalculationTasks tasks(CountingFunction fn) {
+    List<CalculationTask> taskList = ImmutableList.of(
+        task(new IdTarget(ID_A, false), fn, 0),
+        task(new IdTarget(ID_B, false), fn, 1),
+        task(new IdTarget(ID_A, true), fn, 2));
+    return CalculationTasks.of(taskList, COLUMNS);
+  }
+
+  // using the direct executor means there is no need to close/shutdown the runner
+  private static CalculationTaskRunner runner() {
+    return CalculationTaskRunner.of(MoreExecutors.newDirectExecutorService());
+  }
+
+  private static CalculationTask task(IdTarget target, CountingFunction fn, int row) {
+    return CalculationTask.of(
+        target,
+        fn,
+        CalculationTaskCell.of(row, 0, PV, NATURAL),
+        CalculationTaskCell.of(row, 1, PAR_RATE, NATURAL));
+  }
+
+  private static MarketData marketData(LocalDate valuationDate, String a, String b, double fixing) {
+    return MarketData.of(
+        valuationDate,
+        ImmutableMap.of(ID_A, a, ID_B, b),
+        ImmutableMap.of(TS_ID, LocalDateDoubleTimeSeries.of(VAL_DATE.minusDays(1), fixing)));
+  }
+
+  private static ScenarioMarketData scenarioMarketData(String a1, String a2, String b) {
+    return ImmutableScenarioMarketData.builder(VAL_DATE)
+        .addScenarioValue(ID_A, ImmutableList.of(a1, a2))
+        .addValue(ID_B, b)
+        .addTimeSeries(TS_ID, LocalDateDoubleTimeSeries.of(VAL_DATE.minusDays(1), 1d))
+        .build();
+  }
+
+  private static void assertResults(Results results, String row0, String row1, String row2) {
+    assertThat(results.get(0, 0)).hasValue(row0);
+    assertThat(results.get(1, 0)).hasValue(row1);
+    assertThat(results.get(2, 0)).hasValue(row2);
+    assertEquals(results.getRowCount(), 3);
+    assertEquals(results.getColumnCount(), 2);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Target that depends on a market data value, and optionally a time-series.
+   */
+  private static final class IdTarget implements CalculationTarget {
+
+    private final TestId id;
+    private final boolean timeSeries;
+
+    private IdTarget(TestId id, boolean timeSeries) {
+      this.id = id;
+      this.timeSeries = timeSeries;
+    }
+  }
+
+  /**
+   * Function that returns the market data value of the target, counting the number of invocations.
+   */
+  private static final class CountingFunction implements CalculationFunction<IdTarget> {
+
+    private int count;
+
+    @Override
+    public Class<IdTarget> targetType() {
+      return IdTarget.class;
+    }
+
+    @Override
+    public Set<Measure> supportedMeasures() {
+      return ImmutableSet.of(PV, PAR_RATE);
+    }
+
+    @Override
+    public Currency naturalCurrency(IdTarget target, ReferenceData refData) {
+      return USD;
+    }
+
+    @Override
+    public FunctionRequirements requirements(
+        IdTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ReferenceData refData) {
+
+      FunctionRequirements.Builder builder = FunctionRequirements.builder().valueRequirements(target.id);
+      if (target.timeSeries) {
+        builder.timeSeriesRequirements(TS_ID);
+      }
+      return builder.build();
+    }
+
+    @Override
+    public Map<Measure, Result<?>> calculate(
+        IdTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ScenarioMarketData marketData,
+        ReferenceData refData) {
+
+      count++;
+      MarketDataBox<String> box = marketData.getValue(target.id);
+      ScenarioArray<String> values = ScenarioArray.of(marketData.getScenarioCount(), i -> box.getValue(i));
+      return ImmutableMap.of(PV, Result.success(values), PAR_RATE, Result.success(values));
+    }
+  }
+
+  /**
+   * Market data function building the value of a test identifier from a quote.
+   */
+  private static final class QuoteFunction implements MarketDataFunction<String, TestId> {
+
+    @Override
+    public MarketDataRequirements requirements(TestId id, MarketDataConfig marketDataConfig) {
+      return MarketDataRequirements.builder().addValues(quoteId(id)).build();
+    }
+
+    @Override
+    public MarketDataBox<String> build(
+        TestId id,
+        MarketDataConfig marketDataConfig,
+        ScenarioMarketData marketData,
+        ReferenceData refData) {
+
+      return marketData.getValue(quoteId(id)).map(quote -> quote.toString());
+    }
+
+    @Override
+    public Class<TestId> getMarketDataIdType() {
+      return TestId.class;
+    }
+
+    private static TestObservableId quoteId(TestId id) {
+      return id.equals(ID_A) ? QUOTE_A : QUOTE_B;
+    }
+  }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.calc.ReportingCurrency.NATURAL;
+import static com.opengamma.strata.collect.CollectProjectAssertions.assertThat;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.TestingMeasures;
+import com.opengamma.strata.calc.runner.CalculationTaskTest.TestTarget;
+import com.opengamma.strata.calc.runner.DefaultCalculationTaskRunnerTest.TestFunction;
+import com.opengamma.strata.collect.result.Result;
+
+/**
+ * Test {@link ResultsSink}.
+ */
+@Test
+public class ResultsSinkTest {
+
+  private static final TestTarget TARGET = new TestTarget();
+  private static final TestFunction FUNCTION = new TestFunction();
+  private static final int ROW_COUNT = 100;
+
+  //-------------------------------------------------------------------------
+  public void outOfOrder() {
+    CalculationTasks tasks = tasks();
+    ResultsSink test = ResultsSink.of(tasks);
+    for (int row = ROW_COUNT - 1; row >= 0; row--) {
+      test.accept(results(row));
+    }
+    assertResults(test.result());
+  }
+
+  public void batches() {
+    CalculationTasks tasks = tasks();
+    ResultsSink test = ResultsSink.of(tasks);
+    test.acceptAll(ImmutableList.of());
+    ImmutableList.Builder<CalculationResults> batch = ImmutableList.builder();
+    for (int row = 0; row < ROW_COUNT / 2; row++) {
+      batch.add(results(row));
+    }
+    test.acceptAll(batch.build());
+    for (int row = ROW_COUNT / 2; row < ROW_COUNT; row++) {
+      test.acceptAll(ImmutableList.of(results(row)));
+    }
+    assertResults(test.result());
+  }
+
+  public void concurrent() throws Exception {
+    CalculationTasks tasks = tasks();
+    ResultsSink test = ResultsSink.of(tasks);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      IntStream.range(0, ROW_COUNT)
+          .mapToObj(row -> CompletableFuture.runAsync(() -> test.accept(results(row)), executor))
+          .forEach(future -> future.join());
+      assertResults(test.result());
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.SECONDS);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  private static CalculationTasks tasks() {
+    ImmutableList.Builder<CalculationTask> taskBuilder = ImmutableList.builder();
+    for (int row = 0; row < ROW_COUNT; row++) {
+      taskBuilder.add(CalculationTask.of(
+          TARGET,
+          FUNCTION,
+          CalculationTaskCell.of(row, 0, TestingMeasures.PRESENT_VALUE, NATURAL),
+          CalculationTaskCell.of(row, 1, TestingMeasures.PAR_RATE, NATURAL)));
+    }
+    ImmutableList<Column> columns =
+        ImmutableList.of(Column.of(TestingMeasures.PRESENT_VALUE), Column.of(TestingMeasures.PAR_RATE));
+    return CalculationTasks.of(taskBuilder.build(), columns);
+  }
+
+  private static CalculationResults results(int row) {
+    return CalculationResults.of(TARGET, ImmutableList.of(
+        CalculationResult.of(row, 1, Result.success("PR" + row)),
+        CalculationResult.of(row, 0, Result.success("PV" + row))));
+  }
+
+  private static void assertResults(Results results) {
+    assertEquals(results.getRowCount(), ROW_COUNT);
+    assertEquals(results.getColumnCount(), 2);
+    assertFalse(results.getCells().contains(null));
+    for (int row = 0; row < ROW_COUNT; row++) {
+      assertThat(results.get(row, 0)).hasValue("PV" + row);
+      assertThat(results.get(row, 1)).hasValue("PR" + row);
+    }
+  }
+
+}
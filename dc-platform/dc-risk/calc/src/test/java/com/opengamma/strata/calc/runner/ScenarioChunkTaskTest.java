@@ -0,0 +1,205 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.calc.runner;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.calc.ReportingCurrency.NATURAL;
+import static com.opengamma.strata.collect.CollectProjectAssertions.assertThat;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.Measure;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.TestingMeasures;
+import com.opengamma.strata.calc.marketdata.TestId;
+import com.opengamma.strata.calc.runner.CalculationTaskTest.TestTarget;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.data.scenario.CurrencyScenarioArray;
+import com.opengamma.strata.data.scenario.DoubleScenarioArray;
+import com.opengamma.strata.data.scenario.ImmutableScenarioMarketData;
+import com.opengamma.strata.data.scenario.ScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+
+/**
+ * Test {@link ScenarioChunkTask} and {@link ScenarioMarketDataChunk}.
+ */
+@Test
+public class ScenarioChunkTaskTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final TestTarget TARGET = new TestTarget();
+  private static final LocalDate VAL_DATE = date(2011, 3, 8);
+  private static final TestId ID = TestId.of("1");
+  private static final int SCENARIO_COUNT = 23;
+  private static final Measure PV = TestingMeasures.PRESENT_VALUE;
+  private static final Measure PAR_RATE = TestingMeasures.PAR_RATE;
+
+  //-------------------------------------------------------------------------
+  public void test_chunk() {
+    ScenarioMarketData md = marketData();
+    ScenarioMarketDataChunk test = ScenarioMarketDataChunk.of(md, 5, 10);
+    assertEquals(test.getScenarioCount(), 5);
+    assertEquals(test.getValuationDate().getSingleValue(), VAL_DATE);
+    assertEquals(test.getValue(ID).getValue(0), "5");
+    assertEquals(test.getValue(ID).getValue(4), "9");
+    assertEquals(test.scenario(2).getValue(ID), "7");
+    assertThat(test.findValue(TestId.of("2"))).isEmpty();
+  }
+
+  public void test_execute() {
+    ScenarioMarketData md = marketData();
+    CalculationTask task = CalculationTask.of(
+        TARGET,
+        new ChunkFunction(),
+        CalculationTaskCell.of(0, 0, PV, NATURAL),
+        CalculationTaskCell.of(0, 1, PAR_RATE, NATURAL));
+    List<Column> columns = ImmutableList.of(Column.of(PV), Column.of(PAR_RATE));
+    CalculationTasks tasks = CalculationTasks.of(ImmutableList.of(task), columns);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try (CalculationTaskRunner runner = CalculationTaskRunner.ofWorkStealing(pool, 5, 4)) {
+      Results results = runner.calculateMultiScenario(tasks, md, REF_DATA);
+      CurrencyScenarioArray pv = (CurrencyScenarioArray) results.get(0, 0).getValue();
+      assertEquals(pv, CurrencyScenarioArray.of(USD, DoubleArray.of(SCENARIO_COUNT, i -> i)));
+      ScenarioArray<?> parRate = (ScenarioArray<?>) results.get(0, 1).getValue();
+      List<String> expected = IntStream.range(0, SCENARIO_COUNT).mapToObj(i -> "4:" + i).collect(Collectors.toList());
+      expected.set(SCENARIO_COUNT - 3, "3:20");
+      expected.set(SCENARIO_COUNT - 2, "3:21");
+      expected.set(SCENARIO_COUNT - 1, "3:22");
+      assertEquals(parRate, ScenarioArray.of(expected));
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_combine_doubles() {
+    Map<Measure, Result<?>> combined = ScenarioChunkTask.combine(
+        ImmutableList.of(
+            ImmutableMap.of(PAR_RATE, Result.success(DoubleScenarioArray.of(DoubleArray.of(1, 2)))),
+            ImmutableMap.of(PAR_RATE, Result.success(DoubleScenarioArray.of(DoubleArray.of(3))))),
+        3);
+    assertThat(combined.get(PAR_RATE)).hasValue(DoubleScenarioArray.of(DoubleArray.of(1, 2, 3)));
+  }
+
+  public void test_combine_mixedCurrencies() {
+    Map<Measure, Result<?>> combined = ScenarioChunkTask.combine(
+        ImmutableList.of(
+            ImmutableMap.of(PV, Result.success(CurrencyScenarioArray.of(USD, DoubleArray.of(1)))),
+            ImmutableMap.of(PV, Result.success(CurrencyScenarioArray.of(EUR, DoubleArray.of(2))))),
+        2);
+    ScenarioArray<?> value = (ScenarioArray<?>) combined.get(PV).getValue();
+    assertEquals(value.getScenarioCount(), 2);
+  }
+
+  public void test_combine_failure() {
+    Result<?> failure = Result.failure(FailureReason.CALCULATION_FAILED, "Failed");
+    Map<Measure, Result<?>> combined = ScenarioChunkTask.combine(
+        ImmutableList.of(
+            ImmutableMap.of(PAR_RATE, Result.success(DoubleScenarioArray.of(DoubleArray.of(1)))),
+            ImmutableMap.of(PAR_RATE, failure)),
+        2);
+    assertEquals(combined.get(PAR_RATE), failure);
+  }
+
+  public void test_combine_notScenarioArray() {
+    Map<Measure, Result<?>> same = ScenarioChunkTask.combine(
+        ImmutableList.of(
+            ImmutableMap.of(PAR_RATE, Result.success("A")),
+            ImmutableMap.of(PAR_RATE, Result.success("A"))),
+        2);
+    assertThat(same.get(PAR_RATE)).hasValue("A");
+    Map<Measure, Result<?>> different = ScenarioChunkTask.combine(
+        ImmutableList.of(
+            ImmutableMap.of(PAR_RATE, Result.success("A")),
+            ImmutableMap.of(PAR_RATE, Result.success("B"))),
+        2);
+    assertThat(different.get(PAR_RATE)).isFailure(FailureReason.CALCULATION_FAILED);
+  }
+
+  public void test_combine_wrongSize() {
+    Map<Measure, Result<?>> combined = ScenarioChunkTask.combine(
+        ImmutableList.of(ImmutableMap.of(PAR_RATE, Result.success(DoubleScenarioArray.of(DoubleArray.of(1))))),
+        2);
+    assertTrue(combined.get(PAR_RATE).isFailure());
+  }
+
+  //-------------------------------------------------------------------------
+  private static ScenarioMarketData marketData() {
+    List<String> values = IntStream.range(0, SCENARIO_COUNT)
+        .mapToObj(i -> Integer.toString(i))
+        .collect(Collectors.toList());
+    return ImmutableScenarioMarketData.builder(VAL_DATE)
+        .addScenarioValue(ID, values)
+        .build();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Function that returns the scenario values, and the number of scenarios it was invoked with.
+   */
+  private static final class ChunkFunction implements CalculationFunction<TestTarget> {
+
+    @Override
+    public Class<TestTarget> targetType() {
+      return TestTarget.class;
+    }
+
+    @Override
+    public Set<Measure> supportedMeasures() {
+      return ImmutableSet.of(PV, PAR_RATE);
+    }
+
+    @Override
+    public Currency naturalCurrency(TestTarget trade, ReferenceData refData) {
+      return USD;
+    }
+
+    @Override
+    public FunctionRequirements requirements(
+        TestTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ReferenceData refData) {
+
+      return FunctionRequirements.builder().valueRequirements(ImmutableSet.of(ID)).build();
+    }
+
+    @Override
+    public Map<Measure, Result<?>> calculate(
+        TestTarget target,
+        Set<Measure> measures,
+        CalculationParameters parameters,
+        ScenarioMarketData marketData,
+        ReferenceData refData) {
+
+      int count = marketData.getScenarioCount();
+      CurrencyScenarioArray pv = CurrencyScenarioArray.of(
+          USD, DoubleArray.of(count, i -> Double.parseDouble(marketData.getValue(ID).getValue(i))));
+      ScenarioArray<String> parRate = ScenarioArray.of(count, i -> count + ":" + marketData.getValue(ID).getValue(i));
+      return ImmutableMap.of(PV, Result.success(pv), PAR_RATE, Result.success(parRate));
+    }
+  }
+
+}
@@ -8,7 +8,14 @@ package com.opengamma.strata.collect.io;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
@@ -17,6 +24,7 @@ import javax.xml.stream.XMLStreamReader;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.ByteSource;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.Unchecked;
@@ -38,6 +46,9 @@ import com.opengamma.strata.collect.Unchecked;
  * There is no support for namespaces.
  * All namespace prefixes are dropped.
  * There are cases where this can be a problem, but most of the time lenient parsing is helpful.
+ * <p>
+ * Where the file is too large to be held in memory, {@link #parseOutline(ByteSource, String, Set)}
+ * and {@link #streamElements(ByteSource, String, List)} allow the file to be processed in parts.
  */
 public final class XmlFile {
 
@@ -92,7 +103,41 @@ public final class XmlFile {
         XMLStreamReader xmlReader = xmlInputFactory().createXMLStreamReader(in);
         try {
           HashMap<String, XmlElement> refs = new HashMap<>();
-          XmlElement root = parse(xmlReader, refAttrName, refs);
+          XmlElement root = parse(xmlReader, refAttrName, refs, ImmutableSet.of());
+          return new XmlFile(root, refs);
+        } finally {
+          xmlReader.close();
+        }
+      }
+    });
+  }
+
+  /**
+   * Parses the specified source as an XML file, skipping the content of the named elements.
+   * <p>
+   * This parses the specified byte source expecting an XML file format.
+   * Any element with one of the skipped names is retained with its attributes, but without
+   * its children or content, and no references are captured from within it.
+   * This allows the outline of a large file to be parsed without holding the bulk of it in memory.
+   * <p>
+   * References are captured as per {@link #of(ByteSource, String)}.
+   * 
+   * @param source  the XML source data
+   * @param refAttrName  the attribute name that should be parsed as a reference
+   * @param skippedElementNames  the names of the elements whose content is skipped
+   * @return the parsed file
+   * @throws UncheckedIOException if an IO exception occurs
+   * @throws IllegalArgumentException if the file cannot be parsed
+   */
+  public static XmlFile parseOutline(ByteSource source, String refAttrName, Set<String> skippedElementNames) {
+    ArgChecker.notNull(source, "source");
+    ArgChecker.notNull(skippedElementNames, "skippedElementNames");
+    return Unchecked.wrap(() -> {
+      try (InputStream in = source.openBufferedStream()) {
+        XMLStreamReader xmlReader = xmlInputFactory().createXMLStreamReader(in);
+        try {
+          HashMap<String, XmlElement> refs = new HashMap<>();
+          XmlElement root = parse(xmlReader, refAttrName, refs, skippedElementNames);
           return new XmlFile(root, refs);
         } finally {
           xmlReader.close();
@@ -101,6 +146,82 @@ public final class XmlFile {
     });
   }
 
+  /**
+   * Streams the elements at the specified path from the source, each parsed as a separate XML file.
+   * <p>
+   * This reads the specified byte source expecting an XML file format.
+   * The path is the list of element names from the root element to the elements to be returned.
+   * For example, the path {@code [base, test]} returns each {@code <test>} element that is
+   * a child of the root {@code <base>} element.
+   * <p>
+   * Each matching element is parsed to an in-memory DOM-like structure, and returned as the root
+   * of a file containing the references captured from within the element.
+   * Elements are parsed lazily as the stream is consumed, and elements that are not on the path
+   * are skipped, thus only one element is held in memory at a time.
+   * <p>
+   * The stream must be closed to release the underlying input, such as by using try-with-resources.
+   * Parse errors are thrown when the stream is consumed.
+   * 
+   * @param source  the XML source data
+   * @param refAttrName  the attribute name that should be parsed as a reference
+   * @param elementPath  the names of the elements from the root to the elements to return
+   * @return the stream of parsed elements, which must be closed
+   * @throws UncheckedIOException if an IO exception occurs
+   * @throws IllegalArgumentException if the file cannot be parsed
+   */
+  public static Stream<XmlFile> streamElements(ByteSource source, String refAttrName, List<String> elementPath) {
+    ArgChecker.notNull(source, "source");
+    ArgChecker.notEmpty(elementPath, "elementPath");
+    ImmutableList<String> path = ImmutableList.copyOf(elementPath);
+    InputStream in = Unchecked.wrap(() -> source.openBufferedStream());
+    XMLStreamReader xmlReader;
+    try {
+      xmlReader = xmlInputFactory().createXMLStreamReader(in);
+    } catch (XMLStreamException ex) {
+      Unchecked.wrap(() -> in.close());
+      throw new IllegalArgumentException(ex);
+    }
+    Spliterator<XmlFile> spliterator =
+        new Spliterators.AbstractSpliterator<XmlFile>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+          // the number of elements on the path that the reader is within
+          private int depth;
+
+          @Override
+          public boolean tryAdvance(Consumer<? super XmlFile> action) {
+            try {
+              while (xmlReader.hasNext()) {
+                int event = xmlReader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                  depth--;
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                  if (!xmlReader.getLocalName().equals(path.get(depth))) {
+                    skipContent(xmlReader);
+                  } else if (depth < path.size() - 1) {
+                    depth++;
+                  } else {
+                    HashMap<String, XmlElement> refs = new HashMap<>();
+                    XmlElement element = parse(xmlReader, refAttrName, refs, ImmutableSet.of());
+                    action.accept(new XmlFile(element, refs));
+                    return true;
+                  }
+                }
+              }
+              return false;
+            } catch (XMLStreamException ex) {
+              throw new IllegalArgumentException(ex);
+            }
+          }
+        };
+    return StreamSupport.stream(spliterator, false)
+        .onClose(() -> Unchecked.wrap(() -> {
+          try {
+            xmlReader.close();
+          } finally {
+            in.close();
+          }
+        }));
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Parses the tree from the StAX stream reader, capturing references.
@@ -114,14 +235,24 @@ public final class XmlFile {
    * @param reader  the StAX stream reader, positioned at or before the element to be parsed
    * @param refAttr  the attribute name that should be parsed as a reference, null if not applicable
    * @param refs  the mutable map of references to update, null if not applicable
+   * @param skipped  the names of the elements whose content is skipped
    * @return the parsed element
    * @throws IllegalArgumentException if the input cannot be parsed
    */
-  private static XmlElement parse(XMLStreamReader reader, String refAttr, Map<String, XmlElement> refs) {
+  private static XmlElement parse(
+      XMLStreamReader reader,
+      String refAttr,
+      Map<String, XmlElement> refs,
+      Set<String> skipped) {
+
     try {
       // parse start element
       String elementName = parseElementName(reader);
       ImmutableMap<String, String> attrs = parseAttributes(reader);
+      if (skipped.contains(elementName)) {
+        skipContent(reader);
+        return XmlElement.ofContent(elementName, attrs, "");
+      }
 
       // parse children or content
       ImmutableList.Builder<XmlElement> childBuilder = ImmutableList.builder();
@@ -131,7 +262,7 @@ public final class XmlFile {
         switch (event) {
         // parse child when start element found
           case XMLStreamConstants.START_ELEMENT:
-            childBuilder.add(parse(reader, refAttr, refs));
+            childBuilder.add(parse(reader, refAttr, refs, skipped));
             break;
           // append content when characters found
           // since XMLStreamReader has IS_COALESCING=true means there should only be one content call
@@ -159,6 +290,20 @@ public final class XmlFile {
     }
   }
 
+  // skips the content of the current element, leaving the reader at the end element
+  private static void skipContent(XMLStreamReader reader) throws XMLStreamException {
+    int depth = 0;
+    int event = reader.next();
+    while (event != XMLStreamConstants.END_ELEMENT || depth > 0) {
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+      event = reader.next();
+    }
+  }
+
   // find the start element and parses the name
   private static String parseElementName(XMLStreamReader reader) throws XMLStreamException {
     int event = reader.getEventType();
@@ -5,6 +5,7 @@
  */
 package com.opengamma.strata.collect.io;
 
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
 import static com.opengamma.strata.collect.TestHelper.assertThrows;
 import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
 import static org.testng.Assert.assertEquals;
@@ -15,11 +16,13 @@ import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
 
@@ -130,6 +133,73 @@ public class XmlFileTest {
     assertThrows(() -> XmlFile.of(source, "key"), UncheckedIOException.class);
   }
 
+  //-------------------------------------------------------------------------
+  public void test_parseOutline() {
+    ByteSource source = ByteSource.wrap(SAMPLE.getBytes(StandardCharsets.UTF_8));
+    XmlFile test = XmlFile.parseOutline(source, "key", ImmutableSet.of("leaf2"));
+    XmlElement root = test.getRoot();
+    assertEquals(root.getName(), "base");
+    assertEquals(root.getChildren().size(), 1);
+    XmlElement leaf2 = XmlElement.ofContent("leaf2", ATTR_MAP_EMPTY, "");
+    XmlElement child = root.getChild(0);
+    assertEquals(child, XmlElement.ofChildren("test", ATTR_MAP, ImmutableList.of(LEAF1, leaf2, leaf2)));
+    assertEquals(test.getReferences(), ImmutableMap.of("value", child));
+  }
+
+  public void test_parseOutline_skipReferences() {
+    ByteSource source = ByteSource.wrap(SAMPLE.getBytes(StandardCharsets.UTF_8));
+    XmlFile test = XmlFile.parseOutline(source, "key", ImmutableSet.of("test"));
+    XmlElement root = test.getRoot();
+    assertEquals(root.getChildren(), ImmutableList.of(XmlElement.ofContent("test", ATTR_MAP, "")));
+    assertEquals(test.getReferences(), ImmutableMap.of());
+  }
+
+  public void test_parseOutline_mismatchedTags() {
+    ByteSource source = ByteSource.wrap(SAMPLE_MISMATCHED_TAGS.getBytes(StandardCharsets.UTF_8));
+    assertThrowsIllegalArg(() -> XmlFile.parseOutline(source, "key", ImmutableSet.of("test")));
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_streamElements() {
+    ByteSource source = ByteSource.wrap(SAMPLE.getBytes(StandardCharsets.UTF_8));
+    try (Stream<XmlFile> test = XmlFile.streamElements(source, "key", ImmutableList.of("base", "test", "leaf2"))) {
+      List<XmlFile> files = test.collect(toImmutableList());
+      assertEquals(files.size(), 2);
+      assertEquals(files.get(0).getRoot(), LEAF2A);
+      assertEquals(files.get(1).getRoot(), LEAF2B);
+    }
+  }
+
+  public void test_streamElements_references() {
+    ByteSource source = ByteSource.wrap(SAMPLE.getBytes(StandardCharsets.UTF_8));
+    try (Stream<XmlFile> test = XmlFile.streamElements(source, "key", ImmutableList.of("base", "test"))) {
+      List<XmlFile> files = test.collect(toImmutableList());
+      assertEquals(files.size(), 1);
+      XmlElement expected = XmlElement.ofChildren("test", ATTR_MAP, CHILD_LIST_MULTI);
+      assertEquals(files.get(0).getRoot(), expected);
+      assertEquals(files.get(0).getReferences(), ImmutableMap.of("value", expected));
+    }
+  }
+
+  public void test_streamElements_notOnPath() {
+    ByteSource source = ByteSource.wrap(SAMPLE.getBytes(StandardCharsets.UTF_8));
+    try (Stream<XmlFile> test = XmlFile.streamElements(source, "key", ImmutableList.of("base", "leaf2"))) {
+      assertEquals(test.count(), 0L);
+    }
+  }
+
+  public void test_streamElements_mismatchedTags() {
+    ByteSource source = ByteSource.wrap(SAMPLE_MISMATCHED_TAGS.getBytes(StandardCharsets.UTF_8));
+    try (Stream<XmlFile> test = XmlFile.streamElements(source, "key", ImmutableList.of("base", "test"))) {
+      assertThrowsIllegalArg(() -> test.count());
+    }
+  }
+
+  public void test_streamElements_ioException() {
+    ByteSource source = Files.asByteSource(new File("/oh-dear-no-such-file"));
+    assertThrows(() -> XmlFile.streamElements(source, "key", ImmutableList.of("base")), UncheckedIOException.class);
+  }
+
   //-------------------------------------------------------------------------
   public void test_equalsHashCodeToString() {
     ByteSource source = ByteSource.wrap(SAMPLE.getBytes(StandardCharsets.UTF_8));
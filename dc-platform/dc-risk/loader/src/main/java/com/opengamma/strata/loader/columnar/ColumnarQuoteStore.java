@@ -0,0 +1,412 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.loader.columnar;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.TreeSet;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.calc.marketdata.ObservableDataProvider;
+import com.opengamma.strata.calc.marketdata.TimeSeriesProvider;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Messages;
+import com.opengamma.strata.collect.Unchecked;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeriesBuilder;
+import com.opengamma.strata.data.FieldName;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.data.ObservableSource;
+import com.opengamma.strata.loader.LoaderUtils;
+import com.opengamma.strata.market.observable.IndexQuoteId;
+import com.opengamma.strata.market.observable.QuoteId;
+
+/**
+ * A store of historical quotes and fixings in a binary columnar file, read through a memory-mapped buffer.
+ * <p>
+ * The store holds one series of values for each {@linkplain ObservableId identifier}, over a common set of dates.
+ * It is intended for large histories, such as those used to generate historical scenarios, where parsing
+ * CSV files into maps of boxed values on every start-up is slow and uses a lot of memory.
+ * The file is typically written once, from the output of {@code QuotesCsvLoader} and {@code FixingSeriesCsvLoader}.
+ * <p>
+ * The file contains a header, a column of dates, a dictionary column of identifiers, then one column
+ * of {@code double} values for each date, holding the value of each identifier on that date.
+ * A value that is not present is stored as {@code NaN}, thus a value of {@code NaN} cannot be stored.
+ * When opened, the dates and identifiers are read into memory, while the values are read on demand
+ * from the memory-mapped file, thus the heap used is independent of the number of dates.
+ * <p>
+ * The identifiers must be instances of {@link QuoteId} or {@link IndexQuoteId}, as produced by the CSV loaders.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class ColumnarQuoteStore implements TimeSeriesProvider {
+
+  /**
+   * The magic number at the start of the file.
+   */
+  private static final int MAGIC = 0x5351544B;
+  /**
+   * The version of the file format.
+   */
+  private static final int VERSION = 1;
+  /**
+   * The type of a quote identifier in the dictionary.
+   */
+  private static final byte QUOTE_ID = 1;
+  /**
+   * The type of an index quote identifier in the dictionary.
+   */
+  private static final byte INDEX_QUOTE_ID = 2;
+
+  /**
+   * The dates, in ascending order.
+   */
+  private final ImmutableList<LocalDate> dates;
+  /**
+   * The index of each date.
+   */
+  private final ImmutableMap<LocalDate, Integer> dateIndex;
+  /**
+   * The index of each identifier.
+   */
+  private final ImmutableMap<ObservableId, Integer> idIndex;
+  /**
+   * The values, one column for each date, one row for each identifier.
+   */
+  private final DoubleBuffer values;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Writes the quotes to a file.
+   * <p>
+   * The quotes are keyed by date, in the form returned by {@code QuotesCsvLoader}.
+   *
+   * @param file  the file to write
+   * @param quotes  the quotes, keyed by date
+   * @throws UncheckedIOException if an IO exception occurs
+   * @throws IllegalArgumentException if an identifier is not supported, or a value is {@code NaN}
+   */
+  public static void writeQuotes(Path file, Map<LocalDate, ? extends Map<? extends ObservableId, Double>> quotes) {
+    ArgChecker.notNull(quotes, "quotes");
+    Map<ObservableId, LocalDateDoubleTimeSeriesBuilder> builders = new HashMap<>();
+    for (Entry<LocalDate, ? extends Map<? extends ObservableId, Double>> entry : quotes.entrySet()) {
+      for (Entry<? extends ObservableId, Double> quote : entry.getValue().entrySet()) {
+        builders.computeIfAbsent(quote.getKey(), id -> LocalDateDoubleTimeSeries.builder())
+            .put(entry.getKey(), quote.getValue());
+      }
+    }
+    ImmutableMap.Builder<ObservableId, LocalDateDoubleTimeSeries> timeSeries = ImmutableMap.builder();
+    builders.forEach((id, builder) -> timeSeries.put(id, builder.build()));
+    write(file, timeSeries.build());
+  }
+
+  /**
+   * Writes the time-series to a file.
+   * <p>
+   * The time-series are keyed by identifier, in the form returned by {@code FixingSeriesCsvLoader}.
+   *
+   * @param file  the file to write
+   * @param timeSeries  the time-series, keyed by identifier
+   * @throws UncheckedIOException if an IO exception occurs
+   * @throws IllegalArgumentException if an identifier is not supported, or a value is {@code NaN}
+   */
+  public static void write(Path file, Map<? extends ObservableId, LocalDateDoubleTimeSeries> timeSeries) {
+    ArgChecker.notNull(file, "file");
+    ArgChecker.notNull(timeSeries, "timeSeries");
+    ImmutableList<ObservableId> ids = ImmutableList.copyOf(timeSeries.keySet());
+    TreeSet<LocalDate> dateSet = new TreeSet<>();
+    timeSeries.values().forEach(series -> series.dates().forEach(dateSet::add));
+    ImmutableList<LocalDate> dates = ImmutableList.copyOf(dateSet);
+    ArgChecker.isTrue(
+        (long) dates.size() * ids.size() * Double.BYTES < Integer.MAX_VALUE,
+        "Too many values for a single store: {} dates and {} identifiers", dates.size(), ids.size());
+
+    Unchecked.wrap(() -> {
+      try (OutputStream fileOut = Files.newOutputStream(file)) {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(dates.size());
+        out.writeInt(ids.size());
+        for (LocalDate date : dates) {
+          out.writeLong(date.toEpochDay());
+        }
+        for (ObservableId id : ids) {
+          writeId(out, id);
+        }
+        // align the values so they can be viewed as doubles
+        while (out.size() % Double.BYTES != 0) {
+          out.writeByte(0);
+        }
+        double[] column = new double[ids.size()];
+        for (LocalDate date : dates) {
+          for (int i = 0; i < column.length; i++) {
+            OptionalDouble value = timeSeries.get(ids.get(i)).get(date);
+            column[i] = value.isPresent() ? checkNotNaN(value.getAsDouble(), ids.get(i), date) : Double.NaN;
+          }
+          for (double value : column) {
+            out.writeDouble(value);
+          }
+        }
+        out.flush();
+      }
+    });
+  }
+
+  // checks the value is not the marker for missing values
+  private static double checkNotNaN(double value, ObservableId id, LocalDate date) {
+    ArgChecker.isFalse(Double.isNaN(value), "Value must not be NaN: {} on {}", id, date);
+    return value;
+  }
+
+  // writes an identifier to the dictionary
+  private static void writeId(DataOutputStream out, ObservableId id) throws IOException {
+    if (id instanceof QuoteId) {
+      QuoteId quoteId = (QuoteId) id;
+      out.writeByte(QUOTE_ID);
+      writeString(out, quoteId.getStandardId().getScheme());
+      writeString(out, quoteId.getStandardId().getValue());
+    } else if (id instanceof IndexQuoteId) {
+      IndexQuoteId indexQuoteId = (IndexQuoteId) id;
+      out.writeByte(INDEX_QUOTE_ID);
+      writeString(out, indexQuoteId.getIndex().getName());
+    } else {
+      throw new IllegalArgumentException(Messages.format(
+          "Identifier type not supported by columnar store: {}", id.getClass().getSimpleName()));
+    }
+    writeString(out, id.getFieldName().getName());
+    writeString(out, id.getObservableSource().getName());
+  }
+
+  // writes a string as its length and UTF-8 bytes
+  private static void writeString(DataOutputStream out, String str) throws IOException {
+    byte[] bytes = str.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Opens a store from a file.
+   * <p>
+   * The file is mapped into memory, and the values are read on demand.
+   * The file must not be modified while the store is in use.
+   *
+   * @param file  the file to open
+   * @return the store
+   * @throws UncheckedIOException if an IO exception occurs
+   * @throws IllegalArgumentException if the file is not a valid store
+   */
+  public static ColumnarQuoteStore of(Path file) {
+    ArgChecker.notNull(file, "file");
+    MappedByteBuffer buffer = Unchecked.wrap(() -> {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      }
+    });
+    return new ColumnarQuoteStore(buffer);
+  }
+
+  // restricted constructor
+  private ColumnarQuoteStore(ByteBuffer buffer) {
+    ArgChecker.isTrue(buffer.remaining() >= 16 && buffer.getInt() == MAGIC, "File is not a columnar quote store");
+    int version = buffer.getInt();
+    ArgChecker.isTrue(version == VERSION, "Unsupported columnar quote store version: {}", version);
+    int dateCount = buffer.getInt();
+    int idCount = buffer.getInt();
+    ImmutableList.Builder<LocalDate> dateBuilder = ImmutableList.builder();
+    ImmutableMap.Builder<LocalDate, Integer> dateIndexBuilder = ImmutableMap.builder();
+    for (int i = 0; i < dateCount; i++) {
+      LocalDate date = LocalDate.ofEpochDay(buffer.getLong());
+      dateBuilder.add(date);
+      dateIndexBuilder.put(date, i);
+    }
+    ImmutableMap.Builder<ObservableId, Integer> idIndexBuilder = ImmutableMap.builder();
+    for (int i = 0; i < idCount; i++) {
+      idIndexBuilder.put(readId(buffer), i);
+    }
+    int valuesOffset = (buffer.position() + Double.BYTES - 1) / Double.BYTES * Double.BYTES;
+    ArgChecker.isTrue(
+        buffer.limit() - valuesOffset == (long) dateCount * idCount * Double.BYTES,
+        "Columnar quote store is truncated or corrupt");
+    buffer.position(valuesOffset);
+    this.dates = dateBuilder.build();
+    this.dateIndex = dateIndexBuilder.build();
+    this.idIndex = idIndexBuilder.build();
+    this.values = buffer.slice().asDoubleBuffer();
+  }
+
+  // reads an identifier from the dictionary
+  private static ObservableId readId(ByteBuffer buffer) {
+    byte type = buffer.get();
+    switch (type) {
+      case QUOTE_ID: {
+        StandardId standardId = StandardId.of(readString(buffer), readString(buffer));
+        return QuoteId.of(standardId, FieldName.of(readString(buffer)), ObservableSource.of(readString(buffer)));
+      }
+      case INDEX_QUOTE_ID: {
+        String indexName = readString(buffer);
+        return IndexQuoteId.of(
+            LoaderUtils.findIndex(indexName), FieldName.of(readString(buffer)), ObservableSource.of(readString(buffer)));
+      }
+      default:
+        throw new IllegalArgumentException("Columnar quote store has unknown identifier type: " + type);
+    }
+  }
+
+  // reads a string as its length and UTF-8 bytes
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the dates of the store, in ascending order.
+   *
+   * @return the dates
+   */
+  public ImmutableList<LocalDate> getDates() {
+    return dates;
+  }
+
+  /**
+   * Gets the identifiers of the store.
+   *
+   * @return the identifiers
+   */
+  public ImmutableSet<ObservableId> getIds() {
+    return idIndex.keySet();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Finds the value of an identifier on a date.
+   *
+   * @param id  the identifier
+   * @param date  the date
+   * @return the value, empty if not found
+   */
+  public OptionalDouble findValue(ObservableId id, LocalDate date) {
+    Integer idIdx = idIndex.get(id);
+    Integer dateIdx = dateIndex.get(date);
+    if (idIdx == null || dateIdx == null) {
+      return OptionalDouble.empty();
+    }
+    double value = values.get(dateIdx * idIndex.size() + idIdx);
+    return Double.isNaN(value) ? OptionalDouble.empty() : OptionalDouble.of(value);
+  }
+
+  /**
+   * Gets the values of all identifiers on a date.
+   * <p>
+   * The map contains an entry for each identifier that has a value on the date.
+   * The map is empty if the date is not in the store.
+   *
+   * @param date  the date
+   * @return the values, keyed by identifier
+   */
+  public ImmutableMap<ObservableId, Double> values(LocalDate date) {
+    Integer dateIdx = dateIndex.get(date);
+    if (dateIdx == null) {
+      return ImmutableMap.of();
+    }
+    int columnOffset = dateIdx * idIndex.size();
+    ImmutableMap.Builder<ObservableId, Double> builder = ImmutableMap.builder();
+    for (Entry<ObservableId, Integer> entry : idIndex.entrySet()) {
+      double value = values.get(columnOffset + entry.getValue());
+      if (!Double.isNaN(value)) {
+        builder.put(entry.getKey(), value);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns a provider of the observable market data on a date.
+   * <p>
+   * The provider returns a failure for each identifier that has no value on the date.
+   *
+   * @param date  the date
+   * @return the provider of the values on the date
+   */
+  public ObservableDataProvider observableDataProvider(LocalDate date) {
+    ArgChecker.notNull(date, "date");
+    return identifiers -> {
+      ImmutableMap.Builder<ObservableId, Result<Double>> builder = ImmutableMap.builder();
+      for (ObservableId id : identifiers) {
+        OptionalDouble value = findValue(id, date);
+        builder.put(id, value.isPresent() ?
+            Result.success(value.getAsDouble()) :
+            Result.failure(FailureReason.MISSING_DATA, "No value found in columnar store for '{}' on {}", id, date));
+      }
+      return builder.build();
+    };
+  }
+
+  /**
+   * Finds the time-series of an identifier.
+   * <p>
+   * The time-series contains the dates on which the identifier has a value.
+   *
+   * @param id  the identifier
+   * @return the time-series, empty if the identifier is not in the store
+   */
+  public Optional<LocalDateDoubleTimeSeries> findTimeSeries(ObservableId id) {
+    Integer idIdx = idIndex.get(id);
+    if (idIdx == null) {
+      return Optional.empty();
+    }
+    int idCount = idIndex.size();
+    LocalDateDoubleTimeSeriesBuilder builder = LocalDateDoubleTimeSeries.builder();
+    for (int i = 0; i < dates.size(); i++) {
+      double value = values.get(i * idCount + idIdx);
+      if (!Double.isNaN(value)) {
+        builder.put(dates.get(i), value);
+      }
+    }
+    return Optional.of(builder.build());
+  }
+
+  @Override
+  public Result<LocalDateDoubleTimeSeries> provideTimeSeries(ObservableId identifier) {
+    return findTimeSeries(identifier)
+        .map(Result::success)
+        .orElseGet(() -> Result.failure(
+            FailureReason.MISSING_DATA, "No time-series found in columnar store for '{}'", identifier));
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "ColumnarQuoteStore[dates=" + dates.size() + ", ids=" + idIndex.size() + "]";
+  }
+
+}
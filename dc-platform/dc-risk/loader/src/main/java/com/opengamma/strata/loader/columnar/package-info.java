@@ -0,0 +1,12 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+
+/**
+ * Store of historical market data in a binary columnar file.
+ * <p>
+ * The main class is {@link com.opengamma.strata.loader.columnar.ColumnarQuoteStore}.
+ */
+package com.opengamma.strata.loader.columnar;
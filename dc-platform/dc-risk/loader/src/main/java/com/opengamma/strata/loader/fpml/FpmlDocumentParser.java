@@ -5,12 +5,21 @@
  */
 package com.opengamma.strata.loader.fpml;
 
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
 import static com.opengamma.strata.collect.Guavate.toImmutableSet;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -19,6 +28,8 @@ import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.collect.io.XmlElement;
 import com.opengamma.strata.collect.io.XmlFile;
 import com.opengamma.strata.collect.named.ExtendedEnum;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
 import com.opengamma.strata.product.Trade;
 
 /**
@@ -33,11 +44,20 @@ import com.opengamma.strata.product.Trade;
 public final class FpmlDocumentParser {
   // Notes: Streaming trades directly from the file is difficult due to the
   // need to parse the party element at the root, which is after the trades
+  // thus streaming reads the file twice, once for the outline and once for the trades
 
   /**
    * The lookup of trade parsers.
    */
   static final ExtendedEnum<FpmlParserPlugin> ENUM_LOOKUP = ExtendedEnum.of(FpmlParserPlugin.class);
+  /**
+   * The number of trades that are parsed in parallel when streaming.
+   */
+  private static final int STREAM_BATCH_SIZE = 256;
+  /**
+   * The element names that are skipped when parsing the outline of the document.
+   */
+  private static final ImmutableSet<String> OUTLINE_SKIPPED = ImmutableSet.of("trade");
 
   /**
    * The selector used to find "our" party within the set of parties in the FpML document.
@@ -193,6 +213,79 @@ public final class FpmlDocumentParser {
     return parseTrades(root, xmlFile.getReferences());
   }
 
+  /**
+   * Parses FpML from the specified source, streaming the trades.
+   * <p>
+   * This parses the specified byte source which must be an XML document.
+   * Unlike {@link #parseTrades(ByteSource)}, the document is not held in memory.
+   * The source is read twice, first to parse the document without the content of the
+   * {@code <trade>} elements, then to parse each {@code <trade>} element separately.
+   * As such, the source must be able to be opened more than once.
+   * <p>
+   * The trades are parsed in parallel in batches, and returned in the order of the document.
+   * A trade that cannot be parsed is returned as a failure, without affecting the other trades.
+   * <p>
+   * Sometimes, the FpML document is embedded in a non-FpML wrapper.
+   * This method will intelligently find the FpML document at the root or within one or two levels
+   * of wrapper by searching for an element that contains both {@code <trade>} and {@code <party>}.
+   * <p>
+   * The stream must be closed to release the underlying input, such as by using try-with-resources.
+   * 
+   * @param source  the source of the FpML XML document
+   * @return the stream of parse results, one for each trade, which must be closed
+   * @throws RuntimeException if the document cannot be read or the FpML root element cannot be parsed
+   */
+  public Stream<Result<Trade>> streamTrades(ByteSource source) {
+    XmlFile outline = XmlFile.parseOutline(source, FpmlDocument.ID, OUTLINE_SKIPPED);
+    XmlElement root = findFpmlRoot(outline.getRoot());
+    FpmlDocument document = new FpmlDocument(root, outline.getReferences(), ourPartySelector, tradeInfoParser, refData);
+    List<String> tradePath = ImmutableList.<String>builder()
+        .addAll(findFpmlRootPath(outline.getRoot(), root))
+        .add("trade")
+        .build();
+    Stream<XmlFile> tradeFiles = XmlFile.streamElements(source, FpmlDocument.ID, tradePath);
+    Iterator<XmlFile> tradeFileIterator = tradeFiles.iterator();
+    Spliterator<Result<Trade>> spliterator =
+        new Spliterators.AbstractSpliterator<Result<Trade>>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+          private Iterator<Result<Trade>> batch = ImmutableList.<Result<Trade>>of().iterator();
+          private int tradeCount;
+
+          @Override
+          public boolean tryAdvance(Consumer<? super Result<Trade>> action) {
+            if (!batch.hasNext()) {
+              List<XmlFile> batchFiles = new ArrayList<>(STREAM_BATCH_SIZE);
+              while (batchFiles.size() < STREAM_BATCH_SIZE && tradeFileIterator.hasNext()) {
+                batchFiles.add(tradeFileIterator.next());
+              }
+              if (batchFiles.isEmpty()) {
+                return false;
+              }
+              int firstTradeIndex = tradeCount;
+              tradeCount += batchFiles.size();
+              batch = IntStream.range(0, batchFiles.size())
+                  .parallel()
+                  .mapToObj(i -> parseTradeResult(document, batchFiles.get(i), firstTradeIndex + i))
+                  .collect(toImmutableList())
+                  .iterator();
+            }
+            action.accept(batch.next());
+            return true;
+          }
+        };
+    return StreamSupport.stream(spliterator, false).onClose(tradeFiles::close);
+  }
+
+  // parses one streamed trade element, capturing any failure
+  private Result<Trade> parseTradeResult(FpmlDocument document, XmlFile tradeFile, int tradeIndex) {
+    try {
+      FpmlDocument tradeDocument = document.withAdditionalReferences(tradeFile.getReferences());
+      return Result.success(parseTrade(tradeDocument, tradeFile.getRoot()));
+    } catch (RuntimeException ex) {
+      return Result.failure(
+          FailureReason.PARSING, ex, "Unable to parse FpML trade at index {}: {}", tradeIndex, ex.getMessage());
+    }
+  }
+
   // intelligently finds the FpML root element
   private static XmlElement findFpmlRoot(XmlElement root) {
     if (isFpmlRoot(root)) {
@@ -215,6 +308,24 @@ public final class FpmlDocumentParser {
     throw new FpmlParseException("Unable to find FpML root element");
   }
 
+  // finds the names of the elements from the document root to the FpML root
+  private static List<String> findFpmlRootPath(XmlElement root, XmlElement fpmlRoot) {
+    if (root == fpmlRoot) {
+      return ImmutableList.of(root.getName());
+    }
+    for (XmlElement el1 : root.getChildren()) {
+      if (el1 == fpmlRoot) {
+        return ImmutableList.of(root.getName(), el1.getName());
+      }
+      for (XmlElement el2 : el1.getChildren()) {
+        if (el2 == fpmlRoot) {
+          return ImmutableList.of(root.getName(), el1.getName(), el2.getName());
+        }
+      }
+    }
+    throw new FpmlParseException("Unable to find FpML root element");
+  }
+
   // simple check to see if this is an FpML root
   private static boolean isFpmlRoot(XmlElement el) {
     return el.getChildren("party").size() > 0 && el.getChildren("trade").size() > 0;
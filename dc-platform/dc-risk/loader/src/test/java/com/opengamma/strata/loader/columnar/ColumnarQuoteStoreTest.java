@@ -0,0 +1,190 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.loader.columnar;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrows;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.stream.Stream;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.basics.index.IborIndices;
+import com.opengamma.strata.collect.io.ResourceLocator;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.FieldName;
+import com.opengamma.strata.data.ObservableId;
+import com.opengamma.strata.data.ObservableSource;
+import com.opengamma.strata.loader.csv.FixingSeriesCsvLoader;
+import com.opengamma.strata.loader.csv.QuotesCsvLoader;
+import com.opengamma.strata.market.observable.IndexQuoteId;
+import com.opengamma.strata.market.observable.QuoteId;
+
+/**
+ * Test {@link ColumnarQuoteStore}.
+ */
+@Test
+public class ColumnarQuoteStoreTest {
+
+  private static final QuoteId FGBL_MAR14 = QuoteId.of(StandardId.of("OG-Future", "Eurex-FGBL-Mar14"));
+  private static final QuoteId ED_MAR14 = QuoteId.of(StandardId.of("OG-Future", "CME-ED-Mar14"));
+  private static final QuoteId SOURCED = QuoteId.of(
+      StandardId.of("OG-Ticker", "ABC"), FieldName.of("Bid"), ObservableSource.of("Vendor"));
+  private static final IndexQuoteId ID_USD_LIBOR_3M = IndexQuoteId.of(IborIndices.USD_LIBOR_3M);
+  private static final IndexQuoteId ID_USD_LIBOR_6M = IndexQuoteId.of(IborIndices.USD_LIBOR_6M);
+
+  private static final LocalDate DATE1 = date(2014, 1, 22);
+  private static final LocalDate DATE2 = date(2014, 1, 23);
+  private static final LocalDate DATE3 = date(2014, 1, 24);
+
+  private static final ResourceLocator QUOTES_1 =
+      ResourceLocator.of("classpath:com/opengamma/strata/loader/csv/quotes-1.csv");
+  private static final ResourceLocator FIXING_SERIES_1_AND_2 =
+      ResourceLocator.of("classpath:com/opengamma/strata/loader/csv/fixings-1-and-2.csv");
+
+  private Path tempDir;
+
+  @BeforeClass
+  public void setUp() throws IOException {
+    tempDir = Files.createTempDirectory("columnar-quote-store");
+  }
+
+  @AfterClass
+  public void tearDown() throws IOException {
+    try (Stream<Path> files = Files.list(tempDir)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        Files.deleteIfExists(file);
+      }
+    }
+    Files.deleteIfExists(tempDir);
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_writeQuotes_csv() {
+    Map<LocalDate, ImmutableMap<QuoteId, Double>> quotes =
+        QuotesCsvLoader.load(ImmutableSet.of(DATE1, DATE2), QUOTES_1);
+    Path file = tempDir.resolve("quotes.bin");
+    ColumnarQuoteStore.writeQuotes(file, quotes);
+
+    ColumnarQuoteStore test = ColumnarQuoteStore.of(file);
+    assertEquals(test.getDates(), ImmutableList.of(DATE1, DATE2));
+    assertEquals(test.getIds(), quotes.get(DATE1).keySet());
+    assertEquals(test.values(DATE1), quotes.get(DATE1));
+    assertEquals(test.values(DATE2), quotes.get(DATE2));
+    assertEquals(test.values(DATE3), ImmutableMap.of());
+    assertEquals(test.findValue(FGBL_MAR14, DATE1), OptionalDouble.of(quotes.get(DATE1).get(FGBL_MAR14)));
+    assertEquals(test.findValue(FGBL_MAR14, DATE3), OptionalDouble.empty());
+    assertEquals(test.toString(), "ColumnarQuoteStore[dates=2, ids=2]");
+  }
+
+  public void test_write_fixingsCsv() {
+    Map<ObservableId, LocalDateDoubleTimeSeries> fixings = FixingSeriesCsvLoader.load(FIXING_SERIES_1_AND_2);
+    Path file = tempDir.resolve("fixings.bin");
+    ColumnarQuoteStore.write(file, fixings);
+
+    ColumnarQuoteStore test = ColumnarQuoteStore.of(file);
+    assertEquals(test.getIds(), ImmutableSet.of(ID_USD_LIBOR_3M, ID_USD_LIBOR_6M));
+    assertEquals(test.provideTimeSeries(ID_USD_LIBOR_3M), Result.success(fixings.get(ID_USD_LIBOR_3M)));
+    assertEquals(test.provideTimeSeries(ID_USD_LIBOR_6M), Result.success(fixings.get(ID_USD_LIBOR_6M)));
+  }
+
+  public void test_sparseSeries() {
+    LocalDateDoubleTimeSeries series1 = LocalDateDoubleTimeSeries.builder()
+        .put(DATE1, 1d)
+        .put(DATE3, 3d)
+        .build();
+    LocalDateDoubleTimeSeries series2 = LocalDateDoubleTimeSeries.of(DATE2, -2d);
+    LocalDateDoubleTimeSeries series3 = LocalDateDoubleTimeSeries.of(DATE3, 0.5d);
+    Path file = tempDir.resolve("sparse.bin");
+    ColumnarQuoteStore.write(file, ImmutableMap.of(ED_MAR14, series1, SOURCED, series2, ID_USD_LIBOR_3M, series3));
+
+    ColumnarQuoteStore test = ColumnarQuoteStore.of(file);
+    assertEquals(test.getDates(), ImmutableList.of(DATE1, DATE2, DATE3));
+    assertEquals(test.findTimeSeries(ED_MAR14).get(), series1);
+    assertEquals(test.findTimeSeries(SOURCED).get(), series2);
+    assertEquals(test.findTimeSeries(ID_USD_LIBOR_3M).get(), series3);
+    assertFalse(test.findTimeSeries(FGBL_MAR14).isPresent());
+    assertEquals(test.values(DATE2), ImmutableMap.of(SOURCED, -2d));
+    assertEquals(test.values(DATE3), ImmutableMap.of(ED_MAR14, 3d, ID_USD_LIBOR_3M, 0.5d));
+  }
+
+  public void test_provideTimeSeries_missing() {
+    Path file = tempDir.resolve("missing.bin");
+    ColumnarQuoteStore.write(file, ImmutableMap.of(ED_MAR14, LocalDateDoubleTimeSeries.of(DATE1, 1d)));
+    ColumnarQuoteStore test = ColumnarQuoteStore.of(file);
+    Result<LocalDateDoubleTimeSeries> result = test.provideTimeSeries(FGBL_MAR14);
+    assertTrue(result.isFailure());
+    assertEquals(result.getFailure().getReason(), FailureReason.MISSING_DATA);
+  }
+
+  public void test_observableDataProvider() {
+    Path file = tempDir.resolve("observable.bin");
+    ColumnarQuoteStore.write(file, ImmutableMap.of(
+        ED_MAR14, LocalDateDoubleTimeSeries.of(DATE1, 1d),
+        FGBL_MAR14, LocalDateDoubleTimeSeries.of(DATE2, 2d)));
+    ColumnarQuoteStore test = ColumnarQuoteStore.of(file);
+    Map<ObservableId, Result<Double>> data =
+        test.observableDataProvider(DATE1).provideObservableData(ImmutableSet.of(ED_MAR14, FGBL_MAR14, SOURCED));
+    assertEquals(data.size(), 3);
+    assertEquals(data.get(ED_MAR14), Result.success(1d));
+    assertEquals(data.get(FGBL_MAR14).getFailure().getReason(), FailureReason.MISSING_DATA);
+    assertEquals(data.get(SOURCED).getFailure().getReason(), FailureReason.MISSING_DATA);
+  }
+
+  public void test_empty() {
+    Path file = tempDir.resolve("empty.bin");
+    ColumnarQuoteStore.write(file, ImmutableMap.of());
+    ColumnarQuoteStore test = ColumnarQuoteStore.of(file);
+    assertEquals(test.getDates(), ImmutableList.of());
+    assertEquals(test.getIds(), ImmutableSet.of());
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_write_nan() {
+    Path file = tempDir.resolve("nan.bin");
+    assertThrowsIllegalArg(() -> ColumnarQuoteStore.write(
+        file, ImmutableMap.of(ED_MAR14, LocalDateDoubleTimeSeries.of(DATE1, Double.NaN))));
+  }
+
+  public void test_of_notStore() throws IOException {
+    Path file = tempDir.resolve("not-store.bin");
+    Files.write(file, "Not a columnar quote store".getBytes("UTF-8"));
+    assertThrowsIllegalArg(() -> ColumnarQuoteStore.of(file), "File is not a columnar quote store");
+  }
+
+  public void test_of_truncated() throws IOException {
+    Path file = tempDir.resolve("truncated.bin");
+    ColumnarQuoteStore.write(file, ImmutableMap.of(ED_MAR14, LocalDateDoubleTimeSeries.of(DATE1, 1d)));
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+    assertThrowsIllegalArg(() -> ColumnarQuoteStore.of(file), "Columnar quote store is truncated or corrupt");
+  }
+
+  public void test_of_noFile() {
+    assertThrows(() -> ColumnarQuoteStore.of(tempDir.resolve("no-such-file.bin")), UncheckedIOException.class);
+  }
+
+}
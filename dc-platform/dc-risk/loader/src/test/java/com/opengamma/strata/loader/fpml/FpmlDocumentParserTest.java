@@ -31,6 +31,7 @@ import static com.opengamma.strata.basics.index.IborIndices.GBP_LIBOR_6M;
 import static com.opengamma.strata.basics.index.IborIndices.USD_LIBOR_3M;
 import static com.opengamma.strata.basics.index.IborIndices.USD_LIBOR_6M;
 import static com.opengamma.strata.basics.index.OvernightIndices.EUR_EONIA;
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
 import static com.opengamma.strata.collect.TestHelper.assertEqualsBean;
 import static com.opengamma.strata.collect.TestHelper.assertThrows;
 import static com.opengamma.strata.collect.TestHelper.date;
@@ -39,8 +40,11 @@ import static com.opengamma.strata.product.common.BuySell.SELL;
 import static com.opengamma.strata.product.common.PayReceive.PAY;
 import static com.opengamma.strata.product.common.PayReceive.RECEIVE;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.Period;
@@ -48,6 +52,7 @@ import java.time.ZoneId;
 import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.joda.beans.Bean;
 import org.testng.annotations.Test;
@@ -81,6 +86,8 @@ import com.opengamma.strata.basics.value.ValueStep;
 import com.opengamma.strata.basics.value.ValueStepSequence;
 import com.opengamma.strata.collect.io.ResourceLocator;
 import com.opengamma.strata.collect.io.XmlElement;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
 import com.opengamma.strata.product.Trade;
 import com.opengamma.strata.product.common.LongShort;
 import com.opengamma.strata.product.common.PayReceive;
@@ -1260,6 +1267,73 @@ public class FpmlDocumentParserTest {
         "Unable to find FpML root element.*");
   }
 
+  //-------------------------------------------------------------------------
+  public void streamTrades() {
+    String[] locations = {
+        "classpath:com/opengamma/strata/loader/fpml/fx-ex08-fx-swap.xml",
+        "classpath:com/opengamma/strata/loader/fpml/ird-ex01-vanilla-swap.xml",
+        "classpath:com/opengamma/strata/loader/fpml/ird-ex08-fra-namespace.xml",
+        "classpath:com/opengamma/strata/loader/fpml/ird-ex08-fra-wrapper1.xml",
+        "classpath:com/opengamma/strata/loader/fpml/ird-ex08-fra-wrapper2.xml",
+        "classpath:com/opengamma/strata/loader/fpml/td-ex01-simple-term-deposit.xml"};
+    FpmlDocumentParser parser = FpmlDocumentParser.of(FpmlPartySelector.matching("Party2"));
+    for (String location : locations) {
+      ByteSource resource = ResourceLocator.of(location).getByteSource();
+      try (Stream<Result<Trade>> stream = parser.streamTrades(resource)) {
+        List<Trade> trades = stream.map(Result::getValue).collect(toImmutableList());
+        assertEquals(trades, parser.parseTrades(resource));
+      }
+    }
+  }
+
+  public void streamTrades_failureIsolated() throws IOException {
+    String location = "classpath:com/opengamma/strata/loader/fpml/ird-ex08-fra.xml";
+    String xml = ResourceLocator.of(location).getCharSource().read();
+    String unknownTrade = "<trade><tradeHeader><tradeDate>2000-06-30</tradeDate></tradeHeader><unknown/></trade>";
+    String badXml = xml.replaceFirst("<trade>", unknownTrade + "<trade>");
+    ByteSource resource = ByteSource.wrap(badXml.getBytes(StandardCharsets.UTF_8));
+    FpmlDocumentParser parser = FpmlDocumentParser.of(FpmlPartySelector.matching("Party2"));
+    try (Stream<Result<Trade>> stream = parser.streamTrades(resource)) {
+      List<Result<Trade>> results = stream.collect(toImmutableList());
+      assertEquals(results.size(), 2);
+      assertTrue(results.get(0).isFailure());
+      assertEquals(results.get(0).getFailure().getReason(), FailureReason.PARSING);
+      assertTrue(results.get(0).getFailure().getMessage().contains("unknown"));
+      assertTrue(results.get(1).isSuccess());
+      assertFra(ImmutableList.of(results.get(1).getValue()), false);
+    }
+  }
+
+  public void streamTrades_manyTrades() throws IOException {
+    String location = "classpath:com/opengamma/strata/loader/fpml/ird-ex08-fra.xml";
+    String xml = ResourceLocator.of(location).getCharSource().read();
+    int start = xml.indexOf("<trade>");
+    int end = xml.indexOf("</trade>") + "</trade>".length();
+    String trade = xml.substring(start, end);
+    StringBuilder buf = new StringBuilder(xml.substring(0, start));
+    for (int i = 0; i < 600; i++) {
+      buf.append(trade);
+    }
+    buf.append(xml.substring(end));
+    ByteSource resource = ByteSource.wrap(buf.toString().getBytes(StandardCharsets.UTF_8));
+    FpmlDocumentParser parser = FpmlDocumentParser.of(FpmlPartySelector.matching("Party2"));
+    try (Stream<Result<Trade>> stream = parser.streamTrades(resource)) {
+      List<Trade> trades = stream.map(Result::getValue).collect(toImmutableList());
+      assertEquals(trades, parser.parseTrades(resource));
+      assertEquals(trades.size(), 600);
+    }
+  }
+
+  public void streamTrades_notFpml() {
+    String location = "classpath:com/opengamma/strata/loader/fpml/not-fpml.xml";
+    ByteSource resource = ResourceLocator.of(location).getByteSource();
+    FpmlDocumentParser parser = FpmlDocumentParser.of(FpmlPartySelector.any());
+    assertThrows(
+        () -> parser.streamTrades(resource),
+        FpmlParseException.class,
+        "Unable to find FpML root element.*");
+  }
+
   //-------------------------------------------------------------------------
   public void document() {
     XmlElement tradeDateEl = XmlElement.ofContent("tradeDate", "2000-06-30");
@@ -109,6 +109,11 @@ public final class AddFixedCurve
     return spreadCurve.yValueParameterSensitivity(x);
   }
 
+  @Override
+  public void yValueParameterSensitivity(double x, double factor, double[] array, int offset) {
+    spreadCurve.yValueParameterSensitivity(x, factor, array, offset);
+  }
+
   @Override
   public double firstDerivative(double x) {
     return fixedCurve.firstDerivative(x) + spreadCurve.firstDerivative(x);
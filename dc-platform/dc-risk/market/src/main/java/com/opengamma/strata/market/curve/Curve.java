@@ -102,6 +102,26 @@ public interface Curve extends ParameterizedData {
    */
   public abstract UnitParameterSensitivity yValueParameterSensitivity(double x);
 
+  /**
+   * Computes the sensitivity of the y-value with respect to the curve parameters, adding it to an array.
+   * <p>
+   * The sensitivity to each parameter, multiplied by the factor, is added to the array
+   * starting at the specified offset. This avoids creating the parameter metadata
+   * when the sensitivities of many points are to be accumulated.
+   *
+   * @param x  the x-value at which the parameter sensitivity is computed
+   * @param factor  the factor to multiply the sensitivity by
+   * @param array  the array to add the sensitivity to
+   * @param offset  the offset in the array of the first parameter
+   * @throws RuntimeException if the sensitivity cannot be calculated
+   */
+  public default void yValueParameterSensitivity(double x, double factor, double[] array, int offset) {
+    DoubleArray sensitivity = yValueParameterSensitivity(x).getSensitivity();
+    for (int i = 0; i < sensitivity.size(); i++) {
+      array[offset + i] += factor * sensitivity.get(i);
+    }
+  }
+
   /**
    * Computes the first derivative of the curve.
    * <p>
@@ -249,6 +249,14 @@ public final class InterpolatedNodalCurve
     return createParameterSensitivity(boundInterpolator.parameterSensitivity(x));
   }
 
+  @Override
+  public void yValueParameterSensitivity(double x, double factor, double[] array, int offset) {
+    DoubleArray sensitivity = boundInterpolator.parameterSensitivity(x);
+    for (int i = 0; i < sensitivity.size(); i++) {
+      array[offset + i] += factor * sensitivity.get(i);
+    }
+  }
+
   @Override
   public double firstDerivative(double x) {
     return boundInterpolator.firstDerivative(x);
@@ -170,6 +170,11 @@ public final class ParallelShiftedCurve
     return underlyingCurve.yValueParameterSensitivity(x);
   }
 
+  @Override
+  public void yValueParameterSensitivity(double x, double factor, double[] array, int offset) {
+    underlyingCurve.yValueParameterSensitivity(x, factor, array, offset);
+  }
+
   @Override
   public double firstDerivative(double x) {
     double firstDerivative = underlyingCurve.firstDerivative(x);
@@ -291,6 +291,27 @@ public final class CurrencyParameterSensitivities
         .collect(toMultiCurrencyAmount());
   }
 
+  /**
+   * Adds the sensitivity values to an array, ignoring the currency.
+   * <p>
+   * The values of each sensitivity are added to the array starting at the offset of its market data name.
+   * Sensitivities to market data that has no offset are ignored.
+   *
+   * @param offsets  the offset in the array of each market data name
+   * @param array  the array to add the sensitivity values to
+   */
+  public void addTo(Map<MarketDataName<?>, Integer> offsets, double[] array) {
+    for (CurrencyParameterSensitivity sensitivity : sensitivities) {
+      Integer offset = offsets.get(sensitivity.getMarketDataName());
+      if (offset != null) {
+        DoubleArray values = sensitivity.getSensitivity();
+        for (int i = 0; i < values.size(); i++) {
+          array[offset + i] += values.get(i);
+        }
+      }
+    }
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Returns an instance with the sensitivity values multiplied by the specified factor.
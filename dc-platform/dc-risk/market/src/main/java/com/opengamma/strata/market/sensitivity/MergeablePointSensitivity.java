@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.market.sensitivity;
+
+/**
+ * Point sensitivity that can be merged in place by {@link PointSensitivityAccumulator}.
+ * <p>
+ * The key of the sensitivity is split into the curve that was queried and the point on that curve.
+ * The curve key is typically an existing field, such as the currency or index of the curve,
+ * and the point key is a primitive derived from the query, such as the epoch day of a date.
+ * Neither method should allocate, as they are called for every point that is accumulated.
+ * <p>
+ * Two sensitivities of the same type, currency and curve key with equal point keys are typically equal
+ * by {@link #compareKey(PointSensitivity)}. The accumulator checks {@code compareKey} before merging,
+ * thus the point key is not required to be unique.
+ */
+public interface MergeablePointSensitivity
+    extends PointSensitivity {
+
+  /**
+   * Gets the key of the curve that was queried.
+   * <p>
+   * This must not include the currency of the sensitivity.
+   *
+   * @return the curve key, such as the currency or index of the curve
+   */
+  public abstract Object curveKey();
+
+  /**
+   * Gets the key of the point on the curve that was queried.
+   *
+   * @return the point key, such as the epoch day of a date
+   */
+  public abstract long pointKey();
+
+}
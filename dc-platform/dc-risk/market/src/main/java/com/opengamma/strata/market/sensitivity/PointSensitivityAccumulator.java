@@ -0,0 +1,292 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.market.sensitivity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Mutable accumulator of point sensitivities that merges sensitivities as they are added.
+ * <p>
+ * This is an alternative to {@link MutablePointSensitivities} for cases where a large number of
+ * point sensitivities are combined, such as the bucketed PV01 of a portfolio.
+ * Rather than holding every point and merging when normalized, the value of each
+ * {@linkplain MergeablePointSensitivity mergeable point} is added to a primitive array slot
+ * keyed by the type, currency, curve and point of the sensitivity.
+ * Adding a point that is already present allocates no memory.
+ * Points that are not mergeable are held in a list and merged when the result is built.
+ * <p>
+ * The result of {@link #build()} is normalized, and is equal to the result of
+ * normalizing a {@code MutablePointSensitivities} containing the same points,
+ * subject to the order of floating point addition.
+ * <p>
+ * This is a mutable accumulator that is not intended for use in multiple threads.
+ * It may be reused after calling {@link #clear()}, retaining the arrays that were allocated.
+ */
+public final class PointSensitivityAccumulator {
+
+  /**
+   * The initial capacity of each bucket, a power of two.
+   */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * The buckets of mergeable points, one for each type, currency and curve.
+   */
+  private final List<Bucket> buckets = new ArrayList<>();
+  /**
+   * The points that are not mergeable.
+   */
+  private final List<PointSensitivity> others = new ArrayList<>();
+  /**
+   * The bucket that was used last, null if none.
+   */
+  private Bucket lastBucket;
+
+  /**
+   * Creates an empty instance.
+   */
+  public PointSensitivityAccumulator() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of sensitivity entries.
+   * <p>
+   * Mergeable points are counted once for each distinct point.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    int size = others.size();
+    for (Bucket bucket : buckets) {
+      size += bucket.size;
+    }
+    return size;
+  }
+
+  /**
+   * Removes all the sensitivities.
+   * <p>
+   * The arrays that have been allocated are retained.
+   *
+   * @return {@code this}, for method chaining
+   */
+  public PointSensitivityAccumulator clear() {
+    for (Bucket bucket : buckets) {
+      bucket.clear();
+    }
+    others.clear();
+    return this;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Adds a point sensitivity.
+   * <p>
+   * If the sensitivity is mergeable and the same point has already been added,
+   * the value is added to that of the existing point.
+   *
+   * @param sensitivity  the sensitivity to add
+   * @return {@code this}, for method chaining
+   */
+  public PointSensitivityAccumulator add(PointSensitivity sensitivity) {
+    ArgChecker.notNull(sensitivity, "sensitivity");
+    if (sensitivity instanceof MergeablePointSensitivity) {
+      MergeablePointSensitivity mergeable = (MergeablePointSensitivity) sensitivity;
+      if (bucket(mergeable).add(mergeable)) {
+        return this;
+      }
+    }
+    others.add(sensitivity);
+    return this;
+  }
+
+  /**
+   * Adds the point sensitivities of a builder.
+   * <p>
+   * The builder is not altered.
+   *
+   * @param builder  the builder of the sensitivities to add
+   * @return {@code this}, for method chaining
+   */
+  public PointSensitivityAccumulator addAll(PointSensitivityBuilder builder) {
+    ArgChecker.notNull(builder, "builder");
+    if (builder instanceof PointSensitivity) {
+      return add((PointSensitivity) builder);
+    }
+    if (builder instanceof NoPointSensitivity) {
+      return this;
+    }
+    return addAll(builder.build());
+  }
+
+  /**
+   * Adds a set of point sensitivities.
+   *
+   * @param sensitivities  the sensitivities to add
+   * @return {@code this}, for method chaining
+   */
+  public PointSensitivityAccumulator addAll(PointSensitivities sensitivities) {
+    ArgChecker.notNull(sensitivities, "sensitivities");
+    for (PointSensitivity sensitivity : sensitivities.getSensitivities()) {
+      add(sensitivity);
+    }
+    return this;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Builds the normalized point sensitivities.
+   * <p>
+   * The accumulator is not altered.
+   *
+   * @return the immutable point sensitivities, sorted and merged
+   */
+  public PointSensitivities build() {
+    List<PointSensitivity> result = new ArrayList<>(size());
+    for (Bucket bucket : buckets) {
+      bucket.buildInto(result);
+    }
+    if (!others.isEmpty()) {
+      // points that are not mergeable may match each other, or a mergeable point
+      result.addAll(others);
+      return new MutablePointSensitivities(result).normalize().toImmutable();
+    }
+    result.sort(PointSensitivity::compareKey);
+    return PointSensitivities.of(result);
+  }
+
+  //-------------------------------------------------------------------------
+  // finds or creates the bucket for the sensitivity
+  private Bucket bucket(MergeablePointSensitivity sensitivity) {
+    Bucket last = lastBucket;
+    if (last != null && last.matches(sensitivity)) {
+      return last;
+    }
+    for (Bucket bucket : buckets) {
+      if (bucket.matches(sensitivity)) {
+        lastBucket = bucket;
+        return bucket;
+      }
+    }
+    Bucket bucket = new Bucket(sensitivity);
+    buckets.add(bucket);
+    lastBucket = bucket;
+    return bucket;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The points of a single type, currency and curve, held in an open addressing hash table.
+   */
+  private static final class Bucket {
+
+    /** The type of the sensitivities. */
+    private final Class<?> type;
+    /** The currency of the sensitivities. */
+    private final Currency currency;
+    /** The curve key of the sensitivities. */
+    private final Object curveKey;
+    /** The point keys, by slot. */
+    private long[] keys = new long[INITIAL_CAPACITY];
+    /** The accumulated values, by slot. */
+    private double[] values = new double[INITIAL_CAPACITY];
+    /** The first point added to each slot, null if the slot is empty. */
+    private MergeablePointSensitivity[] points = new MergeablePointSensitivity[INITIAL_CAPACITY];
+    /** The number of occupied slots. */
+    private int size;
+
+    private Bucket(MergeablePointSensitivity sensitivity) {
+      this.type = sensitivity.getClass();
+      this.currency = sensitivity.getCurrency();
+      this.curveKey = sensitivity.curveKey();
+    }
+
+    // checks if the sensitivity belongs in this bucket
+    private boolean matches(MergeablePointSensitivity sensitivity) {
+      if (sensitivity.getClass() != type || !sensitivity.getCurrency().equals(currency)) {
+        return false;
+      }
+      Object otherKey = sensitivity.curveKey();
+      return otherKey == curveKey || otherKey.equals(curveKey);
+    }
+
+    // adds the sensitivity, returning false if it cannot be merged with the point of the same key
+    private boolean add(MergeablePointSensitivity sensitivity) {
+      long key = sensitivity.pointKey();
+      int mask = keys.length - 1;
+      int slot = hash(key) & mask;
+      while (points[slot] != null) {
+        if (keys[slot] == key) {
+          if (points[slot].compareKey(sensitivity) != 0) {
+            return false;
+          }
+          values[slot] += sensitivity.getSensitivity();
+          return true;
+        }
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = key;
+      values[slot] = sensitivity.getSensitivity();
+      points[slot] = sensitivity;
+      size++;
+      if (size * 2 > keys.length) {
+        resize();
+      }
+      return true;
+    }
+
+    // doubles the capacity, rehashing the occupied slots
+    private void resize() {
+      long[] oldKeys = keys;
+      double[] oldValues = values;
+      MergeablePointSensitivity[] oldPoints = points;
+      int capacity = oldKeys.length * 2;
+      int mask = capacity - 1;
+      keys = new long[capacity];
+      values = new double[capacity];
+      points = new MergeablePointSensitivity[capacity];
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldPoints[i] != null) {
+          int slot = hash(oldKeys[i]) & mask;
+          while (points[slot] != null) {
+            slot = (slot + 1) & mask;
+          }
+          keys[slot] = oldKeys[i];
+          values[slot] = oldValues[i];
+          points[slot] = oldPoints[i];
+        }
+      }
+    }
+
+    // creates a point sensitivity for each occupied slot
+    private void buildInto(List<PointSensitivity> result) {
+      for (int i = 0; i < points.length; i++) {
+        MergeablePointSensitivity point = points[i];
+        if (point != null) {
+          result.add(point.getSensitivity() == values[i] ? point : point.withSensitivity(values[i]));
+        }
+      }
+    }
+
+    private void clear() {
+      Arrays.fill(points, null);
+      size = 0;
+    }
+
+    // spreads the bits of the key, as consecutive dates are common
+    private static int hash(long key) {
+      long h = key * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32));
+    }
+  }
+
+}
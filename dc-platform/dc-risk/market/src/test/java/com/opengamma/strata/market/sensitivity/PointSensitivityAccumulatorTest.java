@@ -0,0 +1,204 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.market.sensitivity;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.currency.Currency.GBP;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.function.DoubleUnaryOperator;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.currency.Currency;
+
+/**
+ * Test {@link PointSensitivityAccumulator}.
+ */
+@Test
+public class PointSensitivityAccumulatorTest {
+
+  private static final LocalDate DATE1 = date(2015, 6, 30);
+  private static final LocalDate DATE2 = date(2015, 7, 30);
+  private static final double TOLERANCE = 1e-10;
+
+  //-------------------------------------------------------------------------
+  public void test_empty() {
+    PointSensitivityAccumulator test = new PointSensitivityAccumulator();
+    assertEquals(test.size(), 0);
+    assertEquals(test.build(), PointSensitivities.empty());
+  }
+
+  public void test_add_mergeOnInsert() {
+    PointSensitivityAccumulator test = new PointSensitivityAccumulator();
+    test.add(new MergeableDummy(GBP, DATE1, GBP, 1d));
+    test.add(new MergeableDummy(GBP, DATE2, GBP, 2d));
+    test.add(new MergeableDummy(GBP, DATE1, GBP, 3d));
+    test.add(new MergeableDummy(GBP, DATE1, USD, 4d));
+    test.add(new MergeableDummy(EUR, DATE1, GBP, 5d));
+    assertEquals(test.size(), 4);
+    assertEquals(test.build().getSensitivities(), ImmutableList.of(
+        new MergeableDummy(EUR, DATE1, GBP, 5d),
+        new MergeableDummy(GBP, DATE1, GBP, 4d),
+        new MergeableDummy(GBP, DATE2, GBP, 2d),
+        new MergeableDummy(GBP, DATE1, USD, 4d)));
+  }
+
+  public void test_add_matchesNormalized() {
+    PointSensitivityAccumulator test = new PointSensitivityAccumulator();
+    MutablePointSensitivities expected = new MutablePointSensitivities();
+    Currency[] currencies = {GBP, USD, EUR};
+    for (int i = 0; i < 5000; i++) {
+      PointSensitivity point = new MergeableDummy(
+          currencies[i % 3], DATE1.plusDays((i * 7) % 400), currencies[i % 2], i * 0.5d);
+      test.add(point);
+      expected.add(point);
+    }
+    assertEquals(test.size(), expected.normalize().size());
+    assertTrue(test.build().equalWithTolerance(expected.build(), TOLERANCE));
+  }
+
+  public void test_add_notMergeable() {
+    PointSensitivity dummy1 = DummyPointSensitivity.of(GBP, DATE1, 1d);
+    PointSensitivity dummy2 = DummyPointSensitivity.of(GBP, DATE1, 2d);
+    PointSensitivity mergeable = new MergeableDummy(GBP, DATE2, GBP, 3d);
+    PointSensitivityAccumulator test = new PointSensitivityAccumulator();
+    test.add(dummy1);
+    test.addAll((PointSensitivityBuilder) mergeable);
+    test.addAll(PointSensitivityBuilder.none());
+    test.addAll(PointSensitivities.of(dummy2, mergeable));
+    assertEquals(test.size(), 3);
+    assertEquals(test.build().getSensitivities(), ImmutableList.of(
+        DummyPointSensitivity.of(GBP, DATE1, 3d),
+        new MergeableDummy(GBP, DATE2, GBP, 6d)));
+  }
+
+  public void test_add_builder() {
+    PointSensitivityBuilder builder = new MutablePointSensitivities()
+        .add(new MergeableDummy(GBP, DATE1, GBP, 1d))
+        .add(new MergeableDummy(GBP, DATE1, GBP, 2d));
+    PointSensitivityAccumulator test = new PointSensitivityAccumulator().addAll(builder);
+    assertEquals(test.build(), PointSensitivities.of(new MergeableDummy(GBP, DATE1, GBP, 3d)));
+  }
+
+  public void test_clear() {
+    PointSensitivityAccumulator test = new PointSensitivityAccumulator();
+    test.add(new MergeableDummy(GBP, DATE1, GBP, 1d));
+    test.add(DummyPointSensitivity.of(GBP, DATE1, 1d));
+    test.clear();
+    assertEquals(test.size(), 0);
+    test.add(new MergeableDummy(GBP, DATE1, GBP, 2d));
+    assertEquals(test.build(), PointSensitivities.of(new MergeableDummy(GBP, DATE1, GBP, 2d)));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Mergeable point sensitivity to a curve keyed by currency, at a date.
+   */
+  private static final class MergeableDummy implements MergeablePointSensitivity, PointSensitivityBuilder {
+
+    private final Currency curveCurrency;
+    private final LocalDate date;
+    private final Currency currency;
+    private final double sensitivity;
+
+    private MergeableDummy(Currency curveCurrency, LocalDate date, Currency currency, double sensitivity) {
+      this.curveCurrency = curveCurrency;
+      this.date = date;
+      this.currency = currency;
+      this.sensitivity = sensitivity;
+    }
+
+    @Override
+    public Object curveKey() {
+      return curveCurrency;
+    }
+
+    @Override
+    public long pointKey() {
+      return date.toEpochDay();
+    }
+
+    @Override
+    public Currency getCurrency() {
+      return currency;
+    }
+
+    @Override
+    public double getSensitivity() {
+      return sensitivity;
+    }
+
+    @Override
+    public MergeableDummy withCurrency(Currency currency) {
+      return new MergeableDummy(curveCurrency, date, currency, sensitivity);
+    }
+
+    @Override
+    public MergeableDummy withSensitivity(double sensitivity) {
+      return new MergeableDummy(curveCurrency, date, currency, sensitivity);
+    }
+
+    @Override
+    public int compareKey(PointSensitivity other) {
+      if (other instanceof MergeableDummy) {
+        MergeableDummy otherDummy = (MergeableDummy) other;
+        return ComparisonChain.start()
+            .compare(curveCurrency, otherDummy.curveCurrency)
+            .compare(currency, otherDummy.currency)
+            .compare(date, otherDummy.date)
+            .result();
+      }
+      return getClass().getSimpleName().compareTo(other.getClass().getSimpleName());
+    }
+
+    @Override
+    public MergeableDummy mapSensitivity(DoubleUnaryOperator operator) {
+      return withSensitivity(operator.applyAsDouble(sensitivity));
+    }
+
+    @Override
+    public MergeableDummy normalize() {
+      return this;
+    }
+
+    @Override
+    public MutablePointSensitivities buildInto(MutablePointSensitivities combination) {
+      return combination.add(this);
+    }
+
+    @Override
+    public MergeableDummy cloned() {
+      return this;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof MergeableDummy) {
+        MergeableDummy other = (MergeableDummy) obj;
+        return compareKey(other) == 0 && sensitivity == other.sensitivity;
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return curveCurrency.hashCode() ^ date.hashCode() ^ currency.hashCode() ^ Double.hashCode(sensitivity);
+    }
+
+    @Override
+    public String toString() {
+      return "MergeableDummy[" + curveCurrency + ", " + date + ", " + currency + ", " + sensitivity + "]";
+    }
+  }
+
+}
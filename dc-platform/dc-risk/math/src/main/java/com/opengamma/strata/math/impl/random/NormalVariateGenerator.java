@@ -0,0 +1,35 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.random;
+
+import java.util.List;
+
+/**
+ * Generator of standard normal vectors that can be split into streams.
+ * <p>
+ * The streams are intended to be used by different threads, one stream for each block of work.
+ * The vectors of each stream depend only on the generator and the index of the stream,
+ * thus a calculation divided into blocks gives the same result whatever the number of threads.
+ * <p>
+ * Implementations must be immutable and thread-safe.
+ */
+public interface NormalVariateGenerator {
+
+  /**
+   * Splits the generator into streams.
+   * <p>
+   * The streams are independent, each providing at least {@code streamLength} vectors.
+   * Calling this method again with the same arguments returns streams of the same vectors.
+   * 
+   * @param dimension  the dimension of the vectors
+   * @param streamCount  the number of streams
+   * @param streamLength  the number of vectors to be used from each stream
+   * @return the streams
+   * @throws IllegalArgumentException if the dimension is not supported
+   */
+  public abstract List<NormalVariateStream> split(int dimension, int streamCount, int streamLength);
+
+}
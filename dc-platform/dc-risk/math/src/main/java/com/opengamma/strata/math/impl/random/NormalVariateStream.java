@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.random;
+
+/**
+ * A stream of vectors of independent standard normal variates.
+ * <p>
+ * A stream is obtained from a {@link NormalVariateGenerator} and has a fixed dimension.
+ * Implementations are mutable and are not intended for use in multiple threads.
+ */
+public interface NormalVariateStream {
+
+  /**
+   * Gets the dimension of the vectors.
+   * 
+   * @return the dimension
+   */
+  public abstract int getDimension();
+
+  /**
+   * Fills the array with the next vector of the stream.
+   * <p>
+   * The array is not allocated by the stream, thus the same array can be reused for each vector.
+   * 
+   * @param result  the array to fill, of length equal to the dimension
+   */
+  public abstract void next(double[] result);
+
+}
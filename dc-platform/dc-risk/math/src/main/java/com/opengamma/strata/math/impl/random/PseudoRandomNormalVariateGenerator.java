@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.random;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+import cern.jet.stat.Probability;
+
+/**
+ * Pseudo-random generator of standard normal vectors, based on {@link SplittableRandom}.
+ * <p>
+ * Each stream uses a {@code SplittableRandom} split from a root generator created from the seed.
+ * The splits are made in order of the stream index, thus the streams depend only on the seed.
+ * The uniform variates are mapped to normal variates by the inverse cumulative distribution function.
+ */
+public final class PseudoRandomNormalVariateGenerator
+    implements NormalVariateGenerator {
+
+  /**
+   * The scale applied to 53 random bits to obtain a uniform variate.
+   */
+  private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+  /**
+   * The seed.
+   */
+  private final long seed;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance from a seed.
+   *
+   * @param seed  the seed
+   * @return the generator
+   */
+  public static PseudoRandomNormalVariateGenerator of(long seed) {
+    return new PseudoRandomNormalVariateGenerator(seed);
+  }
+
+  // restricted constructor
+  private PseudoRandomNormalVariateGenerator(long seed) {
+    this.seed = seed;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the seed.
+   *
+   * @return the seed
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  @Override
+  public List<NormalVariateStream> split(int dimension, int streamCount, int streamLength) {
+    ArgChecker.notNegativeOrZero(dimension, "dimension");
+    ArgChecker.notNegative(streamCount, "streamCount");
+    ArgChecker.notNegative(streamLength, "streamLength");
+    SplittableRandom root = new SplittableRandom(seed);
+    List<NormalVariateStream> streams = new ArrayList<>(streamCount);
+    for (int i = 0; i < streamCount; i++) {
+      streams.add(new Stream(root.split(), dimension));
+    }
+    return streams;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj instanceof PseudoRandomNormalVariateGenerator) {
+      return seed == ((PseudoRandomNormalVariateGenerator) obj).seed;
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(seed);
+  }
+
+  @Override
+  public String toString() {
+    return "PseudoRandomNormalVariateGenerator[seed=" + seed + "]";
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * A stream of a single split.
+   */
+  private static final class Stream implements NormalVariateStream {
+
+    private final SplittableRandom random;
+    private final int dimension;
+
+    private Stream(SplittableRandom random, int dimension) {
+      this.random = random;
+      this.dimension = dimension;
+    }
+
+    @Override
+    public int getDimension() {
+      return dimension;
+    }
+
+    @Override
+    public void next(double[] result) {
+      ArgChecker.isTrue(result.length == dimension, "Array length must match dimension");
+      for (int i = 0; i < dimension; i++) {
+        // uniform in the open interval (0, 1), as the inverse is infinite at 0
+        double uniform = ((random.nextLong() >>> 11) + 0.5d) * DOUBLE_UNIT;
+        result[i] = Probability.normalInverse(uniform);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,216 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.random;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+import cern.jet.stat.Probability;
+
+/**
+ * Quasi-random generator of standard normal vectors, based on the Sobol low-discrepancy sequence.
+ * <p>
+ * The points of the sequence are generated in Gray code order, using the primitive polynomials and
+ * initial direction numbers of Joe and Kuo. The point at index zero, which is zero in all dimensions,
+ * is skipped. Stream {@code i} of a split starts at point {@code 1 + i * streamLength}, thus the
+ * streams together cover the start of the sequence without gaps or overlap.
+ * The uniform variates are mapped to normal variates by the inverse cumulative distribution function.
+ * <p>
+ * Reference: S. Joe and F. Y. Kuo, "Constructing Sobol sequences with better two-dimensional projections",
+ * SIAM J. Sci. Comput. 30, 2635-2654 (2008).
+ */
+public final class SobolNormalVariateGenerator
+    implements NormalVariateGenerator {
+
+  /**
+   * The number of bits of each coordinate.
+   */
+  private static final int BITS = 32;
+  /**
+   * The scale applied to a coordinate to obtain a uniform variate.
+   */
+  private static final double SCALE = 0x1.0p-32;
+  /**
+   * The maximum number of points that can be generated.
+   */
+  private static final long MAX_POINTS = 1L << BITS;
+  /**
+   * The degree, coefficients and initial direction numbers of the primitive polynomials,
+   * for the dimensions after the first.
+   */
+  private static final int[][] POLYNOMIALS = {
+      {1, 0, 1},
+      {2, 1, 1, 3},
+      {3, 1, 1, 3, 1},
+      {3, 2, 1, 1, 1},
+      {4, 1, 1, 1, 3, 3},
+      {4, 4, 1, 3, 5, 13},
+      {5, 2, 1, 1, 5, 5, 17},
+      {5, 4, 1, 1, 5, 5, 5},
+      {5, 7, 1, 1, 7, 11, 19},
+      {5, 11, 1, 1, 5, 1, 1},
+      {5, 13, 1, 1, 1, 3, 11},
+      {5, 14, 1, 3, 5, 5, 31},
+      {6, 1, 1, 3, 3, 9, 7, 49},
+      {6, 13, 1, 1, 1, 15, 21, 21},
+      {6, 16, 1, 3, 1, 13, 27, 49},
+      {6, 19, 1, 1, 1, 15, 7, 5},
+      {6, 22, 1, 3, 1, 15, 13, 25},
+      {6, 25, 1, 1, 5, 5, 19, 61},
+      {7, 1, 1, 3, 7, 11, 23, 15, 103},
+      {7, 4, 1, 3, 7, 13, 13, 15, 69},
+      {7, 7, 1, 1, 3, 13, 7, 35, 63},
+      {7, 8, 1, 3, 5, 9, 1, 25, 53},
+      {7, 14, 1, 3, 1, 13, 9, 35, 107},
+      {7, 19, 1, 3, 1, 5, 27, 61, 31},
+      {7, 21, 1, 1, 5, 11, 19, 41, 61},
+      {7, 28, 1, 3, 5, 3, 3, 13, 69},
+      {7, 31, 1, 1, 7, 13, 1, 19, 1},
+      {7, 32, 1, 3, 7, 5, 13, 19, 59},
+      {7, 37, 1, 1, 3, 9, 25, 29, 41},
+      {7, 41, 1, 3, 5, 13, 23, 1, 55},
+      {7, 42, 1, 3, 7, 3, 13, 59, 17},
+      {7, 50, 1, 3, 1, 3, 5, 53, 69},
+  };
+  /**
+   * The maximum dimension.
+   */
+  public static final int MAX_DIMENSION = POLYNOMIALS.length + 1;
+  /**
+   * The direction numbers, by dimension and bit.
+   */
+  private static final long[][] DIRECTIONS = directions();
+  /**
+   * The default instance.
+   */
+  public static final SobolNormalVariateGenerator DEFAULT = new SobolNormalVariateGenerator();
+
+  //-------------------------------------------------------------------------
+  // computes the direction numbers from the primitive polynomials
+  private static long[][] directions() {
+    long[][] directions = new long[MAX_DIMENSION][BITS + 1];
+    for (int i = 1; i <= BITS; i++) {
+      directions[0][i] = 1L << (BITS - i);
+    }
+    for (int d = 1; d < MAX_DIMENSION; d++) {
+      int[] polynomial = POLYNOMIALS[d - 1];
+      int degree = polynomial[0];
+      int coefficients = polynomial[1];
+      long[] v = directions[d];
+      for (int i = 1; i <= Math.min(degree, BITS); i++) {
+        v[i] = ((long) polynomial[i + 1]) << (BITS - i);
+      }
+      for (int i = degree + 1; i <= BITS; i++) {
+        v[i] = v[i - degree] ^ (v[i - degree] >>> degree);
+        for (int k = 1; k < degree; k++) {
+          if (((coefficients >>> (degree - 1 - k)) & 1) != 0) {
+            v[i] ^= v[i - k];
+          }
+        }
+      }
+    }
+    return directions;
+  }
+
+  // restricted constructor
+  private SobolNormalVariateGenerator() {
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public List<NormalVariateStream> split(int dimension, int streamCount, int streamLength) {
+    ArgChecker.inRangeInclusive(dimension, 1, MAX_DIMENSION, "dimension");
+    ArgChecker.notNegative(streamCount, "streamCount");
+    ArgChecker.notNegative(streamLength, "streamLength");
+    ArgChecker.isTrue(
+        1L + (long) streamCount * streamLength <= MAX_POINTS,
+        "Sobol sequence is limited to {} points", MAX_POINTS - 1);
+    List<NormalVariateStream> streams = new ArrayList<>(streamCount);
+    for (int i = 0; i < streamCount; i++) {
+      streams.add(new Stream(dimension, 1L + (long) i * streamLength));
+    }
+    return streams;
+  }
+
+  /**
+   * Fills the array with the uniform point of the Sobol sequence at the index.
+   * <p>
+   * This is intended for testing.
+   *
+   * @param index  the index of the point, from zero
+   * @param result  the array to fill, of length at most {@link #MAX_DIMENSION}
+   */
+  public static void uniformPoint(long index, double[] result) {
+    ArgChecker.isTrue(index >= 0 && index < MAX_POINTS, "Index must be non-negative and less than {}", MAX_POINTS);
+    ArgChecker.inRangeInclusive(result.length, 1, MAX_DIMENSION, "dimension");
+    long gray = index ^ (index >>> 1);
+    for (int d = 0; d < result.length; d++) {
+      result[d] = coordinate(d, gray) * SCALE;
+    }
+  }
+
+  // the coordinate of the point with the Gray code in the dimension
+  private static long coordinate(int dimension, long gray) {
+    long[] v = DIRECTIONS[dimension];
+    long x = 0;
+    for (int bit = 1; gray != 0; bit++, gray >>>= 1) {
+      if ((gray & 1) != 0) {
+        x ^= v[bit];
+      }
+    }
+    return x;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "SobolNormalVariateGenerator";
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * A stream of consecutive points.
+   */
+  private static final class Stream implements NormalVariateStream {
+
+    private final long[] coordinates;
+    private long index;
+
+    private Stream(int dimension, long start) {
+      this.coordinates = new long[dimension];
+      this.index = start;
+      long gray = start ^ (start >>> 1);
+      for (int d = 0; d < dimension; d++) {
+        coordinates[d] = coordinate(d, gray);
+      }
+    }
+
+    @Override
+    public int getDimension() {
+      return coordinates.length;
+    }
+
+    @Override
+    public void next(double[] result) {
+      ArgChecker.isTrue(result.length == coordinates.length, "Array length must match dimension");
+      ArgChecker.isTrue(index < MAX_POINTS, "Sobol sequence is limited to {} points", MAX_POINTS - 1);
+      for (int d = 0; d < coordinates.length; d++) {
+        result[d] = Probability.normalInverse(coordinates[d] * SCALE);
+      }
+      // the next point in Gray code order differs by the direction of the lowest set bit of the next index
+      index++;
+      int bit = Long.numberOfTrailingZeros(index) + 1;
+      if (bit <= BITS) {
+        for (int d = 0; d < coordinates.length; d++) {
+          coordinates[d] ^= DIRECTIONS[d][bit];
+        }
+      }
+    }
+  }
+
+}
@@ -27,6 +27,7 @@ import cern.jet.stat.Probability;
 public class NormalDistribution implements ProbabilityDistribution<Double> {
 
   private static final double ROOT2 = Math.sqrt(2);
+  private static final double PDF_NORMALIZER = 1d / Math.sqrt(2 * Math.PI);
 
   // TODO need a better seed
   private final double _mean;
@@ -54,6 +55,34 @@ public class NormalDistribution implements ProbabilityDistribution<Double> {
     _normal = new Normal(mean, standardDeviation, randomEngine);
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Computes the cumulative distribution function of the standard normal distribution.
+   * <p>
+   * This matches {@link #getCDF(Double)} of the standard normal distribution,
+   * but takes a primitive so that it can be used in tight loops without boxing.
+   * 
+   * @param x  the value
+   * @return the cumulative probability
+   */
+  public static double standardCdf(double x) {
+    return DERFC.getErfc(-x / ROOT2) / 2;
+  }
+
+  /**
+   * Computes the probability density function of the standard normal distribution.
+   * <p>
+   * This matches {@link #getPDF(Double)} of the standard normal distribution,
+   * but takes a primitive so that it can be used in tight loops without boxing.
+   * 
+   * @param x  the value
+   * @return the probability density
+   */
+  public static double standardPdf(double x) {
+    return PDF_NORMALIZER * Math.exp(-(x * x) / 2d);
+  }
+
+  //-------------------------------------------------------------------------
   /**
    * {@inheritDoc}
    */
@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.random;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test {@link PseudoRandomNormalVariateGenerator}.
+ */
+@Test
+public class PseudoRandomNormalVariateGeneratorTest {
+
+  private static final PseudoRandomNormalVariateGenerator GENERATOR = PseudoRandomNormalVariateGenerator.of(123L);
+
+  public void test_of() {
+    assertEquals(GENERATOR.getSeed(), 123L);
+    assertEquals(GENERATOR, PseudoRandomNormalVariateGenerator.of(123L));
+    assertEquals(GENERATOR.hashCode(), PseudoRandomNormalVariateGenerator.of(123L).hashCode());
+    assertFalse(GENERATOR.equals(PseudoRandomNormalVariateGenerator.of(124L)));
+  }
+
+  public void test_split_repeatable() {
+    List<NormalVariateStream> streams1 = GENERATOR.split(3, 4, 10);
+    List<NormalVariateStream> streams2 = GENERATOR.split(3, 4, 10);
+    assertEquals(streams1.size(), 4);
+    double[] result1 = new double[3];
+    double[] result2 = new double[3];
+    double[] first = null;
+    for (int i = 0; i < 4; i++) {
+      assertEquals(streams1.get(i).getDimension(), 3);
+      streams1.get(i).next(result1);
+      streams2.get(i).next(result2);
+      assertEquals(result1, result2);
+      if (first == null) {
+        first = result1.clone();
+      } else {
+        assertFalse(Arrays.equals(first, result1));
+      }
+    }
+  }
+
+  public void test_moments() {
+    NormalVariateStream stream = GENERATOR.split(2, 1, 100_000).get(0);
+    double[] result = new double[2];
+    double sum = 0d;
+    double sumSquares = 0d;
+    double sumProducts = 0d;
+    int n = 100_000;
+    for (int i = 0; i < n; i++) {
+      stream.next(result);
+      sum += result[0];
+      sumSquares += result[0] * result[0];
+      sumProducts += result[0] * result[1];
+    }
+    assertEquals(sum / n, 0d, 0.02);
+    assertEquals(sumSquares / n, 1d, 0.02);
+    assertEquals(sumProducts / n, 0d, 0.02);
+  }
+
+  public void test_invalid() {
+    assertThrowsIllegalArg(() -> GENERATOR.split(0, 1, 1));
+    assertThrowsIllegalArg(() -> GENERATOR.split(1, -1, 1));
+    assertThrowsIllegalArg(() -> GENERATOR.split(2, 1, 1).get(0).next(new double[3]));
+  }
+
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.math.impl.random;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import cern.jet.stat.Probability;
+
+/**
+ * Test {@link SobolNormalVariateGenerator}.
+ */
+@Test
+public class SobolNormalVariateGeneratorTest {
+
+  private static final SobolNormalVariateGenerator GENERATOR = SobolNormalVariateGenerator.DEFAULT;
+  private static final double TOL = 1e-14;
+
+  public void test_uniformPoint_firstDimensions() {
+    double[] point = new double[3];
+    SobolNormalVariateGenerator.uniformPoint(0, point);
+    assertEquals(point, new double[] {0d, 0d, 0d});
+    SobolNormalVariateGenerator.uniformPoint(1, point);
+    assertEquals(point, new double[] {0.5, 0.5, 0.5});
+    SobolNormalVariateGenerator.uniformPoint(2, point);
+    assertEquals(point, new double[] {0.75, 0.25, 0.25});
+    SobolNormalVariateGenerator.uniformPoint(3, point);
+    assertEquals(point, new double[] {0.25, 0.75, 0.75});
+  }
+
+  // each one dimensional projection of the first 2^k points has one point in each interval of width 2^-k
+  public void test_uniformPoint_stratified() {
+    int size = 1 << 10;
+    double[] point = new double[SobolNormalVariateGenerator.MAX_DIMENSION];
+    boolean[][] filled = new boolean[point.length][size];
+    for (int i = 0; i < size; i++) {
+      SobolNormalVariateGenerator.uniformPoint(i, point);
+      for (int d = 0; d < point.length; d++) {
+        filled[d][(int) (point[d] * size)] = true;
+      }
+    }
+    for (int d = 0; d < point.length; d++) {
+      for (int j = 0; j < size; j++) {
+        assertTrue(filled[d][j], "dimension " + d + ", interval " + j);
+      }
+    }
+  }
+
+  public void test_split_contiguous() {
+    int dimension = SobolNormalVariateGenerator.MAX_DIMENSION;
+    List<NormalVariateStream> streams = GENERATOR.split(dimension, 3, 100);
+    double[] result = new double[dimension];
+    double[] point = new double[dimension];
+    for (int i = 0; i < 3; i++) {
+      NormalVariateStream stream = streams.get(i);
+      for (int j = 0; j < 100; j++) {
+        stream.next(result);
+        SobolNormalVariateGenerator.uniformPoint(1 + i * 100 + j, point);
+        for (int d = 0; d < dimension; d++) {
+          assertEquals(result[d], Probability.normalInverse(point[d]), TOL);
+        }
+      }
+    }
+  }
+
+  public void test_moments() {
+    int n = (1 << 14) - 1;
+    NormalVariateStream stream = GENERATOR.split(5, 1, n).get(0);
+    double[] result = new double[5];
+    double[] sum = new double[5];
+    double[] sumSquares = new double[5];
+    for (int i = 0; i < n; i++) {
+      stream.next(result);
+      for (int d = 0; d < 5; d++) {
+        sum[d] += result[d];
+        sumSquares[d] += result[d] * result[d];
+      }
+    }
+    for (int d = 0; d < 5; d++) {
+      assertEquals(sum[d] / n, 0d, 1e-3);
+      assertEquals(sumSquares[d] / n, 1d, 5e-3);
+    }
+  }
+
+  public void test_invalid() {
+    assertThrowsIllegalArg(() -> GENERATOR.split(0, 1, 1));
+    assertThrowsIllegalArg(() -> GENERATOR.split(SobolNormalVariateGenerator.MAX_DIMENSION + 1, 1, 1));
+    assertThrowsIllegalArg(() -> GENERATOR.split(1, 3, Integer.MAX_VALUE));
+    assertThrowsIllegalArg(() -> GENERATOR.split(2, 1, 1).get(0).next(new double[3]));
+    assertThrowsIllegalArg(() -> SobolNormalVariateGenerator.uniformPoint(-1, new double[1]));
+  }
+
+}
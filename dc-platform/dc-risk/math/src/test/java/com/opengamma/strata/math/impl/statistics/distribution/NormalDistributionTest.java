@@ -46,6 +46,14 @@ public class NormalDistributionTest extends ProbabilityDistributionTestCase {
     }
   }
 
+  public void testStandard() {
+    for (int i = 0; i < 41; i++) {
+      double x = -10.0 + 0.5 * i;
+      assertEquals(NormalDistribution.standardCdf(x), NORMAL.getCDF(x), 0d);
+      assertEquals(NormalDistribution.standardPdf(x), NORMAL.getPDF(x), 1e-16);
+    }
+  }
+
   public void testObject() {
     NormalDistribution other = new NormalDistribution(0, 1, ENGINE);
     assertEquals(NORMAL, other);
@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.measure.calc;
+
+import java.util.Optional;
+
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.calc.runner.CalculationParameter;
+import com.opengamma.strata.calc.runner.CalculationParameters;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.product.ResolvableTrade;
+import com.opengamma.strata.product.ResolvedTrade;
+import com.opengamma.strata.product.ResolvedTradeCache;
+
+/**
+ * A calculation parameter providing a cache of resolved trades.
+ * <p>
+ * The trade calculation functions resolve each trade before calculating its measures.
+ * When this parameter is present, they use the cache, so that a trade is only resolved again
+ * when it, or the reference data, changes. The same cache may be shared with other components.
+ * <p>
+ * The parameter holds a mutable cache, so it is compared by identity.
+ */
+public final class ResolvedTradeCacheParameter implements CalculationParameter {
+
+  /**
+   * The cache of resolved trades.
+   */
+  private final ResolvedTradeCache cache;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance using the specified cache.
+   *
+   * @param cache  the cache of resolved trades
+   * @return the parameter
+   */
+  public static ResolvedTradeCacheParameter of(ResolvedTradeCache cache) {
+    return new ResolvedTradeCacheParameter(cache);
+  }
+
+  // restricted constructor
+  private ResolvedTradeCacheParameter(ResolvedTradeCache cache) {
+    this.cache = ArgChecker.notNull(cache, "cache");
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Resolves the trade, using the cache in the parameters if present.
+   *
+   * @param <R>  the type of the resolved trade
+   * @param trade  the trade
+   * @param parameters  the calculation parameters
+   * @param refData  the reference data to use when resolving
+   * @return the resolved trade
+   * @throws RuntimeException if unable to resolve the trade
+   */
+  public static <R extends ResolvedTrade> R resolve(
+      ResolvableTrade<R> trade,
+      CalculationParameters parameters,
+      ReferenceData refData) {
+
+    Optional<ResolvedTradeCacheParameter> cacheParam = parameters.findParameter(ResolvedTradeCacheParameter.class);
+    if (cacheParam.isPresent()) {
+      return cacheParam.get().cache.resolve(trade, refData);
+    }
+    return trade.resolve(refData);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the cache of resolved trades.
+   *
+   * @return the cache
+   */
+  public ResolvedTradeCache getCache() {
+    return cache;
+  }
+
+  @Override
+  public String toString() {
+    return "ResolvedTradeCacheParameter[" + cache + "]";
+  }
+
+}
@@ -33,6 +33,7 @@ import com.opengamma.strata.market.curve.CurveInputs;
 import com.opengamma.strata.market.curve.CurveInputsId;
 import com.opengamma.strata.market.curve.NodalCurveDefinition;
 import com.opengamma.strata.pricer.curve.CalibrationMeasures;
+import com.opengamma.strata.pricer.curve.CurveCalibrationCache;
 import com.opengamma.strata.pricer.curve.CurveCalibrator;
 import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
 
@@ -47,6 +48,10 @@ public class CurveGroupMarketDataFunction implements MarketDataFunction<CurveGro
    * The default analytics object that performs the curve calibration.
    */
   private final CalibrationMeasures calibrationMeasures;
+  /**
+   * The cache of previous calibrations, null if not caching.
+   */
+  private final CurveCalibrationCache calibrationCache;
 
   //-------------------------------------------------------------------------
   /**
@@ -70,6 +75,25 @@ public class CurveGroupMarketDataFunction implements MarketDataFunction<CurveGro
    */
   public CurveGroupMarketDataFunction(CalibrationMeasures calibrationMeasures) {
     this.calibrationMeasures = ArgChecker.notNull(calibrationMeasures, "calibrationMeasures");
+    this.calibrationCache = null;
+  }
+
+  /**
+   * Creates a new function for building curve groups that reuses previous calibrations.
+   * <p>
+   * The default calibrator is specified. The {@link MarketDataConfig} may contain a
+   * {@link RootFinderConfig} that alters the tolerances used in calibration.
+   * <p>
+   * The result of each calibration is stored in the cache. When a curve group is built again
+   * for the same valuation date, the calibration starts from the previous result, and any
+   * groups whose quotes are unchanged are not recalibrated.
+   *
+   * @param calibrationMeasures  the calibration measures to be used in the calibrator
+   * @param calibrationCache  the cache of previous calibrations
+   */
+  public CurveGroupMarketDataFunction(CalibrationMeasures calibrationMeasures, CurveCalibrationCache calibrationCache) {
+    this.calibrationMeasures = ArgChecker.notNull(calibrationMeasures, "calibrationMeasures");
+    this.calibrationCache = ArgChecker.notNull(calibrationCache, "calibrationCache");
   }
 
   //-------------------------------------------------------------------------
@@ -97,8 +121,10 @@ public class CurveGroupMarketDataFunction implements MarketDataFunction<CurveGro
 
     // create the calibrator, using the configured RootFinderConfig if found
     RootFinderConfig rfc = marketDataConfig.find(RootFinderConfig.class).orElse(RootFinderConfig.standard());
-    CurveCalibrator calibrator = CurveCalibrator.of(
+    CurveCalibrator configuredCalibrator = CurveCalibrator.of(
         rfc.getAbsoluteTolerance(), rfc.getRelativeTolerance(), rfc.getMaximumSteps(), calibrationMeasures);
+    CurveCalibrator calibrator =
+        calibrationCache != null ? configuredCalibrator.withCache(calibrationCache) : configuredCalibrator;
 
     // calibrate
     CurveGroupName groupName = id.getCurveGroupName();
@@ -5,6 +5,7 @@
  */
 package com.opengamma.strata.measure.deposit;
 
+import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
 import com.opengamma.strata.collect.ArgChecker;
@@ -14,6 +15,7 @@ import com.opengamma.strata.data.scenario.MultiCurrencyScenarioArray;
 import com.opengamma.strata.data.scenario.ScenarioArray;
 import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
 import com.opengamma.strata.market.sensitivity.PointSensitivities;
+import com.opengamma.strata.measure.rate.RatesScenarioCashFlows;
 import com.opengamma.strata.measure.rate.RatesScenarioMarketData;
 import com.opengamma.strata.pricer.deposit.DiscountingTermDepositTradePricer;
 import com.opengamma.strata.pricer.rate.RatesProvider;
@@ -62,6 +64,12 @@ final class TermDepositMeasureCalculations {
       ResolvedTermDepositTrade trade,
       RatesScenarioMarketData marketData) {
 
+    // value all scenarios in a single pass when using the standard pricer
+    if (marketData.getScenarioCount() > 1 && tradePricer == DiscountingTermDepositTradePricer.DEFAULT) {
+      Currency currency = trade.getProduct().getCurrency();
+      MultiCurrencyScenarioArray pv = RatesScenarioCashFlows.of(trade.getProduct()).presentValue(marketData);
+      return CurrencyScenarioArray.of(currency, pv.getValues(currency));
+    }
     return CurrencyScenarioArray.of(
         marketData.getScenarioCount(),
         i -> presentValue(trade, marketData.scenario(i).ratesProvider()));
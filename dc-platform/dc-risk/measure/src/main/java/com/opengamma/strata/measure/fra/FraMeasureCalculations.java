@@ -7,6 +7,7 @@ package com.opengamma.strata.measure.fra;
 
 import static com.opengamma.strata.collect.Guavate.toImmutableSet;
 
+import java.util.Optional;
 import java.util.Set;
 
 import com.google.common.collect.ImmutableSet;
@@ -32,6 +33,7 @@ import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
 import com.opengamma.strata.market.param.CurrencyParameterSensitivity;
 import com.opengamma.strata.market.sensitivity.PointSensitivities;
 import com.opengamma.strata.measure.rate.RatesMarketData;
+import com.opengamma.strata.measure.rate.RatesScenarioCashFlows;
 import com.opengamma.strata.measure.rate.RatesScenarioMarketData;
 import com.opengamma.strata.pricer.fra.DiscountingFraTradePricer;
 import com.opengamma.strata.pricer.rate.RatesProvider;
@@ -81,6 +83,15 @@ final class FraMeasureCalculations {
       ResolvedFraTrade trade,
       RatesScenarioMarketData marketData) {
 
+    // value all scenarios in a single pass when using the standard pricer
+    if (marketData.getScenarioCount() > 1 && tradePricer == DiscountingFraTradePricer.DEFAULT) {
+      Optional<RatesScenarioCashFlows> cashFlows = RatesScenarioCashFlows.of(trade.getProduct());
+      if (cashFlows.isPresent()) {
+        Currency currency = trade.getProduct().getCurrency();
+        MultiCurrencyScenarioArray pv = cashFlows.get().presentValue(marketData);
+        return CurrencyScenarioArray.of(currency, pv.getValues(currency));
+      }
+    }
     return CurrencyScenarioArray.of(
         marketData.getScenarioCount(),
         i -> presentValue(trade, marketData.scenario(i).ratesProvider()));
@@ -12,6 +12,7 @@ import com.opengamma.strata.data.scenario.MultiCurrencyScenarioArray;
 import com.opengamma.strata.data.scenario.ScenarioArray;
 import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
 import com.opengamma.strata.market.sensitivity.PointSensitivities;
+import com.opengamma.strata.measure.rate.RatesScenarioCashFlows;
 import com.opengamma.strata.measure.rate.RatesScenarioMarketData;
 import com.opengamma.strata.pricer.fx.DiscountingFxSwapTradePricer;
 import com.opengamma.strata.pricer.rate.RatesProvider;
@@ -60,6 +61,10 @@ final class FxSwapMeasureCalculations {
       ResolvedFxSwapTrade trade,
       RatesScenarioMarketData marketData) {
 
+    // value all scenarios in a single pass when using the standard pricer
+    if (marketData.getScenarioCount() > 1 && tradePricer == DiscountingFxSwapTradePricer.DEFAULT) {
+      return RatesScenarioCashFlows.of(trade.getProduct()).presentValue(marketData);
+    }
     return MultiCurrencyScenarioArray.of(
         marketData.getScenarioCount(),
         i -> presentValue(trade, marketData.scenario(i).ratesProvider()));
@@ -0,0 +1,608 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.measure.rate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.Payment;
+import com.opengamma.strata.basics.index.IborIndex;
+import com.opengamma.strata.basics.index.IborIndexObservation;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.tuple.Pair;
+import com.opengamma.strata.data.scenario.MarketDataBox;
+import com.opengamma.strata.data.scenario.MultiCurrencyScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+import com.opengamma.strata.market.curve.Curve;
+import com.opengamma.strata.market.curve.CurveId;
+import com.opengamma.strata.market.observable.IndexQuoteId;
+import com.opengamma.strata.pricer.DiscountFactors;
+import com.opengamma.strata.pricer.rate.IborIndexRates;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+import com.opengamma.strata.product.deposit.ResolvedTermDeposit;
+import com.opengamma.strata.product.fra.FraDiscountingMethod;
+import com.opengamma.strata.product.fra.ResolvedFra;
+import com.opengamma.strata.product.fx.ResolvedFxSingle;
+import com.opengamma.strata.product.fx.ResolvedFxSwap;
+import com.opengamma.strata.product.rate.FixedRateComputation;
+import com.opengamma.strata.product.rate.IborRateComputation;
+import com.opengamma.strata.product.rate.RateComputation;
+import com.opengamma.strata.product.swap.KnownAmountSwapPaymentPeriod;
+import com.opengamma.strata.product.swap.NegativeRateMethod;
+import com.opengamma.strata.product.swap.NotionalExchange;
+import com.opengamma.strata.product.swap.RateAccrualPeriod;
+import com.opengamma.strata.product.swap.RatePaymentPeriod;
+import com.opengamma.strata.product.swap.ResolvedSwap;
+import com.opengamma.strata.product.swap.ResolvedSwapLeg;
+import com.opengamma.strata.product.swap.SwapPaymentEvent;
+import com.opengamma.strata.product.swap.SwapPaymentPeriod;
+
+/**
+ * The cash flows of a rates product, valued across all scenarios in a single pass.
+ * <p>
+ * The standard approach to multi-scenario pricing invokes the pricer once for each scenario,
+ * creating a rates provider view and walking the structure of the product each time.
+ * This class flattens the product into a table of cash flows once, then values all the scenarios
+ * using primitive arrays of discount factors and forward rates.
+ * <p>
+ * Each distinct payment date is discounted once per scenario, no matter how many cash flows
+ * are paid on that date. Discount factors and forward rates are only recalculated when the
+ * underlying curve differs from the previous scenario, thus curves that are not perturbed
+ * by the scenarios are only evaluated once.
+ * <p>
+ * The present value matches that of the discounting pricers, with the cash flows summed in the
+ * same order. Only the simpler cash flows are supported, being fixed amounts, fixed rate periods
+ * and single accrual Ibor periods, without FX reset. Products containing other cash flows
+ * must be priced using the standard approach.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class RatesScenarioCashFlows {
+
+  /**
+   * The currencies, in the order they were first seen.
+   */
+  private final ImmutableList<Currency> currencies;
+  /**
+   * The currency index of each leg.
+   */
+  private final int[] legCurrencies;
+  /**
+   * The currency index of each distinct payment, keyed by currency and date.
+   */
+  private final int[] paymentCurrencies;
+  /**
+   * The date of each distinct payment, keyed by currency and date.
+   */
+  private final LocalDate[] paymentDates;
+  /**
+   * The distinct Ibor observations.
+   */
+  private final ImmutableList<IborIndexObservation> observations;
+  /**
+   * The distinct Ibor indices.
+   */
+  private final ImmutableList<IborIndex> indices;
+  /**
+   * The index of the Ibor index of each observation.
+   */
+  private final int[] observationIndices;
+  /**
+   * The latest payment date that depends on each observation.
+   */
+  private final LocalDate[] observationPaymentDates;
+  /**
+   * The cash flows, in the order they are summed.
+   */
+  private final CashFlow[] cashFlows;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance from a swap.
+   * <p>
+   * An empty result is returned if the swap contains any periods or events that are not supported.
+   *
+   * @param swap  the swap
+   * @return the cash flows, empty if not supported
+   */
+  public static Optional<RatesScenarioCashFlows> of(ResolvedSwap swap) {
+    Builder builder = new Builder();
+    for (ResolvedSwapLeg leg : swap.getLegs()) {
+      int legIndex = builder.addLeg(leg.getCurrency());
+      for (SwapPaymentPeriod period : leg.getPaymentPeriods()) {
+        if (!builder.addPeriod(legIndex, period)) {
+          return Optional.empty();
+        }
+      }
+      for (SwapPaymentEvent event : leg.getPaymentEvents()) {
+        if (!(event instanceof NotionalExchange)) {
+          return Optional.empty();
+        }
+        builder.addPayment(legIndex, true, ((NotionalExchange) event).getPayment());
+      }
+    }
+    return Optional.of(builder.build());
+  }
+
+  /**
+   * Obtains an instance from a FRA.
+   * <p>
+   * An empty result is returned if the floating rate is not a single Ibor fixing.
+   *
+   * @param fra  the FRA
+   * @return the cash flows, empty if not supported
+   */
+  public static Optional<RatesScenarioCashFlows> of(ResolvedFra fra) {
+    if (!(fra.getFloatingRate() instanceof IborRateComputation)) {
+      return Optional.empty();
+    }
+    IborRateComputation computation = (IborRateComputation) fra.getFloatingRate();
+    Builder builder = new Builder();
+    int legIndex = builder.addLeg(fra.getCurrency());
+    builder.addFra(legIndex, fra, computation.getObservation());
+    return Optional.of(builder.build());
+  }
+
+  /**
+   * Obtains an instance from a term deposit.
+   *
+   * @param deposit  the term deposit
+   * @return the cash flows
+   */
+  public static RatesScenarioCashFlows of(ResolvedTermDeposit deposit) {
+    // the end payment is added first, as the pricer subtracts the start from the end
+    Builder builder = new Builder();
+    int legIndex = builder.addLeg(deposit.getCurrency());
+    builder.addFixed(legIndex, false, deposit.getEndDate(), deposit.getNotional() + deposit.getInterest());
+    builder.addFixed(legIndex, true, deposit.getStartDate(), -deposit.getNotional());
+    return builder.build();
+  }
+
+  /**
+   * Obtains an instance from an FX forward.
+   *
+   * @param fx  the FX forward
+   * @return the cash flows
+   */
+  public static RatesScenarioCashFlows of(ResolvedFxSingle fx) {
+    Builder builder = new Builder();
+    builder.addFx(fx);
+    return builder.build();
+  }
+
+  /**
+   * Obtains an instance from an FX swap.
+   *
+   * @param swap  the FX swap
+   * @return the cash flows
+   */
+  public static RatesScenarioCashFlows of(ResolvedFxSwap swap) {
+    Builder builder = new Builder();
+    builder.addFx(swap.getNearLeg());
+    builder.addFx(swap.getFarLeg());
+    return builder.build();
+  }
+
+  //-------------------------------------------------------------------------
+  // restricted constructor
+  private RatesScenarioCashFlows(Builder builder) {
+    this.currencies = ImmutableList.copyOf(builder.currencies);
+    this.legCurrencies = builder.legCurrencies.stream().mapToInt(i -> i).toArray();
+    int paymentCount = builder.payments.size();
+    this.paymentCurrencies = new int[paymentCount];
+    this.paymentDates = new LocalDate[paymentCount];
+    for (Map.Entry<Pair<Currency, LocalDate>, Integer> entry : builder.payments.entrySet()) {
+      paymentCurrencies[entry.getValue()] = currencies.indexOf(entry.getKey().getFirst());
+      paymentDates[entry.getValue()] = entry.getKey().getSecond();
+    }
+    this.observations = ImmutableList.copyOf(builder.observations.keySet());
+    List<IborIndex> indexList = new ArrayList<>();
+    this.observationIndices = new int[observations.size()];
+    for (int i = 0; i < observations.size(); i++) {
+      IborIndex index = observations.get(i).getIndex();
+      if (!indexList.contains(index)) {
+        indexList.add(index);
+      }
+      observationIndices[i] = indexList.indexOf(index);
+    }
+    this.indices = ImmutableList.copyOf(indexList);
+    this.observationPaymentDates = builder.observationPaymentDates.toArray(new LocalDate[observations.size()]);
+    this.cashFlows = builder.cashFlows.toArray(new CashFlow[builder.cashFlows.size()]);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the currencies of the cash flows.
+   *
+   * @return the currencies
+   */
+  public ImmutableList<Currency> getCurrencies() {
+    return currencies;
+  }
+
+  /**
+   * Calculates the present value of the cash flows for all scenarios.
+   * <p>
+   * The result contains a value for each currency of the product, including those where
+   * all the cash flows have already been paid.
+   *
+   * @param marketData  the market data for all scenarios
+   * @return the present value, one for each scenario
+   */
+  public MultiCurrencyScenarioArray presentValue(RatesScenarioMarketData marketData) {
+    int scenarioCount = marketData.getScenarioCount();
+    MarketDataBox<LocalDate> valuationDates = marketData.getMarketData().getValuationDate();
+    ScenarioRates rates = new ScenarioRates(marketData);
+
+    // the discount factors, forward rates and results are held in primitive arrays
+    // discount factors and forward rates are only recalculated when the curves change
+    double[][] values = new double[currencies.size()][scenarioCount];
+    double[] discountFactors = new double[paymentDates.length];
+    double[] forwardRates = new double[observations.size()];
+    double[] legTotals = new double[legCurrencies.length * 2];
+    DiscountFactors[] previousDiscountFactors = new DiscountFactors[currencies.size()];
+    IborIndexRates[] previousIborRates = new IborIndexRates[indices.size()];
+    LocalDate previousValuationDate = null;
+
+    for (int scenarioIndex = 0; scenarioIndex < scenarioCount; scenarioIndex++) {
+      LocalDate valuationDate = valuationDates.getValue(scenarioIndex);
+      boolean changed = !valuationDate.equals(previousValuationDate);
+      previousValuationDate = valuationDate;
+
+      // discount factors, once per distinct currency and date
+      DiscountFactors[] currentDiscountFactors = new DiscountFactors[currencies.size()];
+      for (int ccyIndex = 0; ccyIndex < currencies.size(); ccyIndex++) {
+        DiscountFactors dfs = rates.discountFactors(currencies.get(ccyIndex), scenarioIndex);
+        currentDiscountFactors[ccyIndex] = dfs;
+        if (dfs != previousDiscountFactors[ccyIndex]) {
+          changed = true;
+        }
+      }
+      // forward rates, once per distinct observation
+      IborIndexRates[] currentIborRates = new IborIndexRates[indices.size()];
+      for (int idxIndex = 0; idxIndex < indices.size(); idxIndex++) {
+        IborIndexRates iborRates = rates.iborIndexRates(indices.get(idxIndex), scenarioIndex);
+        currentIborRates[idxIndex] = iborRates;
+        if (iborRates != previousIborRates[idxIndex]) {
+          changed = true;
+        }
+      }
+      if (!changed) {
+        // nothing has changed, so the result is the same as the previous scenario
+        for (int ccyIndex = 0; ccyIndex < currencies.size(); ccyIndex++) {
+          values[ccyIndex][scenarioIndex] = values[ccyIndex][scenarioIndex - 1];
+        }
+        continue;
+      }
+      for (int i = 0; i < paymentDates.length; i++) {
+        discountFactors[i] = paymentDates[i].isBefore(valuationDate) ?
+            0d :
+            currentDiscountFactors[paymentCurrencies[i]].discountFactor(paymentDates[i]);
+      }
+      for (int i = 0; i < forwardRates.length; i++) {
+        // the rate is not needed, and the fixing may be unavailable, if all dependent payments are in the past
+        forwardRates[i] = observationPaymentDates[i].isBefore(valuationDate) ?
+            0d :
+            currentIborRates[observationIndices[i]].rate(observations.get(i));
+      }
+      previousDiscountFactors = currentDiscountFactors;
+      previousIborRates = currentIborRates;
+
+      // sum the cash flows, by leg, then periods and events, matching the pricers
+      Arrays.fill(legTotals, 0d);
+      for (CashFlow cashFlow : cashFlows) {
+        if (!paymentDates[cashFlow.payment].isBefore(valuationDate)) {
+          legTotals[cashFlow.section] += cashFlow.presentValue(discountFactors, forwardRates);
+        }
+      }
+      for (int legIndex = 0; legIndex < legCurrencies.length; legIndex++) {
+        double legTotal = legTotals[legIndex * 2] + legTotals[legIndex * 2 + 1];
+        values[legCurrencies[legIndex]][scenarioIndex] += legTotal;
+      }
+    }
+
+    Map<Currency, DoubleArray> result = new LinkedHashMap<>();
+    for (int ccyIndex = 0; ccyIndex < currencies.size(); ccyIndex++) {
+      result.put(currencies.get(ccyIndex), DoubleArray.ofUnsafe(values[ccyIndex]));
+    }
+    return MultiCurrencyScenarioArray.of(result);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Provides the curves for each scenario.
+   * <p>
+   * When using the standard lookup, the curves are obtained directly from the market data.
+   * If the curve is the same in all scenarios, the same instance is returned for each scenario.
+   */
+  private static final class ScenarioRates {
+    private final RatesScenarioMarketData marketData;
+    private final Map<Currency, DiscountFactors[]> discountFactors = new HashMap<>();
+    private final Map<IborIndex, IborIndexRates[]> iborIndexRates = new HashMap<>();
+    private final RatesProvider[] ratesProviders;
+
+    private ScenarioRates(RatesScenarioMarketData marketData) {
+      this.marketData = marketData;
+      this.ratesProviders = new RatesProvider[marketData.getScenarioCount()];
+    }
+
+    // obtains the discount factors for the scenario
+    private DiscountFactors discountFactors(Currency currency, int scenarioIndex) {
+      if (!(marketData.getLookup() instanceof DefaultRatesMarketDataLookup)) {
+        return ratesProvider(scenarioIndex).discountFactors(currency);
+      }
+      DiscountFactors[] array = discountFactors.computeIfAbsent(currency, ccy -> {
+        DefaultRatesMarketDataLookup lookup = (DefaultRatesMarketDataLookup) marketData.getLookup();
+        CurveId curveId = lookup.getDiscountCurves().get(ccy);
+        if (curveId == null) {
+          throw new IllegalArgumentException(lookup.msgCurrencyNotFound(ccy));
+        }
+        ScenarioMarketData md = marketData.getMarketData();
+        MarketDataBox<Curve> curves = md.getValue(curveId);
+        MarketDataBox<LocalDate> valuationDates = md.getValuationDate();
+        DiscountFactors[] created = new DiscountFactors[marketData.getScenarioCount()];
+        if (curves.isSingleValue() && valuationDates.isSingleValue()) {
+          Arrays.fill(
+              created, DiscountFactors.of(ccy, valuationDates.getSingleValue(), curves.getSingleValue()));
+        } else {
+          for (int i = 0; i < created.length; i++) {
+            created[i] = DiscountFactors.of(ccy, valuationDates.getValue(i), curves.getValue(i));
+          }
+        }
+        return created;
+      });
+      return array[scenarioIndex];
+    }
+
+    // obtains the Ibor index rates for the scenario
+    private IborIndexRates iborIndexRates(IborIndex index, int scenarioIndex) {
+      if (!(marketData.getLookup() instanceof DefaultRatesMarketDataLookup)) {
+        return ratesProvider(scenarioIndex).iborIndexRates(index);
+      }
+      IborIndexRates[] array = iborIndexRates.computeIfAbsent(index, idx -> {
+        DefaultRatesMarketDataLookup lookup = (DefaultRatesMarketDataLookup) marketData.getLookup();
+        CurveId curveId = lookup.getForwardCurves().get(idx);
+        if (curveId == null) {
+          throw new IllegalArgumentException(lookup.msgIndexNotFound(idx));
+        }
+        ScenarioMarketData md = marketData.getMarketData();
+        MarketDataBox<Curve> curves = md.getValue(curveId);
+        MarketDataBox<LocalDate> valuationDates = md.getValuationDate();
+        IborIndexRates[] created = new IborIndexRates[marketData.getScenarioCount()];
+        if (curves.isSingleValue() && valuationDates.isSingleValue()) {
+          Arrays.fill(created, IborIndexRates.of(
+              idx, valuationDates.getSingleValue(), curves.getSingleValue(), md.getTimeSeries(IndexQuoteId.of(idx))));
+        } else {
+          for (int i = 0; i < created.length; i++) {
+            created[i] = IborIndexRates.of(
+                idx, valuationDates.getValue(i), curves.getValue(i), md.getTimeSeries(IndexQuoteId.of(idx)));
+          }
+        }
+        return created;
+      });
+      return array[scenarioIndex];
+    }
+
+    // obtains the rates provider for the scenario, only used for non-standard lookups
+    private RatesProvider ratesProvider(int scenarioIndex) {
+      if (ratesProviders[scenarioIndex] == null) {
+        ratesProviders[scenarioIndex] = marketData.scenario(scenarioIndex).ratesProvider();
+      }
+      return ratesProviders[scenarioIndex];
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * A single cash flow.
+   * <p>
+   * The present value is calculated using exactly the same arithmetic as the pricers.
+   */
+  private abstract static class CashFlow {
+    // the index into the leg totals, two per leg, periods then events
+    final int section;
+    // the index into the discount factors
+    final int payment;
+
+    CashFlow(int section, int payment) {
+      this.section = section;
+      this.payment = payment;
+    }
+
+    // calculates the present value, the discount factor is known to be for a future payment
+    abstract double presentValue(double[] discountFactors, double[] forwardRates);
+  }
+
+  // a cash flow with a known amount
+  private static final class FixedCashFlow extends CashFlow {
+    private final double amount;
+
+    FixedCashFlow(int section, int payment, double amount) {
+      super(section, payment);
+      this.amount = amount;
+    }
+
+    @Override
+    double presentValue(double[] discountFactors, double[] forwardRates) {
+      return amount * discountFactors[payment];
+    }
+  }
+
+  // a single accrual period based on an Ibor index, see DiscountingRatePaymentPeriodPricer
+  private static final class IborCashFlow extends CashFlow {
+    private final int observation;
+    private final double notional;
+    private final double gearing;
+    private final double spread;
+    private final double yearFraction;
+    private final NegativeRateMethod negativeRateMethod;
+
+    IborCashFlow(int section, int payment, int observation, double notional, RateAccrualPeriod accrualPeriod) {
+      super(section, payment);
+      this.observation = observation;
+      this.notional = notional;
+      this.gearing = accrualPeriod.getGearing();
+      this.spread = accrualPeriod.getSpread();
+      this.yearFraction = accrualPeriod.getYearFraction();
+      this.negativeRateMethod = accrualPeriod.getNegativeRateMethod();
+    }
+
+    @Override
+    double presentValue(double[] discountFactors, double[] forwardRates) {
+      double treatedRate = forwardRates[observation] * gearing + spread;
+      double forecastValue = negativeRateMethod.adjust(treatedRate * yearFraction) * notional;
+      return forecastValue * discountFactors[payment];
+    }
+  }
+
+  // a FRA, see DiscountingFraProductPricer
+  private static final class FraCashFlow extends CashFlow {
+    private final int observation;
+    private final double notional;
+    private final double fixedRate;
+    private final double yearFraction;
+    private final FraDiscountingMethod discounting;
+
+    FraCashFlow(int section, int payment, int observation, ResolvedFra fra) {
+      super(section, payment);
+      this.observation = observation;
+      this.notional = fra.getNotional();
+      this.fixedRate = fra.getFixedRate();
+      this.yearFraction = fra.getYearFraction();
+      this.discounting = fra.getDiscounting();
+    }
+
+    @Override
+    double presentValue(double[] discountFactors, double[] forwardRates) {
+      double forwardRate = forwardRates[observation];
+      double unitAmount;
+      switch (discounting) {
+        case NONE:
+          unitAmount = (forwardRate - fixedRate) * yearFraction;
+          break;
+        case ISDA:
+          unitAmount = ((forwardRate - fixedRate) / (1.0 + forwardRate * yearFraction)) * yearFraction;
+          break;
+        case AFMA:
+          unitAmount = (1.0 / (1.0 + fixedRate * yearFraction)) - (1.0 / (1.0 + forwardRate * yearFraction));
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown FraDiscountingMethod value: " + discounting);
+      }
+      return notional * unitAmount * discountFactors[payment];
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Mutable builder used to flatten a product into cash flows.
+   */
+  private static final class Builder {
+    private final List<Currency> currencies = new ArrayList<>();
+    private final List<Integer> legCurrencies = new ArrayList<>();
+    private final Map<Pair<Currency, LocalDate>, Integer> payments = new LinkedHashMap<>();
+    private final Map<IborIndexObservation, Integer> observations = new LinkedHashMap<>();
+    private final List<LocalDate> observationPaymentDates = new ArrayList<>();
+    private final List<CashFlow> cashFlows = new ArrayList<>();
+
+    // adds a leg, returning the leg index
+    private int addLeg(Currency currency) {
+      if (!currencies.contains(currency)) {
+        currencies.add(currency);
+      }
+      legCurrencies.add(currencies.indexOf(currency));
+      return legCurrencies.size() - 1;
+    }
+
+    // adds a swap payment period, returning false if not supported
+    private boolean addPeriod(int legIndex, SwapPaymentPeriod period) {
+      if (period instanceof KnownAmountSwapPaymentPeriod) {
+        addPayment(legIndex, false, ((KnownAmountSwapPaymentPeriod) period).getPayment());
+        return true;
+      }
+      if (!(period instanceof RatePaymentPeriod)) {
+        return false;
+      }
+      RatePaymentPeriod ratePeriod = (RatePaymentPeriod) period;
+      if (ratePeriod.getFxReset().isPresent() || ratePeriod.getAccrualPeriods().size() != 1) {
+        return false;
+      }
+      RateAccrualPeriod accrualPeriod = ratePeriod.getAccrualPeriods().get(0);
+      RateComputation computation = accrualPeriod.getRateComputation();
+      if (computation instanceof FixedRateComputation) {
+        double rate = ((FixedRateComputation) computation).getRate();
+        double treatedRate = rate * accrualPeriod.getGearing() + accrualPeriod.getSpread();
+        double unitAccrual =
+            accrualPeriod.getNegativeRateMethod().adjust(treatedRate * accrualPeriod.getYearFraction());
+        addFixed(legIndex, false, ratePeriod.getPaymentDate(), unitAccrual * ratePeriod.getNotional());
+        return true;
+      }
+      if (computation instanceof IborRateComputation) {
+        IborIndexObservation obs = ((IborRateComputation) computation).getObservation();
+        LocalDate paymentDate = ratePeriod.getPaymentDate();
+        int payment = payment(ratePeriod.getCurrency(), paymentDate);
+        int observation = observation(obs, paymentDate);
+        cashFlows.add(new IborCashFlow(legIndex * 2, payment, observation, ratePeriod.getNotional(), accrualPeriod));
+        return true;
+      }
+      return false;
+    }
+
+    // adds a FRA
+    private void addFra(int legIndex, ResolvedFra fra, IborIndexObservation obs) {
+      int payment = payment(fra.getCurrency(), fra.getPaymentDate());
+      cashFlows.add(new FraCashFlow(legIndex * 2, payment, observation(obs, fra.getPaymentDate()), fra));
+    }
+
+    // adds an FX forward, one leg for each currency
+    private void addFx(ResolvedFxSingle fx) {
+      Payment base = fx.getBaseCurrencyPayment();
+      Payment counter = fx.getCounterCurrencyPayment();
+      addPayment(addLeg(base.getCurrency()), false, base);
+      addPayment(addLeg(counter.getCurrency()), false, counter);
+    }
+
+    // adds a payment
+    private void addPayment(int legIndex, boolean event, Payment payment) {
+      addFixed(legIndex, event, payment.getDate(), payment.getAmount());
+    }
+
+    // adds a fixed amount in the currency of the leg
+    private void addFixed(int legIndex, boolean event, LocalDate date, double amount) {
+      Currency currency = currencies.get(legCurrencies.get(legIndex));
+      cashFlows.add(new FixedCashFlow(legIndex * 2 + (event ? 1 : 0), payment(currency, date), amount));
+    }
+
+    // finds the index of the payment date
+    private int payment(Currency currency, LocalDate date) {
+      return payments.computeIfAbsent(Pair.of(currency, date), k -> payments.size());
+    }
+
+    // finds the index of the observation, tracking the latest payment date that depends on it
+    private int observation(IborIndexObservation obs, LocalDate paymentDate) {
+      int index = observations.computeIfAbsent(obs, k -> observations.size());
+      if (index == observationPaymentDates.size()) {
+        observationPaymentDates.add(paymentDate);
+      } else if (paymentDate.isAfter(observationPaymentDates.get(index))) {
+        observationPaymentDates.set(index, paymentDate);
+      }
+      return index;
+    }
+
+    private RatesScenarioCashFlows build() {
+      return new RatesScenarioCashFlows(this);
+    }
+  }
+
+}
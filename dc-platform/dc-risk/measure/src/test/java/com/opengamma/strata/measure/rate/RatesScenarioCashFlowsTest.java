@@ -0,0 +1,214 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.measure.rate;
+
+import static com.opengamma.strata.basics.currency.Currency.GBP;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.basics.date.DayCounts.ACT_365F;
+import static com.opengamma.strata.basics.index.IborIndices.GBP_LIBOR_3M;
+import static com.opengamma.strata.basics.index.IborIndices.GBP_LIBOR_6M;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.testng.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.currency.FxRate;
+import com.opengamma.strata.basics.date.Tenor;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.scenario.ImmutableScenarioMarketData;
+import com.opengamma.strata.data.scenario.MultiCurrencyScenarioArray;
+import com.opengamma.strata.data.scenario.ScenarioMarketData;
+import com.opengamma.strata.market.curve.Curve;
+import com.opengamma.strata.market.curve.CurveId;
+import com.opengamma.strata.market.curve.Curves;
+import com.opengamma.strata.market.curve.InterpolatedNodalCurve;
+import com.opengamma.strata.market.curve.interpolator.CurveInterpolators;
+import com.opengamma.strata.market.observable.IndexQuoteId;
+import com.opengamma.strata.pricer.deposit.DiscountingTermDepositProductPricer;
+import com.opengamma.strata.pricer.fra.DiscountingFraProductPricer;
+import com.opengamma.strata.pricer.fx.DiscountingFxSingleProductPricer;
+import com.opengamma.strata.pricer.fx.DiscountingFxSwapProductPricer;
+import com.opengamma.strata.pricer.swap.DiscountingSwapProductPricer;
+import com.opengamma.strata.product.common.BuySell;
+import com.opengamma.strata.product.deposit.ResolvedTermDeposit;
+import com.opengamma.strata.product.deposit.type.TermDepositConventions;
+import com.opengamma.strata.product.fra.ResolvedFra;
+import com.opengamma.strata.product.fra.type.FraTemplate;
+import com.opengamma.strata.product.fx.FxSingle;
+import com.opengamma.strata.product.fx.FxSwap;
+import com.opengamma.strata.product.fx.ResolvedFxSingle;
+import com.opengamma.strata.product.fx.ResolvedFxSwap;
+import com.opengamma.strata.product.rate.IborRateComputation;
+import com.opengamma.strata.product.swap.RatePaymentPeriod;
+import com.opengamma.strata.product.swap.ResolvedSwap;
+import com.opengamma.strata.product.swap.ResolvedSwapLeg;
+import com.opengamma.strata.product.swap.type.FixedIborSwapConventions;
+import com.opengamma.strata.product.swap.type.FixedOvernightSwapConventions;
+
+/**
+ * Test {@link RatesScenarioCashFlows}.
+ */
+@Test
+public class RatesScenarioCashFlowsTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final LocalDate TRADE_DATE = date(2016, 6, 30);
+  private static final CurveId GBP_DSC_ID = CurveId.of("Test", "GBP-Discount");
+  private static final CurveId USD_DSC_ID = CurveId.of("Test", "USD-Discount");
+  private static final CurveId GBP_FWD_ID = CurveId.of("Test", "GBP-Forward");
+  private static final RatesMarketDataLookup LOOKUP = RatesMarketDataLookup.of(
+      ImmutableMap.of(GBP, GBP_DSC_ID, USD, USD_DSC_ID),
+      ImmutableMap.of(GBP_LIBOR_3M, GBP_FWD_ID, GBP_LIBOR_6M, GBP_FWD_ID));
+  private static final DoubleArray TIMES = DoubleArray.of(0.25, 1d, 2d, 5d, 10d, 20d);
+
+  private static final ResolvedSwap SWAP = FixedIborSwapConventions.GBP_FIXED_6M_LIBOR_6M
+      .createTrade(TRADE_DATE, Tenor.TENOR_10Y, BuySell.BUY, 1_000_000, 0.01, REF_DATA)
+      .getProduct()
+      .resolve(REF_DATA);
+  private static final ResolvedFra FRA = FraTemplate.of(Period.ofMonths(3), GBP_LIBOR_3M)
+      .createTrade(TRADE_DATE, BuySell.BUY, 1_000_000, 0.012, REF_DATA)
+      .getProduct()
+      .resolve(REF_DATA);
+  private static final ResolvedTermDeposit DEPOSIT = TermDepositConventions.GBP_SHORT_DEPOSIT_T0
+      .createTrade(TRADE_DATE, Period.ofMonths(6), BuySell.BUY, 1_000_000, 0.011, REF_DATA)
+      .getProduct()
+      .resolve(REF_DATA);
+  private static final FxSingle FX_NEAR =
+      FxSingle.of(CurrencyAmount.of(GBP, 1_000_000), FxRate.of(GBP, USD, 1.35), date(2016, 7, 4));
+  private static final FxSingle FX_FAR =
+      FxSingle.of(CurrencyAmount.of(GBP, -1_000_000), FxRate.of(GBP, USD, 1.36), date(2017, 7, 4));
+
+  //-------------------------------------------------------------------------
+  public void test_swap() {
+    RatesScenarioMarketData md = marketData(TRADE_DATE);
+    RatesScenarioCashFlows test = RatesScenarioCashFlows.of(SWAP).get();
+    assertThat(test.getCurrencies()).containsExactly(GBP);
+    MultiCurrencyScenarioArray expected = MultiCurrencyScenarioArray.of(
+        md.getScenarioCount(),
+        i -> DiscountingSwapProductPricer.DEFAULT.presentValue(SWAP, md.scenario(i).ratesProvider()));
+    assertEquals(test.presentValue(md), expected);
+  }
+
+  public void test_swap_seasoned() {
+    // the first period has been paid, the second has fixed
+    ResolvedSwapLeg floatLeg = SWAP.getLegs().get(1);
+    LocalDate valDate = floatLeg.getPaymentPeriods().get(0).getPaymentDate().plusDays(10);
+    RatePaymentPeriod secondPeriod = (RatePaymentPeriod) floatLeg.getPaymentPeriods().get(1);
+    IborRateComputation secondRate =
+        (IborRateComputation) secondPeriod.getAccrualPeriods().get(0).getRateComputation();
+    LocalDate fixingDate = secondRate.getObservation().getFixingDate();
+    LocalDateDoubleTimeSeries fixings = LocalDateDoubleTimeSeries.builder()
+        .put(fixingDate, 0.0055)
+        .build();
+    RatesScenarioMarketData md = marketData(valDate, fixings);
+    RatesScenarioCashFlows test = RatesScenarioCashFlows.of(SWAP).get();
+    MultiCurrencyScenarioArray expected = MultiCurrencyScenarioArray.of(
+        md.getScenarioCount(),
+        i -> DiscountingSwapProductPricer.DEFAULT.presentValue(SWAP, md.scenario(i).ratesProvider()));
+    assertEquals(test.presentValue(md), expected);
+  }
+
+  public void test_swap_notSupported() {
+    ResolvedSwap swap = FixedOvernightSwapConventions.GBP_FIXED_1Y_SONIA_OIS
+        .createTrade(TRADE_DATE, Tenor.TENOR_2Y, BuySell.BUY, 1_000_000, 0.01, REF_DATA)
+        .getProduct()
+        .resolve(REF_DATA);
+    assertThat(RatesScenarioCashFlows.of(swap)).isEmpty();
+  }
+
+  public void test_fra() {
+    RatesScenarioMarketData md = marketData(TRADE_DATE);
+    RatesScenarioCashFlows test = RatesScenarioCashFlows.of(FRA).get();
+    DoubleArray expected = DoubleArray.of(
+        md.getScenarioCount(),
+        i -> DiscountingFraProductPricer.DEFAULT.presentValue(FRA, md.scenario(i).ratesProvider()).getAmount());
+    assertEquals(test.presentValue(md).getValues(GBP), expected);
+  }
+
+  public void test_termDeposit() {
+    RatesScenarioMarketData md = marketData(TRADE_DATE);
+    RatesScenarioCashFlows test = RatesScenarioCashFlows.of(DEPOSIT);
+    DoubleArray expected = DoubleArray.of(
+        md.getScenarioCount(),
+        i -> DiscountingTermDepositProductPricer.DEFAULT.presentValue(DEPOSIT, md.scenario(i).ratesProvider())
+            .getAmount());
+    assertEquals(test.presentValue(md).getValues(GBP), expected);
+  }
+
+  public void test_fxSingle() {
+    RatesScenarioMarketData md = marketData(TRADE_DATE);
+    ResolvedFxSingle fx = FX_FAR.resolve(REF_DATA);
+    RatesScenarioCashFlows test = RatesScenarioCashFlows.of(fx);
+    assertThat(test.getCurrencies()).containsExactly(GBP, USD);
+    MultiCurrencyScenarioArray expected = MultiCurrencyScenarioArray.of(
+        md.getScenarioCount(),
+        i -> DiscountingFxSingleProductPricer.DEFAULT.presentValue(fx, md.scenario(i).ratesProvider()));
+    assertEquals(test.presentValue(md), expected);
+  }
+
+  public void test_fxSwap() {
+    RatesScenarioMarketData md = marketData(TRADE_DATE);
+    ResolvedFxSwap fx = FxSwap.of(FX_NEAR, FX_FAR).resolve(REF_DATA);
+    RatesScenarioCashFlows test = RatesScenarioCashFlows.of(fx);
+    MultiCurrencyScenarioArray expected = MultiCurrencyScenarioArray.of(
+        md.getScenarioCount(),
+        i -> DiscountingFxSwapProductPricer.DEFAULT.presentValue(fx, md.scenario(i).ratesProvider()));
+    assertEquals(test.presentValue(md), expected);
+  }
+
+  public void test_missingCurve() {
+    RatesMarketDataLookup lookup = RatesMarketDataLookup.of(
+        ImmutableMap.of(USD, USD_DSC_ID),
+        ImmutableMap.of(GBP_LIBOR_6M, GBP_FWD_ID));
+    RatesScenarioMarketData md = lookup.marketDataView(marketData(TRADE_DATE).getMarketData());
+    RatesScenarioCashFlows test = RatesScenarioCashFlows.of(SWAP).get();
+    assertThatIllegalArgumentException().isThrownBy(() -> test.presentValue(md));
+  }
+
+  //-------------------------------------------------------------------------
+  private static RatesScenarioMarketData marketData(LocalDate valDate) {
+    return marketData(valDate, LocalDateDoubleTimeSeries.empty());
+  }
+
+  // the GBP discount curve is shocked, the last two scenarios share the same curve
+  // the forward and USD curves are the same in all scenarios
+  private static RatesScenarioMarketData marketData(LocalDate valDate, LocalDateDoubleTimeSeries fixings) {
+    Curve shockedCurve = curve("GBP-Discount", -0.002);
+    List<Curve> gbpCurves = ImmutableList.of(
+        curve("GBP-Discount", 0d),
+        curve("GBP-Discount", 0.001),
+        shockedCurve,
+        shockedCurve);
+    ScenarioMarketData md = ImmutableScenarioMarketData.builder(valDate)
+        .addScenarioValue(GBP_DSC_ID, gbpCurves)
+        .addValue(USD_DSC_ID, curve("USD-Discount", 0.004))
+        .addValue(GBP_FWD_ID, curve("GBP-Forward", 0.002))
+        .addTimeSeries(IndexQuoteId.of(GBP_LIBOR_3M), fixings)
+        .addTimeSeries(IndexQuoteId.of(GBP_LIBOR_6M), fixings)
+        .build();
+    return LOOKUP.marketDataView(md);
+  }
+
+  private static Curve curve(String name, double shift) {
+    return InterpolatedNodalCurve.of(
+        Curves.zeroRates(name, ACT_365F),
+        TIMES,
+        DoubleArray.of(0.005, 0.006, 0.008, 0.011, 0.014, 0.016).plus(shift),
+        CurveInterpolators.LINEAR);
+  }
+
+}
@@ -6,12 +6,14 @@
 package com.opengamma.strata.pricer;
 
 import java.time.LocalDate;
+import java.util.Map;
 import java.util.Optional;
 
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.date.DayCount;
 import com.opengamma.strata.collect.Messages;
 import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.data.MarketDataName;
 import com.opengamma.strata.market.MarketDataView;
 import com.opengamma.strata.market.ValueType;
 import com.opengamma.strata.market.curve.Curve;
@@ -404,6 +406,29 @@ public interface DiscountFactors
    */
   public abstract CurrencyParameterSensitivities parameterSensitivity(ZeroRateSensitivity pointSensitivity);
 
+  /**
+   * Calculates the parameter sensitivity from the point sensitivity, adding it to an array.
+   * <p>
+   * This is equivalent to {@link #parameterSensitivity(ZeroRateSensitivity)}, with the sensitivity to each
+   * curve added to the array starting at the offset of the curve. Sensitivities to curves that have
+   * no offset are ignored. The currency of the sensitivity is ignored.
+   * <p>
+   * This is used when the sensitivities of many points are to be accumulated, such as in curve calibration.
+   * Implementations backed by a curve can project the point directly onto the curve parameters.
+   * 
+   * @param pointSensitivity  the point sensitivity to convert
+   * @param curveOffsets  the offset in the array of each curve
+   * @param array  the array to add the parameter sensitivity to
+   * @throws RuntimeException if the result cannot be calculated
+   */
+  public default void parameterSensitivity(
+      ZeroRateSensitivity pointSensitivity,
+      Map<MarketDataName<?>, Integer> curveOffsets,
+      double[] array) {
+
+    parameterSensitivity(pointSensitivity).addTo(curveOffsets, array);
+  }
+
   /**
    * Creates the parameter sensitivity when the sensitivity values are known.
    * <p>
@@ -236,6 +236,22 @@ public final class SimpleDiscountFactors
     return CurrencyParameterSensitivities.of(curSens);
   }
 
+  @Override
+  public void parameterSensitivity(
+      ZeroRateSensitivity pointSens,
+      Map<MarketDataName<?>, Integer> curveOffsets,
+      double[] array) {
+
+    double yearFraction = pointSens.getYearFraction();
+    Integer offset = curveOffsets.get(curve.getName());
+    if (offset == null || Math.abs(yearFraction) < EFFECTIVE_ZERO) {
+      return;
+    }
+    double discountFactor = discountFactor(yearFraction);
+    double factor = -pointSens.getSensitivity() / (yearFraction * discountFactor);
+    curve.yValueParameterSensitivity(yearFraction, factor, array, offset);
+  }
+
   @Override
   public CurrencyParameterSensitivities createParameterSensitivity(Currency currency, DoubleArray sensitivities) {
     return CurrencyParameterSensitivities.of(curve.createParameterSensitivity(currency, sensitivities));
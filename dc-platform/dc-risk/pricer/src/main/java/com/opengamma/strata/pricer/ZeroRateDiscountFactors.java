@@ -228,6 +228,18 @@ public final class ZeroRateDiscountFactors
     return CurrencyParameterSensitivities.of(curSens);
   }
 
+  @Override
+  public void parameterSensitivity(
+      ZeroRateSensitivity pointSens,
+      Map<MarketDataName<?>, Integer> curveOffsets,
+      double[] array) {
+
+    Integer offset = curveOffsets.get(curve.getName());
+    if (offset != null) {
+      curve.yValueParameterSensitivity(pointSens.getYearFraction(), pointSens.getSensitivity(), array, offset);
+    }
+  }
+
   @Override
   public CurrencyParameterSensitivities createParameterSensitivity(Currency currency, DoubleArray sensitivities) {
     return CurrencyParameterSensitivities.of(curve.createParameterSensitivity(currency, sensitivities));
@@ -241,6 +241,21 @@ public final class ZeroRatePeriodicDiscountFactors
     return CurrencyParameterSensitivities.of(curSens);
   }
 
+  @Override
+  public void parameterSensitivity(
+      ZeroRateSensitivity pointSens,
+      Map<MarketDataName<?>, Integer> curveOffsets,
+      double[] array) {
+
+    Integer offset = curveOffsets.get(curve.getName());
+    if (offset != null) {
+      double yearFraction = pointSens.getYearFraction();
+      double rp = curve.yValue(yearFraction);
+      double rpBar = 1.0 / (1 + rp / frequency);
+      curve.yValueParameterSensitivity(yearFraction, rpBar * pointSens.getSensitivity(), array, offset);
+    }
+  }
+
   @Override
   public CurrencyParameterSensitivities createParameterSensitivity(Currency currency, DoubleArray sensitivities) {
     return CurrencyParameterSensitivities.of(curve.createParameterSensitivity(currency, sensitivities));
@@ -27,6 +27,7 @@ import org.joda.beans.impl.direct.DirectMetaPropertyMap;
 import com.google.common.collect.ComparisonChain;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.FxRateProvider;
+import com.opengamma.strata.market.sensitivity.MergeablePointSensitivity;
 import com.opengamma.strata.market.sensitivity.MutablePointSensitivities;
 import com.opengamma.strata.market.sensitivity.PointSensitivity;
 import com.opengamma.strata.market.sensitivity.PointSensitivityBuilder;
@@ -38,7 +39,7 @@ import com.opengamma.strata.market.sensitivity.PointSensitivityBuilder;
  */
 @BeanDefinition(builderScope = "private")
 public final class ZeroRateSensitivity
-    implements PointSensitivity, PointSensitivityBuilder, ImmutableBean, Serializable {
+    implements MergeablePointSensitivity, PointSensitivityBuilder, ImmutableBean, Serializable {
 
   /**
    * The currency of the curve for which the sensitivity is computed.
@@ -122,9 +123,19 @@ public final class ZeroRateSensitivity
     return getClass().getSimpleName().compareTo(other.getClass().getSimpleName());
   }
 
+  @Override
+  public Object curveKey() {
+    return curveCurrency;
+  }
+
+  @Override
+  public long pointKey() {
+    return Double.doubleToLongBits(yearFraction);
+  }
+
   @Override
   public ZeroRateSensitivity convertedTo(Currency resultCurrency, FxRateProvider rateProvider) {
-    return (ZeroRateSensitivity) PointSensitivity.super.convertedTo(resultCurrency, rateProvider);
+    return (ZeroRateSensitivity) MergeablePointSensitivity.super.convertedTo(resultCurrency, rateProvider);
   }
 
   //-------------------------------------------------------------------------
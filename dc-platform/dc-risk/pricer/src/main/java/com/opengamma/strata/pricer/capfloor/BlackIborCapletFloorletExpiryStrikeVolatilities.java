@@ -208,6 +208,22 @@ public final class BlackIborCapletFloorletExpiryStrikeVolatilities
     return BlackFormulaRepository.price(forward, strike, expiry, volatility, putCall.isCall());
   }
 
+  @Override
+  public void price(
+      double[] expiry,
+      PutCall[] putCall,
+      double[] strike,
+      double[] forward,
+      double[] volatility,
+      double[] price) {
+
+    boolean[] isCall = new boolean[putCall.length];
+    for (int i = 0; i < putCall.length; i++) {
+      isCall[i] = putCall[i].isCall();
+    }
+    BlackFormulaRepository.price(forward, strike, expiry, volatility, isCall, price);
+  }
+
   @Override
   public double priceDelta(double expiry, PutCall putCall, double strike, double forward, double volatility) {
     return BlackFormulaRepository.delta(forward, strike, expiry, volatility, putCall.isCall());
@@ -9,6 +9,7 @@ import java.time.LocalDate;
 import java.time.ZonedDateTime;
 
 import com.opengamma.strata.basics.index.IborIndex;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.market.MarketDataView;
 import com.opengamma.strata.market.ValueType;
 import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
@@ -148,6 +149,41 @@ public interface IborCapletFloorletVolatilities
       double forward,
       double volatility);
 
+  /**
+   * Calculates the prices of several caplets/floorlets.
+   * <p>
+   * This is the batch form of {@link #price(double, PutCall, double, double, double)}.
+   * The i-th element of each input array defines the i-th option, whose price is written to
+   * the i-th element of {@code price}. All the arrays must have the same length.
+   * <p>
+   * The default implementation calls the single option method for each option.
+   * Implementations backed by a closed-form formula should override this to use the batch
+   * form of the formula, avoiding the per-option overhead when pricing many options.
+   * 
+   * @param expiry  the times to expiry as year fractions
+   * @param putCall  whether each option is put or call
+   * @param strike  the option strike rates
+   * @param forward  the forward rates
+   * @param volatility  the volatilities
+   * @param price  the array to receive the prices
+   * @throws RuntimeException if the values cannot be obtained
+   */
+  public default void price(
+      double[] expiry,
+      PutCall[] putCall,
+      double[] strike,
+      double[] forward,
+      double[] volatility,
+      double[] price) {
+
+    int size = expiry.length;
+    ArgChecker.isTrue(putCall.length == size && strike.length == size && forward.length == size &&
+        volatility.length == size && price.length == size, "Arrays must have the same length");
+    for (int i = 0; i < size; i++) {
+      price[i] = price(expiry[i], putCall[i], strike[i], forward[i], volatility[i]);
+    }
+  }
+
   /**
    * Calculates the price delta.
    * <p>
@@ -208,6 +208,18 @@ public final class NormalIborCapletFloorletExpiryStrikeVolatilities
     return NormalFormulaRepository.price(forward, strike, expiry, volatility, putCall);
   }
 
+  @Override
+  public void price(
+      double[] expiry,
+      PutCall[] putCall,
+      double[] strike,
+      double[] forward,
+      double[] volatility,
+      double[] price) {
+
+    NormalFormulaRepository.price(forward, strike, expiry, volatility, putCall, price);
+  }
+
   @Override
   public double priceDelta(double expiry, PutCall putCall, double strike, double forward, double volatility) {
     return NormalFormulaRepository.delta(forward, strike, expiry, volatility, putCall);
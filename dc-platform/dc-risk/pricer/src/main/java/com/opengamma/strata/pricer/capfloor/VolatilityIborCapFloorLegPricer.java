@@ -62,11 +62,7 @@ public class VolatilityIborCapFloorLegPricer {
       IborCapletFloorletVolatilities volatilities) {
 
     validate(ratesProvider, volatilities);
-    return capFloorLeg.getCapletFloorletPeriods()
-        .stream()
-        .map(period -> periodPricer.presentValue(period, ratesProvider, volatilities))
-        .reduce((c1, c2) -> c1.plus(c2))
-        .get();
+    return periodPricer.presentValue(capFloorLeg.getCapletFloorletPeriods(), ratesProvider, volatilities);
   }
 
   //-------------------------------------------------------------------------
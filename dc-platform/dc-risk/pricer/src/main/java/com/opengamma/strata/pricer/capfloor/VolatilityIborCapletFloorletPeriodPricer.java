@@ -5,6 +5,9 @@
  */
 package com.opengamma.strata.pricer.capfloor;
 
+import java.util.Arrays;
+import java.util.List;
+
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
 import com.opengamma.strata.collect.ArgChecker;
@@ -67,6 +70,83 @@ public class VolatilityIborCapletFloorletPeriodPricer {
     return CurrencyAmount.of(currency, price * period.getNotional());
   }
 
+  /**
+   * Calculates the total present value of several Ibor caplet/floorlet periods.
+   * <p>
+   * The periods must all be in the same currency, that of the result.
+   * The result is the sum of the present values of the periods, as computed by
+   * {@link #presentValue(IborCapletFloorletPeriod, RatesProvider, IborCapletFloorletVolatilities)}.
+   * The options that are not expired are priced together by
+   * {@link IborCapletFloorletVolatilities#price(double[], PutCall[], double[], double[], double[], double[])}.
+   * 
+   * @param periods  the Ibor caplet/floorlet periods
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the volatilities
+   * @return the present value
+   */
+  public CurrencyAmount presentValue(
+      List<IborCapletFloorletPeriod> periods,
+      RatesProvider ratesProvider,
+      IborCapletFloorletVolatilities volatilities) {
+
+    ArgChecker.notEmpty(periods, "periods");
+    validate(volatilities);
+    Currency currency = periods.get(0).getCurrency();
+    int size = periods.size();
+    double[] presentValues = new double[size];
+    int[] optionIndex = new int[size];
+    double[] expiry = new double[size];
+    PutCall[] putCall = new PutCall[size];
+    double[] strike = new double[size];
+    double[] forward = new double[size];
+    double[] volatility = new double[size];
+    double[] factor = new double[size];
+    int nOptions = 0;
+    for (int i = 0; i < size; i++) {
+      IborCapletFloorletPeriod period = periods.get(i);
+      ArgChecker.isTrue(period.getCurrency().equals(currency), "Periods must have the same currency");
+      if (ratesProvider.getValuationDate().isAfter(period.getPaymentDate())) {
+        continue;
+      }
+      double periodExpiry = volatilities.relativeTime(period.getFixingDateTime());
+      double df = ratesProvider.discountFactor(currency, period.getPaymentDate());
+      double indexRate = ratesProvider.iborIndexRates(period.getIndex()).rate(period.getIborRate().getObservation());
+      if (periodExpiry < 0d) { // Option has expired already
+        double sign = period.getPutCall().isCall() ? 1d : -1d;
+        double payoff = Math.max(sign * (indexRate - period.getStrike()), 0d);
+        presentValues[i] = df * payoff * period.getYearFraction() * period.getNotional();
+        continue;
+      }
+      optionIndex[nOptions] = i;
+      expiry[nOptions] = periodExpiry;
+      putCall[nOptions] = period.getPutCall();
+      strike[nOptions] = period.getStrike();
+      forward[nOptions] = indexRate;
+      volatility[nOptions] = volatilities.volatility(periodExpiry, period.getStrike(), indexRate);
+      factor[nOptions] = df * period.getYearFraction();
+      nOptions++;
+    }
+    if (nOptions > 0) {
+      double[] price = new double[nOptions];
+      volatilities.price(
+          Arrays.copyOf(expiry, nOptions),
+          Arrays.copyOf(putCall, nOptions),
+          Arrays.copyOf(strike, nOptions),
+          Arrays.copyOf(forward, nOptions),
+          Arrays.copyOf(volatility, nOptions),
+          price);
+      for (int j = 0; j < nOptions; j++) {
+        int i = optionIndex[j];
+        presentValues[i] = (factor[j] * price[j]) * periods.get(i).getNotional();
+      }
+    }
+    double total = 0d;
+    for (int i = 0; i < size; i++) {
+      total += presentValues[i];
+    }
+    return CurrencyAmount.of(currency, total);
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Computes the implied volatility of the Ibor caplet/floorlet.
@@ -7,16 +7,23 @@ package com.opengamma.strata.pricer.credit;
 
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.stream.Stream;
 
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
 import com.opengamma.strata.basics.date.BusinessDayConvention;
 import com.opengamma.strata.basics.date.DayCount;
 import com.opengamma.strata.basics.date.DayCounts;
 import com.opengamma.strata.basics.date.HolidayCalendarId;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.market.curve.NodalCurve;
 import com.opengamma.strata.pricer.PricingException;
 import com.opengamma.strata.pricer.impl.credit.isda.AccrualOnDefaultFormulae;
@@ -68,6 +75,11 @@ class IsdaCdsHelper {
    * ISDA Standard model implementation in analytics.
    */
   private final static AnalyticCdsPricer CALCULATOR = new AnalyticCdsPricer();
+  /**
+   * Credit curve builder used when calibrating the curves of several reference entities together.
+   */
+  private final static FastCreditCurveBuilder CREDIT_CURVE_BUILDER = new FastCreditCurveBuilder(
+      AccrualOnDefaultFormulae.ORIGINAL_ISDA, IsdaCompliantCreditCurveBuilder.ArbitrageHandling.Fail);
 
   //-------------------------------------------------------------------------
   /**
@@ -89,10 +101,34 @@ class IsdaCdsHelper {
       double recoveryRate,
       double scalingFactor) {
 
-    // setup
-    CdsAnalytic cdsAnalytic = toAnalytic(valuationDate, product, recoveryRate);
     IsdaCompliantYieldCurve yieldCurveAnalytics =
         IsdaCompliantYieldCurve.makeFromRT(yieldCurve.getXValues(), yieldCurve.getYValues());
+    return price(valuationDate, product, yieldCurveAnalytics, creditCurve, recoveryRate, scalingFactor);
+  }
+
+  /**
+   * Calculate present value on the specified valuation date, using a yield curve already in analytics form.
+   * <p>
+   * This allows the yield curve to be converted once when pricing several products.
+   *
+   * @param valuationDate date that present value is calculated on, also date that curves will be calibrated to
+   * @param product  the expanded CDS product
+   * @param yieldCurveAnalytics  the ISDA yield curve
+   * @param creditCurve  the par rates representation of the ISDA credit curve
+   * @param recoveryRate  the recovery rate for the reference entity/issue
+   * @param scalingFactor  the scaling factor
+   * @return the present value of the expanded CDS product
+   */
+  public static CurrencyAmount price(
+      LocalDate valuationDate,
+      ResolvedCds product,
+      IsdaCompliantYieldCurve yieldCurveAnalytics,
+      NodalCurve creditCurve,
+      double recoveryRate,
+      double scalingFactor) {
+
+    // setup
+    CdsAnalytic cdsAnalytic = toAnalytic(valuationDate, product, recoveryRate);
     IsdaCompliantCreditCurve creditCurveAnalytics =
         IsdaCompliantCreditCurve.makeFromRT(creditCurve.getXValues(), creditCurve.getYValues());
 
@@ -262,6 +298,75 @@ class IsdaCdsHelper {
     }
   }
 
+  // Converts the credit curve par rates of several reference entities to the corresponding analytics form.
+  // The entities with the same convention and end dates share the calibration instruments,
+  // so their curves are calibrated together against the shared yield curve.
+  public static List<IsdaCompliantCreditCurve> createIsdaCreditCurves(
+      LocalDate valuationDate,
+      List<IsdaCreditCurveInputs> curves,
+      IsdaCompliantYieldCurve yieldCurve,
+      double[] recoveryRates) {
+
+    ArgChecker.isTrue(
+        curves.size() == recoveryRates.length, "Number of curves does not match number of recovery rates");
+    Map<List<Object>, List<Integer>> groups = new LinkedHashMap<>();
+    for (int j = 0; j < curves.size(); j++) {
+      IsdaCreditCurveInputs curve = curves.get(j);
+      List<Object> key = ImmutableList.of(curve.getCdsConvention(), Arrays.asList(curve.getEndDatePoints()));
+      groups.computeIfAbsent(key, k -> new ArrayList<>()).add(j);
+    }
+    IsdaCompliantCreditCurve[] result = new IsdaCompliantCreditCurve[curves.size()];
+    for (List<Integer> group : groups.values()) {
+      IsdaCreditCurveInputs first = curves.get(group.get(0));
+      double[][] parSpreads = new double[group.size()][];
+      double[] groupRecoveryRates = new double[group.size()];
+      for (int k = 0; k < group.size(); k++) {
+        parSpreads[k] = curves.get(group.get(k)).getParRates();
+        groupRecoveryRates[k] = recoveryRates[group.get(k)];
+      }
+      try {
+        CdsAnalytic[] calibrationCds = toCalibrationAnalytics(valuationDate, first, groupRecoveryRates[0]);
+        IsdaCompliantCreditCurve[] calibrated =
+            CREDIT_CURVE_BUILDER.calibrateCreditCurves(calibrationCds, parSpreads, groupRecoveryRates, yieldCurve);
+        for (int k = 0; k < group.size(); k++) {
+          result[group.get(k)] = calibrated[k];
+        }
+      } catch (Exception ex) {
+        throw new PricingException("Error converting the ISDA Credit Curve: " + ex.getMessage(), ex);
+      }
+    }
+    return ImmutableList.copyOf(result);
+  }
+
+  // Converts the par rate nodes of the credit curve to the calibration CDSs in analytics form.
+  // This matches the instruments built by the credit curve builder when calibrating a single curve.
+  private static CdsAnalytic[] toCalibrationAnalytics(
+      LocalDate valuationDate,
+      IsdaCreditCurveInputs curve,
+      double recoveryRate) {
+
+    CdsConvention cdsConvention = curve.getCdsConvention();
+    LocalDate stepInDate = cdsConvention.calculateUnadjustedStepInDate(valuationDate);
+    LocalDate settleDate = cdsConvention.calculateAdjustedSettleDate(valuationDate, REF_DATA);
+    LocalDate startDate = cdsConvention.calculateAdjustedStartDate(valuationDate, REF_DATA);
+    LocalDate[] endDates = curve.getEndDatePoints();
+    CdsAnalytic[] cds = new CdsAnalytic[endDates.length];
+    for (int i = 0; i < endDates.length; i++) {
+      cds[i] = new CdsAnalytic(
+          valuationDate,
+          stepInDate,
+          settleDate,
+          startDate,
+          endDates[i],
+          cdsConvention.isPayAccruedOnDefault(),
+          cdsConvention.getPaymentFrequency().getPeriod(),
+          cdsConvention.getStubConvention(),
+          PROTECT_START,
+          recoveryRate);
+    }
+    return cds;
+  }
+
   // Converts the expanded CDS product to the corresponding analytics form.
   private static CdsAnalytic toAnalytic(LocalDate valuationDate, ResolvedCds product, double recoveryRate) {
     try {
@@ -5,9 +5,14 @@
  */
 package com.opengamma.strata.pricer.credit;
 
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
 import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
 
 import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.market.curve.CurveMetadata;
 import com.opengamma.strata.market.curve.NodalCurve;
@@ -240,6 +245,12 @@ public class IsdaCdsPricer {
       return new IsdaNodalCurve(underlying, yieldCurveInputs.getCurveMetaData());
     }
 
+    // wraps a credit curve that has already been calibrated from par rates
+    public static NodalCurve of(IsdaCreditCurveInputs creditCurveInputs, IsdaCompliantCreditCurve creditCurve) {
+      IsdaCompliantCurve underlying = creditCurve;
+      return new IsdaNodalCurve(underlying, creditCurveInputs.getCurveMetaData());
+    }
+
     // overwrites the x and y values of a calibrated curve, but copy the curve metadata to the new instance
     public static NodalCurve of(IsdaCreditCurveInputs creditCurveInputs, double[] t, double[] ht) {
       IsdaCompliantCreditCurve creditCurve = IsdaCompliantCreditCurve.makeFromRT(t, ht);
@@ -594,4 +605,232 @@ public class IsdaCdsPricer {
     return expectedLoss.minus(basePrice);
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the present value of the expanded CDS products of a set of reference entities.
+   * <p>
+   * This is typically used to price all the constituents of a CDS index in one call.
+   * The ISDA discount curve is calibrated once and shared by all the products.
+   * The credit curves are bootstrapped in parallel, the reference entities with the same
+   * CDS convention and end dates sharing the integration grids of the calibration instruments.
+   * The result for each product is the same as that of
+   * {@link #presentValue(ResolvedCds, IsdaYieldCurveInputs, IsdaCreditCurveInputs, LocalDate, double, double)}.
+   *
+   * @param products  expanded CDS products, one for each reference entity
+   * @param yieldCurveInputs  par rate curve points of the ISDA discount curve shared by all products
+   * @param creditCurveInputs  par spread rate curve points of the ISDA spread curve of each reference entity
+   * @param valuationDate  date to use when calibrating curves and calculating the result
+   * @param recoveryRates  recovery rate associated with each reference entity
+   * @param scalingFactors  linear scaling factor associated with each product
+   * @return present value of fee leg and any up front fee of each product, in the order of the products
+   */
+  public List<CurrencyAmount> presentValue(
+      List<ResolvedCds> products,
+      IsdaYieldCurveInputs yieldCurveInputs,
+      List<IsdaCreditCurveInputs> creditCurveInputs,
+      LocalDate valuationDate,
+      DoubleArray recoveryRates,
+      DoubleArray scalingFactors) {
+
+    validateBatch(products, creditCurveInputs, recoveryRates, scalingFactors);
+    IsdaCompliantYieldCurve yieldCurve = yieldCurveAnalytics(valuationDate, yieldCurveInputs);
+    return presentValue(
+        products, yieldCurve, creditCurveInputs, valuationDate, recoveryRates.toArray(), scalingFactors.toArray());
+  }
+
+  /**
+   * Calculates the scalar PV change to a 1 basis point shift in par credit spread rates
+   * for the expanded CDS products of a set of reference entities.
+   * <p>
+   * The curves are calibrated as when calculating the present values of the products.
+   * The result for each product is the same as that of
+   * {@link #cs01ParallelPar(ResolvedCds, IsdaYieldCurveInputs, IsdaCreditCurveInputs, LocalDate, double, double)}.
+   *
+   * @param products  expanded CDS products, one for each reference entity
+   * @param yieldCurveInputs  par rate curve points of the ISDA discount curve shared by all products
+   * @param creditCurveInputs  par spread rate curve points of the ISDA spread curve of each reference entity
+   * @param valuationDate  date to use when calibrating curves and calculating the result
+   * @param recoveryRates  recovery rate associated with each reference entity
+   * @param scalingFactors  linear scaling factor associated with each product
+   * @return the PV change of each product, in the order of the products
+   */
+  public List<CurrencyAmount> cs01ParallelPar(
+      List<ResolvedCds> products,
+      IsdaYieldCurveInputs yieldCurveInputs,
+      List<IsdaCreditCurveInputs> creditCurveInputs,
+      LocalDate valuationDate,
+      DoubleArray recoveryRates,
+      DoubleArray scalingFactors) {
+
+    validateBatch(products, creditCurveInputs, recoveryRates, scalingFactors);
+    IsdaCompliantYieldCurve yieldCurve = yieldCurveAnalytics(valuationDate, yieldCurveInputs);
+    double[] recoveries = recoveryRates.toArray();
+    double[] factors = scalingFactors.toArray();
+    List<IsdaCreditCurveInputs> bumpedInputs = creditCurveInputs.stream()
+        .map(inputs -> inputs.parallelShiftParRatesinBps(ONE_BPS))
+        .collect(toImmutableList());
+
+    List<CurrencyAmount> basePrices = presentValue(
+        products, yieldCurve, creditCurveInputs, valuationDate, recoveries, factors);
+    List<CurrencyAmount> bumpedPrices = presentValue(
+        products, yieldCurve, bumpedInputs, valuationDate, recoveries, factors);
+    return difference(bumpedPrices, basePrices);
+  }
+
+  /**
+   * Calculates the vector PV change to a series of 1 basis point shifts in par credit spread rates at each curve node
+   * for the expanded CDS products of a set of reference entities.
+   * <p>
+   * The curves are calibrated as when calculating the present values of the products,
+   * the curves bumped at the same node being calibrated together.
+   * The result for each product is the same as that of
+   * {@link #cs01BucketedPar(ResolvedCds, IsdaYieldCurveInputs, IsdaCreditCurveInputs, LocalDate, double, double)}.
+   *
+   * @param products  expanded CDS products, one for each reference entity
+   * @param yieldCurveInputs  par rate curve points of the ISDA discount curve shared by all products
+   * @param creditCurveInputs  par spread rate curve points of the ISDA spread curve of each reference entity
+   * @param valuationDate  date to use when calibrating curves and calculating the result
+   * @param recoveryRates  recovery rate associated with each reference entity
+   * @param scalingFactors  linear scaling factor associated with each product
+   * @return the PV change of each product to the shift of each node of its credit curve, in the order of the products
+   */
+  public List<CurrencyParameterSensitivities> cs01BucketedPar(
+      List<ResolvedCds> products,
+      IsdaYieldCurveInputs yieldCurveInputs,
+      List<IsdaCreditCurveInputs> creditCurveInputs,
+      LocalDate valuationDate,
+      DoubleArray recoveryRates,
+      DoubleArray scalingFactors) {
+
+    validateBatch(products, creditCurveInputs, recoveryRates, scalingFactors);
+    IsdaCompliantYieldCurve yieldCurve = yieldCurveAnalytics(valuationDate, yieldCurveInputs);
+    double[] recoveries = recoveryRates.toArray();
+    double[] factors = scalingFactors.toArray();
+    List<CurrencyAmount> basePrices = presentValue(
+        products, yieldCurve, creditCurveInputs, valuationDate, recoveries, factors);
+
+    int size = products.size();
+    double[][] paramSens = new double[size][];
+    int maxPoints = 0;
+    for (int j = 0; j < size; j++) {
+      paramSens[j] = new double[creditCurveInputs.get(j).getNumberOfPoints()];
+      maxPoints = Math.max(maxPoints, paramSens[j].length);
+    }
+    for (int i = 0; i < maxPoints; i++) {
+      // only the curves that have node i are bumped
+      int node = i;
+      int[] bumped = IntStream.range(0, size)
+          .filter(j -> creditCurveInputs.get(j).getNumberOfPoints() > node)
+          .toArray();
+      List<CurrencyAmount> bumpedPrices = presentValue(
+          IntStream.of(bumped).mapToObj(products::get).collect(toImmutableList()),
+          yieldCurve,
+          IntStream.of(bumped)
+              .mapToObj(j -> creditCurveInputs.get(j).bucketedShiftParRatesinBps(node, ONE_BPS))
+              .collect(toImmutableList()),
+          valuationDate,
+          IntStream.of(bumped).mapToDouble(j -> recoveries[j]).toArray(),
+          IntStream.of(bumped).mapToDouble(j -> factors[j]).toArray());
+      for (int k = 0; k < bumped.length; k++) {
+        CurrencyAmount sensitivity = bumpedPrices.get(k).minus(basePrices.get(bumped[k]));
+        paramSens[bumped[k]][i] = sensitivity.getAmount();
+      }
+    }
+    return IntStream.range(0, size)
+        .mapToObj(j -> CurrencyParameterSensitivities.of(CurrencyParameterSensitivity.of(
+            creditCurveInputs.get(j).getName(), products.get(j).getCurrency(), DoubleArray.ofUnsafe(paramSens[j]))))
+        .collect(toImmutableList());
+  }
+
+  /**
+   * Calculates the scalar PV change to a 1 basis point shift in recovery rate
+   * for the expanded CDS products of a set of reference entities.
+   * <p>
+   * The curves are calibrated as when calculating the present values of the products.
+   * The result for each product is the same as that of
+   * {@link #recovery01(ResolvedCds, IsdaYieldCurveInputs, IsdaCreditCurveInputs, LocalDate, double, double)}.
+   *
+   * @param products  expanded CDS products, one for each reference entity
+   * @param yieldCurveInputs  par rate curve points of the ISDA discount curve shared by all products
+   * @param creditCurveInputs  par spread rate curve points of the ISDA spread curve of each reference entity
+   * @param valuationDate  date to use when calibrating curves and calculating the result
+   * @param recoveryRates  recovery rate associated with each reference entity
+   * @param scalingFactors  linear scaling factor associated with each product
+   * @return the PV change of each product, in the order of the products
+   */
+  public List<CurrencyAmount> recovery01(
+      List<ResolvedCds> products,
+      IsdaYieldCurveInputs yieldCurveInputs,
+      List<IsdaCreditCurveInputs> creditCurveInputs,
+      LocalDate valuationDate,
+      DoubleArray recoveryRates,
+      DoubleArray scalingFactors) {
+
+    validateBatch(products, creditCurveInputs, recoveryRates, scalingFactors);
+    IsdaCompliantYieldCurve yieldCurve = yieldCurveAnalytics(valuationDate, yieldCurveInputs);
+    double[] factors = scalingFactors.toArray();
+
+    List<CurrencyAmount> basePrices = presentValue(
+        products, yieldCurve, creditCurveInputs, valuationDate, recoveryRates.toArray(), factors);
+    List<CurrencyAmount> bumpedPrices = presentValue(
+        products, yieldCurve, creditCurveInputs, valuationDate, recoveryRates.map(r -> r + ONE_BPS).toArray(), factors);
+    return difference(bumpedPrices, basePrices);
+  }
+
+  // calibrates the credit curves against the shared yield curve, then prices the products in parallel
+  private List<CurrencyAmount> presentValue(
+      List<ResolvedCds> products,
+      IsdaCompliantYieldCurve yieldCurve,
+      List<IsdaCreditCurveInputs> creditCurveInputs,
+      LocalDate valuationDate,
+      double[] recoveryRates,
+      double[] scalingFactors) {
+
+    List<IsdaCompliantCreditCurve> creditCurves =
+        IsdaCdsHelper.createIsdaCreditCurves(valuationDate, creditCurveInputs, yieldCurve, recoveryRates);
+    return IntStream.range(0, products.size())
+        .parallel()
+        .mapToObj(j -> IsdaCdsHelper.price(
+            valuationDate,
+            products.get(j),
+            yieldCurve,
+            IsdaNodalCurve.of(creditCurveInputs.get(j), creditCurves.get(j)),
+            recoveryRates[j],
+            scalingFactors[j]))
+        .collect(toImmutableList());
+  }
+
+  // calibrates the yield curve, in the same form as when pricing a single product
+  private static IsdaCompliantYieldCurve yieldCurveAnalytics(
+      LocalDate valuationDate,
+      IsdaYieldCurveInputs yieldCurveInputs) {
+
+    NodalCurve yieldCurve = IsdaNodalCurve.of(valuationDate, yieldCurveInputs);
+    return IsdaCompliantYieldCurve.makeFromRT(yieldCurve.getXValues(), yieldCurve.getYValues());
+  }
+
+  // the difference between the bumped and base prices of each product
+  private static List<CurrencyAmount> difference(List<CurrencyAmount> bumpedPrices, List<CurrencyAmount> basePrices) {
+    return IntStream.range(0, basePrices.size())
+        .mapToObj(j -> bumpedPrices.get(j).minus(basePrices.get(j)))
+        .collect(toImmutableList());
+  }
+
+  // checks that there is one set of inputs for each product
+  private static void validateBatch(
+      List<ResolvedCds> products,
+      List<IsdaCreditCurveInputs> creditCurveInputs,
+      DoubleArray recoveryRates,
+      DoubleArray scalingFactors) {
+
+    ArgChecker.noNulls(products, "products");
+    ArgChecker.noNulls(creditCurveInputs, "creditCurveInputs");
+    ArgChecker.notNull(recoveryRates, "recoveryRates");
+    ArgChecker.notNull(scalingFactors, "scalingFactors");
+    int size = products.size();
+    ArgChecker.isTrue(creditCurveInputs.size() == size, "Number of credit curve inputs must match number of products");
+    ArgChecker.isTrue(recoveryRates.size() == size, "Number of recovery rates must match number of products");
+    ArgChecker.isTrue(scalingFactors.size() == size, "Number of scaling factors must match number of products");
+  }
+
 }
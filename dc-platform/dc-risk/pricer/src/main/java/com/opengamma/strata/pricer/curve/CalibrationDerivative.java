@@ -6,10 +6,12 @@
 package com.opengamma.strata.pricer.curve;
 
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.data.MarketDataName;
 import com.opengamma.strata.market.curve.CurveParameterSize;
 import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
 import com.opengamma.strata.product.ResolvedTrade;
@@ -37,10 +39,13 @@ class CalibrationDerivative
    */
   private final RatesProviderGenerator providerGenerator;
   /**
-   * Provide the order in which the curves appear in the long vector result.
-   * The expected number of parameters for each curve is also provided.
+   * The offset of each curve in the long vector result, derived from the order in which the curves appear.
    */
-  private final List<CurveParameterSize> curveOrder;
+  private final Map<MarketDataName<?>, Integer> curveOffsets;
+  /**
+   * The total number of parameters.
+   */
+  private final int totalParamsCount;
 
   /**
    * Creates an instance.
@@ -59,7 +64,8 @@ class CalibrationDerivative
     this.measures = measures;
     this.trades = trades;
     this.providerGenerator = providerGenerator;
-    this.curveOrder = curveOrder;
+    this.curveOffsets = CalibrationMeasures.curveOffsets(curveOrder);
+    this.totalParamsCount = curveOrder.stream().mapToInt(CurveParameterSize::getParameterCount).sum();
   }
 
   //-------------------------------------------------------------------------
@@ -67,9 +73,13 @@ class CalibrationDerivative
   public DoubleMatrix apply(DoubleArray x) {
     // create child provider from matrix
     ImmutableRatesProvider provider = providerGenerator.generate(x);
-    // calculate derivative for each trade using the child provider
+    // calculate derivative for each trade using the child provider, writing directly into the matrix
     int size = trades.size();
-    return DoubleMatrix.ofArrayObjects(size, size, i -> measures.derivative(trades.get(i), provider, curveOrder));
+    double[][] derivative = new double[size][totalParamsCount];
+    for (int i = 0; i < size; i++) {
+      measures.derivative(trades.get(i), provider, curveOffsets, derivative[i]);
+    }
+    return DoubleMatrix.ofUnsafe(derivative);
   }
 
 }
@@ -5,7 +5,10 @@
  */
 package com.opengamma.strata.pricer.curve;
 
+import java.util.Optional;
+
 import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
+import com.opengamma.strata.market.sensitivity.PointSensitivities;
 import com.opengamma.strata.pricer.rate.RatesProvider;
 import com.opengamma.strata.product.ResolvedTrade;
 
@@ -51,4 +54,23 @@ public interface CalibrationMeasure<T extends ResolvedTrade> {
    */
   public abstract CurrencyParameterSensitivities sensitivities(T trade, RatesProvider provider);
 
+  /**
+   * Calculates the point sensitivities that relate to the value, if available.
+   * <p>
+   * Calibration uses the point sensitivities, when available, to write the calibration Jacobian directly,
+   * avoiding the creation of the combined sensitivities returned by {@link #sensitivities}.
+   * The point sensitivities must be such that their parameter sensitivity
+   * equals the result of {@code sensitivities}.
+   * <p>
+   * The default implementation returns empty.
+   * 
+   * @param trade  the trade
+   * @param provider  the rates provider
+   * @return the point sensitivities, empty if not available
+   * @throws IllegalArgumentException if the trade cannot be valued
+   */
+  public default Optional<PointSensitivities> pointSensitivities(T trade, RatesProvider provider) {
+    return Optional.empty();
+  }
+
 }
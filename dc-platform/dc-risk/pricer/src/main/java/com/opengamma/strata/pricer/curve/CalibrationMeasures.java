@@ -7,7 +7,10 @@ package com.opengamma.strata.pricer.curve;
 
 import static com.opengamma.strata.collect.Guavate.toImmutableMap;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -15,10 +18,10 @@ import com.google.common.collect.ImmutableSet;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.Messages;
 import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.data.MarketDataName;
 import com.opengamma.strata.market.curve.CurveParameterSize;
-import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
-import com.opengamma.strata.market.param.CurrencyParameterSensitivity;
-import com.opengamma.strata.market.param.UnitParameterSensitivities;
+import com.opengamma.strata.market.sensitivity.PointSensitivities;
+import com.opengamma.strata.market.sensitivity.PointSensitivity;
 import com.opengamma.strata.pricer.rate.RatesProvider;
 import com.opengamma.strata.product.ResolvedTrade;
 
@@ -165,28 +168,56 @@ public final class CalibrationMeasures {
    * @return the sensitivity derivative
    */
   public DoubleArray derivative(ResolvedTrade trade, RatesProvider provider, List<CurveParameterSize> curveOrder) {
-    UnitParameterSensitivities unitSens = extractSensitivities(trade, provider);
+    Map<MarketDataName<?>, Integer> curveOffsets = curveOffsets(curveOrder);
+    double[] result = new double[curveOrder.stream().mapToInt(CurveParameterSize::getParameterCount).sum()];
+    derivative(trade, provider, curveOffsets, result);
+    return DoubleArray.ofUnsafe(result);
+  }
 
-    // expand to a concatenated array
-    DoubleArray result = DoubleArray.EMPTY;
-    for (CurveParameterSize curveParams : curveOrder) {
-      DoubleArray sens = unitSens.findSensitivity(curveParams.getName())
-          .map(s -> s.getSensitivity())
-          .orElseGet(() -> DoubleArray.filled(curveParams.getParameterCount()));
-      result = result.concat(sens);
+  /**
+   * Calculates the sensitivity with respect to the rates provider, adding it to an array.
+   * <p>
+   * The sensitivity to each curve is added to the array starting at the offset of the curve.
+   * Sensitivities to curves that have no offset are ignored.
+   * Where the measure provides point sensitivities, each point is projected onto the curve parameters
+   * and added to the array directly, without creating the parameter sensitivities of the points.
+   * 
+   * @param trade  the trade
+   * @param provider  the rates provider
+   * @param curveOffsets  the offset of each curve in the array
+   * @param result  the array to add the sensitivity to
+   */
+  void derivative(
+      ResolvedTrade trade,
+      RatesProvider provider,
+      Map<MarketDataName<?>, Integer> curveOffsets,
+      double[] result) {
+
+    CalibrationMeasure<ResolvedTrade> measure = getMeasure(trade);
+    Optional<PointSensitivities> points = measure.pointSensitivities(trade, provider);
+    if (points.isPresent()) {
+      for (PointSensitivity point : points.get().getSensitivities()) {
+        provider.parameterSensitivity(point, curveOffsets, result);
+      }
+    } else {
+      measure.sensitivities(trade, provider).addTo(curveOffsets, result);
     }
-    return result;
   }
 
-  // determine the curve parameter sensitivities, removing the curency
-  private UnitParameterSensitivities extractSensitivities(ResolvedTrade trade, RatesProvider provider) {
-    CalibrationMeasure<ResolvedTrade> measure = getMeasure(trade);
-    CurrencyParameterSensitivities paramSens = measure.sensitivities(trade, provider);
-    UnitParameterSensitivities unitSens = UnitParameterSensitivities.empty();
-    for (CurrencyParameterSensitivity ccySens : paramSens.getSensitivities()) {
-      unitSens = unitSens.combinedWith(ccySens.toUnitParameterSensitivity());
+  /**
+   * Determines the offset of each curve in the concatenated array of curve parameters.
+   * 
+   * @param curveOrder  the order of the curves
+   * @return the offset of each curve, keyed by curve name
+   */
+  static Map<MarketDataName<?>, Integer> curveOffsets(List<CurveParameterSize> curveOrder) {
+    Map<MarketDataName<?>, Integer> offsets = new HashMap<>();
+    int offset = 0;
+    for (CurveParameterSize curveParams : curveOrder) {
+      offsets.put(curveParams.getName(), offset);
+      offset += curveParams.getParameterCount();
     }
-    return unitSens;
+    return offsets;
   }
 
   //-------------------------------------------------------------------------
@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.curve;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.index.Index;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.collect.array.DoubleMatrix;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.MarketDataId;
+import com.opengamma.strata.market.curve.Curve;
+import com.opengamma.strata.market.curve.CurveGroupDefinition;
+import com.opengamma.strata.market.curve.CurveName;
+import com.opengamma.strata.market.curve.JacobianCalibrationMatrix;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
+
+/**
+ * A cache of the results of curve calibration, used to recalibrate curves efficiently when quotes change.
+ * <p>
+ * A {@link CurveCalibrator} that uses a cache stores the result of each calibration, keyed by the
+ * curve group definition. When the same definition is calibrated again for the same valuation date,
+ * the previous result is used as follows:
+ * <ul>
+ *   <li>If the quotes of a group and all the groups before it are unchanged, and the reference data
+ *     and the settings of the calibrator are the same, the calibrated parameters, Jacobian matrices
+ *     and market quote sensitivities of the group are reused without calibration.
+ *   <li>Otherwise, the root finder is started from the parameters of the previous calibration,
+ *     using the Jacobian of the calibration function at those parameters as the initial estimate.
+ *     When the quotes have moved slightly this converges in a few iterations.
+ * </ul>
+ * If the valuation date changes, the previous result is discarded and the calibration starts from
+ * the initial guesses of the definition. Only the latest result is held for each definition.
+ * <p>
+ * This class is mutable and thread-safe. Each result is immutable and is replaced atomically,
+ * thus calibrations in progress are unaffected by calibrations completing on other threads.
+ */
+public final class CurveCalibrationCache {
+
+  /**
+   * The cached results, keyed by the curve group definitions.
+   */
+  private final Map<List<CurveGroupDefinition>, CalibrationState> states = new ConcurrentHashMap<>();
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an empty cache.
+   *
+   * @return the cache
+   */
+  public static CurveCalibrationCache of() {
+    return new CurveCalibrationCache();
+  }
+
+  // restricted constructor
+  private CurveCalibrationCache() {
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the number of curve group definitions with a cached result.
+   *
+   * @return the number of cached results
+   */
+  public int size() {
+    return states.size();
+  }
+
+  /**
+   * Removes all the cached results.
+   */
+  public void clear() {
+    states.clear();
+  }
+
+  /**
+   * Removes the cached result of a curve group definition.
+   * <p>
+   * The next calibration of the definition starts from the initial guesses of the definition.
+   *
+   * @param curveGroupDefn  the curve group definition
+   */
+  public void remove(CurveGroupDefinition curveGroupDefn) {
+    states.remove(ImmutableList.of(curveGroupDefn));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Finds the previous result for the definitions and valuation date.
+   *
+   * @param groupDefns  the curve group definitions
+   * @param valuationDate  the valuation date
+   * @return the previous result, null if not found
+   */
+  CalibrationState find(List<CurveGroupDefinition> groupDefns, LocalDate valuationDate) {
+    CalibrationState state = states.get(groupDefns);
+    return state != null && state.valuationDate.equals(valuationDate) ? state : null;
+  }
+
+  /**
+   * Stores the result for the definitions, replacing any previous result.
+   *
+   * @param groupDefns  the curve group definitions
+   * @param state  the result of the calibration
+   */
+  void put(List<CurveGroupDefinition> groupDefns, CalibrationState state) {
+    states.put(ImmutableList.copyOf(groupDefns), state);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The result of calibrating a list of curve group definitions.
+   */
+  static final class CalibrationState {
+
+    /** The valuation date. */
+    final LocalDate valuationDate;
+    /** The reference data used to resolve the trades. */
+    final ReferenceData refData;
+    /** The settings of the calibrator, which determine the calibrated result. */
+    final ImmutableList<Object> settings;
+    /** The discount curves of the known data. */
+    final ImmutableMap<Currency, Curve> knownDiscountCurves;
+    /** The forward curves of the known data. */
+    final ImmutableMap<Index, Curve> knownIndexCurves;
+    /** The time-series of the known data. */
+    final ImmutableMap<Index, LocalDateDoubleTimeSeries> knownTimeSeries;
+    /** The result for each group, in calibration order. */
+    final ImmutableList<GroupState> groups;
+
+    CalibrationState(
+        ImmutableRatesProvider knownData,
+        ReferenceData refData,
+        ImmutableList<Object> settings,
+        List<GroupState> groups) {
+
+      this.valuationDate = knownData.getValuationDate();
+      this.refData = refData;
+      this.settings = settings;
+      this.knownDiscountCurves = knownData.getDiscountCurves();
+      this.knownIndexCurves = knownData.getIndexCurves();
+      this.knownTimeSeries = knownData.getTimeSeries();
+      this.groups = ImmutableList.copyOf(groups);
+    }
+
+    // checks if the known data, reference data and settings match, the FX rates are checked using the quotes
+    boolean isReusable(ImmutableRatesProvider knownData, ReferenceData refData, ImmutableList<Object> settings) {
+      return this.refData.equals(refData) &&
+          this.settings.equals(settings) &&
+          knownDiscountCurves.equals(knownData.getDiscountCurves()) &&
+          knownIndexCurves.equals(knownData.getIndexCurves()) &&
+          knownTimeSeries.equals(knownData.getTimeSeries());
+    }
+  }
+
+  /**
+   * The result of calibrating a single curve group.
+   */
+  static final class GroupState {
+
+    /** The quotes used to calibrate the group, including FX rates. */
+    final ImmutableMap<MarketDataId<?>, Object> quotes;
+    /** The calibrated parameters. */
+    final DoubleArray parameters;
+    /** The Jacobian of the calibration function at the calibrated parameters, null if not caching. */
+    final DoubleMatrix solverJacobian;
+    /** The Jacobian matrices of all the groups calibrated so far. */
+    final ImmutableMap<CurveName, JacobianCalibrationMatrix> jacobians;
+    /** The sensitivity to market quotes of the curves in the group. */
+    final ImmutableMap<CurveName, DoubleArray> sensitivityToMarketQuote;
+
+    GroupState(
+        ImmutableMap<MarketDataId<?>, Object> quotes,
+        DoubleArray parameters,
+        DoubleMatrix solverJacobian,
+        ImmutableMap<CurveName, JacobianCalibrationMatrix> jacobians,
+        ImmutableMap<CurveName, DoubleArray> sensitivityToMarketQuote) {
+
+      this.quotes = quotes;
+      this.parameters = parameters;
+      this.solverJacobian = solverJacobian;
+      this.jacobians = jacobians;
+      this.sensitivityToMarketQuote = sensitivityToMarketQuote;
+    }
+  }
+
+}
@@ -8,6 +8,9 @@ package com.opengamma.strata.pricer.curve;
 import static com.opengamma.strata.collect.Guavate.toImmutableList;
 import static com.opengamma.strata.collect.Guavate.toImmutableMap;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -17,22 +20,28 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.basics.index.Index;
+import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.Messages;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.collect.array.DoubleMatrix;
 import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.data.MarketDataFxRateProvider;
+import com.opengamma.strata.data.MarketDataId;
+import com.opengamma.strata.data.MarketDataName;
 import com.opengamma.strata.market.curve.CurveGroupDefinition;
 import com.opengamma.strata.market.curve.CurveName;
 import com.opengamma.strata.market.curve.CurveNode;
 import com.opengamma.strata.market.curve.CurveParameterSize;
 import com.opengamma.strata.market.curve.JacobianCalibrationMatrix;
+import com.opengamma.strata.market.curve.NodalCurveDefinition;
 import com.opengamma.strata.market.observable.IndexQuoteId;
 import com.opengamma.strata.math.impl.linearalgebra.DecompositionFactory;
 import com.opengamma.strata.math.impl.matrix.CommonsMatrixAlgebra;
 import com.opengamma.strata.math.impl.matrix.MatrixAlgebra;
 import com.opengamma.strata.math.impl.rootfinding.newton.BroydenVectorRootFinder;
+import com.opengamma.strata.pricer.curve.CurveCalibrationCache.CalibrationState;
+import com.opengamma.strata.pricer.curve.CurveCalibrationCache.GroupState;
 import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
 import com.opengamma.strata.product.ResolvedTrade;
 
@@ -51,6 +60,9 @@ import com.opengamma.strata.product.ResolvedTrade;
  * <p>
  * Once calibrated, the curves are then available for use.
  * Each node in the curve definition becomes a parameter in the matching output curve.
+ * <p>
+ * A calibrator may use a {@link CurveCalibrationCache} to recalibrate efficiently when quotes change.
+ * See {@link #withCache(CurveCalibrationCache)}.
  */
 public final class CurveCalibrator {
 
@@ -78,6 +90,15 @@ public final class CurveCalibrator {
    * This is used to compute the present value sensitivity to market quotes stored in the metadata.
    */
   private final CalibrationMeasures pvMeasures;
+  /**
+   * The settings that determine the calibrated result, the tolerances, maximum steps, measures and pvMeasures.
+   * A cached result is only reused by a calibrator with the same settings.
+   */
+  private final ImmutableList<Object> settings;
+  /**
+   * The cache of previous calibrations, null if not caching.
+   */
+  private final CurveCalibrationCache cache;
 
   //-------------------------------------------------------------------------
   /**
@@ -158,13 +179,49 @@ public final class CurveCalibrator {
       CalibrationMeasures measures,
       CalibrationMeasures pvMeasures) {
 
-    this.rootFinder = new BroydenVectorRootFinder(
-        toleranceAbs,
-        toleranceRel,
-        stepMaximum,
-        DecompositionFactory.getDecomposition(DecompositionFactory.SV_COMMONS_NAME));
+    this(
+        new BroydenVectorRootFinder(
+            toleranceAbs,
+            toleranceRel,
+            stepMaximum,
+            DecompositionFactory.getDecomposition(DecompositionFactory.SV_COMMONS_NAME)),
+        measures,
+        pvMeasures,
+        ImmutableList.of(toleranceAbs, toleranceRel, stepMaximum, measures, pvMeasures),
+        null);
+  }
+
+  // restricted constructor
+  private CurveCalibrator(
+      BroydenVectorRootFinder rootFinder,
+      CalibrationMeasures measures,
+      CalibrationMeasures pvMeasures,
+      ImmutableList<Object> settings,
+      CurveCalibrationCache cache) {
+
+    this.rootFinder = rootFinder;
     this.measures = measures;
     this.pvMeasures = pvMeasures;
+    this.settings = settings;
+    this.cache = cache;
+  }
+
+  /**
+   * Returns a copy of this calibrator that uses the specified cache.
+   * <p>
+   * The result of each calibration is stored in the cache. When the same curve group definition
+   * is calibrated again for the same valuation date, groups whose quotes are unchanged are not
+   * recalibrated, and the remaining groups are calibrated starting from the previous result.
+   * A group is only reused if the reference data and the settings of the calibrator are also unchanged.
+   * <p>
+   * The cache may be shared between calibrators and threads.
+   *
+   * @param cache  the cache of previous calibrations
+   * @return the calibrator using the cache
+   */
+  public CurveCalibrator withCache(CurveCalibrationCache cache) {
+    ArgChecker.notNull(cache, "cache");
+    return new CurveCalibrator(rootFinder, measures, pvMeasures, settings, cache);
   }
 
   //-------------------------------------------------------------------------
@@ -234,67 +291,132 @@ public final class CurveCalibrator {
       throw new IllegalArgumentException(Messages.format(
           "Valuation dates do not match: {} and {}", knownData.getValuationDate(), marketData.getValuationDate()));
     }
+    // find the previous calibration, which is only reused if the known data, reference data and settings match
+    CalibrationState previous = cache != null ? cache.find(allGroupsDefn, knownData.getValuationDate()) : null;
+    boolean reusable = previous != null && previous.isReusable(knownData, refData, settings);
+    List<GroupState> groupStates = new ArrayList<>(allGroupsDefn.size());
+
     // perform calibration one group at a time, building up the result by mutating these variables
     ImmutableRatesProvider providerCombined = knownData;
     ImmutableList<CurveParameterSize> orderPrev = ImmutableList.of();
     ImmutableMap<CurveName, JacobianCalibrationMatrix> jacobians = ImmutableMap.of();
-    for (CurveGroupDefinition groupDefn : allGroupsDefn) {
-      // combine all data in the group into flat lists
-      ImmutableList<ResolvedTrade> trades = groupDefn.resolvedTrades(marketData, refData);
-      ImmutableList<Double> initialGuesses = groupDefn.initialGuesses(marketData);
+    for (int i = 0; i < allGroupsDefn.size(); i++) {
+      CurveGroupDefinition groupDefn = allGroupsDefn.get(i);
+      GroupState previousGroup = previous != null ? previous.groups.get(i) : null;
       ImmutableList<CurveParameterSize> orderGroup = toOrder(groupDefn);
       ImmutableList<CurveParameterSize> orderPrevAndGroup = ImmutableList.<CurveParameterSize>builder()
           .addAll(orderPrev)
           .addAll(orderGroup)
           .build();
-
-      // calibrate
       RatesProviderGenerator providerGenerator = ImmutableRatesProviderGenerator.of(providerCombined, groupDefn, refData);
-      DoubleArray calibratedGroupParams = calibrateGroup(providerGenerator, trades, initialGuesses, orderGroup);
-      ImmutableRatesProvider calibratedProvider = providerGenerator.generate(calibratedGroupParams);
-
-      // use calibration to build Jacobian matrices
-      if (groupDefn.isComputeJacobian()) {
-        jacobians = updateJacobiansForGroup(
-            calibratedProvider, trades, orderGroup, orderPrev, orderPrevAndGroup, jacobians);
-      }
-      ImmutableMap<CurveName, DoubleArray> sensitivityToMarketQuote = ImmutableMap.of();
-      if (groupDefn.isComputePvSensitivityToMarketQuote()) {
-        ImmutableRatesProvider providerWithJacobian = providerGenerator.generate(calibratedGroupParams, jacobians);
-        sensitivityToMarketQuote = sensitivityToMarketQuoteForGroup(providerWithJacobian, trades, orderGroup);
-      }
+      ImmutableMap<MarketDataId<?>, Object> quotes = cache != null ? quotes(groupDefn, marketData) : ImmutableMap.of();
+
+      // the previous result is valid if the quotes of this group and all previous groups are unchanged
+      reusable = reusable && previousGroup.quotes.equals(quotes);
+      GroupState groupState = reusable ?
+          previousGroup :
+          calibrateGroup(groupDefn, providerGenerator, orderGroup, orderPrev, orderPrevAndGroup, jacobians,
+              quotes, previousGroup, marketData, refData);
+      groupStates.add(groupState);
+      jacobians = groupState.jacobians;
       orderPrev = orderPrevAndGroup;
 
       // use Jacobians to build output curves
-      providerCombined = providerGenerator.generate(calibratedGroupParams, jacobians, sensitivityToMarketQuote);
+      providerCombined = providerGenerator.generate(
+          groupState.parameters, jacobians, groupState.sensitivityToMarketQuote);
+    }
+    if (cache != null) {
+      cache.put(allGroupsDefn, new CalibrationState(knownData, refData, settings, groupStates));
     }
     // return the calibrated provider
     return providerCombined;
   }
 
+  // calibrates a single group, building the Jacobian matrices and sensitivities
+  private GroupState calibrateGroup(
+      CurveGroupDefinition groupDefn,
+      RatesProviderGenerator providerGenerator,
+      ImmutableList<CurveParameterSize> orderGroup,
+      ImmutableList<CurveParameterSize> orderPrev,
+      ImmutableList<CurveParameterSize> orderPrevAndGroup,
+      ImmutableMap<CurveName, JacobianCalibrationMatrix> jacobiansPrev,
+      ImmutableMap<MarketDataId<?>, Object> quotes,
+      GroupState previousGroup,
+      MarketData marketData,
+      ReferenceData refData) {
+
+    // combine all data in the group into flat lists
+    ImmutableList<ResolvedTrade> trades = groupDefn.resolvedTrades(marketData, refData);
+    ImmutableList<Double> initialGuesses = groupDefn.initialGuesses(marketData);
+
+    // calibrate
+    CalibrationDerivativeRecorder derivativeCalculator =
+        new CalibrationDerivativeRecorder(new CalibrationDerivative(trades, measures, providerGenerator, orderGroup));
+    DoubleArray calibratedGroupParams =
+        calibrateGroup(providerGenerator, trades, initialGuesses, derivativeCalculator, previousGroup);
+    ImmutableRatesProvider calibratedProvider = providerGenerator.generate(calibratedGroupParams);
+    // the root finder only calculates the derivative at its start, so it is calculated again at the solution
+    DoubleMatrix solverJacobian = cache != null ? derivativeCalculator.derivativeAt(calibratedGroupParams) : null;
+
+    // use calibration to build Jacobian matrices
+    ImmutableMap<CurveName, JacobianCalibrationMatrix> jacobians = jacobiansPrev;
+    if (groupDefn.isComputeJacobian()) {
+      jacobians = updateJacobiansForGroup(
+          calibratedProvider, trades, orderGroup, orderPrev, orderPrevAndGroup, jacobiansPrev);
+    }
+    ImmutableMap<CurveName, DoubleArray> sensitivityToMarketQuote = ImmutableMap.of();
+    if (groupDefn.isComputePvSensitivityToMarketQuote()) {
+      ImmutableRatesProvider providerWithJacobian = providerGenerator.generate(calibratedGroupParams, jacobians);
+      sensitivityToMarketQuote = sensitivityToMarketQuoteForGroup(providerWithJacobian, trades, orderGroup);
+    }
+    return new GroupState(
+        quotes, calibratedGroupParams, solverJacobian, jacobians, sensitivityToMarketQuote);
+  }
+
   // converts a definition to the curve order list
   private static ImmutableList<CurveParameterSize> toOrder(CurveGroupDefinition groupDefn) {
     return groupDefn.getCurveDefinitions().stream().map(def -> def.toCurveParameterSize()).collect(toImmutableList());
   }
 
   //-------------------------------------------------------------------------
-  // calibrates a single group
+  // calibrates a single group, starting from the previous result if available
   private DoubleArray calibrateGroup(
       RatesProviderGenerator providerGenerator,
       ImmutableList<ResolvedTrade> trades,
       ImmutableList<Double> initialGuesses,
-      ImmutableList<CurveParameterSize> curveOrder) {
+      CalibrationDerivativeRecorder derivativeCalculator,
+      GroupState previousGroup) {
 
     // setup for calibration
     Function<DoubleArray, DoubleArray> valueCalculator = new CalibrationValue(trades, measures, providerGenerator);
-    Function<DoubleArray, DoubleMatrix> derivativeCalculator =
-        new CalibrationDerivative(trades, measures, providerGenerator, curveOrder);
 
-    // calibrate
+    // calibrate, starting from the previous solution if possible
+    if (previousGroup != null && previousGroup.parameters.size() == initialGuesses.size()) {
+      try {
+        derivativeCalculator.seed(previousGroup.parameters, previousGroup.solverJacobian);
+        return rootFinder.getRoot(valueCalculator, derivativeCalculator, previousGroup.parameters);
+      } catch (RuntimeException ex) {
+        // fall back to the initial guesses of the definition
+        derivativeCalculator.seed(null, null);
+      }
+    }
     DoubleArray initGuessMatrix = DoubleArray.copyOf(initialGuesses);
     return rootFinder.getRoot(valueCalculator, derivativeCalculator, initGuessMatrix);
   }
 
+  // the quotes used by the nodes of the group, including FX rates
+  private static ImmutableMap<MarketDataId<?>, Object> quotes(CurveGroupDefinition groupDefn, MarketData marketData) {
+    Map<MarketDataId<?>, Object> quotes = new HashMap<>();
+    for (NodalCurveDefinition curveDefn : groupDefn.getCurveDefinitions()) {
+      for (CurveNode node : curveDefn.getNodes()) {
+        for (MarketDataId<?> id : node.requirements()) {
+          marketData.findValue(id).ifPresent(value -> quotes.put(id, value));
+        }
+      }
+    }
+    return ImmutableMap.copyOf(quotes);
+  }
+
   //-------------------------------------------------------------------------
   // calculates the Jacobian and builds the result, called once per group
   // this uses, but does not alter, data from previous groups
@@ -351,13 +473,16 @@ public final class CurveCalibrator {
       ImmutableList<CurveParameterSize> orderGroup) {
 
     Builder<CurveName, DoubleArray> mqsGroup = new Builder<>();
+    Map<MarketDataName<?>, Integer> curveOffsets = CalibrationMeasures.curveOffsets(orderGroup);
+    double[] mqsNode = new double[trades.size()];
     int nodeIndex = 0;
     for (CurveParameterSize cps : orderGroup) {
       int nbParameters = cps.getParameterCount();
       double[] mqsCurve = new double[nbParameters];
       for (int looptrade = 0; looptrade < nbParameters; looptrade++) {
-        DoubleArray mqsNode = pvMeasures.derivative(trades.get(nodeIndex), provider, orderGroup);
-        mqsCurve[looptrade] = mqsNode.get(nodeIndex);
+        Arrays.fill(mqsNode, 0d);
+        pvMeasures.derivative(trades.get(nodeIndex), provider, curveOffsets, mqsNode);
+        mqsCurve[looptrade] = mqsNode[nodeIndex];
         nodeIndex++;
       }
       mqsGroup.put(cps.getName(), DoubleArray.ofUnsafe(mqsCurve));
@@ -372,10 +497,12 @@ public final class CurveCalibrator {
       ImmutableList<CurveParameterSize> orderAll,
       int totalParamsAll) {
 
-    return DoubleMatrix.ofArrayObjects(
-        trades.size(),
-        totalParamsAll,
-        i -> measures.derivative(trades.get(i), provider, orderAll));
+    Map<MarketDataName<?>, Integer> curveOffsets = CalibrationMeasures.curveOffsets(orderAll);
+    double[][] derivatives = new double[trades.size()][totalParamsAll];
+    for (int i = 0; i < trades.size(); i++) {
+      measures.derivative(trades.get(i), provider, curveOffsets, derivatives[i]);
+    }
+    return DoubleMatrix.ofUnsafe(derivatives);
   }
 
   // jacobian direct, for the current group
@@ -442,6 +569,52 @@ public final class CurveCalibrator {
     return (DoubleMatrix) MATRIX_ALGEBRA.multiply(pDpPreviousMatrix, transitionMatrix);
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the derivative, recording the last result and its position.
+   * <p>
+   * When seeded, the first request for the derivative at the seed position returns the seed matrix.
+   */
+  private static final class CalibrationDerivativeRecorder implements Function<DoubleArray, DoubleMatrix> {
+
+    /** The underlying derivative function. */
+    private final Function<DoubleArray, DoubleMatrix> underlying;
+    /** The seed position, null if not seeded. */
+    private DoubleArray seedPosition;
+    /** The seed derivative, null if not seeded. */
+    private DoubleMatrix seedDerivative;
+    /** The position of the last derivative, null if not yet calculated. */
+    private DoubleArray lastPosition;
+    /** The last derivative, null if not yet calculated. */
+    private DoubleMatrix last;
+
+    private CalibrationDerivativeRecorder(Function<DoubleArray, DoubleMatrix> underlying) {
+      this.underlying = underlying;
+    }
+
+    private void seed(DoubleArray position, DoubleMatrix derivative) {
+      this.seedPosition = position;
+      this.seedDerivative = derivative;
+    }
+
+    @Override
+    public DoubleMatrix apply(DoubleArray x) {
+      if (seedDerivative != null && x.equals(seedPosition)) {
+        last = seedDerivative;
+        seedDerivative = null;
+      } else {
+        last = underlying.apply(x);
+      }
+      lastPosition = x;
+      return last;
+    }
+
+    // the derivative at the position, calculated unless it was the last requested
+    private DoubleMatrix derivativeAt(DoubleArray x) {
+      return last != null && x.equals(lastPosition) ? last : underlying.apply(x);
+    }
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public String toString() {
@@ -5,6 +5,7 @@
  */
 package com.opengamma.strata.pricer.curve;
 
+import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.ToDoubleBiFunction;
 
@@ -157,6 +158,11 @@ public class MarketQuoteMeasure<T extends ResolvedTrade>
     return provider.parameterSensitivity(pts);
   }
 
+  @Override
+  public Optional<PointSensitivities> pointSensitivities(T trade, RatesProvider provider) {
+    return Optional.of(sensitivityFn.apply(trade, provider));
+  }
+
   //-------------------------------------------------------------------------
   @Override
   public String toString() {
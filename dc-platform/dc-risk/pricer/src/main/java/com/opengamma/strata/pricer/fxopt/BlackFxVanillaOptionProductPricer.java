@@ -5,6 +5,10 @@
  */
 package com.opengamma.strata.pricer.fxopt;
 
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
 import com.opengamma.strata.basics.currency.CurrencyPair;
 import com.opengamma.strata.basics.currency.FxRate;
@@ -103,6 +107,81 @@ public class BlackFxVanillaOptionProductPricer {
     return CurrencyAmount.of(option.getCounterCurrency(), signedNotional(option) * price);
   }
 
+  /**
+   * Calculates the present value of several foreign exchange vanilla option products.
+   * <p>
+   * The result contains the present value of each option, in the same order as the options,
+   * as computed by {@link #presentValue(ResolvedFxVanillaOption, RatesProvider, BlackFxOptionVolatilities)}.
+   * The options that are not expired are priced together by the batch form of the Black formula,
+   * which is faster than pricing the options one by one for a large book of options.
+   * 
+   * @param options  the option products
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the present values of the products
+   */
+  public List<CurrencyAmount> presentValue(
+      List<ResolvedFxVanillaOption> options,
+      RatesProvider ratesProvider,
+      BlackFxOptionVolatilities volatilities) {
+
+    int size = options.size();
+    double[] forwardPrices = new double[size];
+    int[] optionIndex = new int[size];
+    double[] forward = new double[size];
+    double[] strike = new double[size];
+    double[] timeToExpiry = new double[size];
+    double[] volatility = new double[size];
+    boolean[] isCall = new boolean[size];
+    int nOptions = 0;
+    for (int i = 0; i < size; i++) {
+      ResolvedFxVanillaOption option = options.get(i);
+      double time = volatilities.relativeTime(option.getExpiry());
+      if (time < 0d) {
+        continue;
+      }
+      ResolvedFxSingle underlying = option.getUnderlying();
+      CurrencyPair strikePair = underlying.getCurrencyPair();
+      double forwardRate = fxPricer.forwardFxRate(underlying, ratesProvider).fxRate(strikePair);
+      double strikeRate = option.getStrike();
+      if (time == 0d) {
+        forwardPrices[i] = option.getPutCall().isCall() ?
+            Math.max(forwardRate - strikeRate, 0d) :
+            Math.max(0d, strikeRate - forwardRate);
+        continue;
+      }
+      optionIndex[nOptions] = i;
+      forward[nOptions] = forwardRate;
+      strike[nOptions] = strikeRate;
+      timeToExpiry[nOptions] = time;
+      volatility[nOptions] = volatilities.volatility(strikePair, option.getExpiry(), strikeRate, forwardRate);
+      isCall[nOptions] = option.getPutCall().isCall();
+      nOptions++;
+    }
+    if (nOptions > 0) {
+      double[] price = new double[nOptions];
+      BlackFormulaRepository.price(
+          Arrays.copyOf(forward, nOptions),
+          Arrays.copyOf(strike, nOptions),
+          Arrays.copyOf(timeToExpiry, nOptions),
+          Arrays.copyOf(volatility, nOptions),
+          Arrays.copyOf(isCall, nOptions),
+          price);
+      for (int j = 0; j < nOptions; j++) {
+        forwardPrices[optionIndex[j]] = price[j];
+      }
+    }
+    ImmutableList.Builder<CurrencyAmount> builder = ImmutableList.builder();
+    for (int i = 0; i < size; i++) {
+      ResolvedFxVanillaOption option = options.get(i);
+      double discountFactor =
+          ratesProvider.discountFactor(option.getCounterCurrency(), option.getUnderlying().getPaymentDate());
+      double price = discountFactor * forwardPrices[i];
+      builder.add(CurrencyAmount.of(option.getCounterCurrency(), signedNotional(option) * price));
+    }
+    return builder.build();
+  }
+
   // the price without discounting
   private double undiscountedPrice(
       ResolvedFxVanillaOption option,
@@ -5,12 +5,17 @@
  */
 package com.opengamma.strata.pricer.fxopt;
 
-import java.util.function.Function;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.CurrencyPair;
 import com.opengamma.strata.collect.ArgChecker;
-import com.opengamma.strata.collect.tuple.DoublesPair;
+import com.opengamma.strata.collect.tuple.Pair;
 import com.opengamma.strata.pricer.DiscountFactors;
 import com.opengamma.strata.pricer.impl.volatility.local.ImpliedTrinomialTreeLocalVolatilityCalculator;
 import com.opengamma.strata.pricer.rate.RatesProvider;
@@ -68,6 +73,36 @@ public class ImpliedTrinomialTreeFxOptionCalibrator {
     return calibrateTrinomialTree(timeToExpiry, currencyPair, ratesProvider, volatilities);
   }
 
+  /**
+   * Calibrate trinomial trees to Black volatilities by using several vanilla options.
+   * <p>
+   * A single tree is calibrated for each combination of currency pair and expiry,
+   * and is shared between all the options having that currency pair and expiry.
+   * This avoids repeating the calibration, which dominates the cost of pricing on the tree.
+   * 
+   * @param options  the vanilla options
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the trinomial tree data, in the order of the options
+   */
+  public List<RecombiningTrinomialTreeData> calibrateTrinomialTrees(
+      List<ResolvedFxVanillaOption> options,
+      RatesProvider ratesProvider,
+      BlackFxOptionVolatilities volatilities) {
+
+    Map<Pair<CurrencyPair, Double>, RecombiningTrinomialTreeData> trees = new HashMap<>();
+    ImmutableList.Builder<RecombiningTrinomialTreeData> builder = ImmutableList.builder();
+    for (ResolvedFxVanillaOption option : options) {
+      double timeToExpiry = volatilities.relativeTime(option.getExpiry());
+      CurrencyPair currencyPair = option.getUnderlying().getCurrencyPair();
+      RecombiningTrinomialTreeData treeData = trees.computeIfAbsent(
+          Pair.of(currencyPair, timeToExpiry),
+          key -> calibrateTrinomialTree(timeToExpiry, currencyPair, ratesProvider, volatilities));
+      builder.add(treeData);
+    }
+    return builder.build();
+  }
+
   /**
    * Calibrate trinomial tree to Black volatilities.
    * <p>
@@ -95,26 +130,13 @@ public class ImpliedTrinomialTreeFxOptionCalibrator {
     double todayFx = ratesProvider.fxRate(currencyPair);
     DiscountFactors baseDiscountFactors = ratesProvider.discountFactors(ccyBase);
     DiscountFactors counterDiscountFactors = ratesProvider.discountFactors(ccyCounter);
-    Function<Double, Double> interestRate = new Function<Double, Double>() {
-      @Override
-      public Double apply(Double t) {
-        return counterDiscountFactors.zeroRate(t);
-      }
-    };
-    Function<Double, Double> dividendRate = new Function<Double, Double>() {
-      @Override
-      public Double apply(Double t) {
-        return baseDiscountFactors.zeroRate(t);
-      }
-    };
-    Function<DoublesPair, Double> impliedVolSurface = new Function<DoublesPair, Double>() {
-      @Override
-      public Double apply(DoublesPair tk) {
-        double dfBase = baseDiscountFactors.discountFactor(tk.getFirst());
-        double dfCounter = counterDiscountFactors.discountFactor(tk.getFirst());
-        double forward = todayFx * dfBase / dfCounter;
-        return volatilities.volatility(currencyPair, tk.getFirst(), tk.getSecond(), forward);
-      }
+    DoubleUnaryOperator interestRate = counterDiscountFactors::zeroRate;
+    DoubleUnaryOperator dividendRate = baseDiscountFactors::zeroRate;
+    DoubleBinaryOperator impliedVolSurface = (time, strike) -> {
+      double dfBase = baseDiscountFactors.discountFactor(time);
+      double dfCounter = counterDiscountFactors.discountFactor(time);
+      double forward = todayFx * dfBase / dfCounter;
+      return volatilities.volatility(currencyPair, time, strike, forward);
     };
     ImpliedTrinomialTreeLocalVolatilityCalculator localVol =
         new ImpliedTrinomialTreeLocalVolatilityCalculator(nSteps, timeToExpiry);
@@ -5,11 +5,16 @@
  */
 package com.opengamma.strata.pricer.fxopt;
 
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.math.DoubleMath;
 import com.opengamma.strata.basics.currency.Currency;
@@ -190,6 +195,33 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer {
     return CurrencyAmount.of(underlyingOption.getCounterCurrency(), signedNotional(underlyingOption) * price);
   }
 
+  /**
+   * Calculates the present value of several FX barrier option products.
+   * <p>
+   * The present value of each product is the value on the valuation date.
+   * It is expressed in the counter currency.
+   * <p>
+   * The trinomial tree is calibrated once for each currency pair and expiry, 
+   * then shared between the options having that currency pair and expiry.
+   * 
+   * @param options  the option products
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the present values, in the order of the products
+   */
+  public List<CurrencyAmount> presentValue(
+      List<ResolvedFxSingleBarrierOption> options,
+      RatesProvider ratesProvider,
+      BlackFxOptionVolatilities volatilities) {
+
+    List<RecombiningTrinomialTreeData> treeData = calibrateTrinomialTrees(options, ratesProvider, volatilities);
+    ImmutableList.Builder<CurrencyAmount> builder = ImmutableList.builder();
+    for (int i = 0; i < options.size(); ++i) {
+      builder.add(presentValue(options.get(i), ratesProvider, volatilities, treeData.get(i)));
+    }
+    return builder.build();
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Calculates the present value sensitivity of the FX barrier option product.
@@ -263,6 +295,75 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer {
     return result;
   }
 
+  /**
+   * Calculates the present value sensitivity of several FX barrier option products.
+   * <p>
+   * The present value sensitivity of each product is the sensitivity of {@link #presentValue} to
+   * the underlying curve parameters.
+   * <p>
+   * The sensitivity is computed by bump and re-price.
+   * For each bumped curve parameter, the trinomial tree is calibrated once for each currency pair and expiry,
+   * then shared between the options having that currency pair and expiry.
+   * 
+   * @param options  the option products
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the present value sensitivities, in the order of the products
+   */
+  public List<CurrencyParameterSensitivities> presentValueRatesSensitivity(
+      List<ResolvedFxSingleBarrierOption> options,
+      RatesProvider ratesProvider,
+      BlackFxOptionVolatilities volatilities) {
+
+    double shift = 1.0e-5;
+    int nOptions = options.size();
+    List<RecombiningTrinomialTreeData> baseTreeData = calibrateTrinomialTrees(options, ratesProvider, volatilities);
+    CurrencyAmount[] pvBase = new CurrencyAmount[nOptions];
+    CurrencyParameterSensitivities[] result = new CurrencyParameterSensitivities[nOptions];
+    for (int i = 0; i < nOptions; ++i) {
+      pvBase[i] = presentValue(options.get(i), ratesProvider, volatilities, baseTreeData.get(i));
+      result[i] = CurrencyParameterSensitivities.empty();
+    }
+    ImmutableRatesProvider immRatesProvider = ratesProvider.toImmutableRatesProvider();
+    ImmutableMap<Currency, Curve> baseCurves = immRatesProvider.getDiscountCurves();
+
+    for (Entry<Currency, Curve> entry : baseCurves.entrySet()) {
+      List<Integer> indices = new ArrayList<>();
+      List<ResolvedFxSingleBarrierOption> bumpedOptions = new ArrayList<>();
+      for (int i = 0; i < nOptions; ++i) {
+        if (options.get(i).getUnderlyingOption().getUnderlying().getCurrencyPair().contains(entry.getKey())) {
+          indices.add(i);
+          bumpedOptions.add(options.get(i));
+        }
+      }
+      if (indices.isEmpty()) {
+        continue;
+      }
+      Curve curve = entry.getValue();
+      int nParams = curve.getParameterCount();
+      double[][] sensitivity = new double[indices.size()][nParams];
+      for (int j = 0; j < nParams; ++j) {
+        Curve dscBumped = curve.withParameter(j, curve.getParameter(j) + shift);
+        Map<Currency, Curve> mapBumped = new HashMap<>(baseCurves);
+        mapBumped.put(entry.getKey(), dscBumped);
+        ImmutableRatesProvider providerDscBumped = immRatesProvider.toBuilder().discountCurves(mapBumped).build();
+        List<RecombiningTrinomialTreeData> bumpedTreeData =
+            calibrateTrinomialTrees(bumpedOptions, providerDscBumped, volatilities);
+        for (int k = 0; k < indices.size(); ++k) {
+          double pvBumped =
+              presentValue(bumpedOptions.get(k), providerDscBumped, volatilities, bumpedTreeData.get(k)).getAmount();
+          sensitivity[k][j] = (pvBumped - pvBase[indices.get(k)].getAmount()) / shift;
+        }
+      }
+      for (int k = 0; k < indices.size(); ++k) {
+        int index = indices.get(k);
+        result[index] = result[index].combinedWith(
+            curve.createParameterSensitivity(pvBase[index].getCurrency(), DoubleArray.ofUnsafe(sensitivity[k])));
+      }
+    }
+    return ImmutableList.copyOf(result);
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Calculates the currency exposure of the FX barrier option product.
@@ -380,6 +481,18 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer {
   }
 
   //-------------------------------------------------------------------------
+  // calibrates the trees of the underlying options, once for each currency pair and expiry
+  private List<RecombiningTrinomialTreeData> calibrateTrinomialTrees(
+      List<ResolvedFxSingleBarrierOption> options,
+      RatesProvider ratesProvider,
+      BlackFxOptionVolatilities volatilities) {
+
+    List<ResolvedFxVanillaOption> underlyingOptions = options.stream()
+        .map(ResolvedFxSingleBarrierOption::getUnderlyingOption)
+        .collect(toImmutableList());
+    return calibrator.calibrateTrinomialTrees(underlyingOptions, ratesProvider, volatilities);
+  }
+
   private void validateData(ResolvedFxSingleBarrierOption option,
       RatesProvider ratesProvider,
       BlackFxOptionVolatilities volatilities,
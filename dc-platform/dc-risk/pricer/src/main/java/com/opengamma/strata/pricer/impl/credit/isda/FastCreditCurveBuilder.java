@@ -11,6 +11,7 @@ import static com.opengamma.strata.pricer.impl.credit.isda.DoublesScheduleGenera
 import static com.opengamma.strata.pricer.impl.credit.isda.DoublesScheduleGenerator.truncateSetInclusive;
 
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.math.MathException;
@@ -75,31 +76,111 @@ public class FastCreditCurveBuilder extends IsdaCompliantCreditCurveBuilder {
       IsdaCompliantYieldCurve yieldCurve,
       double[] pointsUpfront) {
 
-    ArgChecker.noNulls(cds, "null CDSs");
     ArgChecker.notEmpty(premiums, "empty fractionalSpreads");
     ArgChecker.notEmpty(pointsUpfront, "empty pointsUpfront");
     ArgChecker.notNull(yieldCurve, "null yieldCurve");
+    double[] t = getKnots(cds);
     int n = cds.length;
     ArgChecker.isTrue(n == premiums.length, "Number of CDSs does not match number of spreads");
     ArgChecker.isTrue(n == pointsUpfront.length, "Number of CDSs does not match number of pointsUpfront");
+
+    Pricer[] pricers = new Pricer[n];
+    for (int i = 0; i < n; i++) {
+      pricers[i] = new Pricer(cds[i], yieldCurve, t, premiums[i], pointsUpfront[i]);
+    }
+    return bootstrap(cds, premiums, pointsUpfront, t, pricers);
+  }
+
+  /**
+   * Bootstraps the credit curves of several reference entities from the same calibration CDSs quoted with par spreads.
+   * <p>
+   * The entities share the calibration CDSs and the yield curve, but each has its own par spreads and recovery rate.
+   * The integration points and discount factors of the premium and protection legs only depend on the
+   * calibration CDSs and the yield curve, so they are computed once and shared by all the entities.
+   * The curves are then bootstrapped in parallel.
+   * <p>
+   * The curve of each entity is the same as that returned by {@link #calibrateCreditCurve(CdsAnalytic[], double[],
+   * IsdaCompliantYieldCurve)} with the calibration CDSs at the recovery rate of the entity.
+   *
+   * @param calibrationCDSs  the market CDSs, the recovery rate of these is not used
+   * @param parSpreads  the par spreads of the market CDSs for each entity
+   * @param recoveryRates  the recovery rate of each entity
+   * @param yieldCurve  the yield (or discount) curve shared by all the entities
+   * @return the credit curve of each entity, in the order of the par spreads
+   */
+  public IsdaCompliantCreditCurve[] calibrateCreditCurves(
+      CdsAnalytic[] calibrationCDSs,
+      double[][] parSpreads,
+      double[] recoveryRates,
+      IsdaCompliantYieldCurve yieldCurve) {
+
+    ArgChecker.notNull(parSpreads, "null parSpreads");
+    ArgChecker.notNull(recoveryRates, "null recoveryRates");
+    ArgChecker.notNull(yieldCurve, "null yieldCurve");
+    double[] t = getKnots(calibrationCDSs);
+    int n = calibrationCDSs.length;
+    int nNames = parSpreads.length;
+    ArgChecker.isTrue(nNames == recoveryRates.length, "Number of spread sets does not match number of recoveryRates");
+    for (int j = 0; j < nNames; j++) {
+      ArgChecker.notNull(parSpreads[j], "null parSpreads");
+      ArgChecker.isTrue(n == parSpreads[j].length, "Number of CDSs does not match number of spreads");
+    }
+
+    // the grids are built with zero spread, the quote of each entity is set when it is bootstrapped
+    Pricer[] grids = new Pricer[n];
+    for (int i = 0; i < n; i++) {
+      grids[i] = new Pricer(calibrationCDSs[i], yieldCurve, t, 0d, 0d);
+    }
+    double[] pointsUpfront = new double[n];
+    return IntStream.range(0, nNames)
+        .parallel()
+        .mapToObj(j -> {
+          CdsAnalytic[] cds = new CdsAnalytic[n];
+          Pricer[] pricers = new Pricer[n];
+          for (int i = 0; i < n; i++) {
+            cds[i] = calibrationCDSs[i].withRecoveryRate(recoveryRates[j]);
+            pricers[i] = grids[i].withQuote(cds[i], parSpreads[j][i], 0d);
+          }
+          return bootstrap(cds, parSpreads[j], pointsUpfront, t, pricers);
+        })
+        .toArray(IsdaCompliantCreditCurve[]::new);
+  }
+
+  // checks the calibration CDSs and returns the knots of the credit curve
+  private static double[] getKnots(CdsAnalytic[] cds) {
+    ArgChecker.noNulls(cds, "null CDSs");
+    ArgChecker.isTrue(cds.length > 0, "empty CDSs");
+    int n = cds.length;
     double proStart = cds[0].getEffectiveProtectionStart();
     for (int i = 1; i < n; i++) {
       ArgChecker.isTrue(proStart == cds[i].getEffectiveProtectionStart(), "all CDSs must has same protection start");
       ArgChecker.isTrue(cds[i].getProtectionEnd() > cds[i - 1].getProtectionEnd(), "protection end must be ascending");
     }
+    double[] t = new double[n];
+    for (int i = 0; i < n; i++) {
+      t[i] = cds[i].getProtectionEnd();
+    }
+    return t;
+  }
+
+  // bootstraps the credit curve, making each market CDS in turn have zero price
+  private IsdaCompliantCreditCurve bootstrap(
+      CdsAnalytic[] cds,
+      double[] premiums,
+      double[] pointsUpfront,
+      double[] t,
+      Pricer[] pricers) {
 
     // use continuous premiums as initial guess
+    int n = cds.length;
     double[] guess = new double[n];
-    double[] t = new double[n];
     for (int i = 0; i < n; i++) {
-      t[i] = cds[i].getProtectionEnd();
       guess[i] = (premiums[i] + pointsUpfront[i] / t[i]) / cds[i].getLGD();
     }
 
     IsdaCompliantCreditCurve creditCurve = new IsdaCompliantCreditCurve(t, guess);
     for (int i = 0; i < n; i++) {
-      Pricer pricer = new Pricer(cds[i], yieldCurve, t, premiums[i], pointsUpfront[i]);
-      Function<Double, Double> func = pricer.getPointFunction(i, creditCurve);
+      Function<Double, Double> func = pricers[i].getPointFunction(i, creditCurve);
 
       switch (getArbHanding()) {
         case Ignore: {
@@ -266,6 +347,41 @@ public class FastCreditCurveBuilder extends IsdaCompliantCreditCurveBuilder {
 
     }
 
+    // restricted copy constructor, sharing the integration points and discount factors of the grid
+    private Pricer(Pricer grid, CdsAnalytic cds, double fractionalSpread, double pointsUpfront) {
+      _cds = cds;
+      _fracSpread = fractionalSpread;
+      _pointsUpfront = pointsUpfront;
+      _valuationDF = grid._valuationDF;
+      _lgdDF = cds.getLGD() / _valuationDF;
+      _nProPoints = grid._nProPoints;
+      _proLegIntPoints = grid._proLegIntPoints;
+      _proYieldCurveRT = grid._proYieldCurveRT;
+      _proDF = grid._proDF;
+      _nPayments = grid._nPayments;
+      _paymentDF = grid._paymentDF;
+      _premLegIntPoints = grid._premLegIntPoints;
+      _premDF = grid._premDF;
+      _rt = grid._rt;
+      _premDt = grid._premDt;
+      _accRate = grid._accRate;
+      _offsetAccStart = grid._offsetAccStart;
+    }
+
+    /**
+     * Returns a pricer with the same integration grid for a CDS with the same schedule but different quote.
+     * <p>
+     * The CDS must only differ from the one of this pricer by its recovery rate.
+     *
+     * @param cds  the CDS, with the same schedule as the CDS of this pricer
+     * @param fractionalSpread  the fractional spread of the CDS
+     * @param pointsUpfront  the points up-front of the CDS
+     * @return the pricer
+     */
+    public Pricer withQuote(CdsAnalytic cds, double fractionalSpread, double pointsUpfront) {
+      return new Pricer(this, cds, fractionalSpread, pointsUpfront);
+    }
+
     public Function<Double, Double> getPointFunction(int index, IsdaCompliantCreditCurve creditCurve) {
       return new Function<Double, Double>() {
         @Override
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.currency.CurrencyPair;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.pricer.fxopt.BlackFxOptionVolatilities;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+import com.opengamma.strata.product.fx.ResolvedFxSingle;
+import com.opengamma.strata.product.fxopt.ResolvedFxVanillaOption;
+
+/**
+ * Monte Carlo pricer for FX average rate options in the Black model.
+ * <p>
+ * An average rate option, or Asian option, is defined by a vanilla option whose payoff uses the
+ * arithmetic average of the FX rate over a list of fixing dates instead of the FX rate at expiry.
+ * The strike, notional, payment date and long/short flag are those of the vanilla option.
+ * The paths of the FX rate are generated by {@link BlackFxPathGenerator}.
+ * <p>
+ * When the only fixing date is the expiry, the price converges to that of the vanilla option.
+ */
+public class BlackFxMonteCarloAverageRateOptionPricer {
+
+  /**
+   * The engine.
+   */
+  private final MonteCarloEngine engine;
+
+  /**
+   * Creates an instance.
+   *
+   * @param engine  the Monte Carlo engine
+   */
+  public BlackFxMonteCarloAverageRateOptionPricer(MonteCarloEngine engine) {
+    this.engine = ArgChecker.notNull(engine, "engine");
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the price of the average rate option.
+   * <p>
+   * The price is the value on the valuation date for one unit of the base currency, expressed in the
+   * counter currency. The price does not take into account the long/short flag.
+   *
+   * @param option  the vanilla option defining the strike, notional and payment
+   * @param fixingDateTimes  the fixing date-times of the average, after the valuation date and in increasing order
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the result of the simulation
+   */
+  public MonteCarloResult price(
+      ResolvedFxVanillaOption option,
+      List<ZonedDateTime> fixingDateTimes,
+      RatesProvider ratesProvider,
+      BlackFxOptionVolatilities volatilities) {
+
+    ArgChecker.notNull(option, "option");
+    ResolvedFxSingle underlying = option.getUnderlying();
+    CurrencyPair currencyPair = underlying.getCurrencyPair();
+    double strike = option.getStrike();
+    double putCall = option.getPutCall().isCall() ? 1d : -1d;
+    BlackFxPathGenerator paths =
+        BlackFxPathGenerator.of(currencyPair, fixingDateTimes, strike, ratesProvider, volatilities);
+    MonteCarloResult undiscounted = engine.price(paths, path -> {
+      double sum = 0d;
+      for (double rate : path) {
+        sum += rate;
+      }
+      return Math.max(putCall * (sum / path.length - strike), 0d);
+    });
+    double discountFactor = ratesProvider.discountFactor(option.getCounterCurrency(), underlying.getPaymentDate());
+    return undiscounted.multipliedBy(discountFactor);
+  }
+
+  /**
+   * Calculates the present value of the average rate option.
+   * <p>
+   * The present value is expressed in the counter currency.
+   *
+   * @param option  the vanilla option defining the strike, notional and payment
+   * @param fixingDateTimes  the fixing date-times of the average, after the valuation date and in increasing order
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the present value
+   */
+  public CurrencyAmount presentValue(
+      ResolvedFxVanillaOption option,
+      List<ZonedDateTime> fixingDateTimes,
+      RatesProvider ratesProvider,
+      BlackFxOptionVolatilities volatilities) {
+
+    double price = price(option, fixingDateTimes, ratesProvider, volatilities).getValue();
+    return CurrencyAmount.of(option.getCounterCurrency(), signedNotional(option) * price);
+  }
+
+  // signed notional amount
+  private double signedNotional(ResolvedFxVanillaOption option) {
+    return (option.getLongShort().isLong() ? 1d : -1d) *
+        Math.abs(option.getUnderlying().getBaseCurrencyPayment().getAmount());
+  }
+
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import com.opengamma.strata.basics.currency.CurrencyPair;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.pricer.fx.FxForwardRates;
+import com.opengamma.strata.pricer.fxopt.BlackFxOptionVolatilities;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+
+/**
+ * Generator of the paths of an FX rate in the Black model.
+ * <p>
+ * The path values are the FX rate of the currency pair on each fixing date, in order.
+ * The FX rate is log-normal, with expected value equal to the forward FX rate of the fixing date.
+ * The variance to each fixing date is the Black implied variance at the strike, thus the
+ * volatility of each period between fixing dates is the forward volatility implied by the term structure.
+ * The implied variance is floored so that it does not decrease between fixing dates.
+ * <p>
+ * The paths are consistent with the Black price of a vanilla option on each fixing date at the strike.
+ */
+public final class BlackFxPathGenerator implements MonteCarloPathGenerator {
+
+  /**
+   * The forward FX rate of each fixing date.
+   */
+  private final double[] forwards;
+  /**
+   * The standard deviation of the increment of the log FX rate to each fixing date.
+   */
+  private final double[] incrementStdDev;
+  /**
+   * The adjustment of the log FX rate on each fixing date, so that the expected rate is the forward.
+   */
+  private final double[] drifts;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance for the fixing dates of a currency pair.
+   * <p>
+   * The fixing dates must be after the valuation date and in increasing order.
+   *
+   * @param currencyPair  the currency pair
+   * @param fixingDateTimes  the fixing date-times
+   * @param strike  the strike at which the volatilities are taken
+   * @param ratesProvider  the rates provider
+   * @param volatilities  the Black volatility provider
+   * @return the path generator
+   */
+  public static BlackFxPathGenerator of(
+      CurrencyPair currencyPair,
+      List<ZonedDateTime> fixingDateTimes,
+      double strike,
+      RatesProvider ratesProvider,
+      BlackFxOptionVolatilities volatilities) {
+
+    ArgChecker.notNull(currencyPair, "currencyPair");
+    ArgChecker.notEmpty(fixingDateTimes, "fixingDateTimes");
+    int fixingCount = fixingDateTimes.size();
+    FxForwardRates fxForwardRates = ratesProvider.fxForwardRates(currencyPair);
+    double[] forwards = new double[fixingCount];
+    double[] variances = new double[fixingCount];
+    double previousTime = 0d;
+    double previousVariance = 0d;
+    for (int i = 0; i < fixingCount; i++) {
+      ZonedDateTime fixingDateTime = fixingDateTimes.get(i);
+      double time = volatilities.relativeTime(fixingDateTime);
+      ArgChecker.isTrue(time > previousTime,
+          "Fixing dates must be after the valuation date and in increasing order");
+      forwards[i] = fxForwardRates.rate(currencyPair.getBase(), fixingDateTime.toLocalDate());
+      double volatility = volatilities.volatility(currencyPair, time, strike, forwards[i]);
+      variances[i] = Math.max(volatility * volatility * time, previousVariance);
+      previousTime = time;
+      previousVariance = variances[i];
+    }
+    return new BlackFxPathGenerator(forwards, variances);
+  }
+
+  // restricted constructor
+  private BlackFxPathGenerator(double[] forwards, double[] variances) {
+    this.forwards = forwards;
+    this.incrementStdDev = new double[variances.length];
+    this.drifts = new double[variances.length];
+    double previousVariance = 0d;
+    for (int i = 0; i < variances.length; i++) {
+      incrementStdDev[i] = Math.sqrt(variances[i] - previousVariance);
+      drifts[i] = -0.5d * variances[i];
+      previousVariance = variances[i];
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public int getDimension() {
+    return forwards.length;
+  }
+
+  @Override
+  public int getPathSize() {
+    return forwards.length;
+  }
+
+  @Override
+  public void generate(double[] normals, double[] path) {
+    double brownian = 0d;
+    for (int i = 0; i < forwards.length; i++) {
+      brownian += incrementStdDev[i] * normals[i];
+      path[i] = forwards[i] * Math.exp(drifts[i] + brownian);
+    }
+  }
+
+}
@@ -0,0 +1,349 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.pricer.impl.rate.swap.CashFlowEquivalentCalculator;
+import com.opengamma.strata.pricer.model.HullWhiteOneFactorPiecewiseConstantParametersProvider;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+import com.opengamma.strata.product.common.LongShort;
+import com.opengamma.strata.product.common.SettlementType;
+import com.opengamma.strata.product.swap.NotionalExchange;
+import com.opengamma.strata.product.swap.ResolvedSwapLeg;
+import com.opengamma.strata.product.swap.SwapPaymentEvent;
+import com.opengamma.strata.product.swaption.ResolvedSwaption;
+
+/**
+ * Monte Carlo pricer for Bermudan swaptions in the Hull-White one factor model with piecewise constant volatility.
+ * <p>
+ * The Bermudan swaption is represented by the list of European swaptions with physical settlement that
+ * can be exercised, one for each exercise date, in order of expiry. Typically the underlying swaps
+ * all end on the same date. At most one of the swaptions is exercised.
+ * <p>
+ * The model is simulated exactly at the exercise dates, under the measure associated with the zero-coupon bond
+ * maturing on the last payment date. The value of each underlying swap on its exercise date is computed
+ * from the cash flow equivalent of the swap, using the explicit formula for bond prices in the model.
+ * The exercise decision uses the regression of the continuation value on the exercise value,
+ * as described by Longstaff and Schwartz, and the result is the mean value of the exercise policy over the paths.
+ * <p>
+ * Reference: Henrard, M. "Bermudan Swaptions in Gaussian HJM One-Factor Model: Analytical and Numerical Approaches".
+ * SSRN, October 2008. Available at SSRN: http://ssrn.com/abstract=1287982
+ * <p>
+ * Reference: Longstaff, F. and Schwartz, E. "Valuing American options by simulation: a simple least-squares approach".
+ * Review of Financial Studies, 2001, 14(1), 113-147.
+ */
+public class HullWhiteMonteCarloBermudanSwaptionPricer {
+
+  /**
+   * The number of regression basis functions.
+   */
+  private static final int BASIS_SIZE = 3;
+
+  /**
+   * The engine.
+   */
+  private final MonteCarloEngine engine;
+
+  /**
+   * Creates an instance.
+   *
+   * @param engine  the Monte Carlo engine
+   */
+  public HullWhiteMonteCarloBermudanSwaptionPricer(MonteCarloEngine engine) {
+    this.engine = ArgChecker.notNull(engine, "engine");
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Calculates the present value of the Bermudan swaption.
+   * <p>
+   * The result is expressed using the currency of the swaptions.
+   *
+   * @param swaptions  the European swaptions for each exercise date, in order of expiry
+   * @param ratesProvider  the rates provider
+   * @param hwProvider  the Hull-White model parameter provider
+   * @return the present value
+   */
+  public CurrencyAmount presentValue(
+      List<ResolvedSwaption> swaptions,
+      RatesProvider ratesProvider,
+      HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider) {
+
+    validate(swaptions, ratesProvider, hwProvider);
+    Currency currency = swaptions.get(0).getCurrency();
+    return CurrencyAmount.of(currency, price(swaptions, ratesProvider, hwProvider).getValue());
+  }
+
+  /**
+   * Calculates the present value of the Bermudan swaption, with the standard error of the simulation.
+   * <p>
+   * The value is expressed in the currency of the swaptions.
+   *
+   * @param swaptions  the European swaptions for each exercise date, in order of expiry
+   * @param ratesProvider  the rates provider
+   * @param hwProvider  the Hull-White model parameter provider
+   * @return the result of the simulation
+   */
+  public MonteCarloResult price(
+      List<ResolvedSwaption> swaptions,
+      RatesProvider ratesProvider,
+      HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider) {
+
+    validate(swaptions, ratesProvider, hwProvider);
+    LocalDate valuationDate = ratesProvider.getValuationDate();
+    List<ResolvedSwaption> live = swaptions.stream()
+        .filter(swaption -> !swaption.getExpiryDate().isBefore(valuationDate))
+        .collect(toImmutableList());
+    if (live.isEmpty()) { // all exercise dates have passed
+      return MonteCarloResult.of(0d, 0d, 0);
+    }
+    Currency currency = live.get(0).getCurrency();
+    List<List<NotionalExchange>> cashFlows = live.stream()
+        .map(swaption -> CashFlowEquivalentCalculator.cashFlowEquivalentSwap(swaption.getUnderlying(), ratesProvider))
+        .map(HullWhiteMonteCarloBermudanSwaptionPricer::payments)
+        .collect(toImmutableList());
+    LocalDate numeraireDate = cashFlows.stream()
+        .flatMap(List::stream)
+        .map(NotionalExchange::getPaymentDate)
+        .max(LocalDate::compareTo)
+        .get();
+    double numeraireDf = ratesProvider.discountFactor(currency, numeraireDate);
+    // the deflated amounts and bond volatilities of the cash flows of each exercise date
+    int exerciseCount = live.size();
+    double[][] amounts = new double[exerciseCount][];
+    double[][] alphas = new double[exerciseCount][];
+    double[] stdDev = new double[exerciseCount];
+    for (int k = 0; k < exerciseCount; k++) {
+      LocalDate expiryDate = live.get(k).getExpiryDate();
+      List<NotionalExchange> payments = cashFlows.get(k);
+      amounts[k] = new double[payments.size()];
+      alphas[k] = new double[payments.size()];
+      for (int u = 0; u < payments.size(); u++) {
+        NotionalExchange payment = payments.get(u);
+        LocalDate paymentDate = payment.getPaymentDate();
+        amounts[k][u] = payment.getPaymentAmount().getAmount() *
+            ratesProvider.discountFactor(currency, paymentDate) / numeraireDf;
+        alphas[k][u] = hwProvider.alpha(valuationDate, expiryDate, numeraireDate, paymentDate);
+      }
+      stdDev[k] = hwProvider.getModel().beta(hwProvider.getParameters(), 0d, hwProvider.relativeTime(expiryDate));
+    }
+    double[][] exerciseValues = engine.simulate(new ExerciseValueGenerator(amounts, alphas, stdDev));
+    double[] pathValues = exercisePolicyValues(exerciseValues);
+    double sign = live.get(0).getLongShort().isLong() ? 1d : -1d;
+    return engine.result(pathValues).multipliedBy(numeraireDf * sign);
+  }
+
+  //-------------------------------------------------------------------------
+  // validates the swaptions
+  private void validate(
+      List<ResolvedSwaption> swaptions,
+      RatesProvider ratesProvider,
+      HullWhiteOneFactorPiecewiseConstantParametersProvider hwProvider) {
+
+    ArgChecker.notEmpty(swaptions, "swaptions");
+    ArgChecker.isTrue(hwProvider.getValuationDateTime().toLocalDate().equals(ratesProvider.getValuationDate()),
+        "Hull-White model data and rate data should be for the same date");
+    ResolvedSwaption first = swaptions.get(0);
+    Currency currency = first.getCurrency();
+    LongShort longShort = first.getLongShort();
+    LocalDate previousExpiry = null;
+    for (ResolvedSwaption swaption : swaptions) {
+      ArgChecker.isFalse(swaption.getUnderlying().isCrossCurrency(), "underlying swap should be single currency");
+      ArgChecker.isTrue(swaption.getSwaptionSettlement().getSettlementType().equals(SettlementType.PHYSICAL),
+          "swaption should be physical settlement");
+      ArgChecker.isTrue(swaption.getCurrency().equals(currency), "swaptions should have the same currency");
+      ArgChecker.isTrue(swaption.getLongShort().equals(longShort), "swaptions should have the same long/short flag");
+      ArgChecker.isTrue(previousExpiry == null || swaption.getExpiryDate().isAfter(previousExpiry),
+          "swaptions should be in increasing order of expiry");
+      previousExpiry = swaption.getExpiryDate();
+    }
+  }
+
+  // the payments of the cash flow equivalent
+  private static List<NotionalExchange> payments(ResolvedSwapLeg cashFlowEquivalent) {
+    List<SwapPaymentEvent> events = cashFlowEquivalent.getPaymentEvents();
+    return events.stream()
+        .map(NotionalExchange.class::cast)
+        .collect(toImmutableList());
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Computes the value of the exercise policy on each path, in numeraire units.
+   * <p>
+   * The policy is obtained by backward induction. At each exercise date except the last,
+   * the value of continuing is estimated by regressing the realized value of continuing on the
+   * exercise value, using the paths in the money. The option is exercised when the exercise value
+   * exceeds the estimated value of continuing.
+   *
+   * @param exerciseValues  the exercise value by exercise date and path, in numeraire units
+   * @return the value of the exercise policy on each path, in numeraire units
+   */
+  static double[] exercisePolicyValues(double[][] exerciseValues) {
+    int exerciseCount = exerciseValues.length;
+    int pathCount = exerciseValues[0].length;
+    double[] values = new double[pathCount];
+    double[] last = exerciseValues[exerciseCount - 1];
+    for (int p = 0; p < pathCount; p++) {
+      values[p] = Math.max(last[p], 0d);
+    }
+    for (int k = exerciseCount - 2; k >= 0; k--) {
+      double[] exercise = exerciseValues[k];
+      double[] coefficients = regression(exercise, values);
+      if (coefficients == null) {
+        continue;
+      }
+      for (int p = 0; p < pathCount; p++) {
+        double x = exercise[p];
+        if (x > 0d && x > coefficients[0] + x * (coefficients[1] + x * coefficients[2])) {
+          values[p] = x;
+        }
+      }
+    }
+    return values;
+  }
+
+  // least-squares regression of the values on the polynomial basis of the exercise value, paths in the money
+  // returns null if there are not enough paths in the money
+  private static double[] regression(double[] exercise, double[] values) {
+    // scale the exercise value to avoid an ill-conditioned system
+    int count = 0;
+    double scale = 0d;
+    for (int p = 0; p < exercise.length; p++) {
+      if (exercise[p] > 0d) {
+        count++;
+        scale += exercise[p];
+      }
+    }
+    if (count < 3 * BASIS_SIZE) {
+      return null;
+    }
+    scale /= count;
+    double[][] matrix = new double[BASIS_SIZE][BASIS_SIZE + 1];
+    double[] basis = new double[BASIS_SIZE];
+    for (int p = 0; p < exercise.length; p++) {
+      if (exercise[p] > 0d) {
+        double x = exercise[p] / scale;
+        basis[0] = 1d;
+        basis[1] = x;
+        basis[2] = x * x;
+        for (int i = 0; i < BASIS_SIZE; i++) {
+          for (int j = 0; j < BASIS_SIZE; j++) {
+            matrix[i][j] += basis[i] * basis[j];
+          }
+          matrix[i][BASIS_SIZE] += basis[i] * values[p];
+        }
+      }
+    }
+    double[] solution = solve(matrix);
+    if (solution == null) {
+      return null;
+    }
+    // express the coefficients in terms of the unscaled exercise value
+    return new double[] {solution[0], solution[1] / scale, solution[2] / (scale * scale)};
+  }
+
+  // solves the augmented linear system by Gaussian elimination with partial pivoting, null if singular
+  private static double[] solve(double[][] matrix) {
+    int n = matrix.length;
+    for (int col = 0; col < n; col++) {
+      int pivot = col;
+      for (int row = col + 1; row < n; row++) {
+        if (Math.abs(matrix[row][col]) > Math.abs(matrix[pivot][col])) {
+          pivot = row;
+        }
+      }
+      if (Math.abs(matrix[pivot][col]) < 1e-12 * Math.abs(matrix[0][0])) {
+        return null;
+      }
+      double[] swap = matrix[col];
+      matrix[col] = matrix[pivot];
+      matrix[pivot] = swap;
+      for (int row = col + 1; row < n; row++) {
+        double factor = matrix[row][col] / matrix[col][col];
+        for (int j = col; j <= n; j++) {
+          matrix[row][j] -= factor * matrix[col][j];
+        }
+      }
+    }
+    double[] solution = new double[n];
+    for (int row = n - 1; row >= 0; row--) {
+      double sum = matrix[row][n];
+      for (int j = row + 1; j < n; j++) {
+        sum -= matrix[row][j] * solution[j];
+      }
+      solution[row] = sum / matrix[row][row];
+    }
+    return solution;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Generates the exercise value of the underlying swap at each exercise date, in numeraire units.
+   * <p>
+   * The state variable of the model is a Gaussian martingale under the numeraire measure.
+   * Its standard deviation at each exercise date is that of the normalized bond volatility,
+   * thus the normalized state at an exercise date gives the bond prices of the explicit formula.
+   */
+  private static final class ExerciseValueGenerator implements MonteCarloPathGenerator {
+
+    /** The cash flow amounts, multiplied by the discount factor and divided by that of the numeraire. */
+    private final double[][] amounts;
+    /** The bond volatilities of the cash flows. */
+    private final double[][] alphas;
+    /** The standard deviation of the state variable at each exercise date. */
+    private final double[] stdDev;
+    /** The standard deviation of the increment of the state variable to each exercise date. */
+    private final double[] incrementStdDev;
+
+    private ExerciseValueGenerator(double[][] amounts, double[][] alphas, double[] stdDev) {
+      this.amounts = amounts;
+      this.alphas = alphas;
+      this.stdDev = stdDev;
+      this.incrementStdDev = new double[stdDev.length];
+      double previousVariance = 0d;
+      for (int k = 0; k < stdDev.length; k++) {
+        double variance = stdDev[k] * stdDev[k];
+        incrementStdDev[k] = Math.sqrt(Math.max(variance - previousVariance, 0d));
+        previousVariance = variance;
+      }
+    }
+
+    @Override
+    public int getDimension() {
+      return stdDev.length;
+    }
+
+    @Override
+    public int getPathSize() {
+      return stdDev.length;
+    }
+
+    @Override
+    public void generate(double[] normals, double[] path) {
+      double state = 0d;
+      for (int k = 0; k < stdDev.length; k++) {
+        state += incrementStdDev[k] * normals[k];
+        double x = stdDev[k] > 0d ? state / stdDev[k] : 0d;
+        double[] amount = amounts[k];
+        double[] alpha = alphas[k];
+        double value = 0d;
+        for (int u = 0; u < amount.length; u++) {
+          value += amount[u] * Math.exp(-alpha[u] * (x + 0.5d * alpha[u]));
+        }
+        path[k] = value;
+      }
+    }
+  }
+
+}
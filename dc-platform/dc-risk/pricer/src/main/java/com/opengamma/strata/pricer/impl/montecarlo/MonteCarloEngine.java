@@ -0,0 +1,293 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.math.impl.random.NormalVariateGenerator;
+import com.opengamma.strata.math.impl.random.NormalVariateStream;
+
+/**
+ * Monte Carlo simulation engine.
+ * <p>
+ * The engine generates paths using a {@link MonteCarloPathGenerator}, driven by the standard normal
+ * variates of a {@link NormalVariateGenerator}. The samples are divided into blocks of a fixed size,
+ * each block using its own stream of the generator, and the blocks are processed in parallel.
+ * Each block allocates the arrays of normal variates and path values once and reuses them for every path.
+ * As the division into blocks does not depend on the number of threads, and the results of the blocks
+ * are combined in order, the result is the same whether the blocks are processed in parallel or not.
+ * <p>
+ * When antithetic variates are used, each sample is the average of the payoff of the path generated from
+ * the normal variates and of the path generated from their negation. This doubles the number of paths.
+ * When the generator is quasi-random, such as a Sobol generator, the paths fill the space of
+ * normal variates evenly, which reduces the error for smooth payoffs.
+ */
+public final class MonteCarloEngine {
+
+  /**
+   * The number of samples in each block.
+   */
+  private static final int BLOCK_SIZE = 1024;
+
+  /**
+   * The generator of normal variates.
+   */
+  private final NormalVariateGenerator generator;
+  /**
+   * The number of independent samples.
+   */
+  private final int sampleCount;
+  /**
+   * Whether antithetic variates are used.
+   */
+  private final boolean antithetic;
+  /**
+   * Whether the blocks are processed in parallel.
+   */
+  private final boolean parallel;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an engine that processes the blocks in parallel, without antithetic variates.
+   *
+   * @param generator  the generator of normal variates
+   * @param sampleCount  the number of independent samples
+   * @return the engine
+   */
+  public static MonteCarloEngine of(NormalVariateGenerator generator, int sampleCount) {
+    return new MonteCarloEngine(generator, sampleCount, false, true);
+  }
+
+  // restricted constructor
+  private MonteCarloEngine(NormalVariateGenerator generator, int sampleCount, boolean antithetic, boolean parallel) {
+    this.generator = ArgChecker.notNull(generator, "generator");
+    this.sampleCount = ArgChecker.notNegativeOrZero(sampleCount, "sampleCount");
+    this.antithetic = antithetic;
+    this.parallel = parallel;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns a copy of this engine that uses antithetic variates or not.
+   *
+   * @param antithetic  true to use antithetic variates
+   * @return the engine
+   */
+  public MonteCarloEngine withAntithetic(boolean antithetic) {
+    return new MonteCarloEngine(generator, sampleCount, antithetic, parallel);
+  }
+
+  /**
+   * Returns a copy of this engine that processes the blocks in parallel or not.
+   *
+   * @param parallel  true to process the blocks in parallel
+   * @return the engine
+   */
+  public MonteCarloEngine withParallel(boolean parallel) {
+    return new MonteCarloEngine(generator, sampleCount, antithetic, parallel);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the generator of normal variates.
+   *
+   * @return the generator
+   */
+  public NormalVariateGenerator getGenerator() {
+    return generator;
+  }
+
+  /**
+   * Gets the number of independent samples.
+   *
+   * @return the number of samples
+   */
+  public int getSampleCount() {
+    return sampleCount;
+  }
+
+  /**
+   * Gets the number of paths, which is twice the number of samples if antithetic variates are used.
+   *
+   * @return the number of paths
+   */
+  public int getPathCount() {
+    return antithetic ? sampleCount * 2 : sampleCount;
+  }
+
+  /**
+   * Checks if antithetic variates are used.
+   *
+   * @return true if antithetic variates are used
+   */
+  public boolean isAntithetic() {
+    return antithetic;
+  }
+
+  /**
+   * Checks if the blocks are processed in parallel.
+   *
+   * @return true if the blocks are processed in parallel
+   */
+  public boolean isParallel() {
+    return parallel;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Estimates the expected payoff of the paths.
+   * <p>
+   * The payoff function is applied to the path values, and must not retain the array.
+   * It must be thread-safe as it is applied to paths in parallel.
+   *
+   * @param pathGenerator  the generator of the paths
+   * @param payoff  the payoff of a path
+   * @return the estimated expected payoff
+   */
+  public MonteCarloResult price(MonteCarloPathGenerator pathGenerator, ToDoubleFunction<double[]> payoff) {
+    ArgChecker.notNull(pathGenerator, "pathGenerator");
+    ArgChecker.notNull(payoff, "payoff");
+    int dimension = pathGenerator.getDimension();
+    int pathSize = pathGenerator.getPathSize();
+    int blockCount = (sampleCount + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    List<NormalVariateStream> streams = generator.split(dimension, blockCount, BLOCK_SIZE);
+    double[] means = new double[blockCount];
+    double[] m2s = new double[blockCount];
+    blocks(blockCount).forEach(block -> {
+      NormalVariateStream stream = streams.get(block);
+      double[] normals = new double[dimension];
+      double[] path = new double[pathSize];
+      int count = blockSampleCount(block);
+      double mean = 0d;
+      double m2 = 0d;
+      for (int i = 0; i < count; i++) {
+        stream.next(normals);
+        pathGenerator.generate(normals, path);
+        double sample = payoff.applyAsDouble(path);
+        if (antithetic) {
+          negate(normals);
+          pathGenerator.generate(normals, path);
+          sample = 0.5d * (sample + payoff.applyAsDouble(path));
+        }
+        double delta = sample - mean;
+        mean += delta / (i + 1);
+        m2 += delta * (sample - mean);
+      }
+      means[block] = mean;
+      m2s[block] = m2;
+    });
+    // combine the blocks in order, so the result does not depend on the threads
+    double mean = 0d;
+    double m2 = 0d;
+    int count = 0;
+    for (int block = 0; block < blockCount; block++) {
+      int blockSamples = blockSampleCount(block);
+      int total = count + blockSamples;
+      double delta = means[block] - mean;
+      mean += delta * blockSamples / total;
+      m2 += m2s[block] + delta * delta * ((double) count * blockSamples / total);
+      count = total;
+    }
+    return MonteCarloResult.of(mean, MonteCarloResult.standardError(m2, count), count);
+  }
+
+  /**
+   * Simulates the paths, returning the path values.
+   * <p>
+   * The result is indexed by the position in the path, then by path, so that the values of a
+   * single position, such as a single simulation date, are contiguous.
+   * When antithetic variates are used, the path generated from the negated variates immediately
+   * follows the path generated from the variates, thus paths {@code 2i} and {@code 2i + 1} form sample {@code i}.
+   *
+   * @param pathGenerator  the generator of the paths
+   * @return the path values, of size path size by number of paths
+   */
+  public double[][] simulate(MonteCarloPathGenerator pathGenerator) {
+    ArgChecker.notNull(pathGenerator, "pathGenerator");
+    int dimension = pathGenerator.getDimension();
+    int pathSize = pathGenerator.getPathSize();
+    int pathsPerSample = antithetic ? 2 : 1;
+    int blockCount = (sampleCount + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    List<NormalVariateStream> streams = generator.split(dimension, blockCount, BLOCK_SIZE);
+    double[][] result = new double[pathSize][getPathCount()];
+    blocks(blockCount).forEach(block -> {
+      NormalVariateStream stream = streams.get(block);
+      double[] normals = new double[dimension];
+      double[] path = new double[pathSize];
+      int count = blockSampleCount(block);
+      int pathIndex = block * BLOCK_SIZE * pathsPerSample;
+      for (int i = 0; i < count; i++) {
+        stream.next(normals);
+        pathGenerator.generate(normals, path);
+        store(path, result, pathIndex++);
+        if (antithetic) {
+          negate(normals);
+          pathGenerator.generate(normals, path);
+          store(path, result, pathIndex++);
+        }
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Obtains the result from the values of simulated paths.
+   * <p>
+   * The values are those of the paths returned by {@link #simulate(MonteCarloPathGenerator)}, in the same order.
+   * When antithetic variates are used, each sample is the average of a pair of values.
+   *
+   * @param pathValues  the value of each path
+   * @return the estimated expected value
+   */
+  public MonteCarloResult result(double[] pathValues) {
+    ArgChecker.isTrue(pathValues.length == getPathCount(), "Expected {} path values", getPathCount());
+    if (!antithetic) {
+      return MonteCarloResult.ofSamples(pathValues);
+    }
+    double[] samples = new double[sampleCount];
+    for (int i = 0; i < sampleCount; i++) {
+      samples[i] = 0.5d * (pathValues[2 * i] + pathValues[2 * i + 1]);
+    }
+    return MonteCarloResult.ofSamples(samples);
+  }
+
+  //-------------------------------------------------------------------------
+  // the stream of block indices
+  private IntStream blocks(int blockCount) {
+    IntStream blocks = IntStream.range(0, blockCount);
+    return parallel ? blocks.parallel() : blocks;
+  }
+
+  // the number of samples in the block, the last block may be partial
+  private int blockSampleCount(int block) {
+    return Math.min(BLOCK_SIZE, sampleCount - block * BLOCK_SIZE);
+  }
+
+  // negates the variates in place
+  private static void negate(double[] normals) {
+    for (int i = 0; i < normals.length; i++) {
+      normals[i] = -normals[i];
+    }
+  }
+
+  // stores the path values in the result
+  private static void store(double[] path, double[][] result, int pathIndex) {
+    for (int j = 0; j < path.length; j++) {
+      result[j][pathIndex] = path[j];
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "MonteCarloEngine[generator=" + generator + ", sampleCount=" + sampleCount +
+        ", antithetic=" + antithetic + ", parallel=" + parallel + "]";
+  }
+
+}
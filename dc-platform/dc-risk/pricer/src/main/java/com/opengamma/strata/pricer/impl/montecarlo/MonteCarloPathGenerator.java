@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+/**
+ * Generator of the paths of a model from standard normal variates.
+ * <p>
+ * A path is an array of values, such as the value of a state variable at each simulation date.
+ * The arrays of normal variates and of path values are allocated by {@link MonteCarloEngine}
+ * and reused for each path, thus generating a path should not allocate memory.
+ * <p>
+ * Implementations must be immutable and thread-safe, as paths are generated in parallel.
+ */
+public interface MonteCarloPathGenerator {
+
+  /**
+   * Gets the number of standard normal variates used to generate each path.
+   * 
+   * @return the dimension
+   */
+  public abstract int getDimension();
+
+  /**
+   * Gets the number of values in each path.
+   * 
+   * @return the path size
+   */
+  public abstract int getPathSize();
+
+  /**
+   * Generates a path from the normal variates.
+   * 
+   * @param normals  the independent standard normal variates, of length equal to the dimension
+   * @param path  the array to fill with the path values, of length equal to the path size
+   */
+  public abstract void generate(double[] normals, double[] path);
+
+}
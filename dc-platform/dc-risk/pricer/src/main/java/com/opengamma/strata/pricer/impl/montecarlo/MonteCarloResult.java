@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The result of a Monte Carlo simulation.
+ * <p>
+ * This holds the estimated value, being the mean of the samples, and the standard error of the estimate.
+ */
+public final class MonteCarloResult {
+
+  /**
+   * The estimated value.
+   */
+  private final double value;
+  /**
+   * The standard error of the estimated value.
+   */
+  private final double standardError;
+  /**
+   * The number of independent samples.
+   */
+  private final int sampleCount;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance from the value, standard error and number of samples.
+   *
+   * @param value  the estimated value
+   * @param standardError  the standard error of the estimated value
+   * @param sampleCount  the number of independent samples
+   * @return the result
+   */
+  public static MonteCarloResult of(double value, double standardError, int sampleCount) {
+    return new MonteCarloResult(value, standardError, sampleCount);
+  }
+
+  /**
+   * Obtains an instance from independent samples.
+   *
+   * @param samples  the samples
+   * @return the result
+   */
+  public static MonteCarloResult ofSamples(double[] samples) {
+    ArgChecker.notEmpty(samples, "samples");
+    int count = samples.length;
+    double mean = 0d;
+    double m2 = 0d;
+    for (int i = 0; i < count; i++) {
+      double delta = samples[i] - mean;
+      mean += delta / (i + 1);
+      m2 += delta * (samples[i] - mean);
+    }
+    return new MonteCarloResult(mean, standardError(m2, count), count);
+  }
+
+  // the standard error of the mean from the sum of squared deviations
+  static double standardError(double m2, int count) {
+    return count > 1 ? Math.sqrt(m2 / (count - 1) / count) : 0d;
+  }
+
+  // restricted constructor
+  private MonteCarloResult(double value, double standardError, int sampleCount) {
+    this.value = value;
+    this.standardError = ArgChecker.notNegative(standardError, "standardError");
+    this.sampleCount = ArgChecker.notNegative(sampleCount, "sampleCount");
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the estimated value.
+   *
+   * @return the value
+   */
+  public double getValue() {
+    return value;
+  }
+
+  /**
+   * Gets the standard error of the estimated value.
+   *
+   * @return the standard error
+   */
+  public double getStandardError() {
+    return standardError;
+  }
+
+  /**
+   * Gets the number of independent samples.
+   * <p>
+   * When antithetic variates are used, each sample is the average of a pair of paths.
+   *
+   * @return the number of samples
+   */
+  public int getSampleCount() {
+    return sampleCount;
+  }
+
+  /**
+   * Returns the result multiplied by a factor.
+   * <p>
+   * The value and standard error are both multiplied, the standard error by the absolute value of the factor.
+   *
+   * @param factor  the multiplicative factor
+   * @return the scaled result
+   */
+  public MonteCarloResult multipliedBy(double factor) {
+    return new MonteCarloResult(value * factor, standardError * Math.abs(factor), sampleCount);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj instanceof MonteCarloResult) {
+      MonteCarloResult other = (MonteCarloResult) obj;
+      return Double.doubleToLongBits(value) == Double.doubleToLongBits(other.value) &&
+          Double.doubleToLongBits(standardError) == Double.doubleToLongBits(other.standardError) &&
+          sampleCount == other.sampleCount;
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = Double.hashCode(value);
+    hash = hash * 31 + Double.hashCode(standardError);
+    return hash * 31 + sampleCount;
+  }
+
+  @Override
+  public String toString() {
+    return "MonteCarloResult[value=" + value + ", standardError=" + standardError + ", sampleCount=" + sampleCount + "]";
+  }
+
+}
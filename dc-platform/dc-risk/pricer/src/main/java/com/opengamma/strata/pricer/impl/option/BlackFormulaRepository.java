@@ -62,10 +62,52 @@ public final class BlackFormulaRepository {
       double lognormalVol,
       boolean isCall) {
 
-    ArgChecker.isTrue(forward >= 0d, "negative/NaN forward; have {}", forward);
-    ArgChecker.isTrue(strike >= 0d, "negative/NaN strike; have {}", strike);
-    ArgChecker.isTrue(timeToExpiry >= 0d, "negative/NaN timeToExpiry; have {}", timeToExpiry);
-    ArgChecker.isTrue(lognormalVol >= 0d, "negative/NaN lognormalVol; have {}", lognormalVol);
+    validate(forward, strike, timeToExpiry, lognormalVol);
+    return priceUnchecked(forward, strike, timeToExpiry, lognormalVol, isCall);
+  }
+
+  /**
+   * Computes the forward prices of several options.
+   * <p>
+   * This is the batch form of {@link #price(double, double, double, double, boolean)}.
+   * The i-th element of each input array defines the i-th option, whose price is written to
+   * the i-th element of {@code price}. All the arrays must have the same length.
+   * <p>
+   * The inputs are validated before any price is computed. The computation then runs in a single
+   * loop over primitive arrays without creating any object, which suits large books of options.
+   * 
+   * @param forward  the forward values of the underlying
+   * @param strike  the strikes
+   * @param timeToExpiry  the times to expiry
+   * @param lognormalVol  the log-normal volatilities
+   * @param isCall  true for call, false for put
+   * @param price  the array to receive the forward prices
+   */
+  public static void price(
+      double[] forward,
+      double[] strike,
+      double[] timeToExpiry,
+      double[] lognormalVol,
+      boolean[] isCall,
+      double[] price) {
+
+    int size = forward.length;
+    validateSizes(size, strike.length, timeToExpiry.length, lognormalVol.length, isCall.length, price.length);
+    for (int i = 0; i < size; i++) {
+      validate(forward[i], strike[i], timeToExpiry[i], lognormalVol[i]);
+    }
+    for (int i = 0; i < size; i++) {
+      price[i] = priceUnchecked(forward[i], strike[i], timeToExpiry[i], lognormalVol[i], isCall[i]);
+    }
+  }
+
+  // computes the price, the inputs having been validated
+  private static double priceUnchecked(
+      double forward,
+      double strike,
+      double timeToExpiry,
+      double lognormalVol,
+      boolean isCall) {
 
     double sigmaRootT = lognormalVol * Math.sqrt(timeToExpiry);
     if (Double.isNaN(sigmaRootT)) {
@@ -94,8 +136,8 @@ public final class BlackFormulaRepository {
       d2 = d1 - sigmaRootT;
     }
 
-    double nF = NORMAL.getCDF(sign * d1);
-    double nS = NORMAL.getCDF(sign * d2);
+    double nF = NormalDistribution.standardCdf(sign * d1);
+    double nS = NormalDistribution.standardCdf(sign * d2);
     double first = nF == 0d ? 0d : forward * nF;
     double second = nS == 0d ? 0d : strike * nS;
 
@@ -129,10 +171,64 @@ public final class BlackFormulaRepository {
       double lognormalVol,
       boolean isCall) {
 
-    ArgChecker.isTrue(forward >= 0d, "negative/NaN forward; have {}", forward);
-    ArgChecker.isTrue(strike >= 0d, "negative/NaN strike; have {}", strike);
-    ArgChecker.isTrue(timeToExpiry >= 0d, "negative/NaN timeToExpiry; have {}", timeToExpiry);
-    ArgChecker.isTrue(lognormalVol >= 0d, "negative/NaN lognormalVol; have {}", lognormalVol);
+    validate(forward, strike, timeToExpiry, lognormalVol);
+    double[] derivatives = new double[4];
+    double price = priceAdjointUnchecked(forward, strike, timeToExpiry, lognormalVol, isCall, derivatives, 0);
+    return ValueDerivatives.of(price, DoubleArray.ofUnsafe(derivatives));
+  }
+
+  /**
+   * Computes the prices without numeraire and their derivatives for several options.
+   * <p>
+   * This is the batch form of {@link #priceAdjoint(double, double, double, double, boolean)}.
+   * The i-th element of each input array defines the i-th option, whose price is written to
+   * the i-th element of {@code price}. All these arrays must have the same length.
+   * <p>
+   * The four derivatives of the i-th option are written to the elements {@code 4 * i} to {@code 4 * i + 3}
+   * of {@code derivatives}, in the order of {@link #priceAdjoint(double, double, double, double, boolean)}.
+   * Thus {@code derivatives} must have four times the length of the other arrays.
+   * <p>
+   * The inputs are validated before any price is computed. The computation then runs in a single
+   * loop over primitive arrays without creating any object, which suits large books of options.
+   * 
+   * @param forward  the forward values of the underlying
+   * @param strike  the strikes
+   * @param timeToExpiry  the times to expiry
+   * @param lognormalVol  the log-normal volatilities
+   * @param isCall  true for call, false for put
+   * @param price  the array to receive the forward prices
+   * @param derivatives  the array to receive the derivatives of the forward prices
+   */
+  public static void priceAdjoint(
+      double[] forward,
+      double[] strike,
+      double[] timeToExpiry,
+      double[] lognormalVol,
+      boolean[] isCall,
+      double[] price,
+      double[] derivatives) {
+
+    int size = forward.length;
+    validateSizes(size, strike.length, timeToExpiry.length, lognormalVol.length, isCall.length, price.length);
+    ArgChecker.isTrue(derivatives.length == 4 * size, "derivatives must have four times the length of the inputs");
+    for (int i = 0; i < size; i++) {
+      validate(forward[i], strike[i], timeToExpiry[i], lognormalVol[i]);
+    }
+    for (int i = 0; i < size; i++) {
+      price[i] = priceAdjointUnchecked(
+          forward[i], strike[i], timeToExpiry[i], lognormalVol[i], isCall[i], derivatives, 4 * i);
+    }
+  }
+
+  // computes the price and writes its derivatives from 'offset', the inputs having been validated
+  private static double priceAdjointUnchecked(
+      double forward,
+      double strike,
+      double timeToExpiry,
+      double lognormalVol,
+      boolean isCall,
+      double[] derivatives,
+      int offset) {
 
     double sigmaRootT = lognormalVol * Math.sqrt(timeToExpiry);
     if (Double.isNaN(sigmaRootT)) {
@@ -148,13 +244,19 @@ public final class BlackFormulaRepository {
 
     if (bFwd && bStr) {
       log.info("(large value)/(large value) ambiguous");
-      double price = isCall ? (forward >= strike ? forward : 0d) : (strike >= forward ? strike : 0d); // ???
-      return ValueDerivatives.of(price, DoubleArray.filled(4)); // ??
+      derivatives[offset] = 0d;
+      derivatives[offset + 1] = 0d;
+      derivatives[offset + 2] = 0d;
+      derivatives[offset + 3] = 0d;
+      return isCall ? (forward >= strike ? forward : 0d) : (strike >= forward ? strike : 0d);
     }
     if (sigmaRootT < SMALL) {
       boolean isItm = (sign * (forward - strike)) > 0;
-      double price = isItm ? sign * (forward - strike) : 0d;
-      return ValueDerivatives.of(price, DoubleArray.of(isItm ? sign : 0d, isItm ? -sign : 0d, 0d, 0d));
+      derivatives[offset] = isItm ? sign : 0d;
+      derivatives[offset + 1] = isItm ? -sign : 0d;
+      derivatives[offset + 2] = 0d;
+      derivatives[offset + 3] = 0d;
+      return isItm ? sign * (forward - strike) : 0d;
     }
     if (Math.abs(forward - strike) < SMALL || bSigRt) {
       d1 = 0.5 * sigmaRootT;
@@ -164,8 +266,8 @@ public final class BlackFormulaRepository {
       d1 = d2 + sigmaRootT;
     }
 
-    double nF = NORMAL.getCDF(sign * d1);
-    double nS = NORMAL.getCDF(sign * d2);
+    double nF = NormalDistribution.standardCdf(sign * d1);
+    double nS = NormalDistribution.standardCdf(sign * d2);
     double first = nF == 0d ? 0d : forward * nF;
     double second = nS == 0d ? 0d : strike * nS;
     double res = sign * (first - second);
@@ -178,13 +280,17 @@ public final class BlackFormulaRepository {
     double forwardBar = nF * firstBar;
     double strikeBar = nS * secondBar;
     double nFBar = forward * firstBar;
-    double d1Bar = sign * NORMAL.getPDF(sign * d1) * nFBar;
+    double d1Bar = sign * NormalDistribution.standardPdf(sign * d1) * nFBar;
     // Implementation Note: d2Bar = 0; no need to implement it.
     // Methodology Note: d2Bar is optimal exercise boundary. The derivative at the optimal point is 0.
     double sigmaRootTBar = d1Bar;
     double lognormalVolBar = Math.sqrt(timeToExpiry) * sigmaRootTBar;
     double timeToExpiryBar = 0.5 / Math.sqrt(timeToExpiry) * lognormalVol * sigmaRootTBar;
-    return ValueDerivatives.of(price, DoubleArray.of(forwardBar, strikeBar, timeToExpiryBar, lognormalVolBar));
+    derivatives[offset] = forwardBar;
+    derivatives[offset + 1] = strikeBar;
+    derivatives[offset + 2] = timeToExpiryBar;
+    derivatives[offset + 3] = lognormalVolBar;
+    return price;
   }
 
   /**
@@ -1444,4 +1550,20 @@ public final class BlackFormulaRepository {
     return normalVolatility * factor1 * factor2;
   }
 
+  //-------------------------------------------------------------------------
+  // validates the inputs of the price formulas
+  private static void validate(double forward, double strike, double timeToExpiry, double lognormalVol) {
+    ArgChecker.isTrue(forward >= 0d, "negative/NaN forward; have {}", forward);
+    ArgChecker.isTrue(strike >= 0d, "negative/NaN strike; have {}", strike);
+    ArgChecker.isTrue(timeToExpiry >= 0d, "negative/NaN timeToExpiry; have {}", timeToExpiry);
+    ArgChecker.isTrue(lognormalVol >= 0d, "negative/NaN lognormalVol; have {}", lognormalVol);
+  }
+
+  // validates the lengths of the arrays of the batch formulas
+  static void validateSizes(int size, int... otherSizes) {
+    for (int otherSize : otherSizes) {
+      ArgChecker.isTrue(otherSize == size, "arrays must have the same length; have {} and {}", size, otherSize);
+    }
+  }
+
 }
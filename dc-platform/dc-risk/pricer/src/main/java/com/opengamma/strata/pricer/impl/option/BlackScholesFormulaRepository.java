@@ -48,12 +48,60 @@ public final class BlackScholesFormulaRepository {
       double costOfCarry,
       boolean isCall) {
 
-    ArgChecker.isTrue(spot >= 0d, "negative/NaN spot; have {}", spot);
-    ArgChecker.isTrue(strike >= 0d, "negative/NaN strike; have {}", strike);
-    ArgChecker.isTrue(timeToExpiry >= 0d, "negative/NaN timeToExpiry; have {}", timeToExpiry);
-    ArgChecker.isTrue(lognormalVol >= 0d, "negative/NaN lognormalVol; have {}", lognormalVol);
-    ArgChecker.isFalse(Double.isNaN(interestRate), "interestRate is NaN");
-    ArgChecker.isFalse(Double.isNaN(costOfCarry), "costOfCarry is NaN");
+    validate(spot, strike, timeToExpiry, lognormalVol, interestRate, costOfCarry);
+    return priceUnchecked(spot, strike, timeToExpiry, lognormalVol, interestRate, costOfCarry, isCall);
+  }
+
+  /**
+   * Computes the spot prices of several options.
+   * <p>
+   * This is the batch form of {@link #price(double, double, double, double, double, double, boolean)}.
+   * The i-th element of each input array defines the i-th option, whose spot price is written to
+   * the i-th element of {@code price}. All the arrays must have the same length.
+   * <p>
+   * The inputs are validated before any value is computed. The computation then runs in a single
+   * loop over primitive arrays without creating any object, which suits large books of options.
+   * 
+   * @param spot  the spot values of the underlying
+   * @param strike  the strikes
+   * @param timeToExpiry  the times to expiry
+   * @param lognormalVol  the log-normal volatilities
+   * @param interestRate  the interest rates
+   * @param costOfCarry  the cost-of-carry rates
+   * @param isCall  true for call, false for put
+   * @param price  the array to receive the spot prices
+   */
+  public static void price(
+      double[] spot,
+      double[] strike,
+      double[] timeToExpiry,
+      double[] lognormalVol,
+      double[] interestRate,
+      double[] costOfCarry,
+      boolean[] isCall,
+      double[] price) {
+
+    int size = spot.length;
+    BlackFormulaRepository.validateSizes(size, strike.length, timeToExpiry.length, lognormalVol.length,
+        interestRate.length, costOfCarry.length, isCall.length, price.length);
+    for (int i = 0; i < size; i++) {
+      validate(spot[i], strike[i], timeToExpiry[i], lognormalVol[i], interestRate[i], costOfCarry[i]);
+    }
+    for (int i = 0; i < size; i++) {
+      price[i] = priceUnchecked(
+          spot[i], strike[i], timeToExpiry[i], lognormalVol[i], interestRate[i], costOfCarry[i], isCall[i]);
+    }
+  }
+
+  // computes the spot price, the inputs having been validated
+  private static double priceUnchecked(
+      double spot,
+      double strike,
+      double timeToExpiry,
+      double lognormalVol,
+      double interestRate,
+      double costOfCarry,
+      boolean isCall) {
 
     if (interestRate > LARGE) {
       return 0d;
@@ -116,7 +164,8 @@ public final class BlackScholesFormulaRepository {
       d1 = Math.log(spot / strike) / sigmaRootT + scnd + 0.5 * sigmaRootT;
       d2 = d1 - sigmaRootT;
     }
-    double res = sign * discount * (rescaledSpot * NORMAL.getCDF(sign * d1) - strike * NORMAL.getCDF(sign * d2));
+    double res = sign * discount *
+        (rescaledSpot * NormalDistribution.standardCdf(sign * d1) - strike * NormalDistribution.standardCdf(sign * d2));
     return Double.isNaN(res) ? 0d : Math.max(res, 0d);
   }
 
@@ -142,12 +191,60 @@ public final class BlackScholesFormulaRepository {
       double costOfCarry,
       boolean isCall) {
 
-    ArgChecker.isTrue(spot >= 0d, "negative/NaN spot; have {}", spot);
-    ArgChecker.isTrue(strike >= 0d, "negative/NaN strike; have {}", strike);
-    ArgChecker.isTrue(timeToExpiry >= 0d, "negative/NaN timeToExpiry; have {}", timeToExpiry);
-    ArgChecker.isTrue(lognormalVol >= 0d, "negative/NaN lognormalVol; have {}", lognormalVol);
-    ArgChecker.isFalse(Double.isNaN(interestRate), "interestRate is NaN");
-    ArgChecker.isFalse(Double.isNaN(costOfCarry), "costOfCarry is NaN");
+    validate(spot, strike, timeToExpiry, lognormalVol, interestRate, costOfCarry);
+    return deltaUnchecked(spot, strike, timeToExpiry, lognormalVol, interestRate, costOfCarry, isCall);
+  }
+
+  /**
+   * Computes the spot deltas of several options.
+   * <p>
+   * This is the batch form of {@link #delta(double, double, double, double, double, double, boolean)}.
+   * The i-th element of each input array defines the i-th option, whose spot delta is written to
+   * the i-th element of {@code delta}. All the arrays must have the same length.
+   * <p>
+   * The inputs are validated before any value is computed. The computation then runs in a single
+   * loop over primitive arrays without creating any object, which suits large books of options.
+   * 
+   * @param spot  the spot values of the underlying
+   * @param strike  the strikes
+   * @param timeToExpiry  the times to expiry
+   * @param lognormalVol  the log-normal volatilities
+   * @param interestRate  the interest rates
+   * @param costOfCarry  the cost-of-carry rates
+   * @param isCall  true for call, false for put
+   * @param delta  the array to receive the spot deltas
+   */
+  public static void delta(
+      double[] spot,
+      double[] strike,
+      double[] timeToExpiry,
+      double[] lognormalVol,
+      double[] interestRate,
+      double[] costOfCarry,
+      boolean[] isCall,
+      double[] delta) {
+
+    int size = spot.length;
+    BlackFormulaRepository.validateSizes(size, strike.length, timeToExpiry.length, lognormalVol.length,
+        interestRate.length, costOfCarry.length, isCall.length, delta.length);
+    for (int i = 0; i < size; i++) {
+      validate(spot[i], strike[i], timeToExpiry[i], lognormalVol[i], interestRate[i], costOfCarry[i]);
+    }
+    for (int i = 0; i < size; i++) {
+      delta[i] = deltaUnchecked(
+          spot[i], strike[i], timeToExpiry[i], lognormalVol[i], interestRate[i], costOfCarry[i], isCall[i]);
+    }
+  }
+
+  // computes the spot delta, the inputs having been validated
+  private static double deltaUnchecked(
+      double spot,
+      double strike,
+      double timeToExpiry,
+      double lognormalVol,
+      double interestRate,
+      double costOfCarry,
+      boolean isCall) {
 
     double coef = 0d;
     if ((interestRate > LARGE && costOfCarry > LARGE) || (-interestRate > LARGE && -costOfCarry > LARGE) ||
@@ -199,7 +296,7 @@ public final class BlackScholesFormulaRepository {
           Double.isNaN(tmp) ? ((lognormalVol < LARGE && lognormalVol > SMALL) ? sig / lognormalVol : sig * rootT) : tmp;
       d1 = Math.log(spot / strike) / sigmaRootT + scnd + 0.5 * sigmaRootT;
     }
-    double norm = NORMAL.getCDF(sign * d1);
+    double norm = NormalDistribution.standardCdf(sign * d1);
 
     return norm < SMALL ? 0d : sign * coef * norm;
   }
@@ -1483,4 +1580,22 @@ public final class BlackScholesFormulaRepository {
     return Double.isNaN(result) ? sign * coef : result;
   }
 
+  //-------------------------------------------------------------------------
+  // validates the inputs of the formulas
+  private static void validate(
+      double spot,
+      double strike,
+      double timeToExpiry,
+      double lognormalVol,
+      double interestRate,
+      double costOfCarry) {
+
+    ArgChecker.isTrue(spot >= 0d, "negative/NaN spot; have {}", spot);
+    ArgChecker.isTrue(strike >= 0d, "negative/NaN strike; have {}", strike);
+    ArgChecker.isTrue(timeToExpiry >= 0d, "negative/NaN timeToExpiry; have {}", timeToExpiry);
+    ArgChecker.isTrue(lognormalVol >= 0d, "negative/NaN lognormalVol; have {}", lognormalVol);
+    ArgChecker.isFalse(Double.isNaN(interestRate), "interestRate is NaN");
+    ArgChecker.isFalse(Double.isNaN(costOfCarry), "costOfCarry is NaN");
+  }
+
 }
@@ -60,15 +60,53 @@ public final class NormalFormulaRepository {
    * @return the forward price
    */
   public static double price(double forward, double strike, double timeToExpiry, double normalVol, PutCall putCall) {
+    return price(forward, strike, timeToExpiry, normalVol, putCall.isCall());
+  }
+
+  /**
+   * Computes the forward prices of several options.
+   * <p>
+   * This is the batch form of {@link #price(double, double, double, double, PutCall)}.
+   * The i-th element of each input array defines the i-th option, whose price is written to
+   * the i-th element of {@code price}. All the arrays must have the same length.
+   * <p>
+   * The computation runs in a single loop over primitive arrays without creating any object,
+   * which suits large books of options.
+   * 
+   * @param forward  the forward values of the underlying
+   * @param strike  the strikes
+   * @param timeToExpiry  the times to expiry
+   * @param normalVol  the normal volatilities
+   * @param putCall  whether each option is put or call
+   * @param price  the array to receive the forward prices
+   */
+  public static void price(
+      double[] forward,
+      double[] strike,
+      double[] timeToExpiry,
+      double[] normalVol,
+      PutCall[] putCall,
+      double[] price) {
+
+    int size = forward.length;
+    BlackFormulaRepository.validateSizes(
+        size, strike.length, timeToExpiry.length, normalVol.length, putCall.length, price.length);
+    for (int i = 0; i < size; i++) {
+      price[i] = price(forward[i], strike[i], timeToExpiry[i], normalVol[i], putCall[i].isCall());
+    }
+  }
+
+  // computes the price
+  private static double price(double forward, double strike, double timeToExpiry, double normalVol, boolean isCall) {
     double sigmaRootT = normalVol * Math.sqrt(timeToExpiry);
-    int sign = putCall.isCall() ? 1 : -1;
+    int sign = isCall ? 1 : -1;
     if (sigmaRootT < NEAR_ZERO) {
       double x = sign * (forward - strike);
       return (x > 0 ? x : 0d);
     }
     double arg = sign * (forward - strike) / sigmaRootT;
-    double cdf = DISTRIBUTION.getCDF(arg);
-    double pdf = DISTRIBUTION.getPDF(arg);
+    double cdf = NormalDistribution.standardCdf(arg);
+    double pdf = NormalDistribution.standardPdf(arg);
     return sign * (forward - strike) * cdf + sigmaRootT * pdf;
   }
 
@@ -99,7 +137,66 @@ public final class NormalFormulaRepository {
       double numeraire,
       PutCall putCall) {
 
-    int sign = putCall.isCall() ? 1 : -1;
+    double[] derivatives = new double[3];
+    double price = priceAdjoint(forward, strike, timeToExpiry, normalVol, numeraire, putCall.isCall(), derivatives, 0);
+    return ValueDerivatives.of(price, DoubleArray.ofUnsafe(derivatives));
+  }
+
+  /**
+   * Computes the prices and first order derivatives of several options.
+   * <p>
+   * This is the batch form of {@link #priceAdjoint(double, double, double, double, double, PutCall)}.
+   * The i-th element of each input array defines the i-th option, whose price is written to
+   * the i-th element of {@code price}. All these arrays must have the same length.
+   * <p>
+   * The three derivatives of the i-th option are written to the elements {@code 3 * i} to {@code 3 * i + 2}
+   * of {@code derivatives}, in the order of {@link #priceAdjoint(double, double, double, double, double, PutCall)}.
+   * Thus {@code derivatives} must have three times the length of the other arrays.
+   * <p>
+   * The computation runs in a single loop over primitive arrays without creating any object,
+   * which suits large books of options.
+   * 
+   * @param forward  the forward values of the underlying
+   * @param strike  the strikes
+   * @param timeToExpiry  the times to expiry
+   * @param normalVol  the normal volatilities
+   * @param numeraire  the numeraires
+   * @param putCall  whether each option is put or call
+   * @param price  the array to receive the prices
+   * @param derivatives  the array to receive the derivatives of the prices
+   */
+  public static void priceAdjoint(
+      double[] forward,
+      double[] strike,
+      double[] timeToExpiry,
+      double[] normalVol,
+      double[] numeraire,
+      PutCall[] putCall,
+      double[] price,
+      double[] derivatives) {
+
+    int size = forward.length;
+    BlackFormulaRepository.validateSizes(
+        size, strike.length, timeToExpiry.length, normalVol.length, numeraire.length, putCall.length, price.length);
+    ArgChecker.isTrue(derivatives.length == 3 * size, "derivatives must have three times the length of the inputs");
+    for (int i = 0; i < size; i++) {
+      price[i] = priceAdjoint(
+          forward[i], strike[i], timeToExpiry[i], normalVol[i], numeraire[i], putCall[i].isCall(), derivatives, 3 * i);
+    }
+  }
+
+  // computes the price and writes its derivatives from 'offset'
+  private static double priceAdjoint(
+      double forward,
+      double strike,
+      double timeToExpiry,
+      double normalVol,
+      double numeraire,
+      boolean isCall,
+      double[] derivatives,
+      int offset) {
+
+    int sign = isCall ? 1 : -1;
     double price;
     double cdf = 0d;
     double pdf = 0d;
@@ -112,8 +209,8 @@ public final class NormalFormulaRepository {
       price = (x > 0 ? numeraire * x : 0d);
     } else {
       arg = sign * (forward - strike) / sigmaRootT;
-      cdf = NormalFormulaRepository.DISTRIBUTION.getCDF(arg);
-      pdf = NormalFormulaRepository.DISTRIBUTION.getPDF(arg);
+      cdf = NormalDistribution.standardCdf(arg);
+      pdf = NormalDistribution.standardPdf(arg);
       price = numeraire * (sign * (forward - strike) * cdf + sigmaRootT * pdf);
     }
     // Implementation Note: Backward sweep.
@@ -135,7 +232,10 @@ public final class NormalFormulaRepository {
       double sigmaRootTBar = -arg / sigmaRootT * argBar + numeraire * pdf * priceBar;
       volatilityDerivative = Math.sqrt(timeToExpiry) * sigmaRootTBar;
     }
-    return ValueDerivatives.of(price, DoubleArray.of(forwardDerivative, volatilityDerivative, strikeDerivative));
+    derivatives[offset] = forwardDerivative;
+    derivatives[offset + 1] = volatilityDerivative;
+    derivatives[offset + 2] = strikeDerivative;
+    return price;
   }
 
   //-------------------------------------------------------------------------
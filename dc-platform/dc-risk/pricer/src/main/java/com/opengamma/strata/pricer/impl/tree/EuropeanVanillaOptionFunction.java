@@ -85,6 +85,31 @@ public final class EuropeanVanillaOptionFunction
     return DoubleArray.ofUnsafe(values);
   }
 
+  @Override
+  public void getPayoffAtExpiryTrinomial(double[] stateValue, double[] values) {
+    int nNodes = 2 * numberOfSteps + 1;
+    for (int i = 0; i < nNodes; ++i) {
+      values[i] = Math.max(sign * (stateValue[i] - strike), 0d);
+    }
+  }
+
+  @Override
+  public void rollBackOptionValues(
+      double discountFactor,
+      double[][] transitionProbability,
+      double[] stateValue,
+      double[] values,
+      int i) {
+
+    // ascending order, so that the values of the (i+1)-th layer are consumed before being overwritten
+    int nNodes = 2 * i + 1;
+    for (int j = 0; j < nNodes; ++j) {
+      double[] probability = transitionProbability[j];
+      values[j] = discountFactor *
+          (probability[2] * values[j + 2] + probability[1] * values[j + 1] + probability[0] * values[j]);
+    }
+  }
+
     //------------------------- AUTOGENERATED START -------------------------
     ///CLOVER:OFF
     /**
@@ -12,6 +12,15 @@ import com.opengamma.strata.collect.array.DoubleMatrix;
 
 /**
  * Option function interface used in trinomial tree option pricing.
+ * <p>
+ * {@link TrinomialTree} prices both uniform and non-uniform lattices through the in-place methods,
+ * {@link #getPayoffAtExpiryTrinomial(double[], double[])} and
+ * {@link #rollBackOptionValues(double, double[][], double[], double[], int)}.
+ * By default these delegate to {@link #getPayoffAtExpiryTrinomial(DoubleArray)} and
+ * {@link #getNextOptionValues(double, DoubleMatrix, DoubleArray, DoubleArray, int)},
+ * thus overriding either pair is sufficient.
+ * The in-place methods supersede the forms taking the spot and the lattice factors,
+ * which are not called by the tree.
  */
 public interface OptionFunction {
 
@@ -34,6 +43,9 @@ public interface OptionFunction {
    * <p>
    * The payoff values for individual nodes at expiry are computed.
    * If trinomial tree has {@code n} steps, the returned {@code DoubleArray} has the size {@code 2 * n + 1}.
+   * <p>
+   * This is not called by {@link TrinomialTree}, which computes the state values of the uniform lattice
+   * and uses {@link #getPayoffAtExpiryTrinomial(double[], double[])}.
    * 
    * @param spot  the spot
    * @param downFactor  the down factor
@@ -72,6 +84,9 @@ public interface OptionFunction {
    * should be overridden rather than this method.
    * <p>
    * The size of {@code values} must be (2*i+3). However, this is not checked because of its repeated usage.
+   * <p>
+   * This is not called by {@link TrinomialTree}, which computes the state values of the uniform lattice
+   * and uses {@link #rollBackOptionValues(double, double[][], double[], double[], int)}.
    * 
    * @param discountFactor  the discount factor between the two layers
    * @param upProbability  the up probability
@@ -131,4 +146,62 @@ public interface OptionFunction {
             transitionProbability.get(j, 1) * value.get(j + 1) + transitionProbability.get(j, 0) * value.get(j)));
   }
 
+  //-------------------------------------------------------------------------
+  /**
+   * Computes payoff at expiry for trinomial tree, writing the result into a buffer.
+   * <p>
+   * This is the allocation-free form of {@link #getPayoffAtExpiryTrinomial(DoubleArray)}.
+   * If trinomial tree has {@code n} steps, the first {@code 2 * n + 1} elements of {@code stateValue} are read
+   * and the first {@code 2 * n + 1} elements of {@code values} are populated.
+   * Both the arrays may be longer than this.
+   * <p>
+   * The default implementation delegates to {@link #getPayoffAtExpiryTrinomial(DoubleArray)}.
+   * 
+   * @param stateValue  the state values at the final layer, not mutated
+   * @param values  the buffer to receive the payoff at expiry
+   */
+  public default void getPayoffAtExpiryTrinomial(double[] stateValue, double[] values) {
+    int nNodes = 2 * getNumberOfSteps() + 1;
+    getPayoffAtExpiryTrinomial(DoubleArray.copyOf(stateValue, 0, nNodes)).copyInto(values, 0);
+  }
+
+  /**
+   * Computes the option values in the intermediate nodes, overwriting the values in place.
+   * <p>
+   * This is the allocation-free form of
+   * {@link #getNextOptionValues(double, DoubleMatrix, DoubleArray, DoubleArray, int)}.
+   * On input, the first (2*i+3) elements of {@code values} are the option values in the (i+1)-th layer.
+   * On output, the first (2*i+1) elements of {@code values} are the option values in the i-th layer.
+   * The first (2*i+1) elements of {@code stateValue} and rows of {@code transitionProbability} are used,
+   * thus the arrays may be longer than this.
+   * <p>
+   * The default implementation delegates to
+   * {@link #getNextOptionValues(double, DoubleMatrix, DoubleArray, DoubleArray, int)},
+   * so that an option with path-dependence only needs to override that method.
+   * 
+   * @param discountFactor  the discount factor between the two layers
+   * @param transitionProbability  the transition probability, not mutated
+   * @param stateValue  the state value, not mutated
+   * @param values  the option values, overwritten in place
+   * @param i  the step number for which the next option values are computed
+   */
+  public default void rollBackOptionValues(
+      double discountFactor,
+      double[][] transitionProbability,
+      double[] stateValue,
+      double[] values,
+      int i) {
+
+    int nNodes = 2 * i + 1;
+    DoubleMatrix probability = transitionProbability.length == nNodes ?
+        DoubleMatrix.ofUnsafe(transitionProbability) :
+        DoubleMatrix.ofUnsafe(Arrays.copyOf(transitionProbability, nNodes));
+    getNextOptionValues(
+        discountFactor,
+        probability,
+        DoubleArray.copyOf(stateValue, 0, nNodes),
+        DoubleArray.copyOf(values, 0, nNodes + 2),
+        i).copyInto(values, 0);
+  }
+
 }
@@ -61,33 +61,17 @@ abstract class SingleBarrierKnockoutFunction implements OptionFunction {
 
   @Override
   public DoubleArray getPayoffAtExpiryTrinomial(DoubleArray stateValue) {
-
     int nNodes = stateValue.size();
     double[] values = new double[nNodes];
-    double rebate = getRebate(getNumberOfSteps());
-    double barrierLevel = getBarrierLevel(getNumberOfSteps());
-    boolean isDown = getBarrierType().isDown();
-    Arrays.fill(values, rebate);
-    int index = getLowerBoundIndex(stateValue, barrierLevel);
-    ArgChecker.isTrue(index > -1 && index < nNodes - 1, "barrier is covered by tree");
-    int iMin = isDown ? index + 1 : 0;
-    int iMmax = !isDown ? index + 1 : nNodes;
-    for (int i = iMin; i < iMmax; ++i) {
-      values[i] = Math.max(getSign() * (stateValue.get(i) - getStrike()), 0d);
-    }
-    // modification if barrier lies between two consecutive nodes 
-    double bd = barrierLevel - stateValue.get(index);
-    double ub = stateValue.get(index + 1) - barrierLevel;
-    double ud = stateValue.get(index + 1) - stateValue.get(index);
-    if (isDown) {
-      values[index + 1] = 0.5 * values[index + 1] + 0.5 * (bd * rebate + ub * values[index + 1]) / ud;
-    } else {
-      values[index] = barrierLevel == stateValue.get(index) ? rebate :
-          0.5 * values[index] + 0.5 * (ub * rebate + bd * values[index]) / ud;
-    }
+    payoffAtExpiry(stateValue.toArrayUnsafe(), nNodes, values);
     return DoubleArray.ofUnsafe(values);
   }
 
+  @Override
+  public void getPayoffAtExpiryTrinomial(double[] stateValue, double[] values) {
+    payoffAtExpiry(stateValue, 2 * getNumberOfSteps() + 1, values);
+  }
+
   @Override
   public DoubleArray getNextOptionValues(
       double discountFactor,
@@ -96,48 +80,82 @@ abstract class SingleBarrierKnockoutFunction implements OptionFunction {
       DoubleArray values,
       int i) {
 
+    double[] res = values.toArray();
+    rollBackOptionValues(discountFactor, transitionProbability.toArrayUnsafe(), stateValue.toArrayUnsafe(), res, i);
+    return DoubleArray.ofUnsafe(res).subArray(0, 2 * i + 1);
+  }
+
+  @Override
+  public void rollBackOptionValues(
+      double discountFactor,
+      double[][] transitionProbability,
+      double[] stateValue,
+      double[] values,
+      int i) {
+
     int nNodes = 2 * i + 1;
-    double[] res = new double[nNodes];
     double barrierLevel = getBarrierLevel(i);
     double rebate = getRebate(i);
     boolean isDown = getBarrierType().isDown();
+    // ascending order, so that the values of the (i+1)-th layer are consumed before being overwritten
     for (int j = 0; j < nNodes; ++j) {
-      if ((isDown && stateValue.get(j) <= barrierLevel) ||
-          (!isDown && stateValue.get(j) >= barrierLevel)) {
-        res[j] = rebate;
+      if ((isDown && stateValue[j] <= barrierLevel) ||
+          (!isDown && stateValue[j] >= barrierLevel)) {
+        values[j] = rebate;
       } else {
-        double upProb = transitionProbability.get(j, 2);
-        double middleProb = transitionProbability.get(j, 1);
-        double downProb = transitionProbability.get(j, 0);
-        res[j] = discountFactor *
-            (upProb * values.get(j + 2) + middleProb * values.get(j + 1) + downProb * values.get(j));
+        double[] probability = transitionProbability[j];
+        values[j] = discountFactor *
+            (probability[2] * values[j + 2] + probability[1] * values[j + 1] + probability[0] * values[j]);
       }
     }
     // modification if barrier lies between two consecutive nodes 
-    int index = getLowerBoundIndex(stateValue, barrierLevel);
+    int index = getLowerBoundIndex(stateValue, nNodes, barrierLevel);
     if (index > -1 && index < nNodes - 1) {
-      double bd = barrierLevel - stateValue.get(index);
-      double ub = stateValue.get(index + 1) - barrierLevel;
-      double ud = stateValue.get(index + 1) - stateValue.get(index);
+      double bd = barrierLevel - stateValue[index];
+      double ub = stateValue[index + 1] - barrierLevel;
+      double ud = stateValue[index + 1] - stateValue[index];
       if (isDown) {
-        res[index + 1] = 0.5 * res[index + 1] + 0.5 * (bd * rebate + ub * res[index + 1]) / ud;
+        values[index + 1] = 0.5 * values[index + 1] + 0.5 * (bd * rebate + ub * values[index + 1]) / ud;
       } else {
-        res[index] = 0.5 * res[index] + 0.5 * (ub * rebate + bd * res[index]) / ud;
+        values[index] = 0.5 * values[index] + 0.5 * (ub * rebate + bd * values[index]) / ud;
       }
     }
-    return DoubleArray.ofUnsafe(res);
   }
 
   //-------------------------------------------------------------------------
-  private int getLowerBoundIndex(DoubleArray set, double value) {
-    int n = set.size();
-    if (value < set.get(0)) {
+  // computes the payoff at expiry of the first nNodes nodes
+  private void payoffAtExpiry(double[] stateValue, int nNodes, double[] values) {
+    double rebate = getRebate(getNumberOfSteps());
+    double barrierLevel = getBarrierLevel(getNumberOfSteps());
+    boolean isDown = getBarrierType().isDown();
+    Arrays.fill(values, 0, nNodes, rebate);
+    int index = getLowerBoundIndex(stateValue, nNodes, barrierLevel);
+    ArgChecker.isTrue(index > -1 && index < nNodes - 1, "barrier is covered by tree");
+    int iMin = isDown ? index + 1 : 0;
+    int iMmax = !isDown ? index + 1 : nNodes;
+    for (int i = iMin; i < iMmax; ++i) {
+      values[i] = Math.max(getSign() * (stateValue[i] - getStrike()), 0d);
+    }
+    // modification if barrier lies between two consecutive nodes 
+    double bd = barrierLevel - stateValue[index];
+    double ub = stateValue[index + 1] - barrierLevel;
+    double ud = stateValue[index + 1] - stateValue[index];
+    if (isDown) {
+      values[index + 1] = 0.5 * values[index + 1] + 0.5 * (bd * rebate + ub * values[index + 1]) / ud;
+    } else {
+      values[index] = barrierLevel == stateValue[index] ? rebate :
+          0.5 * values[index] + 0.5 * (ub * rebate + bd * values[index]) / ud;
+    }
+  }
+
+  private int getLowerBoundIndex(double[] set, int n, double value) {
+    if (value < set[0]) {
       return -1;
     }
-    if (value > set.get(n - 1)) {
+    if (value > set[n - 1]) {
       return n - 1;
     }
-    int index = Arrays.binarySearch(set.toArrayUnsafe(), value);
+    int index = Arrays.binarySearch(set, 0, n, value);
     if (index >= 0) {
       // Fast break out if it's an exact match.
       return index;
@@ -146,7 +164,7 @@ abstract class SingleBarrierKnockoutFunction implements OptionFunction {
       index = -(index + 1);
       index--;
     }
-    if (value == -0. && index < n - 1 && set.get(index + 1) == 0.) {
+    if (value == -0. && index < n - 1 && set[index + 1] == 0.) {
       ++index;
     }
     return index;
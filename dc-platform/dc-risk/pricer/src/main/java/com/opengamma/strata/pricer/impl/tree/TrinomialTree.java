@@ -5,6 +5,8 @@
  */
 package com.opengamma.strata.pricer.impl.tree;
 
+import java.util.Arrays;
+
 import com.opengamma.strata.basics.value.ValueDerivatives;
 import com.opengamma.strata.collect.ArgChecker;
 import com.opengamma.strata.collect.array.DoubleArray;
@@ -17,9 +19,19 @@ import com.opengamma.strata.pricer.fxopt.RecombiningTrinomialTreeData;
  * and the option to price is specified by {@code OptionFunction}. 
  * <p>
  * Option pricing with non-uniform tree is realised by specifying {@code RecombiningTrinomialTreeData}.
+ * <p>
+ * The backward induction does not allocate per time step.
+ * The option values are rolled back in place in a lattice buffer owned by the calling thread,
+ * see {@link OptionFunction#rollBackOptionValues(double, double[][], double[], double[], int)}.
+ * The buffers are reused by subsequent valuations on the same thread.
  */
 public class TrinomialTree {
 
+  /**
+   * The lattice buffers of the calling thread.
+   */
+  private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
   /**
    * Price an option under the specified trinomial lattice.
    * <p>
@@ -57,12 +69,17 @@ public class TrinomialTree {
     ArgChecker.isTrue(midProbability > 0d, "midProbability should be greater than 0");
     ArgChecker.isTrue(midProbability < 1d, "midProbability should be smaller than 1");
     ArgChecker.isTrue(downProbability > 0d, "downProbability should be greater than 0");
-    DoubleArray values = function.getPayoffAtExpiryTrinomial(spot, downFactor, middleFactor);
+    Workspace workspace = WORKSPACE.get().ensureCapacity(nSteps);
+    double[] values = workspace.values;
+    double[] stateValue = workspace.stateValue;
+    double[][] probability = workspace.uniformProbability(downProbability, midProbability, upProbability);
+    populateStateValue(stateValue, spot, downFactor, middleFactor, nSteps);
+    function.getPayoffAtExpiryTrinomial(stateValue, values);
     for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(discount, upProbability, midProbability, downProbability, values, spot,
-          downFactor, middleFactor, i);
+      populateStateValue(stateValue, spot, downFactor, middleFactor, i);
+      function.rollBackOptionValues(discount, probability, stateValue, values, i);
     }
-    return values.get(0);
+    return values[0];
   }
 
   /**
@@ -78,12 +95,8 @@ public class TrinomialTree {
 
     int nSteps = data.getNumberOfSteps();
     ArgChecker.isTrue(nSteps == function.getNumberOfSteps(), "mismatch in number of steps");
-    DoubleArray values = function.getPayoffAtExpiryTrinomial(data.getStateValueAtLayer(nSteps));
-    for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(
-          data.getDiscountFactorAtLayer(i), data.getProbabilityAtLayer(i), data.getStateValueAtLayer(i), values, i);
-    }
-    return values.get(0);
+    double[] values = rollBack(function, data, nSteps, 0);
+    return values[0];
   }
 
   /**
@@ -102,19 +115,87 @@ public class TrinomialTree {
 
     int nSteps = data.getNumberOfSteps();
     ArgChecker.isTrue(nSteps == function.getNumberOfSteps(), "mismatch in number of steps");
-    DoubleArray values = function.getPayoffAtExpiryTrinomial(data.getStateValueAtLayer(nSteps));
+    // roll back to the first layer, compute delta, then complete the induction
+    double[] values = rollBack(function, data, nSteps, 1);
     double delta = 0d;
-    for (int i = nSteps - 1; i > -1; --i) {
-      values = function.getNextOptionValues(
-          data.getDiscountFactorAtLayer(i), data.getProbabilityAtLayer(i), data.getStateValueAtLayer(i), values, i);
-      if (i == 1) {
-        DoubleArray stateValue = data.getStateValueAtLayer(1);
-        double d1 = (values.get(2) - values.get(1)) / (stateValue.get(2) - stateValue.get(1));
-        double d2 = (values.get(1) - values.get(0)) / (stateValue.get(1) - stateValue.get(0));
-        delta = 0.5 * (d1 + d2);
+    if (nSteps > 1) {
+      double[] stateValue = data.getStateValue().toArrayUnsafe()[1];
+      double d1 = (values[2] - values[1]) / (stateValue[2] - stateValue[1]);
+      double d2 = (values[1] - values[0]) / (stateValue[1] - stateValue[0]);
+      delta = 0.5 * (d1 + d2);
+    }
+    function.rollBackOptionValues(
+        data.getDiscountFactorAtLayer(0),
+        data.getProbabilityAtLayer(0).toArrayUnsafe(),
+        data.getStateValue().toArrayUnsafe()[0],
+        values,
+        0);
+    return ValueDerivatives.of(values[0], DoubleArray.of(delta));
+  }
+
+  //-------------------------------------------------------------------------
+  // rolls back the option values from expiry to the layer 'toLayer', returning the thread's value buffer
+  private static double[] rollBack(
+      OptionFunction function,
+      RecombiningTrinomialTreeData data,
+      int nSteps,
+      int toLayer) {
+
+    double[][] stateValue = data.getStateValue().toArrayUnsafe();
+    double[] values = WORKSPACE.get().ensureCapacity(nSteps).values;
+    function.getPayoffAtExpiryTrinomial(stateValue[nSteps], values);
+    for (int i = nSteps - 1; i >= toLayer; --i) {
+      function.rollBackOptionValues(
+          data.getDiscountFactorAtLayer(i), data.getProbabilityAtLayer(i).toArrayUnsafe(), stateValue[i], values, i);
+    }
+    return values;
+  }
+
+  // populates the state values of the i-th layer of a uniform lattice
+  private static void populateStateValue(
+      double[] stateValue,
+      double spot,
+      double downFactor,
+      double middleFactor,
+      int i) {
+
+    int nNodes = 2 * i + 1;
+    for (int k = 0; k < nNodes; ++k) {
+      stateValue[k] = spot * Math.pow(downFactor, i - k) * Math.pow(middleFactor, k);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The lattice buffers of a single thread.
+   * <p>
+   * The buffers only ever grow, and are sized for the largest tree priced so far on the thread.
+   */
+  private static final class Workspace {
+    private double[] values = new double[0];
+    private double[] stateValue = new double[0];
+    private double[][] probability = new double[0][];
+    private final double[] probabilityAtNode = new double[3];
+
+    // ensures the buffers can hold a tree with the specified number of steps
+    private Workspace ensureCapacity(int nSteps) {
+      int nNodes = 2 * nSteps + 1;
+      if (values.length < nNodes) {
+        values = new double[nNodes];
+        stateValue = new double[nNodes];
+        probability = new double[nNodes][];
+        Arrays.fill(probability, probabilityAtNode);
       }
+      return this;
+    }
+
+    // sets the transition probability shared by all the nodes of a uniform lattice
+    private double[][] uniformProbability(double downProbability, double middleProbability, double upProbability) {
+      probabilityAtNode[0] = downProbability;
+      probabilityAtNode[1] = middleProbability;
+      probabilityAtNode[2] = upProbability;
+      return probability;
     }
-    return ValueDerivatives.of(values.get(0), DoubleArray.of(delta));
   }
 
 }
@@ -11,6 +11,8 @@ import static com.opengamma.strata.market.curve.interpolator.CurveInterpolators.
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 
 import com.google.common.collect.ImmutableList;
@@ -105,13 +107,8 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
       Function<Double, Double> interestRate,
       Function<Double, Double> dividendRate) {
 
-    Function<DoublesPair, Double> surface = new Function<DoublesPair, Double>() {
-      @Override
-      public Double apply(DoublesPair tk) {
-        return impliedVolatilitySurface.zValue(tk);
-      }
-    };
-    ImmutableList<double[]> localVolData = calibrate(surface, spot, interestRate, dividendRate).getFirst();
+    ImmutableList<double[]> localVolData = calibrate(
+        impliedVolatilitySurface::zValue, spot, interestRate::apply, dividendRate::apply).getFirst();
     SurfaceMetadata metadata = DefaultSurfaceMetadata.builder()
         .xValueType(ValueType.YEAR_FRACTION)
         .yValueType(ValueType.STRIKE)
@@ -140,7 +137,30 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
       double spot,
       Function<Double, Double> interestRate,
       Function<Double, Double> dividendRate) {
-    
+
+    DoubleBinaryOperator surface = (time, strike) -> impliedVolatilitySurface.apply(DoublesPair.of(time, strike));
+    return calibrate(surface, spot, interestRate::apply, dividendRate::apply).getSecond();
+  }
+
+  /**
+   * Calibrate trinomial tree to implied volatility surface.
+   * <p>
+   * This is equivalent to {@link #calibrateImpliedVolatility(Function, double, Function, Function)},
+   * but takes primitive functions to avoid boxing in the repeated evaluation of the inputs.
+   * The implied volatility surface takes the time and the strike, in that order.
+   * 
+   * @param impliedVolatilitySurface  the implied volatility surface
+   * @param spot  the spot
+   * @param interestRate  the interest rate
+   * @param dividendRate  the dividend rate
+   * @return the trinomial tree 
+   */
+  public RecombiningTrinomialTreeData calibrateImpliedVolatility(
+      DoubleBinaryOperator impliedVolatilitySurface,
+      double spot,
+      DoubleUnaryOperator interestRate,
+      DoubleUnaryOperator dividendRate) {
+
     return calibrate(impliedVolatilitySurface, spot, interestRate, dividendRate).getSecond();
   }
 
@@ -148,9 +168,11 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
   public InterpolatedNodalSurface localVolatilityFromPrice(
       Surface callPriceSurface,
       double spot,
-      Function<Double, Double> interestRate,
-      Function<Double, Double> dividendRate) {
+      Function<Double, Double> interestRateFunction,
+      Function<Double, Double> dividendRateFunction) {
 
+    DoubleUnaryOperator interestRate = interestRateFunction::apply;
+    DoubleUnaryOperator dividendRate = dividendRateFunction::apply;
     double[][] stateValue = new double[nSteps + 1][];
     double[] df = new double[nSteps];
     List<DoubleMatrix> probability = new ArrayList<DoubleMatrix>(nSteps);
@@ -159,8 +181,9 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
     double[] spotRes = new double[nTotal];
     double[] volRes = new double[nTotal];
     // uniform grid based on TrigeorgisLatticeSpecification, using reference values
-    double refPrice = callPriceSurface.zValue(maxTime, spot) * Math.exp(interestRate.apply(maxTime) * maxTime);
-    double refForward = spot * Math.exp((interestRate.apply(maxTime) - dividendRate.apply(maxTime)) * maxTime);
+    double refPrice = callPriceSurface.zValue(maxTime, spot) * Math.exp(interestRate.applyAsDouble(maxTime) * maxTime);
+    double refForward =
+        spot * Math.exp((interestRate.applyAsDouble(maxTime) - dividendRate.applyAsDouble(maxTime)) * maxTime);
     double refVolatility = BlackFormulaRepository.impliedVolatility(refPrice, refForward, spot, maxTime, true);
     double dt = maxTime / nSteps;
     double dx = refVolatility * Math.sqrt(3d * dt);
@@ -168,18 +191,21 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
     double downFactor = Math.exp(-dx);
     double[] adSec = new double[2 * nSteps + 1];
     double[] assetPrice = new double[2 * nSteps + 1];
+    // layer buffers, reused across the layers
+    double[] assetPriceLocal = new double[2 * nSteps + 1];
+    double[] callOptionPrice = new double[2 * nSteps + 1];
+    double[] putOptionPrice = new double[2 * nSteps + 1];
+    double[] adSecLocal = new double[2 * nSteps + 1];
+    double[] varBare = new double[2 * nSteps + 1];
     for (int i = nSteps; i > -1; --i) {
       if (i == 0) {
         resolveFirstLayer(interestRate, dividendRate, nTotal, dt, spot, adSec, assetPrice, timeRes, spotRes, volRes,
             df, stateValue, probability);
       } else {
         double time = dt * i;
-        double zeroRate = interestRate.apply(time);
-        double zeroDividendRate = dividendRate.apply(time);
+        double zeroRate = interestRate.applyAsDouble(time);
+        double zeroDividendRate = dividendRate.applyAsDouble(time);
         int nNodes = 2 * i + 1;
-        double[] assetPriceLocal = new double[nNodes];
-        double[] callOptionPrice = new double[nNodes];
-        double[] putOptionPrice = new double[nNodes];
         int position = i - 1;
         double assetTmp = spot * Math.pow(upFactor, i);
         // call options for upper half nodes
@@ -197,7 +223,8 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
           assetTmp *= upFactor;
         }
         resolveLayer(interestRate, dividendRate, i, nTotal, position, dt, zeroRate, zeroDividendRate, callOptionPrice,
-            putOptionPrice, adSec, assetPrice, assetPriceLocal, timeRes, spotRes, volRes, df, stateValue, probability);
+            putOptionPrice, adSec, assetPrice, assetPriceLocal, timeRes, spotRes, volRes, df, stateValue, probability,
+            adSecLocal, varBare);
       }
     }
     SurfaceMetadata metadata = DefaultSurfaceMetadata.builder()
@@ -216,10 +243,10 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
 
   //-----------------------------------------------------------------------
   private Pair<ImmutableList<double[]>, RecombiningTrinomialTreeData> calibrate(
-      Function<DoublesPair, Double> impliedVolatilitySurface,
+      DoubleBinaryOperator impliedVolatilitySurface,
       double spot,
-      Function<Double, Double> interestRate,
-      Function<Double, Double> dividendRate) {
+      DoubleUnaryOperator interestRate,
+      DoubleUnaryOperator dividendRate) {
 
     double[][] stateValue = new double[nSteps + 1][];
     double[] df = new double[nSteps];
@@ -230,32 +257,35 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
     double[] spotRes = new double[nTotal];
     double[] volRes = new double[nTotal];
     // uniform grid based on TrigeorgisLatticeSpecification
-    double volatility = impliedVolatilitySurface.apply(DoublesPair.of(maxTime, spot));
+    double volatility = impliedVolatilitySurface.applyAsDouble(maxTime, spot);
     double dt = maxTime / nSteps;
     double dx = volatility * Math.sqrt(3d * dt);
     double upFactor = Math.exp(dx);
     double downFactor = Math.exp(-dx);
     double[] adSec = new double[2 * nSteps + 1];
     double[] assetPrice = new double[2 * nSteps + 1];
+    // layer buffers, reused across the layers
+    double[] assetPriceLocal = new double[2 * nSteps + 1];
+    double[] callOptionPrice = new double[2 * nSteps + 1];
+    double[] putOptionPrice = new double[2 * nSteps + 1];
+    double[] adSecLocal = new double[2 * nSteps + 1];
+    double[] varBare = new double[2 * nSteps + 1];
     for (int i = nSteps; i > -1; --i) {
       timePrim[i] = dt * i;
       if (i == 0) {
         resolveFirstLayer(interestRate, dividendRate, nTotal, dt, spot, adSec, assetPrice, timeRes, spotRes, volRes,
             df, stateValue, probability);
       } else {
-        double zeroRate = interestRate.apply(timePrim[i]);
-        double zeroDividendRate = dividendRate.apply(timePrim[i]);
+        double zeroRate = interestRate.applyAsDouble(timePrim[i]);
+        double zeroDividendRate = dividendRate.applyAsDouble(timePrim[i]);
         double zeroCostRate = zeroRate - zeroDividendRate;
         int nNodes = 2 * i + 1;
-        double[] assetPriceLocal = new double[nNodes];
-        double[] callOptionPrice = new double[nNodes];
-        double[] putOptionPrice = new double[nNodes];
         int position = i - 1;
         double assetTmp = spot * Math.pow(upFactor, i);
         // call options for upper half nodes
         for (int j = nNodes - 1; j > position - 1; --j) {
           assetPriceLocal[j] = assetTmp;
-          double impliedVol = impliedVolatilitySurface.apply(DoublesPair.of(timePrim[i], assetPriceLocal[j]));
+          double impliedVol = impliedVolatilitySurface.applyAsDouble(timePrim[i], assetPriceLocal[j]);
           callOptionPrice[j] = BlackScholesFormulaRepository.price(
               spot, assetPriceLocal[j], timePrim[i], impliedVol, zeroRate, zeroCostRate, true);
           assetTmp *= downFactor;
@@ -264,13 +294,14 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
         assetTmp = spot * Math.pow(downFactor, i);
         for (int j = 0; j < position + 2; ++j) {
           assetPriceLocal[j] = assetTmp;
-          double impliedVol = impliedVolatilitySurface.apply(DoublesPair.of(timePrim[i], assetPriceLocal[j]));
+          double impliedVol = impliedVolatilitySurface.applyAsDouble(timePrim[i], assetPriceLocal[j]);
           putOptionPrice[j] = BlackScholesFormulaRepository.price(
               spot, assetPriceLocal[j], timePrim[i], impliedVol, zeroRate, zeroCostRate, false);
           assetTmp *= upFactor;
         }
         resolveLayer(interestRate, dividendRate, i, nTotal, position, dt, zeroRate, zeroDividendRate, callOptionPrice,
-            putOptionPrice, adSec, assetPrice, assetPriceLocal, timeRes, spotRes, volRes, df, stateValue, probability);
+            putOptionPrice, adSec, assetPrice, assetPriceLocal, timeRes, spotRes, volRes, df, stateValue, probability,
+            adSecLocal, varBare);
       }
     }
     ImmutableList<double[]> localVolData = ImmutableList.of(timeRes, spotRes, volRes);
@@ -280,12 +311,12 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
   }
 
   // resolve the t=0 layer
-  private void resolveFirstLayer(Function<Double, Double> interestRate, Function<Double, Double> dividendRate,
+  private void resolveFirstLayer(DoubleUnaryOperator interestRate, DoubleUnaryOperator dividendRate,
       int nTotal, double dt, double spot, double[] adSec, double[] assetPrice, double[] timeRes, double[] spotRes,
       double[] volRes, double[] df, double[][] stateValue, List<DoubleMatrix> probability) {
 
-    double discountFactor = Math.exp(-interestRate.apply(dt) * dt);
-    double fwdFactor = Math.exp((interestRate.apply(dt) - dividendRate.apply(dt)) * dt);
+    double discountFactor = Math.exp(-interestRate.applyAsDouble(dt) * dt);
+    double fwdFactor = Math.exp((interestRate.applyAsDouble(dt) - dividendRate.applyAsDouble(dt)) * dt);
     double upProb = adSec[2] / discountFactor;
     double midProb = getMiddle(upProb, fwdFactor, spot, assetPrice[0], assetPrice[1], assetPrice[2]);
     double dwProb = 1d - upProb - midProb;
@@ -302,14 +333,14 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
   }
 
   // resolve the i-th layer
-  private void resolveLayer(Function<Double, Double> interestRate, Function<Double, Double> dividendRate, int i,
+  private void resolveLayer(DoubleUnaryOperator interestRate, DoubleUnaryOperator dividendRate, int i,
       int nTotal, int position, double dt, double zeroRate, double zeroDividendRate, double[] callOptionPrice,
       double[] putOptionPrice, double[] adSec, double[] assetPrice, double[] assetPriceLocal, double[] timeRes,
-      double[] spotRes, double[] volRes, double[] df, double[][] stateValue, List<DoubleMatrix> probability) {
+      double[] spotRes, double[] volRes, double[] df, double[][] stateValue, List<DoubleMatrix> probability,
+      double[] adSecLocal, double[] varBare) {
 
     int positionLocal = position;
-    int nNodes = callOptionPrice.length;
-    double[] adSecLocal = new double[nNodes];
+    int nNodes = 2 * i + 1;
     // AD security prices from call options
     for (int j = nNodes - 1; j > positionLocal; --j) {
       adSecLocal[j] = callOptionPrice[j - 1];
@@ -330,8 +361,8 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
     if (i != nSteps) {
       double time = dt * i;
       double timeNext = dt * (i - 1);
-      double rate = (zeroRate * time - interestRate.apply(timeNext) * timeNext) / dt;
-      double dividend = (zeroDividendRate * time - dividendRate.apply(timeNext) * timeNext) / dt;
+      double rate = (zeroRate * time - interestRate.applyAsDouble(timeNext) * timeNext) / dt;
+      double dividend = (zeroDividendRate * time - dividendRate.applyAsDouble(timeNext) * timeNext) / dt;
       double cost = rate - dividend;
       double discountFactor = Math.exp(-rate * dt);
       double fwdFactor = Math.exp(cost * dt);
@@ -363,7 +394,6 @@ public class ImpliedTrinomialTreeLocalVolatilityCalculator implements LocalVolat
       }
       // local variance
       int offset = nTotal - i * i - 1;
-      double[] varBare = new double[nNodes];
       for (int k = 0; k < nNodes; ++k) {
         double fwd = assetPriceLocal[k] * fwdFactor;
         varBare[k] = (prob[k][0] * Math.pow(assetPrice[k] - fwd, 2)
@@ -216,6 +216,27 @@ public final class DiscountIborIndexRates
     return psStart.combinedWith(psEnd);
   }
 
+  @Override
+  public void parameterSensitivity(
+      IborRateSensitivity pointSensitivity,
+      Map<MarketDataName<?>, Integer> curveOffsets,
+      double[] array) {
+
+    LocalDate fixingStartDate = pointSensitivity.getObservation().getEffectiveDate();
+    LocalDate fixingEndDate = pointSensitivity.getObservation().getMaturityDate();
+    double accrualFactor = pointSensitivity.getObservation().getYearFraction();
+    double forwardBar = pointSensitivity.getSensitivity();
+    double dfForwardStart = discountFactors.discountFactor(fixingStartDate);
+    double dfForwardEnd = discountFactors.discountFactor(fixingEndDate);
+    double dfStartBar = forwardBar / (accrualFactor * dfForwardEnd);
+    double dfEndBar = -forwardBar * dfForwardStart / (accrualFactor * dfForwardEnd * dfForwardEnd);
+    Currency currency = pointSensitivity.getCurrency();
+    ZeroRateSensitivity zrsStart = discountFactors.zeroRatePointSensitivity(fixingStartDate, currency);
+    ZeroRateSensitivity zrsEnd = discountFactors.zeroRatePointSensitivity(fixingEndDate, currency);
+    discountFactors.parameterSensitivity(zrsStart.multipliedBy(dfStartBar), curveOffsets, array);
+    discountFactors.parameterSensitivity(zrsEnd.multipliedBy(dfEndBar), curveOffsets, array);
+  }
+
   @Override
   public CurrencyParameterSensitivities createParameterSensitivity(Currency currency, DoubleArray sensitivities) {
     return discountFactors.createParameterSensitivity(currency, sensitivities);
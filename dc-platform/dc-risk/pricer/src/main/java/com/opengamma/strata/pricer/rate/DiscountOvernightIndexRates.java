@@ -243,6 +243,27 @@ public final class DiscountOvernightIndexRates
     return psStart.combinedWith(psEnd);
   }
 
+  @Override
+  public void parameterSensitivity(
+      OvernightRateSensitivity pointSensitivity,
+      Map<MarketDataName<?>, Integer> curveOffsets,
+      double[] array) {
+
+    OvernightIndex index = pointSensitivity.getIndex();
+    LocalDate startDate = pointSensitivity.getObservation().getEffectiveDate();
+    LocalDate endDate = pointSensitivity.getEndDate();
+    double accrualFactor = index.getDayCount().yearFraction(startDate, endDate);
+    double forwardBar = pointSensitivity.getSensitivity();
+    double dfForwardStart = discountFactors.discountFactor(startDate);
+    double dfForwardEnd = discountFactors.discountFactor(endDate);
+    double dfStartBar = forwardBar / (accrualFactor * dfForwardEnd);
+    double dfEndBar = -forwardBar * dfForwardStart / (accrualFactor * dfForwardEnd * dfForwardEnd);
+    ZeroRateSensitivity zrsStart = discountFactors.zeroRatePointSensitivity(startDate, pointSensitivity.getCurrency());
+    ZeroRateSensitivity zrsEnd = discountFactors.zeroRatePointSensitivity(endDate, pointSensitivity.getCurrency());
+    discountFactors.parameterSensitivity(zrsStart.multipliedBy(dfStartBar), curveOffsets, array);
+    discountFactors.parameterSensitivity(zrsEnd.multipliedBy(dfEndBar), curveOffsets, array);
+  }
+
   @Override
   public CurrencyParameterSensitivities createParameterSensitivity(Currency currency, DoubleArray sensitivities) {
     return discountFactors.createParameterSensitivity(currency, sensitivities);
@@ -29,6 +29,7 @@ import com.opengamma.strata.basics.currency.Currency;
 import com.opengamma.strata.basics.currency.FxRateProvider;
 import com.opengamma.strata.basics.index.IborIndex;
 import com.opengamma.strata.basics.index.IborIndexObservation;
+import com.opengamma.strata.market.sensitivity.MergeablePointSensitivity;
 import com.opengamma.strata.market.sensitivity.MutablePointSensitivities;
 import com.opengamma.strata.market.sensitivity.PointSensitivity;
 import com.opengamma.strata.market.sensitivity.PointSensitivityBuilder;
@@ -40,7 +41,7 @@ import com.opengamma.strata.market.sensitivity.PointSensitivityBuilder;
  */
 @BeanDefinition(builderScope = "private")
 public final class IborRateSensitivity
-    implements PointSensitivity, PointSensitivityBuilder, ImmutableBean, Serializable {
+    implements MergeablePointSensitivity, PointSensitivityBuilder, ImmutableBean, Serializable {
 
   /**
    * The Ibor index observation.
@@ -128,9 +129,19 @@ public final class IborRateSensitivity
     return getClass().getSimpleName().compareTo(other.getClass().getSimpleName());
   }
 
+  @Override
+  public Object curveKey() {
+    return observation.getIndex();
+  }
+
+  @Override
+  public long pointKey() {
+    return observation.getFixingDate().toEpochDay();
+  }
+
   @Override
   public IborRateSensitivity convertedTo(Currency resultCurrency, FxRateProvider rateProvider) {
-    return (IborRateSensitivity) PointSensitivity.super.convertedTo(resultCurrency, rateProvider);
+    return (IborRateSensitivity) MergeablePointSensitivity.super.convertedTo(resultCurrency, rateProvider);
   }
 
   //-------------------------------------------------------------------------
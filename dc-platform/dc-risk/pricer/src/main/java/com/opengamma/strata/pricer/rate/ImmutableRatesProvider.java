@@ -314,6 +314,18 @@ public final class ImmutableRatesProvider
     return this;
   }
 
+  /**
+   * Returns a provider that memoizes the discount factors of this provider by date.
+   * <p>
+   * This is opt-in, intended for pricing many trades against the same provider.
+   * Each call returns a new provider with empty memos, see {@link MemoizingRatesProvider}.
+   *
+   * @return the memoizing provider
+   */
+  public MemoizingRatesProvider memoized() {
+    return MemoizingRatesProvider.of(this);
+  }
+
     //------------------------- AUTOGENERATED START -------------------------
     ///CLOVER:OFF
     /**
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.rate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A thread-safe memo of {@code double} values keyed by date.
+ * <p>
+ * The dates are held as epoch-days in an open-addressing hash table with linear probing,
+ * so that neither the keys nor the values are boxed. Entries are never removed.
+ * <p>
+ * Reads are optimistic and do not lock. Writes are serialized, and the value is computed outside the lock.
+ * The function must be pure, as two threads may compute the value of the same date concurrently,
+ * in which case the first value stored is kept.
+ */
+final class LocalDateDoubleMemo {
+
+  /**
+   * The key marking an empty slot, which is not the epoch-day of any valid date.
+   */
+  private static final long EMPTY = Long.MIN_VALUE;
+  /**
+   * The initial capacity of the table, a power of two.
+   */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * The lock guarding the table.
+   */
+  private final StampedLock lock = new StampedLock();
+  /**
+   * The table, replaced when it is resized.
+   * This is volatile so that an optimistic read always sees a fully built table.
+   */
+  private volatile Table table = new Table(INITIAL_CAPACITY);
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the value for the date, computing and storing it if it is not yet known.
+   *
+   * @param date  the date
+   * @param function  the function computing the value for a date
+   * @return the value
+   */
+  double computeIfAbsent(LocalDate date, ToDoubleFunction<LocalDate> function) {
+    long key = date.toEpochDay();
+    long stamp = lock.tryOptimisticRead();
+    Table current = table;
+    int slot = current.find(key);
+    if (slot >= 0 && current.keys[slot] == key) {
+      double value = current.values[slot];
+      if (lock.validate(stamp)) {
+        return value;
+      }
+    }
+    double value = function.applyAsDouble(date);
+    long writeStamp = lock.writeLock();
+    try {
+      put(key, value);
+    } finally {
+      lock.unlockWrite(writeStamp);
+    }
+    return value;
+  }
+
+  /**
+   * Gets the number of dates in the memo.
+   *
+   * @return the number of dates
+   */
+  int size() {
+    long stamp = lock.readLock();
+    try {
+      return table.size;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  // stores the value, keeping any existing value, called under the write lock
+  private void put(long key, double value) {
+    Table current = table;
+    int slot = current.find(key);
+    if (current.keys[slot] == key) {
+      return;
+    }
+    if ((current.size + 1) * 2 > current.keys.length) {
+      current = current.resize();
+      slot = current.find(key);
+    }
+    current.values[slot] = value;
+    current.keys[slot] = key;
+    current.size++;
+    table = current;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The hash table, kept at most half full so that a probe always ends on an empty slot.
+   */
+  private static final class Table {
+    private final long[] keys;
+    private final double[] values;
+    private int size;
+
+    private Table(int capacity) {
+      keys = new long[capacity];
+      values = new double[capacity];
+      Arrays.fill(keys, EMPTY);
+    }
+
+    // finds the slot of the key, or the empty slot where it would be inserted, -1 if neither is found
+    private int find(long key) {
+      int mask = keys.length - 1;
+      int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+      for (int probes = 0; probes < keys.length; probes++) {
+        long existing = keys[slot];
+        if (existing == key || existing == EMPTY) {
+          return slot;
+        }
+        slot = (slot + 1) & mask;
+      }
+      return -1;
+    }
+
+    // copies the entries to a table of twice the capacity
+    private Table resize() {
+      Table resized = new Table(keys.length * 2);
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] != EMPTY) {
+          int slot = resized.find(keys[i]);
+          resized.keys[slot] = keys[i];
+          resized.values[slot] = values[i];
+        }
+      }
+      resized.size = size;
+      return resized;
+    }
+  }
+
+}
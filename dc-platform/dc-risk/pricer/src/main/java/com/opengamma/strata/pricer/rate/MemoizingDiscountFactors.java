@@ -0,0 +1,181 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.rate;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.data.MarketDataName;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
+import com.opengamma.strata.market.param.ParameterMetadata;
+import com.opengamma.strata.market.param.ParameterPerturbation;
+import com.opengamma.strata.pricer.CompoundedRateType;
+import com.opengamma.strata.pricer.DiscountFactors;
+import com.opengamma.strata.pricer.ZeroRateSensitivity;
+
+/**
+ * Discount factors that memoize the date-based lookups of underlying discount factors.
+ * <p>
+ * The relative year fraction and the discount factor of each date are calculated once by the
+ * underlying discount factors and then held by epoch-day. All other methods delegate,
+ * so every value is identical to that of the underlying discount factors.
+ * <p>
+ * The discount factors returned by {@code withParameter} and {@code withPerturbation}
+ * memoize the changed underlying discount factors, starting from empty memos.
+ */
+final class MemoizingDiscountFactors
+    implements DiscountFactors {
+
+  /**
+   * The underlying discount factors.
+   */
+  private final DiscountFactors underlying;
+  /**
+   * The memo of the relative year fraction of each date.
+   */
+  private final LocalDateDoubleMemo yearFractions = new LocalDateDoubleMemo();
+  /**
+   * The memo of the discount factor of each date.
+   */
+  private final LocalDateDoubleMemo discountFactors = new LocalDateDoubleMemo();
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance memoizing the underlying discount factors.
+   *
+   * @param underlying  the underlying discount factors
+   * @return the memoizing discount factors
+   */
+  static MemoizingDiscountFactors of(DiscountFactors underlying) {
+    if (underlying instanceof MemoizingDiscountFactors) {
+      return (MemoizingDiscountFactors) underlying;
+    }
+    return new MemoizingDiscountFactors(underlying);
+  }
+
+  // restricted constructor
+  private MemoizingDiscountFactors(DiscountFactors underlying) {
+    this.underlying = ArgChecker.notNull(underlying, "underlying");
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the underlying discount factors.
+   *
+   * @return the underlying discount factors
+   */
+  DiscountFactors getUnderlying() {
+    return underlying;
+  }
+
+  @Override
+  public Currency getCurrency() {
+    return underlying.getCurrency();
+  }
+
+  @Override
+  public LocalDate getValuationDate() {
+    return underlying.getValuationDate();
+  }
+
+  @Override
+  public <T> Optional<T> findData(MarketDataName<T> name) {
+    return underlying.findData(name);
+  }
+
+  @Override
+  public int getParameterCount() {
+    return underlying.getParameterCount();
+  }
+
+  @Override
+  public double getParameter(int parameterIndex) {
+    return underlying.getParameter(parameterIndex);
+  }
+
+  @Override
+  public ParameterMetadata getParameterMetadata(int parameterIndex) {
+    return underlying.getParameterMetadata(parameterIndex);
+  }
+
+  @Override
+  public MemoizingDiscountFactors withParameter(int parameterIndex, double newValue) {
+    return new MemoizingDiscountFactors(underlying.withParameter(parameterIndex, newValue));
+  }
+
+  @Override
+  public MemoizingDiscountFactors withPerturbation(ParameterPerturbation perturbation) {
+    return new MemoizingDiscountFactors(underlying.withPerturbation(perturbation));
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public double relativeYearFraction(LocalDate date) {
+    return yearFractions.computeIfAbsent(date, underlying::relativeYearFraction);
+  }
+
+  @Override
+  public double discountFactor(LocalDate date) {
+    return discountFactors.computeIfAbsent(date, underlying::discountFactor);
+  }
+
+  @Override
+  public double discountFactor(double yearFraction) {
+    return underlying.discountFactor(yearFraction);
+  }
+
+  @Override
+  public double discountFactorWithSpread(
+      double yearFraction,
+      double zSpread,
+      CompoundedRateType compoundedRateType,
+      int periodsPerYear) {
+
+    return underlying.discountFactorWithSpread(yearFraction, zSpread, compoundedRateType, periodsPerYear);
+  }
+
+  @Override
+  public double zeroRate(double yearFraction) {
+    return underlying.zeroRate(yearFraction);
+  }
+
+  @Override
+  public ZeroRateSensitivity zeroRatePointSensitivity(double yearFraction, Currency sensitivityCurrency) {
+    return underlying.zeroRatePointSensitivity(yearFraction, sensitivityCurrency);
+  }
+
+  @Override
+  public ZeroRateSensitivity zeroRatePointSensitivityWithSpread(
+      double yearFraction,
+      Currency sensitivityCurrency,
+      double zSpread,
+      CompoundedRateType compoundedRateType,
+      int periodsPerYear) {
+
+    return underlying.zeroRatePointSensitivityWithSpread(
+        yearFraction, sensitivityCurrency, zSpread, compoundedRateType, periodsPerYear);
+  }
+
+  @Override
+  public CurrencyParameterSensitivities parameterSensitivity(ZeroRateSensitivity pointSensitivity) {
+    return underlying.parameterSensitivity(pointSensitivity);
+  }
+
+  @Override
+  public CurrencyParameterSensitivities createParameterSensitivity(Currency currency, DoubleArray sensitivities) {
+    return underlying.createParameterSensitivity(currency, sensitivities);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "MemoizingDiscountFactors[" + underlying + "]";
+  }
+
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.rate;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.ImmutableSet;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyPair;
+import com.opengamma.strata.basics.index.FxIndex;
+import com.opengamma.strata.basics.index.IborIndex;
+import com.opengamma.strata.basics.index.Index;
+import com.opengamma.strata.basics.index.OvernightIndex;
+import com.opengamma.strata.basics.index.PriceIndex;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.MarketDataId;
+import com.opengamma.strata.data.MarketDataName;
+import com.opengamma.strata.pricer.DiscountFactors;
+import com.opengamma.strata.pricer.fx.DiscountFxForwardRates;
+import com.opengamma.strata.pricer.fx.ForwardFxIndexRates;
+import com.opengamma.strata.pricer.fx.FxForwardRates;
+import com.opengamma.strata.pricer.fx.FxIndexRates;
+
+/**
+ * A rates provider that memoizes the date-based discount factor lookups of an immutable rates provider.
+ * <p>
+ * Pricing a portfolio calls {@link DiscountFactors#discountFactor(LocalDate)} for the same dates many times,
+ * each call converting the date to a year fraction and interpolating the curve.
+ * This provider holds one set of discount factors per currency and per Ibor or Overnight index,
+ * each of which calculates the year fraction and discount factor of a date once, then keeps it by epoch-day.
+ * The forward rates of indices whose curves are discount factor based use the memoized discount factors.
+ * Every value is identical to that of the underlying provider.
+ * <p>
+ * The memos belong to this instance and are never invalidated.
+ * The underlying provider is immutable, so a scenario or a bumped curve is a different provider,
+ * which must be memoized separately if required. Discount factors obtained by perturbing
+ * the discount factors of this provider start with empty memos.
+ * <p>
+ * This provider is intended to be created for a pricing run and discarded with it.
+ * It is thread-safe, but the memos grow with the number of distinct dates requested.
+ */
+public final class MemoizingRatesProvider
+    implements RatesProvider {
+
+  /**
+   * The underlying provider.
+   */
+  private final ImmutableRatesProvider underlying;
+  /**
+   * The memoizing discount factors, keyed by currency.
+   */
+  private final ConcurrentHashMap<Currency, DiscountFactors> discountFactors = new ConcurrentHashMap<>();
+  /**
+   * The Ibor index rates, keyed by index.
+   */
+  private final ConcurrentHashMap<IborIndex, IborIndexRates> iborIndexRates = new ConcurrentHashMap<>();
+  /**
+   * The Overnight index rates, keyed by index.
+   */
+  private final ConcurrentHashMap<OvernightIndex, OvernightIndexRates> overnightIndexRates = new ConcurrentHashMap<>();
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance memoizing the specified provider.
+   *
+   * @param underlying  the underlying provider
+   * @return the memoizing provider
+   */
+  public static MemoizingRatesProvider of(ImmutableRatesProvider underlying) {
+    return new MemoizingRatesProvider(underlying);
+  }
+
+  // restricted constructor
+  private MemoizingRatesProvider(ImmutableRatesProvider underlying) {
+    this.underlying = ArgChecker.notNull(underlying, "underlying");
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public LocalDate getValuationDate() {
+    return underlying.getValuationDate();
+  }
+
+  @Override
+  public ImmutableSet<Currency> getDiscountCurrencies() {
+    return underlying.getDiscountCurrencies();
+  }
+
+  @Override
+  public ImmutableSet<IborIndex> getIborIndices() {
+    return underlying.getIborIndices();
+  }
+
+  @Override
+  public ImmutableSet<OvernightIndex> getOvernightIndices() {
+    return underlying.getOvernightIndices();
+  }
+
+  @Override
+  public ImmutableSet<PriceIndex> getPriceIndices() {
+    return underlying.getPriceIndices();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public <T> Optional<T> findData(MarketDataName<T> name) {
+    return underlying.findData(name);
+  }
+
+  @Override
+  public <T> T data(MarketDataId<T> id) {
+    return underlying.data(id);
+  }
+
+  @Override
+  public LocalDateDoubleTimeSeries timeSeries(Index index) {
+    return underlying.timeSeries(index);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public double fxRate(Currency baseCurrency, Currency counterCurrency) {
+    return underlying.fxRate(baseCurrency, counterCurrency);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public DiscountFactors discountFactors(Currency currency) {
+    return discountFactors.computeIfAbsent(
+        currency, ccy -> MemoizingDiscountFactors.of(underlying.discountFactors(ccy)));
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public FxIndexRates fxIndexRates(FxIndex index) {
+    LocalDateDoubleTimeSeries fixings = timeSeries(index);
+    FxForwardRates fxForwardRates = fxForwardRates(index.getCurrencyPair());
+    return ForwardFxIndexRates.of(index, fxForwardRates, fixings);
+  }
+
+  @Override
+  public FxForwardRates fxForwardRates(CurrencyPair currencyPair) {
+    DiscountFactors base = discountFactors(currencyPair.getBase());
+    DiscountFactors counter = discountFactors(currencyPair.getCounter());
+    return DiscountFxForwardRates.of(currencyPair, underlying.getFxRateProvider(), base, counter);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public IborIndexRates iborIndexRates(IborIndex index) {
+    return iborIndexRates.computeIfAbsent(index, idx -> {
+      IborIndexRates rates = underlying.iborIndexRates(idx);
+      if (rates instanceof DiscountIborIndexRates) {
+        DiscountIborIndexRates discountRates = (DiscountIborIndexRates) rates;
+        return DiscountIborIndexRates.of(
+            idx, MemoizingDiscountFactors.of(discountRates.getDiscountFactors()), discountRates.getFixings());
+      }
+      return rates;
+    });
+  }
+
+  @Override
+  public OvernightIndexRates overnightIndexRates(OvernightIndex index) {
+    return overnightIndexRates.computeIfAbsent(index, idx -> {
+      OvernightIndexRates rates = underlying.overnightIndexRates(idx);
+      if (rates instanceof DiscountOvernightIndexRates) {
+        DiscountOvernightIndexRates discountRates = (DiscountOvernightIndexRates) rates;
+        return DiscountOvernightIndexRates.of(
+            idx, MemoizingDiscountFactors.of(discountRates.getDiscountFactors()), discountRates.getFixings());
+      }
+      return rates;
+    });
+  }
+
+  @Override
+  public PriceIndexValues priceIndexValues(PriceIndex index) {
+    return underlying.priceIndexValues(index);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Returns the underlying immutable provider.
+   * <p>
+   * The memoized values are not part of the underlying provider.
+   *
+   * @return the underlying provider
+   */
+  @Override
+  public ImmutableRatesProvider toImmutableRatesProvider() {
+    return underlying;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "MemoizingRatesProvider[" + underlying + "]";
+  }
+
+}
@@ -32,6 +32,7 @@ import com.opengamma.strata.basics.currency.FxRateProvider;
 import com.opengamma.strata.basics.index.OvernightIndex;
 import com.opengamma.strata.basics.index.OvernightIndexObservation;
 import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.market.sensitivity.MergeablePointSensitivity;
 import com.opengamma.strata.market.sensitivity.MutablePointSensitivities;
 import com.opengamma.strata.market.sensitivity.PointSensitivity;
 import com.opengamma.strata.market.sensitivity.PointSensitivityBuilder;
@@ -47,7 +48,7 @@ import com.opengamma.strata.market.sensitivity.PointSensitivityBuilder;
  */
 @BeanDefinition(builderScope = "private")
 public final class OvernightRateSensitivity
-    implements PointSensitivity, PointSensitivityBuilder, ImmutableBean, Serializable {
+    implements MergeablePointSensitivity, PointSensitivityBuilder, ImmutableBean, Serializable {
 
   /**
    * The Overnight rate observation.
@@ -190,9 +191,19 @@ public final class OvernightRateSensitivity
     return getClass().getSimpleName().compareTo(other.getClass().getSimpleName());
   }
 
+  @Override
+  public Object curveKey() {
+    return observation.getIndex();
+  }
+
+  @Override
+  public long pointKey() {
+    return (observation.getFixingDate().toEpochDay() << 32) ^ endDate.toEpochDay();
+  }
+
   @Override
   public OvernightRateSensitivity convertedTo(Currency resultCurrency, FxRateProvider rateProvider) {
-    return (OvernightRateSensitivity) PointSensitivity.super.convertedTo(resultCurrency, rateProvider);
+    return (OvernightRateSensitivity) MergeablePointSensitivity.super.convertedTo(resultCurrency, rateProvider);
   }
 
   //-------------------------------------------------------------------------
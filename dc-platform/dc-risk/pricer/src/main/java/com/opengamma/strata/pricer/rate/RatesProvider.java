@@ -5,6 +5,7 @@
  */
 package com.opengamma.strata.pricer.rate;
 
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -147,38 +148,93 @@ public interface RatesProvider
   public default CurrencyParameterSensitivities parameterSensitivity(PointSensitivities pointSensitivities) {
     CurrencyParameterSensitivities sens = CurrencyParameterSensitivities.empty();
     for (PointSensitivity point : pointSensitivities.getSensitivities()) {
-      if (point instanceof ZeroRateSensitivity) {
-        ZeroRateSensitivity pt = (ZeroRateSensitivity) point;
-        DiscountFactors factors = discountFactors(pt.getCurveCurrency());
-        sens = sens.combinedWith(factors.parameterSensitivity(pt));
-
-      } else if (point instanceof IborRateSensitivity) {
-        IborRateSensitivity pt = (IborRateSensitivity) point;
-        IborIndexRates rates = iborIndexRates(pt.getIndex());
-        sens = sens.combinedWith(rates.parameterSensitivity(pt));
-
-      } else if (point instanceof OvernightRateSensitivity) {
-        OvernightRateSensitivity pt = (OvernightRateSensitivity) point;
-        OvernightIndexRates rates = overnightIndexRates(pt.getIndex());
-        sens = sens.combinedWith(rates.parameterSensitivity(pt));
-
-      } else if (point instanceof FxIndexSensitivity) {
-        FxIndexSensitivity pt = (FxIndexSensitivity) point;
-        FxIndexRates rates = fxIndexRates(pt.getIndex());
-        sens = sens.combinedWith(rates.parameterSensitivity(pt));
+      sens = sens.combinedWith(parameterSensitivity(point));
+    }
+    return sens;
+  }
 
-      } else if (point instanceof InflationRateSensitivity) {
-        InflationRateSensitivity pt = (InflationRateSensitivity) point;
-        PriceIndexValues rates = priceIndexValues(pt.getIndex());
-        sens = sens.combinedWith(rates.parameterSensitivity(pt));
+  /**
+   * Computes the parameter sensitivity of a single point sensitivity.
+   * <p>
+   * This computes the {@link CurrencyParameterSensitivities} associated with one {@link PointSensitivity}.
+   * This is used when the sensitivities of each point are to be accumulated directly by the caller,
+   * rather than combined into a single {@code CurrencyParameterSensitivities} instance.
+   * An empty result is returned if the type of point sensitivity is not handled by this provider.
+   * 
+   * @param point  the point sensitivity
+   * @return the sensitivity to the curve parameters
+   */
+  public default CurrencyParameterSensitivities parameterSensitivity(PointSensitivity point) {
+    if (point instanceof ZeroRateSensitivity) {
+      ZeroRateSensitivity pt = (ZeroRateSensitivity) point;
+      DiscountFactors factors = discountFactors(pt.getCurveCurrency());
+      return factors.parameterSensitivity(pt);
 
-      } else if (point instanceof FxForwardSensitivity) {
-        FxForwardSensitivity pt = (FxForwardSensitivity) point;
-        FxForwardRates rates = fxForwardRates(pt.getCurrencyPair());
-        sens = sens.combinedWith(rates.parameterSensitivity(pt));
-      }
+    } else if (point instanceof IborRateSensitivity) {
+      IborRateSensitivity pt = (IborRateSensitivity) point;
+      IborIndexRates rates = iborIndexRates(pt.getIndex());
+      return rates.parameterSensitivity(pt);
+
+    } else if (point instanceof OvernightRateSensitivity) {
+      OvernightRateSensitivity pt = (OvernightRateSensitivity) point;
+      OvernightIndexRates rates = overnightIndexRates(pt.getIndex());
+      return rates.parameterSensitivity(pt);
+
+    } else if (point instanceof FxIndexSensitivity) {
+      FxIndexSensitivity pt = (FxIndexSensitivity) point;
+      FxIndexRates rates = fxIndexRates(pt.getIndex());
+      return rates.parameterSensitivity(pt);
+
+    } else if (point instanceof InflationRateSensitivity) {
+      InflationRateSensitivity pt = (InflationRateSensitivity) point;
+      PriceIndexValues rates = priceIndexValues(pt.getIndex());
+      return rates.parameterSensitivity(pt);
+
+    } else if (point instanceof FxForwardSensitivity) {
+      FxForwardSensitivity pt = (FxForwardSensitivity) point;
+      FxForwardRates rates = fxForwardRates(pt.getCurrencyPair());
+      return rates.parameterSensitivity(pt);
+    }
+    return CurrencyParameterSensitivities.empty();
+  }
+
+  /**
+   * Computes the parameter sensitivity of a single point sensitivity, adding it to an array.
+   * <p>
+   * This is equivalent to {@link #parameterSensitivity(PointSensitivity)}, with the sensitivity to each
+   * curve added to the array starting at the offset of the curve. Sensitivities to curves that have
+   * no offset are ignored. The currency of the sensitivity is ignored.
+   * <p>
+   * Zero rate, Ibor and Overnight sensitivities are projected directly onto the curve parameters,
+   * without creating an intermediate {@link CurrencyParameterSensitivities} instance.
+   *
+   * @param point  the point sensitivity
+   * @param curveOffsets  the offset in the array of each curve
+   * @param array  the array to add the sensitivity to the curve parameters to
+   */
+  public default void parameterSensitivity(
+      PointSensitivity point,
+      Map<MarketDataName<?>, Integer> curveOffsets,
+      double[] array) {
+
+    if (point instanceof ZeroRateSensitivity) {
+      ZeroRateSensitivity pt = (ZeroRateSensitivity) point;
+      DiscountFactors factors = discountFactors(pt.getCurveCurrency());
+      factors.parameterSensitivity(pt, curveOffsets, array);
+
+    } else if (point instanceof IborRateSensitivity) {
+      IborRateSensitivity pt = (IborRateSensitivity) point;
+      IborIndexRates rates = iborIndexRates(pt.getIndex());
+      rates.parameterSensitivity(pt, curveOffsets, array);
+
+    } else if (point instanceof OvernightRateSensitivity) {
+      OvernightRateSensitivity pt = (OvernightRateSensitivity) point;
+      OvernightIndexRates rates = overnightIndexRates(pt.getIndex());
+      rates.parameterSensitivity(pt, curveOffsets, array);
+
+    } else {
+      parameterSensitivity(point).addTo(curveOffsets, array);
     }
-    return sens;
   }
 
   /**
@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.swaption;
+
+import java.time.Duration;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The result of a SABR calibration of a swaption cube.
+ * <p>
+ * This holds the calibrated volatilities and the report of the calibration of each node of the cube,
+ * in the order of the tenors and expiries of the raw data.
+ */
+public final class SabrSwaptionCalibrationResult {
+
+  /**
+   * The calibrated volatilities.
+   */
+  private final SabrParametersSwaptionVolatilities volatilities;
+  /**
+   * The reports of the calibration of the nodes.
+   */
+  private final ImmutableList<SabrSwaptionNodeCalibration> nodes;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance from the calibrated volatilities and the node reports.
+   *
+   * @param volatilities  the calibrated volatilities
+   * @param nodes  the reports of the calibration of the nodes
+   * @return the result
+   */
+  public static SabrSwaptionCalibrationResult of(
+      SabrParametersSwaptionVolatilities volatilities,
+      List<SabrSwaptionNodeCalibration> nodes) {
+
+    return new SabrSwaptionCalibrationResult(volatilities, nodes);
+  }
+
+  // restricted constructor
+  private SabrSwaptionCalibrationResult(
+      SabrParametersSwaptionVolatilities volatilities,
+      List<SabrSwaptionNodeCalibration> nodes) {
+
+    this.volatilities = ArgChecker.notNull(volatilities, "volatilities");
+    this.nodes = ImmutableList.copyOf(ArgChecker.notNull(nodes, "nodes"));
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the calibrated volatilities.
+   *
+   * @return the volatilities
+   */
+  public SabrParametersSwaptionVolatilities getVolatilities() {
+    return volatilities;
+  }
+
+  /**
+   * Gets the reports of the calibration of the nodes.
+   * <p>
+   * There is one report for each node with available data, including the nodes whose calibration failed.
+   *
+   * @return the node reports
+   */
+  public ImmutableList<SabrSwaptionNodeCalibration> getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Gets the total number of least-square fits that were run.
+   *
+   * @return the number of fits
+   */
+  public int getFitCount() {
+    return nodes.stream().mapToInt(SabrSwaptionNodeCalibration::getFitCount).sum();
+  }
+
+  /**
+   * Gets the total number of least-square fits that converged.
+   *
+   * @return the number of converged fits
+   */
+  public int getConvergedFitCount() {
+    return nodes.stream().mapToInt(SabrSwaptionNodeCalibration::getConvergedFitCount).sum();
+  }
+
+  /**
+   * Gets the total time spent calibrating the nodes.
+   * <p>
+   * When the nodes are calibrated in parallel, this is larger than the elapsed time of the calibration.
+   *
+   * @return the total calibration time
+   */
+  public Duration getCalibrationTime() {
+    return nodes.stream().map(SabrSwaptionNodeCalibration::getCalibrationTime).reduce(Duration.ZERO, Duration::plus);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "SabrSwaptionCalibrationResult[nodes=" + nodes.size() + ", fitCount=" + getFitCount() +
+        ", convergedFitCount=" + getConvergedFitCount() + ", calibrationTime=" + getCalibrationTime() + "]";
+  }
+
+}
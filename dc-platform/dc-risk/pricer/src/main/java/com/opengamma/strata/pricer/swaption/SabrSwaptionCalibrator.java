@@ -5,6 +5,9 @@
  */
 package com.opengamma.strata.pricer.swaption;
 
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.Period;
 import java.time.ZonedDateTime;
@@ -70,6 +73,12 @@ public class SabrSwaptionCalibrator {
   
   /** The root-finder used in the Alpha calibration to ATM volatility. */
   private static final NewtonRaphsonSingleRootFinder ROOT_FINDER = new NewtonRaphsonSingleRootFinder();
+  /**
+   * The chi-square per strike at or below which a warm-started fit is accepted without the standard starting points.
+   * The fits use an error of 1e-4 on each volatility, so this is a root mean square error within that error,
+   * which the standard starting points cannot usefully improve on.
+   */
+  static final double WARM_START_CHI_SQUARE_PER_STRIKE = 1d;
 
   /**
    * The default instance of the class.
@@ -188,151 +197,125 @@ public class SabrSwaptionCalibrator {
       Surface shiftSurface,
       boolean stopOnMathException) {
 
-    SwaptionVolatilitiesName name = definition.getName();
-    FixedIborSwapConvention convention = definition.getConvention();
-    DayCount dayCount = definition.getDayCount();
-    SurfaceInterpolator interpolator = definition.getInterpolator();
-
-    BitSet fixed = new BitSet();
-    fixed.set(1); // Beta fixed
-    BusinessDayAdjustment bda = convention.getFloatingLeg().getStartDateBusinessDayAdjustment();
-    LocalDate calibrationDate = calibrationDateTime.toLocalDate();
-    // Sorted maps to obtain the surfaces nodes in standard order
-    TreeMap<Double, TreeMap<Double, ParameterMetadata>> parameterMetadataTmp = new TreeMap<>(); 
-    TreeMap<Double, TreeMap<Double, DoubleArray>> dataSensitivityAlphaTmp = new TreeMap<>(); // Sensitivity to the calibrating data
-    TreeMap<Double, TreeMap<Double, DoubleArray>>  dataSensitivityRhoTmp = new TreeMap<>();
-    TreeMap<Double, TreeMap<Double, DoubleArray>>  dataSensitivityNuTmp = new TreeMap<>();
-    TreeMap<Double, TreeMap<Double, SabrFormulaData>>  sabrPointTmp = new TreeMap<>();
+    CubeCalibration cube = new CubeCalibration(
+        definition, calibrationDateTime, ratesProvider, betaSurface, shiftSurface, stopOnMathException);
+    List<NodeFit> fits = new ArrayList<>();
     for (Tenor tenor : data.getTenors()) {
       RawOptionData tenorData = data.getData(tenor);
-      double timeTenor = tenor.getPeriod().getYears() + tenor.getPeriod().getMonths() / 12;
-      List<Period> expiries = tenorData.getExpiries();
-      int nbExpiries = expiries.size();
-      for (int loopexpiry = 0; loopexpiry < nbExpiries; loopexpiry++) {
-        Pair<DoubleArray, DoubleArray> availableSmile = tenorData.availableSmileAtExpiry(expiries.get(loopexpiry));
-        if (availableSmile.getFirst().size() == 0) { // If not data is available, no calibration possible
-          continue;
-        }
-        LocalDate exerciseDate = expirationDate(bda, calibrationDate, expiries.get(loopexpiry));
-        LocalDate effectiveDate = convention.calculateSpotDateFromTradeDate(exerciseDate, refData);
-        double timeToExpiry = dayCount.relativeYearFraction(calibrationDate, exerciseDate);
-        double beta = betaSurface.zValue(timeToExpiry, timeTenor);
-        double shift = shiftSurface.zValue(timeToExpiry, timeTenor);
-        LocalDate endDate = effectiveDate.plus(tenor);
-        SwapTrade swap0 = convention.toTrade(calibrationDate, effectiveDate, endDate, BuySell.BUY, 1.0, 0.0);
-        double forward = swapPricer.parRate(swap0.getProduct().resolve(refData), ratesProvider);
-        SabrFormulaData sabrPoint = null;
-        DoubleMatrix inverseJacobian = null;
-        boolean error = false;
-        try {
-          Pair<SabrFormulaData, DoubleMatrix> calibrationResult =
-              calibration(forward, shift, beta, fixed, bda, calibrationDateTime, dayCount,
-                  availableSmile.getFirst(), availableSmile.getSecond(), expiries.get(loopexpiry), tenorData);
-          sabrPoint = calibrationResult.getFirst();
-          inverseJacobian = calibrationResult.getSecond();
-        } catch (MathException e) {
-          error = true;
-          if (stopOnMathException) {
-            String message = Messages.format("{} at expiry {} and tenor {}", e.getMessage(),
-                expiries.get(loopexpiry), tenor);
-            throw new MathException(message, e);
-          }
+      for (Period expiry : tenorData.getExpiries()) {
+        CubeNode node = cube.node(tenor, tenorData, expiry);
+        if (node != null) { // If not data is available, no calibration possible
+          fits.add(cube.fit(node, null));
         }
-        if (!error) {
-          if (!parameterMetadataTmp.containsKey(timeToExpiry)) {
-            parameterMetadataTmp.put(timeToExpiry, new TreeMap<>());
-            dataSensitivityAlphaTmp.put(timeToExpiry, new TreeMap<>());
-            dataSensitivityRhoTmp.put(timeToExpiry, new TreeMap<>());
-            dataSensitivityNuTmp.put(timeToExpiry, new TreeMap<>());
-            sabrPointTmp.put(timeToExpiry, new TreeMap<>());
-          }
-          TreeMap<Double, ParameterMetadata> parameterMetadataExpiryMap = parameterMetadataTmp.get(timeToExpiry);
-          TreeMap<Double, DoubleArray> dataSensitivityAlphaExpiryMap = dataSensitivityAlphaTmp.get(timeToExpiry);
-          TreeMap<Double, DoubleArray> dataSensitivityRhoExpiryMap = dataSensitivityRhoTmp.get(timeToExpiry);
-          TreeMap<Double, DoubleArray> dataSensitivityNuExpiryMap = dataSensitivityNuTmp.get(timeToExpiry);
-          TreeMap<Double, SabrFormulaData> sabrPointExpiryMap = sabrPointTmp.get(timeToExpiry);
-          parameterMetadataExpiryMap.put(timeTenor, SwaptionSurfaceExpiryTenorParameterMetadata.of(
-              timeToExpiry,
-              timeTenor,
-              expiries.get(loopexpiry).toString() + "x" + tenor.toString()));
-          dataSensitivityAlphaExpiryMap.put(timeTenor, inverseJacobian.row(0));
-          dataSensitivityRhoExpiryMap.put(timeTenor, inverseJacobian.row(2));
-          dataSensitivityNuExpiryMap.put(timeTenor, inverseJacobian.row(3));
-          sabrPointExpiryMap.put(timeTenor, sabrPoint);
-        }
-      }
-    }
-    DoubleArray timeToExpiryArray = DoubleArray.EMPTY;
-    DoubleArray timeTenorArray = DoubleArray.EMPTY;
-    DoubleArray alphaArray = DoubleArray.EMPTY;
-    DoubleArray rhoArray = DoubleArray.EMPTY;
-    DoubleArray nuArray = DoubleArray.EMPTY;
-    List<ParameterMetadata> parameterMetadata = new ArrayList<>();
-    List<DoubleArray> dataSensitivityAlpha = new ArrayList<>(); // Sensitivity to the calibrating data
-    List<DoubleArray> dataSensitivityRho = new ArrayList<>();
-    List<DoubleArray> dataSensitivityNu = new ArrayList<>();
-    for (Double timeToExpiry : parameterMetadataTmp.keySet()) {
-      TreeMap<Double, ParameterMetadata> parameterMetadataExpiryMap = parameterMetadataTmp.get(timeToExpiry);
-      TreeMap<Double, DoubleArray> dataSensitivityAlphaExpiryMap = dataSensitivityAlphaTmp.get(timeToExpiry);
-      TreeMap<Double, DoubleArray> dataSensitivityRhoExpiryMap = dataSensitivityRhoTmp.get(timeToExpiry);
-      TreeMap<Double, DoubleArray> dataSensitivityNuExpiryMap = dataSensitivityNuTmp.get(timeToExpiry);
-      TreeMap<Double, SabrFormulaData> sabrPointExpiryMap = sabrPointTmp.get(timeToExpiry);
-      for (Double timeTenor : parameterMetadataExpiryMap.keySet()) {
-        parameterMetadata.add(parameterMetadataExpiryMap.get(timeTenor));
-        dataSensitivityAlpha.add(dataSensitivityAlphaExpiryMap.get(timeTenor));
-        dataSensitivityRho.add(dataSensitivityRhoExpiryMap.get(timeTenor));
-        dataSensitivityNu.add(dataSensitivityNuExpiryMap.get(timeTenor));
-        timeToExpiryArray = timeToExpiryArray.concat(timeToExpiry);
-        timeTenorArray = timeTenorArray.concat(timeTenor);
-        SabrFormulaData sabrPt = sabrPointExpiryMap.get(timeTenor);
-        alphaArray = alphaArray.concat(sabrPt.getAlpha());
-        rhoArray = rhoArray.concat(sabrPt.getRho());
-        nuArray = nuArray.concat(sabrPt.getNu());
       }
     }
-    SurfaceMetadata metadataAlpha = Surfaces.sabrParameterByExpiryTenor(
-        name.getName() + "-Alpha", dayCount, ValueType.SABR_ALPHA)
-        .withParameterMetadata(parameterMetadata);
-    SurfaceMetadata metadataRho = Surfaces.sabrParameterByExpiryTenor(
-        name.getName() + "-Rho", dayCount, ValueType.SABR_RHO)
-        .withParameterMetadata(parameterMetadata);
-    SurfaceMetadata metadataNu = Surfaces.sabrParameterByExpiryTenor(
-        name.getName() + "-Nu", dayCount, ValueType.SABR_NU)
-        .withParameterMetadata(parameterMetadata);
-    InterpolatedNodalSurface alphaSurface = InterpolatedNodalSurface
-        .of(metadataAlpha, timeToExpiryArray, timeTenorArray, alphaArray, interpolator);
-    InterpolatedNodalSurface rhoSurface = InterpolatedNodalSurface
-        .of(metadataRho, timeToExpiryArray, timeTenorArray, rhoArray, interpolator);
-    InterpolatedNodalSurface nuSurface = InterpolatedNodalSurface
-        .of(metadataNu, timeToExpiryArray, timeTenorArray, nuArray, interpolator);
-    SabrInterestRateParameters params = SabrInterestRateParameters.of(
-        alphaSurface, betaSurface, rhoSurface, nuSurface, shiftSurface, sabrVolatilityFormula);
-    return SabrParametersSwaptionVolatilities.builder()
-        .name(name)
-        .convention(convention)
-        .valuationDateTime(calibrationDateTime)
-        .parameters(params)
-        .dataSensitivityAlpha(dataSensitivityAlpha)
-        .dataSensitivityRho(dataSensitivityRho)
-        .dataSensitivityNu(dataSensitivityNu).build();
+    return cube.volatilities(fits);
   }
-      
 
-  // The main part of the calibration. The calibration is done 4 times with different starting points: low and high
-  // volatilities and high and low vol of vol. The best result (in term of chi^2) is returned.
-  private Pair<SabrFormulaData, DoubleMatrix> calibration(
-      double forward,
-      double shift,
-      double beta,
-      BitSet fixed,
-      BusinessDayAdjustment bda,
+  //-------------------------------------------------------------------------
+  /**
+   * Calibrate SABR parameters to a set of raw swaption data, fitting the nodes in parallel.
+   * <p>
+   * The SABR parameters are calibrated with fixed beta and fixed shift surfaces, as in
+   * {@link #calibrateWithFixedBetaAndShift(SabrSwaptionDefinition, ZonedDateTime, TenorRawOptionData,
+   * RatesProvider, Surface, Surface, boolean)}, but the tenors are calibrated in parallel.
+   * <p>
+   * The expiries of a tenor are calibrated in increasing order. The fit of each expiry starts from the
+   * parameters calibrated for the previous expiry, which usually requires a single least-square fit instead
+   * of one fit for each standard starting point. The first expiry of a tenor, and any expiry for which the
+   * fit from the previous parameters fails, is calibrated from the standard starting points.
+   * <p>
+   * The result contains the calibrated volatilities and a report of the calibration of each node.
+   * 
+   * @param definition  the definition of the calibration to be performed
+   * @param calibrationDateTime  the data and time of the calibration
+   * @param data  the map of raw option data, keyed by tenor
+   * @param ratesProvider  the rate provider used to compute the swap forward rates
+   * @param betaSurface  the beta surface
+   * @param shiftSurface  the shift surface
+   * @param stopOnMathException  flag indicating if the calibration should stop on math exceptions or skip the 
+   *   expiries/tenors which throw MathException
+   * @return the calibration result
+   */
+  public SabrSwaptionCalibrationResult calibrateWithFixedBetaAndShiftInParallel(
+      SabrSwaptionDefinition definition,
       ZonedDateTime calibrationDateTime,
-      DayCount dayCount,
-      DoubleArray strike,
-      DoubleArray data,
-      Period expiry,
-      RawOptionData rawData) {
+      TenorRawOptionData data,
+      RatesProvider ratesProvider,
+      Surface betaSurface,
+      Surface shiftSurface,
+      boolean stopOnMathException) {
+
+    CubeCalibration cube = new CubeCalibration(
+        definition, calibrationDateTime, ratesProvider, betaSurface, shiftSurface, stopOnMathException);
+    List<NodeFit> fits = data.getTenors().asList().parallelStream()
+        .map(tenor -> cube.fitTenor(tenor, data.getData(tenor)))
+        .flatMap(List::stream)
+        .collect(toImmutableList());
+    return cube.result(fits);
+  }
 
+  /**
+   * Calibrate SABR parameters to a set of raw swaption data, fitting the nodes in parallel
+   * from previously calibrated parameters.
+   * <p>
+   * The SABR parameters are calibrated with fixed beta and fixed shift surfaces, as in
+   * {@link #calibrateWithFixedBetaAndShift(SabrSwaptionDefinition, ZonedDateTime, TenorRawOptionData,
+   * RatesProvider, Surface, Surface, boolean)}, but all the nodes are calibrated in parallel.
+   * <p>
+   * The fit of each node starts from the alpha, rho and nu of the start volatilities at the node,
+   * typically the parameters calibrated on the previous day. This usually requires a single least-square fit
+   * instead of one fit for each standard starting point. A node for which the fit from the start parameters fails
+   * is calibrated from the standard starting points.
+   * <p>
+   * The result contains the calibrated volatilities and a report of the calibration of each node.
+   * 
+   * @param definition  the definition of the calibration to be performed
+   * @param calibrationDateTime  the data and time of the calibration
+   * @param data  the map of raw option data, keyed by tenor
+   * @param ratesProvider  the rate provider used to compute the swap forward rates
+   * @param betaSurface  the beta surface
+   * @param shiftSurface  the shift surface
+   * @param stopOnMathException  flag indicating if the calibration should stop on math exceptions or skip the 
+   *   expiries/tenors which throw MathException
+   * @param startVolatilities  the SABR volatilities providing the starting point of each fit
+   * @return the calibration result
+   */
+  public SabrSwaptionCalibrationResult calibrateWithFixedBetaAndShiftInParallel(
+      SabrSwaptionDefinition definition,
+      ZonedDateTime calibrationDateTime,
+      TenorRawOptionData data,
+      RatesProvider ratesProvider,
+      Surface betaSurface,
+      Surface shiftSurface,
+      boolean stopOnMathException,
+      SabrParametersSwaptionVolatilities startVolatilities) {
+
+    ArgChecker.notNull(startVolatilities, "startVolatilities");
+    SabrInterestRateParameters startParameters = startVolatilities.getParameters();
+    CubeCalibration cube = new CubeCalibration(
+        definition, calibrationDateTime, ratesProvider, betaSurface, shiftSurface, stopOnMathException);
+    List<Pair<Tenor, Period>> nodeKeys = new ArrayList<>();
+    for (Tenor tenor : data.getTenors()) {
+      for (Period expiry : data.getData(tenor).getExpiries()) {
+        nodeKeys.add(Pair.of(tenor, expiry));
+      }
+    }
+    List<NodeFit> fits = nodeKeys.parallelStream()
+        .map(key -> cube.node(key.getFirst(), data.getData(key.getFirst()), key.getSecond()))
+        .filter(node -> node != null)
+        .map(node -> cube.fit(node, DoubleArray.of(
+            startParameters.alpha(node.timeToExpiry, node.timeTenor),
+            node.beta,
+            startParameters.rho(node.timeToExpiry, node.timeTenor),
+            startParameters.nu(node.timeToExpiry, node.timeTenor))))
+        .collect(toImmutableList());
+    return cube.result(fits);
+  }
+
+  // The standard starting points of the calibration: low and high volatilities and high and low vol of vol.
+  // The calibration is done from each of them and the best result (in term of chi^2) is kept.
+  private static List<DoubleArray> startingPoints(double forward, double shift, double beta) {
     double rhoStart = -0.50 * beta + 0.50 * (1 - beta);
     // Correlation is usually positive for normal and negative for log-normal;.
     double[] alphaStart = new double[4];
@@ -345,36 +328,49 @@ public class SabrSwaptionCalibrator {
     nuStart[1] = 0.50; // High vol of vol
     nuStart[2] = 0.10;
     nuStart[3] = 0.50;
-    double chi2 = 1.0E+12; // Large number 
-    Pair<LeastSquareResultsWithTransform, DoubleArray> sabrCalibrationResult = null;
-    for (int i = 0; i < 4; i++) { // Try different starting points and take the best
-      DoubleArray startParameters = DoubleArray.of(alphaStart[i], beta, rhoStart, nuStart[i]);
-      Pair<LeastSquareResultsWithTransform, DoubleArray> r = null;
-      if (rawData.getDataType().equals(ValueType.NORMAL_VOLATILITY)) {
-        r = calibrateLsShiftedFromNormalVolatilities(bda, calibrationDateTime, dayCount,
-            expiry, forward, strike, rawData.getStrikeType(),
-            data, startParameters, fixed, shift);
-      } else {
-        if (rawData.getDataType().equals(ValueType.PRICE)) {
-          r = calibrateLsShiftedFromPrices(bda, calibrationDateTime, dayCount,
-              expiry, forward, strike, rawData.getStrikeType(),
-              data, startParameters, fixed, shift);
-        } else {
-          if (rawData.getDataType().equals(ValueType.BLACK_VOLATILITY)) {
-            r = calibrateLsShiftedFromBlackVolatilities(bda, calibrationDateTime, dayCount,
-                expiry, forward, strike, rawData.getStrikeType(),
-                data, rawData.getShift().orElse(0d), startParameters, fixed, shift);
-          } else {
-            throw new IllegalArgumentException("Data type not supported");
-          }
-        }
-      }
-      if (r.getFirst().getChiSq() < chi2) { // Keep best calibration
-        sabrCalibrationResult = r;
-        chi2 = r.getFirst().getChiSq();
-      }
+    List<DoubleArray> startingPoints = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      startingPoints.add(DoubleArray.of(alphaStart[i], beta, rhoStart, nuStart[i]));
     }
-    @SuppressWarnings("null")
+    return startingPoints;
+  }
+
+  // The least-square fit from a single starting point, depending on the type of raw data
+  private Pair<LeastSquareResultsWithTransform, DoubleArray> fitFrom(
+      double forward,
+      double shift,
+      BitSet fixed,
+      BusinessDayAdjustment bda,
+      ZonedDateTime calibrationDateTime,
+      DayCount dayCount,
+      DoubleArray strike,
+      DoubleArray data,
+      Period expiry,
+      RawOptionData rawData,
+      DoubleArray startParameters) {
+
+    if (rawData.getDataType().equals(ValueType.NORMAL_VOLATILITY)) {
+      return calibrateLsShiftedFromNormalVolatilities(bda, calibrationDateTime, dayCount,
+          expiry, forward, strike, rawData.getStrikeType(),
+          data, startParameters, fixed, shift);
+    }
+    if (rawData.getDataType().equals(ValueType.PRICE)) {
+      return calibrateLsShiftedFromPrices(bda, calibrationDateTime, dayCount,
+          expiry, forward, strike, rawData.getStrikeType(),
+          data, startParameters, fixed, shift);
+    }
+    if (rawData.getDataType().equals(ValueType.BLACK_VOLATILITY)) {
+      return calibrateLsShiftedFromBlackVolatilities(bda, calibrationDateTime, dayCount,
+          expiry, forward, strike, rawData.getStrikeType(),
+          data, rawData.getShift().orElse(0d), startParameters, fixed, shift);
+    }
+    throw new IllegalArgumentException("Data type not supported");
+  }
+
+  // The SABR parameters of a fit, and their sensitivity to the raw data.
+  private static Pair<SabrFormulaData, DoubleMatrix> parametersAndSensitivity(
+      Pair<LeastSquareResultsWithTransform, DoubleArray> sabrCalibrationResult) {
+
     SabrFormulaData sabrParameters =
         SabrFormulaData.of(sabrCalibrationResult.getFirst().getModelParameters().toArrayUnsafe());
     DoubleMatrix parameterSensitivityToBlackShifted =
@@ -392,6 +388,310 @@ public class SabrSwaptionCalibrator {
     return Pair.of(sabrParameters, parameterSensitivityToData);
   }
 
+  //-------------------------------------------------------------------------
+  // The calibration of the nodes of a cube, sharing the definition and market data of the calibration
+  private final class CubeCalibration {
+    private final SabrSwaptionDefinition definition;
+    private final ZonedDateTime calibrationDateTime;
+    private final RatesProvider ratesProvider;
+    private final Surface betaSurface;
+    private final Surface shiftSurface;
+    private final boolean stopOnMathException;
+    private final BitSet fixed = new BitSet();
+    private final BusinessDayAdjustment bda;
+
+    private CubeCalibration(
+        SabrSwaptionDefinition definition,
+        ZonedDateTime calibrationDateTime,
+        RatesProvider ratesProvider,
+        Surface betaSurface,
+        Surface shiftSurface,
+        boolean stopOnMathException) {
+
+      this.definition = definition;
+      this.calibrationDateTime = calibrationDateTime;
+      this.ratesProvider = ratesProvider;
+      this.betaSurface = betaSurface;
+      this.shiftSurface = shiftSurface;
+      this.stopOnMathException = stopOnMathException;
+      this.fixed.set(1); // Beta fixed
+      this.bda = definition.getConvention().getFloatingLeg().getStartDateBusinessDayAdjustment();
+    }
+
+    // the node of an expiry and tenor, null if no data is available
+    private CubeNode node(Tenor tenor, RawOptionData tenorData, Period expiry) {
+      Pair<DoubleArray, DoubleArray> availableSmile = tenorData.availableSmileAtExpiry(expiry);
+      if (availableSmile.getFirst().size() == 0) {
+        return null;
+      }
+      FixedIborSwapConvention convention = definition.getConvention();
+      LocalDate calibrationDate = calibrationDateTime.toLocalDate();
+      double timeTenor = tenor.getPeriod().getYears() + tenor.getPeriod().getMonths() / 12;
+      LocalDate exerciseDate = expirationDate(bda, calibrationDate, expiry);
+      LocalDate effectiveDate = convention.calculateSpotDateFromTradeDate(exerciseDate, refData);
+      double timeToExpiry = definition.getDayCount().relativeYearFraction(calibrationDate, exerciseDate);
+      double beta = betaSurface.zValue(timeToExpiry, timeTenor);
+      double shift = shiftSurface.zValue(timeToExpiry, timeTenor);
+      LocalDate endDate = effectiveDate.plus(tenor);
+      SwapTrade swap0 = convention.toTrade(calibrationDate, effectiveDate, endDate, BuySell.BUY, 1.0, 0.0);
+      double forward = swapPricer.parRate(swap0.getProduct().resolve(refData), ratesProvider);
+      return new CubeNode(tenor, expiry, tenorData, timeToExpiry, timeTenor, beta, shift, forward, availableSmile);
+    }
+
+    // calibrates the expiries of a tenor in order, each fit starting from the parameters of the previous expiry
+    private List<NodeFit> fitTenor(Tenor tenor, RawOptionData tenorData) {
+      List<NodeFit> fits = new ArrayList<>();
+      SabrFormulaData previous = null;
+      for (Period expiry : tenorData.getExpiries()) {
+        CubeNode node = node(tenor, tenorData, expiry);
+        if (node == null) {
+          continue;
+        }
+        DoubleArray warmStart = previous == null ?
+            null :
+            DoubleArray.of(previous.getAlpha(), node.beta, previous.getRho(), previous.getNu());
+        NodeFit fit = fit(node, warmStart);
+        if (fit.sabrPoint != null) {
+          previous = fit.sabrPoint;
+        }
+        fits.add(fit);
+      }
+      return fits;
+    }
+
+    // calibrates a node from the warm start if not null, and from the standard starting points
+    // unless the warm-started fit is within the accepted chi-square, keeping the best fit
+    private NodeFit fit(CubeNode node, DoubleArray warmStart) {
+      long start = System.nanoTime();
+      int fitCount = 0;
+      int convergedFitCount = 0;
+      Pair<LeastSquareResultsWithTransform, DoubleArray> warm = null;
+      if (warmStart != null) {
+        fitCount++;
+        try {
+          warm = fitFrom(node, warmStart);
+          convergedFitCount++;
+        } catch (MathException e) {
+          // fall back to the standard starting points
+        }
+      }
+      Pair<LeastSquareResultsWithTransform, DoubleArray> best = warm;
+      boolean warmStarted = warm != null;
+      MathException failure = null;
+      double acceptedChi2 = WARM_START_CHI_SQUARE_PER_STRIKE * node.smile.getFirst().size();
+      if (warm == null || warm.getFirst().getChiSq() > acceptedChi2) {
+        double chi2 = warm != null ? warm.getFirst().getChiSq() : 1.0E+12; // Large number
+        try {
+          for (DoubleArray startParameters : startingPoints(node.forward, node.shift, node.beta)) {
+            fitCount++;
+            Pair<LeastSquareResultsWithTransform, DoubleArray> r = fitFrom(node, startParameters);
+            convergedFitCount++;
+            if (r.getFirst().getChiSq() < chi2) { // Keep best calibration
+              best = r;
+              chi2 = r.getFirst().getChiSq();
+              warmStarted = false;
+            }
+          }
+        } catch (MathException e) {
+          if (warm == null) {
+            failure = e;
+          }
+        }
+      }
+      Duration calibrationTime = Duration.ofNanos(System.nanoTime() - start);
+      if (failure != null) {
+        if (stopOnMathException) {
+          String message =
+              Messages.format("{} at expiry {} and tenor {}", failure.getMessage(), node.expiry, node.tenor);
+          throw new MathException(message, failure);
+        }
+        SabrSwaptionNodeCalibration report = SabrSwaptionNodeCalibration.failed(
+            node.expiry, node.tenor, node.timeToExpiry, node.timeTenor, fitCount, convergedFitCount, calibrationTime);
+        return new NodeFit(node, report, null, null);
+      }
+      Pair<SabrFormulaData, DoubleMatrix> calibrationResult = parametersAndSensitivity(best);
+      SabrSwaptionNodeCalibration report = SabrSwaptionNodeCalibration.of(
+          node.expiry,
+          node.tenor,
+          node.timeToExpiry,
+          node.timeTenor,
+          best.getFirst().getChiSq(),
+          warmStarted,
+          fitCount,
+          convergedFitCount,
+          calibrationTime);
+      return new NodeFit(node, report, calibrationResult.getFirst(), calibrationResult.getSecond());
+    }
+
+    // the least-square fit of a node from a single starting point
+    private Pair<LeastSquareResultsWithTransform, DoubleArray> fitFrom(CubeNode node, DoubleArray startParameters) {
+      return SabrSwaptionCalibrator.this.fitFrom(
+          node.forward,
+          node.shift,
+          fixed,
+          bda,
+          calibrationDateTime,
+          definition.getDayCount(),
+          node.smile.getFirst(),
+          node.smile.getSecond(),
+          node.expiry,
+          node.tenorData,
+          startParameters);
+    }
+
+    // the calibration result of the fitted nodes
+    private SabrSwaptionCalibrationResult result(List<NodeFit> fits) {
+      SabrParametersSwaptionVolatilities volatilities = volatilities(fits);
+      return SabrSwaptionCalibrationResult.of(
+          volatilities, fits.stream().map(fit -> fit.report).collect(toImmutableList()));
+    }
+
+    // the volatilities of the fitted nodes
+    private SabrParametersSwaptionVolatilities volatilities(List<NodeFit> fits) {
+      SwaptionVolatilitiesName name = definition.getName();
+      FixedIborSwapConvention convention = definition.getConvention();
+      DayCount dayCount = definition.getDayCount();
+      SurfaceInterpolator interpolator = definition.getInterpolator();
+      // Sorted maps to obtain the surfaces nodes in standard order
+      TreeMap<Double, TreeMap<Double, ParameterMetadata>> parameterMetadataTmp = new TreeMap<>();
+      // Sensitivity to the calibrating data
+      TreeMap<Double, TreeMap<Double, DoubleArray>> dataSensitivityAlphaTmp = new TreeMap<>();
+      TreeMap<Double, TreeMap<Double, DoubleArray>> dataSensitivityRhoTmp = new TreeMap<>();
+      TreeMap<Double, TreeMap<Double, DoubleArray>> dataSensitivityNuTmp = new TreeMap<>();
+      TreeMap<Double, TreeMap<Double, SabrFormulaData>> sabrPointTmp = new TreeMap<>();
+      for (NodeFit fit : fits) {
+        if (fit.sabrPoint == null) {
+          continue;
+        }
+        double timeToExpiry = fit.node.timeToExpiry;
+        double timeTenor = fit.node.timeTenor;
+        if (!parameterMetadataTmp.containsKey(timeToExpiry)) {
+          parameterMetadataTmp.put(timeToExpiry, new TreeMap<>());
+          dataSensitivityAlphaTmp.put(timeToExpiry, new TreeMap<>());
+          dataSensitivityRhoTmp.put(timeToExpiry, new TreeMap<>());
+          dataSensitivityNuTmp.put(timeToExpiry, new TreeMap<>());
+          sabrPointTmp.put(timeToExpiry, new TreeMap<>());
+        }
+        parameterMetadataTmp.get(timeToExpiry).put(timeTenor, SwaptionSurfaceExpiryTenorParameterMetadata.of(
+            timeToExpiry,
+            timeTenor,
+            fit.node.expiry.toString() + "x" + fit.node.tenor.toString()));
+        dataSensitivityAlphaTmp.get(timeToExpiry).put(timeTenor, fit.inverseJacobian.row(0));
+        dataSensitivityRhoTmp.get(timeToExpiry).put(timeTenor, fit.inverseJacobian.row(2));
+        dataSensitivityNuTmp.get(timeToExpiry).put(timeTenor, fit.inverseJacobian.row(3));
+        sabrPointTmp.get(timeToExpiry).put(timeTenor, fit.sabrPoint);
+      }
+      DoubleArray timeToExpiryArray = DoubleArray.EMPTY;
+      DoubleArray timeTenorArray = DoubleArray.EMPTY;
+      DoubleArray alphaArray = DoubleArray.EMPTY;
+      DoubleArray rhoArray = DoubleArray.EMPTY;
+      DoubleArray nuArray = DoubleArray.EMPTY;
+      List<ParameterMetadata> parameterMetadata = new ArrayList<>();
+      List<DoubleArray> dataSensitivityAlpha = new ArrayList<>(); // Sensitivity to the calibrating data
+      List<DoubleArray> dataSensitivityRho = new ArrayList<>();
+      List<DoubleArray> dataSensitivityNu = new ArrayList<>();
+      for (Double timeToExpiry : parameterMetadataTmp.keySet()) {
+        TreeMap<Double, ParameterMetadata> parameterMetadataExpiryMap = parameterMetadataTmp.get(timeToExpiry);
+        TreeMap<Double, DoubleArray> dataSensitivityAlphaExpiryMap = dataSensitivityAlphaTmp.get(timeToExpiry);
+        TreeMap<Double, DoubleArray> dataSensitivityRhoExpiryMap = dataSensitivityRhoTmp.get(timeToExpiry);
+        TreeMap<Double, DoubleArray> dataSensitivityNuExpiryMap = dataSensitivityNuTmp.get(timeToExpiry);
+        TreeMap<Double, SabrFormulaData> sabrPointExpiryMap = sabrPointTmp.get(timeToExpiry);
+        for (Double timeTenor : parameterMetadataExpiryMap.keySet()) {
+          parameterMetadata.add(parameterMetadataExpiryMap.get(timeTenor));
+          dataSensitivityAlpha.add(dataSensitivityAlphaExpiryMap.get(timeTenor));
+          dataSensitivityRho.add(dataSensitivityRhoExpiryMap.get(timeTenor));
+          dataSensitivityNu.add(dataSensitivityNuExpiryMap.get(timeTenor));
+          timeToExpiryArray = timeToExpiryArray.concat(timeToExpiry);
+          timeTenorArray = timeTenorArray.concat(timeTenor);
+          SabrFormulaData sabrPt = sabrPointExpiryMap.get(timeTenor);
+          alphaArray = alphaArray.concat(sabrPt.getAlpha());
+          rhoArray = rhoArray.concat(sabrPt.getRho());
+          nuArray = nuArray.concat(sabrPt.getNu());
+        }
+      }
+      SurfaceMetadata metadataAlpha = Surfaces.sabrParameterByExpiryTenor(
+          name.getName() + "-Alpha", dayCount, ValueType.SABR_ALPHA)
+          .withParameterMetadata(parameterMetadata);
+      SurfaceMetadata metadataRho = Surfaces.sabrParameterByExpiryTenor(
+          name.getName() + "-Rho", dayCount, ValueType.SABR_RHO)
+          .withParameterMetadata(parameterMetadata);
+      SurfaceMetadata metadataNu = Surfaces.sabrParameterByExpiryTenor(
+          name.getName() + "-Nu", dayCount, ValueType.SABR_NU)
+          .withParameterMetadata(parameterMetadata);
+      InterpolatedNodalSurface alphaSurface = InterpolatedNodalSurface
+          .of(metadataAlpha, timeToExpiryArray, timeTenorArray, alphaArray, interpolator);
+      InterpolatedNodalSurface rhoSurface = InterpolatedNodalSurface
+          .of(metadataRho, timeToExpiryArray, timeTenorArray, rhoArray, interpolator);
+      InterpolatedNodalSurface nuSurface = InterpolatedNodalSurface
+          .of(metadataNu, timeToExpiryArray, timeTenorArray, nuArray, interpolator);
+      SabrInterestRateParameters params = SabrInterestRateParameters.of(
+          alphaSurface, betaSurface, rhoSurface, nuSurface, shiftSurface, sabrVolatilityFormula);
+      return SabrParametersSwaptionVolatilities.builder()
+          .name(name)
+          .convention(convention)
+          .valuationDateTime(calibrationDateTime)
+          .parameters(params)
+          .dataSensitivityAlpha(dataSensitivityAlpha)
+          .dataSensitivityRho(dataSensitivityRho)
+          .dataSensitivityNu(dataSensitivityNu).build();
+    }
+  }
+
+  // a node of the cube, with its market data
+  private static final class CubeNode {
+    private final Tenor tenor;
+    private final Period expiry;
+    private final RawOptionData tenorData;
+    private final double timeToExpiry;
+    private final double timeTenor;
+    private final double beta;
+    private final double shift;
+    private final double forward;
+    private final Pair<DoubleArray, DoubleArray> smile;
+
+    private CubeNode(
+        Tenor tenor,
+        Period expiry,
+        RawOptionData tenorData,
+        double timeToExpiry,
+        double timeTenor,
+        double beta,
+        double shift,
+        double forward,
+        Pair<DoubleArray, DoubleArray> smile) {
+
+      this.tenor = tenor;
+      this.expiry = expiry;
+      this.tenorData = tenorData;
+      this.timeToExpiry = timeToExpiry;
+      this.timeTenor = timeTenor;
+      this.beta = beta;
+      this.shift = shift;
+      this.forward = forward;
+      this.smile = smile;
+    }
+  }
+
+  // the calibration of a node, the parameters and their sensitivity being null if the calibration failed
+  private static final class NodeFit {
+    private final CubeNode node;
+    private final SabrSwaptionNodeCalibration report;
+    private final SabrFormulaData sabrPoint;
+    private final DoubleMatrix inverseJacobian;
+
+    private NodeFit(
+        CubeNode node,
+        SabrSwaptionNodeCalibration report,
+        SabrFormulaData sabrPoint,
+        DoubleMatrix inverseJacobian) {
+
+      this.node = node;
+      this.report = report;
+      this.sabrPoint = sabrPoint;
+      this.inverseJacobian = inverseJacobian;
+    }
+  }
+
   //-------------------------------------------------------------------------
   /**
    * Calibrate SABR alpha parameters to a set of ATM swaption volatilities.
@@ -0,0 +1,253 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.swaption;
+
+import java.time.Duration;
+import java.time.Period;
+
+import com.opengamma.strata.basics.date.Tenor;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * The report of the SABR calibration of a single expiry/tenor node of a swaption cube.
+ * <p>
+ * This records whether the node was calibrated, the number of least-square fits that were run and that converged,
+ * whether the parameters were obtained from a warm start, and the time spent on the node.
+ */
+public final class SabrSwaptionNodeCalibration {
+
+  /**
+   * The expiry of the node.
+   */
+  private final Period expiry;
+  /**
+   * The tenor of the node.
+   */
+  private final Tenor tenor;
+  /**
+   * The time to expiry of the node, as a year fraction.
+   */
+  private final double timeToExpiry;
+  /**
+   * The tenor of the node, as a number of years.
+   */
+  private final double timeTenor;
+  /**
+   * Whether the node was calibrated.
+   */
+  private final boolean calibrated;
+  /**
+   * The chi-square of the calibration, NaN if the node was not calibrated.
+   */
+  private final double chiSquare;
+  /**
+   * Whether the parameters were obtained from the warm start, rather than from the standard starting points.
+   */
+  private final boolean warmStarted;
+  /**
+   * The number of least-square fits that were run.
+   */
+  private final int fitCount;
+  /**
+   * The number of least-square fits that converged.
+   */
+  private final int convergedFitCount;
+  /**
+   * The time spent calibrating the node.
+   */
+  private final Duration calibrationTime;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance for a calibrated node.
+   *
+   * @param expiry  the expiry of the node
+   * @param tenor  the tenor of the node
+   * @param timeToExpiry  the time to expiry of the node
+   * @param timeTenor  the tenor of the node as a number of years
+   * @param chiSquare  the chi-square of the calibration
+   * @param warmStarted  whether the parameters were obtained from the warm start
+   * @param fitCount  the number of least-square fits that were run
+   * @param convergedFitCount  the number of least-square fits that converged
+   * @param calibrationTime  the time spent calibrating the node
+   * @return the report
+   */
+  public static SabrSwaptionNodeCalibration of(
+      Period expiry,
+      Tenor tenor,
+      double timeToExpiry,
+      double timeTenor,
+      double chiSquare,
+      boolean warmStarted,
+      int fitCount,
+      int convergedFitCount,
+      Duration calibrationTime) {
+
+    return new SabrSwaptionNodeCalibration(
+        expiry, tenor, timeToExpiry, timeTenor, true, chiSquare, warmStarted, fitCount, convergedFitCount,
+        calibrationTime);
+  }
+
+  /**
+   * Obtains an instance for a node whose calibration failed.
+   *
+   * @param expiry  the expiry of the node
+   * @param tenor  the tenor of the node
+   * @param timeToExpiry  the time to expiry of the node
+   * @param timeTenor  the tenor of the node as a number of years
+   * @param fitCount  the number of least-square fits that were run
+   * @param convergedFitCount  the number of least-square fits that converged
+   * @param calibrationTime  the time spent calibrating the node
+   * @return the report
+   */
+  public static SabrSwaptionNodeCalibration failed(
+      Period expiry,
+      Tenor tenor,
+      double timeToExpiry,
+      double timeTenor,
+      int fitCount,
+      int convergedFitCount,
+      Duration calibrationTime) {
+
+    return new SabrSwaptionNodeCalibration(
+        expiry, tenor, timeToExpiry, timeTenor, false, Double.NaN, false, fitCount, convergedFitCount, calibrationTime);
+  }
+
+  // restricted constructor
+  private SabrSwaptionNodeCalibration(
+      Period expiry,
+      Tenor tenor,
+      double timeToExpiry,
+      double timeTenor,
+      boolean calibrated,
+      double chiSquare,
+      boolean warmStarted,
+      int fitCount,
+      int convergedFitCount,
+      Duration calibrationTime) {
+
+    this.expiry = ArgChecker.notNull(expiry, "expiry");
+    this.tenor = ArgChecker.notNull(tenor, "tenor");
+    this.timeToExpiry = timeToExpiry;
+    this.timeTenor = timeTenor;
+    this.calibrated = calibrated;
+    this.chiSquare = chiSquare;
+    this.warmStarted = warmStarted;
+    this.fitCount = ArgChecker.notNegative(fitCount, "fitCount");
+    this.convergedFitCount = ArgChecker.inRangeInclusive(convergedFitCount, 0, fitCount, "convergedFitCount");
+    this.calibrationTime = ArgChecker.notNull(calibrationTime, "calibrationTime");
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the expiry of the node.
+   *
+   * @return the expiry
+   */
+  public Period getExpiry() {
+    return expiry;
+  }
+
+  /**
+   * Gets the tenor of the node.
+   *
+   * @return the tenor
+   */
+  public Tenor getTenor() {
+    return tenor;
+  }
+
+  /**
+   * Gets the time to expiry of the node, as a year fraction.
+   *
+   * @return the time to expiry
+   */
+  public double getTimeToExpiry() {
+    return timeToExpiry;
+  }
+
+  /**
+   * Gets the tenor of the node, as a number of years.
+   *
+   * @return the tenor in years
+   */
+  public double getTimeTenor() {
+    return timeTenor;
+  }
+
+  /**
+   * Checks whether the node was calibrated.
+   * <p>
+   * A node is not calibrated if its calibration threw a math exception and
+   * the calibration was set to skip such nodes.
+   *
+   * @return true if the node was calibrated
+   */
+  public boolean isCalibrated() {
+    return calibrated;
+  }
+
+  /**
+   * Gets the chi-square of the calibration.
+   *
+   * @return the chi-square, NaN if the node was not calibrated
+   */
+  public double getChiSquare() {
+    return chiSquare;
+  }
+
+  /**
+   * Checks whether the parameters were obtained from the warm start.
+   * <p>
+   * The fit from the warm start is accepted directly if its chi-square is small enough,
+   * otherwise the standard starting points are also fitted and the best fit is kept.
+   * This is false if the best fit came from the standard starting points,
+   * including when there was no warm start or the fit from the warm start failed.
+   *
+   * @return true if the parameters were obtained from the warm start
+   */
+  public boolean isWarmStarted() {
+    return warmStarted;
+  }
+
+  /**
+   * Gets the number of least-square fits that were run.
+   *
+   * @return the number of fits
+   */
+  public int getFitCount() {
+    return fitCount;
+  }
+
+  /**
+   * Gets the number of least-square fits that converged.
+   *
+   * @return the number of converged fits
+   */
+  public int getConvergedFitCount() {
+    return convergedFitCount;
+  }
+
+  /**
+   * Gets the time spent calibrating the node.
+   * <p>
+   * This includes the least-square fits, but not the computation of the forward rate of the node.
+   *
+   * @return the calibration time
+   */
+  public Duration getCalibrationTime() {
+    return calibrationTime;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public String toString() {
+    return "SabrSwaptionNodeCalibration[" + expiry + "x" + tenor + ", calibrated=" + calibrated +
+        ", chiSquare=" + chiSquare + ", warmStarted=" + warmStarted + ", fitCount=" + fitCount +
+        ", convergedFitCount=" + convergedFitCount + ", calibrationTime=" + calibrationTime + "]";
+  }
+
+}
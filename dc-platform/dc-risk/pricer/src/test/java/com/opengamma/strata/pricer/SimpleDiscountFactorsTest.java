@@ -21,7 +21,9 @@ import java.util.Optional;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableMap;
 import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.data.MarketDataName;
 import com.opengamma.strata.market.ValueType;
 import com.opengamma.strata.market.curve.CurveMetadata;
 import com.opengamma.strata.market.curve.CurveName;
@@ -246,6 +248,19 @@ public class SimpleDiscountFactorsTest {
     assertEquals(test.parameterSensitivity(point).size(), 1);
   }
 
+  public void test_parameterSensitivity_array() {
+    SimpleDiscountFactors test = SimpleDiscountFactors.of(GBP, DATE_VAL, CURVE);
+    ZeroRateSensitivity point = ZeroRateSensitivity.of(GBP, 1d, 2d);
+    DoubleArray expected = test.parameterSensitivity(point).getSensitivities().get(0).getSensitivity();
+    double[] array = new double[expected.size() + 2];
+    test.parameterSensitivity(point, ImmutableMap.<MarketDataName<?>, Integer>of(NAME, 1), array);
+    assertEquals(array[0], 0d);
+    assertEquals(array[array.length - 1], 0d);
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(array[i + 1], expected.get(i), TOL);
+    }
+  }
+
   //-------------------------------------------------------------------------
   public void test_createParameterSensitivity() {
     SimpleDiscountFactors test = SimpleDiscountFactors.of(GBP, DATE_VAL, CURVE);
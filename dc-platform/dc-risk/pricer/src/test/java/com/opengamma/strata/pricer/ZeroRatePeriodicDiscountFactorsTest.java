@@ -22,7 +22,9 @@ import java.util.Optional;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableMap;
 import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.data.MarketDataName;
 import com.opengamma.strata.market.ValueType;
 import com.opengamma.strata.market.curve.CurveInfoType;
 import com.opengamma.strata.market.curve.CurveMetadata;
@@ -325,6 +327,19 @@ public class ZeroRatePeriodicDiscountFactorsTest {
     }    
   }
 
+  public void test_parameterSensitivity_array() {
+    ZeroRatePeriodicDiscountFactors test = ZeroRatePeriodicDiscountFactors.of(GBP, DATE_VAL, CURVE);
+    ZeroRateSensitivity point = test.zeroRatePointSensitivity(DATE_AFTER).multipliedBy(25d);
+    DoubleArray expected = test.parameterSensitivity(point).getSensitivities().get(0).getSensitivity();
+    double[] array = new double[expected.size() + 2];
+    test.parameterSensitivity(point, ImmutableMap.<MarketDataName<?>, Integer>of(NAME, 1), array);
+    assertEquals(array[0], 0d);
+    assertEquals(array[array.length - 1], 0d);
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(array[i + 1], expected.get(i), TOLERANCE_DELTA);
+    }
+  }
+
   //-------------------------------------------------------------------------
   public void test_createParameterSensitivity() {
     ZeroRatePeriodicDiscountFactors test = ZeroRatePeriodicDiscountFactors.of(GBP, DATE_VAL, CURVE);
@@ -93,6 +93,22 @@ public class BlackIborCapFloorLegPricerTest {
     assertEquals(floorComputed.getAmount(), floorExpected);
   }
 
+  public void test_presentValue_periods() {
+    ImmutableRatesProvider[] rates = {RATES, RATES_AFTER, RATES_PAY};
+    BlackIborCapletFloorletExpiryStrikeVolatilities[] vols = {VOLS, VOLS_AFTER, VOLS_PAY};
+    for (int j = 0; j < rates.length; ++j) {
+      for (ResolvedIborCapFloorLeg leg : new ResolvedIborCapFloorLeg[] {CAP, FLOOR}) {
+        CurrencyAmount computed = PRICER_PERIOD.presentValue(leg.getCapletFloorletPeriods(), rates[j], vols[j]);
+        double expected = 0d;
+        for (IborCapletFloorletPeriod period : leg.getCapletFloorletPeriods()) {
+          expected += PRICER_PERIOD.presentValue(period, rates[j], vols[j]).getAmount();
+        }
+        assertEquals(computed.getCurrency(), EUR);
+        assertEquals(computed.getAmount(), expected);
+      }
+    }
+  }
+
   public void test_presentValue_after() {
     CurrencyAmount capComputed = PRICER.presentValue(CAP, RATES_AFTER, VOLS_AFTER);
     CurrencyAmount floorComputed = PRICER.presentValue(FLOOR, RATES_AFTER, VOLS_AFTER);
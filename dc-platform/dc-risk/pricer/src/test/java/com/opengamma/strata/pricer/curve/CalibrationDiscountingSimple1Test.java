@@ -34,6 +34,7 @@ import com.opengamma.strata.data.ImmutableMarketData;
 import com.opengamma.strata.data.ImmutableMarketDataBuilder;
 import com.opengamma.strata.data.MarketData;
 import com.opengamma.strata.market.ValueType;
+import com.opengamma.strata.market.curve.Curve;
 import com.opengamma.strata.market.curve.CurveGroupDefinition;
 import com.opengamma.strata.market.curve.CurveGroupName;
 import com.opengamma.strata.market.curve.CurveMetadata;
@@ -51,6 +52,7 @@ import com.opengamma.strata.market.curve.node.IborFixingDepositCurveNode;
 import com.opengamma.strata.market.observable.QuoteId;
 import com.opengamma.strata.pricer.deposit.DiscountingIborFixingDepositProductPricer;
 import com.opengamma.strata.pricer.fra.DiscountingFraTradePricer;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
 import com.opengamma.strata.pricer.rate.RatesProvider;
 import com.opengamma.strata.pricer.swap.DiscountingSwapProductPricer;
 import com.opengamma.strata.product.ResolvedTrade;
@@ -162,6 +164,7 @@ public class CalibrationDiscountingSimple1Test {
 
   // Constants
   private static final double TOLERANCE_PV = 1.0E-6;
+  private static final double TOLERANCE_PARAM = 1.0E-8;
 
   /** Test with CurveGroupDefinition */
   private static final String CURVE_GROUP_NAME_STR = "USD-SINGLE-CURVE";
@@ -209,6 +212,69 @@ public class CalibrationDiscountingSimple1Test {
     }
   }
 
+  //-------------------------------------------------------------------------
+  public void calibration_cache_unchanged() {
+    CurveCalibrationCache cache = CurveCalibrationCache.of();
+    CurveCalibrator calibrator = CALIBRATOR.withCache(cache);
+    ImmutableRatesProvider result1 = calibrator.calibrate(CURVE_GROUP_DEFN, ALL_QUOTES, REF_DATA);
+    assertEquals(cache.size(), 1);
+    ImmutableRatesProvider result2 = calibrator.calibrate(CURVE_GROUP_DEFN, ALL_QUOTES, REF_DATA);
+    assertEquals(cache.size(), 1);
+    assertEquals(result2, result1);
+    assertEquals(result1, CALIBRATOR.calibrate(CURVE_GROUP_DEFN, ALL_QUOTES, REF_DATA));
+    cache.remove(CURVE_GROUP_DEFN);
+    assertEquals(cache.size(), 0);
+  }
+
+  public void calibration_cache_quotesChanged() {
+    CurveCalibrationCache cache = CurveCalibrationCache.of();
+    CurveCalibrator calibrator = CALIBRATOR.withCache(cache);
+    calibrator.calibrate(CURVE_GROUP_DEFN, ALL_QUOTES, REF_DATA);
+    MarketData bumped = quotes(VAL_DATE, 1.0E-4);
+    ImmutableRatesProvider warm = calibrator.calibrate(CURVE_GROUP_DEFN, bumped, REF_DATA);
+    ImmutableRatesProvider cold = CALIBRATOR.calibrate(CURVE_GROUP_DEFN, bumped, REF_DATA);
+    assertCurvesEqual(warm, cold);
+    assertEquals(cache.size(), 1);
+    cache.clear();
+    assertEquals(cache.size(), 0);
+  }
+
+  public void calibration_cache_settingsChanged() {
+    CurveCalibrationCache cache = CurveCalibrationCache.of();
+    CurveCalibrator loose = CurveCalibrator.of(1e-2, 1e-2, 100).withCache(cache);
+    loose.calibrate(CURVE_GROUP_DEFN, ALL_QUOTES, REF_DATA);
+    // the result of the looser calibration is only a starting point
+    ImmutableRatesProvider result = CALIBRATOR.withCache(cache).calibrate(CURVE_GROUP_DEFN, ALL_QUOTES, REF_DATA);
+    assertCurvesEqual(result, CALIBRATOR.calibrate(CURVE_GROUP_DEFN, ALL_QUOTES, REF_DATA));
+  }
+
+  public void calibration_cache_valuationDateChanged() {
+    CurveCalibrationCache cache = CurveCalibrationCache.of();
+    CurveCalibrator calibrator = CALIBRATOR.withCache(cache);
+    calibrator.calibrate(CURVE_GROUP_DEFN, ALL_QUOTES, REF_DATA);
+    MarketData nextDay = quotes(VAL_DATE.plusDays(1), 0d);
+    ImmutableRatesProvider result = calibrator.calibrate(CURVE_GROUP_DEFN, nextDay, REF_DATA);
+    assertEquals(result.getValuationDate(), VAL_DATE.plusDays(1));
+    assertCurvesEqual(result, CALIBRATOR.calibrate(CURVE_GROUP_DEFN, nextDay, REF_DATA));
+  }
+
+  private static MarketData quotes(LocalDate valuationDate, double shift) {
+    ImmutableMarketDataBuilder builder = ImmutableMarketData.builder(valuationDate);
+    for (int i = 0; i < FWD3_NB_NODES; i++) {
+      builder.addValue(QuoteId.of(StandardId.of(SCHEME, FWD3_ID_VALUE[i])), FWD3_MARKET_QUOTES[i] + shift);
+    }
+    return builder.build();
+  }
+
+  private static void assertCurvesEqual(ImmutableRatesProvider actual, ImmutableRatesProvider expected) {
+    Curve actualCurve = actual.getIndexCurves().get(USD_LIBOR_3M);
+    Curve expectedCurve = expected.getIndexCurves().get(USD_LIBOR_3M);
+    assertEquals(actualCurve.getParameterCount(), expectedCurve.getParameterCount());
+    for (int i = 0; i < expectedCurve.getParameterCount(); i++) {
+      assertEquals(actualCurve.getParameter(i), expectedCurve.getParameter(i), TOLERANCE_PARAM);
+    }
+  }
+
   //-------------------------------------------------------------------------
   @Test(enabled = false)
   void performance() {
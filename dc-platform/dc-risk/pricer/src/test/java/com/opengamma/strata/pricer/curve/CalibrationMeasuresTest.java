@@ -6,13 +6,30 @@
 package com.opengamma.strata.pricer.curve;
 
 import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.product.swap.type.FixedIborSwapConventions.GBP_FIXED_6M_LIBOR_6M;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.date.Tenor;
+import com.opengamma.strata.collect.array.DoubleArray;
+import com.opengamma.strata.market.curve.CurveName;
+import com.opengamma.strata.market.curve.CurveParameterSize;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivity;
+import com.opengamma.strata.market.param.UnitParameterSensitivities;
+import com.opengamma.strata.market.param.UnitParameterSensitivity;
 import com.opengamma.strata.pricer.datasets.ImmutableRatesProviderSimpleData;
+import com.opengamma.strata.pricer.datasets.RatesProviderDataSets;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
 import com.opengamma.strata.pricer.swap.SwapDummyData;
+import com.opengamma.strata.product.common.BuySell;
 import com.opengamma.strata.product.deposit.ResolvedIborFixingDepositTrade;
 import com.opengamma.strata.product.deposit.ResolvedTermDepositTrade;
 import com.opengamma.strata.product.fra.ResolvedFraTrade;
@@ -26,6 +43,9 @@ import com.opengamma.strata.product.swap.ResolvedSwapTrade;
 @Test
 public class CalibrationMeasuresTest {
 
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final double TOLERANCE = 1e-12;
+
   //-------------------------------------------------------------------------
   public void test_PAR_SPREAD() {
     assertThat(CalibrationMeasures.PAR_SPREAD.getName()).isEqualTo("ParSpread");
@@ -82,4 +102,35 @@ public class CalibrationMeasuresTest {
         "Trade type 'ResolvedSwapTrade' is not supported for calibration");
   }
 
+  //-------------------------------------------------------------------------
+  public void test_derivative() {
+    ImmutableRatesProvider provider = RatesProviderDataSets.MULTI_GBP;
+    ResolvedSwapTrade trade = GBP_FIXED_6M_LIBOR_6M
+        .createTrade(provider.getValuationDate(), Tenor.TENOR_5Y, BuySell.BUY, 1_000_000d, 0.01, REF_DATA)
+        .resolve(REF_DATA);
+    TradeCalibrationMeasure<ResolvedSwapTrade> measure = TradeCalibrationMeasure.SWAP_PAR_SPREAD;
+    assertThat(measure.pointSensitivities(trade, provider)).isPresent();
+    UnitParameterSensitivities expected = UnitParameterSensitivities.empty();
+    for (CurrencyParameterSensitivity sens : measure.sensitivities(trade, provider).getSensitivities()) {
+      expected = expected.combinedWith(sens.toUnitParameterSensitivity());
+    }
+    // the order of the curves is reversed, with an additional curve that has no sensitivity
+    List<CurveParameterSize> order = new ArrayList<>();
+    order.add(CurveParameterSize.of(CurveName.of("Unused"), 2));
+    for (UnitParameterSensitivity sens : Lists.reverse(expected.getSensitivities())) {
+      order.add(CurveParameterSize.of(CurveName.of(sens.getMarketDataName().getName()), sens.getParameterCount()));
+    }
+    DoubleArray expectedArray = DoubleArray.filled(2);
+    for (UnitParameterSensitivity sens : Lists.reverse(expected.getSensitivities())) {
+      expectedArray = expectedArray.concat(sens.getSensitivity());
+    }
+
+    CalibrationMeasures test = CalibrationMeasures.of("Test", measure);
+    DoubleArray result = test.derivative(trade, provider, order);
+    assertThat(result.size()).isEqualTo(expectedArray.size());
+    for (int i = 0; i < result.size(); i++) {
+      assertThat(result.get(i)).isCloseTo(expectedArray.get(i), offset(TOLERANCE));
+    }
+  }
+
 }
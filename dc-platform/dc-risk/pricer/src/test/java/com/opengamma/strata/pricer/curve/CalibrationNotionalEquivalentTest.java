@@ -6,6 +6,7 @@
 package com.opengamma.strata.pricer.curve;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 import java.time.LocalDate;
@@ -160,6 +161,29 @@ public class CalibrationNotionalEquivalentTest {
     }
   }
 
+  // the sensitivity stored in the cache depends on the present value measures
+  public void check_pv_sensitivity_cacheSharedWithOtherPvMeasures() {
+    CurveCalibrationCache cache = CurveCalibrationCache.of();
+    CurveCalibrator marketQuoteCalibrator =
+        CurveCalibrator.of(1e-9, 1e-9, 100, CALIBRATION_MEASURES, CalibrationMeasures.MARKET_QUOTE);
+    ImmutableRatesProvider pvMulticurve =
+        CALIBRATOR.withCache(cache).calibrate(GROUP_DEFINITION_PV_SENSI, MARKET_QUOTES, REF_DATA);
+    ImmutableRatesProvider cachedMulticurve =
+        marketQuoteCalibrator.withCache(cache).calibrate(GROUP_DEFINITION_PV_SENSI, MARKET_QUOTES, REF_DATA);
+    ImmutableRatesProvider expectedMulticurve =
+        marketQuoteCalibrator.calibrate(GROUP_DEFINITION_PV_SENSI, MARKET_QUOTES, REF_DATA);
+    for (NodalCurveDefinition entry : GROUP_DEFINITION.getCurveDefinitions()) {
+      DoubleArray pvSensitivity = pvMulticurve.findData(entry.getName()).get()
+          .getMetadata().findInfo(CurveInfoType.PV_SENSITIVITY_TO_MARKET_QUOTE).get();
+      DoubleArray cachedSensitivity = cachedMulticurve.findData(entry.getName()).get()
+          .getMetadata().findInfo(CurveInfoType.PV_SENSITIVITY_TO_MARKET_QUOTE).get();
+      DoubleArray expectedSensitivity = expectedMulticurve.findData(entry.getName()).get()
+          .getMetadata().findInfo(CurveInfoType.PV_SENSITIVITY_TO_MARKET_QUOTE).get();
+      assertTrue(expectedSensitivity.equalWithTolerance(cachedSensitivity, 1.0E-10));
+      assertFalse(pvSensitivity.equalWithTolerance(cachedSensitivity, 1.0E-10));
+    }
+  }
+
   public void check_equivalent_notional() {
     ImmutableRatesProvider multicurve =
         CALIBRATOR.calibrate(GROUP_DEFINITION_PV_SENSI, MARKET_QUOTES, REF_DATA);
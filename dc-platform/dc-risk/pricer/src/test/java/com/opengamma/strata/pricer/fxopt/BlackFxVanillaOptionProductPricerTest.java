@@ -17,9 +17,11 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.List;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
 import com.opengamma.strata.basics.currency.CurrencyPair;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
@@ -167,6 +169,20 @@ public class BlackFxVanillaOptionProductPricerTest {
         df * (forward - STRIKE_RATE_HIGH) * NOTIONAL, NOTIONAL * TOL);
   }
 
+  public void test_presentValue_list() {
+    List<ResolvedFxVanillaOption> options = ImmutableList.of(CALL_OTM, CALL_ITM, PUT_OTM, PUT_ITM);
+    RatesProvider[] rates = {RATES_PROVIDER, RATES_PROVIDER_EXPIRY, RATES_PROVIDER_AFTER};
+    BlackFxOptionSmileVolatilities[] vols = {VOLS, VOLS_EXPIRY, VOLS_AFTER};
+    for (int i = 0; i < rates.length; i++) {
+      List<CurrencyAmount> computed = PRICER.presentValue(options, rates[i], vols[i]);
+      assertEquals(computed.size(), options.size());
+      for (int j = 0; j < options.size(); j++) {
+        assertEquals(computed.get(j), PRICER.presentValue(options.get(j), rates[i], vols[i]));
+      }
+    }
+    assertEquals(PRICER.presentValue(ImmutableList.of(), RATES_PROVIDER, VOLS), ImmutableList.of());
+  }
+
   //-------------------------------------------------------------------------
   public void test_delta_presentValueDelta() {
     double deltaCall = PRICER.delta(CALL_OTM, RATES_PROVIDER, VOLS);
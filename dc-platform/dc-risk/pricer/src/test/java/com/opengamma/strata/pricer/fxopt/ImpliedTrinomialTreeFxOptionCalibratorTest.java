@@ -8,13 +8,16 @@ package com.opengamma.strata.pricer.fxopt;
 import static com.opengamma.strata.basics.currency.Currency.EUR;
 import static com.opengamma.strata.basics.currency.Currency.USD;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.List;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
 import com.opengamma.strata.pricer.fx.RatesProviderFxDataSets;
 import com.opengamma.strata.pricer.impl.option.BlackFormulaRepository;
@@ -88,4 +91,15 @@ public class ImpliedTrinomialTreeFxOptionCalibratorTest {
     }
   }
 
+  public void test_calibrateTrinomialTrees() {
+    ResolvedFxVanillaOption shortCall = CALL.toBuilder().longShort(LongShort.SHORT).build();
+    ResolvedFxVanillaOption laterCall = CALL.toBuilder().expiry(EXPIRY_DATETIME.plusMonths(3)).build();
+    List<RecombiningTrinomialTreeData> computed =
+        CALIB.calibrateTrinomialTrees(ImmutableList.of(CALL, laterCall, shortCall), RATE_PROVIDER, VOLS);
+    assertEquals(computed.size(), 3);
+    assertEquals(computed.get(0), TREE_DATA);
+    assertEquals(computed.get(1), CALIB.calibrateTrinomialTree(laterCall, RATE_PROVIDER, VOLS));
+    assertSame(computed.get(2), computed.get(0));
+  }
+
 }
@@ -14,9 +14,11 @@ import static org.testng.Assert.assertTrue;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.List;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.opengamma.strata.basics.currency.CurrencyAmount;
 import com.opengamma.strata.basics.currency.MultiCurrencyAmount;
 import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
@@ -308,7 +310,35 @@ public class ImpliedTrinomialTreeFxSingleBarrierOptionProductPricerTest {
     assertTrue(computed.equalWithTolerance(expected, 1.0e-13));
   }
 
+  public void test_presentValueSensitivity_list() {
+    ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer pricer =
+        new ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer(21);
+    ResolvedFxSingleBarrierOption putDko = ResolvedFxSingleBarrierOption.of(PUT, BARRIER_DKO);
+    List<ResolvedFxSingleBarrierOption> options = ImmutableList.of(CALL_UKI_C, CALL_DKO, putDko);
+    List<CurrencyParameterSensitivities> computed =
+        pricer.presentValueRatesSensitivity(options, RATE_PROVIDER, VOLS);
+    assertEquals(computed.size(), options.size());
+    for (int i = 0; i < options.size(); ++i) {
+      CurrencyParameterSensitivities expected =
+          pricer.presentValueRatesSensitivity(options.get(i), RATE_PROVIDER, VOLS);
+      assertTrue(computed.get(i).equalWithTolerance(expected, 1.0e-13));
+    }
+  }
+
   //-------------------------------------------------------------------------
+  public void test_presentValue_list() {
+    ResolvedFxSingleBarrierOption putDko = ResolvedFxSingleBarrierOption.of(PUT, BARRIER_DKO);
+    ResolvedFxSingleBarrierOption earlierCallDko = ResolvedFxSingleBarrierOption.of(
+        CALL.toBuilder().expiry(EXPIRY_DATETIME.minusMonths(6)).build(), BARRIER_DKO);
+    List<ResolvedFxSingleBarrierOption> options = ImmutableList.of(CALL_DKO, CALL_UKI_C, putDko, earlierCallDko);
+    List<CurrencyAmount> computed = PRICER_39.presentValue(options, RATE_PROVIDER, VOLS);
+    assertEquals(computed.size(), options.size());
+    for (int i = 0; i < options.size(); ++i) {
+      assertEquals(computed.get(i), PRICER_39.presentValue(options.get(i), RATE_PROVIDER, VOLS));
+    }
+    assertEquals(PRICER_39.presentValue(ImmutableList.of(), RATE_PROVIDER, VOLS), ImmutableList.of());
+  }
+
   public void test_withData() {
     ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer pricer =
         new ImpliedTrinomialTreeFxSingleBarrierOptionProductPricer(5);
@@ -187,6 +187,51 @@ public class FastCreditCurveBuilderTest extends CreditCurveCalibrationTest {
 
   }
 
+  public void calibrateCreditCurvesTest() {
+    LocalDate tradeDate = LocalDate.of(2013, Month.APRIL, 25);
+    LocalDate spotDate = DEFAULT_CALENDAR.shift(tradeDate.minusDays(1), 3);
+    String[] yieldCurvePoints = new String[] {"1M", "3M", "6M", "1Y", "2Y", "3Y", "5Y", "7Y", "10Y"};
+    String[] yieldCurveInstruments = new String[] {"M", "M", "M", "M", "S", "S", "S", "S", "S"};
+    double[] rates = new double[] {0.00445, 0.012337, 0.017762, 0.020838, 0.01652, 0.02018, 0.02525, 0.02825, 0.03092};
+    IsdaCompliantYieldCurve yc = makeYieldCurve(
+        tradeDate, spotDate, yieldCurvePoints, yieldCurveInstruments, rates, ACT360, D30360, Period.ofYears(1));
+    Period[] tenors = new Period[] {Period.ofMonths(6), Period.ofYears(1), Period.ofYears(3), Period.ofYears(5)};
+    CdsAnalytic[] pillar = new CdsAnalyticFactory().makeImmCds(tradeDate, tenors);
+
+    double[][] spreads = new double[][] {
+        {0.005, 0.007, 0.009, 0.012},
+        {0.027, 0.025, 0.024, 0.022},
+        {0.0015, 0.002, 0.003, 0.0045},
+        {0.012, 0.013, 0.015, 0.016}};
+    double[] recoveryRates = new double[] {0.4, 0.25, 0.4, 0.6};
+    for (FastCreditCurveBuilder builder : new FastCreditCurveBuilder[] {BUILDER_ISDA, BUILDER_MARKIT}) {
+      IsdaCompliantCreditCurve[] curves = builder.calibrateCreditCurves(pillar, spreads, recoveryRates, yc);
+      assertEquals(spreads.length, curves.length);
+      for (int j = 0; j < spreads.length; j++) {
+        CdsAnalytic[] namePillar = new CdsAnalytic[pillar.length];
+        for (int i = 0; i < pillar.length; i++) {
+          namePillar[i] = pillar[i].withRecoveryRate(recoveryRates[j]);
+        }
+        IsdaCompliantCreditCurve expected = builder.calibrateCreditCurve(namePillar, spreads[j], yc);
+        assertTrue(Arrays.equals(expected.getKnotTimes(), curves[j].getKnotTimes()));
+        assertTrue(Arrays.equals(expected.getRt(), curves[j].getRt()));
+      }
+    }
+
+    try {
+      BUILDER_ISDA.calibrateCreditCurves(pillar, spreads, new double[] {0.4}, yc);
+      throw new RuntimeException();
+    } catch (final Exception e) {
+      assertTrue(e instanceof IllegalArgumentException);
+    }
+    try {
+      BUILDER_ISDA.calibrateCreditCurves(pillar, new double[][] {{0.01, 0.02}}, new double[] {0.4}, yc);
+      throw new RuntimeException();
+    } catch (final Exception e) {
+      assertTrue(e instanceof IllegalArgumentException);
+    }
+  }
+
   /**
    * 
    */
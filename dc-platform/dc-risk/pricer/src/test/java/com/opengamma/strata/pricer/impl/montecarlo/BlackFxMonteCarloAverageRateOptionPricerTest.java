@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.product.common.LongShort.LONG;
+import static com.opengamma.strata.product.common.LongShort.SHORT;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.math.impl.random.SobolNormalVariateGenerator;
+import com.opengamma.strata.pricer.datasets.RatesProviderDataSets;
+import com.opengamma.strata.pricer.fx.RatesProviderFxDataSets;
+import com.opengamma.strata.pricer.fxopt.BlackFxOptionSmileVolatilities;
+import com.opengamma.strata.pricer.fxopt.BlackFxVanillaOptionProductPricer;
+import com.opengamma.strata.pricer.fxopt.FxVolatilitySmileDataSet;
+import com.opengamma.strata.pricer.rate.RatesProvider;
+import com.opengamma.strata.product.fx.ResolvedFxSingle;
+import com.opengamma.strata.product.fxopt.ResolvedFxVanillaOption;
+
+/**
+ * Test {@link BlackFxMonteCarloAverageRateOptionPricer}.
+ */
+@Test
+public class BlackFxMonteCarloAverageRateOptionPricerTest {
+
+  private static final ZoneId ZONE = ZoneId.of("Z");
+  private static final ZonedDateTime EXPIRY = ZonedDateTime.of(2014, 5, 9, 13, 10, 0, 0, ZONE);
+  private static final LocalDate VAL_DATE = RatesProviderDataSets.VAL_DATE_2014_01_22;
+  private static final ZonedDateTime VAL_DATETIME = VAL_DATE.atTime(13, 45).atZone(ZONE);
+  private static final RatesProvider RATES_PROVIDER = RatesProviderFxDataSets.createProviderEURUSD(VAL_DATE);
+  private static final BlackFxOptionSmileVolatilities VOLS =
+      FxVolatilitySmileDataSet.createVolatilitySmileProvider6(VAL_DATETIME);
+
+  private static final double NOTIONAL = 1.0e6;
+  private static final LocalDate PAYMENT_DATE = LocalDate.of(2014, 5, 13);
+  private static final double STRIKE = 1.36;
+  private static final ResolvedFxSingle FX_PRODUCT = ResolvedFxSingle.of(
+      CurrencyAmount.of(EUR, NOTIONAL), CurrencyAmount.of(USD, -NOTIONAL * STRIKE), PAYMENT_DATE);
+  private static final ResolvedFxVanillaOption CALL_LONG = ResolvedFxVanillaOption.builder()
+      .longShort(LONG)
+      .expiry(EXPIRY)
+      .underlying(FX_PRODUCT)
+      .build();
+  private static final ResolvedFxVanillaOption CALL_SHORT = ResolvedFxVanillaOption.builder()
+      .longShort(SHORT)
+      .expiry(EXPIRY)
+      .underlying(FX_PRODUCT)
+      .build();
+  private static final List<ZonedDateTime> MONTHLY_FIXINGS = ImmutableList.of(
+      EXPIRY.minusMonths(3), EXPIRY.minusMonths(2), EXPIRY.minusMonths(1), EXPIRY);
+
+  private static final MonteCarloEngine ENGINE =
+      MonteCarloEngine.of(SobolNormalVariateGenerator.DEFAULT, 20000).withAntithetic(true);
+  private static final BlackFxMonteCarloAverageRateOptionPricer PRICER =
+      new BlackFxMonteCarloAverageRateOptionPricer(ENGINE);
+  private static final BlackFxVanillaOptionProductPricer VANILLA_PRICER = BlackFxVanillaOptionProductPricer.DEFAULT;
+
+  //-------------------------------------------------------------------------
+  public void test_price_singleFixing() {
+    MonteCarloResult computed = PRICER.price(CALL_LONG, ImmutableList.of(EXPIRY), RATES_PROVIDER, VOLS);
+    double expected = VANILLA_PRICER.price(CALL_LONG, RATES_PROVIDER, VOLS);
+    assertEquals(computed.getSampleCount(), 20000);
+    // the forward of the vanilla pricer is that of the payment date, the difference is within the tolerance
+    assertEquals(computed.getValue(), expected, Math.max(3d * computed.getStandardError(), expected * 1e-3));
+  }
+
+  public void test_price_average() {
+    MonteCarloResult average = PRICER.price(CALL_LONG, MONTHLY_FIXINGS, RATES_PROVIDER, VOLS);
+    double vanilla = VANILLA_PRICER.price(CALL_LONG, RATES_PROVIDER, VOLS);
+    assertTrue(average.getValue() > 0d);
+    assertTrue(average.getValue() < vanilla);
+  }
+
+  public void test_presentValue() {
+    CurrencyAmount pvLong = PRICER.presentValue(CALL_LONG, MONTHLY_FIXINGS, RATES_PROVIDER, VOLS);
+    CurrencyAmount pvShort = PRICER.presentValue(CALL_SHORT, MONTHLY_FIXINGS, RATES_PROVIDER, VOLS);
+    double price = PRICER.price(CALL_LONG, MONTHLY_FIXINGS, RATES_PROVIDER, VOLS).getValue();
+    assertEquals(pvLong.getCurrency(), USD);
+    assertEquals(pvLong.getAmount(), NOTIONAL * price, NOTIONAL * 1e-12);
+    assertEquals(pvShort.getAmount(), -pvLong.getAmount(), NOTIONAL * 1e-12);
+  }
+
+  public void test_fixingsNotIncreasing() {
+    assertThrowsIllegalArg(() -> PRICER.price(
+        CALL_LONG, ImmutableList.of(EXPIRY, EXPIRY.minusMonths(1)), RATES_PROVIDER, VOLS));
+    assertThrowsIllegalArg(() -> PRICER.price(
+        CALL_LONG, ImmutableList.of(VAL_DATETIME.minusDays(1), EXPIRY), RATES_PROVIDER, VOLS));
+  }
+
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import static com.opengamma.strata.basics.currency.Currency.EUR;
+import static com.opengamma.strata.basics.date.BusinessDayConventions.MODIFIED_FOLLOWING;
+import static com.opengamma.strata.basics.date.DayCounts.THIRTY_U_360;
+import static com.opengamma.strata.basics.index.IborIndices.EUR_EURIBOR_6M;
+import static com.opengamma.strata.basics.schedule.Frequency.P12M;
+import static com.opengamma.strata.basics.schedule.Frequency.P6M;
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.product.common.LongShort.LONG;
+import static com.opengamma.strata.product.common.LongShort.SHORT;
+import static com.opengamma.strata.product.common.PayReceive.PAY;
+import static com.opengamma.strata.product.common.PayReceive.RECEIVE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.date.AdjustableDate;
+import com.opengamma.strata.basics.date.BusinessDayAdjustment;
+import com.opengamma.strata.basics.date.DaysAdjustment;
+import com.opengamma.strata.basics.date.HolidayCalendarId;
+import com.opengamma.strata.basics.date.HolidayCalendarIds;
+import com.opengamma.strata.basics.schedule.Frequency;
+import com.opengamma.strata.basics.schedule.PeriodicSchedule;
+import com.opengamma.strata.basics.schedule.StubConvention;
+import com.opengamma.strata.basics.value.ValueSchedule;
+import com.opengamma.strata.math.impl.random.PseudoRandomNormalVariateGenerator;
+import com.opengamma.strata.pricer.index.HullWhiteIborFutureDataSet;
+import com.opengamma.strata.pricer.model.HullWhiteOneFactorPiecewiseConstantParametersProvider;
+import com.opengamma.strata.pricer.rate.ImmutableRatesProvider;
+import com.opengamma.strata.pricer.swaption.HullWhiteSwaptionPhysicalProductPricer;
+import com.opengamma.strata.product.common.LongShort;
+import com.opengamma.strata.product.common.PayReceive;
+import com.opengamma.strata.product.swap.FixedRateCalculation;
+import com.opengamma.strata.product.swap.IborRateCalculation;
+import com.opengamma.strata.product.swap.NotionalSchedule;
+import com.opengamma.strata.product.swap.PaymentSchedule;
+import com.opengamma.strata.product.swap.RateCalculationSwapLeg;
+import com.opengamma.strata.product.swap.Swap;
+import com.opengamma.strata.product.swaption.CashSwaptionSettlement;
+import com.opengamma.strata.product.swaption.CashSwaptionSettlementMethod;
+import com.opengamma.strata.product.swaption.PhysicalSwaptionSettlement;
+import com.opengamma.strata.product.swaption.ResolvedSwaption;
+import com.opengamma.strata.product.swaption.Swaption;
+import com.opengamma.strata.product.swaption.SwaptionSettlement;
+
+/**
+ * Test {@link HullWhiteMonteCarloBermudanSwaptionPricer}.
+ */
+@Test
+public class HullWhiteMonteCarloBermudanSwaptionPricerTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final HolidayCalendarId CALENDAR = HolidayCalendarIds.SAT_SUN;
+  private static final BusinessDayAdjustment BDA_MF = BusinessDayAdjustment.of(MODIFIED_FOLLOWING, CALENDAR);
+  private static final double NOTIONAL = 100000000; //100m
+  private static final double RATE = 0.0175;
+  private static final LocalDate END = LocalDate.of(2021, 7, 11);
+  private static final List<LocalDate> EXPIRIES = ImmutableList.of(
+      LocalDate.of(2016, 7, 7), LocalDate.of(2017, 7, 7), LocalDate.of(2018, 7, 9), LocalDate.of(2019, 7, 8));
+
+  private static final LocalDate VALUATION = LocalDate.of(2011, 7, 7);
+  private static final HullWhiteOneFactorPiecewiseConstantParametersProvider HW_PROVIDER =
+      HullWhiteIborFutureDataSet.createHullWhiteProvider(VALUATION);
+  private static final ImmutableRatesProvider RATE_PROVIDER = HullWhiteIborFutureDataSet.createRatesProvider(VALUATION);
+
+  private static final MonteCarloEngine ENGINE =
+      MonteCarloEngine.of(PseudoRandomNormalVariateGenerator.of(1234L), 20000).withAntithetic(true);
+  private static final HullWhiteMonteCarloBermudanSwaptionPricer PRICER =
+      new HullWhiteMonteCarloBermudanSwaptionPricer(ENGINE);
+  private static final HullWhiteSwaptionPhysicalProductPricer EUROPEAN_PRICER =
+      HullWhiteSwaptionPhysicalProductPricer.DEFAULT;
+
+  //-------------------------------------------------------------------------
+  public void test_singleExercise() {
+    for (PayReceive payReceive : PayReceive.values()) {
+      ResolvedSwaption swaption = swaption(EXPIRIES.get(0), payReceive, LONG, PhysicalSwaptionSettlement.DEFAULT);
+      MonteCarloResult computed = PRICER.price(ImmutableList.of(swaption), RATE_PROVIDER, HW_PROVIDER);
+      CurrencyAmount expected = EUROPEAN_PRICER.presentValue(swaption, RATE_PROVIDER, HW_PROVIDER);
+      assertEquals(computed.getValue(), expected.getAmount(), 4d * computed.getStandardError());
+    }
+  }
+
+  public void test_bermudan() {
+    List<ResolvedSwaption> swaptions = swaptions(RECEIVE, LONG);
+    MonteCarloResult computed = PRICER.price(swaptions, RATE_PROVIDER, HW_PROVIDER);
+    double maxEuropean = 0d;
+    double sumEuropean = 0d;
+    for (ResolvedSwaption swaption : swaptions) {
+      double european = EUROPEAN_PRICER.presentValue(swaption, RATE_PROVIDER, HW_PROVIDER).getAmount();
+      maxEuropean = Math.max(maxEuropean, european);
+      sumEuropean += european;
+    }
+    // the right to exercise at several dates is worth more than any one of them, but less than all of them
+    assertTrue(computed.getValue() > maxEuropean - 3d * computed.getStandardError());
+    assertTrue(computed.getValue() < sumEuropean);
+    CurrencyAmount pv = PRICER.presentValue(swaptions, RATE_PROVIDER, HW_PROVIDER);
+    assertEquals(pv, CurrencyAmount.of(EUR, computed.getValue()));
+  }
+
+  public void test_longShort() {
+    MonteCarloResult computedLong = PRICER.price(swaptions(PAY, LONG), RATE_PROVIDER, HW_PROVIDER);
+    MonteCarloResult computedShort = PRICER.price(swaptions(PAY, SHORT), RATE_PROVIDER, HW_PROVIDER);
+    assertEquals(computedShort.getValue(), -computedLong.getValue());
+    assertEquals(computedShort.getStandardError(), computedLong.getStandardError());
+  }
+
+  public void test_expired() {
+    LocalDate valuation = EXPIRIES.get(EXPIRIES.size() - 1).plusDays(1);
+    MonteCarloResult computed = PRICER.price(
+        swaptions(PAY, LONG),
+        HullWhiteIborFutureDataSet.createRatesProvider(valuation),
+        HullWhiteIborFutureDataSet.createHullWhiteProvider(valuation));
+    assertEquals(computed, MonteCarloResult.of(0d, 0d, 0));
+  }
+
+  public void test_exercisePolicyValues_lastExercise() {
+    double[][] exerciseValues = {{1d, -1d}, {2d, -2d}};
+    assertEquals(HullWhiteMonteCarloBermudanSwaptionPricer.exercisePolicyValues(exerciseValues), new double[] {2d, 0d});
+  }
+
+  public void test_invalid() {
+    ResolvedSwaption first = swaption(EXPIRIES.get(0), PAY, LONG, PhysicalSwaptionSettlement.DEFAULT);
+    ResolvedSwaption second = swaption(EXPIRIES.get(1), PAY, LONG, PhysicalSwaptionSettlement.DEFAULT);
+    ResolvedSwaption secondShort = swaption(EXPIRIES.get(1), PAY, SHORT, PhysicalSwaptionSettlement.DEFAULT);
+    ResolvedSwaption cash = swaption(EXPIRIES.get(1), PAY, LONG,
+        CashSwaptionSettlement.of(EXPIRIES.get(1), CashSwaptionSettlementMethod.PAR_YIELD));
+    assertThrowsIllegalArg(() -> PRICER.price(ImmutableList.of(), RATE_PROVIDER, HW_PROVIDER));
+    assertThrowsIllegalArg(() -> PRICER.price(ImmutableList.of(second, first), RATE_PROVIDER, HW_PROVIDER));
+    assertThrowsIllegalArg(() -> PRICER.price(ImmutableList.of(first, secondShort), RATE_PROVIDER, HW_PROVIDER));
+    assertThrowsIllegalArg(() -> PRICER.price(ImmutableList.of(first, cash), RATE_PROVIDER, HW_PROVIDER));
+    assertThrowsIllegalArg(() -> PRICER.price(
+        ImmutableList.of(first), RATE_PROVIDER, HullWhiteIborFutureDataSet.createHullWhiteProvider(VALUATION.plusDays(1))));
+  }
+
+  //-------------------------------------------------------------------------
+  // co-terminal swaptions, one for each expiry
+  private static List<ResolvedSwaption> swaptions(PayReceive payReceive, LongShort longShort) {
+    return EXPIRIES.stream()
+        .map(expiry -> swaption(expiry, payReceive, longShort, PhysicalSwaptionSettlement.DEFAULT))
+        .collect(toImmutableList());
+  }
+
+  // swaption on the swap starting two days after expiry and ending on the common end date
+  private static ResolvedSwaption swaption(
+      LocalDate expiry,
+      PayReceive payReceive,
+      LongShort longShort,
+      SwaptionSettlement settlement) {
+
+    LocalDate start = BDA_MF.adjust(CALENDAR.resolve(REF_DATA).shift(expiry, 2), REF_DATA);
+    RateCalculationSwapLeg fixedLeg = RateCalculationSwapLeg.builder()
+        .payReceive(payReceive)
+        .accrualSchedule(schedule(start, P12M))
+        .paymentSchedule(PaymentSchedule.builder().paymentFrequency(P12M).paymentDateOffset(DaysAdjustment.NONE).build())
+        .notionalSchedule(NotionalSchedule.of(EUR, NOTIONAL))
+        .calculation(FixedRateCalculation.builder().dayCount(THIRTY_U_360).rate(ValueSchedule.of(RATE)).build())
+        .build();
+    RateCalculationSwapLeg iborLeg = RateCalculationSwapLeg.builder()
+        .payReceive(payReceive.isPay() ? RECEIVE : PAY)
+        .accrualSchedule(schedule(start, P6M))
+        .paymentSchedule(PaymentSchedule.builder().paymentFrequency(P6M).paymentDateOffset(DaysAdjustment.NONE).build())
+        .notionalSchedule(NotionalSchedule.of(EUR, NOTIONAL))
+        .calculation(IborRateCalculation.builder()
+            .index(EUR_EURIBOR_6M)
+            .fixingDateOffset(DaysAdjustment.ofBusinessDays(-2, CALENDAR, BDA_MF))
+            .build())
+        .build();
+    return Swaption.builder()
+        .expiryDate(AdjustableDate.of(expiry, BDA_MF))
+        .expiryTime(LocalTime.NOON)
+        .expiryZone(ZoneOffset.UTC)
+        .swaptionSettlement(settlement)
+        .longShort(longShort)
+        .underlying(Swap.of(fixedLeg, iborLeg))
+        .build()
+        .resolve(REF_DATA);
+  }
+
+  // the accrual schedule from the start to the common end date
+  private static PeriodicSchedule schedule(LocalDate start, Frequency frequency) {
+    return PeriodicSchedule.builder()
+        .startDate(start)
+        .endDate(END)
+        .frequency(frequency)
+        .businessDayAdjustment(BDA_MF)
+        .stubConvention(StubConvention.SHORT_FINAL)
+        .build();
+  }
+
+}
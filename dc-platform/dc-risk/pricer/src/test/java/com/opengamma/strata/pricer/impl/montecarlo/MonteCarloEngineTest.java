@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.strata.math.impl.random.PseudoRandomNormalVariateGenerator;
+import com.opengamma.strata.math.impl.random.SobolNormalVariateGenerator;
+
+/**
+ * Test {@link MonteCarloEngine}.
+ */
+@Test
+public class MonteCarloEngineTest {
+
+  private static final int SAMPLE_COUNT = 5000;
+  private static final MonteCarloEngine ENGINE =
+      MonteCarloEngine.of(PseudoRandomNormalVariateGenerator.of(42L), SAMPLE_COUNT);
+  private static final double TOL = 1e-14;
+
+  // the path is the normal variates
+  private static final MonteCarloPathGenerator IDENTITY = new MonteCarloPathGenerator() {
+    @Override
+    public int getDimension() {
+      return 2;
+    }
+
+    @Override
+    public int getPathSize() {
+      return 2;
+    }
+
+    @Override
+    public void generate(double[] normals, double[] path) {
+      System.arraycopy(normals, 0, path, 0, 2);
+    }
+  };
+
+  //-------------------------------------------------------------------------
+  public void test_of() {
+    assertEquals(ENGINE.getSampleCount(), SAMPLE_COUNT);
+    assertEquals(ENGINE.getPathCount(), SAMPLE_COUNT);
+    assertFalse(ENGINE.isAntithetic());
+    assertTrue(ENGINE.isParallel());
+    MonteCarloEngine test = ENGINE.withAntithetic(true).withParallel(false);
+    assertEquals(test.getPathCount(), 2 * SAMPLE_COUNT);
+    assertTrue(test.isAntithetic());
+    assertFalse(test.isParallel());
+    assertThrowsIllegalArg(() -> MonteCarloEngine.of(PseudoRandomNormalVariateGenerator.of(42L), 0));
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_price() {
+    MonteCarloResult result = ENGINE.price(IDENTITY, path -> path[0] * path[0] + path[1]);
+    assertEquals(result.getSampleCount(), SAMPLE_COUNT);
+    assertEquals(result.getValue(), 1d, 4d * result.getStandardError());
+  }
+
+  public void test_price_parallelSameAsSequential() {
+    MonteCarloResult parallel = ENGINE.price(IDENTITY, path -> Math.exp(path[0] - path[1]));
+    MonteCarloResult sequential = ENGINE.withParallel(false).price(IDENTITY, path -> Math.exp(path[0] - path[1]));
+    assertEquals(parallel, sequential);
+  }
+
+  public void test_price_sameAsResultOfSimulation() {
+    MonteCarloEngine engine = ENGINE.withAntithetic(true);
+    MonteCarloResult priced = engine.price(IDENTITY, path -> Math.max(path[0], 0d));
+    double[][] paths = engine.simulate(IDENTITY);
+    double[] values = new double[paths[0].length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = Math.max(paths[0][i], 0d);
+    }
+    MonteCarloResult simulated = engine.result(values);
+    assertEquals(simulated.getSampleCount(), SAMPLE_COUNT);
+    assertEquals(simulated.getValue(), priced.getValue(), TOL);
+    assertEquals(simulated.getStandardError(), priced.getStandardError(), TOL);
+  }
+
+  public void test_price_antithetic() {
+    // the antithetic estimate of an odd function is exact
+    MonteCarloResult result = ENGINE.withAntithetic(true).price(IDENTITY, path -> path[0] + path[1]);
+    assertEquals(result.getValue(), 0d, TOL);
+    assertEquals(result.getStandardError(), 0d, TOL);
+  }
+
+  public void test_price_sobol() {
+    MonteCarloEngine engine = MonteCarloEngine.of(SobolNormalVariateGenerator.DEFAULT, SAMPLE_COUNT);
+    MonteCarloResult result = engine.price(IDENTITY, path -> Math.exp(path[0]));
+    assertEquals(result.getValue(), Math.exp(0.5d), 0.01);
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_simulate() {
+    double[][] paths = ENGINE.withAntithetic(true).simulate(IDENTITY);
+    assertEquals(paths.length, 2);
+    assertEquals(paths[0].length, 2 * SAMPLE_COUNT);
+    for (int i = 0; i < SAMPLE_COUNT; i++) {
+      assertEquals(paths[0][2 * i + 1], -paths[0][2 * i]);
+      assertEquals(paths[1][2 * i + 1], -paths[1][2 * i]);
+    }
+  }
+
+  public void test_result_wrongSize() {
+    assertThrowsIllegalArg(() -> ENGINE.result(new double[SAMPLE_COUNT + 1]));
+  }
+
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.montecarlo;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test {@link MonteCarloResult}.
+ */
+@Test
+public class MonteCarloResultTest {
+
+  private static final double TOL = 1e-14;
+
+  public void test_of() {
+    MonteCarloResult test = MonteCarloResult.of(1.5d, 0.1d, 100);
+    assertEquals(test.getValue(), 1.5d);
+    assertEquals(test.getStandardError(), 0.1d);
+    assertEquals(test.getSampleCount(), 100);
+    assertEquals(test, MonteCarloResult.of(1.5d, 0.1d, 100));
+    assertEquals(test.hashCode(), MonteCarloResult.of(1.5d, 0.1d, 100).hashCode());
+    assertThrowsIllegalArg(() -> MonteCarloResult.of(1.5d, -0.1d, 100));
+  }
+
+  public void test_ofSamples() {
+    MonteCarloResult test = MonteCarloResult.ofSamples(new double[] {1d, 2d, 3d, 6d});
+    assertEquals(test.getValue(), 3d, TOL);
+    // sample variance 14 / 3
+    assertEquals(test.getStandardError(), Math.sqrt(14d / 3d / 4d), TOL);
+    assertEquals(test.getSampleCount(), 4);
+  }
+
+  public void test_multipliedBy() {
+    MonteCarloResult test = MonteCarloResult.of(1.5d, 0.1d, 100).multipliedBy(-2d);
+    assertEquals(test, MonteCarloResult.of(-3d, 0.2d, 100));
+  }
+
+}
@@ -7,6 +7,7 @@ package com.opengamma.strata.pricer.impl.option;
 
 import static com.opengamma.strata.product.common.PutCall.CALL;
 import static com.opengamma.strata.product.common.PutCall.PUT;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
@@ -8845,4 +8846,50 @@ public class BlackFormulaRepositoryTest {
     assertEquals(bsD2[1][2], bsD2[2][1], TOLERANCE_1, "AD Second order: 2nd - str-vol");
   }
 
+  //-------------------------------------------------------------------------
+  public void test_price_batch() {
+    int nStrikes = STRIKES_INPUT.length;
+    int nVols = VOLS.length;
+    int size = 2 * nStrikes * nVols;
+    double[] forward = new double[size];
+    double[] strike = new double[size];
+    double[] timeToExpiry = new double[size];
+    double[] vol = new double[size];
+    boolean[] isCall = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      forward[i] = FORWARD;
+      strike[i] = STRIKES_INPUT[(i / nVols) % nStrikes];
+      timeToExpiry[i] = i % 3 == 0 ? 0d : TIME_TO_EXPIRY;
+      vol[i] = VOLS[i % nVols];
+      isCall[i] = i < size / 2;
+    }
+    double[] price = new double[size];
+    double[] priceAdjoint = new double[size];
+    double[] derivatives = new double[4 * size];
+    BlackFormulaRepository.price(forward, strike, timeToExpiry, vol, isCall, price);
+    BlackFormulaRepository.priceAdjoint(forward, strike, timeToExpiry, vol, isCall, priceAdjoint, derivatives);
+    for (int i = 0; i < size; i++) {
+      assertEquals(price[i], BlackFormulaRepository.price(forward[i], strike[i], timeToExpiry[i], vol[i], isCall[i]));
+      ValueDerivatives expected =
+          BlackFormulaRepository.priceAdjoint(forward[i], strike[i], timeToExpiry[i], vol[i], isCall[i]);
+      assertEquals(priceAdjoint[i], expected.getValue());
+      for (int j = 0; j < 4; j++) {
+        assertEquals(derivatives[4 * i + j], expected.getDerivative(j));
+      }
+    }
+  }
+
+  public void test_price_batch_invalid() {
+    double[] price = new double[2];
+    assertThrowsIllegalArg(() -> BlackFormulaRepository.price(
+        new double[] {FORWARD, FORWARD}, new double[] {100d}, new double[] {1d, 1d}, new double[] {0.2, 0.2},
+        new boolean[] {true, true}, price));
+    assertThrowsIllegalArg(() -> BlackFormulaRepository.price(
+        new double[] {FORWARD, FORWARD}, new double[] {100d, 100d}, new double[] {1d, 1d}, new double[] {0.2, -0.2},
+        new boolean[] {true, true}, price));
+    assertThrowsIllegalArg(() -> BlackFormulaRepository.priceAdjoint(
+        new double[] {FORWARD, FORWARD}, new double[] {100d, 100d}, new double[] {1d, 1d}, new double[] {0.2, 0.2},
+        new boolean[] {true, true}, price, new double[4]));
+  }
+
 }
@@ -5782,4 +5782,52 @@ public class BlackScholesFormulaRepositoryTest {
         SPOT, STRIKES_INPUT[1], TIME_TO_EXPIRY, VOLS[1], INTEREST_RATES[1], NAN, true);
   }
 
+  //-------------------------------------------------------------------------
+  public void batchPriceTest() {
+    int nStrikes = STRIKES_INPUT.length;
+    int nVols = VOLS.length;
+    int nRates = INTEREST_RATES.length;
+    int size = 2 * nStrikes * nVols;
+    double[] spot = new double[size];
+    double[] strike = new double[size];
+    double[] timeToExpiry = new double[size];
+    double[] vol = new double[size];
+    double[] interestRate = new double[size];
+    double[] costOfCarry = new double[size];
+    boolean[] isCall = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      spot[i] = SPOT;
+      strike[i] = STRIKES_INPUT[(i / nVols) % nStrikes];
+      timeToExpiry[i] = i % 5 == 0 ? 0d : TIME_TO_EXPIRY;
+      vol[i] = VOLS[i % nVols];
+      interestRate[i] = INTEREST_RATES[i % nRates];
+      costOfCarry[i] = COST_OF_CARRY;
+      isCall[i] = i < size / 2;
+    }
+    double[] price = new double[size];
+    double[] delta = new double[size];
+    BlackScholesFormulaRepository.price(spot, strike, timeToExpiry, vol, interestRate, costOfCarry, isCall, price);
+    BlackScholesFormulaRepository.delta(spot, strike, timeToExpiry, vol, interestRate, costOfCarry, isCall, delta);
+    for (int i = 0; i < size; i++) {
+      assertEquals(BlackScholesFormulaRepository.price(
+          spot[i], strike[i], timeToExpiry[i], vol[i], interestRate[i], costOfCarry[i], isCall[i]), price[i], 0d);
+      assertEquals(BlackScholesFormulaRepository.delta(
+          spot[i], strike[i], timeToExpiry[i], vol[i], interestRate[i], costOfCarry[i], isCall[i]), delta[i], 0d);
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void batchPriceSizeErrorTest() {
+    BlackScholesFormulaRepository.price(new double[] {SPOT, SPOT}, new double[] {100d, 100d}, new double[] {1d},
+        new double[] {0.2, 0.2}, new double[] {0.01, 0.01}, new double[] {0d, 0d}, new boolean[] {true, true},
+        new double[2]);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void batchPriceNanErrorTest() {
+    BlackScholesFormulaRepository.price(new double[] {SPOT, SPOT}, new double[] {100d, 100d}, new double[] {1d, 1d},
+        new double[] {0.2, 0.2}, new double[] {0.01, NAN}, new double[] {0d, 0d}, new boolean[] {true, true},
+        new double[2]);
+  }
+
 }
@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.impl.option;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.strata.basics.value.ValueDerivatives;
+import com.opengamma.strata.product.common.PutCall;
+
+/**
+ * Test {@link NormalFormulaRepository}.
+ */
+@Test
+public class NormalFormulaRepositoryTest {
+
+  private static final double FORWARD = 0.02;
+  private static final double[] STRIKES = {-0.01, 0d, 0.01, 0.015, 0.02, 0.025, 0.03, 0.05};
+  private static final double[] VOLS = {0d, 0.001, 0.005, 0.01, 0.02};
+  private static final double[] EXPIRIES = {0d, 0.25, 1d, 5d};
+  private static final double NUMERAIRE = 0.95;
+
+  public void test_price_batch() {
+    int size = STRIKES.length * VOLS.length * EXPIRIES.length * 2;
+    double[] forward = new double[size];
+    double[] strike = new double[size];
+    double[] timeToExpiry = new double[size];
+    double[] vol = new double[size];
+    double[] numeraire = new double[size];
+    PutCall[] putCall = new PutCall[size];
+    for (int i = 0; i < size; i++) {
+      forward[i] = FORWARD;
+      strike[i] = STRIKES[i % STRIKES.length];
+      vol[i] = VOLS[(i / STRIKES.length) % VOLS.length];
+      timeToExpiry[i] = EXPIRIES[(i / (STRIKES.length * VOLS.length)) % EXPIRIES.length];
+      numeraire[i] = NUMERAIRE;
+      putCall[i] = i % 2 == 0 ? PutCall.CALL : PutCall.PUT;
+    }
+    double[] price = new double[size];
+    double[] priceAdjoint = new double[size];
+    double[] derivatives = new double[3 * size];
+    NormalFormulaRepository.price(forward, strike, timeToExpiry, vol, putCall, price);
+    NormalFormulaRepository.priceAdjoint(
+        forward, strike, timeToExpiry, vol, numeraire, putCall, priceAdjoint, derivatives);
+    for (int i = 0; i < size; i++) {
+      double expectedPrice = NormalFormulaRepository.price(forward[i], strike[i], timeToExpiry[i], vol[i], putCall[i]);
+      assertEquals(expectedPrice, price[i], 0d);
+      ValueDerivatives expected = NormalFormulaRepository.priceAdjoint(
+          forward[i], strike[i], timeToExpiry[i], vol[i], numeraire[i], putCall[i]);
+      assertEquals(expected.getValue(), priceAdjoint[i], 0d);
+      for (int j = 0; j < 3; j++) {
+        assertEquals(expected.getDerivative(j), derivatives[3 * i + j], 0d);
+      }
+    }
+  }
+
+  public void test_price_batch_invalid() {
+    double[] price = new double[2];
+    PutCall[] putCall = {PutCall.CALL, PutCall.PUT};
+    assertThrowsIllegalArg(() -> NormalFormulaRepository.price(
+        new double[] {FORWARD, FORWARD}, new double[] {0.01}, new double[] {1d, 1d}, new double[] {0.01, 0.01},
+        putCall, price));
+    assertThrowsIllegalArg(() -> NormalFormulaRepository.priceAdjoint(
+        new double[] {FORWARD, FORWARD}, new double[] {0.01, 0.01}, new double[] {1d, 1d}, new double[] {0.01, 0.01},
+        new double[] {1d, 1d}, putCall, price, new double[2]));
+  }
+
+}
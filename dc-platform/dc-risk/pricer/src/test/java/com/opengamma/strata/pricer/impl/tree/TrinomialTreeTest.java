@@ -82,4 +82,47 @@ public class TrinomialTreeTest {
     }
   }
 
+  /**
+   * Test the lattice buffers are reused consistently between trees of different sizes.
+   */
+  public void test_reuseBuffers() {
+    LatticeSpecification lattice = new CoxRossRubinsteinLatticeSpecification();
+    OptionFunction large = EuropeanVanillaOptionFunction.of(STRIKES[2], TIME, PutCall.CALL, 120);
+    OptionFunction small = EuropeanVanillaOptionFunction.of(STRIKES[2], TIME, PutCall.CALL, 15);
+    double priceSmall = TRINOMIAL_TREE.optionPrice(small, lattice, SPOT, VOLS[1], INTERESTS[2], DIVIDENDS[1]);
+    double priceLarge = TRINOMIAL_TREE.optionPrice(large, lattice, SPOT, VOLS[1], INTERESTS[2], DIVIDENDS[1]);
+    assertEquals(TRINOMIAL_TREE.optionPrice(small, lattice, SPOT, VOLS[1], INTERESTS[2], DIVIDENDS[1]), priceSmall);
+    assertEquals(TRINOMIAL_TREE.optionPrice(large, lattice, SPOT, VOLS[1], INTERESTS[2], DIVIDENDS[1]), priceLarge);
+  }
+
+  /**
+   * Test an option function implementing only the array-based methods.
+   */
+  public void test_defaultRollBack() {
+    int nSteps = 40;
+    LatticeSpecification lattice = new TrigeorgisLatticeSpecification();
+    EuropeanVanillaOptionFunction vanilla = EuropeanVanillaOptionFunction.of(STRIKES[1], TIME, PutCall.PUT, nSteps);
+    OptionFunction function = new OptionFunction() {
+      @Override
+      public double getTimeToExpiry() {
+        return vanilla.getTimeToExpiry();
+      }
+
+      @Override
+      public int getNumberOfSteps() {
+        return vanilla.getNumberOfSteps();
+      }
+
+      @Override
+      public DoubleArray getPayoffAtExpiryTrinomial(DoubleArray stateValue) {
+        return vanilla.getPayoffAtExpiryTrinomial(stateValue);
+      }
+    };
+    for (double vol : VOLS) {
+      double expected = TRINOMIAL_TREE.optionPrice(vanilla, lattice, SPOT, vol, INTERESTS[2], DIVIDENDS[1]);
+      double computed = TRINOMIAL_TREE.optionPrice(function, lattice, SPOT, vol, INTERESTS[2], DIVIDENDS[1]);
+      assertEquals(computed, expected, 1.0e-12);
+    }
+  }
+
 }
@@ -21,10 +21,12 @@ import java.util.Optional;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableMap;
 import com.opengamma.strata.basics.ReferenceData;
 import com.opengamma.strata.basics.index.OvernightIndexObservation;
 import com.opengamma.strata.collect.array.DoubleArray;
 import com.opengamma.strata.collect.timeseries.LocalDateDoubleTimeSeries;
+import com.opengamma.strata.data.MarketDataName;
 import com.opengamma.strata.market.curve.CurveMetadata;
 import com.opengamma.strata.market.curve.CurveName;
 import com.opengamma.strata.market.curve.Curves;
@@ -68,6 +70,7 @@ public class DiscountOvernightIndexRatesTest {
 
   private static final double RATE_BEFORE = 0.013d;
   private static final double RATE_VAL = 0.014d;
+  private static final double TOLERANCE = 1.0e-12;
   private static final LocalDateDoubleTimeSeries SERIES = LocalDateDoubleTimeSeries.builder()
       .put(DATE_BEFORE, RATE_BEFORE)
       .put(DATE_VAL, RATE_VAL)
@@ -220,6 +223,19 @@ public class DiscountOvernightIndexRatesTest {
     assertEquals(test.parameterSensitivity(point).size(), 1);
   }
 
+  public void test_parameterSensitivity_array() {
+    DiscountOvernightIndexRates test = DiscountOvernightIndexRates.of(GBP_SONIA, DFCURVE, SERIES);
+    OvernightRateSensitivity point = OvernightRateSensitivity.ofPeriod(GBP_SONIA_AFTER, DATE_AFTER_END, GBP, 2d);
+    DoubleArray expected = test.parameterSensitivity(point).getSensitivities().get(0).getSensitivity();
+    double[] array = new double[expected.size() + 2];
+    test.parameterSensitivity(point, ImmutableMap.<MarketDataName<?>, Integer>of(NAME, 1), array);
+    assertEquals(array[0], 0d);
+    assertEquals(array[array.length - 1], 0d);
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(array[i + 1], expected.get(i), TOLERANCE);
+    }
+  }
+
   //-------------------------------------------------------------------------
   public void test_createParameterSensitivity() {
     DiscountOvernightIndexRates test = DiscountOvernightIndexRates.of(GBP_SONIA, DFCURVE, SERIES);
@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.pricer.rate;
+
+import static com.opengamma.strata.basics.currency.Currency.GBP;
+import static com.opengamma.strata.basics.currency.Currency.USD;
+import static com.opengamma.strata.basics.date.Tenor.TENOR_10Y;
+import static com.opengamma.strata.basics.index.IborIndices.USD_LIBOR_3M;
+import static com.opengamma.strata.basics.index.OvernightIndices.USD_FED_FUND;
+import static com.opengamma.strata.product.common.BuySell.BUY;
+import static com.opengamma.strata.product.swap.type.FixedIborSwapConventions.USD_FIXED_6M_LIBOR_3M;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.currency.CurrencyPair;
+import com.opengamma.strata.basics.index.IborIndexObservation;
+import com.opengamma.strata.collect.Guavate;
+import com.opengamma.strata.market.param.CurrencyParameterSensitivities;
+import com.opengamma.strata.pricer.DiscountFactors;
+import com.opengamma.strata.pricer.datasets.RatesProviderDataSets;
+import com.opengamma.strata.pricer.swap.DiscountingSwapProductPricer;
+import com.opengamma.strata.product.swap.ResolvedSwap;
+import com.opengamma.strata.product.swap.type.FixedIborSwapTemplate;
+
+/**
+ * Test {@link MemoizingRatesProvider}.
+ */
+@Test
+public class MemoizingRatesProviderTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final ImmutableRatesProvider RATES_USD = RatesProviderDataSets.MULTI_USD;
+  private static final ImmutableRatesProvider RATES_GBP_USD = RatesProviderDataSets.MULTI_GBP_USD;
+  private static final LocalDate VAL_DATE = RATES_USD.getValuationDate();
+  private static final List<LocalDate> DATES = IntStream.range(0, 500)
+      .mapToObj(i -> VAL_DATE.minusDays(10).plusDays(7 * i))
+      .collect(Guavate.toImmutableList());
+  private static final ResolvedSwap SWAP = FixedIborSwapTemplate
+      .of(Period.ZERO, TENOR_10Y, USD_FIXED_6M_LIBOR_3M)
+      .createTrade(VAL_DATE, BUY, 100_000_000, 0.015, REF_DATA)
+      .getProduct()
+      .resolve(REF_DATA);
+  private static final DiscountingSwapProductPricer SWAP_PRICER = DiscountingSwapProductPricer.DEFAULT;
+
+  //-------------------------------------------------------------------------
+  public void test_of() {
+    MemoizingRatesProvider test = RATES_USD.memoized();
+    assertEquals(test.getValuationDate(), VAL_DATE);
+    assertSame(test.toImmutableRatesProvider(), RATES_USD);
+    assertEquals(test.getDiscountCurrencies(), RATES_USD.getDiscountCurrencies());
+    assertEquals(test.getIborIndices(), RATES_USD.getIborIndices());
+    assertEquals(test.getOvernightIndices(), RATES_USD.getOvernightIndices());
+    assertEquals(test.getPriceIndices(), RATES_USD.getPriceIndices());
+    assertEquals(test.timeSeries(USD_LIBOR_3M), RATES_USD.timeSeries(USD_LIBOR_3M));
+    assertSame(test.discountFactors(USD), test.discountFactors(USD));
+    assertSame(test.iborIndexRates(USD_LIBOR_3M), test.iborIndexRates(USD_LIBOR_3M));
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_discountFactors() {
+    DiscountFactors expected = RATES_USD.discountFactors(USD);
+    DiscountFactors test = RATES_USD.memoized().discountFactors(USD);
+    assertEquals(test.getCurrency(), USD);
+    assertEquals(test.getParameterCount(), expected.getParameterCount());
+    for (int loop = 0; loop < 2; loop++) {
+      for (LocalDate date : DATES) {
+        assertEquals(test.discountFactor(date), expected.discountFactor(date), 0d);
+        assertEquals(test.relativeYearFraction(date), expected.relativeYearFraction(date), 0d);
+        assertEquals(test.zeroRatePointSensitivity(date), expected.zeroRatePointSensitivity(date));
+      }
+    }
+  }
+
+  public void test_memo() {
+    LocalDateDoubleMemo test = new LocalDateDoubleMemo();
+    for (LocalDate date : DATES) {
+      assertEquals(test.computeIfAbsent(date, d -> d.getDayOfYear()), date.getDayOfYear(), 0d);
+    }
+    for (LocalDate date : DATES) {
+      assertEquals(test.computeIfAbsent(date, d -> -1d), date.getDayOfYear(), 0d);
+    }
+    assertEquals(test.size(), DATES.size());
+  }
+
+  public void test_discountFactors_parallel() {
+    DiscountFactors expected = RATES_USD.discountFactors(USD);
+    DiscountFactors test = RATES_USD.memoized().discountFactors(USD);
+    for (int loop = 0; loop < 4; loop++) {
+      assertTrue(DATES.parallelStream().allMatch(date -> test.discountFactor(date) == expected.discountFactor(date)));
+    }
+  }
+
+  public void test_discountFactors_perturbation() {
+    DiscountFactors base = RATES_USD.memoized().discountFactors(USD);
+    DiscountFactors test = base.withPerturbation((i, value, meta) -> value + 0.0001);
+    DiscountFactors expected = RATES_USD.discountFactors(USD).withPerturbation((i, value, meta) -> value + 0.0001);
+    for (LocalDate date : DATES) {
+      base.discountFactor(date);
+      assertEquals(test.discountFactor(date), expected.discountFactor(date), 0d);
+    }
+    assertEquals(test.withParameter(0, 0.02).discountFactor(DATES.get(100)),
+        expected.withParameter(0, 0.02).discountFactor(DATES.get(100)), 0d);
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_indexRates() {
+    MemoizingRatesProvider test = RATES_USD.memoized();
+    for (LocalDate date : DATES) {
+      if (!date.isBefore(VAL_DATE) && USD_LIBOR_3M.getFixingCalendar().resolve(REF_DATA).isBusinessDay(date)) {
+        IborIndexObservation obs = IborIndexObservation.of(USD_LIBOR_3M, date, REF_DATA);
+        assertEquals(test.iborIndexRates(USD_LIBOR_3M).rate(obs), RATES_USD.iborIndexRates(USD_LIBOR_3M).rate(obs), 0d);
+      }
+    }
+    assertEquals(
+        test.overnightIndexRates(USD_FED_FUND).getValuationDate(),
+        RATES_USD.overnightIndexRates(USD_FED_FUND).getValuationDate());
+  }
+
+  public void test_fxForwardRates() {
+    MemoizingRatesProvider test = RATES_GBP_USD.memoized();
+    CurrencyPair pair = CurrencyPair.of(GBP, USD);
+    for (LocalDate date : DATES.subList(2, 100)) {
+      assertEquals(test.fxForwardRates(pair).rate(GBP, date), RATES_GBP_USD.fxForwardRates(pair).rate(GBP, date), 0d);
+    }
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_swap() {
+    MemoizingRatesProvider test = RATES_USD.memoized();
+    for (int loop = 0; loop < 2; loop++) {
+      assertEquals(SWAP_PRICER.presentValue(SWAP, test), SWAP_PRICER.presentValue(SWAP, RATES_USD));
+      assertEquals(SWAP_PRICER.parRate(SWAP, test), SWAP_PRICER.parRate(SWAP, RATES_USD), 0d);
+      CurrencyParameterSensitivities expected = RATES_USD.parameterSensitivity(
+          SWAP_PRICER.presentValueSensitivity(SWAP, RATES_USD).build());
+      CurrencyParameterSensitivities computed = test.parameterSensitivity(
+          SWAP_PRICER.presentValueSensitivity(SWAP, test).build());
+      assertEquals(computed, expected);
+    }
+    CurrencyAmount pv = SWAP_PRICER.presentValue(SWAP, USD, test);
+    assertEquals(pv, SWAP_PRICER.presentValue(SWAP, USD, RATES_USD));
+  }
+
+}
@@ -19,6 +19,7 @@ import static com.opengamma.strata.pricer.swaption.SwaptionCubeData.MONEYNESS;
 import static com.opengamma.strata.pricer.swaption.SwaptionCubeData.TENORS_SIMPLE;
 import static com.opengamma.strata.product.swap.type.FixedIborSwapConventions.EUR_FIXED_1Y_EURIBOR_6M;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 import java.time.LocalDate;
@@ -309,4 +310,95 @@ public class SabrSwaptionCalibratorCubeNormalSimpleDataTest {
     }
   }
 
+  //-------------------------------------------------------------------------
+  @Test
+  public void normal_cube_parallel() {
+    Surface betaSurface = betaSurface(0.50);
+    Surface shiftSurface = shiftSurface(0.0300);
+    SabrSwaptionCalibrationResult result = SABR_CALIBRATION.calibrateWithFixedBetaAndShiftInParallel(
+        DEFINITION, CALIBRATION_TIME, DATA_SIMPLE, MULTICURVE, betaSurface, shiftSurface, true);
+    assertCalibrated(result.getVolatilities(), 0.0300);
+    List<SabrSwaptionNodeCalibration> nodes = result.getNodes();
+    assertEquals(nodes.size(), result.getVolatilities().getParameters().getAlphaSurface().getParameterCount());
+    Tenor previousTenor = null;
+    for (SabrSwaptionNodeCalibration node : nodes) {
+      assertTrue(node.isCalibrated());
+      assertTrue(node.getConvergedFitCount() > 0);
+      if (!node.getTenor().equals(previousTenor)) { // first expiry of a tenor is calibrated from the standard starts
+        assertFalse(node.isWarmStarted());
+        assertEquals(node.getFitCount(), 4);
+      }
+      if (node.isWarmStarted() && node.getFitCount() == 1) { // accepted without the standard starts
+        int nbStrikes = DATA_SIMPLE.getData(node.getTenor()).availableSmileAtExpiry(node.getExpiry()).getFirst().size();
+        assertTrue(node.getChiSquare() <= SabrSwaptionCalibrator.WARM_START_CHI_SQUARE_PER_STRIKE * nbStrikes);
+      } else if (node.isWarmStarted()) { // warm start kept as the best of all the fits
+        assertEquals(node.getFitCount(), 5);
+      }
+      previousTenor = node.getTenor();
+    }
+    assertTrue(result.getFitCount() < 4 * nodes.size());
+  }
+
+  @Test
+  public void normal_cube_parallel_startVolatilities() {
+    Surface betaSurface = betaSurface(0.50);
+    Surface shiftSurface = shiftSurface(0.0300);
+    SabrParametersSwaptionVolatilities calibrated = SABR_CALIBRATION.calibrateWithFixedBetaAndShift(
+        DEFINITION, CALIBRATION_TIME, DATA_SIMPLE, MULTICURVE, betaSurface, shiftSurface);
+    SabrSwaptionCalibrationResult result = SABR_CALIBRATION.calibrateWithFixedBetaAndShiftInParallel(
+        DEFINITION, CALIBRATION_TIME, DATA_SIMPLE, MULTICURVE, betaSurface, shiftSurface, true, calibrated);
+    assertCalibrated(result.getVolatilities(), 0.0300);
+    for (SabrSwaptionNodeCalibration node : result.getNodes()) {
+      assertTrue(node.isCalibrated());
+      assertTrue(node.isWarmStarted());
+      assertEquals(node.getFitCount(), 1);
+      assertEquals(node.getConvergedFitCount(), 1);
+    }
+    assertEquals(result.getFitCount(), result.getNodes().size());
+    assertEquals(
+        result.getVolatilities().getParameters().getAlphaSurface().getParameterCount(),
+        calibrated.getParameters().getAlphaSurface().getParameterCount());
+  }
+
+  // checks the calibrated prices against the data
+  private void assertCalibrated(SabrParametersSwaptionVolatilities calibrated, double shift) {
+    for (int looptenor = 0; looptenor < TENORS_SIMPLE.size(); looptenor++) {
+      double tenor = TENORS_SIMPLE.get(looptenor).get(ChronoUnit.YEARS);
+      for (int loopexpiry = 0; loopexpiry < EXPIRIES_SIMPLE.size(); loopexpiry++) {
+        LocalDate expiry = EUR_FIXED_1Y_EURIBOR_6M.getFloatingLeg().getStartDateBusinessDayAdjustment()
+            .adjust(CALIBRATION_DATE.plus(EXPIRIES_SIMPLE.get(loopexpiry)), REF_DATA);
+        LocalDate effectiveDate = EUR_FIXED_1Y_EURIBOR_6M.calculateSpotDateFromTradeDate(expiry, REF_DATA);
+        LocalDate endDate = effectiveDate.plus(TENORS_SIMPLE.get(looptenor));
+        SwapTrade swap = EUR_FIXED_1Y_EURIBOR_6M
+            .toTrade(CALIBRATION_DATE, effectiveDate, endDate, BuySell.BUY, 1.0, 0.0);
+        double parRate = SWAP_PRICER.parRate(swap.resolve(REF_DATA).getProduct(), MULTICURVE);
+        ZonedDateTime expiryDateTime = expiry.atTime(11, 0).atZone(ZoneId.of("Europe/Berlin"));
+        double time = calibrated.relativeTime(expiryDateTime);
+        for (int loopmoney = 0; loopmoney < MONEYNESS.size(); loopmoney++) {
+          if (!Double.isNaN(DATA_ARRAY_SPARSE[looptenor][loopexpiry][loopmoney])) {
+            double strike = parRate + MONEYNESS.get(loopmoney);
+            double volBlack = calibrated.volatility(expiryDateTime, tenor, strike, parRate);
+            double priceComputed = BlackFormulaRepository.price(parRate + shift, strike + shift, time, volBlack, true);
+            double priceNormal = NormalFormulaRepository.price(parRate, strike,
+                time, DATA_ARRAY_SPARSE[looptenor][loopexpiry][loopmoney], PutCall.CALL);
+            assertEquals(priceComputed, priceNormal, TOLERANCE_PRICE_CALIBRATION_LS);
+          }
+        }
+      }
+    }
+  }
+
+  private static Surface betaSurface(double beta) {
+    return ConstantSurface.of("Beta", beta)
+        .withMetadata(DefaultSurfaceMetadata.builder()
+            .xValueType(ValueType.YEAR_FRACTION).yValueType(ValueType.YEAR_FRACTION)
+            .zValueType(ValueType.SABR_BETA).surfaceName("Beta").build());
+  }
+
+  private static Surface shiftSurface(double shift) {
+    return ConstantSurface.of("Shift", shift)
+        .withMetadata(DefaultSurfaceMetadata.builder()
+            .xValueType(ValueType.YEAR_FRACTION).yValueType(ValueType.YEAR_FRACTION).surfaceName("Shift").build());
+  }
+
 }
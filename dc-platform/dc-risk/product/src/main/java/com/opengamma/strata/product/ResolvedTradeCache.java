@@ -0,0 +1,276 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.product;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+import org.joda.beans.Bean;
+import org.joda.beans.MetaProperty;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.MapMaker;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * A bounded, concurrent cache of resolved trades.
+ * <p>
+ * Resolving a trade, such as generating the schedules and payment periods of a swap, is repeated for every
+ * calculation even when neither the trade nor the reference data has changed. This cache holds the resolved
+ * form of each trade, keyed by the trade and the generation of the reference data it was resolved with.
+ * <p>
+ * The trade is identified either by its identifier and a version supplied by the caller, such as
+ * the version of the trade in a trade store, or by the trade itself, using its equality.
+ * The two are separate, a trade resolved by version is not found by equality, nor the reverse.
+ * Reference data is immutable, so each distinct instance is given a new generation, and a trade resolved
+ * with one instance is never returned for another. The resolved form is bound to the reference data,
+ * as described in {@link ResolvableTrade#resolve(ReferenceData)}, so this is what makes caching safe.
+ * Callers should share a reference data instance between runs to benefit from the cache.
+ * <p>
+ * The cache is bounded by total weight, evicting the least recently used trades when the bound is reached.
+ * By default, the weight of a resolved trade is the number of beans and collection elements it holds,
+ * so that a swap with a long schedule weighs more than a simple trade.
+ * <p>
+ * This class is thread-safe, and is intended to be shared by every component resolving trades.
+ */
+public final class ResolvedTradeCache {
+
+  /**
+   * The cache of resolved trades.
+   */
+  private final Cache<Key, ResolvedTrade> cache;
+  /**
+   * The generation of each reference data instance, held weakly and compared by identity.
+   */
+  private final Map<ReferenceData, Long> generations = new MapMaker().weakKeys().makeMap();
+  /**
+   * The last generation assigned.
+   */
+  private final AtomicLong lastGeneration = new AtomicLong();
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains a cache bounded by the total weight of the resolved trades.
+   * <p>
+   * The weight of a resolved trade is the number of beans and collection elements it holds.
+   *
+   * @param maximumWeight  the maximum total weight
+   * @return the cache
+   */
+  public static ResolvedTradeCache ofMaximumWeight(long maximumWeight) {
+    return new ResolvedTradeCache(maximumWeight, ResolvedTradeCache::weigh);
+  }
+
+  /**
+   * Obtains a cache bounded by the total weight of the resolved trades, as determined by the weigher.
+   *
+   * @param maximumWeight  the maximum total weight
+   * @param weigher  the function providing the weight of a resolved trade
+   * @return the cache
+   */
+  public static ResolvedTradeCache ofMaximumWeight(long maximumWeight, ToIntFunction<ResolvedTrade> weigher) {
+    return new ResolvedTradeCache(maximumWeight, weigher);
+  }
+
+  // restricted constructor
+  private ResolvedTradeCache(long maximumWeight, ToIntFunction<ResolvedTrade> weigher) {
+    ArgChecker.notNegative(maximumWeight, "maximumWeight");
+    ArgChecker.notNull(weigher, "weigher");
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(maximumWeight)
+        .weigher((Key key, ResolvedTrade resolved) -> weigher.applyAsInt(resolved))
+        .build();
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Resolves the trade, using the cached resolved form of the same version of the trade if available.
+   * <p>
+   * The trade is identified by the identifier and version, which is much less work than comparing it
+   * with the trade cached. A trade must have a new version whenever it changes.
+   *
+   * @param <R>  the type of the resolved trade
+   * @param tradeId  the identifier of the trade
+   * @param version  the version of the trade
+   * @param trade  the trade
+   * @param refData  the reference data to use when resolving
+   * @return the resolved trade
+   * @throws RuntimeException if unable to resolve the trade
+   */
+  public <R extends ResolvedTrade> R resolve(
+      StandardId tradeId,
+      long version,
+      ResolvableTrade<R> trade,
+      ReferenceData refData) {
+
+    ArgChecker.notNull(tradeId, "tradeId");
+    return resolve(Key.ofVersion(trade.getClass(), tradeId, version, generation(refData)), trade, refData);
+  }
+
+  /**
+   * Resolves the trade, using the cached resolved form of an equal trade if available.
+   * <p>
+   * The trade is identified by its equality, so it need not have a version.
+   * The hash code is that of the trade identifier, if present, so finding the trade does not visit
+   * the whole trade. Only a cached trade with the same identifier is compared with it, which is
+   * immediate when it is the same instance.
+   *
+   * @param <R>  the type of the resolved trade
+   * @param trade  the trade
+   * @param refData  the reference data to use when resolving
+   * @return the resolved trade
+   * @throws RuntimeException if unable to resolve the trade
+   */
+  public <R extends ResolvedTrade> R resolve(ResolvableTrade<R> trade, ReferenceData refData) {
+    return resolve(Key.ofTrade(trade, generation(refData)), trade, refData);
+  }
+
+  // finds or resolves the trade
+  @SuppressWarnings("unchecked")
+  private <R extends ResolvedTrade> R resolve(Key key, ResolvableTrade<R> trade, ReferenceData refData) {
+    try {
+      // the key includes the type of the trade, which determines the type of the resolved trade
+      return (R) cache.get(key, () -> trade.resolve(refData));
+    } catch (ExecutionException | UncheckedExecutionException | ExecutionError ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  // the generation of the reference data
+  private long generation(ReferenceData refData) {
+    ArgChecker.notNull(refData, "refData");
+    return generations.computeIfAbsent(refData, data -> lastGeneration.incrementAndGet());
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the approximate number of resolved trades in the cache.
+   *
+   * @return the number of resolved trades
+   */
+  public long size() {
+    return cache.size();
+  }
+
+  /**
+   * Discards all the resolved trades.
+   */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * Estimates the weight of a resolved trade, the number of beans and collection elements it holds.
+   *
+   * @param resolved  the resolved trade
+   * @return the weight, at least one
+   */
+  static int weigh(ResolvedTrade resolved) {
+    return Math.max(1, weigh((Object) resolved));
+  }
+
+  // the number of beans and collection elements held by the object, saturating on overflow
+  private static int weigh(Object obj) {
+    if (obj instanceof Bean) {
+      Bean bean = (Bean) obj;
+      int weight = 1;
+      for (MetaProperty<?> property : bean.metaBean().metaPropertyIterable()) {
+        weight = saturatedAdd(weight, weigh(property.get(bean)));
+      }
+      return weight;
+    }
+    if (obj instanceof Collection) {
+      int weight = 0;
+      for (Object element : (Collection<?>) obj) {
+        weight = saturatedAdd(weight, Math.max(1, weigh(element)));
+      }
+      return weight;
+    }
+    return 0;
+  }
+
+  // adds the weights, limited to the maximum weight
+  private static int saturatedAdd(int a, int b) {
+    long sum = (long) a + b;
+    return sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) sum;
+  }
+
+  @Override
+  public String toString() {
+    return "ResolvedTradeCache[size=" + cache.size() + "]";
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The key of a resolved trade, either the trade identifier and version, or the trade itself.
+   */
+  private static final class Key {
+    private final Class<?> tradeType;
+    private final Object trade;
+    private final long version;
+    private final long generation;
+    private final int hashCode;
+
+    // the key of a version of a trade
+    private static Key ofVersion(Class<?> tradeType, StandardId tradeId, long version, long generation) {
+      return new Key(tradeType, tradeId, version, generation, Objects.hash(tradeType, tradeId, version, generation));
+    }
+
+    // the key of a trade by equality, hashed by its identifier if present, as the hash of a trade visits all of it
+    private static Key ofTrade(Trade trade, long generation) {
+      Optional<StandardId> tradeId = trade.getInfo().getId();
+      Object hashed = tradeId.isPresent() ? tradeId.get() : trade;
+      return new Key(trade.getClass(), trade, -1, generation, Objects.hash(trade.getClass(), hashed, generation));
+    }
+
+    private Key(Class<?> tradeType, Object trade, long version, long generation, int hashCode) {
+      this.tradeType = tradeType;
+      this.trade = trade;
+      this.version = version;
+      this.generation = generation;
+      this.hashCode = hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (obj instanceof Key) {
+        Key other = (Key) obj;
+        return hashCode == other.hashCode &&
+            tradeType == other.tradeType &&
+            version == other.version &&
+            generation == other.generation &&
+            trade.equals(other.trade);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+}
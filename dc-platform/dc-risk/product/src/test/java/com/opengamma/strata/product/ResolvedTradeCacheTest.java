@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.product;
+
+import static com.opengamma.strata.basics.currency.Currency.GBP;
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.date.AdjustableDate;
+import com.opengamma.strata.product.common.PayReceive;
+import com.opengamma.strata.product.payment.BulletPayment;
+import com.opengamma.strata.product.payment.BulletPaymentTrade;
+import com.opengamma.strata.product.payment.ResolvedBulletPaymentTrade;
+
+/**
+ * Test {@link ResolvedTradeCache}.
+ */
+@Test
+public class ResolvedTradeCacheTest {
+
+  private static final ReferenceData REF_DATA = ReferenceData.standard();
+  private static final StandardId TRADE_ID = StandardId.of("OG-Trade", "1");
+  private static final TradeInfo TRADE_INFO = TradeInfo.builder().id(TRADE_ID).tradeDate(date(2014, 6, 30)).build();
+  private static final BulletPayment PRODUCT1 = BulletPayment.builder()
+      .payReceive(PayReceive.PAY)
+      .value(CurrencyAmount.of(GBP, 1_000))
+      .date(AdjustableDate.of(date(2015, 6, 30)))
+      .build();
+  private static final BulletPayment PRODUCT2 = BulletPayment.builder()
+      .payReceive(PayReceive.RECEIVE)
+      .value(CurrencyAmount.of(GBP, 2_000))
+      .date(AdjustableDate.of(date(2015, 6, 30)))
+      .build();
+  private static final BulletPaymentTrade TRADE1 = BulletPaymentTrade.of(TRADE_INFO, PRODUCT1);
+  private static final BulletPaymentTrade TRADE2 = BulletPaymentTrade.of(TRADE_INFO, PRODUCT2);
+
+  //-------------------------------------------------------------------------
+  public void test_resolve_byEquality() {
+    ResolvedTradeCache test = ResolvedTradeCache.ofMaximumWeight(1_000);
+    ResolvedBulletPaymentTrade resolved = test.resolve(TRADE1, REF_DATA);
+    assertEquals(resolved, TRADE1.resolve(REF_DATA));
+    assertSame(test.resolve(TRADE1, REF_DATA), resolved);
+    assertSame(test.resolve(BulletPaymentTrade.of(TRADE_INFO, PRODUCT1), REF_DATA), resolved);
+    assertEquals(test.resolve(TRADE2, REF_DATA), TRADE2.resolve(REF_DATA));
+    assertEquals(test.size(), 2);
+  }
+
+  public void test_resolve_byEquality_noIdentifier() {
+    ResolvedTradeCache test = ResolvedTradeCache.ofMaximumWeight(1_000);
+    TradeInfo info = TradeInfo.builder().tradeDate(date(2014, 6, 30)).build();
+    BulletPaymentTrade trade1 = BulletPaymentTrade.of(info, PRODUCT1);
+    BulletPaymentTrade trade2 = BulletPaymentTrade.of(info, PRODUCT2);
+    ResolvedBulletPaymentTrade resolved = test.resolve(trade1, REF_DATA);
+    assertSame(test.resolve(BulletPaymentTrade.of(info, PRODUCT1), REF_DATA), resolved);
+    assertEquals(test.resolve(trade2, REF_DATA), trade2.resolve(REF_DATA));
+    assertEquals(test.size(), 2);
+  }
+
+  public void test_resolve_byVersion() {
+    ResolvedTradeCache test = ResolvedTradeCache.ofMaximumWeight(1_000);
+    ResolvedBulletPaymentTrade resolved = test.resolve(TRADE_ID, 1, TRADE1, REF_DATA);
+    assertEquals(resolved, TRADE1.resolve(REF_DATA));
+    assertSame(test.resolve(TRADE_ID, 1, TRADE1, REF_DATA), resolved);
+    // the version identifies the trade, so the terms are not compared
+    assertSame(test.resolve(TRADE_ID, 1, TRADE2, REF_DATA), resolved);
+    assertEquals(test.resolve(TRADE_ID, 2, TRADE2, REF_DATA), TRADE2.resolve(REF_DATA));
+    assertEquals(test.size(), 2);
+  }
+
+  public void test_resolve_byVersionSeparateFromEquality() {
+    ResolvedTradeCache test = ResolvedTradeCache.ofMaximumWeight(1_000);
+    ResolvedBulletPaymentTrade resolved = test.resolve(TRADE_ID, 1, TRADE1, REF_DATA);
+    assertNotSame(test.resolve(TRADE1, REF_DATA), resolved);
+    assertEquals(test.size(), 2);
+  }
+
+  public void test_resolve_newReferenceData() {
+    ResolvedTradeCache test = ResolvedTradeCache.ofMaximumWeight(1_000);
+    ReferenceData refData2 = REF_DATA.combinedWith(ReferenceData.empty());
+    ResolvedBulletPaymentTrade resolved = test.resolve(TRADE1, REF_DATA);
+    ResolvedBulletPaymentTrade resolved2 = test.resolve(TRADE1, refData2);
+    assertNotSame(resolved2, resolved);
+    assertEquals(resolved2, resolved);
+    assertSame(test.resolve(TRADE1, refData2), resolved2);
+    assertSame(test.resolve(TRADE1, REF_DATA), resolved);
+    assertEquals(test.size(), 2);
+  }
+
+  public void test_resolve_nullReferenceData() {
+    ResolvedTradeCache test = ResolvedTradeCache.ofMaximumWeight(1_000);
+    assertThrowsIllegalArg(() -> test.resolve(TRADE1, null));
+    assertEquals(test.size(), 0);
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_eviction() {
+    ResolvedTradeCache test = ResolvedTradeCache.ofMaximumWeight(2, resolved -> 1);
+    ResolvedBulletPaymentTrade resolved = test.resolve(TRADE_ID, 0, TRADE1, REF_DATA);
+    for (int i = 1; i < 10; i++) {
+      test.resolve(TRADE_ID, i, TRADE1, REF_DATA);
+    }
+    assertTrue(test.size() <= 2);
+    assertNotSame(test.resolve(TRADE_ID, 0, TRADE1, REF_DATA), resolved);
+    test.invalidateAll();
+    assertEquals(test.size(), 0);
+  }
+
+  public void test_weigh() {
+    int weight1 = ResolvedTradeCache.weigh(TRADE1.resolve(REF_DATA));
+    assertTrue(weight1 > 1);
+    ResolvedTradeCache test = ResolvedTradeCache.ofMaximumWeight(weight1);
+    test.resolve(TRADE1, REF_DATA);
+    assertEquals(test.size(), 1);
+    test.resolve(TRADE2, REF_DATA);
+    assertEquals(test.size(), 1);
+  }
+
+  public void test_ofMaximumWeight_negative() {
+    assertThrowsIllegalArg(() -> ResolvedTradeCache.ofMaximumWeight(-1));
+  }
+
+}
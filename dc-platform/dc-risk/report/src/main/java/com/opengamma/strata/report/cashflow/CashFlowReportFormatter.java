@@ -42,4 +42,17 @@ public class CashFlowReportFormatter
     return formatValue(value, format);
   }
 
+  /**
+   * Formats a value of a cash flow report for display.
+   * <p>
+   * This is used when the rows of a report are written as they are produced.
+   *
+   * @param value  the value, possibly an empty optional
+   * @param format  the report output format
+   * @return the formatted value
+   */
+  String formatCell(Object value, ReportOutputFormat format) {
+    return formatValue(value, format);
+  }
+
 }
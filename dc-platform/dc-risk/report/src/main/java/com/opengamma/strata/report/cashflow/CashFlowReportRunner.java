@@ -31,6 +31,7 @@ import com.opengamma.strata.report.Report;
 import com.opengamma.strata.report.ReportCalculationResults;
 import com.opengamma.strata.report.ReportRequirements;
 import com.opengamma.strata.report.ReportRunner;
+import com.opengamma.strata.report.framework.format.ReportRowWriter;
 
 /**
  * Report runner for cash flow reports.
@@ -105,7 +106,38 @@ public class CashFlowReportRunner
 
   @Override
   public Report runReport(ReportCalculationResults calculationResults, CashFlowReportTemplate reportTemplate) {
+    ExplainMap explainMap = explainMap(calculationResults);
+    return runReport(explainMap, calculationResults.getValuationDate());
+  }
+
+  /**
+   * Writes the rows of the cash flow report as they are produced, without building the report in memory.
+   * <p>
+   * The rows and columns are the same as those of the report returned by {@link #runReport}.
+   * Each value is formatted in the output format of the writer and passed to it, then the writer is finished.
+   *
+   * @param calculationResults  the results of the calculations
+   * @param reportTemplate  the report template
+   * @param writer  the writer of the report rows
+   */
+  public void writeReport(
+      ReportCalculationResults calculationResults,
+      CashFlowReportTemplate reportTemplate,
+      ReportRowWriter writer) {
 
+    List<ExplainMap> flatMap = flatten(explainMap(calculationResults));
+    List<ExplainKey<?>> keys = getKeys(flatMap);
+    writer.writeHeaders(keys.stream().map(this::mapHeader).collect(toImmutableList()));
+    for (ExplainMap rowMap : flatMap) {
+      writer.writeRow(keys.stream()
+          .map(key -> CashFlowReportFormatter.INSTANCE.formatCell(rowMap.get(key), writer.getOutputFormat()))
+          .collect(toImmutableList()));
+    }
+    writer.finish();
+  }
+
+  // extracts the explanation of the present value of the single trade
+  private ExplainMap explainMap(ReportCalculationResults calculationResults) {
     int tradeCount = calculationResults.getCalculationResults().getRowCount();
     if (tradeCount == 0) {
       throw new IllegalArgumentException("Calculation results is empty");
@@ -129,9 +161,7 @@ public class CashFlowReportRunner
           Messages.format("Failure result found for required measure '{}': {}",
               Measures.EXPLAIN_PRESENT_VALUE, result.getFailure().getMessage()));
     }
-    ExplainMap explainMap = (ExplainMap) result.getValue();
-
-    return runReport(explainMap, calculationResults.getValuationDate());
+    return (ExplainMap) result.getValue();
   }
 
   private Report runReport(ExplainMap explainMap, LocalDate valuationDate) {
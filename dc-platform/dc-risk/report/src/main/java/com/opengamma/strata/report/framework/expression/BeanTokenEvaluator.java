@@ -5,13 +5,21 @@
  */
 package com.opengamma.strata.report.framework.expression;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.joda.beans.Bean;
+import org.joda.beans.ImmutableBean;
+import org.joda.beans.MetaBean;
+import org.joda.beans.MetaProperty;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.opengamma.strata.calc.runner.CalculationFunctions;
@@ -38,9 +46,17 @@ import com.opengamma.strata.market.amount.LegAmounts;
  * the remaining tokens do not include the property token. If the token doesn't match the property, the property value
  * is returned but the token isn't consumed. i.e. the remaining tokens returned from {@link #evaluate} include
  * the first token.
+ * <p>
+ * The properties of immutable beans are fixed by their meta-bean, so the meta-property matching each
+ * token is looked up once per meta-bean and cached, avoiding a search of the property names for each value.
  */
 public class BeanTokenEvaluator extends TokenEvaluator<Bean> {
 
+  /**
+   * The meta-properties of each immutable meta-bean, keyed by lower-case property name.
+   */
+  private static final Map<MetaBean, Map<String, MetaProperty<?>>> PROPERTIES = new ConcurrentHashMap<>();
+
   @Override
   public Class<Bean> getTargetType() {
     return Bean.class;
@@ -69,6 +85,9 @@ public class BeanTokenEvaluator extends TokenEvaluator<Bean> {
       String firstToken,
       List<String> remainingTokens) {
 
+    if (bean instanceof ImmutableBean) {
+      return evaluateImmutable(bean, firstToken, remainingTokens);
+    }
     Optional<String> propertyName = bean.propertyNames().stream()
         .filter(p -> p.equalsIgnoreCase(firstToken))
         .findFirst();
@@ -95,4 +114,38 @@ public class BeanTokenEvaluator extends TokenEvaluator<Bean> {
     return invalidTokenFailure(bean, firstToken);
   }
 
+  // evaluates the token using the cached meta-properties of the meta-bean
+  private EvaluationResult evaluateImmutable(Bean bean, String firstToken, List<String> remainingTokens) {
+    MetaBean metaBean = bean.metaBean();
+    Map<String, MetaProperty<?>> properties = PROPERTIES.computeIfAbsent(metaBean, BeanTokenEvaluator::properties);
+    MetaProperty<?> property = properties.get(firstToken.toLowerCase(Locale.ENGLISH));
+
+    if (property != null) {
+      Object propertyValue = property.get(bean);
+
+      return propertyValue != null ?
+          EvaluationResult.success(propertyValue, remainingTokens) :
+          EvaluationResult.failure("No value available for property '{}'", firstToken);
+    }
+    // The bean has a single property which doesn't match the token, see above
+    if (metaBean.metaPropertyMap().size() == 1) {
+      Object propertyValue = Iterables.getOnlyElement(metaBean.metaPropertyMap().values()).get(bean);
+      List<String> tokens = ImmutableList.<String>builder().add(firstToken).addAll(remainingTokens).build();
+
+      return propertyValue != null ?
+          EvaluationResult.success(propertyValue, tokens) :
+          EvaluationResult.failure("No value available for property '{}'", firstToken);
+    }
+    return invalidTokenFailure(bean, firstToken);
+  }
+
+  // the meta-properties keyed by lower-case name, the first property wins if names only differ by case
+  private static Map<String, MetaProperty<?>> properties(MetaBean metaBean) {
+    Map<String, MetaProperty<?>> properties = new LinkedHashMap<>();
+    for (MetaProperty<?> property : metaBean.metaPropertyIterable()) {
+      properties.putIfAbsent(property.name().toLowerCase(Locale.ENGLISH), property);
+    }
+    return ImmutableMap.copyOf(properties);
+  }
+
 }
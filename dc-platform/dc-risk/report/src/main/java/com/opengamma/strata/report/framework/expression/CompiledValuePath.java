@@ -0,0 +1,164 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.report.framework.expression;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.Measure;
+import com.opengamma.strata.calc.runner.CalculationFunctions;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.report.ReportCalculationResults;
+
+/**
+ * A value path that has been parsed once, ready to be evaluated against many rows of results.
+ * <p>
+ * {@link ValuePathEvaluator} describes the expressions. Compiling the path splits it into tokens and
+ * extracts the measure once, rather than once per row. During evaluation, the token evaluator
+ * for each intermediate value is found from a cache keyed by the runtime type of the value, so the
+ * lookup happens once per type rather than once per value. When evaluating all the rows, the index
+ * of each measure column in the results is also looked up once rather than once per row.
+ * <p>
+ * Instances are immutable and thread-safe, and the rows of a report can be evaluated in parallel.
+ */
+public final class CompiledValuePath {
+
+  /**
+   * The value path.
+   */
+  private final String valuePath;
+  /**
+   * The tokens of the path.
+   */
+  private final ImmutableList<String> tokens;
+  /**
+   * The measure encoded in the path, if present.
+   */
+  private final Optional<Measure> measure;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Compiles a value path.
+   *
+   * @param valuePath  the value path
+   * @return the compiled value path
+   */
+  public static CompiledValuePath of(String valuePath) {
+    ArgChecker.notNull(valuePath, "valuePath");
+    return new CompiledValuePath(valuePath);
+  }
+
+  // restricted constructor
+  private CompiledValuePath(String valuePath) {
+    this.valuePath = valuePath;
+    this.tokens = ImmutableList.copyOf(ValuePathEvaluator.tokenize(valuePath));
+    this.measure = ValuePathEvaluator.measure(valuePath);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Gets the value path.
+   *
+   * @return the value path
+   */
+  public String getValuePath() {
+    return valuePath;
+  }
+
+  /**
+   * Gets the measure encoded in the value path, if present.
+   *
+   * @return the measure, if present
+   */
+  public Optional<Measure> getMeasure() {
+    return measure;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Evaluates the value path against a set of results, returning the resolved result for each row.
+   * <p>
+   * The rows are evaluated in parallel.
+   *
+   * @param results  the calculation results
+   * @return the list of resolved results for each row
+   */
+  public List<Result<?>> evaluate(ReportCalculationResults results) {
+    int rowCount = results.getCalculationResults().getRowCount();
+    ToIntFunction<Column> columnIndex = ResultsRow.columnIndexLookup(results);
+    return IntStream.range(0, rowCount)
+        .parallel()
+        .mapToObj(rowIndex -> evaluate(new ResultsRow(results, rowIndex, columnIndex), results))
+        .collect(toImmutableList());
+  }
+
+  /**
+   * Evaluates the value path against a single row of results.
+   *
+   * @param results  the calculation results
+   * @param rowIndex  the index of the row
+   * @return the resolved result for the row
+   */
+  public Result<?> evaluate(ReportCalculationResults results, int rowIndex) {
+    return evaluate(new ResultsRow(results, rowIndex), results);
+  }
+
+  // evaluates the tokens in turn, finding the evaluator from the type of each intermediate value
+  private Result<?> evaluate(ResultsRow row, ReportCalculationResults results) {
+    if (tokens.isEmpty()) {
+      return Result.failure(FailureReason.INVALID, "Column expressions must not be empty");
+    }
+    CalculationFunctions functions = results.getCalculationFunctions();
+    List<String> remaining = tokens.subList(1, tokens.size());
+    EvaluationResult evaluationResult =
+        RootEvaluator.INSTANCE.evaluate(row, functions, tokens.get(0), remaining);
+
+    while (!evaluationResult.isComplete()) {
+      Object value = evaluationResult.getResult().getValue();
+      Optional<TokenEvaluator<Object>> evaluator = ValuePathEvaluator.getEvaluator(value.getClass());
+      if (!evaluator.isPresent()) {
+        return Result.failure(
+            FailureReason.INVALID,
+            "Expression '{}' cannot be invoked on type {}",
+            Joiner.on('.').join(remaining),
+            value.getClass().getName());
+      }
+      List<String> next = evaluationResult.getRemainingTokens();
+      remaining = next.subList(1, next.size());
+      evaluationResult = evaluator.get().evaluate(value, functions, next.get(0), remaining);
+    }
+    return evaluationResult.getResult();
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    return obj instanceof CompiledValuePath && valuePath.equals(((CompiledValuePath) obj).valuePath);
+  }
+
+  @Override
+  public int hashCode() {
+    return valuePath.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return valuePath;
+  }
+
+}
@@ -7,8 +7,11 @@ package com.opengamma.strata.report.framework.expression;
 
 import static com.opengamma.strata.collect.Guavate.toImmutableList;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.ToIntFunction;
 
 import com.google.common.collect.ImmutableSet;
 import com.opengamma.strata.basics.CalculationTarget;
@@ -37,6 +40,9 @@ class ResultsRow {
   /** The index of the row in the result whose data is exposed by this object. */
   private final int rowIndex;
 
+  /** The lookup of the index of a column in the results, -1 if not found. */
+  private final ToIntFunction<Column> columnIndex;
+
   /**
    * Returns a new instance exposing the data from a single row in the results.
    *
@@ -44,8 +50,37 @@ class ResultsRow {
    * @param rowIndex  the index of the row in the result whose data is exposed by this object
    */
   ResultsRow(ReportCalculationResults results, int rowIndex) {
+    this(results, rowIndex, results.getColumns()::indexOf);
+  }
+
+  /**
+   * Returns a new instance exposing the data from a single row in the results, using a shared column lookup.
+   *
+   * @param results  the results used to generate a report
+   * @param rowIndex  the index of the row in the result whose data is exposed by this object
+   * @param columnIndex  the lookup of the index of a column in the results, from {@link #columnIndexLookup}
+   */
+  ResultsRow(ReportCalculationResults results, int rowIndex, ToIntFunction<Column> columnIndex) {
     this.results = results;
     this.rowIndex = rowIndex;
+    this.columnIndex = columnIndex;
+  }
+
+  /**
+   * Returns a lookup of the index of a column in the results, to be shared by the rows.
+   * <p>
+   * The lookup returns the first index of the column, or -1 if the results do not contain the column.
+   *
+   * @param results  the results used to generate a report
+   * @return the lookup
+   */
+  static ToIntFunction<Column> columnIndexLookup(ReportCalculationResults results) {
+    List<Column> columns = results.getColumns();
+    Map<Column, Integer> indices = new HashMap<>();
+    for (int i = columns.size() - 1; i >= 0; i--) {
+      indices.put(columns.get(i), i);
+    }
+    return column -> indices.getOrDefault(column, -1);
   }
 
   //-------------------------------------------------------------------------
@@ -140,23 +175,24 @@ class ResultsRow {
    * @return the result of calculating the named measure for the trade in the row
    */
   Result<?> getResult(String measureName) {
-    List<String> validMeasureNames = measureNames(results.getTargets().get(rowIndex), results.getCalculationFunctions());
-    if (!validMeasureNames.contains(measureName)) {
+    CalculationTarget target = results.getTargets().get(rowIndex);
+    CalculationFunctions functions = results.getCalculationFunctions();
+    if (!isSupported(target, functions, measureName)) {
       return Result.failure(
           FailureReason.INVALID,
           "Invalid measure name: {}. Valid measure names: {}",
           measureName,
-          validMeasureNames);
+          measureNames(target, functions));
     }
     try {
       Column column = Column.of(Measure.of(measureName));
-      int columnIndex = results.getColumns().indexOf(column);
+      int columnIndex = this.columnIndex.applyAsInt(column);
       if (columnIndex == -1) {
         return Result.failure(
             FailureReason.INVALID,
             "Measure not found in results: '{}'. Valid measure names: {}",
             measureName,
-            validMeasureNames);
+            measureNames(target, functions));
       }
       Result<?> result = results.getCalculationResults().get(rowIndex, columnIndex);
       if (result.isFailure() && result.getFailure().getReason() == FailureReason.ERROR) {
@@ -164,7 +200,7 @@ class ResultsRow {
             FailureReason.INVALID,
             "Unable to calculate measure '{}'. Reason: {}",
             measureName,
-            validMeasureNames,
+            measureNames(target, functions),
             result.getFailure().getMessage());
       }
       return result;
@@ -175,10 +211,17 @@ class ResultsRow {
           "Unable to calculate measure '{}'. Reason: {}. Valid measure names: {}",
           measureName,
           ex.getMessage(),
-          validMeasureNames);
+          measureNames(target, functions));
     }
   }
 
+  // checks if the measure is available, without sorting the names
+  private static boolean isSupported(CalculationTarget target, CalculationFunctions functions, String measureName) {
+    return functions.findFunction(target)
+        .map(fn -> fn.supportedMeasures().stream().anyMatch(measure -> measure.getName().equals(measureName)))
+        .orElse(false);
+  }
+
   // determine the available measures
   static List<String> measureNames(CalculationTarget target, CalculationFunctions calculationFunctions) {
     Set<Measure> validMeasures = calculationFunctions.findFunction(target)
@@ -5,21 +5,14 @@
  */
 package com.opengamma.strata.report.framework.expression;
 
-import static com.opengamma.strata.collect.Guavate.toImmutableList;
-
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.IntStream;
 
-import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.opengamma.strata.basics.index.IborIndex;
 import com.opengamma.strata.calc.Measure;
-import com.opengamma.strata.calc.runner.CalculationFunctions;
-import com.opengamma.strata.collect.result.FailureReason;
 import com.opengamma.strata.collect.result.Result;
 import com.opengamma.strata.product.fra.Fra;
 import com.opengamma.strata.product.fra.FraTrade;
@@ -36,6 +29,8 @@ import com.opengamma.strata.report.ReportCalculationResults;
  *   <li>{@code IborIndex.getName()} returning the index name</li>
  * </ul>
  * The result of evaluating the expression is the index name.
+ * <p>
+ * When the same path is evaluated repeatedly, it is more efficient to use {@link CompiledValuePath}.
  */
 public class ValuePathEvaluator {
 
@@ -53,6 +48,19 @@ public class ValuePathEvaluator {
       new BeanTokenEvaluator(),
       new IterableTokenEvaluator());
 
+  /** The first evaluator applicable to each type, looked up once per type. */
+  private static final ClassValue<Optional<TokenEvaluator<Object>>> EVALUATOR_BY_TYPE =
+      new ClassValue<Optional<TokenEvaluator<Object>>>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Optional<TokenEvaluator<Object>> computeValue(Class<?> targetClass) {
+          return EVALUATORS.stream()
+              .filter(e -> e.getTargetType().isAssignableFrom(targetClass))
+              .map(e -> (TokenEvaluator<Object>) e)
+              .findFirst();
+        }
+      };
+
   //-------------------------------------------------------------------------
   /**
    * Gets the measure encoded in a value path, if present.
@@ -83,47 +91,7 @@ public class ValuePathEvaluator {
    * @return the list of resolved results for each trade
    */
   public static List<Result<?>> evaluate(String valuePath, ReportCalculationResults results) {
-    List<String> tokens = tokenize(valuePath);
-
-    if (tokens.size() < 1) {
-      return Collections.nCopies(
-          results.getTargets().size(),
-          Result.failure(FailureReason.INVALID, "Column expressions must not be empty"));
-    }
-    CalculationFunctions functions = results.getCalculationFunctions();
-    int rowCount = results.getCalculationResults().getRowCount();
-    return IntStream.range(0, rowCount)
-        .mapToObj(rowIndex -> evaluate(functions, tokens, RootEvaluator.INSTANCE, new ResultsRow(results, rowIndex)))
-        .collect(toImmutableList());
-  }
-
-  // Tokens always has at least one token
-  private static <T> Result<?> evaluate(
-      CalculationFunctions functions,
-      List<String> tokens,
-      TokenEvaluator<T> evaluator,
-      T target) {
-
-    List<String> remaining = tokens.subList(1, tokens.size());
-    EvaluationResult evaluationResult = evaluator.evaluate(target, functions, tokens.get(0), remaining);
-
-    if (evaluationResult.isComplete()) {
-      return evaluationResult.getResult();
-    }
-    Object value = evaluationResult.getResult().getValue();
-    Optional<TokenEvaluator<Object>> nextEvaluator = getEvaluator(value.getClass());
-
-    return nextEvaluator.isPresent() ?
-        evaluate(functions, evaluationResult.getRemainingTokens(), nextEvaluator.get(), value) :
-        noEvaluatorResult(remaining, value);
-  }
-
-  private static Result<?> noEvaluatorResult(List<String> remaining, Object value) {
-    return Result.failure(
-        FailureReason.INVALID,
-        "Expression '{}' cannot be invoked on type {}",
-        Joiner.on('.').join(remaining),
-        value.getClass().getName());
+    return CompiledValuePath.of(valuePath).evaluate(results);
   }
 
   /**
@@ -138,17 +106,14 @@ public class ValuePathEvaluator {
 
   //-------------------------------------------------------------------------
   // splits a value path into tokens for processing
-  private static List<String> tokenize(String valuePath) {
+  static List<String> tokenize(String valuePath) {
     String[] tokens = valuePath.split(PATH_SEPARATOR);
     return ImmutableList.copyOf(tokens);
   }
 
-  @SuppressWarnings("unchecked")
-  private static Optional<TokenEvaluator<Object>> getEvaluator(Class<?> targetClass) {
-    return EVALUATORS.stream()
-        .filter(e -> e.getTargetType().isAssignableFrom(targetClass))
-        .map(e -> (TokenEvaluator<Object>) e)
-        .findFirst();
+  // finds the evaluator for the type of a value, cached by type
+  static Optional<TokenEvaluator<Object>> getEvaluator(Class<?> targetClass) {
+    return EVALUATOR_BY_TYPE.get(targetClass);
   }
 
   //-------------------------------------------------------------------------
@@ -0,0 +1,219 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.report.framework.format;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.collect.ArgChecker;
+
+/**
+ * Report row writer producing a binary columnar file.
+ * <p>
+ * The rows are buffered into row groups of a fixed maximum size. When a group is full, it is written
+ * column by column, so the values of each column in the group are contiguous in the file.
+ * Memory use is bounded by the size of a row group, whatever the number of rows in the report.
+ * <p>
+ * The file consists of:
+ * <ul>
+ *   <li>the magic number {@code 0x5354524B} and the format version, each a 4 byte integer
+ *   <li>the number of columns, followed by the header of each column
+ *   <li>any number of row groups, each being the number of rows in the group, followed by the values
+ *     of the first column for each row in the group, then those of the second column, and so on
+ *   <li>a zero, marking the end of the file
+ * </ul>
+ * Integers are written big-endian, and each string is written as its number of UTF-8 bytes followed by the bytes.
+ * Files can be read using {@link #read(InputStream)}.
+ */
+public final class ColumnarReportRowWriter implements ReportRowWriter {
+
+  /**
+   * The magic number at the start of the file.
+   */
+  static final int MAGIC = 0x5354524B;
+  /**
+   * The version of the file format.
+   */
+  static final int VERSION = 1;
+  /**
+   * The default maximum number of rows in a row group.
+   */
+  public static final int DEFAULT_ROW_GROUP_SIZE = 4096;
+
+  /**
+   * The output.
+   */
+  private final DataOutputStream out;
+  /**
+   * The maximum number of rows in a row group.
+   */
+  private final int rowGroupSize;
+  /**
+   * The buffered values of the current row group, by column then row.
+   */
+  private String[][] group;
+  /**
+   * The number of rows in the current row group.
+   */
+  private int groupRowCount;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance writing to the specified output stream, using the default row group size.
+   *
+   * @param out  the output stream to write to
+   * @return the writer
+   */
+  public static ColumnarReportRowWriter of(OutputStream out) {
+    return of(out, DEFAULT_ROW_GROUP_SIZE);
+  }
+
+  /**
+   * Obtains an instance writing to the specified output stream.
+   *
+   * @param out  the output stream to write to
+   * @param rowGroupSize  the maximum number of rows in a row group
+   * @return the writer
+   */
+  public static ColumnarReportRowWriter of(OutputStream out, int rowGroupSize) {
+    ArgChecker.notNull(out, "out");
+    ArgChecker.notNegativeOrZero(rowGroupSize, "rowGroupSize");
+    return new ColumnarReportRowWriter(new DataOutputStream(new BufferedOutputStream(out)), rowGroupSize);
+  }
+
+  // restricted constructor
+  private ColumnarReportRowWriter(DataOutputStream out, int rowGroupSize) {
+    this.out = out;
+    this.rowGroupSize = rowGroupSize;
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public void writeHeaders(List<String> headers) {
+    ArgChecker.isTrue(group == null, "Headers have already been written");
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(headers.size());
+      for (String header : headers) {
+        writeString(header);
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    group = new String[headers.size()][rowGroupSize];
+  }
+
+  @Override
+  public void writeRow(List<String> cells) {
+    ArgChecker.isTrue(group != null, "Headers must be written before rows");
+    ArgChecker.isTrue(cells.size() == group.length, "Expected {} cells but found {}", group.length, cells.size());
+    for (int col = 0; col < group.length; col++) {
+      group[col][groupRowCount] = cells.get(col);
+    }
+    groupRowCount++;
+    if (groupRowCount == rowGroupSize) {
+      writeGroup();
+    }
+  }
+
+  @Override
+  public void finish() {
+    ArgChecker.isTrue(group != null, "Headers must be written before the report is finished");
+    writeGroup();
+    try {
+      out.writeInt(0);
+      out.flush();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  // writes the buffered rows, column by column
+  private void writeGroup() {
+    if (groupRowCount == 0) {
+      return;
+    }
+    try {
+      out.writeInt(groupRowCount);
+      for (String[] column : group) {
+        for (int row = 0; row < groupRowCount; row++) {
+          writeString(column[row]);
+        }
+        Arrays.fill(column, 0, groupRowCount, null);
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    groupRowCount = 0;
+  }
+
+  // writes a string as the length of the UTF-8 bytes followed by the bytes
+  private void writeString(String str) throws IOException {
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * Reads a file written by this writer.
+   * <p>
+   * The result contains the headers followed by the rows, in the order they were written.
+   * This reads the whole file into memory.
+   *
+   * @param in  the input stream to read from
+   * @return the headers and rows
+   * @throws IllegalArgumentException if the input is not a columnar report file
+   * @throws UncheckedIOException if an IO exception occurs
+   */
+  public static ImmutableList<ImmutableList<String>> read(InputStream in) {
+    DataInputStream dataIn = new DataInputStream(in);
+    try {
+      ArgChecker.isTrue(dataIn.readInt() == MAGIC, "Input is not a columnar report file");
+      int version = dataIn.readInt();
+      ArgChecker.isTrue(version == VERSION, "Unsupported columnar report file version: {}", version);
+      int columnCount = dataIn.readInt();
+      String[] headers = new String[columnCount];
+      for (int col = 0; col < columnCount; col++) {
+        headers[col] = readString(dataIn);
+      }
+      ImmutableList.Builder<ImmutableList<String>> rows = ImmutableList.builder();
+      rows.add(ImmutableList.copyOf(headers));
+      for (int rowCount = dataIn.readInt(); rowCount > 0; rowCount = dataIn.readInt()) {
+        String[][] group = new String[rowCount][columnCount];
+        for (int col = 0; col < columnCount; col++) {
+          for (int row = 0; row < rowCount; row++) {
+            group[row][col] = readString(dataIn);
+          }
+        }
+        for (String[] row : group) {
+          rows.add(ImmutableList.copyOf(row));
+        }
+      }
+      return rows.build();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  // reads a string written by writeString
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.report.framework.format;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.Unchecked;
+import com.opengamma.strata.collect.io.CsvOutput;
+
+/**
+ * Report row writer producing CSV.
+ * <p>
+ * The output is the same as {@link ReportFormatter#writeCsv}, but each row is written as soon as it is received.
+ * The output is buffered, and reaches the underlying stream whenever the buffer is full.
+ */
+public final class CsvReportRowWriter implements ReportRowWriter {
+
+  /**
+   * The writer of the underlying stream.
+   */
+  private final OutputStreamWriter outputWriter;
+  /**
+   * The CSV output.
+   */
+  private final CsvOutput csvOut;
+  /**
+   * The number of columns, -1 until the headers are written.
+   */
+  private int columnCount = -1;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains an instance writing to the specified output stream.
+   *
+   * @param out  the output stream to write to
+   * @return the writer
+   */
+  public static CsvReportRowWriter of(OutputStream out) {
+    ArgChecker.notNull(out, "out");
+    return new CsvReportRowWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+  }
+
+  // restricted constructor
+  private CsvReportRowWriter(OutputStreamWriter outputWriter) {
+    this.outputWriter = outputWriter;
+    this.csvOut = new CsvOutput(outputWriter);
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public void writeHeaders(List<String> headers) {
+    ArgChecker.isTrue(columnCount == -1, "Headers have already been written");
+    columnCount = headers.size();
+    csvOut.writeLine(headers);
+  }
+
+  @Override
+  public void writeRow(List<String> cells) {
+    ArgChecker.isTrue(columnCount != -1, "Headers must be written before rows");
+    ArgChecker.isTrue(cells.size() == columnCount, "Expected {} cells but found {}", columnCount, cells.size());
+    csvOut.writeLine(cells);
+  }
+
+  @Override
+  public void finish() {
+    Unchecked.wrap(outputWriter::flush);
+  }
+
+}
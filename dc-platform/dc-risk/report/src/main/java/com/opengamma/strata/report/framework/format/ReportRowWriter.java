@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.report.framework.format;
+
+import java.util.List;
+
+/**
+ * Writes the formatted rows of a report one at a time.
+ * <p>
+ * A report row writer allows a report to be written as its rows become available, rather than
+ * building the complete report in memory first. The headers are written first, followed by the rows.
+ * <p>
+ * Implementations are mutable and are not thread-safe.
+ */
+public interface ReportRowWriter {
+
+  /**
+   * Gets the format that the cells are to be formatted in.
+   * <p>
+   * The default is {@link ReportOutputFormat#CSV}, with values formatted in full for processing.
+   *
+   * @return the output format of the cells
+   */
+  public default ReportOutputFormat getOutputFormat() {
+    return ReportOutputFormat.CSV;
+  }
+
+  /**
+   * Writes the column headers.
+   * <p>
+   * This must be called once, before any rows are written.
+   *
+   * @param headers  the column headers
+   */
+  public abstract void writeHeaders(List<String> headers);
+
+  /**
+   * Writes a row of formatted cells.
+   * <p>
+   * The number of cells must match the number of headers.
+   *
+   * @param cells  the formatted cells
+   */
+  public abstract void writeRow(List<String> cells);
+
+  /**
+   * Completes the report, writing any buffered rows and flushing the output.
+   * <p>
+   * The underlying output stream is not closed.
+   */
+  public abstract void finish();
+
+}
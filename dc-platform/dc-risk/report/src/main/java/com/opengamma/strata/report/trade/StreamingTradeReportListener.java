@@ -0,0 +1,236 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.report.trade;
+
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.CalculationTarget;
+import com.opengamma.strata.basics.ReferenceData;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.ColumnHeader;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.runner.AggregatingCalculationListener;
+import com.opengamma.strata.calc.runner.CalculationFunctions;
+import com.opengamma.strata.calc.runner.CalculationResult;
+import com.opengamma.strata.collect.ArgChecker;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.measure.StandardComponents;
+import com.opengamma.strata.report.ReportCalculationResults;
+import com.opengamma.strata.report.framework.expression.CompiledValuePath;
+import com.opengamma.strata.report.framework.format.ReportOutputFormat;
+import com.opengamma.strata.report.framework.format.ReportRowWriter;
+
+/**
+ * Calculation listener that writes the rows of a trade report as the calculations complete.
+ * <p>
+ * This is an alternative to {@link TradeReportRunner} that does not build the complete report in memory.
+ * As soon as all the columns of a row have been calculated, the row is evaluated against the
+ * {@linkplain TradeReportTemplate template}, formatted and passed to a {@link ReportRowWriter}.
+ * The cells are formatted in the {@linkplain ReportRowWriter#getOutputFormat() output format} of the writer.
+ * The calculated results of the row are then discarded. Memory use is bounded by the rows whose
+ * calculations are in progress, plus any buffering in the writer.
+ * <p>
+ * The rows are written in the order the calculations complete, which is not necessarily the order of the targets.
+ * A template column identifying the trade, such as '{@code Trade.id}', can be used to match rows to trades.
+ * <p>
+ * The listener must be passed to the calculation runner with the same columns as it was created with,
+ * usually those of the {@linkplain TradeReportRunner#requirements(TradeReportTemplate) report requirements}.
+ * When the calculations are complete, the writer is finished and the number of rows written is available
+ * from {@link #result()}.
+ */
+public final class StreamingTradeReportListener
+    extends AggregatingCalculationListener<Integer> {
+
+  /**
+   * The report template.
+   */
+  private final TradeReportTemplate template;
+  /**
+   * The compiled value path of each template column, empty if the column has no value.
+   */
+  private final List<Optional<CompiledValuePath>> compiledColumns;
+  /**
+   * The calculated columns.
+   */
+  private final List<Column> columns;
+  /**
+   * The headers of the calculated columns.
+   */
+  private final List<ColumnHeader> columnHeaders;
+  /**
+   * The valuation date.
+   */
+  private final LocalDate valuationDate;
+  /**
+   * The calculation functions.
+   */
+  private final CalculationFunctions functions;
+  /**
+   * The reference data.
+   */
+  private final ReferenceData refData;
+  /**
+   * The writer of the report rows.
+   */
+  private final ReportRowWriter writer;
+  /**
+   * The output format of the cells, from the writer.
+   */
+  private final ReportOutputFormat format;
+  /**
+   * The rows whose calculations are in progress, keyed by row index.
+   */
+  private final Map<Integer, PendingRow> pendingRows = new HashMap<>();
+  /**
+   * The number of rows written.
+   */
+  private int rowCount;
+
+  //-------------------------------------------------------------------------
+  /**
+   * Obtains a listener using the standard calculation functions and reference data.
+   * <p>
+   * The column headers of the template are written immediately.
+   *
+   * @param template  the report template
+   * @param columns  the columns passed to the calculation runner
+   * @param valuationDate  the valuation date
+   * @param writer  the writer of the report rows
+   * @return the listener
+   */
+  public static StreamingTradeReportListener of(
+      TradeReportTemplate template,
+      List<Column> columns,
+      LocalDate valuationDate,
+      ReportRowWriter writer) {
+
+    return of(template, columns, valuationDate, StandardComponents.calculationFunctions(), ReferenceData.standard(), writer);
+  }
+
+  /**
+   * Obtains a listener.
+   * <p>
+   * The column headers of the template are written immediately.
+   *
+   * @param template  the report template
+   * @param columns  the columns passed to the calculation runner
+   * @param valuationDate  the valuation date
+   * @param functions  the calculation functions used in the calculations
+   * @param refData  the reference data used in the calculations
+   * @param writer  the writer of the report rows
+   * @return the listener
+   */
+  public static StreamingTradeReportListener of(
+      TradeReportTemplate template,
+      List<Column> columns,
+      LocalDate valuationDate,
+      CalculationFunctions functions,
+      ReferenceData refData,
+      ReportRowWriter writer) {
+
+    return new StreamingTradeReportListener(template, columns, valuationDate, functions, refData, writer);
+  }
+
+  // restricted constructor
+  private StreamingTradeReportListener(
+      TradeReportTemplate template,
+      List<Column> columns,
+      LocalDate valuationDate,
+      CalculationFunctions functions,
+      ReferenceData refData,
+      ReportRowWriter writer) {
+
+    this.template = ArgChecker.notNull(template, "template");
+    this.columns = ImmutableList.copyOf(columns);
+    this.valuationDate = ArgChecker.notNull(valuationDate, "valuationDate");
+    this.functions = ArgChecker.notNull(functions, "functions");
+    this.refData = ArgChecker.notNull(refData, "refData");
+    this.writer = ArgChecker.notNull(writer, "writer");
+    this.format = writer.getOutputFormat();
+    this.compiledColumns = template.getColumns().stream()
+        .map(column -> column.getValue().map(CompiledValuePath::of))
+        .collect(toImmutableList());
+    this.columnHeaders = this.columns.stream()
+        .map(Column::toHeader)
+        .collect(toImmutableList());
+    writer.writeHeaders(template.getColumns().stream()
+        .map(TradeReportColumn::getHeader)
+        .collect(toImmutableList()));
+  }
+
+  //-------------------------------------------------------------------------
+  @Override
+  public void resultReceived(CalculationTarget target, CalculationResult result) {
+    PendingRow row = pendingRows.computeIfAbsent(result.getRowIndex(), i -> new PendingRow(target, columns.size()));
+    if (row.add(result.getColumnIndex(), result.getResult())) {
+      pendingRows.remove(result.getRowIndex());
+      writeRow(row);
+    }
+  }
+
+  @Override
+  protected Integer createAggregateResult() {
+    // rows can only be incomplete if a calculation was not run, their missing cells are failures
+    pendingRows.keySet().stream()
+        .sorted()
+        .map(pendingRows::get)
+        .forEach(this::writeRow);
+    pendingRows.clear();
+    writer.finish();
+    return rowCount;
+  }
+
+  // evaluates the template against the row, then formats and writes it
+  private void writeRow(PendingRow row) {
+    Results rowResults = Results.of(columnHeaders, Arrays.asList(row.cells));
+    ReportCalculationResults rowCalculationResults = ReportCalculationResults.of(
+        valuationDate, ImmutableList.of(row.target), columns, rowResults, functions, refData);
+    ImmutableList.Builder<String> cells = ImmutableList.builder();
+    for (int i = 0; i < compiledColumns.size(); i++) {
+      Optional<CompiledValuePath> compiledColumn = compiledColumns.get(i);
+      Result<?> result = compiledColumn.isPresent() ?
+          compiledColumn.get().evaluate(rowCalculationResults, 0) :
+          Result.failure(FailureReason.INVALID, "No value specified in report template");
+      cells.add(TradeReportFormatter.INSTANCE.formatResult(template.getColumns().get(i), result, format));
+    }
+    writer.writeRow(cells.build());
+    rowCount++;
+  }
+
+  //-------------------------------------------------------------------------
+  /**
+   * The calculated cells of a row that is in progress.
+   */
+  private static final class PendingRow {
+
+    private final CalculationTarget target;
+    private final Result<?>[] cells;
+    private int received;
+
+    private PendingRow(CalculationTarget target, int columnCount) {
+      this.target = target;
+      this.cells = new Result<?>[columnCount];
+      Arrays.fill(cells, Result.failure(FailureReason.MISSING_DATA, "No result was calculated"));
+    }
+
+    // adds a cell, returning true if the row is complete
+    private boolean add(int columnIndex, Result<?> result) {
+      cells[columnIndex] = result;
+      received++;
+      return received == cells.length;
+    }
+  }
+
+}
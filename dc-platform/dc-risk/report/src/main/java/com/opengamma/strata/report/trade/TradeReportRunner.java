@@ -8,8 +8,9 @@ package com.opengamma.strata.report.trade;
 import static com.opengamma.strata.collect.Guavate.toImmutableList;
 
 import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.IntStream;
+import java.util.Optional;
 
 import com.google.common.collect.ImmutableTable;
 import com.opengamma.strata.calc.Column;
@@ -19,6 +20,7 @@ import com.opengamma.strata.collect.result.Result;
 import com.opengamma.strata.report.ReportCalculationResults;
 import com.opengamma.strata.report.ReportRequirements;
 import com.opengamma.strata.report.ReportRunner;
+import com.opengamma.strata.report.framework.expression.CompiledValuePath;
 import com.opengamma.strata.report.framework.expression.ValuePathEvaluator;
 
 /**
@@ -27,6 +29,9 @@ import com.opengamma.strata.report.framework.expression.ValuePathEvaluator;
  * Trade reports are driven by a {@linkplain TradeReportTemplate trade report template}.
  * The resulting report is a table containing one row per trade, and the requested columns each
  * showing a value for that trade.
+ * <p>
+ * Each column expression is compiled once into a {@link CompiledValuePath} and evaluated
+ * against all the rows in parallel.
  */
 public class TradeReportRunner
     implements ReportRunner<TradeReportTemplate> {
@@ -56,21 +61,24 @@ public class TradeReportRunner
 
   @Override
   public TradeReport runReport(ReportCalculationResults results, TradeReportTemplate reportTemplate) {
+    // compile each column expression once, rather than parsing it for every row
+    List<Optional<CompiledValuePath>> compiledColumns = reportTemplate.getColumns().stream()
+        .map(column -> column.getValue().map(CompiledValuePath::of))
+        .collect(toImmutableList());
+    int rowCount = results.getCalculationResults().getRowCount();
     ImmutableTable.Builder<Integer, Integer, Result<?>> resultTable = ImmutableTable.builder();
 
-    for (int reportColumnIdx = 0; reportColumnIdx < reportTemplate.getColumns().size(); reportColumnIdx++) {
-      TradeReportColumn reportColumn = reportTemplate.getColumns().get(reportColumnIdx);
+    for (int reportColumnIdx = 0; reportColumnIdx < compiledColumns.size(); reportColumnIdx++) {
+      Optional<CompiledValuePath> compiledColumn = compiledColumns.get(reportColumnIdx);
       List<Result<?>> columnResults;
 
-      if (reportColumn.getValue().isPresent()) {
-        columnResults = ValuePathEvaluator.evaluate(reportColumn.getValue().get(), results);
+      if (compiledColumn.isPresent()) {
+        // the rows are evaluated in parallel
+        columnResults = compiledColumn.get().evaluate(results);
       } else {
-        columnResults = IntStream.range(0, results.getTargets().size())
-            .mapToObj(i -> Result.failure(FailureReason.INVALID, "No value specified in report template"))
-            .collect(toImmutableList());
+        columnResults = Collections.nCopies(
+            rowCount, Result.failure(FailureReason.INVALID, "No value specified in report template"));
       }
-      int rowCount = results.getCalculationResults().getRowCount();
-
       for (int rowIdx = 0; rowIdx < rowCount; rowIdx++) {
         resultTable.put(rowIdx, reportColumnIdx, columnResults.get(rowIdx));
       }
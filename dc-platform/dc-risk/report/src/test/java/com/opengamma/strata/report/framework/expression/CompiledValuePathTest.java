@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.report.framework.expression;
+
+import static com.opengamma.strata.basics.index.IborIndices.GBP_LIBOR_3M;
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static com.opengamma.strata.product.common.BuySell.BUY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.date.AdjustableDate;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.Measure;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.product.Trade;
+import com.opengamma.strata.product.TradeInfo;
+import com.opengamma.strata.product.fra.Fra;
+import com.opengamma.strata.product.fra.FraTrade;
+import com.opengamma.strata.report.ReportCalculationResults;
+
+/**
+ * Test {@link CompiledValuePath}.
+ */
+@Test
+public class CompiledValuePathTest {
+
+  private static final int ROW_COUNT = 2000;
+  private static final ReportCalculationResults RESULTS = reportResults();
+
+  public void test_of() {
+    CompiledValuePath test = CompiledValuePath.of("Measures.PresentValue.Amount");
+    assertThat(test.getValuePath()).isEqualTo("Measures.PresentValue.Amount");
+    assertThat(test.getMeasure()).hasValue(Measure.of("PresentValue"));
+    assertThat(test).isEqualTo(CompiledValuePath.of("Measures.PresentValue.Amount"));
+    assertThat(test.toString()).isEqualTo("Measures.PresentValue.Amount");
+    assertThat(CompiledValuePath.of("Trade.Counterparty").getMeasure()).isEmpty();
+  }
+
+  public void test_evaluate_inRowOrder() {
+    List<Result<?>> results = CompiledValuePath.of("Trade.Product.Notional").evaluate(RESULTS);
+    assertThat(results).hasSize(ROW_COUNT);
+    for (int i = 0; i < ROW_COUNT; i++) {
+      assertThat(results.get(i)).isEqualTo(Result.success((double) i));
+    }
+  }
+
+  public void test_evaluate_sameAsSingleRow() {
+    List<String> paths = ImmutableList.of(
+        "Measures.PresentValue.Currency",
+        "Measures.PresentValue",
+        "Measures.Wibble",
+        "Measures.ParSpread",
+        "Measures",
+        "Trade.Counterparty.Value",
+        "Target.info.COUNTERPARTY.value",
+        "Trade.Product.Notional",
+        "Trade.Product.Wibble",
+        "Trade.Product.Notional.Wibble");
+    for (String path : paths) {
+      CompiledValuePath compiled = CompiledValuePath.of(path);
+      List<Result<?>> results = compiled.evaluate(RESULTS);
+      List<Result<?>> expected = IntStream.range(0, ROW_COUNT)
+          .mapToObj(i -> compiled.evaluate(RESULTS, i))
+          .collect(toImmutableList());
+      assertThat(results).isEqualTo(expected);
+      assertThat(ValuePathEvaluator.evaluate(path, RESULTS)).isEqualTo(expected);
+    }
+  }
+
+  public void test_evaluate_caseInsensitiveBeanProperty() {
+    CompiledValuePath test = CompiledValuePath.of("Target.info.COUNTERPARTY.value");
+    assertThat(test.evaluate(RESULTS, 3)).isEqualTo(Result.success("cpty3"));
+  }
+
+  public void test_evaluate_failure() {
+    Result<?> result = CompiledValuePath.of("Trade.Product.Notional.Wibble").evaluate(RESULTS, 0);
+    assertThat(result.isFailure()).isTrue();
+    assertThat(result.getFailure().getMessage()).contains("Wibble");
+    assertThat(result.getFailure().getMessage()).contains(Double.class.getName());
+  }
+
+  //-------------------------------------------------------------------------
+  private static ReportCalculationResults reportResults() {
+    Column column = Column.of(Measure.of("PresentValue"));
+    List<Column> columns = ImmutableList.of(column);
+    ImmutableList.Builder<Result<?>> resultValues = ImmutableList.builder();
+    ImmutableList.Builder<Trade> trades = ImmutableList.builder();
+    for (int i = 0; i < ROW_COUNT; i++) {
+      resultValues.add(Result.success(CurrencyAmount.of(i % 2 == 0 ? Currency.GBP : Currency.USD, i)));
+      trades.add(trade("cpty" + i, i));
+    }
+    Results results = Results.of(ImmutableList.of(column.toHeader()), resultValues.build());
+    return ReportCalculationResults.of(LocalDate.now(ZoneOffset.UTC), trades.build(), columns, results);
+  }
+
+  private static Trade trade(String counterparty, double notional) {
+    TradeInfo tradeInfo = TradeInfo.builder()
+        .counterparty(StandardId.of("cpty", counterparty))
+        .build();
+    Fra fra = Fra.builder()
+        .buySell(BUY)
+        .notional(notional)
+        .startDate(date(2015, 8, 5))
+        .endDate(date(2015, 11, 5))
+        .paymentDate(AdjustableDate.of(date(2015, 8, 7)))
+        .fixedRate(0.25d)
+        .index(GBP_LIBOR_3M)
+        .build();
+    return FraTrade.builder()
+        .info(tradeInfo)
+        .product(fra)
+        .build();
+  }
+
+}
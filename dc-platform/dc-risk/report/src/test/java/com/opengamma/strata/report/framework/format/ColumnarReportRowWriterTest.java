@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.report.framework.format;
+
+import static com.opengamma.strata.collect.TestHelper.assertThrowsIllegalArg;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Test {@link ColumnarReportRowWriter} and {@link CsvReportRowWriter}.
+ */
+@Test
+public class ColumnarReportRowWriterTest {
+
+  private static final List<String> HEADERS = ImmutableList.of("Id", "Amount");
+  private static final List<List<String>> ROWS = ImmutableList.of(
+      ImmutableList.of("1", "100.5"),
+      ImmutableList.of("2", ""),
+      ImmutableList.of("3", "FAIL: échec"),
+      ImmutableList.of("4", "a,b"),
+      ImmutableList.of("5", "-7"));
+
+  //-------------------------------------------------------------------------
+  public void test_roundTrip() {
+    for (int rowGroupSize : new int[] {1, 2, 5, 100}) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      ColumnarReportRowWriter writer = ColumnarReportRowWriter.of(out, rowGroupSize);
+      writer.writeHeaders(HEADERS);
+      ROWS.forEach(writer::writeRow);
+      writer.finish();
+
+      List<ImmutableList<String>> read = ColumnarReportRowWriter.read(new ByteArrayInputStream(out.toByteArray()));
+      assertThat(read).hasSize(ROWS.size() + 1);
+      assertThat(read.get(0)).isEqualTo(HEADERS);
+      assertThat(read.subList(1, read.size())).isEqualTo(ROWS);
+    }
+  }
+
+  public void test_rowGroupWrittenWhenFull() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ColumnarReportRowWriter writer = ColumnarReportRowWriter.of(out, 2);
+    writer.writeHeaders(HEADERS);
+    writer.writeRow(ROWS.get(0));
+    writer.finish();
+    int oneRowSize = out.size();
+
+    out = new ByteArrayOutputStream();
+    writer = ColumnarReportRowWriter.of(out, 2);
+    writer.writeHeaders(HEADERS);
+    writer.writeRow(ROWS.get(0));
+    writer.writeRow(ROWS.get(1));
+    writer.writeRow(ROWS.get(2));
+    writer.finish();
+    // two row groups, each with a row count
+    assertThat(out.size()).isGreaterThan(oneRowSize + 4);
+    assertThat(ColumnarReportRowWriter.read(new ByteArrayInputStream(out.toByteArray()))).hasSize(4);
+  }
+
+  public void test_empty() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ColumnarReportRowWriter writer = ColumnarReportRowWriter.of(out);
+    writer.writeHeaders(HEADERS);
+    writer.finish();
+    assertThat(ColumnarReportRowWriter.read(new ByteArrayInputStream(out.toByteArray())))
+        .containsExactly(ImmutableList.copyOf(HEADERS));
+  }
+
+  public void test_invalid() {
+    ColumnarReportRowWriter writer = ColumnarReportRowWriter.of(new ByteArrayOutputStream());
+    assertThrowsIllegalArg(() -> writer.writeRow(ROWS.get(0)));
+    writer.writeHeaders(HEADERS);
+    assertThrowsIllegalArg(() -> writer.writeHeaders(HEADERS));
+    assertThrowsIllegalArg(() -> writer.writeRow(ImmutableList.of("1")));
+    assertThrowsIllegalArg(() -> ColumnarReportRowWriter.of(new ByteArrayOutputStream(), 0));
+    assertThrowsIllegalArg(() -> ColumnarReportRowWriter.read(new ByteArrayInputStream(new byte[] {0, 0, 0, 1})));
+  }
+
+  //-------------------------------------------------------------------------
+  public void test_csv() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    CsvReportRowWriter writer = CsvReportRowWriter.of(out);
+    writer.writeHeaders(HEADERS);
+    writer.writeRow(ROWS.get(0));
+    writer.writeRow(ROWS.get(3));
+    writer.finish();
+    String csv = new String(out.toByteArray(), StandardCharsets.UTF_8);
+    assertThat(csv.split("\\r?\\n")).containsExactly("Id,Amount", "1,100.5", "4,\"a,b\"");
+    assertThrowsIllegalArg(() -> writer.writeRow(ImmutableList.of("1")));
+  }
+
+}
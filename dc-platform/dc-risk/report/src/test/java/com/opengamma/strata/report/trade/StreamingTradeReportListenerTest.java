@@ -0,0 +1,193 @@
+/**
+ * Copyright (C) 2016 - present by OpenGamma Inc. and the OpenGamma group of companies
+ *
+ * Please see distribution for license.
+ */
+package com.opengamma.strata.report.trade;
+
+import static com.opengamma.strata.basics.index.IborIndices.GBP_LIBOR_3M;
+import static com.opengamma.strata.collect.Guavate.toImmutableList;
+import static com.opengamma.strata.collect.TestHelper.date;
+import static com.opengamma.strata.product.common.BuySell.BUY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.date.AdjustableDate;
+import com.opengamma.strata.calc.Column;
+import com.opengamma.strata.calc.Measure;
+import com.opengamma.strata.calc.Results;
+import com.opengamma.strata.calc.runner.CalculationResult;
+import com.opengamma.strata.collect.result.FailureReason;
+import com.opengamma.strata.collect.result.Result;
+import com.opengamma.strata.product.Trade;
+import com.opengamma.strata.product.TradeInfo;
+import com.opengamma.strata.product.fra.Fra;
+import com.opengamma.strata.product.fra.FraTrade;
+import com.opengamma.strata.report.ReportCalculationResults;
+import com.opengamma.strata.report.framework.format.ColumnarReportRowWriter;
+import com.opengamma.strata.report.framework.format.CsvReportRowWriter;
+import com.opengamma.strata.report.framework.format.ReportOutputFormat;
+import com.opengamma.strata.report.framework.format.ReportRowWriter;
+
+/**
+ * Test {@link StreamingTradeReportListener}.
+ */
+@Test
+public class StreamingTradeReportListenerTest {
+
+  private static final LocalDate VAL_DATE = date(2016, 6, 30);
+  private static final List<Column> COLUMNS = ImmutableList.of(
+      Column.of(Measure.of("PresentValue")),
+      Column.of(Measure.of("ParRate")));
+  private static final List<Trade> TRADES = ImmutableList.of(
+      trade("cpty1", 1_000_000),
+      trade("cpty2", 10_000_000));
+  private static final List<Result<?>> RESULTS = ImmutableList.of(
+      Result.success(CurrencyAmount.of(Currency.GBP, 2d)),
+      Result.success(0.0125d),
+      Result.success(CurrencyAmount.of(Currency.GBP, 3d)),
+      Result.failure(FailureReason.CALCULATION_FAILED, "Bad rate"));
+  private static final TradeReportTemplate TEMPLATE = TradeReportTemplate.builder()
+      .columns(
+          TradeReportColumn.builder().header("Counterparty").value("Trade.Counterparty.Value").build(),
+          TradeReportColumn.builder().header("PV").value("Measures.PresentValue").build(),
+          TradeReportColumn.builder().header("Par Rate").value("Measures.ParRate").build(),
+          TradeReportColumn.builder().header("Ignored").value("Measures.ParRate").ignoreFailures(true).build(),
+          TradeReportColumn.builder().header("Empty").build())
+      .build();
+
+  //-------------------------------------------------------------------------
+  public void test_sameAsReport() {
+    ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+    StreamingTradeReportListener listener =
+        StreamingTradeReportListener.of(TEMPLATE, COLUMNS, VAL_DATE, CsvReportRowWriter.of(streamed));
+    // the rows complete in order, but the cells arrive in a different order
+    listener.resultReceived(TRADES.get(1), CalculationResult.of(1, 1, RESULTS.get(3)));
+    listener.resultReceived(TRADES.get(0), CalculationResult.of(0, 0, RESULTS.get(0)));
+    listener.resultReceived(TRADES.get(0), CalculationResult.of(0, 1, RESULTS.get(1)));
+    listener.resultReceived(TRADES.get(1), CalculationResult.of(1, 0, RESULTS.get(2)));
+    listener.calculationsComplete();
+    assertThat(listener.result()).isEqualTo(2);
+
+    Results results = Results.of(
+        COLUMNS.stream().map(Column::toHeader).collect(toImmutableList()), RESULTS);
+    ReportCalculationResults calculationResults = ReportCalculationResults.of(VAL_DATE, TRADES, COLUMNS, results);
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    TradeReportRunner.INSTANCE.runReport(calculationResults, TEMPLATE).writeCsv(expected);
+    assertThat(new String(streamed.toByteArray(), StandardCharsets.UTF_8))
+        .isEqualTo(new String(expected.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  public void test_rowWrittenWhenComplete() {
+    List<List<String>> rows = new ArrayList<>();
+    StreamingTradeReportListener listener = StreamingTradeReportListener.of(
+        TEMPLATE, COLUMNS, VAL_DATE, new CapturingWriter(rows, ReportOutputFormat.CSV));
+    assertThat(rows).hasSize(1);
+    listener.resultReceived(TRADES.get(1), CalculationResult.of(1, 0, RESULTS.get(2)));
+    listener.resultReceived(TRADES.get(1), CalculationResult.of(1, 1, RESULTS.get(3)));
+    assertThat(rows).hasSize(2);
+    assertThat(rows.get(1).get(0)).isEqualTo("cpty2");
+    assertThat(rows.get(1).get(2)).startsWith("FAIL: ");
+    assertThat(rows.get(1).get(3)).isEmpty();
+    // an incomplete row is written when the calculations complete
+    listener.resultReceived(TRADES.get(0), CalculationResult.of(0, 0, RESULTS.get(0)));
+    assertThat(rows).hasSize(2);
+    listener.calculationsComplete();
+    assertThat(rows).hasSize(3);
+    assertThat(rows.get(2).get(0)).isEqualTo("cpty1");
+    assertThat(rows.get(2).get(2)).startsWith("FAIL: ");
+    assertThat(listener.result()).isEqualTo(2);
+  }
+
+  public void test_outputFormatOfWriter() {
+    for (ReportOutputFormat format : ReportOutputFormat.values()) {
+      List<List<String>> rows = new ArrayList<>();
+      StreamingTradeReportListener listener = StreamingTradeReportListener.of(
+          TEMPLATE, COLUMNS, VAL_DATE, new CapturingWriter(rows, format));
+      listener.resultReceived(TRADES.get(0), CalculationResult.of(0, 0, RESULTS.get(0)));
+      listener.resultReceived(TRADES.get(0), CalculationResult.of(0, 1, RESULTS.get(1)));
+      assertThat(rows.get(1).get(2))
+          .isEqualTo(TradeReportFormatter.INSTANCE.formatResult(TEMPLATE.getColumns().get(2), RESULTS.get(1), format));
+    }
+  }
+
+  public void test_columnar() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    StreamingTradeReportListener listener =
+        StreamingTradeReportListener.of(TEMPLATE, COLUMNS, VAL_DATE, ColumnarReportRowWriter.of(out, 1));
+    for (int row = 0; row < TRADES.size(); row++) {
+      for (int col = 0; col < COLUMNS.size(); col++) {
+        listener.resultReceived(TRADES.get(row), CalculationResult.of(row, col, RESULTS.get(row * 2 + col)));
+      }
+    }
+    listener.calculationsComplete();
+    List<? extends List<String>> read = ColumnarReportRowWriter.read(new ByteArrayInputStream(out.toByteArray()));
+    assertThat(read).hasSize(3);
+    assertThat(read.get(0)).containsExactly("Counterparty", "PV", "Par Rate", "Ignored", "Empty");
+    assertThat(read.get(1).get(0)).isEqualTo("cpty1");
+    assertThat(read.get(2).get(0)).isEqualTo("cpty2");
+  }
+
+  //-------------------------------------------------------------------------
+  private static Trade trade(String counterparty, double notional) {
+    TradeInfo tradeInfo = TradeInfo.builder()
+        .counterparty(StandardId.of("cpty", counterparty))
+        .build();
+    Fra fra = Fra.builder()
+        .buySell(BUY)
+        .notional(notional)
+        .startDate(date(2015, 8, 5))
+        .endDate(date(2015, 11, 5))
+        .paymentDate(AdjustableDate.of(date(2015, 8, 7)))
+        .fixedRate(0.25d)
+        .index(GBP_LIBOR_3M)
+        .build();
+    return FraTrade.builder()
+        .info(tradeInfo)
+        .product(fra)
+        .build();
+  }
+
+  // writer that captures the rows
+  private static final class CapturingWriter implements ReportRowWriter {
+    private final List<List<String>> rows;
+    private final ReportOutputFormat format;
+
+    private CapturingWriter(List<List<String>> rows, ReportOutputFormat format) {
+      this.rows = rows;
+      this.format = format;
+    }
+
+    @Override
+    public ReportOutputFormat getOutputFormat() {
+      return format;
+    }
+
+    @Override
+    public void writeHeaders(List<String> headers) {
+      rows.add(headers);
+    }
+
+    @Override
+    public void writeRow(List<String> cells) {
+      rows.add(cells);
+    }
+
+    @Override
+    public void finish() {
+    }
+  }
+
+}
@@ -1,11 +1,9 @@
 package com.daocheng.clearout;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.lang.reflect.Type;
 
 import org.joda.beans.Bean;
-import org.joda.beans.ser.JodaBeanSer;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
@@ -13,57 +11,60 @@ import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.io.Files;
+import com.daocheng.common.JodaBeanFormat;
 
+/**
+ * Reads and writes Joda-Beans as JSON or as the Joda-Beans binary format.
+ * <p>
+ * The format is chosen by the {@code Content-Type} of the message, as negotiated by Spring
+ * from the {@code Accept} header of the request. Both formats are streamed.
+ */
 public class JodaBeanHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object>{
 
+	public static final MediaType BINARY = MediaType.parseMediaType(JodaBeanFormat.BINARY.getMediaType());
+
 	//Register jodabean as HTTPMessage converter
 	public JodaBeanHttpMessageConverter(){
-		super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+		super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"), BINARY);
 	}
-	
+
 	@Override
 	public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
 			throws IOException, HttpMessageNotReadableException {
-		
-		ObjectMapper objectMapper = new ObjectMapper();
-		
-		JsonNode rootNode = objectMapper.readTree(inputMessage.getBody());
-		
-		JsonNode beanNode = rootNode.path("@bean");
-		String beanName = beanNode.asText();
-		Bean requestBean = JodaBeanSer.PRETTY.jsonReader().read(rootNode.asText());
-		return requestBean;
+
+		// canRead only accepts bean classes
+		return readInternal((Class<?>) type, inputMessage);
 	}
 
 	@Override
 	protected void writeInternal(Object t, Type type, HttpOutputMessage outputMessage)
 			throws IOException, HttpMessageNotWritableException {
-		// TODO Auto-generated method stub
-		
+
+		format(outputMessage.getHeaders().getContentType()).write((Bean) t, outputMessage.getBody());
 	}
 
 	@Override
 	protected boolean supports(Class<?> clazz) {
-		// should not be called, since we override canRead/Write instead
-		throw new UnsupportedOperationException();
+		return Bean.class.isAssignableFrom(clazz);
 	}
 
 	@Override
 	protected Object readInternal(Class<? extends Object> clazz, HttpInputMessage inputMessage)
 			throws IOException, HttpMessageNotReadableException {
-		// TODO Auto-generated method stub
-		return null;
+
+		try {
+			return format(inputMessage.getHeaders().getContentType()).read(inputMessage.getBody(), clazz);
+		} catch (RuntimeException ex) {
+			throw new HttpMessageNotReadableException("Invalid Joda-Bean: " + ex.getMessage(), ex);
+		}
 	}
-	
+
 	@Override
 	public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
 		if (!canRead(mediaType)) {
 			return false;
 		}
-		return true;
+		return type instanceof Class && supports((Class<?>) type);
 	}
 
 	@Override
@@ -71,7 +72,12 @@ public class JodaBeanHttpMessageConverter extends AbstractGenericHttpMessageConv
 		if (!canWrite(mediaType)) {
 			return false;
 		}
-		return true;
+		return clazz != null && supports(clazz);
+	}
+
+	// the format of a content type
+	private static JodaBeanFormat format(MediaType contentType) {
+		return BINARY.includes(contentType) ? JodaBeanFormat.BINARY : JodaBeanFormat.JSON;
 	}
 
 }
@@ -1,23 +1,41 @@
 package com.daocheng.clearout;
 
+import java.nio.file.Paths;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
+import com.daocheng.trade.repository.TradeRepository;
+import com.daocheng.trade.state.TradeLifecycleStore;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoClient;
 
 @Configuration
 public class TradeAPISeverConfig extends WebMvcConfigurerAdapter {
-	
+
 	@Override
 	public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
 		super.configureMessageConverters(converters);
-		converters.add(new JodaBeanHttpMessageConverter());
+		// ahead of Jackson, so that Joda-Beans are never written as plain Java beans
+		converters.add(0, new JodaBeanHttpMessageConverter());
+	}
+
+	@Bean
+	public TradeRepository tradeRepository(MongoClient mongoClient, MongoTemplate mongoTemplate) {
+		String database = mongoTemplate.getDb().getName();
+		return TradeRepository.load(mongoClient.getDatabase(database).getCollection("trade"));
+	}
+
+	@Bean(destroyMethod = "close")
+	public TradeLifecycleStore tradeLifecycleStore(@Value("${trade.lifecycle.directory}") String directory) {
+		return TradeLifecycleStore.open(Paths.get(directory));
 	}
 
 	@Bean
@@ -9,7 +9,7 @@ public class DBUtil {
 
 	static MongoDatabase dbCon = null;
 
-	public static MongoDatabase getDBConnection() {
+	public static synchronized MongoDatabase getDBConnection() {
 		if (dbCon == null) {
 			MongoClient mongoClient = new MongoClient("localhost", 27017);
 			dbCon = mongoClient.getDatabase("dc-tradeapi");
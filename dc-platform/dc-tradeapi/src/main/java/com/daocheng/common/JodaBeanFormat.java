@@ -0,0 +1,156 @@
+package com.daocheng.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.joda.beans.Bean;
+import org.joda.beans.ser.JodaBeanSer;
+
+/**
+ * The wire formats of Joda-Beans on the trade REST endpoints.
+ * <p>
+ * JSON is read and written as a stream of tokens, without building an intermediate tree.
+ * The binary format is the Joda-Beans MessagePack encoding, which is much smaller and faster
+ * to read and write than JSON for trades with full schedules.
+ * <p>
+ * Both formats are compact, and neither buffers the whole message as a string.
+ */
+public enum JodaBeanFormat {
+
+	/**
+	 * Joda-Beans JSON.
+	 */
+	JSON("application/json") {
+		@Override
+		public <T> T read(InputStream input, Class<T> rootType) throws IOException {
+			return readJson(new InputStreamReader(input, StandardCharsets.UTF_8), rootType);
+		}
+
+		@Override
+		public void write(Bean bean, OutputStream output) throws IOException {
+			Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+			JodaBeanSer.COMPACT.jsonWriter().write(bean, writer);
+			writer.flush();
+		}
+	},
+	/**
+	 * Joda-Beans binary, which is MessagePack.
+	 */
+	BINARY(JodaBeanFormat.BINARY_MEDIA_TYPE) {
+		@Override
+		public <T> T read(InputStream input, Class<T> rootType) throws IOException {
+			return JodaBeanSer.COMPACT.binReader().read(input, rootType);
+		}
+
+		@Override
+		public void write(Bean bean, OutputStream output) throws IOException {
+			JodaBeanSer.COMPACT.binWriter().write(bean, output);
+		}
+	};
+
+	/**
+	 * The media type of the binary format.
+	 */
+	public static final String BINARY_MEDIA_TYPE = "application/x-msgpack";
+
+	private final String mediaType;
+
+	private JodaBeanFormat(String mediaType) {
+		this.mediaType = mediaType;
+	}
+
+	/**
+	 * Finds the format named by a {@code Content-Type} or {@code Accept} header.
+	 * <p>
+	 * The binary format is used if the header names its media type, otherwise JSON is used.
+	 *
+	 * @param header  the header value, may be null
+	 * @return the format
+	 */
+	public static JodaBeanFormat ofHeader(String header) {
+		if (header != null && header.contains(BINARY.mediaType)) {
+			return BINARY;
+		}
+		return JSON;
+	}
+
+	/**
+	 * Gets the media type of the format.
+	 *
+	 * @return the media type
+	 */
+	public String getMediaType() {
+		return mediaType;
+	}
+
+	//-------------------------------------------------------------------------
+	/**
+	 * Reads a bean from the stream, which is not closed.
+	 *
+	 * @param <T>  the root type
+	 * @param input  the input stream
+	 * @param rootType  the type of the bean, which may be a supertype of it
+	 * @return the bean
+	 * @throws IOException if the stream cannot be read
+	 */
+	public abstract <T> T read(InputStream input, Class<T> rootType) throws IOException;
+
+	/**
+	 * Writes a bean to the stream, which is flushed but not closed.
+	 *
+	 * @param bean  the bean
+	 * @param output  the output stream
+	 * @throws IOException if the stream cannot be written
+	 */
+	public abstract void write(Bean bean, OutputStream output) throws IOException;
+
+	/**
+	 * Writes a bean to a byte array.
+	 *
+	 * @param bean  the bean
+	 * @return the encoded bean
+	 */
+	public byte[] write(Bean bean) {
+		ByteArrayOutputStream output = new ByteArrayOutputStream(4096);
+		try {
+			write(bean, output);
+		} catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+		return output.toByteArray();
+	}
+
+	//-------------------------------------------------------------------------
+	/**
+	 * Reads a bean from Joda-Beans JSON without building an intermediate tree.
+	 *
+	 * @param <T>  the root type
+	 * @param json  the JSON
+	 * @param rootType  the type of the bean, which may be a supertype of it
+	 * @return the bean
+	 */
+	public static <T> T readJson(String json, Class<T> rootType) {
+		return readJson(new StringReader(json), rootType);
+	}
+
+	/**
+	 * Reads a bean from Joda-Beans JSON without building an intermediate tree.
+	 *
+	 * @param <T>  the root type
+	 * @param reader  the reader of the JSON, which is not closed
+	 * @param rootType  the type of the bean, which may be a supertype of it
+	 * @return the bean
+	 */
+	public static <T> T readJson(Reader reader, Class<T> rootType) {
+		return JodaBeanSer.COMPACT.jsonReader().read(reader, rootType);
+	}
+
+}
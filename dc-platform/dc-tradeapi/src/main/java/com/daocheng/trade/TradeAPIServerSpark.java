@@ -2,55 +2,183 @@ package com.daocheng.trade;
 
 import static spark.Spark.*;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.mongodb.BasicDBObject;
-import com.mongodb.Block;
-import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Projections;
 import com.mongodb.util.JSON;
 import com.daocheng.common.DBUtil;
+import com.daocheng.common.JodaBeanFormat;
+import com.daocheng.trade.capture.TradeCapturePipeline;
 
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 import org.joda.beans.Bean;
-import org.joda.beans.ser.JodaBeanSer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class TradeAPIServerSpark {
 
 	static Logger logger = LoggerFactory.getLogger(TradeAPIServerSpark.class);
+
+	static final int CAPTURE_BUFFER_SIZE = 65536;
+	static final int CAPTURE_VALIDATOR_THREADS = Runtime.getRuntime().availableProcessors();
+	static final int CAPTURE_MAX_BATCH_SIZE = 1000;
+	static final long CAPTURE_OFFER_TIMEOUT_MILLIS = 5000;
+	static final long CAPTURE_RESULT_TIMEOUT_MILLIS = 30000;
+	static final String TIMEOUT_MESSAGE = "Timed out waiting for the trade to be saved, it may still be saved";
 	
 	public static void main(String[] args) {
 
+		TradeCapturePipeline pipeline = TradeCapturePipeline.start(
+				DBUtil.getDBConnection().getCollection("trade"),
+				CAPTURE_BUFFER_SIZE,
+				CAPTURE_VALIDATOR_THREADS,
+				CAPTURE_MAX_BATCH_SIZE,
+				CAPTURE_OFFER_TIMEOUT_MILLIS);
 		
 		get("/trade/:tradeid", (request, response) -> {
 			
-			FindIterable<Document> iterable  =  DBUtil.getDBConnection().getCollection("trade").find(new Document("info.id", "trade~" + request.params(":tradeid")));
+			MongoCollection<Document> collection = DBUtil.getDBConnection().getCollection("trade");
+			Document filter = new Document("info.id", "trade~" + request.params(":tradeid"));
 			
-			StringBuilder tradeJsonBuilder = new StringBuilder();
-			iterable.forEach(new Block<Document>() {
-			    @Override
-			    public void apply(final Document document) {
-			    	String tradeJson = JSON.serialize(document);
-			    	tradeJsonBuilder.append(tradeJson);
-			    }
-			});
-
-			return tradeJsonBuilder.toString();
+			if (JodaBeanFormat.ofHeader(request.headers("Accept")) == JodaBeanFormat.BINARY) {
+				byte[] binary = findBinary(collection, filter);
+				if (binary == null) {
+					response.status(404);
+					return "";
+				}
+				response.type(JodaBeanFormat.BINARY_MEDIA_TYPE);
+				return binary;
+			}
+
+			// each document is written as it is read, rather than building the whole response
+			response.type("application/json");
+			Writer writer = new BufferedWriter(new OutputStreamWriter(response.raw().getOutputStream(), StandardCharsets.UTF_8));
+			for (Document document : collection.find(filter).projection(Projections.exclude(TradeCapturePipeline.BINARY_FIELD))) {
+				writer.write(JSON.serialize(document));
+			}
+			writer.flush();
+			return "";
 		});
 
 		post("/trade", (request, response) -> {
+			try {
+				if (JodaBeanFormat.ofHeader(request.contentType()) == JodaBeanFormat.BINARY) {
+					Bean tradeBean = JodaBeanFormat.BINARY.read(new ByteArrayInputStream(request.bodyAsBytes()), Bean.class);
+					pipeline.submit(tradeBean).get(CAPTURE_RESULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+				} else {
+					pipeline.submit(request.body()).get(CAPTURE_RESULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+				}
+				return true;
+			} catch (ExecutionException ex) {
+				response.status(status(ex.getCause()));
+				return ex.getCause().getMessage();
+			} catch (TimeoutException ex) {
+				response.status(status(ex));
+				return TIMEOUT_MESSAGE;
+			} catch (RuntimeException ex) {
+				response.status(400);
+				return "Invalid trade: " + ex.getMessage();
+			}
+		});
+
+		post("/trades", (request, response) -> {
 			
-			String tradeDetail  = request.body();
-			
-			Bean tradeBean = JodaBeanSer.PRETTY.jsonReader().read(tradeDetail);
-			logger.debug("Receiving Trade type: "+ tradeBean.getClass());
+			JsonArray trades;
+			try {
+				trades = new JsonParser().parse(request.body()).getAsJsonArray();
+			} catch (RuntimeException ex) {
+				response.status(400);
+				return "Expected a JSON array of trades";
+			}
+			List<String> tradeDetails = new ArrayList<>();
+			for (JsonElement trade : trades) {
+				tradeDetails.add(trade.toString());
+			}
+			logger.debug("Receiving " + tradeDetails.size() + " trades");
 			
-			logger.debug("Save the trade");
+			List<CompletableFuture<Void>> results = pipeline.submitAll(tradeDetails);
+			// the trades are written together, so they share one deadline
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CAPTURE_RESULT_TIMEOUT_MILLIS);
+			JsonArray errors = new JsonArray();
+			int saved = 0;
+			for (int i = 0; i < results.size(); i++) {
+				try {
+					results.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+					saved++;
+				} catch (ExecutionException ex) {
+					errors.add(error(i, ex.getCause(), ex.getCause().getMessage()));
+				} catch (TimeoutException ex) {
+					errors.add(error(i, ex, TIMEOUT_MESSAGE));
+				}
+			}
+			JsonObject result = new JsonObject();
+			result.addProperty("saved", saved);
+			result.add("errors", errors);
+			response.type("application/json");
+			return result.toString();
+		});
 
-			Document dbObject=  Document.parse(tradeDetail);
-			DBUtil.getDBConnection().getCollection("trade").insertOne(dbObject);
+		Runtime.getRuntime().addShutdownHook(new Thread(pipeline::close));
+	}
 
-			return true;
-		});
+	// the trade in the binary format, as stored by the capture pipeline or converted from an older document
+	static byte[] findBinary(MongoCollection<Document> collection, Document filter) {
+		RawBsonDocument stored = collection.withDocumentClass(RawBsonDocument.class)
+				.find(filter)
+				.projection(Projections.include(TradeCapturePipeline.BINARY_FIELD))
+				.first();
+		if (stored == null) {
+			return null;
+		}
+		if (stored.containsKey(TradeCapturePipeline.BINARY_FIELD)) {
+			return stored.getBinary(TradeCapturePipeline.BINARY_FIELD).getData();
+		}
+		Document document = collection.find(filter).projection(Projections.excludeId()).first();
+		if (document == null) {
+			return null;
+		}
+		Bean tradeBean = JodaBeanFormat.readJson(JSON.serialize(document), Bean.class);
+		return JodaBeanFormat.BINARY.write(tradeBean);
+	}
+
+	// the error reported for a trade in a batch
+	private static JsonObject error(int index, Throwable failure, String message) {
+		JsonObject error = new JsonObject();
+		error.addProperty("index", index);
+		error.addProperty("status", status(failure));
+		error.addProperty("message", message);
+		return error;
+	}
 
+	// the HTTP status of a failed capture
+	static int status(Throwable failure) {
+		if (failure instanceof IllegalArgumentException) {
+			return 400;
+		}
+		if (failure instanceof RejectedExecutionException) {
+			return 503;
+		}
+		if (failure instanceof TimeoutException) {
+			return 504;
+		}
+		return 500;
 	}
 }
@@ -0,0 +1,353 @@
+package com.daocheng.trade.capture;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.bson.BsonBinarySubType;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.json.JsonReader;
+import org.joda.beans.Bean;
+import org.joda.beans.ser.JodaBeanSer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.daocheng.common.JodaBeanFormat;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.WriteConcernError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.opengamma.strata.product.Trade;
+
+/**
+ * Captures trades posted as Joda-Beans into MongoDB.
+ * <p>
+ * Trades are accepted into a bounded buffer and validated on a pool of worker threads.
+ * A single writer thread takes whatever validated trades are waiting, up to the maximum batch size,
+ * and inserts them with one ordered, journaled bulk write. Every trade in the batch is acknowledged
+ * when that write returns, so the cost of a round trip and a journal commit is shared by the batch.
+ * The writer never waits for a batch to fill, so a lone trade is written as soon as it is validated.
+ * <p>
+ * Each trade is read as a bean once to validate it, and its JSON is converted once, straight to the BSON
+ * bytes that are inserted, without building a {@link Document} that would then be encoded again.
+ * The trade is also stored in the Joda-Beans binary format, in the {@link #BINARY_FIELD} of the document,
+ * so that it can be served in that format without decoding the document.
+ * <p>
+ * If the write fails before any trade is known to be saved, or the journal commit is not acknowledged,
+ * every trade in the batch fails. An unexpected failure fails the batch being written, not the pipeline.
+ * <p>
+ * When the buffer is full, trades are rejected with {@link RejectedExecutionException} after the offer timeout.
+ * Trades submitted while the pipeline is closing are either accepted and written, or rejected.
+ * Trades that are not valid Joda-Bean trades fail with {@link IllegalArgumentException}.
+ */
+public class TradeCapturePipeline implements AutoCloseable {
+
+	static Logger logger = LoggerFactory.getLogger(TradeCapturePipeline.class);
+
+	/**
+	 * The field of the document holding the trade in the Joda-Beans binary format.
+	 * <p>
+	 * This is not part of the Joda-Bean, so it is excluded when the document is read as JSON.
+	 */
+	public static final String BINARY_FIELD = "_binary";
+
+	/**
+	 * How long the worker threads wait for work before checking whether the pipeline is closed.
+	 */
+	private static final long POLL_MILLIS = 100;
+
+	private final MongoCollection<RawBsonDocument> collection;
+	private final BlockingQueue<PendingTrade> received;
+	private final BlockingQueue<PendingTrade> validated;
+	private final ExecutorService validators;
+	private final Thread writer;
+	private final int maxBatchSize;
+	private final long offerTimeoutMillis;
+	/**
+	 * Held for reading while a trade is offered, and for writing while the pipeline stops accepting trades.
+	 */
+	private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+	private volatile boolean accepting = true;
+	private volatile boolean validating = true;
+
+	/**
+	 * Creates and starts a pipeline writing to the collection.
+	 *
+	 * @param collection  the collection to insert the trades into
+	 * @param bufferSize  the number of trades that can wait for validation, and for writing
+	 * @param validatorThreads  the number of threads validating trades
+	 * @param maxBatchSize  the maximum number of trades in a bulk write
+	 * @param offerTimeoutMillis  how long to wait for space in a full buffer before rejecting a trade
+	 * @return the started pipeline
+	 */
+	public static TradeCapturePipeline start(
+			MongoCollection<Document> collection,
+			int bufferSize,
+			int validatorThreads,
+			int maxBatchSize,
+			long offerTimeoutMillis) {
+
+		TradeCapturePipeline pipeline = new TradeCapturePipeline(
+				collection, bufferSize, validatorThreads, maxBatchSize, offerTimeoutMillis);
+		for (int i = 0; i < validatorThreads; i++) {
+			pipeline.validators.execute(pipeline::validate);
+		}
+		pipeline.writer.start();
+		return pipeline;
+	}
+
+	private TradeCapturePipeline(
+			MongoCollection<Document> collection,
+			int bufferSize,
+			int validatorThreads,
+			int maxBatchSize,
+			long offerTimeoutMillis) {
+
+		if (bufferSize < 1 || validatorThreads < 1 || maxBatchSize < 1 || offerTimeoutMillis < 0) {
+			throw new IllegalArgumentException("Buffer size, validator threads and batch size must be positive");
+		}
+		this.collection = collection.withWriteConcern(WriteConcern.JOURNALED).withDocumentClass(RawBsonDocument.class);
+		this.received = new ArrayBlockingQueue<>(bufferSize);
+		this.validated = new ArrayBlockingQueue<>(bufferSize);
+		this.validators = Executors.newFixedThreadPool(validatorThreads, runnable -> {
+			Thread thread = new Thread(runnable, "trade-capture-validator");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.writer = new Thread(this::write, "trade-capture-writer");
+		this.writer.setDaemon(true);
+		this.maxBatchSize = maxBatchSize;
+		this.offerTimeoutMillis = offerTimeoutMillis;
+	}
+
+	//-------------------------------------------------------------------------
+	/**
+	 * Submits a trade for capture.
+	 * <p>
+	 * The future completes when the trade has been written, or fails if it was invalid,
+	 * rejected or could not be written.
+	 *
+	 * @param tradeJson  the trade as Joda-Bean JSON
+	 * @return the future completing when the trade has been written
+	 */
+	public CompletableFuture<Void> submit(String tradeJson) {
+		return submit(new PendingTrade(tradeJson, null));
+	}
+
+	/**
+	 * Submits a trade bean, such as one read from the binary format, for capture.
+	 * <p>
+	 * The trade is written as Joda-Bean JSON on a validator thread.
+	 *
+	 * @param tradeBean  the trade
+	 * @return the future completing when the trade has been written
+	 */
+	public CompletableFuture<Void> submit(Bean tradeBean) {
+		return submit(new PendingTrade(null, tradeBean));
+	}
+
+	// offers the trade to the buffer, a closing pipeline waits for the offer so the trade is drained or rejected
+	private CompletableFuture<Void> submit(PendingTrade trade) {
+		acceptLock.readLock().lock();
+		try {
+			if (!accepting || !received.offer(trade, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				trade.result.completeExceptionally(
+						new RejectedExecutionException("Trade capture buffer is full or closed"));
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			trade.result.completeExceptionally(new RejectedExecutionException("Interrupted", ex));
+		} finally {
+			acceptLock.readLock().unlock();
+		}
+		return trade.result;
+	}
+
+	/**
+	 * Submits trades for capture.
+	 * <p>
+	 * Each trade is captured independently, so an invalid trade does not prevent the others being written.
+	 *
+	 * @param tradeJsons  the trades as Joda-Bean JSON
+	 * @return the futures completing when each trade has been written, in the order of the trades
+	 */
+	public List<CompletableFuture<Void>> submitAll(List<String> tradeJsons) {
+		List<CompletableFuture<Void>> results = new ArrayList<>(tradeJsons.size());
+		for (String tradeJson : tradeJsons) {
+			results.add(submit(tradeJson));
+		}
+		return results;
+	}
+
+	/**
+	 * Stops accepting trades, and waits for the trades already accepted to be written.
+	 */
+	@Override
+	public void close() {
+		// no trade is offered after this, so the validators see every accepted trade before stopping
+		acceptLock.writeLock().lock();
+		try {
+			accepting = false;
+		} finally {
+			acceptLock.writeLock().unlock();
+		}
+		validators.shutdown();
+		try {
+			validators.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			validating = false;
+			writer.join();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		List<PendingTrade> stranded = new ArrayList<>();
+		received.drainTo(stranded);
+		validated.drainTo(stranded);
+		stranded.forEach(trade -> trade.result.completeExceptionally(
+				new RejectedExecutionException("Trade capture pipeline closed")));
+	}
+
+	//-------------------------------------------------------------------------
+	// validates trades until closed and the accepted trades are all validated
+	private void validate() {
+		try {
+			while (accepting || !received.isEmpty()) {
+				PendingTrade trade = received.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (trade != null && parse(trade)) {
+					validated.put(trade);
+				}
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// parses the trade, failing it if it is not a valid trade
+	private boolean parse(PendingTrade trade) {
+		try {
+			Bean bean = trade.bean != null ? trade.bean : JodaBeanFormat.readJson(trade.json, Bean.class);
+			if (!(bean instanceof Trade)) {
+				throw new IllegalArgumentException("Bean is not a trade: " + bean.getClass().getName());
+			}
+			logger.debug("Receiving Trade type: " + bean.getClass());
+			String json = trade.json != null ? trade.json : JodaBeanSer.COMPACT.jsonWriter().write(bean);
+			trade.document = toBson(json, JodaBeanFormat.BINARY.write(bean));
+			return true;
+		} catch (IllegalArgumentException ex) {
+			trade.result.completeExceptionally(ex);
+		} catch (RuntimeException ex) {
+			trade.result.completeExceptionally(new IllegalArgumentException("Invalid trade: " + ex.getMessage(), ex));
+		}
+		return false;
+	}
+
+	// converts the JSON directly to the BSON bytes of a document, adding the binary form as the last field
+	private static RawBsonDocument toBson(String json, byte[] binary) {
+		BasicOutputBuffer buffer = new BasicOutputBuffer();
+		try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+			writer.pipe(new JsonReader(json));
+		}
+		// the field replaces the zero ending the document, then the document is ended and its length corrected
+		buffer.truncateToPosition(buffer.getPosition() - 1);
+		buffer.writeByte(BsonType.BINARY.getValue());
+		buffer.writeCString(BINARY_FIELD);
+		buffer.writeInt32(binary.length);
+		buffer.writeByte(BsonBinarySubType.BINARY.getValue());
+		buffer.writeBytes(binary);
+		buffer.writeByte(0);
+		buffer.writeInt32(0, buffer.getPosition());
+		return new RawBsonDocument(buffer.toByteArray());
+	}
+
+	// writes batches of validated trades until closed and the validated trades are all written
+	private void write() {
+		List<PendingTrade> batch = new ArrayList<>(maxBatchSize);
+		try {
+			while (validating || !validated.isEmpty()) {
+				PendingTrade first = validated.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first != null) {
+					batch.add(first);
+					validated.drainTo(batch, maxBatchSize - 1);
+					try {
+						flush(batch);
+					} catch (Throwable ex) {
+						// the writer must outlive the batch, or every trade waiting on it would hang
+						logger.error("Unexpected failure saving " + batch.size() + " trades", ex);
+						batch.forEach(trade -> trade.result.completeExceptionally(ex));
+					}
+					batch.clear();
+				}
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// inserts the batch in order, acknowledging each trade
+	private void flush(List<PendingTrade> batch) {
+		List<InsertOneModel<RawBsonDocument>> inserts = new ArrayList<>(batch.size());
+		for (PendingTrade trade : batch) {
+			inserts.add(new InsertOneModel<>(trade.document));
+		}
+		try {
+			collection.bulkWrite(inserts, new BulkWriteOptions().ordered(true));
+			logger.debug("Saved " + batch.size() + " trades");
+			batch.forEach(trade -> trade.result.complete(null));
+
+		} catch (MongoBulkWriteException ex) {
+			WriteConcernError concernError = ex.getWriteConcernError();
+			if (ex.getWriteErrors().isEmpty() || concernError != null) {
+				// the writes may have been applied, but were not acknowledged as journaled
+				String message = concernError != null ? concernError.getMessage() : ex.getMessage();
+				logger.error("Failed to journal " + batch.size() + " trades: " + message);
+				batch.forEach(trade -> trade.result.completeExceptionally(
+						new IllegalStateException("Trade could not be journaled: " + message, ex)));
+				return;
+			}
+			// an ordered bulk write stops at the first failure, the trades after it were not attempted
+			BulkWriteError error = ex.getWriteErrors().get(0);
+			int failed = error.getIndex();
+			batch.subList(0, failed).forEach(trade -> trade.result.complete(null));
+			batch.get(failed).result.completeExceptionally(
+					new IllegalArgumentException("Trade could not be saved: " + error.getMessage(), ex));
+			if (failed + 1 < batch.size()) {
+				flush(batch.subList(failed + 1, batch.size()));
+			}
+
+		} catch (RuntimeException ex) {
+			logger.error("Failed to save " + batch.size() + " trades", ex);
+			batch.forEach(trade -> trade.result.completeExceptionally(ex));
+		}
+	}
+
+	//-------------------------------------------------------------------------
+	/**
+	 * A trade passing through the pipeline.
+	 */
+	private static final class PendingTrade {
+		private final String json;
+		private final Bean bean;
+		private final CompletableFuture<Void> result = new CompletableFuture<>();
+		private RawBsonDocument document;
+
+		private PendingTrade(String json, Bean bean) {
+			this.json = json;
+			this.bean = bean;
+		}
+	}
+
+}
@@ -1,53 +1,134 @@
 package com.daocheng.trade.controller;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.joda.beans.Bean;
 import org.joda.beans.ser.JodaBeanSer;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.RequestEntity;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.daocheng.clearout.JodaBeanHttpMessageConverter;
 import com.daocheng.clearout.ResponseBean;
-import com.mongodb.BasicDBObject;
-import com.mongodb.DBObject;
-import com.mongodb.util.JSON;
+import com.daocheng.common.JodaBeanFormat;
+import com.daocheng.trade.repository.TradeQuery;
+import com.daocheng.trade.repository.TradeRepository;
+import com.daocheng.trade.state.TradeLifecycleStore;
+import com.daocheng.trade.state.TradeState;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.product.Trade;
 
 //TODO: define a more meaningful Request/Response
 @RestController
 public class TradeController {
 
 	@Autowired
-	MongoTemplate mongoTemplate;
+	TradeRepository tradeRepository;
+	@Autowired
+	TradeLifecycleStore tradeLifecycleStore;
 
+	/**
+	 * Gets the trade as a {@link ResponseBean}, or as a Joda-Bean in the binary format if that is accepted.
+	 * <p>
+	 * If a time is given, such as '2017-06-30T12:00:00Z', the terms of the trade at that time are
+	 * reconstructed from the trade lifecycle log.
+	 */
 	@RequestMapping(value = "/trade/{tradeId}", method = RequestMethod.GET)
-	public ResponseBean getTrade(@PathVariable(value="tradeId") String tradeId) {
+	public ResponseEntity<?> getTrade(
+			@PathVariable(value="tradeId") String tradeId,
+			@RequestParam(value = "asOf", required = false) String asOf,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 		
 		//TODO: change trade~ with an enum
-		BasicDBObject dbObject = (BasicDBObject)mongoTemplate.getCollection("trade").findOne(new BasicDBObject("info.id", "trade~"+tradeId));
+		StandardId id = StandardId.of("trade", tradeId);
+		Optional<Trade> trade = asOf != null ?
+				tradeLifecycleStore.stateAsOf(id, Instant.parse(asOf)).map(TradeState::getTrade) :
+				tradeRepository.get(id);
+		if (!trade.isPresent()) {
+			return ResponseEntity.notFound().build();
+		}
 		
-		dbObject.removeField("_id");
-		String tradeJson = JSON.serialize(dbObject);
+		Bean tradeBean = (Bean) trade.get();
+		if (JodaBeanFormat.ofHeader(accept) == JodaBeanFormat.BINARY) {
+			return ResponseEntity.ok().contentType(JodaBeanHttpMessageConverter.BINARY).body(tradeBean);
+		}
+		
+		String tradeJson = JodaBeanSer.COMPACT.jsonWriter().write(tradeBean);
+		return ResponseEntity.ok(new ResponseBean(tradeBean.getClass().getName(), tradeJson));
+	}
+
+	/**
+	 * Finds the trades matching all of the criteria given, as a JSON array of Joda-Beans.
+	 * <p>
+	 * The counterparty is a standard identifier, such as 'example~BigBankA', and the product type is
+	 * the simple name of the product class, such as 'Swap'. The trade date range is inclusive.
+	 * <p>
+	 * Each trade is written to the response as it is read, rather than building the whole response.
+	 */
+	@RequestMapping(value = "/trades", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	public void findTrades(
+			@RequestParam(value = "book", required = false) String book,
+			@RequestParam(value = "counterparty", required = false) String counterparty,
+			@RequestParam(value = "productType", required = false) String productType,
+			@RequestParam(value = "tradeDateFrom", required = false) String tradeDateFrom,
+			@RequestParam(value = "tradeDateTo", required = false) String tradeDateTo,
+			HttpServletResponse response) throws IOException {
 		
-//		T jodaBean = JodaBeanSer.PRETTY.jsonReader().read(tradeJson, beanType);
+		TradeQuery query = TradeQuery.all()
+				.withBook(book)
+				.withCounterparty(counterparty != null ? StandardId.parse(counterparty) : null)
+				.withProductType(productType)
+				.withTradeDates(
+						tradeDateFrom != null ? LocalDate.parse(tradeDateFrom) : null,
+						tradeDateTo != null ? LocalDate.parse(tradeDateTo) : null);
 		
-		String jodaBeanClass = dbObject.getString("@bean");
-		return new ResponseBean(jodaBeanClass, tradeJson);
+		response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+		Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+		writer.write('[');
+		boolean first = true;
+		for (Trade trade : tradeRepository.query(query)) {
+			if (!first) {
+				writer.write(',');
+			}
+			JodaBeanSer.COMPACT.jsonWriter().write((Bean) trade, writer);
+			first = false;
+		}
+		writer.write(']');
+		writer.flush();
 	}
 
-	@RequestMapping(value = "/trade", method = RequestMethod.POST)
-	public void saveTrade(RequestEntity<String> requestEntity) {
-	        System.out.println("request body : " + requestEntity.getBody());
-	        HttpHeaders headers = requestEntity.getHeaders();
-	        System.out.println("request headers : " + headers);
-	        HttpMethod method = requestEntity.getMethod();
-	        System.out.println("request method : " + method);
+	/**
+	 * Saves a trade sent as Joda-Bean JSON or in the Joda-Beans binary format.
+	 * <p>
+	 * The trade is first recorded in the trade lifecycle log, as a new trade or an amendment,
+	 * so a trade that has been cancelled or novated is rejected.
+	 */
+	@RequestMapping(value = "/trade", method = RequestMethod.POST,
+			consumes = {MediaType.APPLICATION_JSON_VALUE, JodaBeanFormat.BINARY_MEDIA_TYPE})
+	public void saveTrade(@RequestBody Bean trade) {
+		if (!(trade instanceof Trade)) {
+			throw new IllegalArgumentException("Bean is not a trade: " + trade.getClass().getName());
+		}
+		tradeLifecycleStore.save((Trade) trade);
+		tradeRepository.save((Trade) trade);
 	}
 	
 }
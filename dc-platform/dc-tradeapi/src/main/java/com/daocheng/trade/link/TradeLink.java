@@ -1,5 +1,74 @@
 package com.daocheng.trade.link;
 
-public class TradeLink {
+import java.util.Objects;
+
+import com.opengamma.strata.basics.StandardId;
+
+/**
+ * A directed link from one trade to another.
+ * <p>
+ * Links are recorded in the trade lifecycle log, and are held by the state of both trades.
+ */
+public final class TradeLink {
+
+	private final TradeLinkType type;
+	private final StandardId fromTradeId;
+	private final StandardId toTradeId;
+
+	/**
+	 * Obtains a link between two trades.
+	 *
+	 * @param type  the type of link
+	 * @param fromTradeId  the identifier of the trade the link is from
+	 * @param toTradeId  the identifier of the trade the link is to
+	 * @return the link
+	 */
+	public static TradeLink of(TradeLinkType type, StandardId fromTradeId, StandardId toTradeId) {
+		return new TradeLink(type, fromTradeId, toTradeId);
+	}
+
+	private TradeLink(TradeLinkType type, StandardId fromTradeId, StandardId toTradeId) {
+		this.type = Objects.requireNonNull(type, "type");
+		this.fromTradeId = Objects.requireNonNull(fromTradeId, "fromTradeId");
+		this.toTradeId = Objects.requireNonNull(toTradeId, "toTradeId");
+		if (fromTradeId.equals(toTradeId)) {
+			throw new IllegalArgumentException("Trade cannot be linked to itself: " + fromTradeId);
+		}
+	}
+
+	//-------------------------------------------------------------------------
+	public TradeLinkType getType() {
+		return type;
+	}
+
+	public StandardId getFromTradeId() {
+		return fromTradeId;
+	}
+
+	public StandardId getToTradeId() {
+		return toTradeId;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (obj instanceof TradeLink) {
+			TradeLink other = (TradeLink) obj;
+			return type == other.type && fromTradeId.equals(other.fromTradeId) && toTradeId.equals(other.toTradeId);
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(type, fromTradeId, toTradeId);
+	}
+
+	@Override
+	public String toString() {
+		return "TradeLink[" + type + ", " + fromTradeId + " -> " + toTradeId + "]";
+	}
 
 }
@@ -0,0 +1,21 @@
+package com.daocheng.trade.link;
+
+/**
+ * The type of a link between two trades.
+ */
+public enum TradeLinkType {
+
+	/**
+	 * The second trade replaced the first when it was novated to a new counterparty.
+	 */
+	NOVATION,
+	/**
+	 * The trades were executed together as a package.
+	 */
+	PACKAGE,
+	/**
+	 * The second trade hedges the first.
+	 */
+	HEDGE;
+
+}
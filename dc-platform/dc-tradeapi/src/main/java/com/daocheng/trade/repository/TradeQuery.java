@@ -0,0 +1,118 @@
+package com.daocheng.trade.repository;
+
+import java.time.LocalDate;
+
+import com.opengamma.strata.basics.StandardId;
+
+/**
+ * A query for trades held by the {@link TradeRepository}.
+ * <p>
+ * Each criterion is optional, a trade must match all of the criteria that are set.
+ * Instances are immutable, each {@code with} method returns a new query.
+ */
+public final class TradeQuery {
+
+	private static final TradeQuery ALL = new TradeQuery(null, null, null, null, null);
+
+	private final String book;
+	private final StandardId counterparty;
+	private final String productType;
+	private final LocalDate tradeDateFrom;
+	private final LocalDate tradeDateTo;
+
+	/**
+	 * Obtains a query matching all trades.
+	 *
+	 * @return the query
+	 */
+	public static TradeQuery all() {
+		return ALL;
+	}
+
+	private TradeQuery(
+			String book,
+			StandardId counterparty,
+			String productType,
+			LocalDate tradeDateFrom,
+			LocalDate tradeDateTo) {
+
+		this.book = book;
+		this.counterparty = counterparty;
+		this.productType = productType;
+		this.tradeDateFrom = tradeDateFrom;
+		this.tradeDateTo = tradeDateTo;
+	}
+
+	//-------------------------------------------------------------------------
+	/**
+	 * Returns a query also matching the book, held as the {@link TradeRepository#BOOK} attribute.
+	 *
+	 * @param book  the book, null for any
+	 * @return the query
+	 */
+	public TradeQuery withBook(String book) {
+		return new TradeQuery(book, counterparty, productType, tradeDateFrom, tradeDateTo);
+	}
+
+	/**
+	 * Returns a query also matching the counterparty.
+	 *
+	 * @param counterparty  the counterparty, null for any
+	 * @return the query
+	 */
+	public TradeQuery withCounterparty(StandardId counterparty) {
+		return new TradeQuery(book, counterparty, productType, tradeDateFrom, tradeDateTo);
+	}
+
+	/**
+	 * Returns a query also matching the product type, the simple name of the product class, such as 'Swap'.
+	 *
+	 * @param productType  the product type, null for any
+	 * @return the query
+	 */
+	public TradeQuery withProductType(String productType) {
+		return new TradeQuery(book, counterparty, productType, tradeDateFrom, tradeDateTo);
+	}
+
+	/**
+	 * Returns a query also matching trade dates in a range.
+	 *
+	 * @param from  the first trade date, inclusive, null for no lower bound
+	 * @param to  the last trade date, inclusive, null for no upper bound
+	 * @return the query
+	 */
+	public TradeQuery withTradeDates(LocalDate from, LocalDate to) {
+		if (from != null && to != null && to.isBefore(from)) {
+			throw new IllegalArgumentException("Trade date range must not end before it starts: " + from + " to " + to);
+		}
+		return new TradeQuery(book, counterparty, productType, from, to);
+	}
+
+	//-------------------------------------------------------------------------
+	public String getBook() {
+		return book;
+	}
+
+	public StandardId getCounterparty() {
+		return counterparty;
+	}
+
+	public String getProductType() {
+		return productType;
+	}
+
+	public LocalDate getTradeDateFrom() {
+		return tradeDateFrom;
+	}
+
+	public LocalDate getTradeDateTo() {
+		return tradeDateTo;
+	}
+
+	@Override
+	public String toString() {
+		return "TradeQuery[book=" + book + ", counterparty=" + counterparty + ", productType=" + productType +
+				", tradeDates=" + tradeDateFrom + " to " + tradeDateTo + "]";
+	}
+
+}
@@ -0,0 +1,317 @@
+package com.daocheng.trade.repository;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.bson.Document;
+import org.joda.beans.ser.JodaBeanSer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.daocheng.common.JodaBeanFormat;
+import com.daocheng.trade.capture.TradeCapturePipeline;
+import com.google.common.util.concurrent.Striped;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.util.JSON;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.product.ProductTrade;
+import com.opengamma.strata.product.Trade;
+import com.opengamma.strata.product.TradeAttributeType;
+
+/**
+ * An in-memory repository of trades, written through to MongoDB.
+ * <p>
+ * Every trade is held as a bean, so reads never go to the database. Each trade is given an {@code int} slot,
+ * and the book, counterparty, product type and trade date are indexed by a bit set of the slots of
+ * the trades having each value. A query intersects the bit sets of its criteria, so it touches only
+ * the matching trades however many trades are held.
+ * <p>
+ * Trades are saved to MongoDB before they are indexed, so a trade that cannot be saved is never visible.
+ * The repository is warmed up from the collection when it is loaded. Trades saved to the collection
+ * by other processes are not seen until the repository is loaded again.
+ * <p>
+ * This class is thread-safe. Queries share a read lock, indexing takes the write lock.
+ * Saves of the same trade are serialized by a lock striped by identifier, held across the write to
+ * MongoDB and the indexing, so the trade held is always the trade last written.
+ */
+public class TradeRepository {
+
+	static Logger logger = LoggerFactory.getLogger(TradeRepository.class);
+
+	/**
+	 * The trade attribute holding the book of a trade.
+	 */
+	public static final TradeAttributeType<String> BOOK = TradeAttributeType.of("book");
+	/**
+	 * The number of documents fetched from MongoDB at a time during warm-up.
+	 */
+	private static final int WARM_UP_BATCH_SIZE = 1000;
+	/**
+	 * The number of locks serializing saves of the same trade.
+	 */
+	private static final int SAVE_LOCK_STRIPES = 64;
+
+	private final MongoCollection<Document> collection;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Striped<Lock> saveLocks = Striped.lock(SAVE_LOCK_STRIPES);
+	private final List<Trade> trades = new ArrayList<>();
+	private final Map<String, Integer> slots = new HashMap<>();
+	private final KeyIndex<String> books = new KeyIndex<>();
+	private final KeyIndex<StandardId> counterparties = new KeyIndex<>();
+	private final KeyIndex<String> productTypes = new KeyIndex<>();
+	private final TreeMap<Long, BitSet> tradeDates = new TreeMap<>();
+
+	/**
+	 * Loads a repository holding all the trades in the collection.
+	 * <p>
+	 * Documents that are not Joda-Bean trades with an identifier are logged and skipped.
+	 *
+	 * @param collection  the collection of trades
+	 * @return the repository
+	 */
+	public static TradeRepository load(MongoCollection<Document> collection) {
+		TradeRepository repository = new TradeRepository(collection);
+		try (MongoCursor<Document> cursor = collection.find().batchSize(WARM_UP_BATCH_SIZE).iterator()) {
+			while (cursor.hasNext()) {
+				Document document = cursor.next();
+				Object documentId = document.remove("_id");
+				document.remove(TradeCapturePipeline.BINARY_FIELD);
+				try {
+					Trade trade = JodaBeanFormat.readJson(JSON.serialize(document), Trade.class);
+					repository.index(tradeId(trade), trade);
+				} catch (RuntimeException ex) {
+					logger.warn("Skipping document " + documentId + " that is not a trade: " + ex.getMessage());
+				}
+			}
+		}
+		logger.info("Loaded " + repository.size() + " trades");
+		return repository;
+	}
+
+	private TradeRepository(MongoCollection<Document> collection) {
+		this.collection = collection;
+	}
+
+	//-------------------------------------------------------------------------
+	/**
+	 * Gets the number of trades held.
+	 *
+	 * @return the number of trades
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return trades.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of distinct values held in the secondary indexes.
+	 * <p>
+	 * Values no longer held by any trade are discarded, so this never exceeds four times the number of trades.
+	 *
+	 * @return the number of indexed values
+	 */
+	int indexSize() {
+		lock.readLock().lock();
+		try {
+			return books.size() + counterparties.size() + productTypes.size() + tradeDates.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds the trade with the identifier.
+	 *
+	 * @param tradeId  the trade identifier
+	 * @return the trade, empty if not found
+	 */
+	public Optional<Trade> get(StandardId tradeId) {
+		lock.readLock().lock();
+		try {
+			Integer slot = slots.get(tradeId.toString());
+			return slot != null ? Optional.of(trades.get(slot)) : Optional.empty();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds the trades matching the query.
+	 *
+	 * @param query  the query
+	 * @return the matching trades, in the order they were first saved
+	 */
+	public List<Trade> query(TradeQuery query) {
+		lock.readLock().lock();
+		try {
+			BitSet matches = new BitSet(trades.size());
+			matches.set(0, trades.size());
+			if (query.getBook() != null) {
+				matches.and(books.get(query.getBook()));
+			}
+			if (query.getCounterparty() != null) {
+				matches.and(counterparties.get(query.getCounterparty()));
+			}
+			if (query.getProductType() != null) {
+				matches.and(productTypes.get(query.getProductType()));
+			}
+			if (query.getTradeDateFrom() != null || query.getTradeDateTo() != null) {
+				matches.and(tradeDates(query));
+			}
+			List<Trade> result = new ArrayList<>(matches.cardinality());
+			for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+				result.add(trades.get(slot));
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// the trades whose trade date is in the range of the query
+	private BitSet tradeDates(TradeQuery query) {
+		long from = query.getTradeDateFrom() != null ? query.getTradeDateFrom().toEpochDay() : Long.MIN_VALUE;
+		long to = query.getTradeDateTo() != null ? query.getTradeDateTo().toEpochDay() : Long.MAX_VALUE;
+		NavigableMap<Long, BitSet> range = tradeDates.subMap(from, true, to, true);
+		BitSet result = new BitSet(trades.size());
+		for (BitSet slotsOnDate : range.values()) {
+			result.or(slotsOnDate);
+		}
+		return result;
+	}
+
+	//-------------------------------------------------------------------------
+	/**
+	 * Saves the trade to MongoDB and holds it, replacing any trade with the same identifier.
+	 *
+	 * @param trade  the trade
+	 * @throws IllegalArgumentException if the trade has no identifier
+	 */
+	public void save(Trade trade) {
+		String tradeId = tradeId(trade);
+		Document document = Document.parse(JodaBeanSer.COMPACT.jsonWriter().write(trade));
+		Lock saveLock = saveLocks.get(tradeId);
+		saveLock.lock();
+		try {
+			collection.replaceOne(Filters.eq("info.id", tradeId), document, new UpdateOptions().upsert(true));
+			index(tradeId, trade);
+		} finally {
+			saveLock.unlock();
+		}
+	}
+
+	/**
+	 * Saves the trades to MongoDB and holds them, replacing any trades with the same identifiers.
+	 *
+	 * @param trades  the trades
+	 * @throws IllegalArgumentException if a trade has no identifier
+	 */
+	public void saveAll(Collection<? extends Trade> trades) {
+		for (Trade trade : trades) {
+			save(trade);
+		}
+	}
+
+	// holds the trade, replacing any trade with the same identifier
+	private void index(String tradeId, Trade trade) {
+		lock.writeLock().lock();
+		try {
+			Integer existing = slots.get(tradeId);
+			int slot;
+			if (existing != null) {
+				slot = existing;
+				update(trades.get(slot), slot, false);
+				trades.set(slot, trade);
+			} else {
+				slot = trades.size();
+				trades.add(trade);
+				slots.put(tradeId, slot);
+			}
+			update(trade, slot, true);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// adds or removes the slot of the trade in each of the secondary indexes
+	private void update(Trade trade, int slot, boolean add) {
+		trade.getInfo().findAttribute(BOOK).ifPresent(book -> books.update(book, slot, add));
+		trade.getInfo().getCounterparty().ifPresent(counterparty -> counterparties.update(counterparty, slot, add));
+		productTypes.update(productType(trade), slot, add);
+		trade.getInfo().getTradeDate().ifPresent(tradeDate -> update(tradeDates, tradeDate.toEpochDay(), slot, add));
+	}
+
+	// sets or clears the slot of a trade having the value, discarding the bit set once no trade has the value
+	private static <K> void update(Map<K, BitSet> index, K value, int slot, boolean add) {
+		if (add) {
+			index.computeIfAbsent(value, key -> new BitSet()).set(slot);
+		} else {
+			BitSet slots = index.get(value);
+			if (slots != null) {
+				slots.clear(slot);
+				if (slots.isEmpty()) {
+					index.remove(value);
+				}
+			}
+		}
+	}
+
+	// the identifier of the trade, as held by MongoDB
+	private static String tradeId(Trade trade) {
+		return trade.getInfo().getId()
+				.orElseThrow(() -> new IllegalArgumentException("Trade must have an identifier: " + trade))
+				.toString();
+	}
+
+	// the product type of the trade, the simple name of its product class
+	private static String productType(Trade trade) {
+		if (trade instanceof ProductTrade) {
+			return ((ProductTrade) trade).getProduct().getClass().getSimpleName();
+		}
+		return trade.getClass().getSimpleName();
+	}
+
+	//-------------------------------------------------------------------------
+	/**
+	 * An index of the slots of the trades having each value of a key.
+	 * <p>
+	 * Only the values held by at least one trade have a bit set.
+	 */
+	private static final class KeyIndex<K> {
+		private final Map<K, BitSet> slots = new HashMap<>();
+
+		// the slots of the trades having the value, which must not be changed
+		private BitSet get(K value) {
+			BitSet slotsWithValue = slots.get(value);
+			return slotsWithValue != null ? slotsWithValue : new BitSet();
+		}
+
+		// sets or clears the slot of a trade having the value
+		private void update(K value, int slot, boolean add) {
+			TradeRepository.update(slots, value, slot, add);
+		}
+
+		// the number of values held by at least one trade
+		private int size() {
+			return slots.size();
+		}
+	}
+
+}
@@ -0,0 +1,101 @@
+package com.daocheng.trade.state;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+
+import com.daocheng.trade.link.TradeLink;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.product.Trade;
+
+/**
+ * An event in the trade lifecycle log.
+ * <p>
+ * Each event has a sequence number, unique and increasing across the log, and the time it was recorded.
+ * The trade is the new terms of a trade that was booked or amended, or the replacing trade of a novation.
+ * The link is the link recorded by a link event, or the link from a novated trade to its replacement.
+ */
+public final class TradeEvent {
+
+	private final long sequence;
+	private final Instant timestamp;
+	private final TradeEventType type;
+	private final StandardId tradeId;
+	private final Trade trade;
+	private final TradeLink link;
+
+	/**
+	 * Obtains an event.
+	 *
+	 * @param sequence  the sequence number
+	 * @param timestamp  the time the event was recorded
+	 * @param type  the type of event
+	 * @param tradeId  the identifier of the trade the event applies to
+	 * @param trade  the trade booked, amended or replacing a novated trade, null for other events
+	 * @param link  the link recorded by a link or novation, null for other events
+	 * @return the event
+	 */
+	public static TradeEvent of(
+			long sequence,
+			Instant timestamp,
+			TradeEventType type,
+			StandardId tradeId,
+			Trade trade,
+			TradeLink link) {
+
+		return new TradeEvent(sequence, timestamp, type, tradeId, trade, link);
+	}
+
+	private TradeEvent(
+			long sequence,
+			Instant timestamp,
+			TradeEventType type,
+			StandardId tradeId,
+			Trade trade,
+			TradeLink link) {
+
+		this.sequence = sequence;
+		this.timestamp = Objects.requireNonNull(timestamp, "timestamp");
+		this.type = Objects.requireNonNull(type, "type");
+		this.tradeId = Objects.requireNonNull(tradeId, "tradeId");
+		this.trade = trade;
+		this.link = link;
+		boolean hasTrade = type == TradeEventType.NEW || type == TradeEventType.AMEND || type == TradeEventType.NOVATE;
+		boolean hasLink = type == TradeEventType.LINK || type == TradeEventType.NOVATE;
+		if (hasTrade != (trade != null) || hasLink != (link != null)) {
+			throw new IllegalArgumentException("Trade and link do not match event type " + type);
+		}
+	}
+
+	//-------------------------------------------------------------------------
+	public long getSequence() {
+		return sequence;
+	}
+
+	public Instant getTimestamp() {
+		return timestamp;
+	}
+
+	public TradeEventType getType() {
+		return type;
+	}
+
+	public StandardId getTradeId() {
+		return tradeId;
+	}
+
+	public Optional<Trade> getTrade() {
+		return Optional.ofNullable(trade);
+	}
+
+	public Optional<TradeLink> getLink() {
+		return Optional.ofNullable(link);
+	}
+
+	@Override
+	public String toString() {
+		return "TradeEvent[" + sequence + ", " + timestamp + ", " + type + ", " + tradeId +
+				(link != null ? ", " + link : "") + "]";
+	}
+
+}
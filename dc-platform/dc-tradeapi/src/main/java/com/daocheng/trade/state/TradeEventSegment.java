@@ -0,0 +1,316 @@
+package com.daocheng.trade.state;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * A memory-mapped segment file of the trade lifecycle log.
+ * <p>
+ * The file is created at its full capacity and filled with records, each an {@code int} length,
+ * the {@code int} CRC-32 of the payload, and the payload. The length is written last, so a record
+ * that was not completely written has a length of zero, and a record corrupted on disk fails its
+ * checksum. Either ends the segment when it is opened. The rest of the file is then cleared,
+ * so a record written after the torn one before the failure cannot reappear after later appends.
+ * <p>
+ * The header is forced to the storage device when the file is created, before any record is appended,
+ * so a segment without a header never holds an event.
+ * <p>
+ * This class is not thread-safe, the store guards it with its lock.
+ */
+final class TradeEventSegment {
+
+	/**
+	 * The magic number at the start of every segment file.
+	 */
+	private static final int MAGIC = 0x54524C47;
+	/**
+	 * The version of the file format.
+	 */
+	private static final int VERSION = 1;
+	/**
+	 * The size of the file header, the magic number, version and first sequence number.
+	 */
+	private static final int HEADER_SIZE = 16;
+	/**
+	 * The size of the record header, the length and checksum.
+	 */
+	private static final int RECORD_HEADER_SIZE = 8;
+
+	private final Path file;
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final long firstSequence;
+	private int[] recordOffsets;
+	private int end;
+
+	/**
+	 * Gets the name of the segment file whose first event has the sequence number.
+	 * <p>
+	 * The names sort in the order of the segments.
+	 *
+	 * @param firstSequence  the sequence number of the first event
+	 * @return the file name
+	 */
+	static String fileName(long firstSequence) {
+		return String.format("segment-%020d.log", firstSequence);
+	}
+
+	/**
+	 * Creates a new segment file.
+	 *
+	 * @param file  the file, which must not exist
+	 * @param firstSequence  the sequence number of the first event
+	 * @param capacity  the size of the file
+	 * @return the segment
+	 * @throws UncheckedIOException if an IO error occurs
+	 */
+	static TradeEventSegment create(Path file, long firstSequence, int capacity) {
+		try {
+			FileChannel channel = FileChannel.open(
+					file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, VERSION);
+			buffer.putLong(8, firstSequence);
+			buffer.force();
+			channel.force(true);
+			forceDirectory(file.getParent());
+			return new TradeEventSegment(file, channel, buffer, firstSequence, new int[0], HEADER_SIZE);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Checks whether the file starts with a complete segment header.
+	 * <p>
+	 * A file without one was being created when the process failed, and holds no events.
+	 *
+	 * @param file  the file
+	 * @return true if the file has a segment header
+	 * @throws UncheckedIOException if an IO error occurs
+	 */
+	static boolean hasHeader(Path file) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			int read = 0;
+			while (header.hasRemaining() && read >= 0) {
+				read = channel.read(header);
+			}
+			return !header.hasRemaining() && header.getInt(0) == MAGIC && header.getInt(4) == VERSION;
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Forces the entries of a directory, such as a file created or renamed in it, to the storage device.
+	 *
+	 * @param directory  the directory
+	 */
+	static void forceDirectory(Path directory) {
+		try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException ex) {
+			// some platforms, such as Windows, cannot open a directory, and persist its entries anyway
+		}
+	}
+
+	/**
+	 * Opens an existing segment file, finding the records that were completely written.
+	 *
+	 * @param file  the file
+	 * @return the segment
+	 * @throws UncheckedIOException if an IO error occurs
+	 * @throws IllegalArgumentException if the file is not a segment file
+	 */
+	static TradeEventSegment open(Path file) {
+		try {
+			FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+			if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+				channel.close();
+				throw new IllegalArgumentException("File is not a trade lifecycle segment: " + file);
+			}
+			int[] offsets = new int[64];
+			int count = 0;
+			int offset = HEADER_SIZE;
+			while (isRecord(buffer, offset)) {
+				if (count == offsets.length) {
+					offsets = Arrays.copyOf(offsets, count * 2);
+				}
+				offsets[count++] = offset;
+				offset += RECORD_HEADER_SIZE + buffer.getInt(offset);
+			}
+			clear(buffer, offset);
+			return new TradeEventSegment(
+					file, channel, buffer, buffer.getLong(8), Arrays.copyOf(offsets, count), offset);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	// checks whether a complete, uncorrupted record starts at the offset
+	private static boolean isRecord(ByteBuffer buffer, int offset) {
+		if (offset + RECORD_HEADER_SIZE > buffer.capacity()) {
+			return false;
+		}
+		int length = buffer.getInt(offset);
+		if (length <= 0 || length > buffer.capacity() - offset - RECORD_HEADER_SIZE) {
+			return false;
+		}
+		return buffer.getInt(offset + 4) == checksum(payload(buffer, offset, length));
+	}
+
+	// zeroes the bytes from the offset to the end, writing only those that are not already zero
+	private static void clear(MappedByteBuffer buffer, int offset) {
+		boolean cleared = false;
+		for (int i = offset; i < buffer.capacity(); i++) {
+			if (buffer.get(i) != 0) {
+				buffer.put(i, (byte) 0);
+				cleared = true;
+			}
+		}
+		if (cleared) {
+			buffer.force();
+		}
+	}
+
+	// the CRC-32 of the payload
+	private static int checksum(ByteBuffer payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		return (int) crc.getValue();
+	}
+
+	// a view of the payload of the record at the offset
+	private static ByteBuffer payload(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer payload = buffer.duplicate();
+		payload.limit(offset + RECORD_HEADER_SIZE + length).position(offset + RECORD_HEADER_SIZE);
+		return payload.slice();
+	}
+
+	private TradeEventSegment(
+			Path file,
+			FileChannel channel,
+			MappedByteBuffer buffer,
+			long firstSequence,
+			int[] recordOffsets,
+			int end) {
+
+		this.file = file;
+		this.channel = channel;
+		this.buffer = buffer;
+		this.firstSequence = firstSequence;
+		this.recordOffsets = recordOffsets;
+		this.end = end;
+	}
+
+	//-------------------------------------------------------------------------
+	/**
+	 * Gets the file of the segment.
+	 *
+	 * @return the file
+	 */
+	Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Gets the sequence number of the first event in the segment.
+	 *
+	 * @return the sequence number
+	 */
+	long getFirstSequence() {
+		return firstSequence;
+	}
+
+	/**
+	 * Gets the offsets of the records found when the segment was opened.
+	 * <p>
+	 * This is empty for a segment that was created.
+	 *
+	 * @return the offsets of the records, in order
+	 */
+	int[] getRecordOffsets() {
+		return recordOffsets.clone();
+	}
+
+	/**
+	 * Appends a record, unless the segment is full.
+	 *
+	 * @param payload  the payload
+	 * @return the offset of the record, -1 if the segment is full
+	 */
+	int append(byte[] payload) {
+		int offset = end;
+		if (payload.length > buffer.capacity() - offset - RECORD_HEADER_SIZE) {
+			return -1;
+		}
+		ByteBuffer record = buffer.duplicate();
+		record.position(offset + RECORD_HEADER_SIZE);
+		record.put(payload);
+		buffer.putInt(offset + 4, checksum(ByteBuffer.wrap(payload)));
+		buffer.putInt(offset, payload.length);
+		end = offset + RECORD_HEADER_SIZE + payload.length;
+		return offset;
+	}
+
+	/**
+	 * Gets a read-only view of the payload of the record at the offset.
+	 *
+	 * @param offset  the offset of the record
+	 * @return the payload
+	 */
+	ByteBuffer read(int offset) {
+		return payload(buffer, offset, buffer.getInt(offset)).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Gets the size a segment must have to hold a single record of the payload size.
+	 *
+	 * @param payloadSize  the size of the payload
+	 * @return the minimum capacity
+	 */
+	static int minimumCapacity(int payloadSize) {
+		return HEADER_SIZE + RECORD_HEADER_SIZE + payloadSize;
+	}
+
+	/**
+	 * Forces the records written to the storage device.
+	 * <p>
+	 * This may be called while records are appended by another thread.
+	 */
+	void force() {
+		buffer.force();
+	}
+
+	/**
+	 * Forces the records written to the storage device, and closes the file.
+	 * <p>
+	 * The mapping remains valid until the segment is garbage collected.
+	 *
+	 * @throws UncheckedIOException if an IO error occurs
+	 */
+	void close() {
+		buffer.force();
+		try {
+			channel.close();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "TradeEventSegment[" + file + "]";
+	}
+
+}
@@ -0,0 +1,29 @@
+package com.daocheng.trade.state;
+
+/**
+ * The type of an event in the trade lifecycle log.
+ */
+public enum TradeEventType {
+
+	/**
+	 * A new trade was booked.
+	 */
+	NEW,
+	/**
+	 * A live trade was amended, replacing its terms.
+	 */
+	AMEND,
+	/**
+	 * A live trade was novated, and replaced by a new trade with a new counterparty.
+	 */
+	NOVATE,
+	/**
+	 * A live trade was cancelled.
+	 */
+	CANCEL,
+	/**
+	 * Two trades were linked.
+	 */
+	LINK;
+
+}
@@ -0,0 +1,875 @@
+package com.daocheng.trade.state;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.joda.beans.Bean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.daocheng.common.JodaBeanFormat;
+import com.daocheng.trade.link.TradeLink;
+import com.daocheng.trade.link.TradeLinkType;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.product.Trade;
+
+/**
+ * An append-only, event-sourced log of the lifecycle of trades.
+ * <p>
+ * Every new trade, amendment, novation, cancellation and link is appended to the log as a {@link TradeEvent},
+ * and applied to the {@link TradeState} of the trades it affects. Nothing is ever overwritten, so the state of
+ * a trade at any earlier time or version is reconstructed by replaying its events.
+ * <p>
+ * The log is a directory of memory-mapped segment files. A new segment is started when the active one is full.
+ * The events of each trade are indexed by their position in the segments, so reconstructing a trade reads
+ * only its own events, straight from the mapped files.
+ * <p>
+ * The current states are written to a snapshot file periodically, in the background.
+ * When the store is opened, the segments are scanned to rebuild the index, which decodes only the event headers.
+ * The latest snapshot is then loaded, and only the events after it are replayed in full.
+ * A snapshot is forced to the storage device before it replaces the older ones, and carries a checksum.
+ * A snapshot that cannot be read, or fails its checksum, is ignored in favour of an older one or a full replay.
+ * <p>
+ * Appended events are in the memory-mapped files, and so survive the failure of the process.
+ * They are forced to the storage device in the background when a segment is full, before each snapshot,
+ * on {@link #flush()} and on {@link #close()}. Events are only durable against the failure of the machine
+ * once forced. Forcing never holds the lock, so appends continue while it runs.
+ * <p>
+ * Recovery treats the events that were not forced as a torn tail. A record that was not completely written
+ * ends its segment. A last segment without a header is deleted. If the sequence numbers have a gap,
+ * the events after it were never forced, so the segments after the gap are renamed aside, not replayed.
+ * <p>
+ * This class is thread-safe. Reads share a read lock, appends take the write lock.
+ */
+public class TradeLifecycleStore implements AutoCloseable {
+
+	static Logger logger = LoggerFactory.getLogger(TradeLifecycleStore.class);
+
+	/**
+	 * The default size of a segment file, 64Mb.
+	 */
+	public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+	/**
+	 * The default number of events between snapshots.
+	 */
+	public static final int DEFAULT_SNAPSHOT_INTERVAL = 10_000;
+	/**
+	 * The magic number at the start of every snapshot file.
+	 */
+	private static final int SNAPSHOT_MAGIC = 0x54525348;
+	/**
+	 * The version of the snapshot file format.
+	 */
+	private static final int SNAPSHOT_VERSION = 2;
+	/**
+	 * The maximum length of a string in an event, in UTF-8 bytes.
+	 */
+	private static final int MAX_STRING_LENGTH = 0xFFFF;
+
+	private final Path directory;
+	private final Clock clock;
+	private final int segmentSize;
+	private final int snapshotInterval;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Lock flushLock = new ReentrantLock();
+	private final ExecutorService background;
+	private final List<TradeEventSegment> segments = new ArrayList<>();
+	private final Map<StandardId, TradeState> states = new HashMap<>();
+	private final Map<StandardId, EventPositions> tradeEvents = new HashMap<>();
+	private long lastSequence;
+	private Instant lastTimestamp = Instant.EPOCH;
+	/**
+	 * The index of the first segment that may hold events not yet forced, guarded by the flush lock.
+	 */
+	private int firstUnforced;
+
+	/**
+	 * Opens the store in the directory, creating it if necessary.
+	 *
+	 * @param directory  the directory of the log
+	 * @return the store
+	 * @throws UncheckedIOException if an IO error occurs
+	 */
+	public static TradeLifecycleStore open(Path directory) {
+		return open(directory, Clock.systemUTC(), DEFAULT_SEGMENT_SIZE, DEFAULT_SNAPSHOT_INTERVAL);
+	}
+
+	/**
+	 * Opens the store in the directory, creating it if necessary.
+	 *
+	 * @param directory  the directory of the log
+	 * @param clock  the clock providing the timestamps of events
+	 * @param segmentSize  the size of a new segment file
+	 * @param snapshotInterval  the number of events between snapshots
+	 * @return the store
+	 * @throws UncheckedIOException if an IO error occurs
+	 * @throws IllegalStateException if the log is not valid
+	 */
+	public static TradeLifecycleStore open(Path directory, Clock clock, int segmentSize, int snapshotInterval) {
+		if (segmentSize < TradeEventSegment.minimumCapacity(0) || snapshotInterval < 1) {
+			throw new IllegalArgumentException("Segment size and snapshot interval must be positive");
+		}
+		TradeLifecycleStore store = new TradeLifecycleStore(directory, clock, segmentSize, snapshotInterval);
+		store.recover();
+		return store;
+	}
+
+	private TradeLifecycleStore(Path directory, Clock clock, int segmentSize, int snapshotInterval) {
+		this.directory = directory;
+		this.clock = clock;
+		this.segmentSize = segmentSize;
+		this.snapshotInterval = snapshotInterval;
+		this.background = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "trade-lifecycle-background");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	//-------------------------------------------------------------------------
+	/**
+	 * Books a new trade.
+	 *
+	 * @param trade  the trade, which must have an identifier that is not yet known
+	 * @return the state of the trade
+	 * @throws IllegalArgumentException if the trade is already known
+	 */
+	public TradeState newTrade(Trade trade) {
+		lock.writeLock().lock();
+		try {
+			StandardId tradeId = tradeId(trade);
+			if (states.containsKey(tradeId)) {
+				throw new IllegalArgumentException("Trade already exists: " + tradeId);
+			}
+			append(TradeEventType.NEW, tradeId, trade, null);
+			return states.get(tradeId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Amends a live trade, replacing its terms.
+	 *
+	 * @param trade  the new terms of the trade, with the identifier of the trade
+	 * @return the state of the trade
+	 * @throws IllegalArgumentException if the trade is not live
+	 */
+	public TradeState amend(Trade trade) {
+		lock.writeLock().lock();
+		try {
+			StandardId tradeId = tradeId(trade);
+			liveState(tradeId);
+			append(TradeEventType.AMEND, tradeId, trade, null);
+			return states.get(tradeId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Books the trade if it is not yet known, otherwise amends it.
+	 *
+	 * @param trade  the trade, with the identifier of the trade
+	 * @return the state of the trade
+	 * @throws IllegalArgumentException if the trade is known but not live
+	 */
+	public TradeState save(Trade trade) {
+		lock.writeLock().lock();
+		try {
+			StandardId tradeId = tradeId(trade);
+			if (states.containsKey(tradeId)) {
+				liveState(tradeId);
+				append(TradeEventType.AMEND, tradeId, trade, null);
+			} else {
+				append(TradeEventType.NEW, tradeId, trade, null);
+			}
+			return states.get(tradeId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Novates a live trade, replacing it with a new trade.
+	 * <p>
+	 * The novated trade is linked to the new trade by a {@link TradeLinkType#NOVATION} link.
+	 *
+	 * @param tradeId  the identifier of the trade to novate
+	 * @param replacement  the new trade, which must have an identifier that is not yet known
+	 * @return the state of the new trade
+	 * @throws IllegalArgumentException if the trade is not live, or the new trade is already known
+	 */
+	public TradeState novate(StandardId tradeId, Trade replacement) {
+		lock.writeLock().lock();
+		try {
+			liveState(tradeId);
+			StandardId replacementId = tradeId(replacement);
+			if (states.containsKey(replacementId)) {
+				throw new IllegalArgumentException("Trade already exists: " + replacementId);
+			}
+			TradeLink link = TradeLink.of(TradeLinkType.NOVATION, tradeId, replacementId);
+			append(TradeEventType.NOVATE, tradeId, replacement, link);
+			return states.get(replacementId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Cancels a live trade.
+	 *
+	 * @param tradeId  the identifier of the trade
+	 * @return the state of the trade
+	 * @throws IllegalArgumentException if the trade is not live
+	 */
+	public TradeState cancel(StandardId tradeId) {
+		lock.writeLock().lock();
+		try {
+			liveState(tradeId);
+			append(TradeEventType.CANCEL, tradeId, null, null);
+			return states.get(tradeId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Links two known trades.
+	 *
+	 * @param link  the link
+	 * @return the state of the trade the link is from
+	 * @throws IllegalArgumentException if either trade is not known
+	 */
+	public TradeState link(TradeLink link) {
+		lock.writeLock().lock();
+		try {
+			knownState(link.getFromTradeId());
+			knownState(link.getToTradeId());
+			append(TradeEventType.LINK, link.getFromTradeId(), null, link);
+			return states.get(link.getFromTradeId());
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	//-------------------------------------------------------------------------
+	/**
+	 * Finds the current state of a trade.
+	 *
+	 * @param tradeId  the trade identifier
+	 * @return the state, empty if the trade is not known
+	 */
+	public Optional<TradeState> state(StandardId tradeId) {
+		lock.readLock().lock();
+		try {
+			return Optional.ofNullable(states.get(tradeId));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Reconstructs the state of a trade at an earlier time.
+	 *
+	 * @param tradeId  the trade identifier
+	 * @param asOf  the time, events recorded at or before it are applied
+	 * @return the state, empty if the trade was not known at the time
+	 */
+	public Optional<TradeState> stateAsOf(StandardId tradeId, Instant asOf) {
+		return reconstruct(tradeId, event -> !event.getTimestamp().isAfter(asOf));
+	}
+
+	/**
+	 * Reconstructs the state of a trade at an earlier version.
+	 *
+	 * @param tradeId  the trade identifier
+	 * @param sequence  the sequence number, events with a sequence number up to and including it are applied
+	 * @return the state, empty if the trade was not known at the version
+	 */
+	public Optional<TradeState> stateAtVersion(StandardId tradeId, long sequence) {
+		return reconstruct(tradeId, event -> event.getSequence() <= sequence);
+	}
+
+	/**
+	 * Gets the events that affected a trade, in the order they were recorded.
+	 *
+	 * @param tradeId  the trade identifier
+	 * @return the events, empty if the trade is not known
+	 */
+	public List<TradeEvent> history(StandardId tradeId) {
+		lock.readLock().lock();
+		try {
+			EventPositions positions = tradeEvents.get(tradeId);
+			if (positions == null) {
+				return Collections.emptyList();
+			}
+			List<TradeEvent> events = new ArrayList<>(positions.size);
+			for (int i = 0; i < positions.size; i++) {
+				events.add(read(positions.positions[i]));
+			}
+			return events;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the sequence number of the last event in the log.
+	 *
+	 * @return the sequence number, zero if the log is empty
+	 */
+	public long getLastSequence() {
+		lock.readLock().lock();
+		try {
+			return lastSequence;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// replays the events of the trade that pass the filter
+	private Optional<TradeState> reconstruct(StandardId tradeId, Predicate<TradeEvent> filter) {
+		lock.readLock().lock();
+		try {
+			EventPositions positions = tradeEvents.get(tradeId);
+			if (positions == null) {
+				return Optional.empty();
+			}
+			Map<StandardId, TradeState> replayed = new HashMap<>();
+			for (int i = 0; i < positions.size; i++) {
+				TradeEvent event = read(positions.positions[i]);
+				if (!filter.test(event)) {
+					break;
+				}
+				apply(replayed, event);
+			}
+			return Optional.ofNullable(replayed.get(tradeId));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	//-------------------------------------------------------------------------
+	/**
+	 * Forces the events appended before the call to the storage device.
+	 * <p>
+	 * The segments are forced in order, without holding the lock, so appends continue meanwhile.
+	 */
+	public void flush() {
+		flushLock.lock();
+		try {
+			List<TradeEventSegment> unforced;
+			lock.readLock().lock();
+			try {
+				unforced = new ArrayList<>(segments.subList(Math.min(firstUnforced, segments.size()), segments.size()));
+			} finally {
+				lock.readLock().unlock();
+			}
+			unforced.forEach(TradeEventSegment::force);
+			// every segment but the last is full, so stays forced
+			firstUnforced += Math.max(0, unforced.size() - 1);
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	/**
+	 * Writes a snapshot of the current states, and waits for it to complete.
+	 *
+	 * @throws UncheckedIOException if an IO error occurs
+	 */
+	public void snapshot() {
+		Map<StandardId, TradeState> snapshot;
+		long sequence;
+		lock.readLock().lock();
+		try {
+			snapshot = new HashMap<>(states);
+			sequence = lastSequence;
+		} finally {
+			lock.readLock().unlock();
+		}
+		try {
+			background.submit(() -> {
+				flush();
+				writeSnapshot(snapshot, sequence);
+			}).get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException ex) {
+			throw ex.getCause() instanceof RuntimeException ?
+					(RuntimeException) ex.getCause() : new IllegalStateException(ex.getCause());
+		}
+	}
+
+	/**
+	 * Waits for any snapshot in progress, then forces the events to the storage device and closes the segments.
+	 */
+	@Override
+	public void close() {
+		background.shutdown();
+		try {
+			background.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		flush();
+		lock.writeLock().lock();
+		try {
+			segments.forEach(TradeEventSegment::close);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	//-------------------------------------------------------------------------
+	// appends an event to the log and applies it, called under the write lock
+	private void append(TradeEventType type, StandardId tradeId, Trade trade, TradeLink link) {
+		Instant now = clock.instant();
+		Instant timestamp = now.isBefore(lastTimestamp) ? lastTimestamp : now;
+		TradeEvent event = TradeEvent.of(lastSequence + 1, timestamp, type, tradeId, trade, link);
+		byte[] payload = encode(event);
+
+		int segmentIndex = segments.size() - 1;
+		int offset = segmentIndex >= 0 ? segments.get(segmentIndex).append(payload) : -1;
+		if (offset < 0) {
+			if (segmentIndex >= 0) {
+				background.execute(segments.get(segmentIndex)::force);
+			}
+			Path file = directory.resolve(TradeEventSegment.fileName(event.getSequence()));
+			int capacity = Math.max(segmentSize, TradeEventSegment.minimumCapacity(payload.length));
+			segments.add(TradeEventSegment.create(file, event.getSequence(), capacity));
+			segmentIndex++;
+			offset = segments.get(segmentIndex).append(payload);
+		}
+		lastSequence = event.getSequence();
+		lastTimestamp = timestamp;
+		index(event.getTradeId(), event.getLink().orElse(null), position(segmentIndex, offset));
+		apply(states, event);
+
+		if (lastSequence % snapshotInterval == 0) {
+			Map<StandardId, TradeState> snapshot = new HashMap<>(states);
+			long sequence = lastSequence;
+			background.execute(() -> {
+				try {
+					// the events in the snapshot must be durable before it is
+					flush();
+					writeSnapshot(snapshot, sequence);
+				} catch (RuntimeException ex) {
+					logger.error("Failed to write trade lifecycle snapshot at " + sequence, ex);
+				}
+			});
+		}
+	}
+
+	// indexes the position of an event under the trades it affects
+	private void index(StandardId tradeId, TradeLink link, long position) {
+		tradeEvents.computeIfAbsent(tradeId, id -> new EventPositions()).add(position);
+		if (link != null && !link.getToTradeId().equals(tradeId)) {
+			tradeEvents.computeIfAbsent(link.getToTradeId(), id -> new EventPositions()).add(position);
+		}
+	}
+
+	// applies an event to the states, ignoring trades whose state is not held
+	private static void apply(Map<StandardId, TradeState> states, TradeEvent event) {
+		StandardId tradeId = event.getTradeId();
+		switch (event.getType()) {
+			case NEW:
+				states.put(tradeId, TradeState.of(
+						tradeId, event.getTrade().get(), TradeStatus.LIVE, event.getSequence(),
+						event.getTimestamp(), Collections.emptyList()));
+				break;
+			case AMEND:
+				states.computeIfPresent(tradeId, (id, state) -> state.withTrade(event, event.getTrade().get()));
+				break;
+			case CANCEL:
+				states.computeIfPresent(tradeId, (id, state) -> state.withStatus(event, TradeStatus.CANCELLED));
+				break;
+			case NOVATE: {
+				TradeLink link = event.getLink().get();
+				states.computeIfPresent(
+						tradeId, (id, state) -> state.withStatus(event, TradeStatus.NOVATED).withLink(event, link));
+				states.put(link.getToTradeId(), TradeState.of(
+						link.getToTradeId(), event.getTrade().get(), TradeStatus.LIVE, event.getSequence(),
+						event.getTimestamp(), Collections.singletonList(link)));
+				break;
+			}
+			case LINK: {
+				TradeLink link = event.getLink().get();
+				states.computeIfPresent(link.getFromTradeId(), (id, state) -> state.withLink(event, link));
+				states.computeIfPresent(link.getToTradeId(), (id, state) -> state.withLink(event, link));
+				break;
+			}
+			default:
+				throw new IllegalArgumentException("Unknown event type: " + event.getType());
+		}
+	}
+
+	// the state of a known trade
+	private TradeState knownState(StandardId tradeId) {
+		TradeState state = states.get(tradeId);
+		if (state == null) {
+			throw new IllegalArgumentException("Trade not found: " + tradeId);
+		}
+		return state;
+	}
+
+	// the state of a live trade
+	private TradeState liveState(StandardId tradeId) {
+		TradeState state = knownState(tradeId);
+		if (state.getStatus() != TradeStatus.LIVE) {
+			throw new IllegalArgumentException("Trade is " + state.getStatus() + ": " + tradeId);
+		}
+		return state;
+	}
+
+	// the identifier of a trade
+	private static StandardId tradeId(Trade trade) {
+		if (!(trade instanceof Bean)) {
+			throw new IllegalArgumentException("Trade must be a Joda-Bean: " + trade.getClass().getName());
+		}
+		return trade.getInfo().getId()
+				.orElseThrow(() -> new IllegalArgumentException("Trade must have an identifier: " + trade));
+	}
+
+	//-------------------------------------------------------------------------
+	// rebuilds the index from the segments, loads the latest snapshot and replays the events after it
+	private void recover() {
+		try {
+			Files.createDirectories(directory);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		EventPositions all = new EventPositions();
+		List<Path> files = list("segment-*.log");
+		for (int i = 0; i < files.size(); i++) {
+			Path file = files.get(i);
+			if (i == files.size() - 1 && !TradeEventSegment.hasHeader(file)) {
+				// the segment was being created when the process failed, so it holds no events
+				logger.warn("Deleting trade lifecycle segment " + file + " whose header was not written");
+				delete(file);
+				break;
+			}
+			TradeEventSegment segment = TradeEventSegment.open(file);
+			if (segment.getFirstSequence() != lastSequence + 1) {
+				segment.close();
+				discard(files.subList(i, files.size()));
+				break;
+			}
+			int segmentIndex = segments.size();
+			segments.add(segment);
+			for (int offset : segment.getRecordOffsets()) {
+				ByteBuffer payload = segment.read(offset);
+				long sequence = payload.getLong();
+				Instant timestamp = Instant.ofEpochSecond(payload.getLong(), payload.getInt());
+				if (sequence != lastSequence + 1) {
+					throw new IllegalStateException("Trade lifecycle segment " + file + " is corrupt, expected event " +
+							(lastSequence + 1) + ", found " + sequence);
+				}
+				payload.get();
+				StandardId tradeId = StandardId.parse(getString(payload));
+				TradeLink link = getLink(payload);
+				long position = position(segmentIndex, offset);
+				index(tradeId, link, position);
+				all.add(position);
+				lastSequence = sequence;
+				lastTimestamp = timestamp;
+			}
+		}
+
+		long snapshotSequence = loadSnapshot();
+		for (int i = 0; i < all.size; i++) {
+			TradeEvent event = read(all.positions[i]);
+			if (event.getSequence() > snapshotSequence) {
+				apply(states, event);
+			}
+		}
+		logger.info("Recovered " + states.size() + " trades from " + lastSequence + " events, " +
+				(lastSequence - snapshotSequence) + " replayed after the snapshot");
+	}
+
+	// renames aside the segments after a gap in the sequence numbers, whose events were never forced
+	private void discard(List<Path> files) {
+		logger.error("Trade lifecycle log is missing events after " + lastSequence + ", discarding " + files);
+		String suffix = ".discarded-" + clock.millis();
+		try {
+			for (Path file : files) {
+				Files.move(file, file.resolveSibling(file.getFileName() + suffix));
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		TradeEventSegment.forceDirectory(directory);
+	}
+
+	// deletes a file
+	private void delete(Path file) {
+		try {
+			Files.delete(file);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		TradeEventSegment.forceDirectory(directory);
+	}
+
+	// loads the latest usable snapshot into the states, returning its sequence number
+	private long loadSnapshot() {
+		List<Path> snapshots = list("snapshot-*.bin");
+		Collections.reverse(snapshots);
+		for (Path file : snapshots) {
+			try {
+				Map<StandardId, TradeState> loaded = new HashMap<>();
+				long sequence = readSnapshot(file, loaded);
+				if (sequence <= lastSequence) {
+					states.putAll(loaded);
+					return sequence;
+				}
+				logger.warn("Ignoring snapshot " + file + " after the end of the log at " + lastSequence);
+			} catch (RuntimeException ex) {
+				logger.warn("Ignoring unreadable snapshot " + file, ex);
+			}
+		}
+		return 0;
+	}
+
+	// lists the files in the directory matching the pattern, in order of name
+	private List<Path> list(String glob) {
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+			stream.forEach(files::add);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		Collections.sort(files);
+		return files;
+	}
+
+	//-------------------------------------------------------------------------
+	// writes the snapshot to a new file, forces it to the storage device, then replaces the older snapshots with it
+	private void writeSnapshot(Map<StandardId, TradeState> snapshot, long sequence) {
+		Path file = directory.resolve(String.format("snapshot-%020d.bin", sequence));
+		Path temp = directory.resolve(file.getFileName() + ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(
+					temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				CRC32 crc = new CRC32();
+				DataOutputStream out = new DataOutputStream(
+						new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)), crc));
+				out.writeInt(SNAPSHOT_MAGIC);
+				out.writeInt(SNAPSHOT_VERSION);
+				out.writeLong(sequence);
+				out.writeInt(snapshot.size());
+				for (TradeState state : snapshot.values()) {
+					out.writeUTF(state.getTradeId().toString());
+					out.writeByte(state.getStatus().ordinal());
+					out.writeLong(state.getVersion());
+					out.writeLong(state.getTimestamp().getEpochSecond());
+					out.writeInt(state.getTimestamp().getNano());
+					byte[] trade = JodaBeanFormat.BINARY.write((Bean) state.getTrade());
+					out.writeInt(trade.length);
+					out.write(trade);
+					out.writeInt(state.getLinks().size());
+					for (TradeLink link : state.getLinks()) {
+						out.writeByte(link.getType().ordinal());
+						out.writeUTF(link.getFromTradeId().toString());
+						out.writeUTF(link.getToTradeId().toString());
+					}
+				}
+				out.writeLong(crc.getValue());
+				out.flush();
+				channel.force(true);
+			}
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			TradeEventSegment.forceDirectory(directory);
+			for (Path older : list("snapshot-*.bin")) {
+				if (older.compareTo(file) < 0) {
+					Files.delete(older);
+				}
+			}
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	// reads the snapshot into the states, returning its sequence number
+	private static long readSnapshot(Path file, Map<StandardId, TradeState> states) {
+		CRC32 crc = new CRC32();
+		try (DataInputStream in = new DataInputStream(
+				new CheckedInputStream(new BufferedInputStream(Files.newInputStream(file)), crc))) {
+			if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+				throw new IllegalArgumentException("File is not a trade lifecycle snapshot: " + file);
+			}
+			long fileSize = Files.size(file);
+			long sequence = in.readLong();
+			int count = in.readInt();
+			if (count < 0) {
+				throw new IllegalArgumentException("Trade lifecycle snapshot is corrupt: " + file);
+			}
+			for (int i = 0; i < count; i++) {
+				StandardId tradeId = StandardId.parse(in.readUTF());
+				TradeStatus status = TradeStatus.values()[in.readByte()];
+				long version = in.readLong();
+				Instant timestamp = Instant.ofEpochSecond(in.readLong(), in.readInt());
+				int tradeLength = in.readInt();
+				if (tradeLength < 0 || tradeLength > fileSize) {
+					throw new IllegalArgumentException("Trade lifecycle snapshot is corrupt: " + file);
+				}
+				byte[] trade = new byte[tradeLength];
+				in.readFully(trade);
+				List<TradeLink> links = new ArrayList<>();
+				for (int j = in.readInt(); j > 0; j--) {
+					TradeLinkType type = TradeLinkType.values()[in.readByte()];
+					links.add(TradeLink.of(type, StandardId.parse(in.readUTF()), StandardId.parse(in.readUTF())));
+				}
+				states.put(tradeId, TradeState.of(tradeId, readTrade(trade), status, version, timestamp, links));
+			}
+			long checksum = crc.getValue();
+			if (in.readLong() != checksum || in.read() >= 0) {
+				throw new IllegalArgumentException("Trade lifecycle snapshot fails its checksum: " + file);
+			}
+			return sequence;
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	//-------------------------------------------------------------------------
+	// the event at the position
+	private TradeEvent read(long position) {
+		TradeEventSegment segment = segments.get((int) (position >>> 32));
+		return decode(segment.read((int) position));
+	}
+
+	// the position of a record, the segment index in the high bits and the offset in the low bits
+	private static long position(int segmentIndex, int offset) {
+		return ((long) segmentIndex << 32) | offset;
+	}
+
+	// encodes an event as the payload of a record
+	private static byte[] encode(TradeEvent event) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeLong(event.getSequence());
+			out.writeLong(event.getTimestamp().getEpochSecond());
+			out.writeInt(event.getTimestamp().getNano());
+			out.writeByte(event.getType().ordinal());
+			writeString(out, event.getTradeId().toString());
+			TradeLink link = event.getLink().orElse(null);
+			out.writeByte(link != null ? link.getType().ordinal() : -1);
+			if (link != null) {
+				writeString(out, link.getFromTradeId().toString());
+				writeString(out, link.getToTradeId().toString());
+			}
+			Trade trade = event.getTrade().orElse(null);
+			byte[] tradeBytes = trade != null ? JodaBeanFormat.BINARY.write((Bean) trade) : new byte[0];
+			out.writeInt(tradeBytes.length);
+			out.write(tradeBytes);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return bytes.toByteArray();
+	}
+
+	// decodes an event from the payload of a record
+	private static TradeEvent decode(ByteBuffer payload) {
+		long sequence = payload.getLong();
+		Instant timestamp = Instant.ofEpochSecond(payload.getLong(), payload.getInt());
+		TradeEventType type = TradeEventType.values()[payload.get()];
+		StandardId tradeId = StandardId.parse(getString(payload));
+		TradeLink link = getLink(payload);
+		byte[] trade = new byte[payload.getInt()];
+		payload.get(trade);
+		return TradeEvent.of(sequence, timestamp, type, tradeId, trade.length > 0 ? readTrade(trade) : null, link);
+	}
+
+	// reads a trade written in the binary format
+	private static Trade readTrade(byte[] bytes) {
+		try {
+			return JodaBeanFormat.BINARY.read(new ByteArrayInputStream(bytes), Trade.class);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	// reads the optional link of an event
+	private static TradeLink getLink(ByteBuffer payload) {
+		byte type = payload.get();
+		if (type < 0) {
+			return null;
+		}
+		StandardId from = StandardId.parse(getString(payload));
+		StandardId to = StandardId.parse(getString(payload));
+		return TradeLink.of(TradeLinkType.values()[type], from, to);
+	}
+
+	// writes a string as its UTF-8 length and bytes
+	private static void writeString(DataOutputStream out, String str) throws IOException {
+		byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > MAX_STRING_LENGTH) {
+			throw new IllegalArgumentException(
+					"Identifier is too long to record, " + bytes.length + " bytes: " + str.substring(0, 64) + "...");
+		}
+		out.writeShort(bytes.length);
+		out.write(bytes);
+	}
+
+	// reads a string written as its UTF-8 length and bytes
+	private static String getString(ByteBuffer payload) {
+		byte[] bytes = new byte[payload.getShort() & 0xFFFF];
+		payload.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	//-------------------------------------------------------------------------
+	/**
+	 * The positions of the events of a trade, in the order they were recorded.
+	 */
+	private static final class EventPositions {
+		private long[] positions = new long[4];
+		private int size;
+
+		private void add(long position) {
+			if (size == positions.length) {
+				positions = Arrays.copyOf(positions, size * 2);
+			}
+			positions[size++] = position;
+		}
+	}
+
+}
@@ -1,5 +1,130 @@
 package com.daocheng.trade.state;
 
-public class TradeState {
+import java.time.Instant;
+import java.util.Objects;
+
+import com.daocheng.trade.link.TradeLink;
+import com.google.common.collect.ImmutableList;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.product.Trade;
+
+/**
+ * The state of a trade after an event in the trade lifecycle log.
+ * <p>
+ * The state holds the current terms of the trade, its status, and the links to and from it.
+ * The version is the sequence number of the last event applied to the trade.
+ * Instances are immutable, each lifecycle event creates a new state.
+ */
+public final class TradeState {
+
+	private final StandardId tradeId;
+	private final Trade trade;
+	private final TradeStatus status;
+	private final long version;
+	private final Instant timestamp;
+	private final ImmutableList<TradeLink> links;
+
+	/**
+	 * Obtains a state.
+	 *
+	 * @param tradeId  the trade identifier
+	 * @param trade  the current terms of the trade
+	 * @param status  the status of the trade
+	 * @param version  the sequence number of the last event applied to the trade
+	 * @param timestamp  the time of the last event applied to the trade
+	 * @param links  the links to and from the trade
+	 * @return the state
+	 */
+	public static TradeState of(
+			StandardId tradeId,
+			Trade trade,
+			TradeStatus status,
+			long version,
+			Instant timestamp,
+			Iterable<TradeLink> links) {
+
+		return new TradeState(tradeId, trade, status, version, timestamp, ImmutableList.copyOf(links));
+	}
+
+	private TradeState(
+			StandardId tradeId,
+			Trade trade,
+			TradeStatus status,
+			long version,
+			Instant timestamp,
+			ImmutableList<TradeLink> links) {
+
+		this.tradeId = Objects.requireNonNull(tradeId, "tradeId");
+		this.trade = Objects.requireNonNull(trade, "trade");
+		this.status = Objects.requireNonNull(status, "status");
+		this.version = version;
+		this.timestamp = Objects.requireNonNull(timestamp, "timestamp");
+		this.links = links;
+	}
+
+	//-------------------------------------------------------------------------
+	/**
+	 * Returns the state with the terms of the trade replaced.
+	 *
+	 * @param event  the event
+	 * @param trade  the new terms of the trade
+	 * @return the state after the event
+	 */
+	TradeState withTrade(TradeEvent event, Trade trade) {
+		return new TradeState(tradeId, trade, status, event.getSequence(), event.getTimestamp(), links);
+	}
+
+	/**
+	 * Returns the state with the status replaced.
+	 *
+	 * @param event  the event
+	 * @param status  the new status
+	 * @return the state after the event
+	 */
+	TradeState withStatus(TradeEvent event, TradeStatus status) {
+		return new TradeState(tradeId, trade, status, event.getSequence(), event.getTimestamp(), links);
+	}
+
+	/**
+	 * Returns the state with a link added.
+	 *
+	 * @param event  the event
+	 * @param link  the link
+	 * @return the state after the event
+	 */
+	TradeState withLink(TradeEvent event, TradeLink link) {
+		ImmutableList<TradeLink> newLinks = ImmutableList.<TradeLink>builder().addAll(links).add(link).build();
+		return new TradeState(tradeId, trade, status, event.getSequence(), event.getTimestamp(), newLinks);
+	}
+
+	//-------------------------------------------------------------------------
+	public StandardId getTradeId() {
+		return tradeId;
+	}
+
+	public Trade getTrade() {
+		return trade;
+	}
+
+	public TradeStatus getStatus() {
+		return status;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public Instant getTimestamp() {
+		return timestamp;
+	}
+
+	public ImmutableList<TradeLink> getLinks() {
+		return links;
+	}
+
+	@Override
+	public String toString() {
+		return "TradeState[" + tradeId + ", " + status + ", version=" + version + ", " + timestamp + "]";
+	}
 
 }
@@ -0,0 +1,21 @@
+package com.daocheng.trade.state;
+
+/**
+ * The lifecycle status of a trade.
+ */
+public enum TradeStatus {
+
+	/**
+	 * The trade is live, and may be amended, novated, cancelled or linked.
+	 */
+	LIVE,
+	/**
+	 * The trade was novated, and replaced by the trade it links to.
+	 */
+	NOVATED,
+	/**
+	 * The trade was cancelled.
+	 */
+	CANCELLED;
+
+}
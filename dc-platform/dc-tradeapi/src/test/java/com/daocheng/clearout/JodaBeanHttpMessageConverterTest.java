@@ -0,0 +1,89 @@
+package com.daocheng.clearout;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.testng.annotations.Test;
+
+import com.opengamma.strata.product.payment.BulletPaymentTrade;
+
+/**
+ * Test {@link JodaBeanHttpMessageConverter}.
+ */
+@Test
+public class JodaBeanHttpMessageConverterTest {
+
+	private static final JodaBeanHttpMessageConverter CONVERTER = new JodaBeanHttpMessageConverter();
+
+	//-------------------------------------------------------------------------
+	public void test_beans() {
+		assertTrue(CONVERTER.canRead(BulletPaymentTrade.class, null, MediaType.APPLICATION_JSON));
+		assertTrue(CONVERTER.canRead(BulletPaymentTrade.class, null, JodaBeanHttpMessageConverter.BINARY));
+		assertTrue(CONVERTER.canWrite(BulletPaymentTrade.class, MediaType.APPLICATION_JSON));
+		assertTrue(CONVERTER.canWrite(BulletPaymentTrade.class, JodaBeanHttpMessageConverter.BINARY));
+		assertFalse(CONVERTER.canWrite(BulletPaymentTrade.class, MediaType.TEXT_PLAIN));
+	}
+
+	public void test_nonBeans() {
+		assertFalse(CONVERTER.canRead(ResponseBean.class, null, MediaType.APPLICATION_JSON));
+		assertFalse(CONVERTER.canRead(Map.class, null, MediaType.APPLICATION_JSON));
+		assertFalse(CONVERTER.canWrite(ResponseBean.class, MediaType.APPLICATION_JSON));
+		assertFalse(CONVERTER.canWrite(Map.class, MediaType.APPLICATION_JSON));
+		assertFalse(CONVERTER.canWrite(String.class, MediaType.APPLICATION_JSON));
+		assertFalse(CONVERTER.canWrite(null, MediaType.APPLICATION_JSON));
+	}
+
+	//-------------------------------------------------------------------------
+	// the converter is first in the list, but only answers for Joda-Beans, so it never shadows Jackson
+	public void test_configured_doesNotShadowJackson() {
+		List<HttpMessageConverter<?>> converters = new ArrayList<>();
+		StringHttpMessageConverter strings = new StringHttpMessageConverter();
+		MappingJackson2HttpMessageConverter jackson = new TradeAPISeverConfig().mappingJackson2HttpMessageConverter();
+		converters.add(strings);
+		converters.add(jackson);
+		new TradeAPISeverConfig().configureMessageConverters(converters);
+		assertEquals(converters.get(0).getClass(), JodaBeanHttpMessageConverter.class);
+
+		assertSame(writerOf(converters, ResponseBean.class, MediaType.APPLICATION_JSON), jackson);
+		assertSame(writerOf(converters, Map.class, MediaType.APPLICATION_JSON), jackson);
+		assertSame(writerOf(converters, String.class, MediaType.TEXT_PLAIN), strings);
+		assertSame(readerOf(converters, ResponseBean.class, MediaType.APPLICATION_JSON), jackson);
+		assertEquals(writerOf(converters, BulletPaymentTrade.class, MediaType.APPLICATION_JSON).getClass(),
+				JodaBeanHttpMessageConverter.class);
+	}
+
+	// the first converter that writes the type, as chosen by Spring
+	private static HttpMessageConverter<?> writerOf(
+			List<HttpMessageConverter<?>> converters, Class<?> type, MediaType mediaType) {
+
+		for (HttpMessageConverter<?> converter : converters) {
+			if (converter.canWrite(type, mediaType)) {
+				return converter;
+			}
+		}
+		return null;
+	}
+
+	// the first converter that reads the type, as chosen by Spring
+	private static HttpMessageConverter<?> readerOf(
+			List<HttpMessageConverter<?>> converters, Class<?> type, MediaType mediaType) {
+
+		for (HttpMessageConverter<?> converter : converters) {
+			if (converter.canRead(type, mediaType)) {
+				return converter;
+			}
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,273 @@
+package com.daocheng.trade.capture;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.joda.beans.Bean;
+import org.joda.beans.ser.JodaBeanSer;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import com.daocheng.common.JodaBeanFormat;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.WriteConcernError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.date.AdjustableDate;
+import com.opengamma.strata.product.TradeInfo;
+import com.opengamma.strata.product.common.PayReceive;
+import com.opengamma.strata.product.payment.BulletPayment;
+import com.opengamma.strata.product.payment.BulletPaymentTrade;
+
+/**
+ * Test {@link TradeCapturePipeline}.
+ */
+@Test
+public class TradeCapturePipelineTest {
+
+	private static final long TIMEOUT_SECONDS = 10;
+
+	//-------------------------------------------------------------------------
+	public void test_submit() throws Exception {
+		List<String> saved = Collections.synchronizedList(new ArrayList<>());
+		try (TradeCapturePipeline pipeline = start(requests -> {
+			saved.addAll(tradeIds(requests));
+			return BulkWriteResult.unacknowledged();
+		})) {
+			pipeline.submit(json("1")).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			pipeline.submit(trade("2")).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		}
+		assertEquals(saved, list("trade~1", "trade~2"));
+	}
+
+	public void test_submit_storesBinary() throws Exception {
+		List<Object> stored = Collections.synchronizedList(new ArrayList<>());
+		try (TradeCapturePipeline pipeline = start(requests -> {
+			for (InsertOneModel<RawBsonDocument> request : requests) {
+				RawBsonDocument document = request.getDocument();
+				byte[] binary = document.getBinary(TradeCapturePipeline.BINARY_FIELD).getData();
+				stored.add(JodaBeanFormat.BINARY.read(new ByteArrayInputStream(binary), Bean.class));
+				// the JSON fields are intact
+				assertEquals(document.getDocument("info").getString("id").getValue(), "trade~1");
+			}
+			return BulkWriteResult.unacknowledged();
+		})) {
+			pipeline.submit(json("1")).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		}
+		assertEquals(stored, list(trade("1")));
+	}
+
+	public void test_submit_invalid() throws Exception {
+		try (TradeCapturePipeline pipeline = start(requests -> BulkWriteResult.unacknowledged())) {
+			assertFailure(pipeline.submit("{\"not\":\"a trade\"}"), IllegalArgumentException.class);
+			assertFailure(pipeline.submit(BulletPayment.builder()
+					.payReceive(PayReceive.PAY)
+					.value(CurrencyAmount.of(Currency.GBP, 1000))
+					.date(AdjustableDate.of(LocalDate.of(2017, 6, 30)))
+					.build()), IllegalArgumentException.class);
+		}
+	}
+
+	//-------------------------------------------------------------------------
+	public void test_partialFailure() throws Exception {
+		List<String> saved = Collections.synchronizedList(new ArrayList<>());
+		try (TradeCapturePipeline pipeline = start(requests -> {
+			// the duplicate fails wherever it falls in a batch, the trades before it are saved
+			List<String> tradeIds = tradeIds(requests);
+			int duplicate = tradeIds.indexOf("trade~dup");
+			if (duplicate >= 0) {
+				saved.addAll(tradeIds.subList(0, duplicate));
+				BulkWriteError error = new BulkWriteError(11000, "duplicate key", new BsonDocument(), duplicate);
+				throw new MongoBulkWriteException(
+						BulkWriteResult.unacknowledged(), list(error), null, new ServerAddress());
+			}
+			saved.addAll(tradeIds);
+			return BulkWriteResult.unacknowledged();
+		})) {
+			List<CompletableFuture<Void>> results = pipeline.submitAll(list(json("1"), json("dup"), json("3")));
+			results.get(0).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			assertFailure(results.get(1), IllegalArgumentException.class);
+			results.get(2).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		}
+		assertEquals(saved, list("trade~1", "trade~3"));
+	}
+
+	public void test_writeConcernFailure() throws Exception {
+		boolean[] journaled = {false};
+		try (TradeCapturePipeline pipeline = start(requests -> {
+			if (!journaled[0]) {
+				journaled[0] = true;
+				WriteConcernError error = new WriteConcernError(100, "journal unavailable", new BsonDocument());
+				throw new MongoBulkWriteException(
+						BulkWriteResult.unacknowledged(), new ArrayList<>(), error, new ServerAddress());
+			}
+			return BulkWriteResult.unacknowledged();
+		})) {
+			assertFailure(pipeline.submit(json("1")), IllegalStateException.class);
+			// the writer survives the failure
+			pipeline.submit(json("2")).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		}
+	}
+
+	public void test_unexpectedFailure() throws Exception {
+		boolean[] failed = {false};
+		try (TradeCapturePipeline pipeline = start(requests -> {
+			if (!failed[0]) {
+				failed[0] = true;
+				throw new AssertionError("unexpected");
+			}
+			return BulkWriteResult.unacknowledged();
+		})) {
+			assertFailure(pipeline.submit(json("1")), AssertionError.class);
+			pipeline.submit(json("2")).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		}
+	}
+
+	//-------------------------------------------------------------------------
+	public void test_close_drainsAcceptedTrades() throws Exception {
+		List<String> saved = Collections.synchronizedList(new ArrayList<>());
+		TradeCapturePipeline pipeline = start(requests -> {
+			saved.addAll(tradeIds(requests));
+			return BulkWriteResult.unacknowledged();
+		});
+		List<String> trades = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			trades.add(json(Integer.toString(i)));
+		}
+		List<CompletableFuture<Void>> results = pipeline.submitAll(trades);
+		pipeline.close();
+		for (CompletableFuture<Void> result : results) {
+			assertTrue(result.isDone());
+			assertFalse(result.isCompletedExceptionally());
+		}
+		assertEquals(saved.size(), 100);
+		assertFailure(pipeline.submit(json("late")), RejectedExecutionException.class);
+	}
+
+	public void test_close_whileSubmitting() throws Exception {
+		List<String> saved = Collections.synchronizedList(new ArrayList<>());
+		TradeCapturePipeline pipeline = start(requests -> {
+			saved.addAll(tradeIds(requests));
+			return BulkWriteResult.unacknowledged();
+		});
+		List<CompletableFuture<Void>> results = Collections.synchronizedList(new ArrayList<>());
+		Thread submitter = new Thread(() -> {
+			// submits until the pipeline rejects a trade as closed
+			CompletableFuture<Void> result;
+			int i = 0;
+			do {
+				result = pipeline.submit(json(Integer.toString(i++)));
+				results.add(result);
+			} while (!result.isCompletedExceptionally());
+		});
+		submitter.start();
+		while (results.size() < 50 && submitter.isAlive()) {
+			Thread.sleep(1);
+		}
+		pipeline.close();
+		submitter.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+		// every trade is either saved or rejected, none is left waiting
+		int written = 0;
+		for (CompletableFuture<Void> result : new ArrayList<>(results)) {
+			assertTrue(result.isDone());
+			if (!result.isCompletedExceptionally()) {
+				written++;
+			}
+		}
+		assertEquals(saved.size(), written);
+	}
+
+	//-------------------------------------------------------------------------
+	// starts a pipeline writing to a collection that answers each bulk write
+	@SuppressWarnings("unchecked")
+	private static TradeCapturePipeline start(BulkWrite bulkWrite) {
+		MongoCollection<Document> collection = mock(MongoCollection.class);
+		MongoCollection<Document> journaled = mock(MongoCollection.class);
+		MongoCollection<RawBsonDocument> raw = mock(MongoCollection.class);
+		when(collection.withWriteConcern(WriteConcern.JOURNALED)).thenReturn(journaled);
+		when(journaled.withDocumentClass(RawBsonDocument.class)).thenReturn(raw);
+		Answer<BulkWriteResult> answer = invocation ->
+				bulkWrite.write((List<InsertOneModel<RawBsonDocument>>) invocation.getArguments()[0]);
+		when(raw.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenAnswer(answer);
+		return TradeCapturePipeline.start(collection, 16, 2, 4, 1000);
+	}
+
+	// the identifiers of the trades in the bulk write
+	private static List<String> tradeIds(List<InsertOneModel<RawBsonDocument>> requests) {
+		List<String> tradeIds = new ArrayList<>();
+		for (InsertOneModel<RawBsonDocument> request : requests) {
+			tradeIds.add(request.getDocument().getDocument("info").getString("id").getValue());
+		}
+		return tradeIds;
+	}
+
+	private static void assertFailure(CompletableFuture<Void> result, Class<? extends Throwable> type)
+			throws Exception {
+		try {
+			result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			fail("Expected " + type.getSimpleName());
+		} catch (ExecutionException ex) {
+			assertEquals(ex.getCause().getClass(), type);
+		}
+	}
+
+	private static BulletPaymentTrade trade(String id) {
+		BulletPayment product = BulletPayment.builder()
+				.payReceive(PayReceive.PAY)
+				.value(CurrencyAmount.of(Currency.GBP, 1000))
+				.date(AdjustableDate.of(LocalDate.of(2017, 6, 30)))
+				.build();
+		TradeInfo info = TradeInfo.builder()
+				.id(StandardId.of("trade", id))
+				.tradeDate(LocalDate.of(2017, 6, 28))
+				.build();
+		return BulletPaymentTrade.of(info, product);
+	}
+
+	private static String json(String id) {
+		return JodaBeanSer.COMPACT.jsonWriter().write(trade(id));
+	}
+
+	@SafeVarargs
+	private static <T> List<T> list(T... values) {
+		List<T> list = new ArrayList<>();
+		Collections.addAll(list, values);
+		return list;
+	}
+
+	/**
+	 * Answers a bulk write of trades.
+	 */
+	private interface BulkWrite {
+		BulkWriteResult write(List<InsertOneModel<RawBsonDocument>> requests) throws IOException;
+	}
+
+}
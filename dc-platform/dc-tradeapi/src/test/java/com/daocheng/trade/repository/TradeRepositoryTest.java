@@ -0,0 +1,177 @@
+package com.daocheng.trade.repository;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.joda.beans.ser.JodaBeanSer;
+import org.testng.annotations.Test;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.UpdateOptions;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.date.AdjustableDate;
+import com.opengamma.strata.product.Trade;
+import com.opengamma.strata.product.TradeInfo;
+import com.opengamma.strata.product.common.PayReceive;
+import com.opengamma.strata.product.payment.BulletPayment;
+import com.opengamma.strata.product.payment.BulletPaymentTrade;
+
+/**
+ * Test {@link TradeRepository}.
+ */
+@Test
+public class TradeRepositoryTest {
+
+	private static final StandardId BANK_A = StandardId.of("example", "BankA");
+	private static final StandardId BANK_B = StandardId.of("example", "BankB");
+	private static final LocalDate DATE1 = LocalDate.of(2017, 6, 1);
+	private static final LocalDate DATE2 = LocalDate.of(2017, 6, 2);
+	private static final LocalDate DATE3 = LocalDate.of(2017, 6, 3);
+
+	//-------------------------------------------------------------------------
+	public void test_load() {
+		Document document = document(trade("1", "A", BANK_A, DATE1));
+		document.put("_id", "1");
+		TradeRepository test = TradeRepository.load(collection(new ConcurrentHashMap<>(), document));
+		assertEquals(test.size(), 1);
+		assertEquals(test.get(StandardId.of("trade", "1")).get(), trade("1", "A", BANK_A, DATE1));
+	}
+
+	public void test_query() {
+		TradeRepository test = TradeRepository.load(collection(new ConcurrentHashMap<>()));
+		Trade trade1 = trade("1", "A", BANK_A, DATE1);
+		Trade trade2 = trade("2", "A", BANK_B, DATE2);
+		Trade trade3 = trade("3", "B", BANK_A, DATE3);
+		test.saveAll(list(trade1, trade2, trade3));
+		assertEquals(test.query(TradeQuery.all()), list(trade1, trade2, trade3));
+		assertEquals(test.query(TradeQuery.all().withBook("A")), list(trade1, trade2));
+		assertEquals(test.query(TradeQuery.all().withCounterparty(BANK_A)), list(trade1, trade3));
+		assertEquals(test.query(TradeQuery.all().withBook("A").withCounterparty(BANK_A)), list(trade1));
+		assertEquals(test.query(TradeQuery.all().withProductType("BulletPayment")), list(trade1, trade2, trade3));
+		assertEquals(test.query(TradeQuery.all().withProductType("Swap")), list());
+		assertEquals(test.query(TradeQuery.all().withTradeDates(DATE2, null)), list(trade2, trade3));
+		assertEquals(test.query(TradeQuery.all().withTradeDates(null, DATE2)), list(trade1, trade2));
+		assertEquals(test.query(TradeQuery.all().withTradeDates(DATE2, DATE2)), list(trade2));
+		assertEquals(test.query(TradeQuery.all().withBook("C")), list());
+	}
+
+	public void test_save_replace() {
+		TradeRepository test = TradeRepository.load(collection(new ConcurrentHashMap<>()));
+		Trade trade1 = trade("1", "A", BANK_A, DATE1);
+		Trade trade2 = trade("2", "A", BANK_A, DATE1);
+		test.saveAll(list(trade1, trade2));
+		int indexSize = test.indexSize();
+
+		Trade amended = trade("1", "B", BANK_B, DATE2);
+		test.save(amended);
+		assertEquals(test.size(), 2);
+		assertEquals(test.get(StandardId.of("trade", "1")).get(), amended);
+		assertEquals(test.query(TradeQuery.all()), list(amended, trade2));
+		assertEquals(test.query(TradeQuery.all().withBook("A")), list(trade2));
+		assertEquals(test.query(TradeQuery.all().withBook("B")), list(amended));
+		assertEquals(test.query(TradeQuery.all().withCounterparty(BANK_A)), list(trade2));
+		assertEquals(test.query(TradeQuery.all().withCounterparty(BANK_B)), list(amended));
+		assertEquals(test.query(TradeQuery.all().withTradeDates(DATE1, DATE1)), list(trade2));
+		assertEquals(test.query(TradeQuery.all().withTradeDates(DATE2, DATE2)), list(amended));
+
+		// moving the other trade into the new buckets discards the old ones
+		test.save(trade("2", "B", BANK_B, DATE2));
+		assertEquals(test.indexSize(), indexSize);
+		assertEquals(test.query(TradeQuery.all().withBook("A")), list());
+		assertEquals(test.query(TradeQuery.all().withTradeDates(DATE1, DATE1)), list());
+	}
+
+	public void test_save_concurrent() throws Exception {
+		Map<Object, Document> written = new ConcurrentHashMap<>();
+		TradeRepository test = TradeRepository.load(collection(written));
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				Trade trade = trade("1", "book" + i, BANK_A, DATE1);
+				results.add(executor.submit(() -> test.save(trade)));
+			}
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		// the trade held is the trade last written to MongoDB
+		Trade held = test.get(StandardId.of("trade", "1")).get();
+		assertEquals(document(held), written.get("trade~1"));
+		String book = held.getInfo().getAttribute(TradeRepository.BOOK);
+		assertEquals(test.query(TradeQuery.all().withBook(book)), list(held));
+		assertTrue(test.indexSize() <= 4);
+	}
+
+	//-------------------------------------------------------------------------
+	// a collection holding the documents, keyed by trade identifier, as they are replaced
+	@SuppressWarnings("unchecked")
+	private static MongoCollection<Document> collection(Map<Object, Document> written, Document... documents) {
+		MongoCollection<Document> collection = mock(MongoCollection.class);
+		FindIterable<Document> iterable = mock(FindIterable.class);
+		MongoCursor<Document> cursor = mock(MongoCursor.class);
+		when(collection.find()).thenReturn(iterable);
+		when(iterable.batchSize(anyInt())).thenReturn(iterable);
+		when(iterable.iterator()).thenReturn(cursor);
+		List<Document> remaining = new ArrayList<>(list(documents));
+		when(cursor.hasNext()).thenAnswer(invocation -> !remaining.isEmpty());
+		when(cursor.next()).thenAnswer(invocation -> remaining.remove(0));
+		when(collection.replaceOne(any(Bson.class), any(Document.class), any(UpdateOptions.class)))
+				.thenAnswer(invocation -> {
+					Document document = (Document) invocation.getArguments()[1];
+					written.put(((Document) document.get("info")).get("id"), document);
+					return null;
+				});
+		return collection;
+	}
+
+	private static Document document(Trade trade) {
+		return Document.parse(JodaBeanSer.COMPACT.jsonWriter().write(trade));
+	}
+
+	private static Trade trade(String id, String book, StandardId counterparty, LocalDate tradeDate) {
+		BulletPayment product = BulletPayment.builder()
+				.payReceive(PayReceive.PAY)
+				.value(CurrencyAmount.of(Currency.GBP, 1000))
+				.date(AdjustableDate.of(LocalDate.of(2017, 9, 29)))
+				.build();
+		TradeInfo info = TradeInfo.builder()
+				.id(StandardId.of("trade", id))
+				.counterparty(counterparty)
+				.tradeDate(tradeDate)
+				.addAttribute(TradeRepository.BOOK, book)
+				.build();
+		return BulletPaymentTrade.of(info, product);
+	}
+
+	@SafeVarargs
+	private static <T> List<T> list(T... values) {
+		List<T> list = new ArrayList<>();
+		for (T value : values) {
+			list.add(value);
+		}
+		return list;
+	}
+
+}
@@ -0,0 +1,421 @@
+package com.daocheng.trade.state;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.daocheng.trade.link.TradeLink;
+import com.daocheng.trade.link.TradeLinkType;
+import com.opengamma.strata.basics.StandardId;
+import com.opengamma.strata.basics.currency.Currency;
+import com.opengamma.strata.basics.currency.CurrencyAmount;
+import com.opengamma.strata.basics.date.AdjustableDate;
+import com.opengamma.strata.product.Trade;
+import com.opengamma.strata.product.TradeInfo;
+import com.opengamma.strata.product.common.PayReceive;
+import com.opengamma.strata.product.payment.BulletPayment;
+import com.opengamma.strata.product.payment.BulletPaymentTrade;
+
+/**
+ * Test {@link TradeLifecycleStore}.
+ */
+@Test
+public class TradeLifecycleStoreTest {
+
+	private static final Instant START = Instant.parse("2017-06-30T09:00:00Z");
+	/**
+	 * The segment size that holds a single event in each segment.
+	 */
+	private static final int ONE_EVENT_SEGMENT_SIZE = TradeEventSegment.minimumCapacity(0);
+	private static final int LARGE_SNAPSHOT_INTERVAL = 1_000_000;
+
+	private Path directory;
+	private TickingClock clock;
+
+	@BeforeMethod
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("trade-lifecycle");
+		clock = new TickingClock();
+	}
+
+	@AfterMethod
+	public void tearDown() throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+		}
+	}
+
+	//-------------------------------------------------------------------------
+	public void test_appendAndReplay() {
+		Map<StandardId, String> expected;
+		List<TradeEvent> history;
+		try (TradeLifecycleStore store = open(TradeLifecycleStore.DEFAULT_SEGMENT_SIZE)) {
+			store.newTrade(trade("1", 1000));
+			store.newTrade(trade("2", 2000));
+			store.amend(trade("1", 1500));
+			store.novate(id("2"), trade("3", 2000));
+			store.link(TradeLink.of(TradeLinkType.HEDGE, id("1"), id("3")));
+			store.cancel(id("1"));
+			expected = states(store, "1", "2", "3");
+			history = store.history(id("1"));
+			assertEquals(store.getLastSequence(), 6);
+			assertEquals(store.state(id("1")).get().getStatus(), TradeStatus.CANCELLED);
+			assertEquals(store.state(id("2")).get().getStatus(), TradeStatus.NOVATED);
+			assertEquals(store.state(id("3")).get().getLinks().size(), 2);
+		}
+		try (TradeLifecycleStore store = open(TradeLifecycleStore.DEFAULT_SEGMENT_SIZE)) {
+			assertEquals(store.getLastSequence(), 6);
+			assertEquals(states(store, "1", "2", "3"), expected);
+			assertEquals(describe(store.history(id("1"))), describe(history));
+		}
+	}
+
+	public void test_save() {
+		try (TradeLifecycleStore store = open(TradeLifecycleStore.DEFAULT_SEGMENT_SIZE)) {
+			assertEquals(store.save(trade("1", 1000)).getVersion(), 1);
+			TradeState amended = store.save(trade("1", 2000));
+			assertEquals(amended.getVersion(), 2);
+			assertEquals(amount(amended), 2000d);
+			assertEquals(store.history(id("1")).get(1).getType(), TradeEventType.AMEND);
+			store.cancel(id("1"));
+			try {
+				store.save(trade("1", 3000));
+				fail("Expected IllegalArgumentException");
+			} catch (IllegalArgumentException ex) {
+				// expected
+			}
+			assertEquals(store.getLastSequence(), 3);
+		}
+	}
+
+	public void test_reopenAfterRollOver() {
+		Map<StandardId, String> expected;
+		try (TradeLifecycleStore store = open(ONE_EVENT_SEGMENT_SIZE)) {
+			for (int i = 0; i < 10; i++) {
+				store.newTrade(trade(Integer.toString(i), 1000));
+			}
+			store.amend(trade("5", 5000));
+			expected = states(store, "0", "5", "9");
+		}
+		assertEquals(files("segment-*.log").size(), 11);
+		try (TradeLifecycleStore store = open(ONE_EVENT_SEGMENT_SIZE)) {
+			assertEquals(store.getLastSequence(), 11);
+			assertEquals(states(store, "0", "5", "9"), expected);
+			assertEquals(store.history(id("5")).size(), 2);
+			store.amend(trade("9", 9000));
+		}
+		try (TradeLifecycleStore store = open(ONE_EVENT_SEGMENT_SIZE)) {
+			assertEquals(store.getLastSequence(), 12);
+			assertEquals(amount(store.state(id("9")).get()), 9000d);
+		}
+	}
+
+	//-------------------------------------------------------------------------
+	public void test_tornTailRecord() throws IOException {
+		populate(TradeLifecycleStore.DEFAULT_SEGMENT_SIZE, 3);
+		Path segment = files("segment-*.log").get(0);
+		List<Integer> offsets = recordOffsets(segment);
+		// the length is written last, so a torn record has a length of zero
+		update(segment, buffer -> buffer.putInt(offsets.get(2), 0));
+		assertRecoversFirstTwo(TradeLifecycleStore.DEFAULT_SEGMENT_SIZE);
+	}
+
+	public void test_checksumMismatch() throws IOException {
+		populate(TradeLifecycleStore.DEFAULT_SEGMENT_SIZE, 3);
+		Path segment = files("segment-*.log").get(0);
+		int payload = recordOffsets(segment).get(2) + 8;
+		update(segment, buffer -> buffer.put(payload + 20, (byte) (buffer.get(payload + 20) ^ 0xFF)));
+		assertRecoversFirstTwo(TradeLifecycleStore.DEFAULT_SEGMENT_SIZE);
+	}
+
+	public void test_headerlessLastSegment() throws IOException {
+		populate(ONE_EVENT_SEGMENT_SIZE, 2);
+		// the process failed while creating the segment for the third event
+		Path created = directory.resolve(TradeEventSegment.fileName(3));
+		Files.createFile(created);
+		try (TradeLifecycleStore store = open(ONE_EVENT_SEGMENT_SIZE)) {
+			assertEquals(store.getLastSequence(), 2);
+			assertFalse(Files.exists(created));
+			store.newTrade(trade("2", 1000));
+			assertEquals(store.getLastSequence(), 3);
+		}
+		try (TradeLifecycleStore store = open(ONE_EVENT_SEGMENT_SIZE)) {
+			assertEquals(store.getLastSequence(), 3);
+		}
+	}
+
+	public void test_sequenceGapAcrossSegments() throws IOException {
+		populate(ONE_EVENT_SEGMENT_SIZE, 5);
+		List<Path> segments = files("segment-*.log");
+		// the third segment was never forced, so the events after it cannot be trusted
+		Files.delete(segments.get(2));
+		try (TradeLifecycleStore store = open(ONE_EVENT_SEGMENT_SIZE)) {
+			assertEquals(store.getLastSequence(), 2);
+			assertTrue(store.state(id("1")).isPresent());
+			assertFalse(store.state(id("2")).isPresent());
+			assertFalse(store.state(id("4")).isPresent());
+			assertEquals(files("segment-*.log").size(), 2);
+			assertEquals(files("segment-*.log.discarded-*").size(), 2);
+			store.newTrade(trade("2", 1000));
+			assertEquals(store.getLastSequence(), 3);
+		}
+		try (TradeLifecycleStore store = open(ONE_EVENT_SEGMENT_SIZE)) {
+			assertEquals(store.getLastSequence(), 3);
+			assertTrue(store.state(id("2")).isPresent());
+		}
+	}
+
+	//-------------------------------------------------------------------------
+	public void test_snapshotThenReplay_matchesFullReplay() throws IOException {
+		Map<StandardId, String> expected;
+		try (TradeLifecycleStore store = open(ONE_EVENT_SEGMENT_SIZE, 4)) {
+			for (int i = 0; i < 10; i++) {
+				store.newTrade(trade(Integer.toString(i), 1000));
+			}
+			store.amend(trade("2", 2000));
+			store.novate(id("3"), trade("10", 3000));
+			store.link(TradeLink.of(TradeLinkType.PACKAGE, id("4"), id("5")));
+			store.cancel(id("6"));
+			store.snapshot();
+			store.amend(trade("7", 7000));
+			expected = states(store, "2", "3", "4", "5", "6", "7", "10");
+		}
+		assertEquals(files("snapshot-*.bin").size(), 1);
+		try (TradeLifecycleStore store = open(ONE_EVENT_SEGMENT_SIZE, 4)) {
+			assertEquals(states(store, "2", "3", "4", "5", "6", "7", "10"), expected);
+		}
+		for (Path snapshot : files("snapshot-*.bin")) {
+			Files.delete(snapshot);
+		}
+		try (TradeLifecycleStore store = open(ONE_EVENT_SEGMENT_SIZE, LARGE_SNAPSHOT_INTERVAL)) {
+			assertEquals(states(store, "2", "3", "4", "5", "6", "7", "10"), expected);
+		}
+	}
+
+	public void test_corruptSnapshot_fallsBackToReplay() throws IOException {
+		Map<StandardId, String> expected;
+		try (TradeLifecycleStore store = open(TradeLifecycleStore.DEFAULT_SEGMENT_SIZE)) {
+			store.newTrade(trade("1", 1000));
+			store.amend(trade("1", 2000));
+			store.snapshot();
+			store.newTrade(trade("2", 1000));
+			expected = states(store, "1", "2");
+		}
+		Path snapshot = files("snapshot-*.bin").get(0);
+		byte[] bytes = Files.readAllBytes(snapshot);
+		bytes[bytes.length / 2] ^= 0xFF;
+		Files.write(snapshot, bytes);
+		try (TradeLifecycleStore store = open(TradeLifecycleStore.DEFAULT_SEGMENT_SIZE)) {
+			assertEquals(states(store, "1", "2"), expected);
+		}
+	}
+
+	//-------------------------------------------------------------------------
+	public void test_stateAsOf() {
+		try (TradeLifecycleStore store = open(TradeLifecycleStore.DEFAULT_SEGMENT_SIZE)) {
+			store.newTrade(trade("1", 1000));
+			store.amend(trade("1", 2000));
+			store.cancel(id("1"));
+			// the clock ticks a second on each event
+			assertFalse(store.stateAsOf(id("1"), START.minusSeconds(1)).isPresent());
+			TradeState booked = store.stateAsOf(id("1"), START).get();
+			assertEquals(amount(booked), 1000d);
+			assertEquals(booked.getStatus(), TradeStatus.LIVE);
+			assertEquals(amount(store.stateAsOf(id("1"), START.plusMillis(1500)).get()), 2000d);
+			assertEquals(store.stateAsOf(id("1"), START.plusSeconds(2)).get().getStatus(), TradeStatus.CANCELLED);
+		}
+	}
+
+	public void test_stateAtVersion() {
+		try (TradeLifecycleStore store = open(TradeLifecycleStore.DEFAULT_SEGMENT_SIZE)) {
+			store.newTrade(trade("1", 1000));
+			store.newTrade(trade("2", 1000));
+			store.amend(trade("1", 2000));
+			assertEquals(amount(store.stateAtVersion(id("1"), 2).get()), 1000d);
+			assertEquals(store.stateAtVersion(id("1"), 2).get().getVersion(), 1);
+			assertEquals(amount(store.stateAtVersion(id("1"), 3).get()), 2000d);
+			assertFalse(store.stateAtVersion(id("2"), 1).isPresent());
+		}
+	}
+
+	//-------------------------------------------------------------------------
+	public void test_oversizeIdentifier() {
+		StringBuilder value = new StringBuilder();
+		for (int i = 0; i < 70_000; i++) {
+			value.append('x');
+		}
+		try (TradeLifecycleStore store = open(TradeLifecycleStore.DEFAULT_SEGMENT_SIZE)) {
+			try {
+				store.newTrade(trade(value.toString(), 1000));
+				fail("Expected IllegalArgumentException");
+			} catch (IllegalArgumentException ex) {
+				// expected
+			}
+			assertEquals(store.getLastSequence(), 0);
+			store.newTrade(trade("1", 1000));
+			assertEquals(store.getLastSequence(), 1);
+		}
+	}
+
+	//-------------------------------------------------------------------------
+	private TradeLifecycleStore open(int segmentSize) {
+		return open(segmentSize, LARGE_SNAPSHOT_INTERVAL);
+	}
+
+	private TradeLifecycleStore open(int segmentSize, int snapshotInterval) {
+		return TradeLifecycleStore.open(directory, clock, segmentSize, snapshotInterval);
+	}
+
+	// books the trades "0" to "count - 1", one event each
+	private void populate(int segmentSize, int count) {
+		try (TradeLifecycleStore store = open(segmentSize)) {
+			for (int i = 0; i < count; i++) {
+				store.newTrade(trade(Integer.toString(i), 1000));
+			}
+		}
+	}
+
+	// checks that only the first two of three trades were recovered, and that appends continue
+	private void assertRecoversFirstTwo(int segmentSize) {
+		try (TradeLifecycleStore store = open(segmentSize)) {
+			assertEquals(store.getLastSequence(), 2);
+			assertTrue(store.state(id("1")).isPresent());
+			assertFalse(store.state(id("2")).isPresent());
+			store.newTrade(trade("3", 1000));
+		}
+		try (TradeLifecycleStore store = open(segmentSize)) {
+			assertEquals(store.getLastSequence(), 3);
+			assertFalse(store.state(id("2")).isPresent());
+			assertTrue(store.state(id("3")).isPresent());
+		}
+	}
+
+	private List<Path> files(String glob) throws IOException {
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+			stream.forEach(files::add);
+		}
+		files.sort(Comparator.naturalOrder());
+		return files;
+	}
+
+	// the offsets of the records in a segment file, following the record lengths from the header
+	private static List<Integer> recordOffsets(Path segment) throws IOException {
+		List<Integer> offsets = new ArrayList<>();
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			int offset = 16;
+			while (offset + 8 <= buffer.capacity() && buffer.getInt(offset) > 0) {
+				offsets.add(offset);
+				offset += 8 + buffer.getInt(offset);
+			}
+		}
+		return offsets;
+	}
+
+	private static void update(Path segment, BufferUpdate update) throws IOException {
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+			update.apply(buffer);
+			buffer.force();
+		}
+	}
+
+	// describes the states of the trades, which do not implement equals
+	private static Map<StandardId, String> states(TradeLifecycleStore store, String... ids) {
+		Map<StandardId, String> states = new TreeMap<>();
+		for (String id : ids) {
+			store.state(id(id)).ifPresent(state -> states.put(state.getTradeId(), describe(state)));
+		}
+		return states;
+	}
+
+	private static String describe(TradeState state) {
+		return state + " " + state.getTrade() + " " + state.getLinks();
+	}
+
+	private static List<String> describe(List<TradeEvent> events) {
+		List<String> described = new ArrayList<>();
+		for (TradeEvent event : events) {
+			described.add(event + " " + event.getTrade().orElse(null) + " " + event.getLink().orElse(null));
+		}
+		return described;
+	}
+
+	private static double amount(TradeState state) {
+		return ((BulletPaymentTrade) state.getTrade()).getProduct().getValue().getAmount();
+	}
+
+	private static StandardId id(String id) {
+		return StandardId.of("trade", id);
+	}
+
+	private static Trade trade(String id, double amount) {
+		BulletPayment product = BulletPayment.builder()
+				.payReceive(PayReceive.PAY)
+				.value(CurrencyAmount.of(Currency.GBP, amount))
+				.date(AdjustableDate.of(LocalDate.of(2017, 9, 29)))
+				.build();
+		TradeInfo info = TradeInfo.builder()
+				.id(id(id))
+				.tradeDate(LocalDate.of(2017, 6, 30))
+				.build();
+		return BulletPaymentTrade.of(info, product);
+	}
+
+	/**
+	 * Updates a mapped segment file.
+	 */
+	private interface BufferUpdate {
+		void apply(MappedByteBuffer buffer);
+	}
+
+	/**
+	 * A clock that ticks a second each time it is read, starting at {@link #START}.
+	 */
+	private static final class TickingClock extends Clock {
+		private Instant next = START;
+
+		@Override
+		public synchronized Instant instant() {
+			Instant instant = next;
+			next = next.plusSeconds(1);
+			return instant;
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+}